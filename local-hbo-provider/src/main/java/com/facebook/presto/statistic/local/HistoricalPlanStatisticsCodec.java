@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.statistic.local;
+
+import com.facebook.drift.codec.ThriftCodec;
+import com.facebook.drift.codec.ThriftCodecManager;
+import com.facebook.drift.protocol.TBinaryProtocol;
+import com.facebook.drift.protocol.TTransport;
+import com.facebook.drift.protocol.TTransportException;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.statistics.HistoricalPlanStatistics;
+import io.airlift.slice.BasicSliceInput;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.SliceOutput;
+
+import java.nio.ByteBuffer;
+
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static io.airlift.slice.Slices.wrappedBuffer;
+
+/**
+ * Encodes {@link HistoricalPlanStatistics} with the Thrift binary protocol, reading directly
+ * from the memory mapped log so that a lookup does not copy the record first.
+ */
+public class HistoricalPlanStatisticsCodec
+{
+    private final ThriftCodec<HistoricalPlanStatistics> codec = new ThriftCodecManager().getCodec(HistoricalPlanStatistics.class);
+
+    public byte[] encode(HistoricalPlanStatistics statistics)
+    {
+        DynamicSliceOutput output = new DynamicSliceOutput(256);
+        try {
+            codec.write(statistics, new TBinaryProtocol(new SliceOutputTransport(output)));
+        }
+        catch (Exception e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to encode historical plan statistics", e);
+        }
+        return output.slice().getBytes();
+    }
+
+    public HistoricalPlanStatistics decode(ByteBuffer buffer)
+    {
+        try {
+            return codec.read(new TBinaryProtocol(new SliceInputTransport(new BasicSliceInput(wrappedBuffer(buffer)))));
+        }
+        catch (Exception e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to decode historical plan statistics", e);
+        }
+    }
+
+    private static class SliceOutputTransport
+            implements TTransport
+    {
+        private final SliceOutput output;
+
+        public SliceOutputTransport(SliceOutput output)
+        {
+            this.output = output;
+        }
+
+        @Override
+        public void read(byte[] buf, int off, int len)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void write(byte[] buf, int off, int len)
+        {
+            output.writeBytes(buf, off, len);
+        }
+    }
+
+    private static class SliceInputTransport
+            implements TTransport
+    {
+        private final BasicSliceInput input;
+
+        public SliceInputTransport(BasicSliceInput input)
+        {
+            this.input = input;
+        }
+
+        @Override
+        public void read(byte[] buf, int off, int len)
+                throws TTransportException
+        {
+            if (input.available() < len) {
+                throw new TTransportException("Unexpected end of record");
+            }
+            input.readBytes(buf, off, len);
+        }
+
+        @Override
+        public void write(byte[] buf, int off, int len)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
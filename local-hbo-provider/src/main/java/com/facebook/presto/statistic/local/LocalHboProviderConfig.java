@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.statistic.local;
+
+import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.airlift.units.MinDataSize;
+import io.airlift.units.MinDuration;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import java.io.File;
+
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+public class LocalHboProviderConfig
+{
+    public static final String COORDINATOR_PROPERTY_NAME = "coordinator";
+    public static final String HBO_PROVIDER_ENABLED_NAME = "hbo.local-provider.enabled";
+    public static final String LOCAL_PROVIDER_PROPERTIES_PATH = "etc/local-hbo-provider.properties";
+
+    private String coordinator;
+    private boolean hboProviderEnabled;
+    private File dataDirectory = new File("var/hbo");
+    private DataSize initialLogSize = new DataSize(16, MEGABYTE);
+    private int maxEntries = 500_000;
+    private Duration compactionInterval = new Duration(5, MINUTES);
+    private double compactionGarbageRatio = 0.5;
+
+    @Config("coordinator")
+    public LocalHboProviderConfig setCoordinator(String value)
+    {
+        this.coordinator = value;
+        return this;
+    }
+
+    public String getCoordinator()
+    {
+        return coordinator;
+    }
+
+    @Config("hbo.local-provider.enabled")
+    public LocalHboProviderConfig setHboProviderEnabled(boolean value)
+    {
+        this.hboProviderEnabled = value;
+        return this;
+    }
+
+    public boolean getHboProviderEnabled()
+    {
+        return hboProviderEnabled;
+    }
+
+    @NotNull
+    public File getDataDirectory()
+    {
+        return dataDirectory;
+    }
+
+    @Config("hbo.local-provider.data-directory")
+    @ConfigDescription("Directory holding the plan statistics log")
+    public LocalHboProviderConfig setDataDirectory(File dataDirectory)
+    {
+        this.dataDirectory = dataDirectory;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("64kB")
+    public DataSize getInitialLogSize()
+    {
+        return initialLogSize;
+    }
+
+    @Config("hbo.local-provider.initial-log-size")
+    @ConfigDescription("Size of the memory mapping created for a new log; the mapping doubles whenever it fills up")
+    public LocalHboProviderConfig setInitialLogSize(DataSize initialLogSize)
+    {
+        this.initialLogSize = initialLogSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getMaxEntries()
+    {
+        return maxEntries;
+    }
+
+    @Config("hbo.local-provider.max-entries")
+    @ConfigDescription("Maximum number of plan hashes kept in the log; compaction drops the least recently written ones")
+    public LocalHboProviderConfig setMaxEntries(int maxEntries)
+    {
+        this.maxEntries = maxEntries;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1s")
+    public Duration getCompactionInterval()
+    {
+        return compactionInterval;
+    }
+
+    @Config("hbo.local-provider.compaction-interval")
+    @ConfigDescription("How often the log is checked for superseded records and compacted")
+    public LocalHboProviderConfig setCompactionInterval(Duration compactionInterval)
+    {
+        this.compactionInterval = compactionInterval;
+        return this;
+    }
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getCompactionGarbageRatio()
+    {
+        return compactionGarbageRatio;
+    }
+
+    @Config("hbo.local-provider.compaction-garbage-ratio")
+    @ConfigDescription("Fraction of the log occupied by superseded records above which the log is compacted")
+    public LocalHboProviderConfig setCompactionGarbageRatio(double compactionGarbageRatio)
+    {
+        this.compactionGarbageRatio = compactionGarbageRatio;
+        return this;
+    }
+}
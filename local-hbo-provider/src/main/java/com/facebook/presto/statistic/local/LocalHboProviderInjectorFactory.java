@@ -0,0 +1,36 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.statistic.local;
+
+import com.facebook.airlift.bootstrap.Bootstrap;
+import com.google.inject.Injector;
+
+import java.util.Map;
+
+public class LocalHboProviderInjectorFactory
+{
+    private LocalHboProviderInjectorFactory()
+    {
+    }
+
+    public static Injector create(Map<String, String> propertyMap)
+    {
+        Bootstrap app = new Bootstrap(new LocalHboProviderModule());
+        app.setOptionalConfigurationProperties(propertyMap);
+        return app.doNotInitializeLogging()
+                .noStrictConfig()
+                .quiet()
+                .initialize();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.statistic.local;
+
+import com.facebook.airlift.configuration.AbstractConfigurationAwareModule;
+import com.google.inject.Binder;
+import com.google.inject.Provides;
+import com.google.inject.Scopes;
+import com.google.inject.Singleton;
+
+import java.io.File;
+import java.io.IOException;
+
+import static com.facebook.airlift.configuration.ConfigBinder.configBinder;
+
+public class LocalHboProviderModule
+        extends AbstractConfigurationAwareModule
+{
+    public static final String LOG_FILE_NAME = "plan-statistics.log";
+
+    @Provides
+    @Singleton
+    public PlanStatisticsLog providePlanStatisticsLog(LocalHboProviderConfig config, HistoricalPlanStatisticsCodec codec)
+            throws IOException
+    {
+        return new PlanStatisticsLog(new File(config.getDataDirectory(), LOG_FILE_NAME), config.getInitialLogSize(), config.getMaxEntries(), codec);
+    }
+
+    @Override
+    protected void setup(Binder binder)
+    {
+        configBinder(binder).bindConfig(LocalHboProviderConfig.class);
+        binder.bind(HistoricalPlanStatisticsCodec.class).in(Scopes.SINGLETON);
+        binder.bind(LocalPlanStatisticsProvider.class).in(Scopes.SINGLETON);
+    }
+}
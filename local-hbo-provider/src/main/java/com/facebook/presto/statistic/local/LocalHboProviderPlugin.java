@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.statistic.local;
+
+import com.facebook.airlift.bootstrap.LifeCycleManager;
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.spi.Plugin;
+import com.facebook.presto.spi.statistics.HistoryBasedPlanStatisticsProvider;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Injector;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Properties;
+
+import static com.facebook.presto.statistic.local.LocalHboProviderConfig.COORDINATOR_PROPERTY_NAME;
+import static com.facebook.presto.statistic.local.LocalHboProviderConfig.HBO_PROVIDER_ENABLED_NAME;
+import static com.facebook.presto.statistic.local.LocalHboProviderConfig.LOCAL_PROVIDER_PROPERTIES_PATH;
+import static com.google.common.collect.Maps.fromProperties;
+
+/**
+ * Keeps history based optimizer statistics in a log on the coordinator's local disk, so that
+ * the optimizer can use them without an external store. The provider is enabled through
+ * {@code etc/local-hbo-provider.properties}; without it the plugin provides nothing and leaves
+ * the slot free for another provider.
+ */
+public class LocalHboProviderPlugin
+        implements Plugin, AutoCloseable
+{
+    private static final Logger log = Logger.get(LocalHboProviderPlugin.class);
+
+    private final Map<String, String> propertyMap;
+
+    private Injector injector;
+
+    public LocalHboProviderPlugin()
+    {
+        this(loadProperties(new File(LOCAL_PROVIDER_PROPERTIES_PATH)));
+    }
+
+    @VisibleForTesting
+    public LocalHboProviderPlugin(Map<String, String> configs)
+    {
+        this.propertyMap = ImmutableMap.copyOf(configs);
+    }
+
+    @Override
+    public synchronized Iterable<HistoryBasedPlanStatisticsProvider> getHistoryBasedPlanStatisticsProviders()
+    {
+        if (!(propertyMap.getOrDefault(COORDINATOR_PROPERTY_NAME, "false").equals("true") &&
+                propertyMap.getOrDefault(HBO_PROVIDER_ENABLED_NAME, "false").equals("true"))) {
+            return ImmutableList.of();
+        }
+        if (injector == null) {
+            injector = LocalHboProviderInjectorFactory.create(propertyMap);
+            log.info("Local HBO Provider Plugin created the local plan statistics provider");
+        }
+        return ImmutableList.of(injector.getInstance(LocalPlanStatisticsProvider.class));
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        if (injector != null) {
+            injector.getInstance(LifeCycleManager.class).stop();
+            injector = null;
+        }
+    }
+
+    private static Map<String, String> loadProperties(File file)
+    {
+        if (!file.exists()) {
+            return ImmutableMap.of();
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            properties.load(in);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Unable to load " + file, e);
+        }
+        return fromProperties(properties);
+    }
+}
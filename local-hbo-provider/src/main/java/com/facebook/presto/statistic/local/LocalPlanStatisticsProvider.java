@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.statistic.local;
+
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.spi.plan.PlanNodeWithHash;
+import com.facebook.presto.spi.statistics.HistoricalPlanStatistics;
+import com.facebook.presto.spi.statistics.HistoryBasedPlanStatisticsProvider;
+import com.google.common.annotations.VisibleForTesting;
+import io.airlift.units.Duration;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+public class LocalPlanStatisticsProvider
+        implements HistoryBasedPlanStatisticsProvider
+{
+    private static final Logger log = Logger.get(LocalPlanStatisticsProvider.class);
+
+    private final PlanStatisticsLog statisticsLog;
+    private final Duration compactionInterval;
+    private final double compactionGarbageRatio;
+    private final ScheduledExecutorService compactionExecutor = newSingleThreadScheduledExecutor(daemonThreadsNamed("local-hbo-compaction"));
+
+    @Inject
+    public LocalPlanStatisticsProvider(PlanStatisticsLog statisticsLog, LocalHboProviderConfig config)
+    {
+        this.statisticsLog = requireNonNull(statisticsLog, "statisticsLog is null");
+        this.compactionInterval = config.getCompactionInterval();
+        this.compactionGarbageRatio = config.getCompactionGarbageRatio();
+    }
+
+    @PostConstruct
+    public void start()
+    {
+        compactionExecutor.scheduleWithFixedDelay(this::compact, compactionInterval.toMillis(), compactionInterval.toMillis(), MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop()
+            throws IOException
+    {
+        compactionExecutor.shutdownNow();
+        statisticsLog.close();
+    }
+
+    @Override
+    public String getName()
+    {
+        return "local";
+    }
+
+    @Override
+    public Map<PlanNodeWithHash, HistoricalPlanStatistics> getStats(List<PlanNodeWithHash> planNodesWithHash, long timeoutMillis)
+    {
+        // lookups are served from memory, so there is nothing to give up on when the timeout expires
+        Map<PlanNodeWithHash, HistoricalPlanStatistics> result = new HashMap<>();
+        for (PlanNodeWithHash planNodeWithHash : planNodesWithHash) {
+            if (!planNodeWithHash.getHash().isPresent()) {
+                continue;
+            }
+            try {
+                Optional<HistoricalPlanStatistics> statistics = statisticsLog.get(planNodeWithHash.getHash().get());
+                statistics.ifPresent(value -> result.put(planNodeWithHash, value));
+            }
+            catch (RuntimeException e) {
+                log.error(e, "Error reading statistics for plan hash %s", planNodeWithHash.getHash().get());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void putStats(Map<PlanNodeWithHash, HistoricalPlanStatistics> hashesAndStatistics)
+    {
+        hashesAndStatistics.forEach((planNodeWithHash, statistics) -> {
+            if (!planNodeWithHash.getHash().isPresent()) {
+                return;
+            }
+            try {
+                statisticsLog.put(planNodeWithHash.getHash().get(), statistics);
+            }
+            catch (IOException | RuntimeException e) {
+                log.error(e, "Error writing statistics for plan hash %s", planNodeWithHash.getHash().get());
+            }
+        });
+    }
+
+    @VisibleForTesting
+    void compact()
+    {
+        try {
+            statisticsLog.compact(compactionGarbageRatio);
+            statisticsLog.flush();
+        }
+        catch (IOException | RuntimeException e) {
+            log.error(e, "Error compacting plan statistics log");
+        }
+    }
+}
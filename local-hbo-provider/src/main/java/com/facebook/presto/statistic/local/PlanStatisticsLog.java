@@ -0,0 +1,434 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.statistic.local;
+
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.spi.statistics.HistoricalPlanStatistics;
+import com.google.common.annotations.VisibleForTesting;
+import io.airlift.units.DataSize;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.move;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Append-only log of historical plan statistics keyed by canonical plan hash.
+ * <p>
+ * The file starts with a magic number, followed by records laid out as
+ * {@code [payload length][crc32 of payload][key length][key][statistics]}. Records are written
+ * through a memory mapping, and the payload length is written last, so a record torn by a crash
+ * reads as a zero length or a checksum mismatch and is dropped when the log is reopened. An
+ * in-memory index maps each hash to its latest record, which makes a lookup a hash table probe
+ * followed by decoding the record in place. Updating a hash appends a new record; superseded
+ * records are dropped by {@link #compact}, which copies the live records to a new file and
+ * atomically replaces the log with it. Compaction also drops the least recently written hashes
+ * beyond {@code maxEntries}, and a put that would grow the log beyond its maximum size first
+ * compacts it down to half of that size, so the log keeps accepting statistics.
+ */
+@ThreadSafe
+public class PlanStatisticsLog
+        implements Closeable
+{
+    private static final Logger log = Logger.get(PlanStatisticsLog.class);
+
+    private static final int MAGIC = 0x48424f31; // HBO1
+    private static final int FILE_HEADER_SIZE = SIZE_OF_INT;
+    private static final int RECORD_HEADER_SIZE = 2 * SIZE_OF_INT;
+    private static final long MAX_LOG_SIZE = Integer.MAX_VALUE;
+
+    private final Path path;
+    private final long initialSize;
+    private final int maxEntries;
+    private final long maxLogSize;
+    private final HistoricalPlanStatisticsCodec codec;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @GuardedBy("lock")
+    private final Map<String, Integer> index = new HashMap<>();
+    @GuardedBy("lock")
+    private FileChannel channel;
+    @GuardedBy("lock")
+    private MappedByteBuffer buffer;
+    @GuardedBy("lock")
+    private int end;
+    @GuardedBy("lock")
+    private long liveBytes;
+    @GuardedBy("lock")
+    private boolean closed;
+
+    public PlanStatisticsLog(File file, DataSize initialSize, int maxEntries, HistoricalPlanStatisticsCodec codec)
+            throws IOException
+    {
+        this(file, initialSize, maxEntries, MAX_LOG_SIZE, codec);
+    }
+
+    @VisibleForTesting
+    PlanStatisticsLog(File file, DataSize initialSize, int maxEntries, long maxLogSize, HistoricalPlanStatisticsCodec codec)
+            throws IOException
+    {
+        this.path = requireNonNull(file, "file is null").toPath().toAbsolutePath();
+        this.initialSize = requireNonNull(initialSize, "initialSize is null").toBytes();
+        this.maxEntries = maxEntries;
+        this.maxLogSize = maxLogSize;
+        this.codec = requireNonNull(codec, "codec is null");
+        checkArgument(maxLogSize <= MAX_LOG_SIZE, "maxLogSize is out of range: %s", maxLogSize);
+        checkArgument(this.initialSize >= FILE_HEADER_SIZE && this.initialSize <= maxLogSize, "initialSize is out of range: %s", initialSize);
+        checkArgument(maxEntries > 0, "maxEntries must be positive");
+
+        createDirectories(path.getParent());
+        lock.writeLock().lock();
+        try {
+            open();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<HistoricalPlanStatistics> get(String hash)
+    {
+        lock.readLock().lock();
+        try {
+            checkState(!closed, "log is closed");
+            Integer position = index.get(hash);
+            if (position == null) {
+                return Optional.empty();
+            }
+            int payloadLength = buffer.getInt(position);
+            int keyLength = buffer.getInt(position + RECORD_HEADER_SIZE);
+            int valueOffset = position + RECORD_HEADER_SIZE + SIZE_OF_INT + keyLength;
+            return Optional.of(codec.decode(slice(valueOffset, payloadLength - SIZE_OF_INT - keyLength)));
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(String hash, HistoricalPlanStatistics statistics)
+            throws IOException
+    {
+        byte[] key = hash.getBytes(UTF_8);
+        byte[] value = codec.encode(statistics);
+        int payloadLength = SIZE_OF_INT + key.length + value.length;
+        int recordSize = RECORD_HEADER_SIZE + payloadLength;
+
+        lock.writeLock().lock();
+        try {
+            checkState(!closed, "log is closed");
+            if ((long) end + recordSize > maxLogSize) {
+                rewrite(maxLogSize / 2);
+            }
+            ensureCapacity((long) end + recordSize);
+            slice(end + RECORD_HEADER_SIZE, payloadLength)
+                    .putInt(key.length)
+                    .put(key)
+                    .put(value);
+            buffer.putInt(end + SIZE_OF_INT, checksum(end, payloadLength));
+            // until the length is in place the record reads as the end of the log
+            buffer.putInt(end, payloadLength);
+            indexRecord(hash, end, recordSize);
+            end += recordSize;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the log without its superseded records if they make up at least
+     * {@code garbageRatio} of the records in the log, or if it holds more than
+     * {@code maxEntries} hashes.
+     *
+     * @return whether the log was compacted
+     */
+    public boolean compact(double garbageRatio)
+            throws IOException
+    {
+        lock.writeLock().lock();
+        try {
+            checkState(!closed, "log is closed");
+            long recordBytes = end - FILE_HEADER_SIZE;
+            long garbageBytes = recordBytes - liveBytes;
+            if (index.size() <= maxEntries && (garbageBytes == 0 || garbageBytes < garbageRatio * recordBytes)) {
+                return false;
+            }
+            rewrite(maxLogSize);
+            return true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the modified part of the mapping back to disk.
+     */
+    public void flush()
+    {
+        lock.readLock().lock();
+        try {
+            if (!closed) {
+                buffer.force();
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getEntryCount()
+    {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getLogBytes()
+    {
+        lock.readLock().lock();
+        try {
+            return end;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffer.force();
+            // drop the unused tail of the mapping so that a clean shutdown leaves only complete records
+            channel.truncate(end);
+            channel.close();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @GuardedBy("lock")
+    private void open()
+            throws IOException
+    {
+        channel = FileChannel.open(path, CREATE, READ, WRITE);
+        long size = channel.size();
+        if (size == 0) {
+            map(initialSize);
+            buffer.putInt(0, MAGIC);
+            end = FILE_HEADER_SIZE;
+            return;
+        }
+
+        if (size < FILE_HEADER_SIZE || size > maxLogSize) {
+            throw new IOException(format("%s is not a plan statistics log", path));
+        }
+        map(size);
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException(format("%s is not a plan statistics log", path));
+        }
+        end = recover();
+        if (end < size && buffer.getInt(end) != 0) {
+            log.warn("Discarded incomplete record at offset %s of plan statistics log %s", end, path);
+        }
+        // the bytes past the last complete record must read as zeros for torn appends to be detected
+        channel.truncate(end);
+        map(mappedSize(end));
+    }
+
+    /**
+     * Copies the latest record of the most recently written hashes to a new log, up to
+     * {@code maxEntries} hashes and {@code maxRecordBytes} bytes of records, and replaces
+     * the log with it. Records are appended in the order they are written, so the
+     * least recently written hashes are the ones at the lowest positions.
+     */
+    @GuardedBy("lock")
+    private void rewrite(long maxRecordBytes)
+            throws IOException
+    {
+        List<Map.Entry<String, Integer>> entries = index.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .collect(toImmutableList());
+        int firstRetained = max(0, entries.size() - maxEntries);
+        long retainedBytes = 0;
+        for (int i = entries.size() - 1; i >= firstRetained; i--) {
+            retainedBytes += recordSize(entries.get(i).getValue());
+            if (retainedBytes > maxRecordBytes) {
+                firstRetained = i + 1;
+                break;
+            }
+        }
+
+        Path compactedPath = path.resolveSibling(path.getFileName() + ".compacting");
+        Map<String, Integer> compactedIndex = new HashMap<>(entries.size() - firstRetained);
+        int compactedEnd = FILE_HEADER_SIZE;
+        try (FileChannel output = FileChannel.open(compactedPath, CREATE, TRUNCATE_EXISTING, WRITE)) {
+            writeFully(output, ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(0, MAGIC));
+            for (Map.Entry<String, Integer> entry : entries.subList(firstRetained, entries.size())) {
+                int recordSize = recordSize(entry.getValue());
+                writeFully(output, slice(entry.getValue(), recordSize));
+                compactedIndex.put(entry.getKey(), compactedEnd);
+                compactedEnd += recordSize;
+            }
+            output.force(true);
+        }
+        catch (IOException e) {
+            deleteIfExists(compactedPath);
+            throw e;
+        }
+        move(compactedPath, path, ATOMIC_MOVE, REPLACE_EXISTING);
+
+        channel.close();
+        channel = FileChannel.open(path, READ, WRITE);
+        map(mappedSize(compactedEnd));
+        index.clear();
+        index.putAll(compactedIndex);
+        log.debug("Compacted plan statistics log %s from %s to %s bytes, dropping %s hashes", path, end, compactedEnd, firstRetained);
+        end = compactedEnd;
+        liveBytes = compactedEnd - FILE_HEADER_SIZE;
+    }
+
+    @GuardedBy("lock")
+    private int recover()
+    {
+        int position = FILE_HEADER_SIZE;
+        while (position <= buffer.capacity() - RECORD_HEADER_SIZE - SIZE_OF_INT) {
+            int payloadLength = buffer.getInt(position);
+            if (payloadLength < SIZE_OF_INT || payloadLength > buffer.capacity() - position - RECORD_HEADER_SIZE) {
+                break;
+            }
+            int keyLength = buffer.getInt(position + RECORD_HEADER_SIZE);
+            if (keyLength < 0 || keyLength > payloadLength - SIZE_OF_INT || buffer.getInt(position + SIZE_OF_INT) != checksum(position, payloadLength)) {
+                break;
+            }
+            byte[] key = new byte[keyLength];
+            slice(position + RECORD_HEADER_SIZE + SIZE_OF_INT, keyLength).get(key);
+            int recordSize = RECORD_HEADER_SIZE + payloadLength;
+            indexRecord(new String(key, UTF_8), position, recordSize);
+            position += recordSize;
+        }
+        return position;
+    }
+
+    @GuardedBy("lock")
+    private void indexRecord(String hash, int position, int recordSize)
+    {
+        Integer previous = index.put(hash, position);
+        if (previous != null) {
+            liveBytes -= recordSize(previous);
+        }
+        liveBytes += recordSize;
+    }
+
+    @GuardedBy("lock")
+    private void ensureCapacity(long requiredSize)
+            throws IOException
+    {
+        if (requiredSize <= buffer.capacity()) {
+            return;
+        }
+        if (requiredSize > maxLogSize) {
+            throw new IOException(format("Plan statistics log %s cannot grow beyond %s bytes", path, maxLogSize));
+        }
+        map(min(maxLogSize, max(requiredSize, 2L * buffer.capacity())));
+    }
+
+    private long mappedSize(int logSize)
+    {
+        return min(maxLogSize, max(initialSize, 2L * logSize));
+    }
+
+    @GuardedBy("lock")
+    private void map(long size)
+            throws IOException
+    {
+        buffer = channel.map(READ_WRITE, 0, size);
+    }
+
+    @GuardedBy("lock")
+    private int recordSize(int position)
+    {
+        return RECORD_HEADER_SIZE + buffer.getInt(position);
+    }
+
+    @GuardedBy("lock")
+    private int checksum(int position, int payloadLength)
+    {
+        CRC32 crc = new CRC32();
+        crc.update(slice(position + RECORD_HEADER_SIZE, payloadLength));
+        return (int) crc.getValue();
+    }
+
+    @GuardedBy("lock")
+    private ByteBuffer slice(int offset, int length)
+    {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(offset);
+        slice.limit(offset + length);
+        return slice.slice();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer)
+            throws IOException
+    {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.statistic.local;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.Map;
+
+import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static com.facebook.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class TestLocalHboProviderConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(LocalHboProviderConfig.class)
+                .setCoordinator(null)
+                .setHboProviderEnabled(false)
+                .setDataDirectory(new File("var/hbo"))
+                .setInitialLogSize(new DataSize(16, MEGABYTE))
+                .setMaxEntries(500_000)
+                .setCompactionInterval(new Duration(5, MINUTES))
+                .setCompactionGarbageRatio(0.5));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("coordinator", "true")
+                .put("hbo.local-provider.enabled", "true")
+                .put("hbo.local-provider.data-directory", "/tmp/hbo")
+                .put("hbo.local-provider.initial-log-size", "1MB")
+                .put("hbo.local-provider.max-entries", "1000")
+                .put("hbo.local-provider.compaction-interval", "30s")
+                .put("hbo.local-provider.compaction-garbage-ratio", "0.25")
+                .build();
+
+        LocalHboProviderConfig expected = new LocalHboProviderConfig()
+                .setCoordinator("true")
+                .setHboProviderEnabled(true)
+                .setDataDirectory(new File("/tmp/hbo"))
+                .setInitialLogSize(new DataSize(1, MEGABYTE))
+                .setMaxEntries(1000)
+                .setCompactionInterval(new Duration(30, SECONDS))
+                .setCompactionGarbageRatio(0.25);
+
+        assertFullMapping(properties, expected);
+    }
+}
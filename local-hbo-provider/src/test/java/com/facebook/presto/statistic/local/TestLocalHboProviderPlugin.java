@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.statistic.local;
+
+import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spi.plan.PlanNodeWithHash;
+import com.facebook.presto.spi.plan.ValuesNode;
+import com.facebook.presto.spi.statistics.HistoricalPlanStatistics;
+import com.facebook.presto.spi.statistics.HistoryBasedPlanStatisticsProvider;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.airlift.testing.Assertions.assertInstanceOf;
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestLocalHboProviderPlugin
+{
+    @Test
+    public void testDisabled()
+    {
+        try (LocalHboProviderPlugin plugin = new LocalHboProviderPlugin(ImmutableMap.of("coordinator", "true"))) {
+            assertTrue(ImmutableList.copyOf(plugin.getHistoryBasedPlanStatisticsProviders()).isEmpty());
+        }
+        try (LocalHboProviderPlugin plugin = new LocalHboProviderPlugin(ImmutableMap.of("coordinator", "false", "hbo.local-provider.enabled", "true"))) {
+            assertTrue(ImmutableList.copyOf(plugin.getHistoryBasedPlanStatisticsProviders()).isEmpty());
+        }
+    }
+
+    @Test
+    public void testStartup()
+            throws IOException
+    {
+        Path directory = Files.createTempDirectory("local-hbo-provider");
+        Map<String, String> configs = ImmutableMap.of(
+                "coordinator", "true",
+                "hbo.local-provider.enabled", "true",
+                "hbo.local-provider.data-directory", directory.toString());
+        PlanNodeWithHash planNode = new PlanNodeWithHash(
+                new ValuesNode(Optional.empty(), new PlanNodeId("0"), ImmutableList.of(), ImmutableList.of(), Optional.empty()),
+                Optional.of("hash"));
+        PlanNodeWithHash planNodeWithoutHash = new PlanNodeWithHash(
+                new ValuesNode(Optional.empty(), new PlanNodeId("1"), ImmutableList.of(), ImmutableList.of(), Optional.empty()),
+                Optional.empty());
+        HistoricalPlanStatistics statistics = new HistoricalPlanStatistics(ImmutableList.of());
+        try {
+            try (LocalHboProviderPlugin plugin = new LocalHboProviderPlugin(configs)) {
+                HistoryBasedPlanStatisticsProvider provider = getOnlyElement(plugin.getHistoryBasedPlanStatisticsProviders());
+                assertInstanceOf(provider, LocalPlanStatisticsProvider.class);
+                assertEquals(provider.getName(), "local");
+                provider.putStats(ImmutableMap.of(planNode, statistics, planNodeWithoutHash, statistics));
+                assertEquals(provider.getStats(ImmutableList.of(planNode, planNodeWithoutHash), 1000), ImmutableMap.of(planNode, statistics));
+            }
+
+            // statistics survive a restart
+            try (LocalHboProviderPlugin plugin = new LocalHboProviderPlugin(configs)) {
+                HistoryBasedPlanStatisticsProvider provider = getOnlyElement(plugin.getHistoryBasedPlanStatisticsProviders());
+                assertEquals(provider.getStats(ImmutableList.of(planNode), 1000), ImmutableMap.of(planNode, statistics));
+            }
+        }
+        finally {
+            deleteRecursively(directory, ALLOW_INSECURE);
+        }
+    }
+}
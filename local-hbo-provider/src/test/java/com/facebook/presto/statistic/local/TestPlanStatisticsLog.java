@@ -0,0 +1,268 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.statistic.local;
+
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.statistics.Estimate;
+import com.facebook.presto.spi.statistics.HistoricalPlanStatistics;
+import com.facebook.presto.spi.statistics.HistoricalPlanStatisticsEntry;
+import com.facebook.presto.spi.statistics.HistoricalPlanStatisticsEntryInfo;
+import com.facebook.presto.spi.statistics.JoinNodeStatistics;
+import com.facebook.presto.spi.statistics.PartialAggregationStatistics;
+import com.facebook.presto.spi.statistics.PlanStatistics;
+import com.facebook.presto.spi.statistics.TableWriterNodeStatistics;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestPlanStatisticsLog
+{
+    private static final DataSize INITIAL_SIZE = new DataSize(64, KILOBYTE);
+    private static final HistoricalPlanStatisticsCodec CODEC = new HistoricalPlanStatisticsCodec();
+
+    private Path directory;
+    private File logFile;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        directory = Files.createTempDirectory("plan-statistics-log");
+        logFile = directory.resolve("plan-statistics.log").toFile();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(directory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testPutAndGet()
+            throws IOException
+    {
+        try (PlanStatisticsLog log = createLog()) {
+            assertEquals(log.get("a"), Optional.empty());
+            log.put("a", statistics(1));
+            log.put("b", statistics(2));
+            log.put("a", statistics(3));
+
+            assertEquals(log.get("a"), Optional.of(statistics(3)));
+            assertEquals(log.get("b"), Optional.of(statistics(2)));
+            assertEquals(log.get("c"), Optional.empty());
+            assertEquals(log.getEntryCount(), 2);
+        }
+    }
+
+    @Test
+    public void testGrowMapping()
+            throws IOException
+    {
+        try (PlanStatisticsLog log = createLog()) {
+            for (int i = 0; i < 2_000; i++) {
+                log.put("hash" + i, statistics(i));
+            }
+            assertTrue(log.getLogBytes() > INITIAL_SIZE.toBytes());
+            for (int i = 0; i < 2_000; i++) {
+                assertEquals(log.get("hash" + i), Optional.of(statistics(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testReopen()
+            throws IOException
+    {
+        try (PlanStatisticsLog log = createLog()) {
+            log.put("a", statistics(1));
+            log.put("b", statistics(2));
+            log.put("a", statistics(3));
+        }
+        assertEquals(logFile.length(), getLogBytes());
+
+        try (PlanStatisticsLog log = createLog()) {
+            assertEquals(log.get("a"), Optional.of(statistics(3)));
+            assertEquals(log.get("b"), Optional.of(statistics(2)));
+            assertEquals(log.getEntryCount(), 2);
+            log.put("c", statistics(4));
+        }
+
+        try (PlanStatisticsLog log = createLog()) {
+            assertEquals(log.get("c"), Optional.of(statistics(4)));
+            assertEquals(log.getEntryCount(), 3);
+        }
+    }
+
+    @Test
+    public void testReopenWithoutClose()
+            throws IOException
+    {
+        PlanStatisticsLog abandoned = createLog();
+        abandoned.put("a", statistics(1));
+        abandoned.put("b", statistics(2));
+
+        // the mapping of the abandoned log is still larger than its records
+        try (PlanStatisticsLog log = createLog()) {
+            assertEquals(log.get("a"), Optional.of(statistics(1)));
+            assertEquals(log.get("b"), Optional.of(statistics(2)));
+            assertEquals(log.getEntryCount(), 2);
+        }
+    }
+
+    @Test
+    public void testTornRecord()
+            throws IOException
+    {
+        try (PlanStatisticsLog log = createLog()) {
+            log.put("a", statistics(1));
+        }
+        long validBytes = logFile.length();
+
+        // a record whose payload never made it to disk
+        try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+            file.seek(validBytes);
+            file.writeInt(100);
+            file.writeInt(12345);
+            file.writeInt(1);
+        }
+
+        try (PlanStatisticsLog log = createLog()) {
+            assertEquals(log.getLogBytes(), validBytes);
+            assertEquals(log.get("a"), Optional.of(statistics(1)));
+            log.put("b", statistics(2));
+        }
+
+        try (PlanStatisticsLog log = createLog()) {
+            assertEquals(log.get("a"), Optional.of(statistics(1)));
+            assertEquals(log.get("b"), Optional.of(statistics(2)));
+        }
+    }
+
+    @Test
+    public void testCompaction()
+            throws IOException
+    {
+        try (PlanStatisticsLog log = createLog()) {
+            log.put("a", statistics(1));
+            log.put("b", statistics(2));
+            assertFalse(log.compact(0.5));
+
+            for (int i = 0; i < 10; i++) {
+                log.put("a", statistics(i));
+            }
+            long logBytes = log.getLogBytes();
+            assertTrue(log.compact(0.5));
+            assertTrue(log.getLogBytes() < logBytes);
+            assertFalse(log.compact(0.0));
+
+            assertEquals(log.get("a"), Optional.of(statistics(9)));
+            assertEquals(log.get("b"), Optional.of(statistics(2)));
+            log.put("c", statistics(3));
+        }
+
+        try (PlanStatisticsLog log = createLog()) {
+            assertEquals(log.get("a"), Optional.of(statistics(9)));
+            assertEquals(log.get("b"), Optional.of(statistics(2)));
+            assertEquals(log.get("c"), Optional.of(statistics(3)));
+            assertEquals(log.getEntryCount(), 3);
+        }
+        assertFalse(new File(logFile.getPath() + ".compacting").exists());
+    }
+
+    @Test
+    public void testCompactionDropsLeastRecentlyWritten()
+            throws IOException
+    {
+        try (PlanStatisticsLog log = new PlanStatisticsLog(logFile, INITIAL_SIZE, 10, CODEC)) {
+            for (int i = 0; i < 20; i++) {
+                log.put("hash" + i, statistics(i));
+            }
+            // rewriting an old hash makes it recently written
+            log.put("hash0", statistics(100));
+            assertEquals(log.getEntryCount(), 20);
+
+            assertTrue(log.compact(1.0));
+            assertEquals(log.getEntryCount(), 10);
+            assertEquals(log.get("hash0"), Optional.of(statistics(100)));
+            assertEquals(log.get("hash1"), Optional.empty());
+            assertEquals(log.get("hash10"), Optional.empty());
+            for (int i = 11; i < 20; i++) {
+                assertEquals(log.get("hash" + i), Optional.of(statistics(i)));
+            }
+            assertFalse(log.compact(1.0));
+        }
+
+        try (PlanStatisticsLog log = new PlanStatisticsLog(logFile, INITIAL_SIZE, 10, CODEC)) {
+            assertEquals(log.getEntryCount(), 10);
+            assertEquals(log.get("hash0"), Optional.of(statistics(100)));
+        }
+    }
+
+    @Test
+    public void testFullLogKeepsAcceptingStatistics()
+            throws IOException
+    {
+        long maxLogSize = INITIAL_SIZE.toBytes();
+        try (PlanStatisticsLog log = new PlanStatisticsLog(logFile, INITIAL_SIZE, Integer.MAX_VALUE, maxLogSize, CODEC)) {
+            // far more distinct hashes than fit in the log
+            for (int i = 0; i < 10_000; i++) {
+                log.put("hash" + i, statistics(i));
+                assertTrue(log.getLogBytes() <= maxLogSize);
+            }
+            assertEquals(log.get("hash0"), Optional.empty());
+            assertEquals(log.get("hash9999"), Optional.of(statistics(9999)));
+            assertTrue(log.getEntryCount() < 10_000);
+        }
+    }
+
+    private PlanStatisticsLog createLog()
+            throws IOException
+    {
+        return new PlanStatisticsLog(logFile, INITIAL_SIZE, 1_000_000, CODEC);
+    }
+
+    private long getLogBytes()
+            throws IOException
+    {
+        try (PlanStatisticsLog log = createLog()) {
+            return log.getLogBytes();
+        }
+    }
+
+    private static HistoricalPlanStatistics statistics(int value)
+    {
+        return new HistoricalPlanStatistics(ImmutableList.of(new HistoricalPlanStatisticsEntry(
+                new PlanStatistics(Estimate.of(value), Estimate.of(value * 10), 1, JoinNodeStatistics.empty(), TableWriterNodeStatistics.empty(), PartialAggregationStatistics.empty()),
+                ImmutableList.of(new PlanStatistics(Estimate.of(15000), Estimate.unknown(), 1, JoinNodeStatistics.empty(), TableWriterNodeStatistics.empty(), PartialAggregationStatistics.empty())),
+                new HistoricalPlanStatisticsEntryInfo(HistoricalPlanStatisticsEntryInfo.WorkerType.JAVA, QueryId.valueOf("0"), "test"))));
+    }
+}
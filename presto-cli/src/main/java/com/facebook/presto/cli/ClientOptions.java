@@ -159,6 +159,9 @@ public class ClientOptions
     @Option(name = "--validate-nexturi-source", title = "validate nextUri source", description = "Validate nextUri server host and port does not change during query execution")
     public boolean validateNextUriSource;
 
+    @Option(name = "--binary-results", title = "binary results", description = "Fetch query results as binary pages instead of JSON rows")
+    public boolean binaryResults;
+
     @Option(name = "--disable-redirects", title = "disable redirects", description = "Disable client following redirects from server")
     public boolean disableRedirects;
 
@@ -197,7 +200,8 @@ public class ClientOptions
                 disableCompression,
                 emptyMap(),
                 emptyMap(),
-                validateNextUriSource);
+                validateNextUriSource,
+                binaryResults);
     }
 
     public static URI parseServer(String server)
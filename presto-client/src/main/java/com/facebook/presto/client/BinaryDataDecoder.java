@@ -0,0 +1,319 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.common.function.SqlFunctionProperties;
+import com.facebook.presto.common.type.NamedTypeSignature;
+import com.facebook.presto.common.type.ParameterKind;
+import com.facebook.presto.common.type.StandardTypes;
+import com.facebook.presto.common.type.TimeZoneKey;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.TypeSignature;
+import com.facebook.presto.common.type.TypeSignatureParameter;
+import com.facebook.presto.common.type.UnknownType;
+import com.facebook.presto.spi.page.PageCompressionCodec;
+import com.facebook.presto.spi.page.PageCompressionPolicy;
+import com.facebook.presto.spi.page.PageDecompressor;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.compress.Decompressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
+import io.airlift.slice.BasicSliceInput;
+import io.airlift.slice.Slices;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.CharType.createCharType;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DecimalType.createDecimalType;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.StandardTypes.ARRAY;
+import static com.facebook.presto.common.type.StandardTypes.MAP;
+import static com.facebook.presto.common.type.StandardTypes.ROW;
+import static com.facebook.presto.common.type.TimeType.TIME;
+import static com.facebook.presto.common.type.TimeWithTimeZoneType.TIME_WITH_TIME_ZONE;
+import static com.facebook.presto.common.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.common.type.TimestampType.TIMESTAMP_MICROSECONDS;
+import static com.facebook.presto.common.type.TimestampWithTimeZoneType.TIMESTAMP_WITH_TIME_ZONE;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.TypeSignature.parseTypeSignature;
+import static com.facebook.presto.common.type.UuidType.UUID;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.spi.page.PageCodecMarker.ENCRYPTED;
+import static com.facebook.presto.spi.page.PageCompressionCodec.LZ4;
+import static com.facebook.presto.spi.page.PageCompressionCodec.NONE;
+import static com.facebook.presto.spi.page.PageCompressionCodec.ZSTD;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.readSerializedPage;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Iterables.concat;
+import static com.google.common.collect.Iterables.transform;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decodes the pages of a binary query result into rows of the same values
+ * that {@link FixJsonDataUtils} produces for a JSON result.
+ * <p>
+ * Values are read from the blocks of each page directly, so no intermediate
+ * JSON representation is built. Pages are decoded lazily while iterating.
+ * Pages compressed by the exchange codecs of the server are decompressed here.
+ */
+final class BinaryDataDecoder
+{
+    private final List<ValueReader> readers;
+    private final PagesSerde pagesSerde = new PagesSerde(
+            new BlockEncodingManager(),
+            ImmutableMap.of(),
+            ImmutableMap.<PageCompressionCodec, PageDecompressor>of(
+                    LZ4, new AirliftPageDecompressor(new Lz4Decompressor()),
+                    ZSTD, new AirliftPageDecompressor(new ZstdDecompressor())),
+            PageCompressionPolicy.fixed(NONE),
+            Optional.empty(),
+            false);
+
+    public BinaryDataDecoder(List<Column> columns, TimeZoneKey timeZone, boolean legacyTimestamp)
+    {
+        requireNonNull(columns, "columns is null");
+        requireNonNull(timeZone, "timeZone is null");
+        // only the time zone and the timestamp semantics affect how values are rendered
+        SqlFunctionProperties properties = SqlFunctionProperties.builder()
+                .setTimeZoneKey(timeZone)
+                .setLegacyTimestamp(legacyTimestamp)
+                .setSessionLocale(Locale.ENGLISH)
+                .setSessionUser("")
+                .build();
+        ImmutableList.Builder<ValueReader> readers = ImmutableList.builder();
+        for (Column column : columns) {
+            readers.add(createReader(parseTypeSignature(column.getType()), properties));
+        }
+        this.readers = readers.build();
+    }
+
+    public Iterable<List<Object>> decode(Iterable<String> binaryData)
+    {
+        if (binaryData == null) {
+            return null;
+        }
+        return concat(transform(binaryData, this::decodePage));
+    }
+
+    private List<List<Object>> decodePage(String encodedPage)
+    {
+        byte[] bytes = Base64.getDecoder().decode(encodedPage);
+        SerializedPage serializedPage = readSerializedPage(new BasicSliceInput(Slices.wrappedBuffer(bytes)));
+        if (ENCRYPTED.isSet(serializedPage.getPageCodecMarkers())) {
+            throw new ClientException("Encrypted binary results are not supported; disable binary results");
+        }
+        Page page = pagesSerde.deserialize(serializedPage);
+        checkArgument(page.getChannelCount() == readers.size(), "page/column size mismatch");
+
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            List<Object> row = new ArrayList<>(readers.size());
+            for (int channel = 0; channel < readers.size(); channel++) {
+                row.add(readers.get(channel).read(page.getBlock(channel), position));
+            }
+            rows.add(unmodifiableList(row)); // allow nulls in list
+        }
+        return rows.build();
+    }
+
+    private static ValueReader createReader(TypeSignature signature, SqlFunctionProperties properties)
+    {
+        ValueReader reader = createNonNullReader(signature, properties);
+        return (block, position) -> block.isNull(position) ? null : reader.read(block, position);
+    }
+
+    private static ValueReader createNonNullReader(TypeSignature signature, SqlFunctionProperties properties)
+    {
+        if (signature.isDistinctType()) {
+            return createNonNullReader(signature.getDistinctTypeInfo().getBaseType(), properties);
+        }
+        if (signature.getTypeSignatureBase().hasTypeName() && signature.getTypeSignatureBase().hasStandardType()) {
+            return createNonNullReader(signature.getStandardTypeSignature(), properties);
+        }
+        if (signature.getBase().equals(ARRAY)) {
+            ValueReader elementReader = createReader(signature.getTypeParametersAsTypeSignatures().get(0), properties);
+            return (block, position) -> {
+                Block array = block.getBlock(position);
+                List<Object> values = new ArrayList<>(array.getPositionCount());
+                for (int i = 0; i < array.getPositionCount(); i++) {
+                    values.add(elementReader.read(array, i));
+                }
+                return values;
+            };
+        }
+        if (signature.getBase().equals(MAP)) {
+            ValueReader keyReader = createReader(signature.getTypeParametersAsTypeSignatures().get(0), properties);
+            ValueReader valueReader = createReader(signature.getTypeParametersAsTypeSignatures().get(1), properties);
+            return (block, position) -> {
+                // keys and values alternate in the block of a single map
+                Block map = block.getBlock(position);
+                Map<Object, Object> values = new HashMap<>();
+                for (int i = 0; i < map.getPositionCount(); i += 2) {
+                    values.put(keyReader.read(map, i), valueReader.read(map, i + 1));
+                }
+                return values;
+            };
+        }
+        if (signature.getBase().equals(ROW)) {
+            ImmutableList.Builder<String> names = ImmutableList.builder();
+            ImmutableList.Builder<ValueReader> fieldReaders = ImmutableList.builder();
+            for (int i = 0; i < signature.getParameters().size(); i++) {
+                TypeSignatureParameter parameter = signature.getParameters().get(i);
+                checkArgument(
+                        parameter.getKind() == ParameterKind.NAMED_TYPE,
+                        "Unexpected parameter [%s] for row type",
+                        parameter);
+                NamedTypeSignature namedTypeSignature = parameter.getNamedTypeSignature();
+                names.add(namedTypeSignature.getName().orElse("field" + i));
+                fieldReaders.add(createReader(namedTypeSignature.getTypeSignature(), properties));
+            }
+            return createRowReader(names.build(), fieldReaders.build());
+        }
+        if (signature.isVarcharEnum()) {
+            return (block, position) -> VARCHAR.getSlice(block, position).toStringUtf8();
+        }
+        if (signature.isBigintEnum()) {
+            return BIGINT::getLong;
+        }
+        switch (signature.getBase()) {
+            case StandardTypes.BIGINT:
+                return BIGINT::getLong;
+            case StandardTypes.INTEGER:
+                return (block, position) -> (int) INTEGER.getLong(block, position);
+            case StandardTypes.SMALLINT:
+                return (block, position) -> (short) SMALLINT.getLong(block, position);
+            case StandardTypes.TINYINT:
+                return (block, position) -> (byte) TINYINT.getLong(block, position);
+            case StandardTypes.DOUBLE:
+                return DOUBLE::getDouble;
+            case StandardTypes.REAL:
+                return (block, position) -> intBitsToFloat((int) REAL.getLong(block, position));
+            case StandardTypes.BOOLEAN:
+                return BOOLEAN::getBoolean;
+            case StandardTypes.VARCHAR:
+            case StandardTypes.JSON:
+                return (block, position) -> VARCHAR.getSlice(block, position).toStringUtf8();
+            case StandardTypes.VARBINARY:
+                return (block, position) -> VARBINARY.getSlice(block, position).getBytes();
+            case StandardTypes.CHAR:
+                return createStringReader(createCharType(signature.getParameters().get(0).getLongLiteral()), properties);
+            case StandardTypes.DECIMAL:
+                return createStringReader(
+                        createDecimalType(
+                                signature.getParameters().get(0).getLongLiteral().intValue(),
+                                signature.getParameters().get(1).getLongLiteral().intValue()),
+                        properties);
+            case StandardTypes.DATE:
+                return createStringReader(DATE, properties);
+            case StandardTypes.TIME:
+                return createStringReader(TIME, properties);
+            case StandardTypes.TIME_WITH_TIME_ZONE:
+                return createStringReader(TIME_WITH_TIME_ZONE, properties);
+            case StandardTypes.TIMESTAMP:
+                return createStringReader(TIMESTAMP, properties);
+            case StandardTypes.TIMESTAMP_MICROSECONDS:
+                return createStringReader(TIMESTAMP_MICROSECONDS, properties);
+            case StandardTypes.TIMESTAMP_WITH_TIME_ZONE:
+                return createStringReader(TIMESTAMP_WITH_TIME_ZONE, properties);
+            case StandardTypes.UUID:
+                return createStringReader(UUID, properties);
+            case StandardTypes.INTERVAL_YEAR_TO_MONTH:
+                return (block, position) -> IntervalYearMonth.formatMonths(block.getInt(position));
+            case StandardTypes.INTERVAL_DAY_TO_SECOND:
+                return (block, position) -> IntervalDayTime.formatMillis(block.getLong(position));
+            case UnknownType.NAME:
+                // every value of the unknown type is null
+                return (block, position) -> null;
+            default:
+                throw new ClientException(format("Type %s is not supported in binary results", signature));
+        }
+    }
+
+    private static ValueReader createRowReader(List<String> names, List<ValueReader> fieldReaders)
+    {
+        return (block, position) -> {
+            // the fields of a single row are the positions of its block
+            Block row = block.getBlock(position);
+            checkArgument(row.getPositionCount() == fieldReaders.size(), "Mismatched data values and row type");
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < fieldReaders.size(); i++) {
+                values.put(names.get(i), fieldReaders.get(i).read(row, i));
+            }
+            return values;
+        };
+    }
+
+    private static ValueReader createStringReader(Type type, SqlFunctionProperties properties)
+    {
+        return (block, position) -> type.getObjectValue(properties, block, position).toString();
+    }
+
+    private interface ValueReader
+    {
+        Object read(Block block, int position);
+    }
+
+    private static class AirliftPageDecompressor
+            implements PageDecompressor
+    {
+        private final Decompressor decompressor;
+
+        private AirliftPageDecompressor(Decompressor decompressor)
+        {
+            this.decompressor = requireNonNull(decompressor, "decompressor is null");
+        }
+
+        @Override
+        public int decompress(
+                byte[] input,
+                int inputOffset,
+                int inputLength,
+                byte[] output,
+                int outputOffset,
+                int maxOutputLength)
+        {
+            return decompressor.decompress(input, inputOffset, inputLength, output, outputOffset, maxOutputLength);
+        }
+
+        @Override
+        public void decompress(ByteBuffer input, ByteBuffer output)
+        {
+            decompressor.decompress(input, output);
+        }
+    }
+}
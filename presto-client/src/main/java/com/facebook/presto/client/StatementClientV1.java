@@ -56,6 +56,7 @@ import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLIENT_TAGS;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_DEALLOCATED_PREPARE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_EXTRA_CREDENTIAL;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_LANGUAGE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_LEGACY_TIMESTAMP;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PREPARED_STATEMENT;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_REMOVED_SESSION_FUNCTION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_RESOURCE_ESTIMATE;
@@ -115,6 +116,8 @@ class StatementClientV1
     private final Map<String, String> addedSessionFunctions = new ConcurrentHashMap<>();
     private final Set<String> removedSessionFunctions = newConcurrentHashSet();
     private final boolean validateNextUriSource;
+    private final AtomicReference<QueryData> currentData = new AtomicReference<>();
+    private final AtomicReference<BinaryDataDecoder> binaryDataDecoder = new AtomicReference<>();
 
     private final AtomicReference<State> state = new AtomicReference<>(State.RUNNING);
 
@@ -149,7 +152,11 @@ class StatementClientV1
         if (url == null) {
             throw new ClientException("Invalid server URL: " + session.getServer());
         }
-        url = url.newBuilder().encodedPath("/v1/statement").build();
+        HttpUrl.Builder urlBuilder = url.newBuilder().encodedPath("/v1/statement");
+        if (session.isBinaryResults()) {
+            urlBuilder.addQueryParameter("binaryResults", "true");
+        }
+        url = urlBuilder.build();
 
         Request.Builder builder = prepareRequest(url)
                 .post(RequestBody.create(MEDIA_TYPE_TEXT, query));
@@ -266,7 +273,7 @@ class StatementClientV1
     public QueryData currentData()
     {
         checkState(isRunning(), "current position is not valid (cursor past end)");
-        return currentResults.get();
+        return currentData.get();
     }
 
     @Override
@@ -491,9 +498,31 @@ class StatementClientV1
             removedSessionFunctions.add(urlDecode(signature));
         }
 
+        if (results.getBinaryData() != null) {
+            Iterable<List<Object>> data = getBinaryDataDecoder(headers, results.getColumns()).decode(results.getBinaryData());
+            currentData.set(() -> data);
+        }
+        else {
+            currentData.set(results);
+        }
         currentResults.set(results);
     }
 
+    private BinaryDataDecoder getBinaryDataDecoder(Headers headers, List<Column> columns)
+    {
+        BinaryDataDecoder decoder = binaryDataDecoder.get();
+        if (decoder == null) {
+            // the columns of a query do not change once they are known
+            String legacyTimestamp = headers.get(PRESTO_LEGACY_TIMESTAMP);
+            if (legacyTimestamp == null) {
+                throw new ClientException("Server did not report the legacy timestamp semantics of the binary results");
+            }
+            decoder = new BinaryDataDecoder(columns, timeZone, Boolean.parseBoolean(legacyTimestamp));
+            binaryDataDecoder.set(decoder);
+        }
+        return decoder;
+    }
+
     private RuntimeException requestFailedException(String task, Request request, JsonResponse<QueryResults> response)
     {
         if (!response.hasValue()) {
@@ -0,0 +1,175 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.airlift.json.JsonCodec;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.DynamicSliceOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.airlift.json.JsonCodec.jsonCodec;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.TimeZoneKey.UTC_KEY;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.Slices.utf8Slice;
+
+/**
+ * Compares the rows per second a client decodes from a JSON result with those it decodes from a binary result.
+ */
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class BenchmarkQueryResultsDecoding
+{
+    private static final int ROWS_PER_PAGE = 1024;
+    private static final int PAGES = 10;
+    private static final int ROWS = ROWS_PER_PAGE * PAGES;
+    private static final JsonCodec<QueryResults> QUERY_RESULTS_CODEC = jsonCodec(QueryResults.class);
+
+    @State(Scope.Thread)
+    public static class Data
+    {
+        private final List<Type> types = ImmutableList.of(BIGINT, DOUBLE, VARCHAR, DATE);
+        private final List<Column> columns = types.stream()
+                .map(type -> new Column("c" + type.getDisplayName(), type))
+                .collect(toImmutableList());
+
+        private String jsonResults;
+        private String binaryResults;
+
+        @Setup
+        public void setup()
+        {
+            PagesSerde pagesSerde = new PagesSerde(new BlockEncodingManager(), Optional.empty(), Optional.empty(), Optional.empty());
+            ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+            ImmutableList.Builder<String> pages = ImmutableList.builder();
+            for (int page = 0; page < PAGES; page++) {
+                BlockBuilder[] builders = types.stream()
+                        .map(type -> type.createBlockBuilder(null, ROWS_PER_PAGE))
+                        .toArray(BlockBuilder[]::new);
+                for (int position = 0; position < ROWS_PER_PAGE; position++) {
+                    int row = page * ROWS_PER_PAGE + position;
+                    String comment = "comment " + row;
+                    BIGINT.writeLong(builders[0], row);
+                    DOUBLE.writeDouble(builders[1], row * 0.5);
+                    VARCHAR.writeSlice(builders[2], utf8Slice(comment));
+                    DATE.writeLong(builders[3], row % 20_000);
+                    rows.add(ImmutableList.of((long) row, row * 0.5, comment, LocalDate.ofEpochDay(row % 20_000).toString()));
+                }
+                Page serialized = new Page(Arrays.stream(builders)
+                        .map(BlockBuilder::build)
+                        .toArray(Block[]::new));
+                DynamicSliceOutput output = new DynamicSliceOutput(1000);
+                writeSerializedPage(output, pagesSerde.serialize(serialized));
+                pages.add(Base64.getEncoder().encodeToString(output.slice().getBytes()));
+            }
+            jsonResults = QUERY_RESULTS_CODEC.toJson(createQueryResults(columns, rows.build(), null));
+            binaryResults = QUERY_RESULTS_CODEC.toJson(createQueryResults(columns, null, pages.build()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long decodeJson(Data data)
+    {
+        QueryResults results = QUERY_RESULTS_CODEC.fromJson(data.jsonResults);
+        return countValues(results.getData());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long decodeBinary(Data data)
+    {
+        QueryResults results = QUERY_RESULTS_CODEC.fromJson(data.binaryResults);
+        BinaryDataDecoder decoder = new BinaryDataDecoder(results.getColumns(), UTC_KEY, true);
+        return countValues(decoder.decode(results.getBinaryData()));
+    }
+
+    private static long countValues(Iterable<List<Object>> rows)
+    {
+        long values = 0;
+        for (List<Object> row : rows) {
+            for (Object value : row) {
+                if (value != null) {
+                    values++;
+                }
+            }
+        }
+        return values;
+    }
+
+    private static QueryResults createQueryResults(List<Column> columns, List<List<Object>> data, List<String> binaryData)
+    {
+        return new QueryResults(
+                "20160128_214710_00012_rk68b",
+                URI.create("http://localhost:8080/query.html?20160128_214710_00012_rk68b"),
+                null,
+                null,
+                columns,
+                data,
+                binaryData,
+                StatementStats.builder().setState("FINISHED").build(),
+                null,
+                ImmutableList.of(),
+                null,
+                null);
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Data data = new Data();
+        data.setup();
+        new BenchmarkQueryResultsDecoding().decodeJson(data);
+        new BenchmarkQueryResultsDecoding().decodeBinary(data);
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkQueryResultsDecoding.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
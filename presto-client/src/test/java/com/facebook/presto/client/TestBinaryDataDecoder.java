@@ -0,0 +1,269 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.common.type.ArrayType;
+import com.facebook.presto.common.type.DecimalType;
+import com.facebook.presto.common.type.RowType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.spi.page.PageCompressionCodec;
+import com.facebook.presto.spi.page.PageCompressionPolicy;
+import com.facebook.presto.spi.page.PageCompressor;
+import com.facebook.presto.spi.page.PageDecompressor;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.compress.Compressor;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.zstd.ZstdCompressor;
+import io.airlift.slice.DynamicSliceOutput;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.Decimals.encodeScaledValue;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.RowType.field;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TimeZoneKey.UTC_KEY;
+import static com.facebook.presto.common.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.spi.page.PageCompressionCodec.LZ4;
+import static com.facebook.presto.spi.page.PageCompressionCodec.ZSTD;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Float.floatToRawIntBits;
+import static java.util.Collections.nCopies;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class TestBinaryDataDecoder
+{
+    private static final PagesSerde PAGES_SERDE = new PagesSerde(new BlockEncodingManager(), Optional.empty(), Optional.empty(), Optional.empty());
+
+    @Test
+    public void testPrimitiveTypes()
+    {
+        DecimalType shortDecimal = DecimalType.createDecimalType(10, 2);
+        DecimalType longDecimal = DecimalType.createDecimalType(38, 2);
+        List<Type> types = ImmutableList.of(BIGINT, INTEGER, SMALLINT, TINYINT, DOUBLE, REAL, BOOLEAN, VARCHAR, VARBINARY, DATE, shortDecimal, longDecimal, TIMESTAMP);
+
+        BlockBuilder[] builders = createBlockBuilders(types);
+        BIGINT.writeLong(builders[0], 1000);
+        INTEGER.writeLong(builders[1], 100);
+        SMALLINT.writeLong(builders[2], 10);
+        TINYINT.writeLong(builders[3], 1);
+        DOUBLE.writeDouble(builders[4], 100.23456);
+        REAL.writeLong(builders[5], floatToRawIntBits(100.23456f));
+        BOOLEAN.writeBoolean(builders[6], true);
+        VARCHAR.writeSlice(builders[7], utf8Slice("test string"));
+        VARBINARY.writeSlice(builders[8], wrappedBuffer(new byte[] {1, 2, 3}));
+        DATE.writeLong(builders[9], 17348);
+        shortDecimal.writeLong(builders[10], 215);
+        longDecimal.writeSlice(builders[11], encodeScaledValue(new BigDecimal("12345678901234567890.12")));
+        TIMESTAMP.writeLong(builders[12], 998449445321L);
+        for (BlockBuilder builder : builders) {
+            builder.appendNull();
+        }
+
+        List<List<Object>> rows = decode(types, builders);
+        assertEquals(rows.size(), 2);
+        List<Object> row = rows.get(0);
+        assertEquals(row.get(0), 1000L);
+        assertEquals(row.get(1), 100);
+        assertEquals(row.get(2), (short) 10);
+        assertEquals(row.get(3), (byte) 1);
+        assertEquals(row.get(4), 100.23456);
+        assertEquals(row.get(5), 100.23456f);
+        assertEquals(row.get(6), true);
+        assertEquals(row.get(7), "test string");
+        assertEquals(row.get(8), new byte[] {1, 2, 3});
+        assertEquals(row.get(9), "2017-07-01");
+        assertEquals(row.get(10), "2.15");
+        assertEquals(row.get(11), "12345678901234567890.12");
+        assertEquals(row.get(12), "2001-08-22 03:04:05.321");
+        assertEquals(rows.get(1), nCopies(types.size(), null));
+    }
+
+    @Test
+    public void testStructuralTypes()
+    {
+        ArrayType arrayType = new ArrayType(BIGINT);
+        RowType rowType = RowType.from(ImmutableList.of(field("foo", BIGINT), field("bar", new ArrayType(VARCHAR))));
+        List<Type> types = ImmutableList.of(arrayType, rowType);
+
+        BlockBuilder[] builders = createBlockBuilders(types);
+        BlockBuilder array = builders[0].beginBlockEntry();
+        BIGINT.writeLong(array, 1);
+        array.appendNull();
+        BIGINT.writeLong(array, 4);
+        builders[0].closeEntry();
+
+        BlockBuilder row = builders[1].beginBlockEntry();
+        BIGINT.writeLong(row, 2);
+        BlockBuilder nested = row.beginBlockEntry();
+        VARCHAR.writeSlice(nested, utf8Slice("x"));
+        row.closeEntry();
+        builders[1].closeEntry();
+
+        List<List<Object>> rows = decode(types, builders);
+        assertEquals(rows.size(), 1);
+        assertEquals(rows.get(0).get(0), Arrays.asList(1L, null, 4L));
+        assertEquals(rows.get(0).get(1), ImmutableMap.of("foo", 2L, "bar", ImmutableList.of("x")));
+    }
+
+    @Test
+    public void testMultiplePages()
+    {
+        List<Type> types = ImmutableList.of(BIGINT);
+        List<Column> columns = ImmutableList.of(new Column("c", BIGINT));
+        ImmutableList.Builder<String> pages = ImmutableList.builder();
+        for (int page = 0; page < 3; page++) {
+            BlockBuilder[] builders = createBlockBuilders(types);
+            BIGINT.writeLong(builders[0], page);
+            pages.add(encode(builders));
+        }
+
+        BinaryDataDecoder decoder = new BinaryDataDecoder(columns, UTC_KEY, true);
+        assertEquals(ImmutableList.copyOf(decoder.decode(pages.build())), ImmutableList.of(ImmutableList.of(0L), ImmutableList.of(1L), ImmutableList.of(2L)));
+        assertNull(decoder.decode(null));
+    }
+
+    @Test
+    public void testCompressedPages()
+    {
+        assertCompressedPage(LZ4, new Lz4Compressor());
+        assertCompressedPage(ZSTD, new ZstdCompressor());
+    }
+
+    private static void assertCompressedPage(PageCompressionCodec codec, Compressor compressor)
+    {
+        PagesSerde pagesSerde = new PagesSerde(
+                new BlockEncodingManager(),
+                ImmutableMap.of(codec, new AirliftPageCompressor(compressor)),
+                ImmutableMap.of(codec, new NoopPageDecompressor()),
+                PageCompressionPolicy.fixed(codec),
+                Optional.empty(),
+                false);
+        BlockBuilder builder = VARCHAR.createBlockBuilder(null, 1000);
+        for (int position = 0; position < 1000; position++) {
+            VARCHAR.writeSlice(builder, utf8Slice("compressible"));
+        }
+        SerializedPage serializedPage = pagesSerde.serialize(new Page(builder.build()));
+        assertEquals(PageCompressionCodec.fromMarkers(serializedPage.getPageCodecMarkers()), codec);
+        DynamicSliceOutput output = new DynamicSliceOutput(1000);
+        writeSerializedPage(output, serializedPage);
+
+        BinaryDataDecoder decoder = new BinaryDataDecoder(ImmutableList.of(new Column("c", VARCHAR)), UTC_KEY, true);
+        List<List<Object>> rows = ImmutableList.copyOf(decoder.decode(ImmutableList.of(Base64.getEncoder().encodeToString(output.slice().getBytes()))));
+        assertEquals(rows, nCopies(1000, ImmutableList.of("compressible")));
+    }
+
+    @Test(expectedExceptions = ClientException.class, expectedExceptionsMessageRegExp = "Type ipaddress is not supported in binary results")
+    public void testUnsupportedType()
+    {
+        new BinaryDataDecoder(ImmutableList.of(new Column("c", "ipaddress", null)), UTC_KEY, true);
+    }
+
+    private static List<List<Object>> decode(List<Type> types, BlockBuilder[] builders)
+    {
+        List<Column> columns = types.stream()
+                .map(type -> new Column("c", type))
+                .collect(toImmutableList());
+        BinaryDataDecoder decoder = new BinaryDataDecoder(columns, UTC_KEY, true);
+        return ImmutableList.copyOf(decoder.decode(ImmutableList.of(encode(builders))));
+    }
+
+    private static BlockBuilder[] createBlockBuilders(List<Type> types)
+    {
+        return types.stream()
+                .map(type -> type.createBlockBuilder(null, 2))
+                .toArray(BlockBuilder[]::new);
+    }
+
+    private static String encode(BlockBuilder[] builders)
+    {
+        Page page = new Page(Arrays.stream(builders)
+                .map(BlockBuilder::build)
+                .toArray(Block[]::new));
+        DynamicSliceOutput output = new DynamicSliceOutput(1000);
+        writeSerializedPage(output, PAGES_SERDE.serialize(page));
+        return Base64.getEncoder().encodeToString(output.slice().getBytes());
+    }
+
+    private static class AirliftPageCompressor
+            implements PageCompressor
+    {
+        private final Compressor compressor;
+
+        private AirliftPageCompressor(Compressor compressor)
+        {
+            this.compressor = compressor;
+        }
+
+        @Override
+        public int maxCompressedLength(int uncompressedSize)
+        {
+            return compressor.maxCompressedLength(uncompressedSize);
+        }
+
+        @Override
+        public int compress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset, int maxOutputLength)
+        {
+            return compressor.compress(input, inputOffset, inputLength, output, outputOffset, maxOutputLength);
+        }
+
+        @Override
+        public void compress(ByteBuffer input, ByteBuffer output)
+        {
+            compressor.compress(input, output);
+        }
+    }
+
+    // the serde of the test only compresses, the decoder under test decompresses
+    private static class NoopPageDecompressor
+            implements PageDecompressor
+    {
+        @Override
+        public int decompress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset, int maxOutputLength)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void decompress(ByteBuffer input, ByteBuffer output)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
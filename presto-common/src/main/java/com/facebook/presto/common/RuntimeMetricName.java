@@ -62,6 +62,8 @@ public class RuntimeMetricName
     public static final String TASK_SCHEDULED_TIME_NANOS = "taskScheduledTimeNanos";
     // Blocked time for the operators due to waiting for inputs.
     public static final String TASK_BLOCKED_TIME_NANOS = "taskBlockedTimeNanos";
+    // Wall time in which some leaf splits of a task were still running while others had finished and none were left to start.
+    public static final String TASK_STRAGGLER_WALL_TIME_NANOS = "taskStragglerWallTimeNanos";
     public static final String TASK_UPDATE_DELIVERED_WALL_TIME_NANOS = "taskUpdateDeliveredWallTimeNanos";
     public static final String TASK_UPDATE_SERIALIZED_CPU_TIME_NANOS = "taskUpdateSerializedCpuNanos";
     public static final String TASK_PLAN_SERIALIZED_CPU_TIME_NANOS = "taskPlanSerializedCpuNanos";
@@ -76,4 +78,10 @@ public class RuntimeMetricName
     public static final String DIRECTORY_LISTING_CACHE_MISS = "directoryListingCacheMiss";
     public static final String DIRECTORY_LISTING_TIME_NANOS = "directoryListingTimeNanos";
     public static final String FILES_READ_COUNT = "filesReadCount";
+    public static final String SKIPPED_STRIPES_COUNT = "skippedStripesCount";
+    public static final String SKIPPED_ROW_GROUPS_COUNT = "skippedRowGroupsCount";
+    // Uncompressed size of the pages an exchange sent or received, by the codec they were compressed with
+    public static final String EXCHANGE_UNCOMPRESSED_PAGE_BYTES = "exchangeUncompressedPageBytes";
+    public static final String EXCHANGE_LZ4_COMPRESSED_PAGE_BYTES = "exchangeLz4CompressedPageBytes";
+    public static final String EXCHANGE_ZSTD_COMPRESSED_PAGE_BYTES = "exchangeZstdCompressedPageBytes";
 }
@@ -40,6 +40,7 @@ public class HiveCommonClientConfig
     private double orcWriterValidationPercentage;
     private DataSize orcTinyStripeThreshold = new DataSize(8, MEGABYTE);
     private boolean parquetBatchReadOptimizationEnabled;
+    private boolean parquetBloomFiltersEnabled;
     private boolean parquetEnableBatchReaderVerification;
     private DataSize parquetMaxReadBlockSize = new DataSize(16, MEGABYTE);
     private boolean rangeFiltersOnSubscriptsEnabled;
@@ -208,6 +209,19 @@ public class HiveCommonClientConfig
         return this.parquetBatchReadOptimizationEnabled;
     }
 
+    public boolean isParquetBloomFiltersEnabled()
+    {
+        return parquetBloomFiltersEnabled;
+    }
+
+    @Config("hive.parquet.bloom-filters.enabled")
+    @ConfigDescription("Skip Parquet row groups whose Bloom filters do not contain the values of equality and IN predicates")
+    public HiveCommonClientConfig setParquetBloomFiltersEnabled(boolean parquetBloomFiltersEnabled)
+    {
+        this.parquetBloomFiltersEnabled = parquetBloomFiltersEnabled;
+        return this;
+    }
+
     @Config("hive.enable-parquet-batch-reader-verification")
     @ConfigDescription("enable optimized parquet reader")
     public HiveCommonClientConfig setParquetBatchReaderVerificationEnabled(boolean parquetEnableBatchReaderVerification)
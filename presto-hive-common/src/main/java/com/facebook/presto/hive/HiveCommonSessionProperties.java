@@ -58,6 +58,7 @@ public class HiveCommonSessionProperties
     private static final String ORC_TINY_STRIPE_THRESHOLD = "orc_tiny_stripe_threshold";
     private static final String ORC_ZSTD_JNI_DECOMPRESSION_ENABLED = "orc_zstd_jni_decompression_enabled";
     private static final String PARQUET_BATCH_READER_VERIFICATION_ENABLED = "parquet_batch_reader_verification_enabled";
+    private static final String PARQUET_BLOOM_FILTERS_ENABLED = "parquet_bloom_filters_enabled";
     private static final String PARQUET_MAX_READ_BLOCK_SIZE = "parquet_max_read_block_size";
     private static final String PARQUET_USE_COLUMN_NAMES = "parquet_use_column_names";
     public static final String READ_MASKED_VALUE_ENABLED = "read_null_masked_parquet_encrypted_value_enabled";
@@ -163,6 +164,11 @@ public class HiveCommonSessionProperties
                         "Is Parquet batch reader verification enabled? This is for testing purposes only, not to be used in production",
                         hiveCommonClientConfig.isParquetBatchReaderVerificationEnabled(),
                         false),
+                booleanProperty(
+                        PARQUET_BLOOM_FILTERS_ENABLED,
+                        "Parquet: Enable bloom filters for predicate pushdown",
+                        hiveCommonClientConfig.isParquetBloomFiltersEnabled(),
+                        false),
                 dataSizeSessionProperty(
                         PARQUET_MAX_READ_BLOCK_SIZE,
                         "Parquet: Maximum size of a block to read",
@@ -267,6 +273,11 @@ public class HiveCommonSessionProperties
         return session.getProperty(PARQUET_BATCH_READER_VERIFICATION_ENABLED, Boolean.class);
     }
 
+    public static boolean isParquetBloomFiltersEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_BLOOM_FILTERS_ENABLED, Boolean.class);
+    }
+
     public static DataSize getParquetMaxReadBlockSize(ConnectorSession session)
     {
         return session.getProperty(PARQUET_MAX_READ_BLOCK_SIZE, DataSize.class);
@@ -47,6 +47,7 @@ public class TestHiveCommonClientConfig
                 .setZstdJniDecompressionEnabled(false)
                 .setParquetBatchReaderVerificationEnabled(false)
                 .setParquetBatchReadOptimizationEnabled(false)
+                .setParquetBloomFiltersEnabled(false)
                 .setReadNullMaskedParquetEncryptedValue(false));
     }
 
@@ -71,6 +72,7 @@ public class TestHiveCommonClientConfig
                 .put("hive.zstd-jni-decompression-enabled", "true")
                 .put("hive.enable-parquet-batch-reader-verification", "true")
                 .put("hive.parquet-batch-read-optimization-enabled", "true")
+                .put("hive.parquet.bloom-filters.enabled", "true")
                 .put("hive.read-null-masked-parquet-encrypted-value-enabled", "true")
                 .build();
 
@@ -92,6 +94,7 @@ public class TestHiveCommonClientConfig
                 .setZstdJniDecompressionEnabled(true)
                 .setParquetBatchReaderVerificationEnabled(true)
                 .setParquetBatchReadOptimizationEnabled(true)
+                .setParquetBloomFiltersEnabled(true)
                 .setReadNullMaskedParquetEncryptedValue(true);
 
         ConfigAssertions.assertFullMapping(properties, expected);
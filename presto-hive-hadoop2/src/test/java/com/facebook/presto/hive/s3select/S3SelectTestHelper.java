@@ -204,7 +204,8 @@ public class S3SelectTestHelper
                 getDefaultHiveSelectivePageSourceFactories(config, metastoreClientConfig),
                 getDefaultHiveAggregatedPageSourceFactories(config, metastoreClientConfig),
                 FUNCTION_AND_TYPE_MANAGER,
-                ROW_EXPRESSION_SERVICE);
+                ROW_EXPRESSION_SERVICE,
+                FUNCTION_RESOLUTION);
     }
 
     public void tearDown()
@@ -0,0 +1,617 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.DictionaryBlock;
+import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.TypeManager;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.function.FunctionHandle;
+import com.facebook.presto.spi.function.StandardFunctionResolution;
+import com.facebook.presto.spi.plan.AggregationNode.Aggregation;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.AGGREGATED;
+import static com.facebook.presto.spi.StandardErrorCode.NUMERIC_VALUE_OUT_OF_RANGE;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Math.max;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Computes the partial states of an aggregation grouped by a varchar column over the pages of a split.
+ * Readers return dictionary encoded columns as dictionary blocks over the dictionary of a stripe,
+ * row group or column chunk, so the group of a row is found by its dictionary id without hashing
+ * the value. The groups are emitted as one partial row each whenever the dictionary changes or
+ * their number reaches a limit, which may split a page between two flushes.
+ * <p>
+ * Rows that are not dictionary encoded are grouped by value. The same value may be emitted in more
+ * than one row, which the final aggregation merges.
+ */
+public class DictionaryAggregatedPageSource
+        implements ConnectorPageSource
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(DictionaryAggregatedPageSource.class).instanceSize();
+
+    // bounds the memory of a split whose grouping column has many distinct values
+    private static final int MAX_GROUP_COUNT = 65_536;
+    private static final int KEY_CHANNEL = 0;
+
+    private final ConnectorPageSource delegate;
+    private final Type keyType;
+    // one accumulator per output column, or null for the grouping column
+    private final Accumulator[] accumulators;
+
+    private Block currentDictionary;
+    private int[] dictionaryGroupIds;
+    private final Map<Slice, Integer> valueGroupIds = new HashMap<>();
+    private int nullGroupId = -1;
+    private BlockBuilder groupKeys;
+    private int groupCount;
+    // the rows of a page left over when the group limit was reached in the middle of it
+    private Page pendingPage;
+    private boolean finished;
+
+    /**
+     * @param columns the output columns: the grouping column and aggregated columns
+     * @param inputColumns the columns read by the delegate, starting with the grouping column
+     */
+    public DictionaryAggregatedPageSource(
+            ConnectorPageSource delegate,
+            List<HiveColumnHandle> columns,
+            List<HiveColumnHandle> inputColumns,
+            TypeManager typeManager,
+            StandardFunctionResolution functionResolution)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        requireNonNull(columns, "columns is null");
+        requireNonNull(inputColumns, "inputColumns is null");
+        requireNonNull(typeManager, "typeManager is null");
+        requireNonNull(functionResolution, "functionResolution is null");
+        checkArgument(!inputColumns.isEmpty() && inputColumns.get(KEY_CHANNEL).getColumnType() != AGGREGATED, "first input column must be the grouping column");
+
+        this.keyType = typeManager.getType(inputColumns.get(KEY_CHANNEL).getTypeSignature());
+        this.accumulators = new Accumulator[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            HiveColumnHandle column = columns.get(i);
+            if (column.getColumnType() == AGGREGATED) {
+                accumulators[i] = createAccumulator(column, inputColumns, typeManager, functionResolution);
+            }
+        }
+        this.groupKeys = keyType.createBlockBuilder(null, 0);
+    }
+
+    private static Accumulator createAccumulator(HiveColumnHandle column, List<HiveColumnHandle> inputColumns, TypeManager typeManager, StandardFunctionResolution functionResolution)
+    {
+        Aggregation aggregation = column.getPartialAggregation().get();
+        FunctionHandle functionHandle = aggregation.getFunctionHandle();
+        Type type = typeManager.getType(column.getTypeSignature());
+        int channel = -1;
+        if (!aggregation.getArguments().isEmpty()) {
+            for (int i = 0; i < inputColumns.size(); i++) {
+                if (inputColumns.get(i).getHiveColumnIndex() == column.getHiveColumnIndex()) {
+                    channel = i;
+                    break;
+                }
+            }
+            checkArgument(channel >= 0, "no input column for aggregated column %s", column);
+        }
+
+        if (functionResolution.isCountFunction(functionHandle)) {
+            return new CountAccumulator(channel);
+        }
+        if (functionResolution.isSumFunction(functionHandle) && type.equals(BIGINT)) {
+            return new LongSumAccumulator(channel);
+        }
+        if (functionResolution.isSumFunction(functionHandle) && type.equals(DOUBLE)) {
+            return new DoubleSumAccumulator(channel);
+        }
+        if (functionResolution.isMinFunction(functionHandle) && type.getJavaType() == long.class) {
+            return new LongMinMaxAccumulator(channel, type, true);
+        }
+        if (functionResolution.isMaxFunction(functionHandle) && type.getJavaType() == long.class) {
+            return new LongMinMaxAccumulator(channel, type, false);
+        }
+        throw new IllegalArgumentException(format("Unsupported aggregation for column %s: %s", column, aggregation));
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        if (finished) {
+            return null;
+        }
+        if (groupCount >= MAX_GROUP_COUNT) {
+            return flush();
+        }
+
+        Page page = pendingPage;
+        pendingPage = null;
+        if (page == null) {
+            page = delegate.getNextPage();
+            if (page == null) {
+                if (delegate.isFinished()) {
+                    finished = true;
+                    return flush();
+                }
+                return null;
+            }
+            if (page.getPositionCount() == 0) {
+                return null;
+            }
+        }
+
+        Page output = null;
+        Block keyBlock = page.getBlock(KEY_CHANNEL).getLoadedBlock();
+        if (keyBlock instanceof DictionaryBlock && ((DictionaryBlock) keyBlock).getDictionary() != currentDictionary) {
+            output = flush();
+            currentDictionary = ((DictionaryBlock) keyBlock).getDictionary();
+            dictionaryGroupIds = new int[currentDictionary.getPositionCount()];
+            Arrays.fill(dictionaryGroupIds, -1);
+        }
+
+        int[] groupIds = new int[page.getPositionCount()];
+        int positionCount = getGroupIds(keyBlock, groupIds);
+        if (positionCount < page.getPositionCount()) {
+            // the group limit was reached, so the rest of the page goes to the groups of the next flush
+            pendingPage = page.getRegion(positionCount, page.getPositionCount() - positionCount);
+            page = page.getRegion(0, positionCount);
+            groupIds = Arrays.copyOf(groupIds, positionCount);
+        }
+        for (Accumulator accumulator : accumulators) {
+            if (accumulator != null) {
+                accumulator.ensureCapacity(groupCount);
+                accumulator.add(groupIds, page);
+            }
+        }
+        if (output == null && groupCount >= MAX_GROUP_COUNT) {
+            output = flush();
+        }
+        return output;
+    }
+
+    /**
+     * Assigns the group ids of the rows of the block until a row needs a new group past the group limit.
+     *
+     * @return the number of rows with a group id
+     */
+    private int getGroupIds(Block keyBlock, int[] groupIds)
+    {
+        int positionCount = keyBlock.getPositionCount();
+        if (keyBlock instanceof DictionaryBlock) {
+            DictionaryBlock dictionaryBlock = (DictionaryBlock) keyBlock;
+            for (int position = 0; position < positionCount; position++) {
+                int id = dictionaryBlock.getId(position);
+                int groupId = dictionaryGroupIds[id];
+                if (groupId < 0) {
+                    if (groupCount >= MAX_GROUP_COUNT) {
+                        return position;
+                    }
+                    groupId = addGroup(currentDictionary, id);
+                    dictionaryGroupIds[id] = groupId;
+                }
+                groupIds[position] = groupId;
+            }
+        }
+        else if (keyBlock instanceof RunLengthEncodedBlock) {
+            int groupId = getValueGroupId(((RunLengthEncodedBlock) keyBlock).getValue(), 0);
+            if (groupId < 0) {
+                return 0;
+            }
+            Arrays.fill(groupIds, groupId);
+        }
+        else {
+            for (int position = 0; position < positionCount; position++) {
+                int groupId = getValueGroupId(keyBlock, position);
+                if (groupId < 0) {
+                    return position;
+                }
+                groupIds[position] = groupId;
+            }
+        }
+        return positionCount;
+    }
+
+    /**
+     * @return the group id of the value, or -1 if it needs a new group past the group limit
+     */
+    private int getValueGroupId(Block block, int position)
+    {
+        if (block.isNull(position)) {
+            if (nullGroupId < 0 && groupCount < MAX_GROUP_COUNT) {
+                nullGroupId = addGroup(block, position);
+            }
+            return nullGroupId;
+        }
+        Slice value = keyType.getSlice(block, position);
+        Integer groupId = valueGroupIds.get(value);
+        if (groupId == null) {
+            if (groupCount >= MAX_GROUP_COUNT) {
+                return -1;
+            }
+            groupId = addGroup(block, position);
+            // the value must not keep the buffer of the page alive
+            valueGroupIds.put(Slices.copyOf(value), groupId);
+        }
+        return groupId;
+    }
+
+    private int addGroup(Block block, int position)
+    {
+        keyType.appendTo(block, position, groupKeys);
+        return groupCount++;
+    }
+
+    private Page flush()
+    {
+        if (groupCount == 0) {
+            return null;
+        }
+
+        Block keyBlock = groupKeys.build();
+        Block[] blocks = new Block[accumulators.length];
+        for (int i = 0; i < accumulators.length; i++) {
+            blocks[i] = accumulators[i] == null ? keyBlock : accumulators[i].build(groupCount);
+        }
+        Page page = new Page(groupCount, blocks);
+
+        groupKeys = keyType.createBlockBuilder(null, groupCount);
+        groupCount = 0;
+        valueGroupIds.clear();
+        nullGroupId = -1;
+        if (dictionaryGroupIds != null) {
+            Arrays.fill(dictionaryGroupIds, -1);
+        }
+        return page;
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return delegate.getCompletedBytes();
+    }
+
+    @Override
+    public long getCompletedPositions()
+    {
+        return delegate.getCompletedPositions();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return delegate.getReadTimeNanos();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return finished;
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        long accumulatorsSize = 0;
+        for (Accumulator accumulator : accumulators) {
+            if (accumulator != null) {
+                accumulatorsSize += accumulator.getRetainedSizeInBytes();
+            }
+        }
+        long pendingPageSize = pendingPage == null ? 0 : pendingPage.getRetainedSizeInBytes();
+        return delegate.getSystemMemoryUsage() + INSTANCE_SIZE + groupKeys.getRetainedSizeInBytes() + sizeOf(dictionaryGroupIds) + accumulatorsSize + pendingPageSize;
+    }
+
+    @Override
+    public RuntimeStats getRuntimeStats()
+    {
+        return delegate.getRuntimeStats();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+
+    private abstract static class Accumulator
+    {
+        // channel of the argument in the input pages, or -1 for count(*)
+        protected final int channel;
+
+        protected Accumulator(int channel)
+        {
+            this.channel = channel;
+        }
+
+        /**
+         * Makes room for the states of groups below groupCount. Building the block of the states resets them.
+         */
+        abstract void ensureCapacity(int groupCount);
+
+        abstract void add(int[] groupIds, Page page);
+
+        abstract Block build(int groupCount);
+
+        abstract long getRetainedSizeInBytes();
+
+        protected static int newCapacity(int length, int groupCount)
+        {
+            return max(length * 2, max(groupCount, 1024));
+        }
+    }
+
+    private static class CountAccumulator
+            extends Accumulator
+    {
+        private long[] counts = new long[0];
+
+        private CountAccumulator(int channel)
+        {
+            super(channel);
+        }
+
+        @Override
+        void ensureCapacity(int groupCount)
+        {
+            if (counts.length < groupCount) {
+                counts = Arrays.copyOf(counts, newCapacity(counts.length, groupCount));
+            }
+        }
+
+        @Override
+        void add(int[] groupIds, Page page)
+        {
+            if (channel < 0) {
+                for (int groupId : groupIds) {
+                    counts[groupId]++;
+                }
+                return;
+            }
+            Block block = page.getBlock(channel);
+            if (!block.mayHaveNull()) {
+                for (int groupId : groupIds) {
+                    counts[groupId]++;
+                }
+                return;
+            }
+            for (int position = 0; position < groupIds.length; position++) {
+                if (!block.isNull(position)) {
+                    counts[groupIds[position]]++;
+                }
+            }
+        }
+
+        @Override
+        Block build(int groupCount)
+        {
+            BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(groupCount);
+            for (int groupId = 0; groupId < groupCount; groupId++) {
+                BIGINT.writeLong(blockBuilder, counts[groupId]);
+            }
+            Arrays.fill(counts, 0, groupCount, 0);
+            return blockBuilder.build();
+        }
+
+        @Override
+        long getRetainedSizeInBytes()
+        {
+            return sizeOf(counts);
+        }
+    }
+
+    private static class LongSumAccumulator
+            extends Accumulator
+    {
+        private long[] sums = new long[0];
+        private boolean[] hasValue = new boolean[0];
+
+        private LongSumAccumulator(int channel)
+        {
+            super(channel);
+        }
+
+        @Override
+        void ensureCapacity(int groupCount)
+        {
+            if (sums.length < groupCount) {
+                int capacity = newCapacity(sums.length, groupCount);
+                sums = Arrays.copyOf(sums, capacity);
+                hasValue = Arrays.copyOf(hasValue, capacity);
+            }
+        }
+
+        @Override
+        void add(int[] groupIds, Page page)
+        {
+            Block block = page.getBlock(channel);
+            for (int position = 0; position < groupIds.length; position++) {
+                if (!block.isNull(position)) {
+                    int groupId = groupIds[position];
+                    long value = BIGINT.getLong(block, position);
+                    try {
+                        sums[groupId] = Math.addExact(sums[groupId], value);
+                    }
+                    catch (ArithmeticException e) {
+                        throw new PrestoException(NUMERIC_VALUE_OUT_OF_RANGE, format("bigint addition overflow: %s + %s", sums[groupId], value), e);
+                    }
+                    hasValue[groupId] = true;
+                }
+            }
+        }
+
+        @Override
+        Block build(int groupCount)
+        {
+            BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(groupCount);
+            for (int groupId = 0; groupId < groupCount; groupId++) {
+                if (hasValue[groupId]) {
+                    BIGINT.writeLong(blockBuilder, sums[groupId]);
+                }
+                else {
+                    blockBuilder.appendNull();
+                }
+            }
+            Arrays.fill(sums, 0, groupCount, 0);
+            Arrays.fill(hasValue, 0, groupCount, false);
+            return blockBuilder.build();
+        }
+
+        @Override
+        long getRetainedSizeInBytes()
+        {
+            return sizeOf(sums) + sizeOf(hasValue);
+        }
+    }
+
+    private static class DoubleSumAccumulator
+            extends Accumulator
+    {
+        private double[] sums = new double[0];
+        private boolean[] hasValue = new boolean[0];
+
+        private DoubleSumAccumulator(int channel)
+        {
+            super(channel);
+        }
+
+        @Override
+        void ensureCapacity(int groupCount)
+        {
+            if (sums.length < groupCount) {
+                int capacity = newCapacity(sums.length, groupCount);
+                sums = Arrays.copyOf(sums, capacity);
+                hasValue = Arrays.copyOf(hasValue, capacity);
+            }
+        }
+
+        @Override
+        void add(int[] groupIds, Page page)
+        {
+            Block block = page.getBlock(channel);
+            for (int position = 0; position < groupIds.length; position++) {
+                if (!block.isNull(position)) {
+                    int groupId = groupIds[position];
+                    sums[groupId] += DOUBLE.getDouble(block, position);
+                    hasValue[groupId] = true;
+                }
+            }
+        }
+
+        @Override
+        Block build(int groupCount)
+        {
+            BlockBuilder blockBuilder = DOUBLE.createFixedSizeBlockBuilder(groupCount);
+            for (int groupId = 0; groupId < groupCount; groupId++) {
+                if (hasValue[groupId]) {
+                    DOUBLE.writeDouble(blockBuilder, sums[groupId]);
+                }
+                else {
+                    blockBuilder.appendNull();
+                }
+            }
+            Arrays.fill(sums, 0, groupCount, 0);
+            Arrays.fill(hasValue, 0, groupCount, false);
+            return blockBuilder.build();
+        }
+
+        @Override
+        long getRetainedSizeInBytes()
+        {
+            return sizeOf(sums) + sizeOf(hasValue);
+        }
+    }
+
+    private static class LongMinMaxAccumulator
+            extends Accumulator
+    {
+        private final Type type;
+        private final boolean min;
+        private long[] values = new long[0];
+        private boolean[] hasValue = new boolean[0];
+
+        private LongMinMaxAccumulator(int channel, Type type, boolean min)
+        {
+            super(channel);
+            this.type = requireNonNull(type, "type is null");
+            this.min = min;
+        }
+
+        @Override
+        void ensureCapacity(int groupCount)
+        {
+            if (values.length < groupCount) {
+                int capacity = newCapacity(values.length, groupCount);
+                values = Arrays.copyOf(values, capacity);
+                hasValue = Arrays.copyOf(hasValue, capacity);
+            }
+        }
+
+        @Override
+        void add(int[] groupIds, Page page)
+        {
+            Block block = page.getBlock(channel);
+            for (int position = 0; position < groupIds.length; position++) {
+                if (!block.isNull(position)) {
+                    int groupId = groupIds[position];
+                    long value = type.getLong(block, position);
+                    if (!hasValue[groupId] || (min ? value < values[groupId] : value > values[groupId])) {
+                        values[groupId] = value;
+                        hasValue[groupId] = true;
+                    }
+                }
+            }
+        }
+
+        @Override
+        Block build(int groupCount)
+        {
+            BlockBuilder blockBuilder = type.createBlockBuilder(null, groupCount);
+            for (int groupId = 0; groupId < groupCount; groupId++) {
+                if (hasValue[groupId]) {
+                    type.writeLong(blockBuilder, values[groupId]);
+                }
+                else {
+                    blockBuilder.appendNull();
+                }
+            }
+            Arrays.fill(hasValue, 0, groupCount, false);
+            return blockBuilder.build();
+        }
+
+        @Override
+        long getRetainedSizeInBytes()
+        {
+            return sizeOf(values) + sizeOf(hasValue);
+        }
+    }
+}
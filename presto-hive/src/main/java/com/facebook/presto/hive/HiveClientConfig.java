@@ -174,6 +174,7 @@ public class HiveClientConfig
 
     private boolean isPartialAggregationPushdownEnabled;
     private boolean isPartialAggregationPushdownForVariableLengthDatatypesEnabled;
+    private boolean dictionaryAggregationPushdownEnabled;
 
     private boolean fileRenamingEnabled;
     private boolean preferManifestToListFiles;
@@ -1439,6 +1440,19 @@ public class HiveClientConfig
         return this.isPartialAggregationPushdownForVariableLengthDatatypesEnabled;
     }
 
+    @Config("hive.dictionary_aggregation_pushdown_enabled")
+    @ConfigDescription("enable pushdown of partial aggregations grouped by a varchar column into the scan, where they are computed on dictionary ids")
+    public HiveClientConfig setDictionaryAggregationPushdownEnabled(boolean dictionaryAggregationPushdownEnabled)
+    {
+        this.dictionaryAggregationPushdownEnabled = dictionaryAggregationPushdownEnabled;
+        return this;
+    }
+
+    public boolean isDictionaryAggregationPushdownEnabled()
+    {
+        return this.dictionaryAggregationPushdownEnabled;
+    }
+
     @Config("hive.file_renaming_enabled")
     @ConfigDescription("enable file renaming")
     public HiveClientConfig setFileRenamingEnabled(boolean fileRenamingEnabled)
@@ -47,6 +47,7 @@ import com.facebook.presto.hive.s3.PrestoS3ClientFactory;
 import com.facebook.presto.hive.s3select.S3SelectRecordCursorProvider;
 import com.facebook.presto.hive.statistics.ParquetQuickStatsBuilder;
 import com.facebook.presto.hive.statistics.QuickStatsProvider;
+import com.facebook.presto.orc.CachingSliceDictionaryStripeMetadataSource;
 import com.facebook.presto.orc.CachingStripeMetadataSource;
 import com.facebook.presto.orc.DwrfAwareStripeMetadataSourceFactory;
 import com.facebook.presto.orc.EncryptionLibrary;
@@ -63,6 +64,7 @@ import com.facebook.presto.orc.cache.OrcFileTailSource;
 import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
 import com.facebook.presto.orc.metadata.OrcFileTail;
 import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.reader.SliceDictionary;
 import com.facebook.presto.parquet.ParquetDataSourceId;
 import com.facebook.presto.parquet.cache.CachingParquetMetadataSource;
 import com.facebook.presto.parquet.cache.MetadataReader;
@@ -348,8 +350,20 @@ public class HiveClientModule
                 CacheStatsMBean rowGroupIndexCacheStatsMBean = new CacheStatsMBean(rowGroupIndexCache.get());
                 exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_StripeStreamRowGroupIndex"), rowGroupIndexCacheStatsMBean);
             }
+
             stripeMetadataSource = new CachingStripeMetadataSource(stripeMetadataSource, footerCache, streamCache, rowGroupIndexCache);
         }
+        if (orcCacheConfig.isDictionaryCacheEnabled()) {
+            Cache<StripeStreamId, SliceDictionary> sliceDictionaryCache = CacheBuilder.newBuilder()
+                    .maximumWeight(orcCacheConfig.getDictionaryCacheSize().toBytes())
+                    .weigher((id, dictionary) -> toIntExact(((SliceDictionary) dictionary).getRetainedSizeInBytes()))
+                    .expireAfterAccess(orcCacheConfig.getDictionaryCacheTtlSinceLastAccess().toMillis(), MILLISECONDS)
+                    .recordStats()
+                    .build();
+            CacheStatsMBean sliceDictionaryCacheStatsMBean = new CacheStatsMBean(sliceDictionaryCache);
+            exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_StripeSliceDictionary"), sliceDictionaryCacheStatsMBean);
+            stripeMetadataSource = new CachingSliceDictionaryStripeMetadataSource(stripeMetadataSource, sliceDictionaryCache);
+        }
         StripeMetadataSourceFactory factory = StripeMetadataSourceFactory.of(stripeMetadataSource);
         if (orcCacheConfig.isDwrfStripeCacheEnabled()) {
             factory = new DwrfAwareStripeMetadataSourceFactory(factory);
@@ -160,6 +160,7 @@ import static com.facebook.presto.common.type.VarcharType.createUnboundedVarchar
 import static com.facebook.presto.common.type.Varchars.isVarcharType;
 import static com.facebook.presto.expressions.LogicalRowExpressions.TRUE_CONSTANT;
 import static com.facebook.presto.expressions.LogicalRowExpressions.binaryExpression;
+import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.AGGREGATED;
 import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.PARTITION_KEY;
 import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.SYNTHESIZED;
@@ -250,6 +251,8 @@ import static com.facebook.presto.hive.HiveTableProperties.ENCRYPT_TABLE;
 import static com.facebook.presto.hive.HiveTableProperties.EXTERNAL_LOCATION_PROPERTY;
 import static com.facebook.presto.hive.HiveTableProperties.ORC_BLOOM_FILTER_COLUMNS;
 import static com.facebook.presto.hive.HiveTableProperties.ORC_BLOOM_FILTER_FPP;
+import static com.facebook.presto.hive.HiveTableProperties.PARQUET_BLOOM_FILTER_COLUMNS;
+import static com.facebook.presto.hive.HiveTableProperties.PARQUET_BLOOM_FILTER_FPP;
 import static com.facebook.presto.hive.HiveTableProperties.PARTITIONED_BY_PROPERTY;
 import static com.facebook.presto.hive.HiveTableProperties.PREFERRED_ORDERING_COLUMNS;
 import static com.facebook.presto.hive.HiveTableProperties.SORTED_BY_PROPERTY;
@@ -265,6 +268,8 @@ import static com.facebook.presto.hive.HiveTableProperties.getExternalLocation;
 import static com.facebook.presto.hive.HiveTableProperties.getHiveStorageFormat;
 import static com.facebook.presto.hive.HiveTableProperties.getOrcBloomFilterColumns;
 import static com.facebook.presto.hive.HiveTableProperties.getOrcBloomFilterFpp;
+import static com.facebook.presto.hive.HiveTableProperties.getParquetBloomFilterColumns;
+import static com.facebook.presto.hive.HiveTableProperties.getParquetBloomFilterFpp;
 import static com.facebook.presto.hive.HiveTableProperties.getPartitionedBy;
 import static com.facebook.presto.hive.HiveTableProperties.getPreferredOrderingColumns;
 import static com.facebook.presto.hive.HiveTableProperties.isExternalTable;
@@ -386,6 +391,8 @@ public class HiveMetadata
 
     private static final String ORC_BLOOM_FILTER_COLUMNS_KEY = "orc.bloom.filter.columns";
     private static final String ORC_BLOOM_FILTER_FPP_KEY = "orc.bloom.filter.fpp";
+    public static final String PARQUET_BLOOM_FILTER_COLUMNS_KEY = "parquet.bloom.filter.columns";
+    public static final String PARQUET_BLOOM_FILTER_FPP_KEY = "parquet.bloom.filter.fpp";
 
     private static final String PRESTO_TEMPORARY_TABLE_NAME_PREFIX = "__presto_temporary_table_";
 
@@ -721,6 +728,16 @@ public class HiveMetadata
             properties.put(ORC_BLOOM_FILTER_FPP, Double.parseDouble(orcBloomFilterFfp));
         }
 
+        // Parquet format specific properties
+        String parquetBloomFilterColumns = table.get().getParameters().get(PARQUET_BLOOM_FILTER_COLUMNS_KEY);
+        if (parquetBloomFilterColumns != null) {
+            properties.put(PARQUET_BLOOM_FILTER_COLUMNS, Splitter.on(COMMA).trimResults().omitEmptyStrings().splitToList(parquetBloomFilterColumns));
+        }
+        String parquetBloomFilterFpp = table.get().getParameters().get(PARQUET_BLOOM_FILTER_FPP_KEY);
+        if (parquetBloomFilterFpp != null) {
+            properties.put(PARQUET_BLOOM_FILTER_FPP, Double.parseDouble(parquetBloomFilterFpp));
+        }
+
         // Avro specific property
         String avroSchemaUrl = table.get().getParameters().get(AVRO_SCHEMA_URL_KEY);
         if (avroSchemaUrl != null) {
@@ -855,6 +872,8 @@ public class HiveMetadata
             Map<String, ColumnHandle> columns = columnHandles.stream()
                     .map(HiveColumnHandle.class::cast)
                     .filter(not(HiveColumnHandle::isHidden))
+                    // aggregated columns hold partial states, and several of them may read the same column
+                    .filter(column -> column.getColumnType() != AGGREGATED)
                     .collect(toImmutableMap(HiveColumnHandle::getName, Function.identity()));
 
             Map<String, Type> columnTypes = columns.entrySet().stream()
@@ -1256,6 +1275,19 @@ public class HiveMetadata
             tableProperties.put(ORC_BLOOM_FILTER_FPP_KEY, String.valueOf(getOrcBloomFilterFpp(tableMetadata.getProperties())));
         }
 
+        // Parquet format specific properties
+        List<String> parquetBloomFilterColumns = getParquetBloomFilterColumns(tableMetadata.getProperties());
+        if (parquetBloomFilterColumns != null && !parquetBloomFilterColumns.isEmpty()) {
+            checkFormatForProperty(hiveStorageFormat, HiveStorageFormat.PARQUET, PARQUET_BLOOM_FILTER_COLUMNS);
+            validateParquetBloomFilterColumns(tableMetadata, parquetBloomFilterColumns);
+            double parquetBloomFilterFpp = getParquetBloomFilterFpp(tableMetadata.getProperties());
+            if (!(parquetBloomFilterFpp > 0 && parquetBloomFilterFpp < 1)) {
+                throw new PrestoException(INVALID_TABLE_PROPERTY, format("%s must be between 0 and 1 exclusive: %s", PARQUET_BLOOM_FILTER_FPP, parquetBloomFilterFpp));
+            }
+            tableProperties.put(PARQUET_BLOOM_FILTER_COLUMNS_KEY, Joiner.on(COMMA).join(parquetBloomFilterColumns));
+            tableProperties.put(PARQUET_BLOOM_FILTER_FPP_KEY, String.valueOf(parquetBloomFilterFpp));
+        }
+
         // Avro specific properties
         String avroSchemaUrl = getAvroSchemaUrl(tableMetadata.getProperties());
         if (avroSchemaUrl != null) {
@@ -3419,6 +3451,24 @@ public class HiveMetadata
                 metastoreContext.getColumnConverter().getTypeMetadata(handle.getHiveType(), handle.getTypeSignature()));
     }
 
+    private static void validateParquetBloomFilterColumns(ConnectorTableMetadata tableMetadata, List<String> bloomFilterColumns)
+    {
+        Set<String> partitionedBy = ImmutableSet.copyOf(getPartitionedBy(tableMetadata.getProperties()));
+        Map<String, Type> columnTypes = tableMetadata.getColumns().stream()
+                .filter(column -> !partitionedBy.contains(column.getName()))
+                .collect(toImmutableMap(ColumnMetadata::getName, ColumnMetadata::getType));
+        for (String column : bloomFilterColumns) {
+            Type type = columnTypes.get(column);
+            if (type == null) {
+                throw new PrestoException(INVALID_TABLE_PROPERTY, format("%s column %s is not a non-partition column of the table", PARQUET_BLOOM_FILTER_COLUMNS, column));
+            }
+            // Parquet writes Bloom filters for the values of top level primitive columns other than boolean
+            if (type.equals(BOOLEAN) || type instanceof ArrayType || type instanceof MapType || type instanceof RowType) {
+                throw new PrestoException(INVALID_TABLE_PROPERTY, format("%s column %s has unsupported type: %s", PARQUET_BLOOM_FILTER_COLUMNS, column, type));
+            }
+        }
+    }
+
     private static void validatePartitionColumns(ConnectorTableMetadata tableMetadata)
     {
         List<String> partitionedBy = getPartitionedBy(tableMetadata.getProperties());
@@ -22,6 +22,7 @@ import com.facebook.presto.common.predicate.NullableValue;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeManager;
+import com.facebook.presto.common.type.VarcharType;
 import com.facebook.presto.hive.HiveSplit.BucketConversion;
 import com.facebook.presto.hive.metastore.Column;
 import com.facebook.presto.hive.metastore.Storage;
@@ -37,6 +38,7 @@ import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.SplitContext;
 import com.facebook.presto.spi.connector.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
+import com.facebook.presto.spi.function.StandardFunctionResolution;
 import com.facebook.presto.spi.relation.RowExpression;
 import com.facebook.presto.spi.relation.RowExpressionService;
 import com.google.common.annotations.VisibleForTesting;
@@ -52,6 +54,7 @@ import org.joda.time.DateTimeZone;
 
 import javax.inject.Inject;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -104,6 +107,7 @@ public class HivePageSourceProvider
     private final Set<HiveAggregatedPageSourceFactory> aggregatedPageSourceFactories;
     private final TypeManager typeManager;
     private final RowExpressionService rowExpressionService;
+    private final StandardFunctionResolution functionResolution;
     private final LoadingCache<RowExpressionCacheKey, RowExpression> optimizedRowExpressionCache;
 
     @Inject
@@ -115,7 +119,8 @@ public class HivePageSourceProvider
             Set<HiveSelectivePageSourceFactory> selectivePageSourceFactories,
             Set<HiveAggregatedPageSourceFactory> aggregatedPageSourceFactories,
             TypeManager typeManager,
-            RowExpressionService rowExpressionService)
+            RowExpressionService rowExpressionService,
+            StandardFunctionResolution functionResolution)
     {
         requireNonNull(hiveClientConfig, "hiveClientConfig is null");
         this.hiveStorageTimeZone = hiveClientConfig.getDateTimeZone();
@@ -126,6 +131,7 @@ public class HivePageSourceProvider
         this.aggregatedPageSourceFactories = ImmutableSet.copyOf(requireNonNull(aggregatedPageSourceFactories, "aggregatedPageSourceFactories is null"));
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.rowExpressionService = requireNonNull(rowExpressionService, "rowExpressionService is null");
+        this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
         this.optimizedRowExpressionCache = CacheBuilder.newBuilder()
                 .recordStats()
                 .maximumSize(10_000)
@@ -174,7 +180,10 @@ public class HivePageSourceProvider
                 runtimeStats);
 
         if (columns.stream().anyMatch(columnHandle -> ((HiveColumnHandle) columnHandle).getColumnType().equals(AGGREGATED))) {
-            checkArgument(columns.stream().allMatch(columnHandle -> ((HiveColumnHandle) columnHandle).getColumnType().equals(AGGREGATED)), "Not all columns are of 'AGGREGATED' type");
+            if (!columns.stream().allMatch(columnHandle -> ((HiveColumnHandle) columnHandle).getColumnType().equals(AGGREGATED))) {
+                // partial aggregation grouped by the column that is not aggregated
+                return createDictionaryAggregatedPageSource(transaction, session, split, layout, selectedColumns, splitContext, runtimeStats);
+            }
 
             if (hiveLayout.isFooterStatsUnreliable()) {
                 throw new PrestoException(HIVE_UNSUPPORTED_FORMAT, format("Partial aggregation pushdown is not supported when footer stats are unreliable. " +
@@ -292,6 +301,43 @@ public class HivePageSourceProvider
                         hiveSplit.getStorage().getStorageFormat().getSerDe()));
     }
 
+    private ConnectorPageSource createDictionaryAggregatedPageSource(
+            ConnectorTransactionHandle transaction,
+            ConnectorSession session,
+            ConnectorSplit split,
+            ConnectorTableLayoutHandle layout,
+            List<HiveColumnHandle> selectedColumns,
+            SplitContext splitContext,
+            RuntimeStats runtimeStats)
+    {
+        // the grouping column comes first, followed by the arguments of the aggregations
+        List<HiveColumnHandle> inputColumns = new ArrayList<>();
+        selectedColumns.stream()
+                .filter(column -> column.getColumnType() != AGGREGATED)
+                .forEach(inputColumns::add);
+        checkArgument(
+                inputColumns.size() == 1 && typeManager.getType(inputColumns.get(0).getTypeSignature()) instanceof VarcharType,
+                "Aggregated columns must be grouped by a single varchar column: %s",
+                inputColumns);
+        for (HiveColumnHandle column : selectedColumns) {
+            if (column.getColumnType() == AGGREGATED &&
+                    !column.getPartialAggregation().get().getArguments().isEmpty() &&
+                    inputColumns.stream().noneMatch(input -> input.getHiveColumnIndex() == column.getHiveColumnIndex())) {
+                inputColumns.add(new HiveColumnHandle(
+                        column.getName(),
+                        column.getHiveType(),
+                        column.getHiveType().getTypeSignature(),
+                        column.getHiveColumnIndex(),
+                        REGULAR,
+                        Optional.empty(),
+                        Optional.empty()));
+            }
+        }
+
+        ConnectorPageSource delegate = createPageSource(transaction, session, split, layout, ImmutableList.copyOf(inputColumns), splitContext, runtimeStats);
+        return new DictionaryAggregatedPageSource(delegate, selectedColumns, inputColumns, typeManager, functionResolution);
+    }
+
     @VisibleForTesting
     protected static CacheQuota generateCacheQuota(HiveSplit hiveSplit)
     {
@@ -106,6 +106,7 @@ public final class HiveSessionProperties
     public static final String IGNORE_UNREADABLE_PARTITION = "ignore_unreadable_partition";
     public static final String PARTIAL_AGGREGATION_PUSHDOWN_ENABLED = "partial_aggregation_pushdown_enabled";
     public static final String PARTIAL_AGGREGATION_PUSHDOWN_FOR_VARIABLE_LENGTH_DATATYPES_ENABLED = "partial_aggregation_pushdown_for_variable_length_datatypes_enabled";
+    public static final String DICTIONARY_AGGREGATION_PUSHDOWN_ENABLED = "dictionary_aggregation_pushdown_enabled";
     public static final String FILE_RENAMING_ENABLED = "file_renaming_enabled";
     public static final String PREFER_MANIFESTS_TO_LIST_FILES = "prefer_manifests_to_list_files";
     public static final String MANIFEST_VERIFICATION_ENABLED = "manifest_verification_enabled";
@@ -484,6 +485,11 @@ public final class HiveSessionProperties
                         "Is partial aggregation pushdown enabled for variable length datatypes",
                         hiveClientConfig.isPartialAggregationPushdownForVariableLengthDatatypesEnabled(),
                         false),
+                booleanProperty(
+                        DICTIONARY_AGGREGATION_PUSHDOWN_ENABLED,
+                        "Is pushdown of partial aggregations grouped by a varchar column into the scan enabled. Parquet readers return dictionary blocks when enabled",
+                        hiveClientConfig.isDictionaryAggregationPushdownEnabled(),
+                        false),
                 booleanProperty(
                         FILE_RENAMING_ENABLED,
                         "Enable renaming the files written by writers",
@@ -1001,6 +1007,11 @@ public final class HiveSessionProperties
         return session.getProperty(PARTIAL_AGGREGATION_PUSHDOWN_FOR_VARIABLE_LENGTH_DATATYPES_ENABLED, Boolean.class);
     }
 
+    public static boolean isDictionaryAggregationPushdownEnabled(ConnectorSession session)
+    {
+        return session.getProperty(DICTIONARY_AGGREGATION_PUSHDOWN_ENABLED, Boolean.class);
+    }
+
     public static boolean isFileRenamingEnabled(ConnectorSession session)
     {
         return session.getProperty(FILE_RENAMING_ENABLED, Boolean.class);
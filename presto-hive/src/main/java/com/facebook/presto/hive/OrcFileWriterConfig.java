@@ -21,6 +21,7 @@ import com.facebook.presto.orc.metadata.DwrfStripeCacheMode;
 import com.facebook.presto.orc.writer.StreamLayoutFactory;
 import io.airlift.units.DataSize;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import java.util.OptionalInt;
@@ -56,6 +57,8 @@ public class OrcFileWriterConfig
     private boolean isStringDictionarySortingEnabled = OrcWriterOptions.DEFAULT_STRING_DICTIONARY_SORTING_ENABLED;
     private boolean isFlatMapWriterEnabled = DEFAULT_FLAT_MAP_WRITER_ENABLED;
     private boolean addHostnameToFileMetadataEnabled = true;
+    private int columnEncodingThreads;
+    private boolean asyncStripeFlushEnabled;
 
     public OrcWriterOptions.Builder toOrcWriterOptionsBuilder()
     {
@@ -297,6 +300,33 @@ public class OrcFileWriterConfig
         return this;
     }
 
+    @Min(0)
+    public int getColumnEncodingThreads()
+    {
+        return columnEncodingThreads;
+    }
+
+    @Config("hive.orc.writer.column-encoding-threads")
+    @ConfigDescription("Number of threads shared by all ORC/DWRF writers to encode and compress columns in parallel. Zero encodes on the writer thread.")
+    public OrcFileWriterConfig setColumnEncodingThreads(int columnEncodingThreads)
+    {
+        this.columnEncodingThreads = columnEncodingThreads;
+        return this;
+    }
+
+    public boolean isAsyncStripeFlushEnabled()
+    {
+        return asyncStripeFlushEnabled;
+    }
+
+    @Config("hive.orc.writer.async-stripe-flush-enabled")
+    @ConfigDescription("Write finished ORC/DWRF stripes in the background, buffering at most one stripe per writer")
+    public OrcFileWriterConfig setAsyncStripeFlushEnabled(boolean asyncStripeFlushEnabled)
+    {
+        this.asyncStripeFlushEnabled = asyncStripeFlushEnabled;
+        return this;
+    }
+
     private static StreamLayoutFactory getStreamLayoutFactory(StreamLayoutType type)
     {
         switch (type) {
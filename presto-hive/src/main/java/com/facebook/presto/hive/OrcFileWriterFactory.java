@@ -49,6 +49,7 @@ import org.joda.time.DateTimeZone;
 import org.weakref.jmx.Flatten;
 import org.weakref.jmx.Managed;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
 import java.io.IOException;
@@ -60,9 +61,11 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxBufferSize;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxMergeDistance;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcOptimizedWriterValidateMode;
@@ -98,6 +101,8 @@ import static java.lang.Boolean.parseBoolean;
 import static java.lang.String.format;
 import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.stream.Collectors.toList;
 import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_COLUMNS;
 import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_COLUMN_TYPES;
@@ -144,6 +149,8 @@ public class OrcFileWriterFactory
     private final OrcWriterStats stats = new OrcWriterStats();
     private final OrcFileWriterConfig orcFileWriterConfig;
     private final DwrfEncryptionProvider dwrfEncryptionProvider;
+    private final Optional<ExecutorService> columnEncodingExecutor;
+    private final Optional<ExecutorService> stripeFlushExecutor;
 
     @Inject
     public OrcFileWriterFactory(
@@ -185,6 +192,27 @@ public class OrcFileWriterFactory
         this.readStats = requireNonNull(readStats, "stats is null");
         this.orcFileWriterConfig = requireNonNull(orcFileWriterConfig, "orcFileWriterConfig is null");
         this.dwrfEncryptionProvider = requireNonNull(dwrfEncryptionProvider, "DwrfEncryptionProvider is null").toDwrfEncryptionProvider();
+
+        // both pools are shared by all writers created by this factory
+        if (orcFileWriterConfig.getColumnEncodingThreads() > 0) {
+            this.columnEncodingExecutor = Optional.of(newFixedThreadPool(orcFileWriterConfig.getColumnEncodingThreads(), daemonThreadsNamed("orc-writer-encoder-%s")));
+        }
+        else {
+            this.columnEncodingExecutor = Optional.empty();
+        }
+        if (orcFileWriterConfig.isAsyncStripeFlushEnabled()) {
+            this.stripeFlushExecutor = Optional.of(newCachedThreadPool(daemonThreadsNamed("orc-writer-stripe-flush-%s")));
+        }
+        else {
+            this.stripeFlushExecutor = Optional.empty();
+        }
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        columnEncodingExecutor.ifPresent(ExecutorService::shutdownNow);
+        stripeFlushExecutor.ifPresent(ExecutorService::shutdownNow);
     }
 
     @Managed
@@ -303,7 +331,7 @@ public class OrcFileWriterFactory
         int flatMapKeyLimit = getFlatMapKeyLimit(schema);
         Set<Integer> flattenedColumns = getFlattenedColumns(schema, session);
 
-        return orcFileWriterConfig
+        OrcWriterOptions.Builder builder = orcFileWriterConfig
                 .toOrcWriterOptionsBuilder()
                 .withFlushPolicy(DefaultOrcWriterFlushPolicy.builder()
                         .withStripeMinSize(getOrcOptimizedWriterMinStripeSize(session))
@@ -321,8 +349,10 @@ public class OrcFileWriterFactory
                 .withFlattenedColumns(flattenedColumns)
                 .withMaxFlattenedMapKeyCount(flatMapKeyLimit)
                 .withMapStatisticsEnabled(mapStatisticsEnabled)
-                .withCompressionLevel(getCompressionLevel(session))
-                .build();
+                .withCompressionLevel(getCompressionLevel(session));
+        columnEncodingExecutor.ifPresent(builder::withColumnEncodingExecutor);
+        stripeFlushExecutor.ifPresent(builder::withStripeFlushExecutor);
+        return builder.build();
     }
 
     private Optional<DwrfWriterEncryption> createDwrfEncryption(Optional<EncryptionInformation> encryptionInformation, List<String> fileColumnNames, List<Type> types)
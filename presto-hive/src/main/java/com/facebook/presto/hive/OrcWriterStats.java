@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.airlift.stats.DistributionStat;
+import com.facebook.airlift.stats.TimeStat;
 import com.facebook.presto.orc.FlushReason;
 import com.facebook.presto.orc.WriterStats;
 import com.facebook.presto.orc.metadata.StripeInformation;
@@ -26,6 +28,8 @@ import static com.facebook.presto.orc.FlushReason.DICTIONARY_FULL;
 import static com.facebook.presto.orc.FlushReason.MAX_BYTES;
 import static com.facebook.presto.orc.FlushReason.MAX_ROWS;
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public class OrcWriterStats
         implements WriterStats
@@ -36,6 +40,10 @@ public class OrcWriterStats
     private final OrcWriterFlushStats dictionaryFullFlush = new OrcWriterFlushStats(DICTIONARY_FULL.name());
     private final OrcWriterFlushStats closedFlush = new OrcWriterFlushStats(CLOSED.name());
     private final AtomicLong writerSizeInBytes = new AtomicLong();
+    private final TimeStat columnEncodingElapsedTime = new TimeStat(MILLISECONDS);
+    private final TimeStat columnEncodingTime = new TimeStat(MILLISECONDS);
+    private final DistributionStat asyncStripeFlushBytes = new DistributionStat();
+    private final TimeStat asyncStripeFlushBlockedTime = new TimeStat(MILLISECONDS);
 
     @Override
     public void recordStripeWritten(
@@ -58,6 +66,20 @@ public class OrcWriterStats
         writerSizeInBytes.addAndGet(deltaInBytes);
     }
 
+    @Override
+    public void recordParallelColumnEncoding(long elapsedNanos, long encodingNanos)
+    {
+        columnEncodingElapsedTime.add(elapsedNanos, NANOSECONDS);
+        columnEncodingTime.add(encodingNanos, NANOSECONDS);
+    }
+
+    @Override
+    public void recordAsyncStripeFlush(long stripeBytes, long blockedNanos)
+    {
+        asyncStripeFlushBytes.add(stripeBytes);
+        asyncStripeFlushBlockedTime.add(blockedNanos, NANOSECONDS);
+    }
+
     @Managed
     @Nested
     public OrcWriterFlushStats getAllFlush()
@@ -99,6 +121,34 @@ public class OrcWriterStats
         return writerSizeInBytes.get();
     }
 
+    @Managed
+    @Nested
+    public TimeStat getColumnEncodingElapsedTime()
+    {
+        return columnEncodingElapsedTime;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getColumnEncodingTime()
+    {
+        return columnEncodingTime;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getAsyncStripeFlushBytes()
+    {
+        return asyncStripeFlushBytes;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getAsyncStripeFlushBlockedTime()
+    {
+        return asyncStripeFlushBlockedTime;
+    }
+
     private OrcWriterFlushStats getFlushStats(FlushReason flushReason)
     {
         switch (flushReason) {
@@ -125,6 +175,10 @@ public class OrcWriterStats
                 .add("dictionaryFullFlush", dictionaryFullFlush)
                 .add("closedFlush", closedFlush)
                 .add("writerSizeInBytes", writerSizeInBytes.get())
+                .add("columnEncodingElapsedTime", columnEncodingElapsedTime)
+                .add("columnEncodingTime", columnEncodingTime)
+                .add("asyncStripeFlushBytes", asyncStripeFlushBytes)
+                .add("asyncStripeFlushBlockedTime", asyncStripeFlushBlockedTime)
                 .toString();
     }
 }
@@ -27,6 +27,7 @@ import com.facebook.presto.parquet.writer.ParquetWriterOptions;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.PrestoException;
 import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -43,6 +44,8 @@ import java.util.Properties;
 import java.util.concurrent.Callable;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_WRITER_OPEN_ERROR;
+import static com.facebook.presto.hive.HiveMetadata.PARQUET_BLOOM_FILTER_COLUMNS_KEY;
+import static com.facebook.presto.hive.HiveMetadata.PARQUET_BLOOM_FILTER_FPP_KEY;
 import static com.facebook.presto.hive.HiveSessionProperties.getParquetWriterBlockSize;
 import static com.facebook.presto.hive.HiveSessionProperties.getParquetWriterPageSize;
 import static com.facebook.presto.hive.HiveSessionProperties.getParquetWriterVersion;
@@ -101,11 +104,18 @@ public class ParquetFileWriterFactory
             return Optional.empty();
         }
 
-        ParquetWriterOptions parquetWriterOptions = ParquetWriterOptions.builder()
+        ParquetWriterOptions.Builder optionsBuilder = ParquetWriterOptions.builder()
                 .setMaxPageSize(getParquetWriterPageSize(session))
                 .setMaxBlockSize(getParquetWriterBlockSize(session))
-                .setWriterVersion(getParquetWriterVersion(session))
-                .build();
+                .setWriterVersion(getParquetWriterVersion(session));
+        String bloomFilterColumns = schema.getProperty(PARQUET_BLOOM_FILTER_COLUMNS_KEY);
+        if (bloomFilterColumns != null) {
+            optionsBuilder.setBloomFilterColumns(ImmutableSet.copyOf(Splitter.on(',').trimResults().omitEmptyStrings().split(bloomFilterColumns)));
+            String bloomFilterFpp = schema.getProperty(PARQUET_BLOOM_FILTER_FPP_KEY);
+            if (bloomFilterFpp != null) {
+                optionsBuilder.setBloomFilterFpp(Double.parseDouble(bloomFilterFpp));
+            }
+        }
 
         CompressionCodecName compressionCodecName = getCompression(conf);
 
@@ -137,7 +147,7 @@ public class ParquetFileWriterFactory
                     fileColumnTypes,
                     schemaConverter.getMessageType(),
                     schemaConverter.getPrimitiveTypes(),
-                    parquetWriterOptions,
+                    optionsBuilder.build(),
                     fileInputColumnIndexes,
                     compressionCodecName));
         }
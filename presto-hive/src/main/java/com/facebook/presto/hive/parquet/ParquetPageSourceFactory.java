@@ -100,9 +100,11 @@ import static com.facebook.presto.hive.HiveCommonSessionProperties.getParquetMax
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getReadNullMaskedParquetEncryptedValue;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isParquetBatchReaderVerificationEnabled;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isParquetBatchReadsEnabled;
+import static com.facebook.presto.hive.HiveCommonSessionProperties.isParquetBloomFiltersEnabled;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isUseParquetColumnNames;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_PARTITION_SCHEMA_MISMATCH;
 import static com.facebook.presto.hive.HiveSessionProperties.columnIndexFilterEnabled;
+import static com.facebook.presto.hive.HiveSessionProperties.isDictionaryAggregationPushdownEnabled;
 import static com.facebook.presto.hive.parquet.HdfsParquetDataSource.buildHdfsParquetDataSource;
 import static com.facebook.presto.hive.parquet.ParquetPageSourceFactoryUtils.mapToPrestoException;
 import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
@@ -179,6 +181,35 @@ public class ParquetPageSourceFactory
             FileFormatDataSourceStats stats,
             HiveFileContext hiveFileContext,
             ParquetMetadataSource parquetMetadataSource)
+    {
+        return createParquetPageSource(
+                hdfsEnvironment,
+                session,
+                configuration,
+                fileSplit,
+                columns,
+                Optional.of(tableName),
+                typeManager,
+                effectivePredicate,
+                stats,
+                hiveFileContext,
+                parquetMetadataSource,
+                (parquetReader, types, fields, rowIndexColumns, columnNames) -> new ParquetPageSource(parquetReader, types, fields, rowIndexColumns, columnNames, hiveFileContext.getStats()));
+    }
+
+    static ConnectorPageSource createParquetPageSource(
+            HdfsEnvironment hdfsEnvironment,
+            ConnectorSession session,
+            Configuration configuration,
+            HiveFileSplit fileSplit,
+            List<HiveColumnHandle> columns,
+            Optional<SchemaTableName> tableName,
+            TypeManager typeManager,
+            TupleDomain<HiveColumnHandle> effectivePredicate,
+            FileFormatDataSourceStats stats,
+            HiveFileContext hiveFileContext,
+            ParquetMetadataSource parquetMetadataSource,
+            ParquetPageSourceBuilder pageSourceBuilder)
     {
         AggregatedMemoryContext systemMemoryContext = newSimpleAggregatedMemoryContext();
 
@@ -238,7 +269,7 @@ public class ParquetPageSourceFactory
             ImmutableList.Builder<Long> blockStarts = ImmutableList.builder();
             for (BlockMetaData block : footerBlocks.build()) {
                 Optional<ColumnIndexStore> columnIndexStore = ColumnIndexFilterUtils.getColumnIndexStore(parquetPredicate, finalDataSource, block, descriptorsByPath, columnIndexFilterEnabled);
-                if (predicateMatches(parquetPredicate, block, finalDataSource, descriptorsByPath, parquetTupleDomain, columnIndexStore, columnIndexFilterEnabled, Optional.of(session.getWarningCollector()))) {
+                if (predicateMatches(parquetPredicate, block, finalDataSource, descriptorsByPath, parquetTupleDomain, columnIndexStore, columnIndexFilterEnabled, isParquetBloomFiltersEnabled(session), Optional.of(session.getWarningCollector()))) {
                     blocks.add(block);
                     blockStarts.add(nextStart);
                     blockIndexStores.add(columnIndexStore.orElse(null));
@@ -266,7 +297,8 @@ public class ParquetPageSourceFactory
                     parquetPredicate,
                     blockIndexStores,
                     columnIndexFilterEnabled,
-                    fileDecryptor);
+                    fileDecryptor,
+                    isDictionaryAggregationPushdownEnabled(session));
 
             ImmutableList.Builder<String> namesBuilder = ImmutableList.builder();
             ImmutableList.Builder<Type> typesBuilder = ImmutableList.builder();
@@ -307,7 +339,7 @@ public class ParquetPageSourceFactory
                     fieldsBuilder.add(Optional.empty());
                 }
             }
-            return new ParquetPageSource(parquetReader, typesBuilder.build(), fieldsBuilder.build(), rowIndexColumns.build(), namesBuilder.build(), hiveFileContext.getStats());
+            return pageSourceBuilder.build(parquetReader, typesBuilder.build(), fieldsBuilder.build(), rowIndexColumns.build(), namesBuilder.build());
         }
         catch (Exception e) {
             try {
@@ -352,6 +384,11 @@ public class ParquetPageSourceFactory
     }
 
     public static Optional<org.apache.parquet.schema.Type> getParquetType(Type prestoType, MessageType messageType, boolean useParquetColumnNames, HiveColumnHandle column, SchemaTableName tableName, Path path)
+    {
+        return getParquetType(prestoType, messageType, useParquetColumnNames, column, Optional.of(tableName), path);
+    }
+
+    private static Optional<org.apache.parquet.schema.Type> getParquetType(Type prestoType, MessageType messageType, boolean useParquetColumnNames, HiveColumnHandle column, Optional<SchemaTableName> tableName, Path path)
     {
         org.apache.parquet.schema.Type type = null;
         if (useParquetColumnNames) {
@@ -376,9 +413,9 @@ public class ParquetPageSourceFactory
                 group.writeToStringBuilder(builder, "");
                 parquetTypeName = builder.toString();
             }
-            throw new PrestoException(HIVE_PARTITION_SCHEMA_MISMATCH, format("The column %s of table %s is declared as type %s, but the Parquet file (%s) declares the column as type %s",
+            throw new PrestoException(HIVE_PARTITION_SCHEMA_MISMATCH, format("The column %s%s is declared as type %s, but the Parquet file (%s) declares the column as type %s",
                     column.getName(),
-                    tableName.toString(),
+                    tableName.map(name -> " of table " + name).orElse(""),
                     column.getHiveType(),
                     path.toString(),
                     parquetTypeName));
@@ -473,6 +510,11 @@ public class ParquetPageSourceFactory
     }
 
     public static Optional<org.apache.parquet.schema.Type> getColumnType(Type prestoType, MessageType messageType, boolean useParquetColumnNames, HiveColumnHandle column, SchemaTableName tableName, Path path)
+    {
+        return getColumnType(prestoType, messageType, useParquetColumnNames, column, Optional.of(tableName), path);
+    }
+
+    private static Optional<org.apache.parquet.schema.Type> getColumnType(Type prestoType, MessageType messageType, boolean useParquetColumnNames, HiveColumnHandle column, Optional<SchemaTableName> tableName, Path path)
     {
         if (isPushedDownSubfield(column)) {
             Subfield pushedDownSubfield = getPushedDownSubfield(column);
@@ -533,4 +575,10 @@ public class ParquetPageSourceFactory
                 hiveFileContext,
                 parquetMetadataSource));
     }
+
+    @FunctionalInterface
+    interface ParquetPageSourceBuilder
+    {
+        ConnectorPageSource build(ParquetReader parquetReader, List<Type> types, List<Optional<Field>> fields, List<Boolean> rowIndexColumns, List<String> columnNames);
+    }
 }
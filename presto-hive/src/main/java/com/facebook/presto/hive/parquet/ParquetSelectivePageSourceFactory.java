@@ -14,32 +14,62 @@
 package com.facebook.presto.hive.parquet;
 
 import com.facebook.presto.common.Subfield;
+import com.facebook.presto.common.predicate.FilterFunction;
 import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.TypeManager;
+import com.facebook.presto.expressions.DefaultRowExpressionTraversalVisitor;
+import com.facebook.presto.expressions.LogicalRowExpressions;
 import com.facebook.presto.hive.BucketAdaptation;
 import com.facebook.presto.hive.EncryptionInformation;
+import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveCoercer;
 import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.hive.HiveFileContext;
 import com.facebook.presto.hive.HiveFileSplit;
 import com.facebook.presto.hive.HiveSelectivePageSourceFactory;
 import com.facebook.presto.hive.metastore.Storage;
+import com.facebook.presto.hive.orc.TupleDomainFilterCache;
+import com.facebook.presto.parquet.Field;
+import com.facebook.presto.parquet.cache.ParquetMetadataSource;
+import com.facebook.presto.parquet.reader.ParquetSelectiveReader;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
-import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.relation.InputReferenceExpression;
 import com.facebook.presto.spi.relation.RowExpression;
+import com.facebook.presto.spi.relation.RowExpressionService;
+import com.facebook.presto.spi.relation.VariableReferenceExpression;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.apache.hadoop.conf.Configuration;
 import org.joda.time.DateTimeZone;
 
 import javax.inject.Inject;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
-import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
+import static com.facebook.presto.expressions.DynamicFilters.extractDynamicFilters;
+import static com.facebook.presto.expressions.LogicalRowExpressions.TRUE_CONSTANT;
+import static com.facebook.presto.expressions.LogicalRowExpressions.and;
+import static com.facebook.presto.expressions.LogicalRowExpressions.extractConjuncts;
+import static com.facebook.presto.expressions.RowExpressionNodeInliner.replaceExpression;
+import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.REGULAR;
+import static com.facebook.presto.hive.HiveUtil.typedPartitionKey;
+import static com.facebook.presto.hive.parquet.ParquetPageSourceFactory.createParquetPageSource;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static java.util.Objects.requireNonNull;
 
 public class ParquetSelectivePageSourceFactory
         implements HiveSelectivePageSourceFactory
@@ -49,9 +79,28 @@ public class ParquetSelectivePageSourceFactory
             .add("parquet.hive.serde.ParquetHiveSerDe")
             .build();
 
+    private final TypeManager typeManager;
+    private final RowExpressionService rowExpressionService;
+    private final HdfsEnvironment hdfsEnvironment;
+    private final FileFormatDataSourceStats stats;
+    private final ParquetMetadataSource parquetMetadataSource;
+    private final TupleDomainFilterCache tupleDomainFilterCache;
+
     @Inject
-    public ParquetSelectivePageSourceFactory()
+    public ParquetSelectivePageSourceFactory(
+            TypeManager typeManager,
+            RowExpressionService rowExpressionService,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            ParquetMetadataSource parquetMetadataSource,
+            TupleDomainFilterCache tupleDomainFilterCache)
     {
+        this.typeManager = requireNonNull(typeManager, "typeManager is null");
+        this.rowExpressionService = requireNonNull(rowExpressionService, "rowExpressionService is null");
+        this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
+        this.stats = requireNonNull(stats, "stats is null");
+        this.parquetMetadataSource = requireNonNull(parquetMetadataSource, "parquetMetadataSource is null");
+        this.tupleDomainFilterCache = requireNonNull(tupleDomainFilterCache, "tupleDomainFilterCache is null");
     }
 
     @Override
@@ -77,6 +126,151 @@ public class ParquetSelectivePageSourceFactory
             return Optional.empty();
         }
         checkState(!appendRowNumberEnabled, "append row number is not supported for Parquet Reader");
-        throw new PrestoException(NOT_SUPPORTED, "Parquet reader doesn't support filter pushdown yet");
+        checkArgument(!domainPredicate.isNone(), "Unexpected NONE domain");
+
+        // splits that need coercions or bucket adaptation are read by ParquetPageSourceFactory and filtered afterwards
+        if (!isSupported(columns, prefilledValues, coercers, bucketAdaptation, domainPredicate)) {
+            return Optional.empty();
+        }
+
+        Map<String, Integer> channels = new HashMap<>();
+        Map<Integer, Integer> channelsByHiveColumnIndex = new HashMap<>();
+        List<Type> columnTypes = new ArrayList<>();
+        Map<Integer, Object> constantValues = new HashMap<>();
+        List<HiveColumnHandle> fileColumns = new ArrayList<>();
+        for (int channel = 0; channel < columns.size(); channel++) {
+            HiveColumnHandle column = columns.get(channel);
+            Type type = typeManager.getType(column.getTypeSignature());
+            channels.put(column.getName(), channel);
+            channelsByHiveColumnIndex.put(column.getHiveColumnIndex(), channel);
+            columnTypes.add(type);
+            if (prefilledValues.containsKey(column.getHiveColumnIndex())) {
+                constantValues.put(channel, typedPartitionKey(prefilledValues.get(column.getHiveColumnIndex()), type, column.getName(), hiveStorageTimeZone));
+            }
+            else {
+                fileColumns.add(column);
+            }
+        }
+
+        List<Integer> outputChannels = outputColumns.stream()
+                .map(channelsByHiveColumnIndex::get)
+                .collect(toImmutableList());
+
+        Map<Integer, TupleDomainFilter> filters = domainPredicate.getDomains().get().entrySet().stream()
+                .collect(toImmutableMap(entry -> channels.get(entry.getKey().getRootName()), entry -> tupleDomainFilterCache.getFilter(entry.getValue())));
+
+        Map<VariableReferenceExpression, InputReferenceExpression> variableToInput = channels.entrySet().stream()
+                .collect(toImmutableMap(
+                        entry -> new VariableReferenceExpression(Optional.empty(), entry.getKey(), columnTypes.get(entry.getValue())),
+                        entry -> new InputReferenceExpression(Optional.empty(), entry.getValue(), columnTypes.get(entry.getValue()))));
+        List<FilterFunction> filterFunctions = toFilterFunctions(replaceExpression(remainingPredicate, variableToInput), session);
+
+        Map<String, HiveColumnHandle> fileColumnsByName = fileColumns.stream()
+                .collect(toImmutableMap(HiveColumnHandle::getName, column -> column));
+        TupleDomain<HiveColumnHandle> effectivePredicate = domainPredicate
+                .transform(subfield -> fileColumnsByName.get(subfield.getRootName()));
+
+        return Optional.of(createParquetPageSource(
+                hdfsEnvironment,
+                session,
+                configuration,
+                fileSplit,
+                fileColumns,
+                Optional.empty(),
+                typeManager,
+                effectivePredicate,
+                stats,
+                hiveFileContext,
+                parquetMetadataSource,
+                (parquetReader, types, fields, rowIndexColumns, columnNames) -> {
+                    List<Optional<Field>> fieldsByChannel = new ArrayList<>();
+                    int fileColumn = 0;
+                    for (int channel = 0; channel < columns.size(); channel++) {
+                        if (prefilledValues.containsKey(columns.get(channel).getHiveColumnIndex())) {
+                            fieldsByChannel.add(Optional.empty());
+                        }
+                        else {
+                            fieldsByChannel.add(fields.get(fileColumn));
+                            fileColumn++;
+                        }
+                    }
+                    ParquetSelectiveReader reader = new ParquetSelectiveReader(parquetReader, columnTypes, fieldsByChannel, constantValues, outputChannels, filters, filterFunctions);
+                    return new ParquetSelectivePageSource(reader, hiveFileContext.getStats());
+                }));
+    }
+
+    private static boolean isSupported(
+            List<HiveColumnHandle> columns,
+            Map<Integer, String> prefilledValues,
+            Map<Integer, HiveCoercer> coercers,
+            Optional<BucketAdaptation> bucketAdaptation,
+            TupleDomain<Subfield> domainPredicate)
+    {
+        if (!coercers.isEmpty() || bucketAdaptation.isPresent()) {
+            return false;
+        }
+
+        for (HiveColumnHandle column : columns) {
+            if (column.getColumnType() != REGULAR && !prefilledValues.containsKey(column.getHiveColumnIndex())) {
+                return false;
+            }
+        }
+
+        Set<String> columnNames = columns.stream()
+                .map(HiveColumnHandle::getName)
+                .collect(toImmutableSet());
+        // the reader evaluates domains of entire columns only
+        return domainPredicate.getDomains().get().keySet().stream()
+                .allMatch(subfield -> subfield.getPath().isEmpty() && columnNames.contains(subfield.getRootName()));
+    }
+
+    /**
+     * Split filter expression into groups of conjuncts that depend on the same set of inputs,
+     * then compile each group into FilterFunction. Each group is evaluated as soon as all of its
+     * inputs have been read.
+     */
+    private List<FilterFunction> toFilterFunctions(RowExpression filter, ConnectorSession session)
+    {
+        if (TRUE_CONSTANT.equals(filter)) {
+            return ImmutableList.of();
+        }
+
+        // dynamic filters are added to the domain predicate
+        filter = and(extractDynamicFilters(filter).getStaticConjuncts());
+        if (TRUE_CONSTANT.equals(filter)) {
+            return ImmutableList.of();
+        }
+
+        // Use LinkedHashMap to preserve user-specified order of conjuncts
+        Map<Set<Integer>, List<RowExpression>> inputsToConjuncts = new LinkedHashMap<>();
+        for (RowExpression conjunct : extractConjuncts(filter)) {
+            inputsToConjuncts.computeIfAbsent(extractInputs(conjunct), k -> new ArrayList<>()).add(conjunct);
+        }
+
+        return inputsToConjuncts.values().stream()
+                .map(LogicalRowExpressions::and)
+                .map(predicate -> new FilterFunction(
+                        session.getSqlFunctionProperties(),
+                        rowExpressionService.getDeterminismEvaluator().isDeterministic(predicate),
+                        rowExpressionService.getPredicateCompiler().compilePredicate(session.getSqlFunctionProperties(), session.getSessionFunctions(), predicate).get()))
+                .collect(toImmutableList());
+    }
+
+    private static Set<Integer> extractInputs(RowExpression expression)
+    {
+        ImmutableSet.Builder<Integer> inputs = ImmutableSet.builder();
+        expression.accept(new InputReferenceBuilderVisitor(), inputs);
+        return inputs.build();
+    }
+
+    private static class InputReferenceBuilderVisitor
+            extends DefaultRowExpressionTraversalVisitor<ImmutableSet.Builder<Integer>>
+    {
+        @Override
+        public Void visitInputReference(InputReferenceExpression input, ImmutableSet.Builder<Integer> builder)
+        {
+            builder.add(input.getField());
+            return null;
+        }
     }
 }
@@ -14,6 +14,7 @@
 package com.facebook.presto.hive.rule;
 
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.VarcharType;
 import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.hive.HiveStorageFormat;
 import com.facebook.presto.hive.HiveTableHandle;
@@ -50,12 +51,18 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 
+import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
 import static com.facebook.presto.common.type.TimestampType.TIMESTAMP;
 import static com.facebook.presto.common.type.TinyintType.TINYINT;
 import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.REGULAR;
+import static com.facebook.presto.hive.HiveSessionProperties.isDictionaryAggregationPushdownEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isPartialAggregationPushdownEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isPartialAggregationPushdownForVariableLengthDatatypesEnabled;
 import static com.facebook.presto.hive.HiveStorageFormat.DWRF;
@@ -67,6 +74,7 @@ import static com.facebook.presto.hive.metastore.MetastoreUtil.isRowType;
 import static com.facebook.presto.spi.ConnectorPlanRewriter.rewriteWith;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_FOUND;
 import static com.facebook.presto.spi.plan.AggregationNode.Step.PARTIAL;
+import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
 public class HivePartialAggregationPushdown
@@ -103,7 +111,7 @@ public class HivePartialAggregationPushdown
             VariableAllocator variableAllocator,
             PlanNodeIdAllocator idAllocator)
     {
-        if (!isPartialAggregationPushdownEnabled(session)) {
+        if (!isPartialAggregationPushdownEnabled(session) && !isDictionaryAggregationPushdownEnabled(session)) {
             return maxSubplan;
         }
         return rewriteWith(new Rewriter(session, idAllocator), maxSubplan);
@@ -128,16 +136,12 @@ public class HivePartialAggregationPushdown
             }
 
             TableScanNode tableScanNode = (TableScanNode) partialAggregationNode.getSource();
-            ConnectorTableMetadata connectorTableMetadata = metadataFactory.get().getTableMetadata(session, tableScanNode.getTable().getConnectorHandle());
-            Optional<Object> rawFormat = Optional.ofNullable(connectorTableMetadata.getProperties().get(HiveTableProperties.STORAGE_FORMAT_PROPERTY));
-            if (!rawFormat.isPresent()) {
+            Optional<HiveStorageFormat> storageFormat = getStorageFormat(tableScanNode);
+            if (!storageFormat.isPresent()) {
                 return false;
             }
 
-            final HiveStorageFormat hiveStorageFormat = HiveStorageFormat.valueOf(rawFormat.get().toString());
-            if (hiveStorageFormat != ORC && hiveStorageFormat != PARQUET && hiveStorageFormat != DWRF) {
-                return false;
-            }
+            final HiveStorageFormat hiveStorageFormat = storageFormat.get();
 
             if (tableScanNode.getTable().getLayout().isPresent()) {
                 HiveTableLayoutHandle hiveTableLayoutHandle = (HiveTableLayoutHandle) tableScanNode.getTable().getLayout().get();
@@ -198,6 +202,21 @@ public class HivePartialAggregationPushdown
             return true;
         }
 
+        private Optional<HiveStorageFormat> getStorageFormat(TableScanNode tableScanNode)
+        {
+            ConnectorTableMetadata connectorTableMetadata = metadataFactory.get().getTableMetadata(session, tableScanNode.getTable().getConnectorHandle());
+            Optional<Object> rawFormat = Optional.ofNullable(connectorTableMetadata.getProperties().get(HiveTableProperties.STORAGE_FORMAT_PROPERTY));
+            if (!rawFormat.isPresent()) {
+                return Optional.empty();
+            }
+
+            HiveStorageFormat hiveStorageFormat = HiveStorageFormat.valueOf(rawFormat.get().toString());
+            if (hiveStorageFormat != ORC && hiveStorageFormat != PARQUET && hiveStorageFormat != DWRF) {
+                return Optional.empty();
+            }
+            return Optional.of(hiveStorageFormat);
+        }
+
         private boolean isNotSupportedOrcTypeForMinMax(Type type)
         {
             return BOOLEAN.equals(type) ||
@@ -234,6 +253,9 @@ public class HivePartialAggregationPushdown
 
         private Optional<PlanNode> tryPartialAggregationPushdown(PlanNode plan)
         {
+            if (!isPartialAggregationPushdownEnabled(session)) {
+                return Optional.empty();
+            }
             if (!(plan instanceof AggregationNode
                     && ((AggregationNode) plan).getStep().equals(PARTIAL)
                     && ((AggregationNode) plan).getSource() instanceof TableScanNode)) {
@@ -301,10 +323,124 @@ public class HivePartialAggregationPushdown
                     oldTableScanNode.getCteMaterializationInfo()));
         }
 
+        /**
+         * Replaces a partial aggregation grouped by a varchar column with a scan that computes the partial
+         * states on the dictionary ids of the column. The partial rows of a split are not unique per group,
+         * which the final aggregation does not require.
+         */
+        private Optional<PlanNode> tryDictionaryAggregationPushdown(AggregationNode partialAggregationNode)
+        {
+            if (!isDictionaryAggregationPushdownEnabled(session) ||
+                    partialAggregationNode.getStep() != PARTIAL ||
+                    !(partialAggregationNode.getSource() instanceof TableScanNode) ||
+                    partialAggregationNode.getGroupingSetCount() != 1 ||
+                    partialAggregationNode.getGroupingKeys().size() != 1 ||
+                    partialAggregationNode.getHashVariable().isPresent() ||
+                    partialAggregationNode.getGroupIdVariable().isPresent()) {
+                return Optional.empty();
+            }
+
+            TableScanNode oldTableScanNode = (TableScanNode) partialAggregationNode.getSource();
+            if (!getHiveTableHandle(oldTableScanNode).isPresent() || !getStorageFormat(oldTableScanNode).isPresent()) {
+                return Optional.empty();
+            }
+
+            VariableReferenceExpression groupingKey = partialAggregationNode.getGroupingKeys().get(0);
+            HiveColumnHandle groupingColumn = (HiveColumnHandle) oldTableScanNode.getAssignments().get(groupingKey);
+            if (groupingColumn.getColumnType() != REGULAR || !(groupingKey.getType() instanceof VarcharType)) {
+                return Optional.empty();
+            }
+
+            Map<VariableReferenceExpression, ColumnHandle> assignments = new HashMap<>();
+            assignments.put(groupingKey, groupingColumn);
+            HiveTypeTranslator hiveTypeTranslator = new HiveTypeTranslator();
+            for (Map.Entry<VariableReferenceExpression, Aggregation> aggregationEntry : partialAggregationNode.getAggregations().entrySet()) {
+                Aggregation aggregation = aggregationEntry.getValue();
+                if (!isDictionaryAggregationSupported(aggregation, aggregationEntry.getKey().getType(), oldTableScanNode.getAssignments())) {
+                    return Optional.empty();
+                }
+
+                String columnName = "count_star";
+                int columnIndex = DUMMY_AGGREGATED_COLUMN_INDEX;
+                HiveType hiveType = HiveType.toHiveType(hiveTypeTranslator, aggregationEntry.getKey().getType());
+                if (!aggregation.getArguments().isEmpty()) {
+                    // the page source reads the argument through a regular column handle with the same name and type
+                    HiveColumnHandle argumentColumn = (HiveColumnHandle) oldTableScanNode.getAssignments().get(aggregation.getArguments().get(0));
+                    columnName = argumentColumn.getName();
+                    columnIndex = argumentColumn.getHiveColumnIndex();
+                    hiveType = argumentColumn.getHiveType();
+                }
+
+                assignments.put(aggregationEntry.getKey(), new HiveColumnHandle(
+                        columnName,
+                        hiveType,
+                        aggregationEntry.getKey().getType().getTypeSignature(),
+                        columnIndex,
+                        HiveColumnHandle.ColumnType.AGGREGATED,
+                        // several aggregations may read the same column, and their handles must not be equal
+                        Optional.of(format("partial aggregation %s pushed down", aggregationEntry.getKey().getName())),
+                        Optional.of(aggregation)));
+            }
+
+            return Optional.of(new TableScanNode(
+                    oldTableScanNode.getSourceLocation(),
+                    idAllocator.getNextId(),
+                    oldTableScanNode.getTable(),
+                    ImmutableList.copyOf(partialAggregationNode.getOutputVariables()),
+                    ImmutableMap.copyOf(assignments),
+                    oldTableScanNode.getTableConstraints(),
+                    oldTableScanNode.getCurrentConstraint(),
+                    oldTableScanNode.getEnforcedConstraint(),
+                    oldTableScanNode.getCteMaterializationInfo()));
+        }
+
+        /**
+         * Supported aggregations are count(*), count(columnName), sum(columnName) of bigint or double,
+         * and min(columnName), max(columnName) of integral and date types
+         */
+        private boolean isDictionaryAggregationSupported(Aggregation aggregation, Type intermediateType, Map<VariableReferenceExpression, ColumnHandle> assignments)
+        {
+            if (aggregation.isDistinct() ||
+                    aggregation.getFilter().isPresent() ||
+                    aggregation.getMask().isPresent() ||
+                    aggregation.getOrderBy().isPresent() ||
+                    aggregation.getArguments().size() > 1) {
+                return false;
+            }
+
+            FunctionHandle functionHandle = aggregation.getFunctionHandle();
+            if (aggregation.getArguments().isEmpty()) {
+                return standardFunctionResolution.isCountFunction(functionHandle);
+            }
+
+            RowExpression argument = aggregation.getArguments().get(0);
+            if (!(argument instanceof VariableReferenceExpression) ||
+                    ((HiveColumnHandle) assignments.get(argument)).getColumnType() != REGULAR) {
+                return false;
+            }
+
+            Type type = argument.getType();
+            if (standardFunctionResolution.isCountFunction(functionHandle)) {
+                return BIGINT.equals(intermediateType);
+            }
+            if (standardFunctionResolution.isSumFunction(functionHandle)) {
+                return (BIGINT.equals(type) || DOUBLE.equals(type)) && type.equals(intermediateType);
+            }
+            if (standardFunctionResolution.isMinFunction(functionHandle) || standardFunctionResolution.isMaxFunction(functionHandle)) {
+                return (BIGINT.equals(type) || INTEGER.equals(type) || SMALLINT.equals(type) || TINYINT.equals(type) || DATE.equals(type)) &&
+                        type.equals(intermediateType);
+            }
+            return false;
+        }
+
         @Override
         public PlanNode visitAggregation(AggregationNode node, RewriteContext<Void> context)
         {
-            return tryPartialAggregationPushdown(node).orElse(node);
+            Optional<PlanNode> result = tryPartialAggregationPushdown(node);
+            if (!result.isPresent()) {
+                result = tryDictionaryAggregationPushdown(node);
+            }
+            return result.orElse(node);
         }
     }
 }
@@ -1090,7 +1090,8 @@ public abstract class AbstractTestHiveClient
                 getDefaultHiveSelectivePageSourceFactories(hiveClientConfig, metastoreClientConfig),
                 getDefaultHiveAggregatedPageSourceFactories(hiveClientConfig, metastoreClientConfig),
                 FUNCTION_AND_TYPE_MANAGER,
-                ROW_EXPRESSION_SERVICE);
+                ROW_EXPRESSION_SERVICE,
+                FUNCTION_RESOLUTION);
     }
 
     /**
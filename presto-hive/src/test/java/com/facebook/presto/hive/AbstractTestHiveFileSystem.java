@@ -274,7 +274,8 @@ public abstract class AbstractTestHiveFileSystem
                 getDefaultHiveSelectivePageSourceFactories(config, metastoreClientConfig),
                 getDefaultHiveAggregatedPageSourceFactories(config, metastoreClientConfig),
                 FUNCTION_AND_TYPE_MANAGER,
-                ROW_EXPRESSION_SERVICE);
+                ROW_EXPRESSION_SERVICE,
+                FUNCTION_RESOLUTION);
     }
 
     protected ConnectorSession newSession()
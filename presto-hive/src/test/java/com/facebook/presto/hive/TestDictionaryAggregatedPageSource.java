@@ -0,0 +1,172 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.DictionaryBlock;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.FixedPageSource;
+import com.facebook.presto.spi.function.FunctionHandle;
+import com.facebook.presto.spi.plan.AggregationNode.Aggregation;
+import com.facebook.presto.spi.relation.CallExpression;
+import com.facebook.presto.spi.relation.RowExpression;
+import com.facebook.presto.spi.relation.VariableReferenceExpression;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.AGGREGATED;
+import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.REGULAR;
+import static com.facebook.presto.hive.HiveTestUtils.FUNCTION_AND_TYPE_MANAGER;
+import static com.facebook.presto.hive.HiveTestUtils.FUNCTION_RESOLUTION;
+import static com.facebook.presto.hive.HiveType.HIVE_LONG;
+import static com.facebook.presto.hive.HiveType.HIVE_STRING;
+import static java.lang.Math.max;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestDictionaryAggregatedPageSource
+{
+    private static final int MAX_GROUP_COUNT = 65_536;
+    private static final int KEY_COUNT = 70_000;
+
+    private static final HiveColumnHandle KEY_COLUMN = new HiveColumnHandle("key", HIVE_STRING, VARCHAR.getTypeSignature(), 0, REGULAR, Optional.empty(), Optional.empty());
+    private static final HiveColumnHandle VALUE_COLUMN = new HiveColumnHandle("value", HIVE_LONG, BIGINT.getTypeSignature(), 1, REGULAR, Optional.empty(), Optional.empty());
+
+    @Test
+    public void testDictionaryCrossingGroupLimit()
+            throws IOException
+    {
+        assertAggregation(createPage(true));
+    }
+
+    @Test
+    public void testValuesCrossingGroupLimit()
+            throws IOException
+    {
+        assertAggregation(createPage(false));
+    }
+
+    /**
+     * Creates a page whose keys go through every key twice, where the key after the first
+     * MAX_GROUP_COUNT distinct keys is null, so the group limit is reached at a null key.
+     */
+    private static Page createPage(boolean dictionaryEncoded)
+    {
+        BlockBuilder dictionary = VARCHAR.createBlockBuilder(null, KEY_COUNT);
+        for (int key = 0; key < KEY_COUNT; key++) {
+            if (key == MAX_GROUP_COUNT) {
+                dictionary.appendNull();
+            }
+            else {
+                VARCHAR.writeString(dictionary, "key" + key);
+            }
+        }
+        Block dictionaryBlock = dictionary.build();
+
+        int positionCount = KEY_COUNT * 2;
+        int[] ids = new int[positionCount];
+        BlockBuilder values = BIGINT.createFixedSizeBlockBuilder(positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            ids[position] = position % KEY_COUNT;
+            BIGINT.writeLong(values, position);
+        }
+
+        Block keyBlock;
+        if (dictionaryEncoded) {
+            keyBlock = new DictionaryBlock(dictionaryBlock, ids);
+        }
+        else {
+            BlockBuilder keys = VARCHAR.createBlockBuilder(null, positionCount);
+            for (int id : ids) {
+                VARCHAR.appendTo(dictionaryBlock, id, keys);
+            }
+            keyBlock = keys.build();
+        }
+        return new Page(keyBlock, values.build());
+    }
+
+    private static void assertAggregation(Page page)
+            throws IOException
+    {
+        List<HiveColumnHandle> columns = ImmutableList.of(
+                KEY_COLUMN,
+                aggregatedColumn("count_star", -20, FUNCTION_RESOLUTION.countFunction(), ImmutableList.of()),
+                aggregatedColumn("sum_value", 1, FUNCTION_RESOLUTION.lookupBuiltInFunction("sum", ImmutableList.of(BIGINT)), ImmutableList.of(valueArgument())),
+                aggregatedColumn("max_value", 1, FUNCTION_RESOLUTION.maxFunction(BIGINT), ImmutableList.of(valueArgument())));
+        List<HiveColumnHandle> inputColumns = ImmutableList.of(KEY_COLUMN, VALUE_COLUMN);
+
+        List<Page> output = new ArrayList<>();
+        try (ConnectorPageSource pageSource = new DictionaryAggregatedPageSource(new FixedPageSource(ImmutableList.of(page)), columns, inputColumns, FUNCTION_AND_TYPE_MANAGER, FUNCTION_RESOLUTION)) {
+            while (!pageSource.isFinished()) {
+                Page outputPage = pageSource.getNextPage();
+                if (outputPage != null) {
+                    assertTrue(outputPage.getPositionCount() <= MAX_GROUP_COUNT);
+                    output.add(outputPage);
+                }
+            }
+        }
+        // the limit is reached twice within the page: at the null key and during the second pass over the keys
+        assertEquals(output.size(), 3);
+
+        // merge the partial states of the flushes the way the final aggregation does
+        Map<String, long[]> actual = new HashMap<>();
+        for (Page outputPage : output) {
+            Block keys = outputPage.getBlock(0);
+            for (int position = 0; position < outputPage.getPositionCount(); position++) {
+                String key = keys.isNull(position) ? null : VARCHAR.getSlice(keys, position).toStringUtf8();
+                long count = BIGINT.getLong(outputPage.getBlock(1), position);
+                long sum = BIGINT.getLong(outputPage.getBlock(2), position);
+                long maxValue = BIGINT.getLong(outputPage.getBlock(3), position);
+                actual.merge(key, new long[] {count, sum, maxValue}, (left, right) -> new long[] {left[0] + right[0], left[1] + right[1], max(left[2], right[2])});
+            }
+        }
+
+        Map<String, long[]> expected = new HashMap<>();
+        Block keys = page.getBlock(0);
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            String key = keys.isNull(position) ? null : VARCHAR.getSlice(keys, position).toStringUtf8();
+            long value = BIGINT.getLong(page.getBlock(1), position);
+            expected.merge(key, new long[] {1, value, value}, (left, right) -> new long[] {left[0] + right[0], left[1] + right[1], max(left[2], right[2])});
+        }
+
+        assertEquals(actual.size(), KEY_COUNT);
+        assertTrue(actual.containsKey(null));
+        for (Map.Entry<String, long[]> entry : expected.entrySet()) {
+            assertEquals(actual.get(entry.getKey()), entry.getValue(), "key " + entry.getKey());
+        }
+    }
+
+    private static HiveColumnHandle aggregatedColumn(String name, int hiveColumnIndex, FunctionHandle functionHandle, List<RowExpression> arguments)
+    {
+        CallExpression call = new CallExpression(name, functionHandle, BIGINT, arguments);
+        Aggregation aggregation = new Aggregation(call, Optional.empty(), Optional.empty(), false, Optional.empty());
+        return new HiveColumnHandle(name, HIVE_LONG, BIGINT.getTypeSignature(), hiveColumnIndex, AGGREGATED, Optional.of("partial aggregation pushed down"), Optional.of(aggregation));
+    }
+
+    private static VariableReferenceExpression valueArgument()
+    {
+        return new VariableReferenceExpression(Optional.empty(), "value", BIGINT);
+    }
+}
@@ -111,6 +111,7 @@ import static com.facebook.presto.hive.HiveQueryRunner.HIVE_CATALOG;
 import static com.facebook.presto.hive.HiveQueryRunner.TPCH_SCHEMA;
 import static com.facebook.presto.hive.HiveQueryRunner.createBucketedSession;
 import static com.facebook.presto.hive.HiveQueryRunner.createMaterializeExchangesSession;
+import static com.facebook.presto.hive.HiveSessionProperties.DICTIONARY_AGGREGATION_PUSHDOWN_ENABLED;
 import static com.facebook.presto.hive.HiveSessionProperties.FILE_RENAMING_ENABLED;
 import static com.facebook.presto.hive.HiveSessionProperties.MANIFEST_VERIFICATION_ENABLED;
 import static com.facebook.presto.hive.HiveSessionProperties.OPTIMIZED_PARTITION_UPDATE_SERIALIZATION_ENABLED;
@@ -3257,6 +3258,29 @@ public class TestHiveIntegrationSmokeTest
         assertQueryFails("CREATE TABLE test_avro_types WITH (format = 'AVRO') AS SELECT cast(42 AS smallint) z", "Column z is smallint, which is not supported by Avro. Use integer instead.");
     }
 
+    @Test
+    public void testParquetBloomFilterPropertyValidation()
+    {
+        assertQueryFails(
+                "CREATE TABLE test_parquet_bloom_filter (x bigint, ds varchar) WITH (format = 'PARQUET', parquet_bloom_filter_columns = ARRAY['y'])",
+                "parquet_bloom_filter_columns column y is not a non-partition column of the table");
+        assertQueryFails(
+                "CREATE TABLE test_parquet_bloom_filter (x bigint, ds varchar) WITH (format = 'PARQUET', partitioned_by = ARRAY['ds'], parquet_bloom_filter_columns = ARRAY['ds'])",
+                "parquet_bloom_filter_columns column ds is not a non-partition column of the table");
+        assertQueryFails(
+                "CREATE TABLE test_parquet_bloom_filter (x array(bigint), y boolean) WITH (format = 'PARQUET', parquet_bloom_filter_columns = ARRAY['x'])",
+                "parquet_bloom_filter_columns column x has unsupported type: array\\(bigint\\)");
+        assertQueryFails(
+                "CREATE TABLE test_parquet_bloom_filter (x array(bigint), y boolean) WITH (format = 'PARQUET', parquet_bloom_filter_columns = ARRAY['y'])",
+                "parquet_bloom_filter_columns column y has unsupported type: boolean");
+        assertQueryFails(
+                "CREATE TABLE test_parquet_bloom_filter WITH (format = 'PARQUET', parquet_bloom_filter_columns = ARRAY['x'], parquet_bloom_filter_fpp = 1E0) AS SELECT 1 x",
+                "parquet_bloom_filter_fpp must be between 0 and 1 exclusive: 1.0");
+        assertQueryFails(
+                "CREATE TABLE test_parquet_bloom_filter (x bigint) WITH (format = 'PARQUET', parquet_bloom_filter_columns = ARRAY['x'], parquet_bloom_filter_fpp = 0E0)",
+                "parquet_bloom_filter_fpp must be between 0 and 1 exclusive: 0.0");
+    }
+
     @Test
     public void testOrderByChar()
     {
@@ -5720,8 +5744,37 @@ public class TestHiveIntegrationSmokeTest
         assertFalse(getQueryRunner().tableExists(session, "test_table"));
     }
 
+    @Test(dataProvider = "fileFormats")
+    public void testDictionaryAggregationPushdown(String fileFormat)
+    {
+        Session session = Session.builder(getSession())
+                .setCatalogSessionProperty(catalog, DICTIONARY_AGGREGATION_PUSHDOWN_ENABLED, "true")
+                .build();
+        @Language("SQL") String rows = "" +
+                "SELECT " +
+                " CASE WHEN orderkey % 11 = 0 THEN NULL ELSE orderpriority END orderpriority" +
+                ", CASE WHEN orderkey % 7 = 0 THEN NULL ELSE custkey END custkey" +
+                ", orderkey " +
+                "FROM orders";
+        try {
+            assertUpdate(session, "CREATE TABLE test_dictionary_aggregation WITH (format = '" + fileFormat + "') AS " + rows, "SELECT count(*) FROM orders");
+
+            assertQuery(session,
+                    "SELECT orderpriority, count(*), count(custkey), sum(custkey), min(custkey), max(custkey), min(orderkey), max(orderkey) " +
+                            "FROM test_dictionary_aggregation GROUP BY orderpriority",
+                    "SELECT orderpriority, count(*), count(custkey), sum(custkey), min(custkey), max(custkey), min(orderkey), max(orderkey) " +
+                            "FROM (" + rows + ") GROUP BY orderpriority");
+            assertQuery(session,
+                    "SELECT orderpriority, count(*) FROM test_dictionary_aggregation WHERE custkey IS NOT NULL GROUP BY orderpriority",
+                    "SELECT orderpriority, count(*) FROM (" + rows + ") WHERE custkey IS NOT NULL GROUP BY orderpriority");
+        }
+        finally {
+            assertUpdate(session, "DROP TABLE IF EXISTS test_dictionary_aggregation");
+        }
+    }
+
     @Test
-    public void testParquetSelectivePageSourceFails()
+    public void testParquetSelectivePageSource()
     {
         assertUpdate("CREATE TABLE test_parquet_filter_pushdoown (a BIGINT, b BOOLEAN) WITH (format = 'parquet')");
         assertUpdate(getSession(), "INSERT INTO test_parquet_filter_pushdoown VALUES (1, true)", 1);
@@ -5746,9 +5799,33 @@ public class TestHiveIntegrationSmokeTest
                 .setCatalogSessionProperty("hive", "pushdown_filter_enabled", "true")
                 .setCatalogSessionProperty("hive", "parquet_pushdown_filter_enabled", "true")
                 .build();
-        assertQueryFails(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown", "Parquet reader doesn't support filter pushdown yet");
-        assertQueryFails(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown WHERE b = true", "Parquet reader doesn't support filter pushdown yet");
-        assertQueryFails(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown WHERE b = false", "Parquet reader doesn't support filter pushdown yet");
+        assertQuery(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown", "select 1");
+        assertQuery(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown WHERE b = true", "select 1");
+        assertQueryReturnsEmptyResult(parquetFilterPushdownSession, "SELECT a FROM test_parquet_filter_pushdoown WHERE b = false");
+        assertQuery(parquetFilterPushdownSession, "SELECT b FROM test_parquet_filter_pushdoown WHERE a + 1 = 2", "select true");
+        assertQueryReturnsEmptyResult(parquetFilterPushdownSession, "SELECT b FROM test_parquet_filter_pushdoown WHERE a + 1 = 3");
+
+        assertUpdate("DROP TABLE test_parquet_filter_pushdoown");
+    }
+
+    @Test
+    public void testParquetSelectivePageSourcePartitioned()
+    {
+        assertUpdate("CREATE TABLE test_parquet_selective_partitioned (a BIGINT, b VARCHAR, ds VARCHAR) WITH (format = 'parquet', partitioned_by = ARRAY['ds'])");
+        assertUpdate("INSERT INTO test_parquet_selective_partitioned VALUES (1, 'x', '2024-01-01'), (2, 'y', '2024-01-01'), (3, null, '2024-01-02')", 3);
+
+        Session parquetFilterPushdownSession = Session.builder(getSession())
+                .setCatalogSessionProperty("hive", "pushdown_filter_enabled", "true")
+                .setCatalogSessionProperty("hive", "parquet_pushdown_filter_enabled", "true")
+                .build();
+        assertQuery(parquetFilterPushdownSession, "SELECT a, b, ds FROM test_parquet_selective_partitioned", "VALUES (1, 'x', '2024-01-01'), (2, 'y', '2024-01-01'), (3, null, '2024-01-02')");
+        assertQuery(parquetFilterPushdownSession, "SELECT a FROM test_parquet_selective_partitioned WHERE a > 1", "VALUES 2, 3");
+        assertQuery(parquetFilterPushdownSession, "SELECT a FROM test_parquet_selective_partitioned WHERE b IS NULL", "VALUES 3");
+        assertQuery(parquetFilterPushdownSession, "SELECT b FROM test_parquet_selective_partitioned WHERE ds = '2024-01-01' AND a < 2", "VALUES 'x'");
+        assertQueryReturnsEmptyResult(parquetFilterPushdownSession, "SELECT a FROM test_parquet_selective_partitioned WHERE a % 2 = 1 AND b <> 'x'");
+        assertQuery(parquetFilterPushdownSession, "SELECT count(*) FROM test_parquet_selective_partitioned WHERE length(b) = 1", "VALUES 2");
+
+        assertUpdate("DROP TABLE test_parquet_selective_partitioned");
     }
 
     private void testPageFileCompression(String compression)
@@ -103,6 +103,7 @@ import static com.facebook.presto.hive.HiveColumnHandle.isPushedDownSubfield;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.RANGE_FILTERS_ON_SUBSCRIPTS_ENABLED;
 import static com.facebook.presto.hive.HiveQueryRunner.HIVE_CATALOG;
 import static com.facebook.presto.hive.HiveSessionProperties.COLLECT_COLUMN_STATISTICS_ON_WRITE;
+import static com.facebook.presto.hive.HiveSessionProperties.DICTIONARY_AGGREGATION_PUSHDOWN_ENABLED;
 import static com.facebook.presto.hive.HiveSessionProperties.PARQUET_DEREFERENCE_PUSHDOWN_ENABLED;
 import static com.facebook.presto.hive.HiveSessionProperties.PARTIAL_AGGREGATION_PUSHDOWN_ENABLED;
 import static com.facebook.presto.hive.HiveSessionProperties.PARTIAL_AGGREGATION_PUSHDOWN_FOR_VARIABLE_LENGTH_DATATYPES_ENABLED;
@@ -1959,6 +1960,41 @@ public class TestHiveLogicalPlanner
         }
     }
 
+    @Test
+    public void testDictionaryAggregationPushdown()
+    {
+        QueryRunner queryRunner = getQueryRunner();
+        try {
+            queryRunner.execute("CREATE TABLE orders_dictionary_orc WITH (format='ORC') AS " +
+                    "SELECT orderkey, orderpriority, orderstatus, totalprice FROM orders WHERE orderkey < 1000");
+
+            Session session = Session.builder(getQueryRunner().getDefaultSession())
+                    .setCatalogSessionProperty(HIVE_CATALOG, DICTIONARY_AGGREGATION_PUSHDOWN_ENABLED, "true")
+                    .build();
+            assertPlan(session,
+                    "SELECT orderpriority, count(*), sum(orderkey), max(orderkey) FROM orders_dictionary_orc GROUP BY orderpriority",
+                    anyTree(PlanMatchPattern.tableScan("orders_dictionary_orc")),
+                    plan -> assertAggregatedColumns(plan, "orders_dictionary_orc", 3));
+
+            // avg, more than one grouping key and a disabled session property are not pre-aggregated
+            assertPlan(session,
+                    "SELECT orderpriority, avg(totalprice) FROM orders_dictionary_orc GROUP BY orderpriority",
+                    anyTree(PlanMatchPattern.tableScan("orders_dictionary_orc")),
+                    plan -> assertNoAggregatedColumns(plan, "orders_dictionary_orc"));
+            assertPlan(session,
+                    "SELECT orderpriority, orderstatus, count(*) FROM orders_dictionary_orc GROUP BY orderpriority, orderstatus",
+                    anyTree(PlanMatchPattern.tableScan("orders_dictionary_orc")),
+                    plan -> assertNoAggregatedColumns(plan, "orders_dictionary_orc"));
+            assertPlan(getQueryRunner().getDefaultSession(),
+                    "SELECT orderpriority, count(*) FROM orders_dictionary_orc GROUP BY orderpriority",
+                    anyTree(PlanMatchPattern.tableScan("orders_dictionary_orc")),
+                    plan -> assertNoAggregatedColumns(plan, "orders_dictionary_orc"));
+        }
+        finally {
+            queryRunner.execute("DROP TABLE IF EXISTS orders_dictionary_orc");
+        }
+    }
+
     private static Set<Subfield> toSubfields(String... subfieldPaths)
     {
         return Arrays.stream(subfieldPaths)
@@ -2132,6 +2168,19 @@ public class TestHiveLogicalPlanner
         }
     }
 
+    private void assertAggregatedColumns(Plan plan, String tableName, int expectedAggregatedColumns)
+    {
+        TableScanNode tableScan = searchFrom(plan.getRoot())
+                .where(node -> isTableScanNode(node, tableName))
+                .findOnlyElement();
+
+        long aggregatedColumns = tableScan.getAssignments().values().stream()
+                .map(HiveColumnHandle.class::cast)
+                .filter(columnHandle -> columnHandle.getColumnType() == HiveColumnHandle.ColumnType.AGGREGATED)
+                .count();
+        assertEquals(aggregatedColumns, expectedAggregatedColumns);
+    }
+
     private void assertRequestedColumnsInLayout(Plan plan, String tableName, Set<String> expectedRequestedColumns)
     {
         TableScanNode tableScan = searchFrom(plan.getRoot())
@@ -66,6 +66,7 @@ import static com.facebook.presto.hive.CacheQuotaRequirement.NO_CACHE_REQUIREMEN
 import static com.facebook.presto.hive.CacheQuotaScope.PARTITION;
 import static com.facebook.presto.hive.HiveStorageFormat.ORC;
 import static com.facebook.presto.hive.HiveStorageFormat.RCBINARY;
+import static com.facebook.presto.hive.HiveTestUtils.FUNCTION_RESOLUTION;
 import static com.facebook.presto.hive.HiveTestUtils.HDFS_ENVIRONMENT;
 import static com.facebook.presto.hive.HiveTestUtils.HIVE_CLIENT_CONFIG;
 import static com.facebook.presto.hive.HiveTestUtils.METADATA;
@@ -122,7 +123,8 @@ public class TestHivePageSourceProvider
                 ImmutableSet.of(new MockOrcSelectivePageSourceFactory()),
                 ImmutableSet.of(new MockOrcAggregatedPageSourceFactory()),
                 METADATA.getFunctionAndTypeManager(),
-                ROW_EXPRESSION_SERVICE);
+                ROW_EXPRESSION_SERVICE,
+                FUNCTION_RESOLUTION);
     }
 
     @Test
@@ -417,8 +419,8 @@ public class TestHivePageSourceProvider
                 new RuntimeStats());
     }
 
-    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Not all columns are of 'AGGREGATED' type")
-    public void testFailsWhenMixOfAggregatedAndRegularColumns()
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Aggregated columns must be grouped by a single varchar column: .*")
+    public void testFailsWhenAggregatedColumnsAreNotGroupedByVarchar()
     {
         HivePageSourceProvider pageSourceProvider = createPageSourceProvider();
         pageSourceProvider.createPageSource(
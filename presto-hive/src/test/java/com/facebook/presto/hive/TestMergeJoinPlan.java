@@ -36,6 +36,7 @@ import static com.facebook.presto.spi.plan.JoinType.LEFT;
 import static com.facebook.presto.spi.plan.JoinType.RIGHT;
 import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.anyTree;
 import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.equiJoinClause;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.filter;
 import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.join;
 import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.mergeJoin;
 import static io.airlift.tpch.TpchTable.CUSTOMER;
@@ -83,7 +84,32 @@ public class TestMergeJoinPlan
             assertPlan(
                     mergeJoinEnabled(),
                     "select * from test_join_customer_join_type left join test_join_order_join_type on test_join_customer_join_type.custkey = test_join_order_join_type.custkey",
-                    joinPlan("test_join_customer_join_type", "test_join_order_join_type", ImmutableList.of("custkey"), ImmutableList.of("custkey"), LEFT, false));
+                    joinPlan("test_join_customer_join_type", "test_join_order_join_type", ImmutableList.of("custkey"), ImmutableList.of("custkey"), LEFT, true));
+
+            // Left join with a filter
+            assertPlan(
+                    mergeJoinEnabled(),
+                    "select * from test_join_customer_join_type left join test_join_order_join_type on test_join_customer_join_type.custkey = test_join_order_join_type.custkey and totalprice > acctbal",
+                    anyTree(join(
+                            LEFT,
+                            ImmutableList.of(equiJoinClause("custkey0", "custkey1")),
+                            Optional.of("totalprice > acctbal"),
+                            Optional.of(PARTITIONED),
+                            anyTree(PlanMatchPattern.tableScan("test_join_customer_join_type", ImmutableMap.of("custkey0", "custkey", "acctbal", "acctbal"))),
+                            anyTree(PlanMatchPattern.tableScan("test_join_order_join_type", ImmutableMap.of("custkey1", "custkey", "totalprice", "totalprice"))))));
+
+            // Inner join with a filter
+            assertPlan(
+                    mergeJoinEnabled(),
+                    "select * from test_join_customer_join_type join test_join_order_join_type on test_join_customer_join_type.custkey = test_join_order_join_type.custkey and totalprice > acctbal",
+                    anyTree(filter(
+                            "acctbal < totalprice",
+                            mergeJoin(
+                                    INNER,
+                                    ImmutableList.of(equiJoinClause("custkey0", "custkey1")),
+                                    Optional.empty(),
+                                    PlanMatchPattern.tableScan("test_join_customer_join_type", ImmutableMap.of("custkey0", "custkey", "acctbal", "acctbal")),
+                                    PlanMatchPattern.tableScan("test_join_order_join_type", ImmutableMap.of("custkey1", "custkey", "totalprice", "totalprice"))))));
 
             // Right join
             assertPlan(
@@ -298,6 +324,98 @@ public class TestMergeJoinPlan
         }
     }
 
+    @Test
+    public void testMergeJoinResults()
+    {
+        QueryRunner queryRunner = getQueryRunner();
+
+        try {
+            // bucketed and sorted tables are written through the SortingFileWriter
+            queryRunner.execute("CREATE TABLE test_merge_join_customer WITH ( \n" +
+                    "  bucket_count = 4, bucketed_by = ARRAY['custkey'], \n" +
+                    "  sorted_by = ARRAY['custkey', 'nationkey'], partitioned_by=array['ds']) AS \n" +
+                    "SELECT custkey, nationkey, name, '2021-07-11' as ds FROM tpch.tiny.customer WHERE custkey % 3 <> 0");
+
+            queryRunner.execute("CREATE TABLE test_merge_join_order WITH ( \n" +
+                    "  bucket_count = 4, bucketed_by = ARRAY['custkey'], \n" +
+                    "  sorted_by = ARRAY['custkey', 'orderkey'], partitioned_by=array['ds']) AS \n" +
+                    "SELECT orderkey, custkey, totalprice, '2021-07-11' as ds FROM tpch.tiny.orders");
+
+            // Inner join with duplicate keys on the right side
+            assertQueryWithSameQueryRunner(
+                    mergeJoinEnabled(),
+                    "SELECT c.custkey, c.name, o.orderkey, o.totalprice FROM test_merge_join_customer c JOIN test_merge_join_order o ON c.custkey = o.custkey",
+                    getSession());
+
+            // Left join with unmatched rows on the left side
+            assertQueryWithSameQueryRunner(
+                    mergeJoinEnabled(),
+                    "SELECT c.custkey, c.name, o.orderkey FROM test_merge_join_order o LEFT JOIN test_merge_join_customer c ON o.custkey = c.custkey",
+                    getSession());
+
+            // Inner join with a filter
+            assertQueryWithSameQueryRunner(
+                    mergeJoinEnabled(),
+                    "SELECT c.custkey, o.orderkey FROM test_merge_join_customer c JOIN test_merge_join_order o ON c.custkey = o.custkey AND o.totalprice > c.nationkey * 10000",
+                    getSession());
+
+            // Aggregation over the join output
+            assertQueryWithSameQueryRunner(
+                    mergeJoinEnabled(),
+                    "SELECT c.nationkey, count(*), sum(o.totalprice) FROM test_merge_join_customer c JOIN test_merge_join_order o ON c.custkey = o.custkey GROUP BY c.nationkey",
+                    getSession());
+        }
+        finally {
+            queryRunner.execute("DROP TABLE IF EXISTS test_merge_join_customer");
+            queryRunner.execute("DROP TABLE IF EXISTS test_merge_join_order");
+        }
+    }
+
+    @Test
+    public void testMergeJoinResultsWithMultiplePartitions()
+    {
+        QueryRunner queryRunner = getQueryRunner();
+
+        try {
+            // every bucket of each table is read from one file per partition
+            queryRunner.execute("CREATE TABLE test_merge_join_customer_multi_partitions WITH ( \n" +
+                    "  bucket_count = 4, bucketed_by = ARRAY['custkey'], \n" +
+                    "  sorted_by = ARRAY['custkey'], partitioned_by=array['ds']) AS \n" +
+                    "SELECT custkey, name, '2021-07-11' as ds FROM tpch.tiny.customer WHERE custkey % 3 <> 0");
+            queryRunner.execute("INSERT INTO test_merge_join_customer_multi_partitions \n" +
+                    "SELECT custkey, name, '2021-07-12' as ds FROM tpch.tiny.customer WHERE custkey % 5 <> 0");
+
+            queryRunner.execute("CREATE TABLE test_merge_join_order_multi_partitions WITH ( \n" +
+                    "  bucket_count = 4, bucketed_by = ARRAY['custkey'], \n" +
+                    "  sorted_by = ARRAY['custkey'], partitioned_by=array['ds']) AS \n" +
+                    "SELECT orderkey, custkey, '2021-07-11' as ds FROM tpch.tiny.orders");
+            queryRunner.execute("INSERT INTO test_merge_join_order_multi_partitions \n" +
+                    "SELECT orderkey, custkey, '2021-07-12' as ds FROM tpch.tiny.orders WHERE orderkey % 2 = 0");
+
+            // A lifespan covers a bucket of both partitions, which together are not sorted on (custkey, ds), so merge join can't be enabled
+            String query = "SELECT c.custkey, c.name, o.orderkey, o.ds FROM test_merge_join_order_multi_partitions o " +
+                    "JOIN test_merge_join_customer_multi_partitions c ON o.custkey = c.custkey AND o.ds = c.ds";
+            assertPlan(
+                    mergeJoinEnabled(),
+                    query,
+                    joinPlan("test_merge_join_order_multi_partitions", "test_merge_join_customer_multi_partitions", ImmutableList.of("custkey", "ds"), ImmutableList.of("custkey", "ds"), INNER, false));
+            assertQueryWithSameQueryRunner(mergeJoinEnabled(), query, getSession());
+
+            // Within a single partition every bucket is one sorted run
+            String singlePartitionQuery = "SELECT c.custkey, c.name, o.orderkey FROM test_merge_join_order_multi_partitions o " +
+                    "JOIN test_merge_join_customer_multi_partitions c ON o.custkey = c.custkey WHERE o.ds = '2021-07-12' AND c.ds = '2021-07-12'";
+            assertPlan(
+                    mergeJoinEnabled(),
+                    singlePartitionQuery,
+                    joinPlan("test_merge_join_order_multi_partitions", "test_merge_join_customer_multi_partitions", ImmutableList.of("custkey"), ImmutableList.of("custkey"), INNER, true));
+            assertQueryWithSameQueryRunner(mergeJoinEnabled(), singlePartitionQuery, getSession());
+        }
+        finally {
+            queryRunner.execute("DROP TABLE IF EXISTS test_merge_join_customer_multi_partitions");
+            queryRunner.execute("DROP TABLE IF EXISTS test_merge_join_order_multi_partitions");
+        }
+    }
+
     private Session groupedExecutionDisabled()
     {
         return Session.builder(getQueryRunner().getDefaultSession())
@@ -65,7 +65,9 @@ public class TestOrcFileWriterConfig
                 .setStringDictionaryEncodingEnabled(true)
                 .setStringDictionarySortingEnabled(true)
                 .setFlatMapWriterEnabled(false)
-                .setAddHostnameToFileMetadataEnabled(true));
+                .setAddHostnameToFileMetadataEnabled(true)
+                .setColumnEncodingThreads(0)
+                .setAsyncStripeFlushEnabled(false));
     }
 
     @Test
@@ -89,6 +91,8 @@ public class TestOrcFileWriterConfig
                 .put("hive.orc.writer.string-dictionary-sorting-enabled", "false")
                 .put("hive.orc.writer.flat-map-writer-enabled", "true")
                 .put("hive.orc.writer.add-hostname-to-file-metadata-enabled", "false")
+                .put("hive.orc.writer.column-encoding-threads", "8")
+                .put("hive.orc.writer.async-stripe-flush-enabled", "true")
                 .build();
 
         OrcFileWriterConfig expected = new OrcFileWriterConfig()
@@ -108,7 +112,9 @@ public class TestOrcFileWriterConfig
                 .setStringDictionaryEncodingEnabled(false)
                 .setStringDictionarySortingEnabled(false)
                 .setFlatMapWriterEnabled(true)
-                .setAddHostnameToFileMetadataEnabled(false);
+                .setAddHostnameToFileMetadataEnabled(false)
+                .setColumnEncodingThreads(8)
+                .setAsyncStripeFlushEnabled(true);
 
         assertFullMapping(properties, expected);
     }
@@ -71,6 +71,7 @@ import io.airlift.slice.Slice;
 import org.apache.hadoop.fs.Path;
 import org.apache.iceberg.AppendFiles;
 import org.apache.iceberg.BaseTable;
+import org.apache.iceberg.DataFile;
 import org.apache.iceberg.DataFiles;
 import org.apache.iceberg.DeleteFiles;
 import org.apache.iceberg.FileFormat;
@@ -79,16 +80,20 @@ import org.apache.iceberg.MetricsConfig;
 import org.apache.iceberg.MetricsModes.None;
 import org.apache.iceberg.PartitionField;
 import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.RewriteFiles;
 import org.apache.iceberg.RowDelta;
 import org.apache.iceberg.RowLevelOperationMode;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.SchemaParser;
+import org.apache.iceberg.Snapshot;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.TableProperties;
 import org.apache.iceberg.Transaction;
 import org.apache.iceberg.UpdateProperties;
+import org.apache.iceberg.exceptions.CommitFailedException;
 import org.apache.iceberg.exceptions.NoSuchTableException;
 import org.apache.iceberg.exceptions.NoSuchViewException;
+import org.apache.iceberg.exceptions.ValidationException;
 import org.apache.iceberg.types.Type;
 import org.apache.iceberg.types.TypeUtil;
 import org.apache.iceberg.types.Types;
@@ -119,6 +124,7 @@ import static com.facebook.presto.iceberg.IcebergColumnHandle.DATA_SEQUENCE_NUMB
 import static com.facebook.presto.iceberg.IcebergColumnHandle.DATA_SEQUENCE_NUMBER_COLUMN_METADATA;
 import static com.facebook.presto.iceberg.IcebergColumnHandle.PATH_COLUMN_HANDLE;
 import static com.facebook.presto.iceberg.IcebergColumnHandle.PATH_COLUMN_METADATA;
+import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_COMMIT_ERROR;
 import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_INVALID_SNAPSHOT_ID;
 import static com.facebook.presto.iceberg.IcebergMetadataColumn.DATA_SEQUENCE_NUMBER;
 import static com.facebook.presto.iceberg.IcebergMetadataColumn.FILE_PATH;
@@ -511,12 +517,61 @@ public abstract class IcebergAbstractMetadata
                 .map(slice -> commitTaskCodec.fromJson(slice.getBytes()))
                 .collect(toImmutableList());
 
+        AppendFiles appendFiles = transaction.newFastAppend();
+        for (DataFile dataFile : toDataFiles(icebergTable, writableTableHandle, commitTasks)) {
+            appendFiles.appendFile(dataFile);
+        }
+
+        appendFiles.commit();
+        transaction.commitTransaction();
+
+        return Optional.of(new HiveWrittenPartitions(commitTasks.stream()
+                .map(CommitTaskData::getPath)
+                .collect(toImmutableList())));
+    }
+
+    /**
+     * Atomically replaces data files of the starting snapshot with the files written through the page sinks
+     * of an insert handle from {@link #beginInsert}. The commit fails if a concurrent commit removed any of the
+     * replaced files or added deletes for them. The new files keep the data sequence number of the starting
+     * snapshot, so equality deletes committed after it still apply to their rows.
+     */
+    public void finishRewriteDataFiles(IcebergInsertTableHandle insertHandle, long startingSnapshotId, Set<DataFile> rewrittenDataFiles, Collection<Slice> fragments)
+    {
+        Table icebergTable = transaction.table();
+        Snapshot startingSnapshot = icebergTable.snapshot(startingSnapshotId);
+        if (startingSnapshot == null) {
+            throw new PrestoException(ICEBERG_INVALID_SNAPSHOT_ID, format("Invalid snapshot [%s] for table: %s", startingSnapshotId, icebergTable));
+        }
+
+        List<CommitTaskData> commitTasks = fragments.stream()
+                .map(slice -> commitTaskCodec.fromJson(slice.getBytes()))
+                .collect(toImmutableList());
+
+        RewriteFiles rewriteFiles = transaction.newRewrite()
+                .validateFromSnapshot(startingSnapshotId)
+                .dataSequenceNumber(startingSnapshot.sequenceNumber());
+        rewrittenDataFiles.forEach(rewriteFiles::deleteFile);
+        toDataFiles(icebergTable, insertHandle, commitTasks).forEach(rewriteFiles::addFile);
+
+        try {
+            rewriteFiles.commit();
+            transaction.commitTransaction();
+        }
+        catch (ValidationException | CommitFailedException e) {
+            // the rewrite was rejected; any other failure leaves the state of the commit unknown
+            throw new PrestoException(ICEBERG_COMMIT_ERROR, "Failed to commit the rewrite of table " + icebergTable.name() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static List<DataFile> toDataFiles(Table icebergTable, IcebergWritableTableHandle writableTableHandle, List<CommitTaskData> commitTasks)
+    {
         Type[] partitionColumnTypes = icebergTable.spec().fields().stream()
                 .map(field -> field.transform().getResultType(
                         icebergTable.schema().findType(field.sourceId())))
                 .toArray(Type[]::new);
 
-        AppendFiles appendFiles = transaction.newFastAppend();
+        ImmutableList.Builder<DataFile> dataFiles = ImmutableList.builder();
         for (CommitTaskData task : commitTasks) {
             DataFiles.Builder builder = DataFiles.builder(icebergTable.spec())
                     .withPath(task.getPath())
@@ -530,15 +585,9 @@ public abstract class IcebergAbstractMetadata
                 builder.withPartition(PartitionData.fromJson(partitionDataJson, partitionColumnTypes));
             }
 
-            appendFiles.appendFile(builder.build());
+            dataFiles.add(builder.build());
         }
-
-        appendFiles.commit();
-        transaction.commitTransaction();
-
-        return Optional.of(new HiveWrittenPartitions(commitTasks.stream()
-                .map(CommitTaskData::getPath)
-                .collect(toImmutableList())));
+        return dataFiles.build();
     }
 
     @Override
@@ -37,12 +37,14 @@ import com.facebook.presto.hive.cache.HiveCachingHdfsConfiguration;
 import com.facebook.presto.hive.gcs.GcsConfigurationInitializer;
 import com.facebook.presto.hive.gcs.HiveGcsConfig;
 import com.facebook.presto.hive.gcs.HiveGcsConfigurationInitializer;
+import com.facebook.presto.iceberg.delete.PositionDeleteCache;
 import com.facebook.presto.iceberg.nessie.IcebergNessieConfig;
 import com.facebook.presto.iceberg.optimizer.IcebergPlanOptimizerProvider;
 import com.facebook.presto.iceberg.procedure.ExpireSnapshotsProcedure;
 import com.facebook.presto.iceberg.procedure.FastForwardBranchProcedure;
 import com.facebook.presto.iceberg.procedure.RegisterTableProcedure;
 import com.facebook.presto.iceberg.procedure.RemoveOrphanFiles;
+import com.facebook.presto.iceberg.procedure.RewriteDataFilesProcedure;
 import com.facebook.presto.iceberg.procedure.RollbackToSnapshotProcedure;
 import com.facebook.presto.iceberg.procedure.RollbackToTimestampProcedure;
 import com.facebook.presto.iceberg.procedure.SetCurrentSnapshotProcedure;
@@ -50,6 +52,7 @@ import com.facebook.presto.iceberg.procedure.SetTablePropertyProcedure;
 import com.facebook.presto.iceberg.procedure.UnregisterTableProcedure;
 import com.facebook.presto.iceberg.statistics.StatisticsFileCache;
 import com.facebook.presto.iceberg.statistics.StatisticsFileCacheKey;
+import com.facebook.presto.orc.CachingSliceDictionaryStripeMetadataSource;
 import com.facebook.presto.orc.CachingStripeMetadataSource;
 import com.facebook.presto.orc.DwrfAwareStripeMetadataSourceFactory;
 import com.facebook.presto.orc.EncryptionLibrary;
@@ -65,6 +68,7 @@ import com.facebook.presto.orc.cache.OrcFileTailSource;
 import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
 import com.facebook.presto.orc.metadata.OrcFileTail;
 import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.reader.SliceDictionary;
 import com.facebook.presto.parquet.ParquetDataSourceId;
 import com.facebook.presto.parquet.cache.CachingParquetMetadataSource;
 import com.facebook.presto.parquet.cache.MetadataReader;
@@ -167,6 +171,7 @@ public class IcebergCommonModule
         procedures.addBinding().toProvider(FastForwardBranchProcedure.class).in(Scopes.SINGLETON);
         procedures.addBinding().toProvider(SetCurrentSnapshotProcedure.class).in(Scopes.SINGLETON);
         procedures.addBinding().toProvider(SetTablePropertyProcedure.class).in(Scopes.SINGLETON);
+        procedures.addBinding().toProvider(RewriteDataFilesProcedure.class).in(Scopes.SINGLETON);
 
         // for orc
         binder.bind(EncryptionLibrary.class).annotatedWith(HiveDwrfEncryptionProvider.ForCryptoService.class).to(UnsupportedEncryptionLibrary.class).in(Scopes.SINGLETON);
@@ -195,6 +200,24 @@ public class IcebergCommonModule
         return new StatisticsFileCache(delegate);
     }
 
+    @Singleton
+    @Provides
+    public PositionDeleteCache createPositionDeleteCache(IcebergConfig config, MBeanExporter exporter)
+    {
+        PositionDeleteCache cache = new PositionDeleteCache(config.getMaxPositionDeleteCacheSize());
+        exporter.export(generatedNameOf(PositionDeleteCache.class, connectorId), cache);
+        return cache;
+    }
+
+    @Singleton
+    @Provides
+    public ScanPlanCache createScanPlanCache(IcebergConfig config, MBeanExporter exporter)
+    {
+        ScanPlanCache cache = new ScanPlanCache(config.getMaxScanPlanCacheSize());
+        exporter.export(generatedNameOf(ScanPlanCache.class, connectorId), cache);
+        return cache;
+    }
+
     @ForCachingHiveMetastore
     @Singleton
     @Provides
@@ -273,8 +296,20 @@ public class IcebergCommonModule
                 CacheStatsMBean rowGroupIndexCacheStatsMBean = new CacheStatsMBean(rowGroupIndexCache.get());
                 exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_StripeStreamRowGroupIndex"), rowGroupIndexCacheStatsMBean);
             }
+
             stripeMetadataSource = new CachingStripeMetadataSource(stripeMetadataSource, footerCache, streamCache, rowGroupIndexCache);
         }
+        if (orcCacheConfig.isDictionaryCacheEnabled()) {
+            Cache<StripeReader.StripeStreamId, SliceDictionary> sliceDictionaryCache = CacheBuilder.newBuilder()
+                    .maximumWeight(orcCacheConfig.getDictionaryCacheSize().toBytes())
+                    .weigher((id, dictionary) -> toIntExact(((SliceDictionary) dictionary).getRetainedSizeInBytes()))
+                    .expireAfterAccess(orcCacheConfig.getDictionaryCacheTtlSinceLastAccess().toMillis(), MILLISECONDS)
+                    .recordStats()
+                    .build();
+            CacheStatsMBean sliceDictionaryCacheStatsMBean = new CacheStatsMBean(sliceDictionaryCache);
+            exporter.export(generatedNameOf(CacheStatsMBean.class, connectorId + "_StripeSliceDictionary"), sliceDictionaryCacheStatsMBean);
+            stripeMetadataSource = new CachingSliceDictionaryStripeMetadataSource(stripeMetadataSource, sliceDictionaryCache);
+        }
         StripeMetadataSourceFactory factory = StripeMetadataSourceFactory.of(stripeMetadataSource);
         if (orcCacheConfig.isDwrfStripeCacheEnabled()) {
             factory = new DwrfAwareStripeMetadataSourceFactory(factory);
@@ -73,6 +73,8 @@ public class IcebergConfig
     private long manifestCacheMaxContentLength = IO_MANIFEST_CACHE_MAX_CONTENT_LENGTH_DEFAULT;
     private int splitManagerThreads = Runtime.getRuntime().availableProcessors();
     private DataSize maxStatisticsFileCacheSize = succinctDataSize(256, MEGABYTE);
+    private DataSize maxPositionDeleteCacheSize = succinctDataSize(256, MEGABYTE);
+    private DataSize maxScanPlanCacheSize = succinctDataSize(128, MEGABYTE);
 
     @NotNull
     public FileFormat getFileFormat()
@@ -415,6 +417,32 @@ public class IcebergConfig
         return this;
     }
 
+    public DataSize getMaxPositionDeleteCacheSize()
+    {
+        return maxPositionDeleteCacheSize;
+    }
+
+    @Config("iceberg.max-position-delete-cache-size")
+    @ConfigDescription("The maximum size of the decoded position deletes cached on each worker, 0B disables the cache")
+    public IcebergConfig setMaxPositionDeleteCacheSize(DataSize maxPositionDeleteCacheSize)
+    {
+        this.maxPositionDeleteCacheSize = maxPositionDeleteCacheSize;
+        return this;
+    }
+
+    public DataSize getMaxScanPlanCacheSize()
+    {
+        return maxScanPlanCacheSize;
+    }
+
+    @Config("iceberg.max-scan-plan-cache-size")
+    @ConfigDescription("The maximum size of the scan plans cached on the coordinator, 0B disables the cache")
+    public IcebergConfig setMaxScanPlanCacheSize(DataSize maxScanPlanCacheSize)
+    {
+        this.maxScanPlanCacheSize = maxScanPlanCacheSize;
+        return this;
+    }
+
     public int getStatisticsKllSketchKParameter()
     {
         return this.statisticsKllSketchKParameter;
@@ -38,7 +38,8 @@ public enum IcebergErrorCode
     ICEBERG_INVALID_TABLE_TIMESTAMP(12, USER_ERROR),
     ICEBERG_ROLLBACK_ERROR(13, EXTERNAL),
     ICEBERG_INVALID_FORMAT_VERSION(14, USER_ERROR),
-    ICEBERG_UNKNOWN_MANIFEST_TYPE(15, EXTERNAL);
+    ICEBERG_UNKNOWN_MANIFEST_TYPE(15, EXTERNAL),
+    ICEBERG_COMMIT_ERROR(16, EXTERNAL);
 
     private final ErrorCode errorCode;
 
@@ -44,6 +44,8 @@ import com.facebook.presto.iceberg.changelog.ChangelogPageSource;
 import com.facebook.presto.iceberg.delete.DeleteFile;
 import com.facebook.presto.iceberg.delete.DeleteFilter;
 import com.facebook.presto.iceberg.delete.IcebergDeletePageSink;
+import com.facebook.presto.iceberg.delete.PositionDeleteCache;
+import com.facebook.presto.iceberg.delete.PositionDeleteCacheKey;
 import com.facebook.presto.iceberg.delete.PositionDeleteFilter;
 import com.facebook.presto.iceberg.delete.RowPredicate;
 import com.facebook.presto.memory.context.AggregatedMemoryContext;
@@ -82,6 +84,7 @@ import com.google.common.base.VerifyException;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.airlift.slice.Slice;
 import io.airlift.units.DataSize;
 import org.apache.hadoop.conf.Configuration;
@@ -116,6 +119,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -138,6 +142,7 @@ import static com.facebook.presto.hive.HiveCommonSessionProperties.isOrcBloomFil
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isOrcZstdJniDecompressionEnabled;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isParquetBatchReaderVerificationEnabled;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isParquetBatchReadsEnabled;
+import static com.facebook.presto.hive.HiveCommonSessionProperties.isParquetBloomFiltersEnabled;
 import static com.facebook.presto.hive.parquet.HdfsParquetDataSource.buildHdfsParquetDataSource;
 import static com.facebook.presto.hive.parquet.ParquetPageSourceFactory.createDecryptor;
 import static com.facebook.presto.iceberg.FileContent.EQUALITY_DELETES;
@@ -169,6 +174,7 @@ import static com.facebook.presto.parquet.reader.ColumnIndexFilterUtils.getColum
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
 import static com.google.common.base.Predicates.not;
+import static com.google.common.base.Throwables.throwIfInstanceOf;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
@@ -196,6 +202,7 @@ public class IcebergPageSourceProvider
     private final HiveClientConfig hiveClientConfig;
     private final IcebergFileWriterFactory fileWriterFactory;
     private final JsonCodec<CommitTaskData> jsonCodec;
+    private final PositionDeleteCache positionDeleteCache;
 
     private final ParquetMetadataSource parquetMetadataSource;
 
@@ -210,7 +217,8 @@ public class IcebergPageSourceProvider
             HiveClientConfig hiveClientConfig,
             ParquetMetadataSource parquetMetadataSource,
             IcebergFileWriterFactory fileWriterFactory,
-            JsonCodec<CommitTaskData> jsonCodec)
+            JsonCodec<CommitTaskData> jsonCodec,
+            PositionDeleteCache positionDeleteCache)
     {
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.fileFormatDataSourceStats = requireNonNull(fileFormatDataSourceStats, "fileFormatDataSourceStats is null");
@@ -222,6 +230,7 @@ public class IcebergPageSourceProvider
         this.parquetMetadataSource = requireNonNull(parquetMetadataSource, "parquetMetadataSource is null");
         this.fileWriterFactory = requireNonNull(fileWriterFactory, "fileWriterFactory is null");
         this.jsonCodec = requireNonNull(jsonCodec, "jsonCodec is null");
+        this.positionDeleteCache = requireNonNull(positionDeleteCache, "positionDeleteCache is null");
     }
 
     private static ConnectorPageSourceWithRowPositions createParquetPageSource(
@@ -301,7 +310,7 @@ public class IcebergPageSourceProvider
                     long firstDataPage = block.getColumns().get(firstIndex.get()).getFirstDataPageOffset();
                     Optional<ColumnIndexStore> columnIndexStore = getColumnIndexStore(parquetPredicate, finalDataSource, block, descriptorsByPath, false);
                     if ((firstDataPage >= start) && (firstDataPage < (start + length)) &&
-                            predicateMatches(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain, columnIndexStore, false, Optional.of(session.getWarningCollector()))) {
+                            predicateMatches(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain, columnIndexStore, false, isParquetBloomFiltersEnabled(session), Optional.of(session.getWarningCollector()))) {
                         blocks.add(block);
                         blockIndexStores.add(columnIndexStore.orElse(null));
                         blockStarts.add(nextStart);
@@ -863,11 +872,14 @@ public class IcebergPageSourceProvider
         Slice targetPath = utf8Slice(dataFilePath);
         List<DeleteFilter> filters = new ArrayList<>();
         LongBitmapDataProvider deletedRows = new Roaring64Bitmap();
+        List<Roaring64Bitmap> cachedDeletedRows = new ArrayList<>();
 
         IcebergColumnHandle deleteFilePath = IcebergColumnHandle.create(DELETE_FILE_PATH, typeManager, IcebergColumnHandle.ColumnType.REGULAR);
         IcebergColumnHandle deleteFilePos = IcebergColumnHandle.create(DELETE_FILE_POS, typeManager, IcebergColumnHandle.ColumnType.REGULAR);
         List<IcebergColumnHandle> deleteColumns = ImmutableList.of(deleteFilePath, deleteFilePos);
         TupleDomain<IcebergColumnHandle> deleteDomain = TupleDomain.fromFixedValues(ImmutableMap.of(deleteFilePath, NullableValue.of(VARCHAR, targetPath)));
+        // cached deletes are shared by all the splits of the data file, so they are not restricted to the row positions of this split
+        TupleDomain<IcebergColumnHandle> dataFileDeleteDomain = deleteDomain;
         if (startRowPosition.isPresent()) {
             Range positionRange = Range.range(deleteFilePos.getType(), startRowPosition.get(), true, endRowPosition.get(), true);
             TupleDomain<IcebergColumnHandle> positionDomain = TupleDomain.withColumnDomains(ImmutableMap.of(deleteFilePos, Domain.create(ValueSet.ofRanges(positionRange), false)));
@@ -891,6 +903,11 @@ public class IcebergPageSourceProvider
                     }
                 }
 
+                if (positionDeleteCache.isEnabled()) {
+                    cachedDeletedRows.add(getCachedPositionDeletes(session, delete, dataFilePath, deleteColumns, dataFileDeleteDomain));
+                    continue;
+                }
+
                 try (ConnectorPageSource pageSource = openDeletes(session, delete, deleteColumns, deleteDomain)) {
                     readPositionDeletes(pageSource, targetPath, deletedRows);
                 }
@@ -921,9 +938,41 @@ public class IcebergPageSourceProvider
             filters.add(new PositionDeleteFilter(deletedRows));
         }
 
+        // cached bitmaps are shared by the splits of the data file, so each one gets its own
+        // filter rather than being copied into a bitmap merged for this split
+        for (Roaring64Bitmap cachedBitmap : cachedDeletedRows) {
+            if (!cachedBitmap.isEmpty()) {
+                filters.add(new PositionDeleteFilter(cachedBitmap));
+            }
+        }
+
         return filters;
     }
 
+    private Roaring64Bitmap getCachedPositionDeletes(
+            ConnectorSession session,
+            DeleteFile delete,
+            String dataFilePath,
+            List<IcebergColumnHandle> deleteColumns,
+            TupleDomain<IcebergColumnHandle> deleteDomain)
+    {
+        PositionDeleteCacheKey key = new PositionDeleteCacheKey(delete.path(), delete.fileSizeInBytes(), dataFilePath);
+        try {
+            return positionDeleteCache.get(key, () -> {
+                Roaring64Bitmap deletedRows = new Roaring64Bitmap();
+                try (ConnectorPageSource pageSource = openDeletes(session, delete, deleteColumns, deleteDomain)) {
+                    readPositionDeletes(pageSource, utf8Slice(dataFilePath), deletedRows);
+                }
+                deletedRows.runOptimize();
+                return deletedRows;
+            });
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfInstanceOf(e.getCause(), PrestoException.class);
+            throw new PrestoException(ICEBERG_CANNOT_OPEN_SPLIT, format("Cannot open Iceberg delete file: %s", delete.path()), e.getCause());
+        }
+    }
+
     private ConnectorPageSource openDeletes(
             ConnectorSession session,
             DeleteFile delete,
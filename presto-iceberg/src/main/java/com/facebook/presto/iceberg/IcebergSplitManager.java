@@ -56,17 +56,20 @@ public class IcebergSplitManager
     private final TypeManager typeManager;
     private final ExecutorService executor;
     private final ThreadPoolExecutorMBean executorServiceMBean;
+    private final ScanPlanCache scanPlanCache;
 
     @Inject
     public IcebergSplitManager(
             IcebergTransactionManager transactionManager,
             TypeManager typeManager,
-            @ForIcebergSplitManager ExecutorService executor)
+            @ForIcebergSplitManager ExecutorService executor,
+            ScanPlanCache scanPlanCache)
     {
         this.transactionManager = requireNonNull(transactionManager, "transactionManager is null");
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.executor = requireNonNull(executor, "executor is null");
         this.executorServiceMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) executor);
+        this.scanPlanCache = requireNonNull(scanPlanCache, "scanPlanCache is null");
     }
 
     @Override
@@ -107,17 +110,19 @@ public class IcebergSplitManager
             return new EqualityDeletesSplitSource(session, icebergTable, deleteFiles);
         }
         else {
+            long snapshotId = table.getIcebergTableName().getSnapshotId().get();
             TableScan tableScan = icebergTable.newScan()
                     .filter(toIcebergExpression(predicate))
-                    .useSnapshot(table.getIcebergTableName().getSnapshotId().get())
+                    .useSnapshot(snapshotId)
                     .planWith(executor);
+            ScanPlanCacheKey scanPlanCacheKey = new ScanPlanCacheKey(icebergTable.location(), snapshotId, predicate, tableScan.targetSplitSize());
 
             // TODO Use residual. Right now there is no way to propagate residual to presto but at least we can
             //      propagate it at split level so the parquet pushdown can leverage it.
             IcebergSplitSource splitSource = new IcebergSplitSource(
                     session,
                     tableScan,
-                    TableScanUtil.splitFiles(tableScan.planFiles(), tableScan.targetSplitSize()),
+                    scanPlanCache.getFileScanTasks(scanPlanCacheKey, () -> TableScanUtil.splitFiles(tableScan.planFiles(), tableScan.targetSplitSize())),
                     getMinimumAssignedSplitWeight(session),
                     getMetadataColumnConstraints(layoutHandle.getValidPredicate()));
             return splitSource;
@@ -0,0 +1,226 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.ForwardingCache.SimpleForwardingCache;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import org.apache.iceberg.ContentFile;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.CloseableIterator;
+import org.weakref.jmx.Managed;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.google.common.primitives.Ints.saturatedCast;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Coordinator cache of the scan tasks planned for a table snapshot and predicate, so that repeated
+ * queries skip manifest decoding, residual evaluation and file splitting.
+ * The cached tasks are shared between queries and must not be modified.
+ */
+public class ScanPlanCache
+        extends SimpleForwardingCache<ScanPlanCacheKey, List<FileScanTask>>
+{
+    // rough retained size of a scan task or content file, excluding its path and column statistics
+    private static final int FILE_SCAN_TASK_SIZE = 256;
+    private static final int CONTENT_FILE_SIZE = 512;
+    private static final int MAP_ENTRY_SIZE = 64;
+
+    private final long maxSizeInBytes;
+
+    public ScanPlanCache(DataSize maxSize)
+    {
+        super(CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<ScanPlanCacheKey, List<FileScanTask>>weigher((key, tasks) -> saturatedCast(estimateSize(tasks)))
+                .recordStats()
+                .build());
+        this.maxSizeInBytes = maxSize.toBytes();
+    }
+
+    public boolean isEnabled()
+    {
+        return maxSizeInBytes > 0;
+    }
+
+    /**
+     * Returns the cached scan tasks for the key, or else the tasks planned by the planner. The planned
+     * tasks are cached once they have all been read, unless they are larger than the whole cache.
+     */
+    public CloseableIterable<FileScanTask> getFileScanTasks(ScanPlanCacheKey key, Supplier<CloseableIterable<FileScanTask>> planner)
+    {
+        if (!isEnabled()) {
+            return planner.get();
+        }
+        List<FileScanTask> tasks = getIfPresent(key);
+        if (tasks != null) {
+            return CloseableIterable.withNoopClose(tasks);
+        }
+        CloseableIterable<FileScanTask> plannedTasks = planner.get();
+        return new CloseableIterable<FileScanTask>()
+        {
+            @Override
+            public CloseableIterator<FileScanTask> iterator()
+            {
+                return new CachingIterator(key, plannedTasks.iterator());
+            }
+
+            @Override
+            public void close()
+                    throws IOException
+            {
+                plannedTasks.close();
+            }
+        };
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return size();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return stats().missCount();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return stats().hitRate();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return stats().evictionCount();
+    }
+
+    static long estimateSize(List<FileScanTask> tasks)
+    {
+        long size = 0;
+        for (FileScanTask task : tasks) {
+            size += estimateSize(task);
+        }
+        return size;
+    }
+
+    static long estimateSize(FileScanTask task)
+    {
+        long size = FILE_SCAN_TASK_SIZE + estimateSize(task.file());
+        for (DeleteFile delete : task.deletes()) {
+            size += estimateSize(delete);
+        }
+        return size;
+    }
+
+    private static long estimateSize(ContentFile<?> file)
+    {
+        return CONTENT_FILE_SIZE +
+                file.path().length() +
+                estimateSize(file.columnSizes()) +
+                estimateSize(file.valueCounts()) +
+                estimateSize(file.nullValueCounts()) +
+                estimateSize(file.nanValueCounts()) +
+                estimateBoundsSize(file.lowerBounds()) +
+                estimateBoundsSize(file.upperBounds());
+    }
+
+    private static long estimateSize(Map<Integer, Long> map)
+    {
+        return map == null ? 0 : (long) map.size() * MAP_ENTRY_SIZE;
+    }
+
+    private static long estimateBoundsSize(Map<Integer, ByteBuffer> bounds)
+    {
+        if (bounds == null) {
+            return 0;
+        }
+        long size = 0;
+        for (ByteBuffer bound : bounds.values()) {
+            size += MAP_ENTRY_SIZE + bound.remaining();
+        }
+        return size;
+    }
+
+    private class CachingIterator
+            implements CloseableIterator<FileScanTask>
+    {
+        private final ScanPlanCacheKey key;
+        private final CloseableIterator<FileScanTask> delegate;
+        private List<FileScanTask> tasks = new ArrayList<>();
+        private long tasksSize;
+
+        public CachingIterator(ScanPlanCacheKey key, CloseableIterator<FileScanTask> delegate)
+        {
+            this.key = requireNonNull(key, "key is null");
+            this.delegate = requireNonNull(delegate, "delegate is null");
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            boolean hasNext = delegate.hasNext();
+            if (!hasNext && tasks != null) {
+                put(key, ImmutableList.copyOf(tasks));
+                tasks = null;
+            }
+            return hasNext;
+        }
+
+        @Override
+        public FileScanTask next()
+        {
+            FileScanTask task = delegate.next();
+            if (tasks != null) {
+                tasksSize += estimateSize(task);
+                if (tasksSize > maxSizeInBytes) {
+                    // too large to cache, stop holding on to the tasks
+                    tasks = null;
+                }
+                else {
+                    tasks.add(task);
+                }
+            }
+            return task;
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            // a partially read plan is not cached
+            tasks = null;
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.facebook.presto.common.predicate.TupleDomain;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Identifies the planned scan of one table snapshot. Snapshots are immutable, so the
+ * files a scan plans for a snapshot and predicate never change.
+ */
+public class ScanPlanCacheKey
+{
+    private final String tableLocation;
+    private final long snapshotId;
+    private final TupleDomain<IcebergColumnHandle> predicate;
+    private final long targetSplitSize;
+
+    public ScanPlanCacheKey(String tableLocation, long snapshotId, TupleDomain<IcebergColumnHandle> predicate, long targetSplitSize)
+    {
+        this.tableLocation = requireNonNull(tableLocation, "tableLocation is null");
+        this.snapshotId = snapshotId;
+        this.predicate = requireNonNull(predicate, "predicate is null");
+        this.targetSplitSize = targetSplitSize;
+    }
+
+    public String getTableLocation()
+    {
+        return tableLocation;
+    }
+
+    public long getSnapshotId()
+    {
+        return snapshotId;
+    }
+
+    public TupleDomain<IcebergColumnHandle> getPredicate()
+    {
+        return predicate;
+    }
+
+    public long getTargetSplitSize()
+    {
+        return targetSplitSize;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ScanPlanCacheKey)) {
+            return false;
+        }
+        ScanPlanCacheKey that = (ScanPlanCacheKey) o;
+        return snapshotId == that.snapshotId &&
+                targetSplitSize == that.targetSplitSize &&
+                Objects.equals(tableLocation, that.tableLocation) &&
+                Objects.equals(predicate, that.predicate);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(tableLocation, snapshotId, predicate, targetSplitSize);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("tableLocation", tableLocation)
+                .add("snapshotId", snapshotId)
+                .add("predicate", predicate)
+                .add("targetSplitSize", targetSplitSize)
+                .toString();
+    }
+}
@@ -49,9 +49,36 @@ public final class EqualityDeleteFilter
         Schema fileSchema = schemaFromHandles(columns);
         StructProjection projection = StructProjection.create(fileSchema, schema);
 
-        return (page, position) -> {
-            StructLike row = new LazyStructLikeRow(types, page, position);
-            return !deleteSet.contains(projection.wrap(row));
+        return new RowPredicate()
+        {
+            @Override
+            public boolean test(Page page, int position)
+            {
+                StructLike row = new LazyStructLikeRow(types, page, position);
+                return !deleteSet.contains(projection.wrap(row));
+            }
+
+            @Override
+            public int filterPositions(Page page, int[] positions, int positionCount)
+            {
+                if (positionCount == 0) {
+                    return 0;
+                }
+
+                // probe the delete set with a single row that moves over the page
+                LazyStructLikeRow row = new LazyStructLikeRow(types, page, positions[0]);
+                projection.wrap(row);
+                int retainedCount = 0;
+                for (int i = 0; i < positionCount; i++) {
+                    int position = positions[i];
+                    row.setPosition(position);
+                    if (!deleteSet.contains(projection)) {
+                        positions[retainedCount] = position;
+                        retainedCount++;
+                    }
+                }
+                return retainedCount;
+            }
         };
     }
 
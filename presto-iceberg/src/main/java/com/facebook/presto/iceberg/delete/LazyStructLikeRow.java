@@ -17,6 +17,8 @@ import com.facebook.presto.common.Page;
 import com.facebook.presto.common.type.Type;
 import org.apache.iceberg.StructLike;
 
+import java.util.Arrays;
+
 import static com.facebook.presto.iceberg.IcebergPageSink.getIcebergValue;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkElementIndex;
@@ -30,8 +32,8 @@ public class LazyStructLikeRow
 {
     private final Type[] types;
     private final Page page;
-    private final int position;
     private final Object[] values;
+    private int position;
 
     public LazyStructLikeRow(Type[] types, Page page, int position)
     {
@@ -43,6 +45,18 @@ public class LazyStructLikeRow
         this.values = new Object[types.length];
     }
 
+    /**
+     * Moves this row to another position of the same page, so that a single
+     * instance can be used to probe every position of a page.
+     */
+    public LazyStructLikeRow setPosition(int position)
+    {
+        checkElementIndex(position, page.getPositionCount(), "page position");
+        this.position = position;
+        Arrays.fill(values, null);
+        return this;
+    }
+
     @Override
     public int size()
     {
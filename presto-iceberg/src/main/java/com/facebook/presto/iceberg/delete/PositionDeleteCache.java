@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.ForwardingCache.SimpleForwardingCache;
+import io.airlift.units.DataSize;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.weakref.jmx.Managed;
+
+import static com.google.common.primitives.Ints.saturatedCast;
+
+/**
+ * Worker-local cache of the positions deleted from a data file by a position delete file.
+ * The cached bitmaps are shared between splits and queries and must not be modified.
+ */
+public class PositionDeleteCache
+        extends SimpleForwardingCache<PositionDeleteCacheKey, Roaring64Bitmap>
+{
+    private final boolean enabled;
+
+    public PositionDeleteCache(DataSize maxSize)
+    {
+        super(CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<PositionDeleteCacheKey, Roaring64Bitmap>weigher((key, deletedRows) -> saturatedCast(deletedRows.serializedSizeInBytes()))
+                .recordStats()
+                .build());
+        this.enabled = maxSize.toBytes() > 0;
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return size();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return stats().missCount();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return stats().hitRate();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return stats().evictionCount();
+    }
+
+    @Managed
+    public long getLoadExceptionCount()
+    {
+        return stats().loadExceptionCount();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Identifies the positions deleted from one data file by one position delete file.
+ * Delete files are immutable, so the path and length of the file identify its content.
+ */
+public class PositionDeleteCacheKey
+{
+    private final String deleteFilePath;
+    private final long deleteFileLength;
+    private final String dataFilePath;
+
+    public PositionDeleteCacheKey(String deleteFilePath, long deleteFileLength, String dataFilePath)
+    {
+        this.deleteFilePath = requireNonNull(deleteFilePath, "deleteFilePath is null");
+        this.deleteFileLength = deleteFileLength;
+        this.dataFilePath = requireNonNull(dataFilePath, "dataFilePath is null");
+    }
+
+    public String getDeleteFilePath()
+    {
+        return deleteFilePath;
+    }
+
+    public long getDeleteFileLength()
+    {
+        return deleteFileLength;
+    }
+
+    public String getDataFilePath()
+    {
+        return dataFilePath;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PositionDeleteCacheKey)) {
+            return false;
+        }
+        PositionDeleteCacheKey that = (PositionDeleteCacheKey) o;
+        return deleteFileLength == that.deleteFileLength &&
+                Objects.equals(deleteFilePath, that.deleteFilePath) &&
+                Objects.equals(dataFilePath, that.dataFilePath);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(deleteFilePath, deleteFileLength, dataFilePath);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("deleteFilePath", deleteFilePath)
+                .add("deleteFileLength", deleteFileLength)
+                .add("dataFilePath", dataFilePath)
+                .toString();
+    }
+}
@@ -41,11 +41,7 @@ public final class PositionDeleteFilter
     @Override
     public RowPredicate createPredicate(List<IcebergColumnHandle> columns)
     {
-        int filePosChannel = rowPositionChannel(columns);
-        return (page, position) -> {
-            long filePos = BIGINT.getLong(page.getBlock(filePosChannel), position);
-            return !deletedRows.contains(filePos);
-        };
+        return new PositionDeletePredicate(deletedRows, rowPositionChannel(columns));
     }
 
     private static int rowPositionChannel(List<IcebergColumnHandle> columns)
@@ -87,6 +83,78 @@ public final class PositionDeleteFilter
         }
     }
 
+    private static final class PositionDeletePredicate
+            implements RowPredicate
+    {
+        private final ImmutableLongBitmapDataProvider deletedRows;
+        private final int filePosChannel;
+
+        public PositionDeletePredicate(ImmutableLongBitmapDataProvider deletedRows, int filePosChannel)
+        {
+            this.deletedRows = requireNonNull(deletedRows, "deletedRows is null");
+            this.filePosChannel = filePosChannel;
+        }
+
+        @Override
+        public boolean test(Page page, int position)
+        {
+            long filePos = BIGINT.getLong(page.getBlock(filePosChannel), position);
+            return !deletedRows.contains(filePos);
+        }
+
+        @Override
+        public int filterPositions(Page page, int[] positions, int positionCount)
+        {
+            if (positionCount == 0) {
+                return 0;
+            }
+
+            Block filePosBlock = page.getBlock(filePosChannel);
+            long minDeleted = Long.MIN_VALUE;
+            long maxDeleted = Long.MAX_VALUE;
+            boolean deletedRange = false;
+            if (isSequential(filePosBlock, page.getPositionCount())) {
+                // The page covers the file positions [first, last]. The bitmap is shared by all the splits
+                // of the data file, so its deleted rows in that range are found by rank rather than by
+                // walking the bitmap from its start.
+                long first = BIGINT.getLong(filePosBlock, 0);
+                long last = first + page.getPositionCount() - 1;
+                long firstRank = first == 0 ? 0 : deletedRows.rankLong(first - 1);
+                long deletedCount = deletedRows.rankLong(last) - firstRank;
+                if (deletedCount == 0) {
+                    return positionCount;
+                }
+                minDeleted = deletedRows.select(firstRank);
+                maxDeleted = deletedRows.select(firstRank + deletedCount - 1);
+                // every position between the first and last deleted row is deleted
+                deletedRange = maxDeleted - minDeleted + 1 == deletedCount;
+            }
+
+            int retainedCount = 0;
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                long filePos = BIGINT.getLong(filePosBlock, position);
+                boolean deleted = filePos >= minDeleted && filePos <= maxDeleted && (deletedRange || deletedRows.contains(filePos));
+                if (!deleted) {
+                    positions[retainedCount] = position;
+                    retainedCount++;
+                }
+            }
+            return retainedCount;
+        }
+
+        private static boolean isSequential(Block filePosBlock, int positionCount)
+        {
+            long first = BIGINT.getLong(filePosBlock, 0);
+            for (int position = 1; position < positionCount; position++) {
+                if (BIGINT.getLong(filePosBlock, position) != first + position) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     private static final class CachingVarcharComparator
     {
         private final Slice reference;
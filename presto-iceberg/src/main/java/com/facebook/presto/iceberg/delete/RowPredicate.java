@@ -21,26 +21,61 @@ public interface RowPredicate
 {
     boolean test(Page page, int position);
 
+    /**
+     * Removes the positions that do not match the predicate from the first
+     * {@code positionCount} entries of {@code positions}, keeping their order.
+     *
+     * @return the number of retained positions
+     */
+    default int filterPositions(Page page, int[] positions, int positionCount)
+    {
+        int retainedCount = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (test(page, position)) {
+                positions[retainedCount] = position;
+                retainedCount++;
+            }
+        }
+        return retainedCount;
+    }
+
     default RowPredicate and(RowPredicate other)
     {
         requireNonNull(other, "other is null");
-        return (page, position) -> test(page, position) && other.test(page, position);
+        RowPredicate first = this;
+        return new RowPredicate()
+        {
+            @Override
+            public boolean test(Page page, int position)
+            {
+                return first.test(page, position) && other.test(page, position);
+            }
+
+            @Override
+            public int filterPositions(Page page, int[] positions, int positionCount)
+            {
+                int retainedCount = first.filterPositions(page, positions, positionCount);
+                if (retainedCount == 0) {
+                    return 0;
+                }
+                return other.filterPositions(page, positions, retainedCount);
+            }
+        };
     }
 
     default Page filterPage(Page page)
     {
         int positionCount = page.getPositionCount();
         int[] retained = new int[positionCount];
-        int retainedCount = 0;
         for (int position = 0; position < positionCount; position++) {
-            if (test(page, position)) {
-                retained[retainedCount] = position;
-                retainedCount++;
-            }
+            retained[position] = position;
         }
+        int retainedCount = filterPositions(page, retained, positionCount);
         if (retainedCount == positionCount) {
             return page;
         }
+        // the retained positions are a view over the original blocks
         return page.getPositions(retained, 0, retainedCount);
     }
 }
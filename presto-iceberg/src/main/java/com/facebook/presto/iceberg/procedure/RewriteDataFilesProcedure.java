@@ -0,0 +1,325 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.procedure;
+
+import com.facebook.airlift.json.JsonCodec;
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.hive.HiveTransactionHandle;
+import com.facebook.presto.iceberg.CommitTaskData;
+import com.facebook.presto.iceberg.IcebergAbstractMetadata;
+import com.facebook.presto.iceberg.IcebergInsertTableHandle;
+import com.facebook.presto.iceberg.IcebergMetadataFactory;
+import com.facebook.presto.iceberg.IcebergSplitSource;
+import com.facebook.presto.iceberg.IcebergTableHandle;
+import com.facebook.presto.iceberg.IcebergTableLayoutHandle;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.ConnectorPageSink;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.ConnectorSplit;
+import com.facebook.presto.spi.PageSinkContext;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.SchemaTableName;
+import com.facebook.presto.spi.SplitContext;
+import com.facebook.presto.spi.classloader.ThreadContextClassLoader;
+import com.facebook.presto.spi.connector.ConnectorPageSinkProvider;
+import com.facebook.presto.spi.connector.ConnectorPageSourceProvider;
+import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
+import com.facebook.presto.spi.procedure.Procedure;
+import com.facebook.presto.spi.procedure.Procedure.Argument;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.slice.Slice;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.TableScan;
+import org.apache.iceberg.exceptions.CommitFailedException;
+import org.apache.iceberg.exceptions.CommitStateUnknownException;
+import org.apache.iceberg.exceptions.ValidationException;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.util.BinPacking.ListPacker;
+import org.apache.iceberg.util.StructLikeMap;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
+import static com.facebook.presto.common.block.MethodHandleUtil.methodHandle;
+import static com.facebook.presto.common.type.StandardTypes.BIGINT;
+import static com.facebook.presto.common.type.StandardTypes.INTEGER;
+import static com.facebook.presto.common.type.StandardTypes.VARCHAR;
+import static com.facebook.presto.expressions.LogicalRowExpressions.TRUE_CONSTANT;
+import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_INVALID_SNAPSHOT_ID;
+import static com.facebook.presto.iceberg.IcebergSessionProperties.getMinimumAssignedSplitWeight;
+import static com.facebook.presto.iceberg.IcebergUtil.getIcebergTable;
+import static com.facebook.presto.iceberg.IcebergUtil.toHiveColumns;
+import static com.facebook.presto.spi.StandardErrorCode.INVALID_PROCEDURE_ARGUMENT;
+import static com.facebook.presto.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
+import static com.google.common.base.Throwables.getCausalChain;
+import static java.util.Objects.requireNonNull;
+import static org.apache.iceberg.TableProperties.WRITE_TARGET_FILE_SIZE_BYTES;
+import static org.apache.iceberg.TableProperties.WRITE_TARGET_FILE_SIZE_BYTES_DEFAULT;
+import static org.apache.iceberg.util.PropertyUtil.propertyAsLong;
+
+/**
+ * Compacts the small data files of each partition of the current snapshot into files of about the target size.
+ * Deletes that apply to the rewritten files are applied while reading them, so the new files have no deletes.
+ * The rewrite runs on the coordinator, reading through the connector's page sources and writing through its
+ * page sinks, and is committed atomically against the snapshot it read.
+ */
+public class RewriteDataFilesProcedure
+        implements Provider<Procedure>
+{
+    private static final Logger log = Logger.get(RewriteDataFilesProcedure.class);
+
+    private static final int DEFAULT_MIN_INPUT_FILES = 5;
+    private static final int SPLIT_BATCH_SIZE = 1000;
+    private static final ConnectorTransactionHandle TRANSACTION_HANDLE = new HiveTransactionHandle();
+
+    private static final MethodHandle REWRITE_DATA_FILES = methodHandle(
+            RewriteDataFilesProcedure.class,
+            "rewriteDataFiles",
+            ConnectorSession.class,
+            String.class,
+            String.class,
+            Long.class,
+            Integer.class);
+
+    private final IcebergMetadataFactory metadataFactory;
+    private final ConnectorPageSourceProvider pageSourceProvider;
+    private final ConnectorPageSinkProvider pageSinkProvider;
+    private final JsonCodec<CommitTaskData> commitTaskCodec;
+
+    @Inject
+    public RewriteDataFilesProcedure(
+            IcebergMetadataFactory metadataFactory,
+            ConnectorPageSourceProvider pageSourceProvider,
+            ConnectorPageSinkProvider pageSinkProvider,
+            JsonCodec<CommitTaskData> commitTaskCodec)
+    {
+        this.metadataFactory = requireNonNull(metadataFactory, "metadataFactory is null");
+        this.pageSourceProvider = requireNonNull(pageSourceProvider, "pageSourceProvider is null");
+        this.pageSinkProvider = requireNonNull(pageSinkProvider, "pageSinkProvider is null");
+        this.commitTaskCodec = requireNonNull(commitTaskCodec, "commitTaskCodec is null");
+    }
+
+    @Override
+    public Procedure get()
+    {
+        return new Procedure(
+                "system",
+                "rewrite_data_files",
+                ImmutableList.of(
+                        new Argument("schema", VARCHAR),
+                        new Argument("table_name", VARCHAR),
+                        new Argument("target_file_size_bytes", BIGINT, false, null),
+                        new Argument("min_input_files", INTEGER, false, null)),
+                REWRITE_DATA_FILES.bindTo(this));
+    }
+
+    public void rewriteDataFiles(ConnectorSession clientSession, String schema, String tableName, Long targetFileSizeBytes, Integer minInputFiles)
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(getClass().getClassLoader())) {
+            doRewriteDataFiles(clientSession, schema, tableName, targetFileSizeBytes, minInputFiles);
+        }
+    }
+
+    private void doRewriteDataFiles(ConnectorSession clientSession, String schema, String tableName, Long targetFileSizeBytes, Integer minInputFiles)
+    {
+        if (targetFileSizeBytes != null && targetFileSizeBytes <= 0) {
+            throw new PrestoException(INVALID_PROCEDURE_ARGUMENT, "target_file_size_bytes must be positive: " + targetFileSizeBytes);
+        }
+        if (minInputFiles != null && minInputFiles <= 0) {
+            throw new PrestoException(INVALID_PROCEDURE_ARGUMENT, "min_input_files must be positive: " + minInputFiles);
+        }
+
+        IcebergAbstractMetadata metadata = (IcebergAbstractMetadata) metadataFactory.create();
+        SchemaTableName schemaTableName = new SchemaTableName(schema, tableName);
+        Table icebergTable = getIcebergTable(metadata, clientSession, schemaTableName);
+        Snapshot snapshot = icebergTable.currentSnapshot();
+        if (snapshot == null) {
+            return;
+        }
+
+        long targetFileSize = targetFileSizeBytes != null ? targetFileSizeBytes : propertyAsLong(icebergTable.properties(), WRITE_TARGET_FILE_SIZE_BYTES, WRITE_TARGET_FILE_SIZE_BYTES_DEFAULT);
+        TableScan tableScan = icebergTable.newScan().useSnapshot(snapshot.snapshotId());
+        List<List<FileScanTask>> fileGroups = planFileGroups(tableScan, targetFileSize, minInputFiles != null ? minInputFiles : DEFAULT_MIN_INPUT_FILES);
+        if (fileGroups.isEmpty()) {
+            return;
+        }
+
+        IcebergTableHandle tableHandle = metadata.getTableHandle(clientSession, schemaTableName);
+        IcebergInsertTableHandle insertHandle = (IcebergInsertTableHandle) metadata.beginInsert(clientSession, tableHandle);
+        IcebergTableLayoutHandle layoutHandle = new IcebergTableLayoutHandle.Builder()
+                .setPartitionColumns(ImmutableList.of())
+                .setDataColumns(toHiveColumns(icebergTable.schema().columns()))
+                .setDomainPredicate(TupleDomain.all())
+                .setRemainingPredicate(TRUE_CONSTANT)
+                .setPredicateColumns(ImmutableMap.of())
+                .setRequestedColumns(Optional.empty())
+                .setPushdownFilterEnabled(false)
+                .setPartitionColumnPredicate(TupleDomain.all())
+                .setPartitions(Optional.empty())
+                .setTable(tableHandle)
+                .build();
+
+        ImmutableSet.Builder<DataFile> rewrittenDataFiles = ImmutableSet.builder();
+        List<Slice> fragments = new ArrayList<>();
+        try {
+            for (List<FileScanTask> fileGroup : fileGroups) {
+                fragments.addAll(rewriteFileGroup(clientSession, tableScan, fileGroup, insertHandle, layoutHandle));
+                fileGroup.forEach(task -> rewrittenDataFiles.add(task.file()));
+            }
+        }
+        catch (RuntimeException e) {
+            deleteWrittenFiles(icebergTable, fragments);
+            throw e;
+        }
+
+        try {
+            metadata.finishRewriteDataFiles(insertHandle, snapshot.snapshotId(), rewrittenDataFiles.build(), fragments);
+        }
+        catch (RuntimeException e) {
+            // unless the commit is known to have failed, the table may already reference the new files
+            if (isCommitRejected(e)) {
+                deleteWrittenFiles(icebergTable, fragments);
+            }
+            throw e;
+        }
+        log.info("Rewrote %s data files of %s into %s files", rewrittenDataFiles.build().size(), schemaTableName, fragments.size());
+    }
+
+    /**
+     * Bin-packs the files of each partition that are smaller than three quarters of the target size, or that have
+     * deletes, into groups of at most the target size. A group is rewritten if it has enough files to be worth
+     * compacting or if it has deletes to apply.
+     */
+    private static List<List<FileScanTask>> planFileGroups(TableScan tableScan, long targetFileSize, int minInputFiles)
+    {
+        long minFileSize = targetFileSize / 4 * 3;
+        Map<Integer, StructLikeMap<List<FileScanTask>>> filesByPartition = new HashMap<>();
+        try (CloseableIterable<FileScanTask> tasks = tableScan.planFiles()) {
+            for (FileScanTask task : tasks) {
+                if (task.file().fileSizeInBytes() >= minFileSize && task.deletes().isEmpty()) {
+                    continue;
+                }
+                PartitionSpec spec = task.spec();
+                StructLike partition = task.file().partition();
+                filesByPartition.computeIfAbsent(spec.specId(), specId -> StructLikeMap.create(spec.partitionType()))
+                        .computeIfAbsent(partition, ignored -> new ArrayList<>())
+                        .add(task);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        ListPacker<FileScanTask> packer = new ListPacker<>(targetFileSize, 1, false);
+        ImmutableList.Builder<List<FileScanTask>> fileGroups = ImmutableList.builder();
+        for (StructLikeMap<List<FileScanTask>> partitions : filesByPartition.values()) {
+            for (List<FileScanTask> files : partitions.values()) {
+                for (List<FileScanTask> group : packer.pack(files, task -> task.file().fileSizeInBytes())) {
+                    if (group.size() >= minInputFiles || group.stream().anyMatch(task -> !task.deletes().isEmpty())) {
+                        fileGroups.add(group);
+                    }
+                }
+            }
+        }
+        return fileGroups.build();
+    }
+
+    private Collection<Slice> rewriteFileGroup(
+            ConnectorSession session,
+            TableScan tableScan,
+            List<FileScanTask> fileGroup,
+            IcebergInsertTableHandle insertHandle,
+            IcebergTableLayoutHandle layoutHandle)
+    {
+        List<ColumnHandle> columns = ImmutableList.copyOf(insertHandle.getInputColumns());
+        ConnectorPageSink pageSink = pageSinkProvider.createPageSink(TRANSACTION_HANDLE, session, insertHandle, PageSinkContext.defaultContext());
+        try (IcebergSplitSource splitSource = new IcebergSplitSource(
+                session,
+                tableScan,
+                CloseableIterable.withNoopClose(fileGroup),
+                getMinimumAssignedSplitWeight(session),
+                TupleDomain.all())) {
+            while (!splitSource.isFinished()) {
+                for (ConnectorSplit split : getFutureValue(splitSource.getNextBatch(NOT_PARTITIONED, SPLIT_BATCH_SIZE)).getSplits()) {
+                    try (ConnectorPageSource pageSource = pageSourceProvider.createPageSource(TRANSACTION_HANDLE, session, split, layoutHandle, columns, new SplitContext(false), new RuntimeStats())) {
+                        while (!pageSource.isFinished()) {
+                            Page page = pageSource.getNextPage();
+                            if (page != null && page.getPositionCount() > 0) {
+                                getFutureValue(pageSink.appendPage(page.getLoadedPage()));
+                            }
+                        }
+                    }
+                    catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }
+            return getFutureValue(pageSink.finish());
+        }
+        catch (RuntimeException e) {
+            pageSink.abort();
+            throw e;
+        }
+    }
+
+    @VisibleForTesting
+    static boolean isCommitRejected(RuntimeException e)
+    {
+        List<Throwable> causes = getCausalChain(e);
+        if (causes.stream().anyMatch(CommitStateUnknownException.class::isInstance)) {
+            return false;
+        }
+        if (e instanceof PrestoException && ((PrestoException) e).getErrorCode().equals(ICEBERG_INVALID_SNAPSHOT_ID.toErrorCode())) {
+            // raised before the commit is attempted
+            return true;
+        }
+        return causes.stream().anyMatch(cause -> cause instanceof ValidationException || cause instanceof CommitFailedException);
+    }
+
+    private void deleteWrittenFiles(Table icebergTable, List<Slice> fragments)
+    {
+        for (Slice fragment : fragments) {
+            String path = commitTaskCodec.fromJson(fragment.getBytes()).getPath();
+            try {
+                icebergTable.io().deleteFile(path);
+            }
+            catch (RuntimeException e) {
+                log.warn(e, "Failed to delete file %s written by an aborted rewrite of %s", path, icebergTable.name());
+            }
+        }
+    }
+}
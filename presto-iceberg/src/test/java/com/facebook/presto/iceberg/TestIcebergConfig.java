@@ -70,6 +70,8 @@ public class TestIcebergConfig
                 .setMetadataDeleteAfterCommit(METADATA_DELETE_AFTER_COMMIT_ENABLED_DEFAULT)
                 .setMetricsMaxInferredColumn(METRICS_MAX_INFERRED_COLUMN_DEFAULTS_DEFAULT)
                 .setMaxStatisticsFileCacheSize(succinctDataSize(256, MEGABYTE))
+                .setMaxPositionDeleteCacheSize(succinctDataSize(256, MEGABYTE))
+                .setMaxScanPlanCacheSize(succinctDataSize(128, MEGABYTE))
                 .setStatisticsKllSketchKParameter(1024));
     }
 
@@ -102,6 +104,8 @@ public class TestIcebergConfig
                 .put("iceberg.metadata-delete-after-commit", "true")
                 .put("iceberg.metrics-max-inferred-column", "16")
                 .put("iceberg.max-statistics-file-cache-size", "512MB")
+                .put("iceberg.max-position-delete-cache-size", "64MB")
+                .put("iceberg.max-scan-plan-cache-size", "32MB")
                 .put("iceberg.statistics-kll-sketch-k-parameter", "4096")
                 .build();
 
@@ -131,6 +135,8 @@ public class TestIcebergConfig
                 .setMetadataDeleteAfterCommit(true)
                 .setMetricsMaxInferredColumn(16)
                 .setMaxStatisticsFileCacheSize(succinctDataSize(512, MEGABYTE))
+                .setMaxPositionDeleteCacheSize(succinctDataSize(64, MEGABYTE))
+                .setMaxScanPlanCacheSize(succinctDataSize(32, MEGABYTE))
                 .setStatisticsKllSketchKParameter(4096);
 
         assertFullMapping(properties, expected);
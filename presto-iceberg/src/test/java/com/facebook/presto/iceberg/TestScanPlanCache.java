@@ -0,0 +1,179 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg;
+
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import org.apache.iceberg.BaseFileScanTask;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.PartitionSpecParser;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.SchemaParser;
+import org.apache.iceberg.expressions.ResidualEvaluator;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.CloseableIterator;
+import org.apache.iceberg.types.Types;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.apache.iceberg.expressions.Expressions.alwaysTrue;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestScanPlanCache
+{
+    private static final Schema SCHEMA = new Schema(Types.NestedField.required(1, "x", Types.LongType.get()));
+    private static final ScanPlanCacheKey KEY = new ScanPlanCacheKey("/warehouse/table", 1, TupleDomain.all(), 128);
+
+    @Test
+    public void testCachedAfterFullRead()
+            throws IOException
+    {
+        ScanPlanCache cache = new ScanPlanCache(new DataSize(1, MEGABYTE));
+        assertTrue(cache.isEnabled());
+        List<FileScanTask> tasks = createTasks(10);
+        CountingPlanner planner = new CountingPlanner(tasks);
+
+        assertEquals(readAll(cache.getFileScanTasks(KEY, planner)), tasks);
+        assertEquals(cache.getSize(), 1);
+
+        List<FileScanTask> cachedTasks = readAll(cache.getFileScanTasks(new ScanPlanCacheKey("/warehouse/table", 1, TupleDomain.all(), 128), planner));
+        assertEquals(cachedTasks, tasks);
+        for (int i = 0; i < tasks.size(); i++) {
+            assertSame(cachedTasks.get(i), tasks.get(i));
+        }
+        assertEquals(planner.getPlanCount(), 1);
+        assertEquals(cache.getHitCount(), 1);
+
+        // a different snapshot or split size is planned again
+        readAll(cache.getFileScanTasks(new ScanPlanCacheKey("/warehouse/table", 2, TupleDomain.all(), 128), planner));
+        readAll(cache.getFileScanTasks(new ScanPlanCacheKey("/warehouse/table", 1, TupleDomain.all(), 256), planner));
+        readAll(cache.getFileScanTasks(new ScanPlanCacheKey("/warehouse/table", 1, TupleDomain.none(), 128), planner));
+        assertEquals(planner.getPlanCount(), 4);
+        assertEquals(cache.getSize(), 4);
+    }
+
+    @Test
+    public void testPartialReadNotCached()
+            throws IOException
+    {
+        ScanPlanCache cache = new ScanPlanCache(new DataSize(1, MEGABYTE));
+        CountingPlanner planner = new CountingPlanner(createTasks(10));
+
+        try (CloseableIterator<FileScanTask> iterator = cache.getFileScanTasks(KEY, planner).iterator()) {
+            iterator.next();
+        }
+        assertEquals(cache.getSize(), 0);
+
+        readAll(cache.getFileScanTasks(KEY, planner));
+        assertEquals(planner.getPlanCount(), 2);
+        assertEquals(cache.getSize(), 1);
+    }
+
+    @Test
+    public void testLargePlanNotCached()
+            throws IOException
+    {
+        List<FileScanTask> tasks = createTasks(10);
+        ScanPlanCache cache = new ScanPlanCache(new DataSize(ScanPlanCache.estimateSize(tasks) - 1, BYTE));
+        CountingPlanner planner = new CountingPlanner(tasks);
+
+        assertEquals(readAll(cache.getFileScanTasks(KEY, planner)), tasks);
+        assertEquals(readAll(cache.getFileScanTasks(KEY, planner)), tasks);
+        assertEquals(planner.getPlanCount(), 2);
+        assertEquals(cache.getSize(), 0);
+    }
+
+    @Test
+    public void testDisabled()
+            throws IOException
+    {
+        ScanPlanCache cache = new ScanPlanCache(new DataSize(0, BYTE));
+        assertFalse(cache.isEnabled());
+        CountingPlanner planner = new CountingPlanner(createTasks(1));
+
+        readAll(cache.getFileScanTasks(KEY, planner));
+        readAll(cache.getFileScanTasks(KEY, planner));
+        assertEquals(planner.getPlanCount(), 2);
+        assertEquals(cache.getMissCount(), 0);
+    }
+
+    private static List<FileScanTask> readAll(CloseableIterable<FileScanTask> iterable)
+            throws IOException
+    {
+        ImmutableList.Builder<FileScanTask> tasks = ImmutableList.builder();
+        try (CloseableIterator<FileScanTask> iterator = iterable.iterator()) {
+            while (iterator.hasNext()) {
+                tasks.add(iterator.next());
+            }
+        }
+        return tasks.build();
+    }
+
+    private static List<FileScanTask> createTasks(int count)
+    {
+        PartitionSpec spec = PartitionSpec.unpartitioned();
+        return IntStream.range(0, count)
+                .mapToObj(i -> {
+                    DataFile file = DataFiles.builder(spec)
+                            .withPath("/warehouse/table/data/file" + i + ".parquet")
+                            .withFormat(FileFormat.PARQUET)
+                            .withFileSizeInBytes(1000)
+                            .withRecordCount(10)
+                            .build();
+                    return (FileScanTask) new BaseFileScanTask(file, new DeleteFile[0], SchemaParser.toJson(SCHEMA), PartitionSpecParser.toJson(spec), ResidualEvaluator.unpartitioned(alwaysTrue()));
+                })
+                .collect(toImmutableList());
+    }
+
+    private static class CountingPlanner
+            implements Supplier<CloseableIterable<FileScanTask>>
+    {
+        private final List<FileScanTask> tasks;
+        private final AtomicInteger planCount = new AtomicInteger();
+
+        public CountingPlanner(List<FileScanTask> tasks)
+        {
+            this.tasks = tasks;
+        }
+
+        @Override
+        public CloseableIterable<FileScanTask> get()
+        {
+            planCount.incrementAndGet();
+            return CloseableIterable.withNoopClose(tasks);
+        }
+
+        public int getPlanCount()
+        {
+            return planCount.get();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import io.airlift.units.DataSize;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ExecutionException;
+
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestPositionDeleteCache
+{
+    @Test
+    public void testSharedBitmaps()
+            throws ExecutionException
+    {
+        PositionDeleteCache cache = new PositionDeleteCache(new DataSize(1, MEGABYTE));
+        assertTrue(cache.isEnabled());
+
+        PositionDeleteCacheKey key = new PositionDeleteCacheKey("delete.parquet", 100, "data.parquet");
+        Roaring64Bitmap first = cache.get(key, () -> Roaring64Bitmap.bitmapOf(1, 5, 7));
+        Roaring64Bitmap second = cache.get(new PositionDeleteCacheKey("delete.parquet", 100, "data.parquet"), Roaring64Bitmap::new);
+        assertSame(second, first);
+        assertEquals(cache.getMissCount(), 1);
+        assertEquals(cache.getHitCount(), 1);
+
+        // a different data file or a rewritten delete file is a different entry
+        cache.get(new PositionDeleteCacheKey("delete.parquet", 100, "other.parquet"), Roaring64Bitmap::new);
+        cache.get(new PositionDeleteCacheKey("delete.parquet", 200, "data.parquet"), Roaring64Bitmap::new);
+        assertEquals(cache.getMissCount(), 3);
+        assertEquals(cache.getSize(), 3);
+    }
+
+    @Test
+    public void testEviction()
+            throws ExecutionException
+    {
+        PositionDeleteCache cache = new PositionDeleteCache(new DataSize(4096, BYTE));
+        for (int file = 0; file < 100; file++) {
+            int first = file * 100_000;
+            cache.get(new PositionDeleteCacheKey("delete" + file, 100, "data.parquet"), () -> Roaring64Bitmap.bitmapOf(first, first + 1_000, first + 50_000));
+        }
+        assertTrue(cache.getEvictionCount() > 0);
+        assertTrue(cache.getSize() < 100);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        assertFalse(new PositionDeleteCache(new DataSize(0, BYTE)).isEnabled());
+    }
+}
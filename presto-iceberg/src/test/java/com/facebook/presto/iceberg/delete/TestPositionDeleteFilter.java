@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.delete;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.iceberg.IcebergColumnHandle;
+import com.google.common.collect.ImmutableList;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.REGULAR;
+import static com.facebook.presto.metadata.FunctionAndTypeManager.createTestFunctionAndTypeManager;
+import static org.apache.iceberg.MetadataColumns.ROW_POSITION;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+
+public class TestPositionDeleteFilter
+{
+    private static final List<IcebergColumnHandle> COLUMNS = ImmutableList.of(IcebergColumnHandle.create(ROW_POSITION, createTestFunctionAndTypeManager(), REGULAR));
+
+    @Test
+    public void testSequentialPositions()
+    {
+        RowPredicate predicate = new PositionDeleteFilter(Roaring64Bitmap.bitmapOf(3, 100, 101, 150, 199, 200)).createPredicate(COLUMNS);
+
+        Page page = new Page(createLongSequenceBlock(100, 200));
+        assertRowPositions(predicate.filterPage(page), sequenceWithout(100, 200, 100, 101, 150, 199));
+
+        // no deleted rows in the range of the page
+        Page undeleted = new Page(createLongSequenceBlock(4, 100));
+        assertSame(predicate.filterPage(undeleted), undeleted);
+    }
+
+    @Test
+    public void testConsecutivePages()
+    {
+        Roaring64Bitmap deletedRows = new Roaring64Bitmap();
+        for (long position = 0; position < 1000; position += 2) {
+            deletedRows.addLong(position);
+        }
+        RowPredicate predicate = new PositionDeleteFilter(deletedRows).createPredicate(COLUMNS);
+
+        for (long start = 0; start < 1000; start += 100) {
+            Page page = new Page(createLongSequenceBlock(start, start + 100));
+            assertEquals(predicate.filterPage(page).getPositionCount(), 50);
+        }
+        // a page before the pages already filtered
+        assertRowPositions(predicate.filterPage(new Page(createLongSequenceBlock(0, 6))), ImmutableList.of(1L, 3L, 5L));
+    }
+
+    @Test
+    public void testManySplitsOverOneBitmap()
+    {
+        // the bitmap of a data file is shared by the predicates of all its splits
+        Roaring64Bitmap deletedRows = new Roaring64Bitmap();
+        for (long position = 0; position < 1_000_000; position += 3) {
+            deletedRows.addLong(position);
+        }
+        // a run of deleted rows and a range without any
+        for (long position = 2_000_000; position < 2_000_500; position++) {
+            deletedRows.addLong(position);
+        }
+        PositionDeleteFilter filter = new PositionDeleteFilter(deletedRows);
+
+        for (long splitStart = 0; splitStart < 1_000_000; splitStart += 10_000) {
+            RowPredicate predicate = filter.createPredicate(COLUMNS);
+            for (long start = splitStart; start < splitStart + 10_000; start += 1_000) {
+                Page page = new Page(createLongSequenceBlock(start, start + 1_000));
+                Page filtered = predicate.filterPage(page);
+                assertEquals(filtered.getPositionCount(), 1_000 - countDeleted(deletedRows, start, start + 1_000));
+                for (int position = 0; position < filtered.getPositionCount(); position++) {
+                    assertFalse(BIGINT.getLong(filtered.getBlock(0), position) % 3 == 0);
+                }
+            }
+        }
+
+        RowPredicate predicate = filter.createPredicate(COLUMNS);
+        assertRowPositions(predicate.filterPage(new Page(createLongSequenceBlock(1_999_998, 2_000_002))), ImmutableList.of(1_999_998L, 1_999_999L));
+        assertRowPositions(predicate.filterPage(new Page(createLongSequenceBlock(2_000_499, 2_000_502))), ImmutableList.of(2_000_500L, 2_000_501L));
+        Page undeleted = new Page(createLongSequenceBlock(3_000_000, 3_001_000));
+        assertSame(predicate.filterPage(undeleted), undeleted);
+    }
+
+    private static long countDeleted(Roaring64Bitmap deletedRows, long start, long end)
+    {
+        long count = 0;
+        for (long position = start; position < end; position++) {
+            if (deletedRows.contains(position)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testUnorderedPositions()
+    {
+        RowPredicate predicate = new PositionDeleteFilter(Roaring64Bitmap.bitmapOf(3, 7)).createPredicate(COLUMNS);
+        Page page = new Page(createLongsBlock(9L, 7L, 1L, 3L, 4L));
+        assertRowPositions(predicate.filterPage(page), ImmutableList.of(9L, 1L, 4L));
+    }
+
+    @Test
+    public void testCombinedPredicates()
+    {
+        RowPredicate predicate = new PositionDeleteFilter(Roaring64Bitmap.bitmapOf(0, 2))
+                .createPredicate(COLUMNS)
+                .and((page, position) -> BIGINT.getLong(page.getBlock(0), position) % 3 != 0);
+
+        Page page = new Page(createLongSequenceBlock(0, 10));
+        assertRowPositions(predicate.filterPage(page), ImmutableList.of(1L, 4L, 5L, 7L, 8L));
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            long rowPosition = BIGINT.getLong(page.getBlock(0), position);
+            assertEquals(predicate.test(page, position), rowPosition != 0 && rowPosition != 2 && rowPosition % 3 != 0);
+        }
+    }
+
+    private static List<Long> sequenceWithout(long start, long end, long... deleted)
+    {
+        ImmutableList.Builder<Long> values = ImmutableList.builder();
+        Roaring64Bitmap deletedValues = Roaring64Bitmap.bitmapOf(deleted);
+        for (long value = start; value < end; value++) {
+            if (!deletedValues.contains(value)) {
+                values.add(value);
+            }
+        }
+        return values.build();
+    }
+
+    private static void assertRowPositions(Page page, List<Long> expected)
+    {
+        ImmutableList.Builder<Long> actual = ImmutableList.builder();
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            actual.add(BIGINT.getLong(page.getBlock(0), position));
+        }
+        assertEquals(actual.build(), expected);
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.iceberg.procedure;
+
+import com.facebook.presto.iceberg.IcebergConfig;
+import com.facebook.presto.iceberg.IcebergQueryRunner;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.testing.QueryRunner;
+import com.facebook.presto.tests.AbstractTestQueryFramework;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.CatalogUtil;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.catalog.Catalog;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.exceptions.CommitFailedException;
+import org.apache.iceberg.exceptions.CommitStateUnknownException;
+import org.apache.iceberg.exceptions.ValidationException;
+import org.apache.iceberg.hadoop.HadoopCatalog;
+import org.apache.iceberg.io.CloseableIterable;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.iceberg.CatalogType.HADOOP;
+import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_COMMIT_ERROR;
+import static com.facebook.presto.iceberg.IcebergErrorCode.ICEBERG_INVALID_SNAPSHOT_ID;
+import static com.facebook.presto.iceberg.IcebergQueryRunner.getIcebergDataDirectoryPath;
+import static com.facebook.presto.iceberg.procedure.RewriteDataFilesProcedure.isCommitRejected;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestRewriteDataFilesProcedure
+        extends AbstractTestQueryFramework
+{
+    public static final String ICEBERG_CATALOG = "test_hive";
+    public static final String TEST_SCHEMA = "tpch";
+
+    @Override
+    protected QueryRunner createQueryRunner()
+            throws Exception
+    {
+        return IcebergQueryRunner.createIcebergQueryRunner(ImmutableMap.of(), HADOOP, ImmutableMap.of());
+    }
+
+    @Test
+    public void testRewriteEmptyTable()
+    {
+        String tableName = "rewrite_empty_table";
+        try {
+            assertUpdate("CREATE TABLE " + tableName + " (id integer, value varchar)");
+            assertUpdate(format("CALL system.rewrite_data_files('%s', '%s')", TEST_SCHEMA, tableName));
+            assertEquals(loadTable(tableName).currentSnapshot(), null);
+        }
+        finally {
+            dropTable(tableName);
+        }
+    }
+
+    @Test
+    public void testRewriteSmallFilesPerPartition()
+            throws IOException
+    {
+        String tableName = "rewrite_partitioned_table";
+        try {
+            assertUpdate("CREATE TABLE " + tableName + " (id integer, part varchar) WITH (partitioning = ARRAY['part'])");
+            for (int i = 0; i < 6; i++) {
+                assertUpdate(format("INSERT INTO %s VALUES (%s, 'a')", tableName, i), 1);
+            }
+            for (int i = 6; i < 8; i++) {
+                assertUpdate(format("INSERT INTO %s VALUES (%s, 'b')", tableName, i), 1);
+            }
+            Table table = loadTable(tableName);
+            assertEquals(getFileScanTasks(table).size(), 8);
+            long snapshotId = table.currentSnapshot().snapshotId();
+
+            assertUpdate(format("CALL system.rewrite_data_files(schema => '%s', table_name => '%s')", TEST_SCHEMA, tableName));
+
+            // the six files of partition a are compacted, partition b has fewer files than min_input_files
+            table.refresh();
+            assertNotEquals(table.currentSnapshot().snapshotId(), snapshotId);
+            assertEquals(table.currentSnapshot().operation(), "replace");
+            List<FileScanTask> tasks = getFileScanTasks(table);
+            assertEquals(tasks.size(), 3);
+            assertEquals(tasks.stream().filter(task -> task.file().partition().get(0, String.class).equals("a")).count(), 1);
+            assertQuery("SELECT id, part FROM " + tableName, "VALUES (0, 'a'), (1, 'a'), (2, 'a'), (3, 'a'), (4, 'a'), (5, 'a'), (6, 'b'), (7, 'b')");
+
+            // the data is unchanged as of the previous snapshot
+            assertQuery(format("SELECT count(*) FROM \"%s@%s\"", tableName, snapshotId), "VALUES 8");
+
+            assertUpdate(format("CALL system.rewrite_data_files('%s', '%s', %s, %s)", TEST_SCHEMA, tableName, 128 * 1024 * 1024, 2));
+            table.refresh();
+            assertEquals(getFileScanTasks(table).size(), 2);
+            assertQuery("SELECT id, part FROM " + tableName, "VALUES (0, 'a'), (1, 'a'), (2, 'a'), (3, 'a'), (4, 'a'), (5, 'a'), (6, 'b'), (7, 'b')");
+        }
+        finally {
+            dropTable(tableName);
+        }
+    }
+
+    @Test
+    public void testRewriteAppliesDeletes()
+            throws IOException
+    {
+        String tableName = "rewrite_deletes_table";
+        try {
+            assertUpdate("CREATE TABLE " + tableName + " (id integer, value varchar) WITH (format_version = '2', delete_mode = 'merge-on-read')");
+            assertUpdate("INSERT INTO " + tableName + " VALUES (1, 'a'), (2, 'b'), (3, 'c')", 3);
+            assertUpdate("DELETE FROM " + tableName + " WHERE id = 2", 1);
+            Table table = loadTable(tableName);
+            assertTrue(getFileScanTasks(table).stream().anyMatch(task -> !task.deletes().isEmpty()));
+
+            // a single file with deletes is rewritten even though it is fewer than min_input_files
+            assertUpdate(format("CALL system.rewrite_data_files('%s', '%s')", TEST_SCHEMA, tableName));
+            table.refresh();
+            List<FileScanTask> tasks = getFileScanTasks(table);
+            assertEquals(tasks.size(), 1);
+            assertTrue(tasks.get(0).deletes().isEmpty());
+            assertEquals(tasks.get(0).file().recordCount(), 2);
+            assertQuery("SELECT * FROM " + tableName, "VALUES (1, 'a'), (3, 'c')");
+        }
+        finally {
+            dropTable(tableName);
+        }
+    }
+
+    @Test
+    public void testCommitRejected()
+    {
+        assertTrue(isCommitRejected(new PrestoException(ICEBERG_COMMIT_ERROR, "rejected", new ValidationException("conflicting delete"))));
+        assertTrue(isCommitRejected(new PrestoException(ICEBERG_COMMIT_ERROR, "rejected", new CommitFailedException("stale metadata"))));
+        assertTrue(isCommitRejected(new PrestoException(ICEBERG_INVALID_SNAPSHOT_ID, "invalid snapshot")));
+        assertFalse(isCommitRejected(new CommitStateUnknownException(new RuntimeException("timeout"))));
+        assertFalse(isCommitRejected(new PrestoException(ICEBERG_COMMIT_ERROR, "unknown", new CommitStateUnknownException(new CommitFailedException("stale metadata")))));
+        assertFalse(isCommitRejected(new UncheckedIOException(new IOException("connection reset"))));
+    }
+
+    @Test
+    public void testInvalidArguments()
+    {
+        assertQueryFails(format("CALL system.rewrite_data_files('%s', 'any_table', 0)", TEST_SCHEMA), "target_file_size_bytes must be positive: 0");
+        assertQueryFails(format("CALL system.rewrite_data_files(schema => '%s', table_name => 'any_table', min_input_files => -1)", TEST_SCHEMA), "min_input_files must be positive: -1");
+    }
+
+    private static List<FileScanTask> getFileScanTasks(Table table)
+            throws IOException
+    {
+        try (CloseableIterable<FileScanTask> tasks = table.newScan().planFiles()) {
+            return ImmutableList.copyOf(tasks);
+        }
+    }
+
+    private void dropTable(String tableName)
+    {
+        assertQuerySucceeds("DROP TABLE IF EXISTS iceberg." + TEST_SCHEMA + "." + tableName);
+    }
+
+    private Table loadTable(String tableName)
+    {
+        Catalog catalog = CatalogUtil.loadCatalog(HadoopCatalog.class.getName(), ICEBERG_CATALOG, getProperties(), new Configuration());
+        return catalog.loadTable(TableIdentifier.of(TEST_SCHEMA, tableName));
+    }
+
+    private Map<String, String> getProperties()
+    {
+        File metastoreDir = getCatalogDirectory();
+        return ImmutableMap.of("warehouse", metastoreDir.toString());
+    }
+
+    private File getCatalogDirectory()
+    {
+        Path dataDirectory = getDistributedQueryRunner().getCoordinator().getDataDirectory();
+        Path catalogDirectory = getIcebergDataDirectoryPath(dataDirectory, HADOOP.name(), new IcebergConfig().getFileFormat(), false);
+        return catalogDirectory.toFile();
+    }
+}
@@ -367,8 +367,12 @@ public class TestJdbcResultSet
     private Connection createConnection()
             throws SQLException
     {
-        String url = format("jdbc:presto://%s", server.getAddress());
-        return DriverManager.getConnection(url, "test", null);
+        return DriverManager.getConnection(getJdbcUrl(), "test", null);
+    }
+
+    protected String getJdbcUrl()
+    {
+        return format("jdbc:presto://%s", server.getAddress());
     }
 
     private static long countRows(ResultSet rs)
@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.jdbc;
+
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestJdbcResultSetWithBinaryResults
+        extends TestJdbcResultSet
+{
+    @Override
+    protected String getJdbcUrl()
+    {
+        return super.getJdbcUrl() + "?binaryResults=true";
+    }
+
+    @Test
+    public void testStructuralTypes()
+            throws Exception
+    {
+        try (Connection connection = DriverManager.getConnection(getJdbcUrl(), "test", null);
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT MAP(ARRAY['a'], ARRAY[ARRAY[1, NULL]]), CAST(ROW(1, 'x') AS ROW(foo bigint, bar varchar)), NULL")) {
+            assertTrue(rs.next());
+            assertEquals(rs.getObject(1).toString(), "{a=[1, null]}");
+            assertEquals(rs.getObject(2).toString(), "{foo=1, bar=x}");
+            assertEquals(rs.getObject(3), null);
+            assertFalse(rs.next());
+        }
+    }
+}
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.execution;
 
+import com.facebook.presto.spi.SplitWeight;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.Duration;
 
@@ -27,6 +28,14 @@ public interface SplitRunner
 
     String getInfo();
 
+    /**
+     * Raw value of the {@link SplitWeight} of the split processed by this runner
+     */
+    default long getSplitWeight()
+    {
+        return SplitWeight.standard().getRawValue();
+    }
+
     @Override
     void close();
 }
@@ -62,6 +62,7 @@ public class TaskManagerConfig
     private int maxDriversPerTask = Integer.MAX_VALUE;
     private int maxTasksPerStage = Integer.MAX_VALUE;
     private Duration splitConcurrencyAdjustmentInterval = new Duration(100, TimeUnit.MILLISECONDS);
+    private boolean heavySplitsFirst;
 
     private DataSize sinkMaxBufferSize = new DataSize(32, Unit.MEGABYTE);
     private DataSize maxPagePartitioningBufferSize = new DataSize(32, Unit.MEGABYTE);
@@ -316,6 +317,19 @@ public class TaskManagerConfig
         return this;
     }
 
+    public boolean isHeavySplitsFirst()
+    {
+        return heavySplitsFirst;
+    }
+
+    @Config("task.heavy-splits-first")
+    @ConfigDescription("Start the queued leaf splits of a task with the largest split weight first")
+    public TaskManagerConfig setHeavySplitsFirst(boolean heavySplitsFirst)
+    {
+        this.heavySplitsFirst = heavySplitsFirst;
+        return this;
+    }
+
     @Min(1)
     public int getMinDrivers()
     {
@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.buffer;
+
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.spi.page.PageCompressionCodec;
+import com.facebook.presto.spi.page.SerializedPage;
+
+import static com.facebook.presto.common.RuntimeMetricName.EXCHANGE_LZ4_COMPRESSED_PAGE_BYTES;
+import static com.facebook.presto.common.RuntimeMetricName.EXCHANGE_UNCOMPRESSED_PAGE_BYTES;
+import static com.facebook.presto.common.RuntimeMetricName.EXCHANGE_ZSTD_COMPRESSED_PAGE_BYTES;
+import static com.facebook.presto.common.RuntimeUnit.BYTE;
+
+public final class PageCodecRuntimeStats
+{
+    private PageCodecRuntimeStats() {}
+
+    /**
+     * Records which codec an exchange page was compressed with. The metric count is the number of pages
+     * and the metric sum is their uncompressed size.
+     */
+    public static void recordPageCodec(RuntimeStats runtimeStats, SerializedPage page)
+    {
+        runtimeStats.addMetricValue(getMetricName(PageCompressionCodec.fromMarkers(page.getPageCodecMarkers())), BYTE, page.getUncompressedSizeInBytes());
+    }
+
+    private static String getMetricName(PageCompressionCodec codec)
+    {
+        switch (codec) {
+            case NONE:
+                return EXCHANGE_UNCOMPRESSED_PAGE_BYTES;
+            case LZ4:
+                return EXCHANGE_LZ4_COMPRESSED_PAGE_BYTES;
+            case ZSTD:
+                return EXCHANGE_ZSTD_COMPRESSED_PAGE_BYTES;
+            default:
+                throw new IllegalArgumentException("Unsupported codec: " + codec);
+        }
+    }
+}
@@ -14,18 +14,27 @@
 package com.facebook.presto.execution.buffer;
 
 import com.facebook.presto.common.block.BlockEncodingSerde;
+import com.facebook.presto.spi.page.AdaptivePageCompressionPolicy;
+import com.facebook.presto.spi.page.PageCompressionCodec;
+import com.facebook.presto.spi.page.PageCompressionPolicy;
 import com.facebook.presto.spi.page.PageCompressor;
 import com.facebook.presto.spi.page.PageDecompressor;
 import com.facebook.presto.spi.page.PagesSerde;
 import com.facebook.presto.spi.spiller.SpillCipher;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.compress.Compressor;
 import io.airlift.compress.Decompressor;
 import io.airlift.compress.lz4.Lz4Compressor;
 import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.compress.zstd.ZstdCompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
 
 import java.nio.ByteBuffer;
+import java.util.Map;
 import java.util.Optional;
 
+import static com.facebook.presto.spi.page.PageCompressionCodec.LZ4;
+import static com.facebook.presto.spi.page.PageCompressionCodec.ZSTD;
 import static java.util.Objects.requireNonNull;
 
 public class PagesSerdeFactory
@@ -33,6 +42,7 @@ public class PagesSerdeFactory
     private final BlockEncodingSerde blockEncodingSerde;
     private final boolean compressionEnabled;
     private final boolean checksumEnabled;
+    private final ExchangeCompressionCodec compressionCodec;
 
     public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, boolean compressionEnabled)
     {
@@ -40,10 +50,16 @@ public class PagesSerdeFactory
     }
 
     public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, boolean compressionEnabled, boolean checksumEnabled)
+    {
+        this(blockEncodingSerde, compressionEnabled, checksumEnabled, ExchangeCompressionCodec.LZ4);
+    }
+
+    public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, boolean compressionEnabled, boolean checksumEnabled, ExchangeCompressionCodec compressionCodec)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         this.compressionEnabled = compressionEnabled;
         this.checksumEnabled = checksumEnabled;
+        this.compressionCodec = requireNonNull(compressionCodec, "compressionCodec is null");
     }
 
     public PagesSerde createPagesSerde()
@@ -58,60 +74,100 @@ public class PagesSerdeFactory
 
     private PagesSerde createPagesSerdeInternal(Optional<SpillCipher> spillCipher)
     {
-        if (compressionEnabled) {
-            return new PagesSerde(
-                    blockEncodingSerde,
-                    Optional.of(new PageCompressor()
-                    {
-                        Compressor compressor = new Lz4Compressor();
-                        @Override
-                        public int maxCompressedLength(int uncompressedSize)
-                        {
-                            return compressor.maxCompressedLength(uncompressedSize);
-                        }
-
-                        @Override
-                        public int compress(
-                                byte[] input,
-                                int inputOffset,
-                                int inputLength,
-                                byte[] output,
-                                int outputOffset,
-                                int maxOutputLength)
-                        {
-                            return compressor.compress(input, inputOffset, inputLength, output, outputOffset, maxOutputLength);
-                        }
-
-                        @Override
-                        public void compress(ByteBuffer input, ByteBuffer output)
-                        {
-                            compressor.compress(input, output);
-                        }
-                    }),
-                    Optional.of(new PageDecompressor()
-                    {
-                        Decompressor decompressor = new Lz4Decompressor();
-                        @Override
-                        public int decompress(
-                                byte[] input,
-                                int inputOffset,
-                                int inputLength,
-                                byte[] output,
-                                int outputOffset,
-                                int maxOutputLength)
-                        {
-                            return decompressor.decompress(input, inputOffset, inputLength, output, outputOffset, maxOutputLength);
-                        }
-
-                        @Override
-                        public void decompress(ByteBuffer input, ByteBuffer output)
-                        {
-                            decompressor.decompress(input, output);
-                        }
-                    }),
-                    spillCipher, checksumEnabled);
+        if (!compressionEnabled) {
+            return new PagesSerde(blockEncodingSerde, Optional.empty(), Optional.empty(), spillCipher, checksumEnabled);
+        }
+
+        // pages from a producer using a different codec can still be read
+        Map<PageCompressionCodec, PageDecompressor> decompressors = ImmutableMap.of(
+                LZ4, new AirliftPageDecompressor(new Lz4Decompressor()),
+                ZSTD, new AirliftPageDecompressor(new ZstdDecompressor()));
+
+        Map<PageCompressionCodec, PageCompressor> compressors;
+        PageCompressionPolicy compressionPolicy;
+        switch (compressionCodec) {
+            case LZ4:
+                compressors = ImmutableMap.of(LZ4, new AirliftPageCompressor(new Lz4Compressor()));
+                compressionPolicy = PageCompressionPolicy.fixed(LZ4);
+                break;
+            case ZSTD:
+                compressors = ImmutableMap.of(ZSTD, new AirliftPageCompressor(new ZstdCompressor()));
+                compressionPolicy = PageCompressionPolicy.fixed(ZSTD);
+                break;
+            case ADAPTIVE:
+                compressors = ImmutableMap.of(
+                        LZ4, new AirliftPageCompressor(new Lz4Compressor()),
+                        ZSTD, new AirliftPageCompressor(new ZstdCompressor()));
+                compressionPolicy = new AdaptivePageCompressionPolicy(compressors.keySet());
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported exchange compression codec: " + compressionCodec);
+        }
+
+        return new PagesSerde(blockEncodingSerde, compressors, decompressors, compressionPolicy, spillCipher, checksumEnabled);
+    }
+
+    private static class AirliftPageCompressor
+            implements PageCompressor
+    {
+        private final Compressor compressor;
+
+        private AirliftPageCompressor(Compressor compressor)
+        {
+            this.compressor = requireNonNull(compressor, "compressor is null");
+        }
+
+        @Override
+        public int maxCompressedLength(int uncompressedSize)
+        {
+            return compressor.maxCompressedLength(uncompressedSize);
+        }
+
+        @Override
+        public int compress(
+                byte[] input,
+                int inputOffset,
+                int inputLength,
+                byte[] output,
+                int outputOffset,
+                int maxOutputLength)
+        {
+            return compressor.compress(input, inputOffset, inputLength, output, outputOffset, maxOutputLength);
+        }
+
+        @Override
+        public void compress(ByteBuffer input, ByteBuffer output)
+        {
+            compressor.compress(input, output);
+        }
+    }
+
+    private static class AirliftPageDecompressor
+            implements PageDecompressor
+    {
+        private final Decompressor decompressor;
+
+        private AirliftPageDecompressor(Decompressor decompressor)
+        {
+            this.decompressor = requireNonNull(decompressor, "decompressor is null");
         }
 
-        return new PagesSerde(blockEncodingSerde, Optional.empty(), Optional.empty(), spillCipher, checksumEnabled);
+        @Override
+        public int decompress(
+                byte[] input,
+                int inputOffset,
+                int inputLength,
+                byte[] output,
+                int outputOffset,
+                int maxOutputLength)
+        {
+            return decompressor.decompress(input, inputOffset, inputLength, output, outputOffset, maxOutputLength);
+        }
+
+        @Override
+        public void decompress(ByteBuffer input, ByteBuffer output)
+        {
+            decompressor.decompress(input, output);
+        }
     }
 }
@@ -238,6 +238,11 @@ public class PrioritizedSplitRunner
         return splitId;
     }
 
+    public long getSplitWeight()
+    {
+        return splitRunner.getSplitWeight();
+    }
+
     public Priority getPriority()
     {
         return priority.get();
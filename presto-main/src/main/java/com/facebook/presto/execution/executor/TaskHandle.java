@@ -23,11 +23,14 @@ import javax.annotation.concurrent.ThreadSafe;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.OptionalInt;
+import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.DoubleSupplier;
+import java.util.function.LongConsumer;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
@@ -35,14 +38,19 @@ import static java.util.Objects.requireNonNull;
 @ThreadSafe
 public class TaskHandle
 {
+    // heaviest split first, in arrival order among splits of the same weight
+    private static final Comparator<PrioritizedSplitRunner> HEAVY_SPLITS_FIRST = Comparator.comparingLong(PrioritizedSplitRunner::getSplitWeight).reversed()
+            .thenComparingInt(PrioritizedSplitRunner::getSplitId);
+
     private volatile boolean destroyed;
     private final TaskId taskId;
     private final DoubleSupplier utilizationSupplier;
     private final TaskPriorityTracker priorityTracker;
     private final OptionalInt maxDriversPerTask;
+    private final LongConsumer stragglerWallNanosListener;
 
     @GuardedBy("this")
-    protected final Queue<PrioritizedSplitRunner> queuedLeafSplits = new ArrayDeque<>(10);
+    protected final Queue<PrioritizedSplitRunner> queuedLeafSplits;
     @GuardedBy("this")
     protected final List<PrioritizedSplitRunner> runningLeafSplits = new ArrayList<>(10);
     @GuardedBy("this")
@@ -50,6 +58,14 @@ public class TaskHandle
     @GuardedBy("this")
     protected final SplitConcurrencyController concurrencyController;
 
+    // set while a leaf split of this task has finished and the others are still running with none queued
+    @GuardedBy("this")
+    private boolean straggling;
+    @GuardedBy("this")
+    private long stragglerStartNanos;
+    @GuardedBy("this")
+    private long stragglerWallNanos;
+
     private final AtomicInteger nextSplitId = new AtomicInteger();
 
     public TaskHandle(
@@ -59,11 +75,26 @@ public class TaskHandle
             int initialSplitConcurrency,
             Duration splitConcurrencyAdjustFrequency,
             OptionalInt maxDriversPerTask)
+    {
+        this(taskId, priorityTracker, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency, maxDriversPerTask, false, nanos -> {});
+    }
+
+    public TaskHandle(
+            TaskId taskId,
+            TaskPriorityTracker priorityTracker,
+            DoubleSupplier utilizationSupplier,
+            int initialSplitConcurrency,
+            Duration splitConcurrencyAdjustFrequency,
+            OptionalInt maxDriversPerTask,
+            boolean heavySplitsFirst,
+            LongConsumer stragglerWallNanosListener)
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.utilizationSupplier = requireNonNull(utilizationSupplier, "utilizationSupplier is null");
         this.priorityTracker = requireNonNull(priorityTracker, "queryPriorityTracker is null");
         this.maxDriversPerTask = requireNonNull(maxDriversPerTask, "maxDriversPerTask is null");
+        this.stragglerWallNanosListener = requireNonNull(stragglerWallNanosListener, "stragglerWallNanosListener is null");
+        this.queuedLeafSplits = heavySplitsFirst ? new PriorityQueue<>(10, HEAVY_SPLITS_FIRST) : new ArrayDeque<>(10);
         this.concurrencyController = new SplitConcurrencyController(
                 initialSplitConcurrency,
                 requireNonNull(splitConcurrencyAdjustFrequency, "splitConcurrencyAdjustFrequency is null"));
@@ -121,6 +152,8 @@ public class TaskHandle
             return false;
         }
         queuedLeafSplits.add(split);
+        // new work for the idle drivers ends the straggler period
+        endStragglerPeriod(System.nanoTime());
         return true;
     }
 
@@ -164,7 +197,37 @@ public class TaskHandle
     {
         concurrencyController.splitFinished(split.getScheduledNanos(), utilizationSupplier.getAsDouble(), runningLeafSplits.size());
         runningIntermediateSplits.remove(split);
-        runningLeafSplits.remove(split);
+        if (runningLeafSplits.remove(split) && queuedLeafSplits.isEmpty()) {
+            long now = System.nanoTime();
+            if (runningLeafSplits.isEmpty()) {
+                endStragglerPeriod(now);
+            }
+            else if (!straggling) {
+                straggling = true;
+                stragglerStartNanos = now;
+            }
+        }
+    }
+
+    /**
+     * Total wall time during which leaf splits of this task were still running after another one
+     * had finished with no more queued, i.e. time spent waiting on stragglers with idle drivers
+     */
+    public synchronized long getStragglerWallNanos()
+    {
+        return stragglerWallNanos;
+    }
+
+    @GuardedBy("this")
+    private void endStragglerPeriod(long now)
+    {
+        if (!straggling) {
+            return;
+        }
+        straggling = false;
+        long nanos = now - stragglerStartNanos;
+        stragglerWallNanos += nanos;
+        stragglerWallNanosListener.accept(nanos);
     }
 
     public int getNextSplitId()
@@ -18,15 +18,19 @@ import com.facebook.presto.spi.HostAddress;
 import com.google.common.collect.ImmutableList;
 import com.google.common.hash.HashFunction;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.NavigableMap;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.TreeMap;
 
+import static com.google.common.collect.Iterables.limit;
+import static com.google.common.collect.Iterators.concat;
 import static com.google.common.hash.Hashing.murmur3_32;
 import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -57,33 +61,86 @@ public class ConsistentHashingNodeProvider
 
     public List<HostAddress> get(String key, int count)
     {
-        if (count > nodeCount) {
-            count = nodeCount;
-        }
+        return ImmutableList.copyOf(limit(getInRingOrder(key), count));
+    }
 
-        Set<HostAddress> uniqueNodes = new LinkedHashSet<>();
+    /**
+     * Returns every node in hash ring order starting at the key. The ring is only walked as far as the list is read,
+     * so reading it with {@link List#iterator()} until the first suitable node does not visit the rest of the ring.
+     */
+    public List<HostAddress> getInRingOrder(String key)
+    {
         int hashKey = HASH_FUNCTION.hashString(key, UTF_8).asInt();
+        //Start reading from tail, then from the head once the tail is exhausted
+        return new RingOrderNodes(concat(candidates.tailMap(hashKey).values().iterator(), candidates.headMap(hashKey).values().iterator()), nodeCount);
+    }
 
-        SortedMap<Integer, InternalNode> tailMap = candidates.tailMap(hashKey);
-        //Start reading from tail
-        for (Map.Entry<Integer, InternalNode> entry : tailMap.entrySet()) {
-            uniqueNodes.add(entry.getValue().getHostAndPort());
-            if (uniqueNodes.size() == count) {
-                break;
+    private static class RingOrderNodes
+            extends AbstractList<HostAddress>
+    {
+        private final Iterator<InternalNode> ring;
+        private final int nodeCount;
+        private final Set<HostAddress> uniqueNodes = new LinkedHashSet<>();
+        private final List<HostAddress> nodes = new ArrayList<>();
+
+        private RingOrderNodes(Iterator<InternalNode> ring, int nodeCount)
+        {
+            this.ring = requireNonNull(ring, "ring is null");
+            this.nodeCount = nodeCount;
+        }
+
+        @Override
+        public HostAddress get(int index)
+        {
+            if (index < 0 || !walkTo(index)) {
+                throw new IndexOutOfBoundsException(format("index %s is out of bounds", index));
             }
+            return nodes.get(index);
         }
 
-        if (uniqueNodes.size() < count) {
-            //Start reading from the head as we have exhausted tail
-            SortedMap<Integer, InternalNode> headMap = candidates.headMap(hashKey);
-            for (Map.Entry<Integer, InternalNode> entry : headMap.entrySet()) {
-                uniqueNodes.add(entry.getValue().getHostAndPort());
-                if (uniqueNodes.size() == count) {
-                    break;
+        @Override
+        public int size()
+        {
+            walkTo(Integer.MAX_VALUE);
+            return nodes.size();
+        }
+
+        @Override
+        public Iterator<HostAddress> iterator()
+        {
+            return new Iterator<HostAddress>()
+            {
+                private int position;
+
+                @Override
+                public boolean hasNext()
+                {
+                    return walkTo(position);
                 }
-            }
+
+                @Override
+                public HostAddress next()
+                {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return nodes.get(position++);
+                }
+            };
         }
 
-        return ImmutableList.copyOf(uniqueNodes);
+        /**
+         * Walks the ring until the node at the index is known, returning false if the ring has fewer nodes
+         */
+        private boolean walkTo(int index)
+        {
+            while (nodes.size() <= index && nodes.size() < nodeCount && ring.hasNext()) {
+                HostAddress node = ring.next().getHostAndPort();
+                if (uniqueNodes.add(node)) {
+                    nodes.add(node);
+                }
+            }
+            return index < nodes.size();
+        }
     }
 }
@@ -98,4 +98,15 @@ public class NodeMap
         ModularHashingNodeProvider modularHashingNodeProvider = new ModularHashingNodeProvider(allNodes);
         return (key) -> modularHashingNodeProvider.get(key, nodeCount);
     }
+
+    /**
+     * Returns a node provider that lists every node in hash ring order, walking the ring only as far as the list is read
+     */
+    public NodeProvider getRingOrderNodeProvider()
+    {
+        if (consistentHashingNodeProvider.isPresent()) {
+            return (key) -> consistentHashingNodeProvider.get().getInRingOrder(key);
+        }
+        return getNodeProvider(activeNodes.size());
+    }
 }
@@ -56,6 +56,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalDouble;
 import java.util.Set;
 import java.util.function.Predicate;
 
@@ -65,6 +66,7 @@ import static com.facebook.presto.SystemSessionProperties.getResourceAwareSchedu
 import static com.facebook.presto.execution.scheduler.NodeSchedulerConfig.NetworkTopologyType;
 import static com.facebook.presto.execution.scheduler.NodeSchedulerConfig.ResourceAwareSchedulingStrategy;
 import static com.facebook.presto.execution.scheduler.NodeSchedulerConfig.ResourceAwareSchedulingStrategy.TTL;
+import static com.facebook.presto.execution.scheduler.NodeSelectionHashStrategy.BOUNDED_LOAD_CONSISTENT_HASHING;
 import static com.facebook.presto.execution.scheduler.NodeSelectionHashStrategy.CONSISTENT_HASHING;
 import static com.facebook.presto.metadata.InternalNode.NodeStatus.ALIVE;
 import static com.facebook.presto.spi.NodeState.ACTIVE;
@@ -101,6 +103,7 @@ public class NodeScheduler
     private final SimpleTtlNodeSelectorConfig simpleTtlNodeSelectorConfig;
     private final NodeSelectionHashStrategy nodeSelectionHashStrategy;
     private final int minVirtualNodeCount;
+    private final OptionalDouble consistentHashingMaxLoadFactor;
     private final int maxPreferredNodes;
 
     @Inject
@@ -168,6 +171,7 @@ public class NodeScheduler
         this.simpleTtlNodeSelectorConfig = requireNonNull(simpleTtlNodeSelectorConfig, "simpleTtlNodeSelectorConfig is null");
         this.nodeSelectionHashStrategy = config.getNodeSelectionHashStrategy();
         this.minVirtualNodeCount = config.getMinVirtualNodeCount();
+        this.consistentHashingMaxLoadFactor = nodeSelectionHashStrategy == BOUNDED_LOAD_CONSISTENT_HASHING ? OptionalDouble.of(config.getConsistentHashingMaxLoadFactor()) : OptionalDouble.empty();
         this.maxPreferredNodes = config.getMaxPreferredNodes();
     }
 
@@ -238,7 +242,8 @@ public class NodeScheduler
                 maxPendingSplitsWeightPerTask,
                 maxUnacknowledgedSplitsPerTask,
                 maxTasksPerStage,
-                maxPreferredNodes);
+                maxPreferredNodes,
+                consistentHashingMaxLoadFactor);
 
         if (resourceAwareSchedulingStrategy == TTL) {
             return new SimpleTtlNodeSelector(
@@ -284,7 +289,7 @@ public class NodeScheduler
                     .collect(toImmutableSet());
 
             Optional<ConsistentHashingNodeProvider> consistentHashingNodeProvider = Optional.empty();
-            if (nodeSelectionHashStrategy == CONSISTENT_HASHING) {
+            if (nodeSelectionHashStrategy == CONSISTENT_HASHING || nodeSelectionHashStrategy == BOUNDED_LOAD_CONSISTENT_HASHING) {
                 int weight = (int) ceil(1.0 * minVirtualNodeCount / activeNodes.size());
                 consistentHashingNodeProvider = Optional.of(ConsistentHashingNodeProvider.create(activeNodes, weight));
             }
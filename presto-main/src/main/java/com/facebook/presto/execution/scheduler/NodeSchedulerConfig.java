@@ -18,6 +18,7 @@ import com.facebook.airlift.configuration.ConfigDescription;
 import com.facebook.airlift.configuration.DefunctConfig;
 import com.facebook.airlift.configuration.LegacyConfig;
 
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
@@ -39,6 +40,7 @@ public class NodeSchedulerConfig
     private String networkTopology = NetworkTopologyType.LEGACY;
     private NodeSelectionHashStrategy nodeSelectionHashStrategy = NodeSelectionHashStrategy.MODULAR_HASHING;
     private int minVirtualNodeCount = 1000;
+    private double consistentHashingMaxLoadFactor = 1.25;
     private ResourceAwareSchedulingStrategy resourceAwareSchedulingStrategy = ResourceAwareSchedulingStrategy.RANDOM;
     private int maxPreferredNodes = 2;
 
@@ -149,6 +151,21 @@ public class NodeSchedulerConfig
         return this;
     }
 
+    @DecimalMin("1.0")
+    public double getConsistentHashingMaxLoadFactor()
+    {
+        return consistentHashingMaxLoadFactor;
+    }
+
+    @Config("node-scheduler.consistent-hashing-max-load-factor")
+    @ConfigDescription("When BOUNDED_LOAD_CONSISTENT_HASHING node selection hash strategy is used, the multiple of the average node load " +
+            "above which a split is assigned to the next node on the hash ring instead of its preferred node")
+    public NodeSchedulerConfig setConsistentHashingMaxLoadFactor(double consistentHashingMaxLoadFactor)
+    {
+        this.consistentHashingMaxLoadFactor = consistentHashingMaxLoadFactor;
+        return this;
+    }
+
     public ResourceAwareSchedulingStrategy getResourceAwareSchedulingStrategy()
     {
         return resourceAwareSchedulingStrategy;
@@ -16,5 +16,10 @@ package com.facebook.presto.execution.scheduler;
 public enum NodeSelectionHashStrategy
 {
     MODULAR_HASHING,
-    CONSISTENT_HASHING
+    CONSISTENT_HASHING,
+    /**
+     * Consistent hashing where a soft affinity split that would push its node above the configured
+     * multiple of the average node load moves on to the next node on the hash ring
+     */
+    BOUNDED_LOAD_CONSISTENT_HASHING
 }
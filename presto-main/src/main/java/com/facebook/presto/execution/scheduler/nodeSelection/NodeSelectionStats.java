@@ -14,11 +14,17 @@
 package com.facebook.presto.execution.scheduler.nodeSelection;
 
 import com.facebook.airlift.stats.CounterStat;
+import com.google.common.collect.ImmutableMap;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
 import javax.annotation.concurrent.ThreadSafe;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
 @ThreadSafe
 public class NodeSelectionStats
 {
@@ -32,6 +38,8 @@ public class NodeSelectionStats
 
     private final CounterStat preferredNonAliveNodeSkippedCount = new CounterStat();
 
+    private final ConcurrentMap<String, AffinityCounts> nodeAffinityCounts = new ConcurrentHashMap<>();
+
     public void incrementPrimaryPreferredNodeSelectedCount()
     {
         primaryPreferredNodeSelectedCount.update(1);
@@ -67,6 +75,14 @@ public class NodeSelectionStats
         preferredNonAliveNodeSkippedCount.update(1);
     }
 
+    /**
+     * Records whether a soft affinity split was assigned to its primary preferred node
+     */
+    public void recordNodeAffinity(String primaryNodeIdentifier, boolean hit)
+    {
+        nodeAffinityCounts.computeIfAbsent(primaryNodeIdentifier, ignored -> new AffinityCounts()).record(hit);
+    }
+
     @Managed
     @Nested
     public CounterStat getPrimaryPreferredNodeSelectedCount()
@@ -115,4 +131,35 @@ public class NodeSelectionStats
     {
         return bucketedNonAliveNodeReplacedCount;
     }
+
+    /**
+     * Fraction of the soft affinity splits preferring each node that were assigned to it, keyed by node identifier
+     */
+    @Managed
+    public Map<String, Double> getNodeAffinityHitRates()
+    {
+        ImmutableMap.Builder<String, Double> hitRates = ImmutableMap.builder();
+        nodeAffinityCounts.forEach((nodeIdentifier, counts) -> hitRates.put(nodeIdentifier, counts.getHitRate()));
+        return hitRates.build();
+    }
+
+    private static class AffinityCounts
+    {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+
+        public void record(boolean hit)
+        {
+            if (hit) {
+                hits.incrementAndGet();
+            }
+            total.incrementAndGet();
+        }
+
+        public double getHitRate()
+        {
+            long total = this.total.get();
+            return total == 0 ? 0 : (double) hits.get() / total;
+        }
+    }
 }
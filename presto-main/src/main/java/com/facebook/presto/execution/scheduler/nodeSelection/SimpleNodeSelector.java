@@ -24,6 +24,7 @@ import com.facebook.presto.execution.scheduler.SplitPlacementResult;
 import com.facebook.presto.metadata.InternalNode;
 import com.facebook.presto.metadata.InternalNodeManager;
 import com.facebook.presto.metadata.Split;
+import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.NodeProvider;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SplitContext;
@@ -39,6 +40,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalDouble;
 import java.util.OptionalInt;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
@@ -55,9 +57,14 @@ import static com.facebook.presto.metadata.InternalNode.NodeStatus.DEAD;
 import static com.facebook.presto.spi.StandardErrorCode.NODE_SELECTION_NOT_SUPPORTED;
 import static com.facebook.presto.spi.StandardErrorCode.NO_NODES_AVAILABLE;
 import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.HARD_AFFINITY;
+import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.SOFT_AFFINITY;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.Iterables.limit;
 import static com.google.common.collect.Sets.newHashSet;
+import static java.lang.Math.ceil;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
@@ -78,6 +85,7 @@ public class SimpleNodeSelector
     private final int maxUnacknowledgedSplitsPerTask;
     private final int maxTasksPerStage;
     private final int maxPreferredNodes;
+    private final OptionalDouble maxLoadFactor;
 
     public SimpleNodeSelector(
             InternalNodeManager nodeManager,
@@ -91,6 +99,39 @@ public class SimpleNodeSelector
             int maxUnacknowledgedSplitsPerTask,
             int maxTasksPerStage,
             int maxPreferredNodes)
+    {
+        this(
+                nodeManager,
+                nodeSelectionStats,
+                nodeTaskMap,
+                includeCoordinator,
+                nodeMap,
+                minCandidates,
+                maxSplitsWeightPerNode,
+                maxPendingSplitsWeightPerTask,
+                maxUnacknowledgedSplitsPerTask,
+                maxTasksPerStage,
+                maxPreferredNodes,
+                OptionalDouble.empty());
+    }
+
+    /**
+     * @param maxLoadFactor when present, soft affinity splits are placed with bounded-load consistent hashing: a split goes to the first
+     * node in hash ring order whose assigned split weight is below this multiple of the average node load
+     */
+    public SimpleNodeSelector(
+            InternalNodeManager nodeManager,
+            NodeSelectionStats nodeSelectionStats,
+            NodeTaskMap nodeTaskMap,
+            boolean includeCoordinator,
+            Supplier<NodeMap> nodeMap,
+            int minCandidates,
+            long maxSplitsWeightPerNode,
+            long maxPendingSplitsWeightPerTask,
+            int maxUnacknowledgedSplitsPerTask,
+            int maxTasksPerStage,
+            int maxPreferredNodes,
+            OptionalDouble maxLoadFactor)
     {
         this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
         this.nodeSelectionStats = requireNonNull(nodeSelectionStats, "nodeSelectionStats is null");
@@ -104,6 +145,8 @@ public class SimpleNodeSelector
         checkArgument(maxUnacknowledgedSplitsPerTask > 0, "maxUnacknowledgedSplitsPerTask must be > 0, found: %s", maxUnacknowledgedSplitsPerTask);
         this.maxTasksPerStage = maxTasksPerStage;
         this.maxPreferredNodes = maxPreferredNodes;
+        this.maxLoadFactor = requireNonNull(maxLoadFactor, "maxLoadFactor is null");
+        checkArgument(!maxLoadFactor.isPresent() || maxLoadFactor.getAsDouble() >= 1, "maxLoadFactor must be at least 1, found: %s", maxLoadFactor);
     }
 
     @Override
@@ -150,16 +193,26 @@ public class SimpleNodeSelector
         boolean splitWaitingForAnyNode = false;
 
         NodeProvider nodeProvider = nodeMap.getNodeProvider(maxPreferredNodes);
+        // with bounded load the whole hash ring is a candidate, but it is only walked up to the first node below its capacity
+        NodeProvider ringOrderNodeProvider = nodeMap.getRingOrderNodeProvider();
+        long clusterSplitsWeight = maxLoadFactor.isPresent() ? getClusterSplitsWeight(nodeMap, assignmentStats) : 0;
         OptionalInt preferredNodeCount = OptionalInt.empty();
         for (Split split : splits) {
             List<InternalNode> candidateNodes;
+            List<HostAddress> ringOrderHosts = ImmutableList.of();
             switch (split.getNodeSelectionStrategy()) {
                 case HARD_AFFINITY:
                     candidateNodes = selectExactNodes(nodeMap, split.getPreferredNodes(nodeProvider), includeCoordinator);
                     preferredNodeCount = OptionalInt.of(candidateNodes.size());
                     break;
                 case SOFT_AFFINITY:
-                    candidateNodes = selectExactNodes(nodeMap, split.getPreferredNodes(nodeProvider), includeCoordinator);
+                    if (maxLoadFactor.isPresent()) {
+                        ringOrderHosts = split.getPreferredNodes(ringOrderNodeProvider);
+                        candidateNodes = selectExactNodes(nodeMap, ImmutableList.copyOf(limit(ringOrderHosts, maxPreferredNodes)), includeCoordinator);
+                    }
+                    else {
+                        candidateNodes = selectExactNodes(nodeMap, split.getPreferredNodes(nodeProvider), includeCoordinator);
+                    }
                     preferredNodeCount = OptionalInt.of(candidateNodes.size());
                     candidateNodes = ImmutableList.<InternalNode>builder()
                             .addAll(candidateNodes)
@@ -179,7 +232,17 @@ public class SimpleNodeSelector
             }
 
             SplitWeight splitWeight = split.getSplitWeight();
-            Optional<InternalNodeInfo> chosenNodeInfo = chooseLeastBusyNode(splitWeight, candidateNodes, assignmentStats::getTotalSplitsWeight, preferredNodeCount, maxSplitsWeightPerNode, assignmentStats);
+            Optional<InternalNodeInfo> chosenNodeInfo = Optional.empty();
+            if (maxLoadFactor.isPresent() && split.getNodeSelectionStrategy() == SOFT_AFFINITY) {
+                // a node still below its capacity takes the split, so some node in the ring always qualifies
+                double averageSplitsWeight = (double) (clusterSplitsWeight + splitWeight.getRawValue()) / max(nodeMap.getActiveNodes().size(), 1);
+                long capacity = (long) ceil(maxLoadFactor.getAsDouble() * averageSplitsWeight);
+                long maxNodeSplitsWeight = min(capacity - 1 + splitWeight.getRawValue(), maxSplitsWeightPerNode);
+                chosenNodeInfo = chooseFirstNodeBelowCapacity(splitWeight, ringOrderHosts, nodeMap, maxNodeSplitsWeight, assignmentStats);
+            }
+            if (!chosenNodeInfo.isPresent()) {
+                chosenNodeInfo = chooseLeastBusyNode(splitWeight, candidateNodes, assignmentStats::getTotalSplitsWeight, preferredNodeCount, maxSplitsWeightPerNode, assignmentStats);
+            }
             if (!chosenNodeInfo.isPresent()) {
                 chosenNodeInfo = chooseLeastBusyNode(splitWeight, candidateNodes, assignmentStats::getQueuedSplitsWeightForStage, preferredNodeCount, maxPendingSplitsWeightPerTask, assignmentStats);
             }
@@ -195,6 +258,11 @@ public class SimpleNodeSelector
                 InternalNode chosenNode = chosenNodeInfo.get().getInternalNode();
                 assignment.put(chosenNode, split);
                 assignmentStats.addAssignedSplit(chosenNode, splitWeight);
+                clusterSplitsWeight += splitWeight.getRawValue();
+                if (split.getNodeSelectionStrategy() == SOFT_AFFINITY && preferredNodeCount.getAsInt() > 0) {
+                    InternalNode primaryNode = candidateNodes.get(0);
+                    nodeSelectionStats.recordNodeAffinity(primaryNode.getNodeIdentifier(), chosenNode.equals(primaryNode));
+                }
             }
             else {
                 if (split.getNodeSelectionStrategy() != HARD_AFFINITY) {
@@ -266,6 +334,45 @@ public class SimpleNodeSelector
         return Optional.of(new InternalNodeInfo(chosenNode, false));
     }
 
+    /**
+     * Walks the hosts in hash ring order and returns the first node that can take the split without exceeding the max splits weight
+     */
+    private Optional<InternalNodeInfo> chooseFirstNodeBelowCapacity(SplitWeight splitWeight, List<HostAddress> ringOrderHosts, NodeMap nodeMap, long maxSplitsWeight, NodeAssignmentStats assignmentStats)
+    {
+        Set<String> coordinatorIds = nodeMap.getCoordinatorNodeIds();
+        int position = 0;
+        for (HostAddress host : ringOrderHosts) {
+            for (InternalNode node : nodeMap.getAllNodesByHostAndPort().get(host)) {
+                if ((!includeCoordinator && coordinatorIds.contains(node.getNodeIdentifier())) || node.getNodeStatus() == DEAD) {
+                    continue;
+                }
+                if (assignmentStats.getUnacknowledgedSplitCountForStage(node) >= maxUnacknowledgedSplitsPerTask) {
+                    continue;
+                }
+                if (canAssignSplitBasedOnWeight(assignmentStats.getTotalSplitsWeight(node), maxSplitsWeight, splitWeight)) {
+                    if (position == 0) {
+                        nodeSelectionStats.incrementPrimaryPreferredNodeSelectedCount();
+                    }
+                    else {
+                        nodeSelectionStats.incrementNonPrimaryPreferredNodeSelectedCount();
+                    }
+                    return Optional.of(new InternalNodeInfo(node, true));
+                }
+            }
+            position++;
+        }
+        return Optional.empty();
+    }
+
+    private static long getClusterSplitsWeight(NodeMap nodeMap, NodeAssignmentStats assignmentStats)
+    {
+        long splitsWeight = 0;
+        for (InternalNode node : nodeMap.getActiveNodes()) {
+            splitsWeight += assignmentStats.getTotalSplitsWeight(node);
+        }
+        return splitsWeight;
+    }
+
     private List<InternalNode> getEligibleNodes(int limit, NodeMap nodeMap, List<RemoteTask> existingTasks)
     {
         List<InternalNode> existingNodes = existingTasks.stream()
@@ -0,0 +1,172 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.type.BigintType;
+import com.facebook.presto.common.type.DateType;
+import com.facebook.presto.common.type.IntegerType;
+import com.facebook.presto.common.type.SmallintType;
+import com.facebook.presto.common.type.TinyintType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.VarcharType;
+import org.openjdk.jol.info.ClassLayout;
+
+import static com.facebook.presto.common.type.TypeUtils.hashPosition;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Math.max;
+import static java.lang.Math.toIntExact;
+
+/**
+ * Bloom filter of the values of a type that keeps all the bits of a value in one 256 bit block,
+ * so that a lookup touches a single cache line. Filters of the same size can be merged.
+ * <p>
+ * This class is not thread safe, and a filter must not be modified once it is shared.
+ */
+public class BlockedBloomFilter
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(BlockedBloomFilter.class).instanceSize();
+
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BYTES_PER_BLOCK = WORDS_PER_BLOCK * Integer.BYTES;
+    // one odd multiplier per word of a block, from the Parquet split block Bloom filter
+    private static final int[] SALT = {
+            0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+            0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31};
+    // about 1% false positives
+    private static final int BITS_PER_VALUE = 10;
+
+    private final Type type;
+    private final int[] words;
+    private final int blockCount;
+    private long insertedCount;
+
+    public BlockedBloomFilter(Type type, long sizeInBytes)
+    {
+        checkArgument(isSupportedType(type), "Unsupported type: %s", type);
+        checkArgument(sizeInBytes > 0, "sizeInBytes must be positive");
+        this.type = type;
+        this.blockCount = max(1, toIntExact(sizeInBytes / BYTES_PER_BLOCK));
+        this.words = new int[blockCount * WORDS_PER_BLOCK];
+    }
+
+    public static boolean isSupportedType(Type type)
+    {
+        // these types hash the same as their stored value on both sides of a join
+        return type instanceof BigintType ||
+                type instanceof IntegerType ||
+                type instanceof SmallintType ||
+                type instanceof TinyintType ||
+                type instanceof DateType ||
+                type instanceof VarcharType;
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    /**
+     * Returns true if values of the other type can be looked up in this filter.
+     */
+    public boolean isCompatible(Type other)
+    {
+        return type.equals(other) || (type instanceof VarcharType && other instanceof VarcharType);
+    }
+
+    public void add(Block block, int position)
+    {
+        insertHash(hashPosition(type, block, position));
+    }
+
+    public boolean mightContain(Block block, int position)
+    {
+        return mightContainHash(hashPosition(type, block, position));
+    }
+
+    /**
+     * Adds the values of other to this filter.
+     */
+    public void merge(BlockedBloomFilter other)
+    {
+        checkArgument(words.length == other.words.length, "Bloom filters have different sizes");
+        checkArgument(isCompatible(other.type), "Bloom filters have incompatible types");
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+        insertedCount += other.insertedCount;
+    }
+
+    /**
+     * Returns false once more values have been added than the filter can tell apart
+     * with a low false positive rate. Duplicate values count every time they are added.
+     */
+    public boolean isSelective()
+    {
+        return insertedCount <= (long) words.length * Integer.SIZE / BITS_PER_VALUE;
+    }
+
+    public long getSizeInBytes()
+    {
+        return (long) blockCount * BYTES_PER_BLOCK;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(words);
+    }
+
+    private void insertHash(long hash)
+    {
+        long mixed = mix(hash);
+        int offset = blockOffset(mixed);
+        int key = (int) mixed;
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            words[offset + i] |= 1 << ((key * SALT[i]) >>> 27);
+        }
+        insertedCount++;
+    }
+
+    private boolean mightContainHash(long hash)
+    {
+        long mixed = mix(hash);
+        int offset = blockOffset(mixed);
+        int key = (int) mixed;
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            int mask = 1 << ((key * SALT[i]) >>> 27);
+            if ((words[offset + i] & mask) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int blockOffset(long mixed)
+    {
+        // multiply-shift maps the upper 32 bits of the hash to [0, blockCount)
+        return (int) (((mixed >>> 32) * blockCount) >>> 32) * WORDS_PER_BLOCK;
+    }
+
+    private static long mix(long hash)
+    {
+        // murmur3 finalizer
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -20,6 +20,7 @@ import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.operator.aggregation.TypedSet;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.google.common.collect.ImmutableList;
@@ -29,7 +30,9 @@ import io.airlift.units.DataSize;
 import javax.annotation.Nullable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import static com.facebook.presto.common.predicate.Range.range;
@@ -39,6 +42,7 @@ import static com.facebook.presto.common.type.TypeUtils.isFloatingPointNaN;
 import static com.facebook.presto.common.type.TypeUtils.readNativeValue;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toSet;
 
@@ -46,7 +50,8 @@ import static java.util.stream.Collectors.toSet;
  * This operator acts as a simple "pass-through" pipe, while saving its input pages.
  * The collected pages' value are used for creating a run-time filtering constraint (for probe-side table scan in an inner join).
  * We record all values for the run-time filter only for small build-side pages (which should be the case when using "broadcast" join).
- * For large inputs on build side, we can optionally record the min and max values per channel for orderable types (except Double and Real).
+ * For large inputs on build side, we can optionally record the min and max values per channel for orderable types (except Double and Real),
+ * and a Bloom filter of the values per channel for the types supported by {@link BlockedBloomFilter}.
  */
 public class DynamicFilterSourceOperator
         implements Operator
@@ -87,11 +92,12 @@ public class DynamicFilterSourceOperator
     {
         private final int operatorId;
         private final PlanNodeId planNodeId;
-        private final Consumer<TupleDomain<String>> dynamicPredicateConsumer;
+        private final BiConsumer<TupleDomain<String>, Map<String, BlockedBloomFilter>> dynamicFilterConsumer;
         private final List<Channel> channels;
         private final int maxFilterPositionsCount;
         private final DataSize maxFilterSize;
         private final int minMaxCollectionLimit;
+        private final DataSize bloomFilterSize;
         private final boolean useNewNanDefinition;
 
         private boolean closed;
@@ -105,10 +111,33 @@ public class DynamicFilterSourceOperator
                 DataSize maxFilterSize,
                 int minMaxCollectionLimit,
                 boolean useNewNanDefinition)
+        {
+            this(
+                    operatorId,
+                    planNodeId,
+                    (predicate, bloomFilters) -> dynamicPredicateConsumer.accept(predicate),
+                    channels,
+                    maxFilterPositionsCount,
+                    maxFilterSize,
+                    minMaxCollectionLimit,
+                    new DataSize(0, BYTE),
+                    useNewNanDefinition);
+        }
+
+        public DynamicFilterSourceOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                BiConsumer<TupleDomain<String>, Map<String, BlockedBloomFilter>> dynamicFilterConsumer,
+                List<Channel> channels,
+                int maxFilterPositionsCount,
+                DataSize maxFilterSize,
+                int minMaxCollectionLimit,
+                DataSize bloomFilterSize,
+                boolean useNewNanDefinition)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
-            this.dynamicPredicateConsumer = requireNonNull(dynamicPredicateConsumer, "dynamicPredicateConsumer is null");
+            this.dynamicFilterConsumer = requireNonNull(dynamicFilterConsumer, "dynamicFilterConsumer is null");
             this.channels = requireNonNull(channels, "channels is null");
             verify(
                     channels.stream().map(channel -> channel.getFilterId()).collect(toSet()).size() == channels.size(),
@@ -119,6 +148,7 @@ public class DynamicFilterSourceOperator
             this.maxFilterPositionsCount = maxFilterPositionsCount;
             this.maxFilterSize = maxFilterSize;
             this.minMaxCollectionLimit = minMaxCollectionLimit;
+            this.bloomFilterSize = requireNonNull(bloomFilterSize, "bloomFilterSize is null");
             this.useNewNanDefinition = useNewNanDefinition;
         }
 
@@ -128,12 +158,13 @@ public class DynamicFilterSourceOperator
             checkState(!closed, "Factory is already closed");
             return new DynamicFilterSourceOperator(
                     driverContext.addOperatorContext(operatorId, planNodeId, DynamicFilterSourceOperator.class.getSimpleName()),
-                    dynamicPredicateConsumer,
+                    dynamicFilterConsumer,
                     channels,
                     planNodeId,
                     maxFilterPositionsCount,
                     maxFilterSize,
                     minMaxCollectionLimit,
+                    bloomFilterSize,
                     useNewNanDefinition);
         }
 
@@ -152,11 +183,14 @@ public class DynamicFilterSourceOperator
     }
 
     private final OperatorContext context;
-    private final Consumer<TupleDomain<String>> dynamicPredicateConsumer;
+    private final LocalMemoryContext localUserMemoryContext;
+    private final BiConsumer<TupleDomain<String>, Map<String, BlockedBloomFilter>> dynamicFilterConsumer;
     private final int maxFilterPositionsCount;
     private final long maxFilterSizeInBytes;
     private final List<Channel> channels;
     private final List<Integer> minMaxChannels;
+    private final List<Integer> bloomFilterChannels;
+    private final long bloomFilterSizeInBytes;
     private final boolean useNewNanDefinition;
 
     private boolean finished;
@@ -174,32 +208,43 @@ public class DynamicFilterSourceOperator
     @Nullable
     private Block[] maxValues;
 
+    // Created once the exact predicate becomes too large, dropped if it holds too many values to be selective.
+    @Nullable
+    private BlockedBloomFilter[] bloomFilters;
+
     private DynamicFilterSourceOperator(
             OperatorContext context,
-            Consumer<TupleDomain<String>> dynamicPredicateConsumer,
+            BiConsumer<TupleDomain<String>, Map<String, BlockedBloomFilter>> dynamicFilterConsumer,
             List<Channel> channels,
             PlanNodeId planNodeId,
             int maxFilterPositionsCount,
             DataSize maxFilterSize,
             int minMaxCollectionLimit,
+            DataSize bloomFilterSize,
             boolean useNewNanDefinition)
     {
         this.context = requireNonNull(context, "context is null");
+        this.localUserMemoryContext = context.localUserMemoryContext();
         this.maxFilterPositionsCount = maxFilterPositionsCount;
         this.maxFilterSizeInBytes = maxFilterSize.toBytes();
 
-        this.dynamicPredicateConsumer = requireNonNull(dynamicPredicateConsumer, "dynamicPredicateConsumer is null");
+        this.dynamicFilterConsumer = requireNonNull(dynamicFilterConsumer, "dynamicFilterConsumer is null");
         this.channels = requireNonNull(channels, "channels is null");
+        this.bloomFilterSizeInBytes = bloomFilterSize.toBytes();
 
         this.blockBuilders = new BlockBuilder[channels.size()];
         this.valueSets = new TypedSet[channels.size()];
         ImmutableList.Builder<Integer> minMaxChannelsBuilder = ImmutableList.builder();
+        ImmutableList.Builder<Integer> bloomFilterChannelsBuilder = ImmutableList.builder();
         for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
             Type type = channels.get(channelIndex).getType();
             // Skipping DOUBLE and REAL in collectMinMaxValues to avoid dealing with NaN values
             if (minMaxCollectionLimit > 0 && type.isOrderable() && !type.equals(DOUBLE) && !type.equals(REAL)) {
                 minMaxChannelsBuilder.add(channelIndex);
             }
+            if (bloomFilterSizeInBytes > 0 && BlockedBloomFilter.isSupportedType(type)) {
+                bloomFilterChannelsBuilder.add(channelIndex);
+            }
             this.blockBuilders[channelIndex] = type.createBlockBuilder(null, EXPECTED_BLOCK_BUILDER_SIZE);
             this.valueSets[channelIndex] = new TypedSet(
                     type,
@@ -211,6 +256,7 @@ public class DynamicFilterSourceOperator
         }
         this.minMaxCollectionLimit = minMaxCollectionLimit;
         minMaxChannels = minMaxChannelsBuilder.build();
+        bloomFilterChannels = bloomFilterChannelsBuilder.build();
         if (!minMaxChannels.isEmpty()) {
             minValues = new Block[channels.size()];
             maxValues = new Block[channels.size()];
@@ -236,6 +282,9 @@ public class DynamicFilterSourceOperator
         verify(!finished, "DynamicFilterSourceOperator: addInput() shouldn't not be called after finish()");
         current = page;
         if (valueSets == null) {
+            if (bloomFilters != null) {
+                updateBloomFilters(page);
+            }
             // the exact predicate became too large.
             if (minValues == null) {
                 // there are too many rows to collect min/max range
@@ -275,12 +324,25 @@ public class DynamicFilterSourceOperator
 
     private void handleTooLargePredicate()
     {
-        // The resulting predicate is too large
-        if (minMaxChannels.isEmpty()) {
-            // allow all probe-side values to be read.
-            dynamicPredicateConsumer.accept(TupleDomain.all());
+        if (!bloomFilterChannels.isEmpty()) {
+            // keep a summary of the values that scales to many more values than the exact predicate
+            bloomFilters = new BlockedBloomFilter[channels.size()];
+            long bloomFiltersSizeInBytes = 0;
+            for (Integer channelIndex : bloomFilterChannels) {
+                bloomFilters[channelIndex] = new BlockedBloomFilter(channels.get(channelIndex).getType(), bloomFilterSizeInBytes);
+                bloomFiltersSizeInBytes += bloomFilters[channelIndex].getRetainedSizeInBytes();
+                Block block = blockBuilders[channelIndex].build();
+                for (int position = 0; position < block.getPositionCount(); ++position) {
+                    if (!block.isNull(position)) {
+                        bloomFilters[channelIndex].add(block, position);
+                    }
+                }
+            }
+            localUserMemoryContext.setBytes(bloomFiltersSizeInBytes);
         }
-        else {
+
+        // The resulting predicate is too large
+        if (!minMaxChannels.isEmpty()) {
             if (minMaxCollectionLimit < 0) {
                 handleMinMaxCollectionLimitExceeded();
             }
@@ -298,10 +360,27 @@ public class DynamicFilterSourceOperator
         blockBuilders = null;
     }
 
+    private void updateBloomFilters(Page page)
+    {
+        for (Integer channelIndex : bloomFilterChannels) {
+            BlockedBloomFilter bloomFilter = bloomFilters[channelIndex];
+            Block block = page.getBlock(channels.get(channelIndex).getIndex());
+            for (int position = 0; position < block.getPositionCount(); ++position) {
+                if (!block.isNull(position)) {
+                    bloomFilter.add(block, position);
+                }
+            }
+            if (!bloomFilter.isSelective()) {
+                // too many values, the filter would let almost every probe-side row through
+                bloomFilters = null;
+                localUserMemoryContext.setBytes(0);
+                return;
+            }
+        }
+    }
+
     private void handleMinMaxCollectionLimitExceeded()
     {
-        // allow all probe-side values to be read.
-        dynamicPredicateConsumer.accept(TupleDomain.all());
         // Drop references to collected values.
         minValues = null;
         maxValues = null;
@@ -370,9 +449,9 @@ public class DynamicFilterSourceOperator
         ImmutableMap.Builder<String, Domain> domainsBuilder = ImmutableMap.builder();
         if (valueSets == null) {
             if (minValues == null) {
-                // there were too many rows to collect min/max range
-                // dynamicPredicateConsumer was notified with 'all' in handleTooLargePredicate if there are no orderable types,
-                // else it was notified with 'all' in handleMinMaxCollectionLimitExceeded
+                // there were too many rows to collect min/max range, or there are no orderable types:
+                // allow all probe-side values to be read, unless the Bloom filters can still filter them.
+                publish(TupleDomain.all());
                 return;
             }
             // valueSets became too large, create TupleDomain from min/max values
@@ -392,7 +471,7 @@ public class DynamicFilterSourceOperator
             }
             minValues = null;
             maxValues = null;
-            dynamicPredicateConsumer.accept(TupleDomain.withColumnDomains(domainsBuilder.build()));
+            publish(TupleDomain.withColumnDomains(domainsBuilder.build()));
             return;
         }
 
@@ -404,7 +483,22 @@ public class DynamicFilterSourceOperator
         }
         valueSets = null;
         blockBuilders = null;
-        dynamicPredicateConsumer.accept(TupleDomain.withColumnDomains(domainsBuilder.build()));
+        publish(TupleDomain.withColumnDomains(domainsBuilder.build()));
+    }
+
+    private void publish(TupleDomain<String> predicate)
+    {
+        // The Bloom filters are only collected once the exact predicate becomes too large,
+        // and are dropped if they become too full.
+        ImmutableMap.Builder<String, BlockedBloomFilter> bloomFiltersBuilder = ImmutableMap.builder();
+        if (bloomFilters != null) {
+            for (Integer channelIndex : bloomFilterChannels) {
+                bloomFiltersBuilder.put(channels.get(channelIndex).getFilterId(), bloomFilters[channelIndex]);
+            }
+            bloomFilters = null;
+            localUserMemoryContext.setBytes(0);
+        }
+        dynamicFilterConsumer.accept(predicate, bloomFiltersBuilder.build());
     }
 
     private Domain convertToDomain(Type type, Block block)
@@ -428,4 +522,11 @@ public class DynamicFilterSourceOperator
     {
         return current == null && finished;
     }
+
+    @Override
+    public void close()
+    {
+        bloomFilters = null;
+        localUserMemoryContext.setBytes(0);
+    }
 }
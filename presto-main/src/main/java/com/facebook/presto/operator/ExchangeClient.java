@@ -40,6 +40,7 @@ import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -89,6 +90,7 @@ public class ExchangeClient
     private final HttpClient httpClient;
     private final DriftClient<ThriftTaskClient> driftClient;
     private final ScheduledExecutorService scheduler;
+    private final Optional<LocalShuffleClientFactory> localShuffleClientFactory;
 
     @GuardedBy("this")
     private boolean noMoreLocations;
@@ -136,6 +138,35 @@ public class ExchangeClient
             ScheduledExecutorService scheduler,
             LocalMemoryContext systemMemoryContext,
             Executor pageBufferClientCallbackExecutor)
+    {
+        this(
+                bufferCapacity,
+                maxResponseSize,
+                concurrentRequestMultiplier,
+                maxErrorDuration,
+                acknowledgePages,
+                responseSizeExponentialMovingAverageDecayingAlpha,
+                httpClient,
+                driftClient,
+                scheduler,
+                systemMemoryContext,
+                pageBufferClientCallbackExecutor,
+                Optional.empty());
+    }
+
+    public ExchangeClient(
+            DataSize bufferCapacity,
+            DataSize maxResponseSize,
+            int concurrentRequestMultiplier,
+            Duration maxErrorDuration,
+            boolean acknowledgePages,
+            double responseSizeExponentialMovingAverageDecayingAlpha,
+            HttpClient httpClient,
+            DriftClient<ThriftTaskClient> driftClient,
+            ScheduledExecutorService scheduler,
+            LocalMemoryContext systemMemoryContext,
+            Executor pageBufferClientCallbackExecutor,
+            Optional<LocalShuffleClientFactory> localShuffleClientFactory)
     {
         checkArgument(responseSizeExponentialMovingAverageDecayingAlpha >= 0.0 && responseSizeExponentialMovingAverageDecayingAlpha <= 1.0, "responseSizeExponentialMovingAverageDecayingAlpha must be between 0 and 1: %s", responseSizeExponentialMovingAverageDecayingAlpha);
         this.bufferCapacity = bufferCapacity.toBytes();
@@ -150,6 +181,7 @@ public class ExchangeClient
         this.maxBufferRetainedSizeInBytes = Long.MIN_VALUE;
         this.pageBufferClientCallbackExecutor = requireNonNull(pageBufferClientCallbackExecutor, "pageBufferClientCallbackExecutor is null");
         this.responseSizeExponentialMovingAverage = new ExponentialMovingAverage(responseSizeExponentialMovingAverageDecayingAlpha, DEFAULT_MAX_PAGE_SIZE_IN_BYTES);
+        this.localShuffleClientFactory = requireNonNull(localShuffleClientFactory, "localShuffleClientFactory is null");
     }
 
     public ExchangeClientStatus getStatus()
@@ -193,18 +225,7 @@ public class ExchangeClient
 
         checkState(!noMoreLocations, "No more locations already set");
 
-        RpcShuffleClient resultClient;
-        switch (location.getScheme().toLowerCase(Locale.ENGLISH)) {
-            case "http":
-            case "https":
-                resultClient = new HttpRpcShuffleClient(httpClient, location);
-                break;
-            case "thrift":
-                resultClient = new ThriftRpcShuffleClient(driftClient, location);
-                break;
-            default:
-                throw new PrestoException(GENERIC_INTERNAL_ERROR, "unsupported task result client scheme " + location.getScheme());
-        }
+        RpcShuffleClient resultClient = createShuffleClient(location);
 
         PageBufferClient client = new PageBufferClient(
                 resultClient,
@@ -221,6 +242,25 @@ public class ExchangeClient
         scheduleRequestIfNecessary();
     }
 
+    private RpcShuffleClient createShuffleClient(URI location)
+    {
+        // results of a task on this node are read straight from its output buffer
+        Optional<RpcShuffleClient> localClient = localShuffleClientFactory.flatMap(factory -> factory.create(location));
+        if (localClient.isPresent()) {
+            return localClient.get();
+        }
+
+        switch (location.getScheme().toLowerCase(Locale.ENGLISH)) {
+            case "http":
+            case "https":
+                return new HttpRpcShuffleClient(httpClient, location);
+            case "thrift":
+                return new ThriftRpcShuffleClient(driftClient, location);
+            default:
+                throw new PrestoException(GENERIC_INTERNAL_ERROR, "unsupported task result client scheme " + location.getScheme());
+        }
+    }
+
     public synchronized void removeRemoteSource(TaskId sourceTaskId)
     {
         requireNonNull(sourceTaskId, "sourceTaskId is null");
@@ -14,6 +14,7 @@
 package com.facebook.presto.operator;
 
 import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
 import com.facebook.airlift.configuration.DefunctConfig;
 import com.facebook.airlift.http.client.HttpClientConfig;
 import io.airlift.units.DataSize;
@@ -40,6 +41,7 @@ public class ExchangeClientConfig
     private int pageBufferClientMaxCallbackThreads = 25;
     private boolean acknowledgePages = true;
     private double responseSizeExponentialMovingAverageDecayingAlpha = 0.1;
+    private boolean localTransportEnabled;
 
     @NotNull
     public DataSize getMaxBufferSize()
@@ -171,4 +173,17 @@ public class ExchangeClientConfig
     {
         return responseSizeExponentialMovingAverageDecayingAlpha;
     }
+
+    public boolean isLocalTransportEnabled()
+    {
+        return localTransportEnabled;
+    }
+
+    @Config("exchange.local-transport-enabled")
+    @ConfigDescription("Read results of tasks on the same node directly from their output buffers instead of over HTTP")
+    public ExchangeClientConfig setLocalTransportEnabled(boolean localTransportEnabled)
+    {
+        this.localTransportEnabled = localTransportEnabled;
+        return this;
+    }
 }
@@ -16,7 +16,9 @@ package com.facebook.presto.operator;
 import com.facebook.airlift.concurrent.ThreadPoolExecutorMBean;
 import com.facebook.airlift.http.client.HttpClient;
 import com.facebook.drift.client.DriftClient;
+import com.facebook.presto.execution.TaskManager;
 import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.metadata.InternalNodeManager;
 import com.facebook.presto.server.thrift.ThriftTaskClient;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
@@ -25,7 +27,9 @@ import org.weakref.jmx.Nested;
 
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.inject.Provider;
 
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -50,13 +54,40 @@ public class ExchangeClientFactory
     private final ScheduledExecutorService scheduler;
     private final ThreadPoolExecutorMBean executorMBean;
     private final ExecutorService pageBufferClientCallbackExecutor;
+    private final Optional<LocalShuffleClientFactory> localShuffleClientFactory;
+
+    public ExchangeClientFactory(
+            ExchangeClientConfig config,
+            HttpClient httpClient,
+            DriftClient<ThriftTaskClient> driftClient,
+            ScheduledExecutorService scheduler)
+    {
+        this(config, httpClient, driftClient, scheduler, Optional.empty());
+    }
 
     @Inject
     public ExchangeClientFactory(
             ExchangeClientConfig config,
             @ForExchange HttpClient httpClient,
             @ForExchange DriftClient<ThriftTaskClient> driftClient,
-            @ForExchange ScheduledExecutorService scheduler)
+            @ForExchange ScheduledExecutorService scheduler,
+            Provider<TaskManager> taskManager,
+            InternalNodeManager nodeManager)
+    {
+        this(
+                config,
+                httpClient,
+                driftClient,
+                scheduler,
+                config.isLocalTransportEnabled() ? Optional.of(new LocalShuffleClientFactory(taskManager, nodeManager, scheduler)) : Optional.empty());
+    }
+
+    private ExchangeClientFactory(
+            ExchangeClientConfig config,
+            HttpClient httpClient,
+            DriftClient<ThriftTaskClient> driftClient,
+            ScheduledExecutorService scheduler,
+            Optional<LocalShuffleClientFactory> localShuffleClientFactory)
     {
         this(
                 config.getMaxBufferSize(),
@@ -68,7 +99,8 @@ public class ExchangeClientFactory
                 config.getResponseSizeExponentialMovingAverageDecayingAlpha(),
                 httpClient,
                 driftClient,
-                scheduler);
+                scheduler,
+                localShuffleClientFactory);
     }
 
     public ExchangeClientFactory(
@@ -82,6 +114,33 @@ public class ExchangeClientFactory
             HttpClient httpClient,
             DriftClient<ThriftTaskClient> driftClient,
             ScheduledExecutorService scheduler)
+    {
+        this(
+                maxBufferedBytes,
+                maxResponseSize,
+                concurrentRequestMultiplier,
+                maxErrorDuration,
+                acknowledgePages,
+                pageBufferClientMaxCallbackThreads,
+                responseSizeExponentialMovingAverageDecayingAlpha,
+                httpClient,
+                driftClient,
+                scheduler,
+                Optional.empty());
+    }
+
+    private ExchangeClientFactory(
+            DataSize maxBufferedBytes,
+            DataSize maxResponseSize,
+            int concurrentRequestMultiplier,
+            Duration maxErrorDuration,
+            boolean acknowledgePages,
+            int pageBufferClientMaxCallbackThreads,
+            double responseSizeExponentialMovingAverageDecayingAlpha,
+            HttpClient httpClient,
+            DriftClient<ThriftTaskClient> driftClient,
+            ScheduledExecutorService scheduler,
+            Optional<LocalShuffleClientFactory> localShuffleClientFactory)
     {
         this.maxBufferedBytes = requireNonNull(maxBufferedBytes, "maxBufferedBytes is null");
         this.concurrentRequestMultiplier = concurrentRequestMultiplier;
@@ -102,6 +161,7 @@ public class ExchangeClientFactory
         this.executorMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) pageBufferClientCallbackExecutor);
 
         this.responseSizeExponentialMovingAverageDecayingAlpha = responseSizeExponentialMovingAverageDecayingAlpha;
+        this.localShuffleClientFactory = requireNonNull(localShuffleClientFactory, "localShuffleClientFactory is null");
 
         checkArgument(maxBufferedBytes.toBytes() > 0, "maxBufferSize must be at least 1 byte: %s", maxBufferedBytes);
         checkArgument(maxResponseSize.toBytes() > 0, "maxResponseSize must be at least 1 byte: %s", maxResponseSize);
@@ -136,6 +196,7 @@ public class ExchangeClientFactory
                 driftClient,
                 scheduler,
                 systemMemoryContext,
-                pageBufferClientCallbackExecutor);
+                pageBufferClientCallbackExecutor,
+                localShuffleClientFactory);
     }
 }
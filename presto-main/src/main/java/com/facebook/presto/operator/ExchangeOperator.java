@@ -29,6 +29,7 @@ import java.io.Closeable;
 import java.util.Optional;
 import java.util.function.Supplier;
 
+import static com.facebook.presto.execution.buffer.PageCodecRuntimeStats.recordPageCodec;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
@@ -186,6 +187,7 @@ public class ExchangeOperator
         }
 
         operatorContext.recordRawInput(page.getSizeInBytes(), page.getPositionCount());
+        recordPageCodec(operatorContext.getRuntimeStats(), page);
 
         Page deserializedPage = serde.deserialize(page);
         operatorContext.recordProcessedInput(deserializedPage.getSizeInBytes(), page.getPositionCount());
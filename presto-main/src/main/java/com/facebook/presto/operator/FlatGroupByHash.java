@@ -0,0 +1,556 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.array.LongBigArray;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.AbstractLongType;
+import com.facebook.presto.common.type.BigintType;
+import com.facebook.presto.common.type.DateType;
+import com.facebook.presto.common.type.IntegerType;
+import com.facebook.presto.common.type.SmallintType;
+import com.facebook.presto.common.type.TimestampType;
+import com.facebook.presto.common.type.TinyintType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.function.aggregation.GroupByIdBlock;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INSUFFICIENT_RESOURCES;
+import static com.facebook.presto.type.TypeUtils.NULL_HASH_CODE;
+import static com.facebook.presto.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static it.unimi.dsi.fastutil.HashCommon.arraySize;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Group by hash for keys of integral types that copies the keys of each group into a flat array
+ * of longs instead of keeping pointers into the input pages. The open addressed table only holds
+ * the group id and a tag of the hash of each slot, so most probes for a missing key never touch
+ * the keys, and a probe for a present key reads one run of consecutive longs.
+ */
+public class FlatGroupByHash
+        implements GroupByHash
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(FlatGroupByHash.class).instanceSize();
+
+    private static final float FILL_RATIO = 0.75f;
+    // the nulls of a group are a bit mask in one long
+    private static final int MAX_KEY_COUNT = Long.SIZE;
+
+    private final Type[] hashTypes;
+    private final int[] hashChannels;
+    private final Optional<Integer> inputHashChannel;
+    private final List<Type> types;
+    private final int keyCount;
+    // the keys of a group followed by the null mask of the keys
+    private final int recordSize;
+
+    private int hashCapacity;
+    private int maxFill;
+    private int mask;
+
+    // the hash table from hash positions to groupIds and to the low byte of the raw hash of the group
+    private int[] groupIdsByHash;
+    private byte[] hashTagsByHash;
+
+    // the keys of the groups, indexed by groupId * recordSize
+    private final LongBigArray records;
+
+    // the keys of the current row
+    private final long[] rowKeys;
+
+    private int nextGroupId;
+    private long hashCollisions;
+    private double expectedHashCollisions;
+
+    // reserve enough memory before rehash
+    private final UpdateMemory updateMemory;
+    private long preallocatedMemoryInBytes;
+    private long currentPageSizeInBytes;
+
+    public FlatGroupByHash(List<? extends Type> hashTypes, int[] hashChannels, Optional<Integer> inputHashChannel, int expectedSize, UpdateMemory updateMemory)
+    {
+        requireNonNull(hashTypes, "hashTypes is null");
+        requireNonNull(hashChannels, "hashChannels is null");
+        checkArgument(hashTypes.size() == hashChannels.length, "hashTypes and hashChannels have different sizes");
+        checkArgument(isSupportedTypes(hashTypes), "Unsupported types: %s", hashTypes);
+        checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
+
+        this.hashTypes = hashTypes.toArray(new Type[0]);
+        this.hashChannels = hashChannels.clone();
+        this.inputHashChannel = requireNonNull(inputHashChannel, "inputHashChannel is null");
+        this.types = inputHashChannel.isPresent() ? ImmutableList.copyOf(Iterables.concat(hashTypes, ImmutableList.of(BIGINT))) : ImmutableList.copyOf(hashTypes);
+        this.keyCount = hashChannels.length;
+        this.recordSize = keyCount + 1;
+
+        hashCapacity = arraySize(expectedSize, FILL_RATIO);
+
+        maxFill = calculateMaxFill(hashCapacity);
+        mask = hashCapacity - 1;
+        groupIdsByHash = new int[hashCapacity];
+        Arrays.fill(groupIdsByHash, -1);
+        hashTagsByHash = new byte[hashCapacity];
+
+        records = new LongBigArray();
+        records.ensureCapacity((long) maxFill * recordSize);
+        rowKeys = new long[keyCount];
+
+        // This interface is used for actively reserving memory (push model) for rehash.
+        // The caller can also query memory usage on this object (pull model)
+        this.updateMemory = requireNonNull(updateMemory, "updateMemory is null");
+    }
+
+    public static boolean isSupportedTypes(List<? extends Type> types)
+    {
+        if (types.isEmpty() || types.size() > MAX_KEY_COUNT) {
+            return false;
+        }
+        // these types are stored as a long with the value of the key, and hash the same as that long
+        for (Type type : types) {
+            if (!(type instanceof BigintType ||
+                    type instanceof IntegerType ||
+                    type instanceof SmallintType ||
+                    type instanceof TinyintType ||
+                    type instanceof DateType ||
+                    type instanceof TimestampType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return INSTANCE_SIZE +
+                sizeOf(groupIdsByHash) +
+                sizeOf(hashTagsByHash) +
+                records.sizeOf() +
+                sizeOf(rowKeys) +
+                preallocatedMemoryInBytes;
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions + estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    @Override
+    public int getGroupCount()
+    {
+        return nextGroupId;
+    }
+
+    @Override
+    public void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        checkArgument(groupId >= 0, "groupId is negative");
+        long recordOffset = (long) groupId * recordSize;
+        long nulls = records.get(recordOffset + keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + i);
+            if ((nulls & (1L << i)) != 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                hashTypes[i].writeLong(blockBuilder, records.get(recordOffset + i));
+            }
+        }
+
+        if (inputHashChannel.isPresent()) {
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(outputChannelOffset + keyCount), getRawHash(groupId));
+        }
+    }
+
+    @Override
+    public Work<?> addPage(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new AddPageWork(page);
+    }
+
+    @Override
+    public List<Page> getBufferedPages()
+    {
+        ImmutableList.Builder<Page> inputPages = ImmutableList.builder();
+        PageBuilder pageBuilder = new PageBuilder(ImmutableList.copyOf(hashTypes));
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            pageBuilder.declarePosition();
+            long recordOffset = (long) groupId * recordSize;
+            long nulls = records.get(recordOffset + keyCount);
+            for (int i = 0; i < keyCount; i++) {
+                if ((nulls & (1L << i)) != 0) {
+                    pageBuilder.getBlockBuilder(i).appendNull();
+                }
+                else {
+                    hashTypes[i].writeLong(pageBuilder.getBlockBuilder(i), records.get(recordOffset + i));
+                }
+            }
+            if (pageBuilder.isFull()) {
+                inputPages.add(pageBuilder.build());
+                pageBuilder.reset();
+            }
+        }
+        if (!pageBuilder.isEmpty()) {
+            inputPages.add(pageBuilder.build());
+        }
+        return inputPages.build();
+    }
+
+    @Override
+    public Work<GroupByIdBlock> getGroupIds(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new GetGroupIdsWork(page);
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels)
+    {
+        long nulls = readRow(getBlocks(page, hashChannels), position);
+        return findGroupId(hashRow(nulls), nulls) >= 0;
+    }
+
+    @Override
+    public long getRawHash(int groupId)
+    {
+        long recordOffset = (long) groupId * recordSize;
+        long nulls = records.get(recordOffset + keyCount);
+        long result = 0;
+        for (int i = 0; i < keyCount; i++) {
+            long hash = (nulls & (1L << i)) != 0 ? NULL_HASH_CODE : AbstractLongType.hash(records.get(recordOffset + i));
+            result = 31 * result + hash;
+        }
+        return result;
+    }
+
+    @VisibleForTesting
+    @Override
+    public int getCapacity()
+    {
+        return hashCapacity;
+    }
+
+    private static Block[] getBlocks(Page page, int[] channels)
+    {
+        Block[] blocks = new Block[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            blocks[i] = page.getBlock(channels[i]);
+        }
+        return blocks;
+    }
+
+    /**
+     * Reads the keys of the row into rowKeys, and returns the null mask of the keys.
+     */
+    private long readRow(Block[] blocks, int position)
+    {
+        long nulls = 0;
+        for (int i = 0; i < keyCount; i++) {
+            Block block = blocks[i];
+            if (block.isNull(position)) {
+                nulls |= 1L << i;
+                rowKeys[i] = 0;
+            }
+            else {
+                rowKeys[i] = hashTypes[i].getLong(block, position);
+            }
+        }
+        return nulls;
+    }
+
+    private long hashRow(long nulls)
+    {
+        // must match InterpretedHashGenerator and the precomputed hash channel, which combine the hashes of the keys with combine_hash.
+        // The table always hashes the keys itself, so it never depends on a hash computed elsewhere
+        long result = 0;
+        for (int i = 0; i < keyCount; i++) {
+            long hash = (nulls & (1L << i)) != 0 ? NULL_HASH_CODE : AbstractLongType.hash(rowKeys[i]);
+            result = 31 * result + hash;
+        }
+        return result;
+    }
+
+    private boolean rowEquals(int groupId, long nulls)
+    {
+        long recordOffset = (long) groupId * recordSize;
+        if (records.get(recordOffset + keyCount) != nulls) {
+            return false;
+        }
+        for (int i = 0; i < keyCount; i++) {
+            if (records.get(recordOffset + i) != rowKeys[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int findGroupId(long rawHash, long nulls)
+    {
+        int hashPosition = getHashPosition(rawHash, mask);
+        byte hashTag = (byte) rawHash;
+
+        // look for a slot containing this key
+        while (groupIdsByHash[hashPosition] != -1) {
+            if (hashTagsByHash[hashPosition] == hashTag && rowEquals(groupIdsByHash[hashPosition], nulls)) {
+                return groupIdsByHash[hashPosition];
+            }
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int putIfAbsent(Block[] blocks, int position)
+    {
+        long nulls = readRow(blocks, position);
+        long rawHash = hashRow(nulls);
+        int hashPosition = getHashPosition(rawHash, mask);
+        byte hashTag = (byte) rawHash;
+
+        // look for an empty slot or a slot containing this key
+        while (true) {
+            int groupId = groupIdsByHash[hashPosition];
+            if (groupId == -1) {
+                break;
+            }
+
+            if (hashTagsByHash[hashPosition] == hashTag && rowEquals(groupId, nulls)) {
+                return groupId;
+            }
+
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+            hashCollisions++;
+        }
+
+        return addNewGroup(hashPosition, hashTag, nulls);
+    }
+
+    private int addNewGroup(int hashPosition, byte hashTag, long nulls)
+    {
+        // record group id in hash
+        int groupId = nextGroupId++;
+
+        long recordOffset = (long) groupId * recordSize;
+        for (int i = 0; i < keyCount; i++) {
+            records.set(recordOffset + i, rowKeys[i]);
+        }
+        records.set(recordOffset + keyCount, nulls);
+        groupIdsByHash[hashPosition] = groupId;
+        hashTagsByHash[hashPosition] = hashTag;
+
+        // increase capacity, if necessary
+        if (needRehash()) {
+            tryRehash();
+        }
+        return groupId;
+    }
+
+    private boolean tryRehash()
+    {
+        long newCapacityLong = hashCapacity * 2L;
+        if (newCapacityLong > Integer.MAX_VALUE) {
+            throw new PrestoException(GENERIC_INSUFFICIENT_RESOURCES, "Size of hash table cannot exceed 1 billion entries");
+        }
+        int newCapacity = toIntExact(newCapacityLong);
+
+        // An estimate of how much extra memory is needed before we can go ahead and expand the hash table.
+        // This includes the new capacity for groupIdsByHash and hashTagsByHash, the records of the new groups, as well as the size of the current page
+        preallocatedMemoryInBytes = newCapacity * (long) (Integer.BYTES + Byte.BYTES) +
+                (calculateMaxFill(newCapacity) - maxFill) * (long) recordSize * Long.BYTES +
+                currentPageSizeInBytes;
+        if (!updateMemory.update()) {
+            // reserved memory but has exceeded the limit
+            return false;
+        }
+
+        expectedHashCollisions += estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+
+        int newMask = newCapacity - 1;
+        int[] newGroupIdsByHash = new int[newCapacity];
+        Arrays.fill(newGroupIdsByHash, -1);
+        byte[] newHashTagsByHash = new byte[newCapacity];
+
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            long rawHash = getRawHash(groupId);
+
+            // find an empty slot for the group
+            int hashPosition = getHashPosition(rawHash, newMask);
+            while (newGroupIdsByHash[hashPosition] != -1) {
+                hashPosition = (hashPosition + 1) & newMask;
+                hashCollisions++;
+            }
+
+            // record the mapping
+            newGroupIdsByHash[hashPosition] = groupId;
+            newHashTagsByHash[hashPosition] = (byte) rawHash;
+        }
+
+        mask = newMask;
+        hashCapacity = newCapacity;
+        maxFill = calculateMaxFill(hashCapacity);
+        groupIdsByHash = newGroupIdsByHash;
+        hashTagsByHash = newHashTagsByHash;
+
+        records.ensureCapacity((long) maxFill * recordSize);
+
+        preallocatedMemoryInBytes = 0;
+        // release temporary memory reservation
+        updateMemory.update();
+        return true;
+    }
+
+    private boolean needRehash()
+    {
+        return nextGroupId >= maxFill;
+    }
+
+    private static int getHashPosition(long rawHash, int mask)
+    {
+        return (int) (murmurHash3(rawHash) & mask);
+    }
+
+    private static int calculateMaxFill(int hashSize)
+    {
+        checkArgument(hashSize > 0, "hashSize must be greater than 0");
+        int maxFill = (int) Math.ceil(hashSize * FILL_RATIO);
+        if (maxFill == hashSize) {
+            maxFill--;
+        }
+        checkArgument(hashSize > maxFill, "hashSize must be larger than maxFill");
+        return maxFill;
+    }
+
+    private class AddPageWork
+            implements Work<Void>
+    {
+        private final Block[] blocks;
+        private final int positionCount;
+
+        private int lastPosition;
+
+        public AddPageWork(Page page)
+        {
+            this.blocks = getBlocks(requireNonNull(page, "page is null"), hashChannels);
+            this.positionCount = page.getPositionCount();
+        }
+
+        @Override
+        public boolean process()
+        {
+            checkState(lastPosition <= positionCount, "position count out of bound");
+
+            // needRehash() == true indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                // get the group for the current row
+                putIfAbsent(blocks, lastPosition);
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class GetGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final BlockBuilder blockBuilder;
+        private final Block[] blocks;
+        private final int positionCount;
+
+        private boolean finished;
+        private int lastPosition;
+
+        public GetGroupIdsWork(Page page)
+        {
+            this.blocks = getBlocks(requireNonNull(page, "page is null"), hashChannels);
+            this.positionCount = page.getPositionCount();
+            // we know the exact size required for the block
+            this.blockBuilder = BIGINT.createFixedSizeBlockBuilder(positionCount);
+        }
+
+        @Override
+        public boolean process()
+        {
+            checkState(lastPosition <= positionCount, "position count out of bound");
+            checkState(!finished);
+
+            // needRehash() == true indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                // output the group id for this row
+                BIGINT.writeLong(blockBuilder, putIfAbsent(blocks, lastPosition));
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(lastPosition == positionCount, "process has not yet finished");
+            checkState(!finished, "result has produced");
+            finished = true;
+            return new GroupByIdBlock(nextGroupId, blockBuilder.build());
+        }
+    }
+}
@@ -16,6 +16,7 @@ package com.facebook.presto.operator;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.PageBuilder;
 import com.facebook.presto.common.array.ObjectBigArray;
+import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.spi.function.aggregation.GroupByIdBlock;
@@ -33,6 +34,7 @@ import org.openjdk.jol.info.ClassLayout;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.PrimitiveIterator;
 import java.util.stream.IntStream;
 
@@ -159,6 +161,23 @@ public class InMemoryGroupedTopNBuilder
         return memoryContext.setBytes(getEstimatedSizeInBytes());
     }
 
+    /**
+     * Returns the value of the channel in the last of the top N rows of the group as a single position block,
+     * or empty if the group holds fewer than N rows.
+     */
+    public Optional<Block> getLastRowValue(int groupId, int channel)
+    {
+        if (groupedRows.getCapacity() <= groupId) {
+            return Optional.empty();
+        }
+        RowHeap rows = groupedRows.get(groupId);
+        if (rows == null || rows.size() < topN) {
+            return Optional.empty();
+        }
+        Row lastRow = rows.first();
+        return Optional.of(pageReferences.get(lastRow.getPageId()).getPage().getBlock(channel).getRegion(lastRow.getPosition(), 1));
+    }
+
     @VisibleForTesting
     List<Page> getBufferedPages()
     {
@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.execution.TaskManager;
+import com.facebook.presto.metadata.InternalNode;
+import com.facebook.presto.metadata.InternalNodeManager;
+
+import javax.inject.Provider;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Creates a {@link LocalRpcShuffleClient} for task result locations that resolve to the current node.
+ */
+public class LocalShuffleClientFactory
+{
+    // the task manager depends on the exchange client factory through the local execution planner
+    private final Provider<TaskManager> taskManager;
+    private final InternalNodeManager nodeManager;
+    private final ScheduledExecutorService timeoutExecutor;
+
+    public LocalShuffleClientFactory(Provider<TaskManager> taskManager, InternalNodeManager nodeManager, ScheduledExecutorService timeoutExecutor)
+    {
+        this.taskManager = requireNonNull(taskManager, "taskManager is null");
+        this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
+        this.timeoutExecutor = requireNonNull(timeoutExecutor, "timeoutExecutor is null");
+    }
+
+    public Optional<RpcShuffleClient> create(URI location)
+    {
+        if (!isCurrentNode(location)) {
+            return Optional.empty();
+        }
+        return Optional.of(new LocalRpcShuffleClient(taskManager.get(), location, timeoutExecutor));
+    }
+
+    private boolean isCurrentNode(URI location)
+    {
+        InternalNode currentNode = nodeManager.getCurrentNode();
+        URI internalUri = currentNode.getInternalUri();
+        if (location.getHost() == null || !location.getHost().equalsIgnoreCase(internalUri.getHost())) {
+            return false;
+        }
+
+        String scheme = location.getScheme().toLowerCase(Locale.ENGLISH);
+        if (scheme.equals("thrift")) {
+            OptionalInt thriftPort = currentNode.getThriftPort();
+            return thriftPort.isPresent() && thriftPort.getAsInt() == location.getPort();
+        }
+        return scheme.equalsIgnoreCase(internalUri.getScheme()) && location.getPort() == internalUri.getPort();
+    }
+}
@@ -17,24 +17,42 @@ import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.operator.exchange.LocalPartitionGenerator;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spiller.PartitioningSpiller;
+import com.facebook.presto.spiller.PartitioningSpillerFactory;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.operator.SpillingUtils.checkSpillSucceeded;
+import static com.facebook.presto.spiller.PartitioningSpillerFactory.unsupportedPartitioningSpillerFactory;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.transformAsync;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.util.Objects.requireNonNull;
 
 public class MarkDistinctOperator
         implements Operator
 {
+    // number of partitions the input is split into once the operator has spilled
+    private static final int SPILL_PARTITION_COUNT = 16;
+
     public static class MarkDistinctOperatorFactory
             implements OperatorFactory
     {
@@ -44,6 +62,8 @@ public class MarkDistinctOperator
         private final List<Integer> markDistinctChannels;
         private final List<Type> types;
         private final JoinCompiler joinCompiler;
+        private final boolean spillEnabled;
+        private final PartitioningSpillerFactory partitioningSpillerFactory;
         private boolean closed;
 
         public MarkDistinctOperatorFactory(
@@ -53,6 +73,19 @@ public class MarkDistinctOperator
                 Collection<Integer> markDistinctChannels,
                 Optional<Integer> hashChannel,
                 JoinCompiler joinCompiler)
+        {
+            this(operatorId, planNodeId, sourceTypes, markDistinctChannels, hashChannel, joinCompiler, false, unsupportedPartitioningSpillerFactory());
+        }
+
+        public MarkDistinctOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> sourceTypes,
+                Collection<Integer> markDistinctChannels,
+                Optional<Integer> hashChannel,
+                JoinCompiler joinCompiler,
+                boolean spillEnabled,
+                PartitioningSpillerFactory partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -60,6 +93,8 @@ public class MarkDistinctOperator
             checkArgument(!markDistinctChannels.isEmpty(), "markDistinctChannels is empty");
             this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+            this.spillEnabled = spillEnabled;
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
             this.types = ImmutableList.<Type>builder()
                     .addAll(sourceTypes)
                     .add(BOOLEAN)
@@ -71,7 +106,7 @@ public class MarkDistinctOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, MarkDistinctOperator.class.getSimpleName());
-            return new MarkDistinctOperator(operatorContext, types, markDistinctChannels, hashChannel, joinCompiler);
+            return new MarkDistinctOperator(operatorContext, types, markDistinctChannels, hashChannel, joinCompiler, spillEnabled, partitioningSpillerFactory);
         }
 
         @Override
@@ -83,13 +118,23 @@ public class MarkDistinctOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new MarkDistinctOperatorFactory(operatorId, planNodeId, types.subList(0, types.size() - 1), markDistinctChannels, hashChannel, joinCompiler);
+            return new MarkDistinctOperatorFactory(operatorId, planNodeId, types.subList(0, types.size() - 1), markDistinctChannels, hashChannel, joinCompiler, spillEnabled, partitioningSpillerFactory);
         }
     }
 
     private final OperatorContext operatorContext;
-    private final MarkDistinctHash markDistinctHash;
     private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
+    private final List<Type> sourceTypes;
+    private final List<Type> distinctTypes;
+    private final int[] markDistinctChannels;
+    private final Optional<Integer> hashChannel;
+    private final JoinCompiler joinCompiler;
+    private final boolean spillEnabled;
+    private final PartitioningSpillerFactory partitioningSpillerFactory;
+
+    // distinct values seen so far, or null once they have been spilled
+    private MarkDistinctHash markDistinctHash;
 
     private Page inputPage;
     private boolean finishing;
@@ -97,19 +142,55 @@ public class MarkDistinctOperator
     // for yield when memory is not available
     private Work<Block> unfinishedWork;
 
+    // Once the operator spills, the distinct values seen so far are written to distinctValuesSpiller,
+    // and all remaining input is written to inputSpiller, partitioned the same way. When the input is
+    // finished the partitions are marked one at a time, so only one partition has to fit in memory.
+    // The operator does not go back to marking in memory after spilling, even if memory becomes
+    // available again: a value of a later page may have been seen in any page written to disk.
+    private final Closer closer = Closer.create();
+    private Optional<PartitioningSpiller> distinctValuesSpiller = Optional.empty();
+    private Optional<PartitioningSpiller> inputSpiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = immediateFuture(null);
+    private int nextUnspillPartition;
+    private MarkDistinctHash partitionHash;
+    private Iterator<Page> unspilledDistinctValues = Collections.emptyIterator();
+    private Iterator<Page> unspilledInput = Collections.emptyIterator();
+    private boolean unspillFinished;
+
     public MarkDistinctOperator(OperatorContext operatorContext, List<Type> types, List<Integer> markDistinctChannels, Optional<Integer> hashChannel, JoinCompiler joinCompiler)
+    {
+        this(operatorContext, types, markDistinctChannels, hashChannel, joinCompiler, false, unsupportedPartitioningSpillerFactory());
+    }
+
+    public MarkDistinctOperator(
+            OperatorContext operatorContext,
+            List<Type> types,
+            List<Integer> markDistinctChannels,
+            Optional<Integer> hashChannel,
+            JoinCompiler joinCompiler,
+            boolean spillEnabled,
+            PartitioningSpillerFactory partitioningSpillerFactory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
 
-        requireNonNull(hashChannel, "hashChannel is null");
+        requireNonNull(types, "types is null");
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
         requireNonNull(markDistinctChannels, "markDistinctChannels is null");
 
         ImmutableList.Builder<Type> distinctTypes = ImmutableList.builder();
         for (int channel : markDistinctChannels) {
             distinctTypes.add(types.get(channel));
         }
-        this.markDistinctHash = new MarkDistinctHash(operatorContext.getSession(), distinctTypes.build(), Ints.toArray(markDistinctChannels), hashChannel, joinCompiler, this::updateMemoryReservation);
+        // the factory passes the output types, which end with the mark
+        this.sourceTypes = ImmutableList.copyOf(types.subList(0, types.size() - 1));
+        this.distinctTypes = distinctTypes.build();
+        this.markDistinctChannels = Ints.toArray(markDistinctChannels);
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+        this.spillEnabled = spillEnabled;
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
         this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
+        this.markDistinctHash = new MarkDistinctHash(operatorContext.getSession(), this.distinctTypes, this.markDistinctChannels, hashChannel, joinCompiler, this::updateMemoryReservation);
     }
 
     @Override
@@ -127,13 +208,19 @@ public class MarkDistinctOperator
     @Override
     public boolean isFinished()
     {
-        return finishing && !hasUnfinishedInput();
+        return finishing && !hasUnfinishedInput() && spillInProgress.isDone() && (!isSpilled() || unspillFinished);
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return spillInProgress.isDone() ? NOT_BLOCKED : spillInProgress;
     }
 
     @Override
     public boolean needsInput()
     {
-        return !finishing && !hasUnfinishedInput();
+        return !finishing && !hasUnfinishedInput() && spillInProgress.isDone();
     }
 
     @Override
@@ -141,6 +228,13 @@ public class MarkDistinctOperator
     {
         requireNonNull(page, "page is null");
         checkState(needsInput());
+        checkSpillSucceeded(spillInProgress);
+
+        if (isSpilled()) {
+            // the distinct values of the page may already be on disk, so the page is marked once all input is read back
+            spillInProgress = inputSpiller.get().partitionAndSpill(page, partition -> true).getSpillingFuture();
+            return;
+        }
 
         inputPage = page;
 
@@ -151,16 +245,27 @@ public class MarkDistinctOperator
     @Override
     public Page getOutput()
     {
-        if (unfinishedWork == null) {
+        if (!spillInProgress.isDone()) {
             return null;
         }
+        checkSpillSucceeded(spillInProgress);
+
+        if (unfinishedWork == null) {
+            if (!finishing || !isSpilled() || unspillFinished) {
+                return null;
+            }
+            startUnspillWork();
+            if (unfinishedWork == null) {
+                return null;
+            }
+        }
 
         if (!unfinishedWork.process()) {
             return null;
         }
 
-        // add the new boolean column to the page
-        Page outputPage = inputPage.appendColumn(unfinishedWork.getResult());
+        // add the new boolean column to the page; distinct values read back from disk produce no output
+        Page outputPage = inputPage == null ? null : inputPage.appendColumn(unfinishedWork.getResult());
 
         unfinishedWork = null;
         inputPage = null;
@@ -169,6 +274,149 @@ public class MarkDistinctOperator
         return outputPage;
     }
 
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        if (!spillEnabled || markDistinctHash == null) {
+            return NOT_BLOCKED;
+        }
+        checkState(spillInProgress.isDone(), "Previous spill still in progress");
+        checkSpillSucceeded(spillInProgress);
+
+        if (!finishing || hasUnfinishedInput()) {
+            getDistinctValuesSpiller();
+            getInputSpiller();
+            // The values added to the hash by a partially marked page are not spilled. The page
+            // is written to disk with the rest of the input, and marked again once it is read back.
+            spillInProgress = spillDistinctValues(markDistinctHash.getDistinctValues());
+            if (inputPage != null) {
+                Page page = inputPage;
+                inputPage = null;
+                unfinishedWork = null;
+                spillInProgress = transformAsync(
+                        spillInProgress,
+                        ignored -> inputSpiller.get().partitionAndSpill(page, partition -> true).getSpillingFuture(),
+                        directExecutor());
+            }
+        }
+        // once all input is marked the distinct values are not needed anymore
+        markDistinctHash = null;
+        return spillInProgress;
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        checkSpillSucceeded(spillInProgress);
+        updateMemoryReservation();
+    }
+
+    @Override
+    public void close()
+    {
+        markDistinctHash = null;
+        partitionHash = null;
+        localUserMemoryContext.setBytes(0);
+        localRevocableMemoryContext.setBytes(0);
+        try {
+            closer.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ListenableFuture<?> spillDistinctValues(Iterator<Page> distinctValues)
+    {
+        while (distinctValues.hasNext()) {
+            // a partition must not be flushed again while its previous write is in progress, so the next page is spilled only once the current one is written
+            ListenableFuture<?> spillFuture = distinctValuesSpiller.get().partitionAndSpill(distinctValues.next(), partition -> true).getSpillingFuture();
+            if (!spillFuture.isDone()) {
+                return transformAsync(spillFuture, ignored -> spillDistinctValues(distinctValues), directExecutor());
+            }
+            checkSpillSucceeded(spillFuture);
+        }
+        return immediateFuture(null);
+    }
+
+    private void startUnspillWork()
+    {
+        while (true) {
+            if (unspilledDistinctValues.hasNext()) {
+                unfinishedWork = partitionHash.markDistinctRows(unspilledDistinctValues.next());
+                return;
+            }
+            if (unspilledInput.hasNext()) {
+                inputPage = unspilledInput.next();
+                unfinishedWork = partitionHash.markDistinctRows(extractDistinctValues(inputPage));
+                return;
+            }
+            if (nextUnspillPartition == SPILL_PARTITION_COUNT) {
+                partitionHash = null;
+                unspillFinished = true;
+                inputSpiller.get().verifyAllPartitionsRead();
+                updateMemoryReservation();
+                return;
+            }
+            // the values of a partition are laid out like the distinct values pages: distinct channels followed by the hash
+            int distinctChannelCount = distinctTypes.size();
+            partitionHash = new MarkDistinctHash(
+                    operatorContext.getSession(),
+                    distinctTypes,
+                    IntStream.range(0, distinctChannelCount).toArray(),
+                    hashChannel.map(channel -> distinctChannelCount),
+                    joinCompiler,
+                    this::updateMemoryReservation);
+            unspilledDistinctValues = distinctValuesSpiller.map(spiller -> spiller.getSpilledPages(nextUnspillPartition)).orElse(Collections.emptyIterator());
+            unspilledInput = inputSpiller.get().getSpilledPages(nextUnspillPartition);
+            nextUnspillPartition++;
+        }
+    }
+
+    private Page extractDistinctValues(Page page)
+    {
+        if (!hashChannel.isPresent()) {
+            return page.extractChannels(markDistinctChannels);
+        }
+        int[] channels = new int[markDistinctChannels.length + 1];
+        System.arraycopy(markDistinctChannels, 0, channels, 0, markDistinctChannels.length);
+        channels[markDistinctChannels.length] = hashChannel.get();
+        return page.extractChannels(channels);
+    }
+
+    private boolean isSpilled()
+    {
+        return inputSpiller.isPresent();
+    }
+
+    private PartitioningSpiller getDistinctValuesSpiller()
+    {
+        if (!distinctValuesSpiller.isPresent()) {
+            HashGenerator hashGenerator = new InterpretedHashGenerator(distinctTypes, IntStream.range(0, distinctTypes.size()).toArray());
+            distinctValuesSpiller = Optional.of(createSpiller(markDistinctHash.getDistinctValueTypes(), hashGenerator));
+        }
+        return distinctValuesSpiller.get();
+    }
+
+    private PartitioningSpiller getInputSpiller()
+    {
+        if (!inputSpiller.isPresent()) {
+            HashGenerator hashGenerator = new InterpretedHashGenerator(distinctTypes, markDistinctChannels);
+            inputSpiller = Optional.of(createSpiller(sourceTypes, hashGenerator));
+        }
+        return inputSpiller.get();
+    }
+
+    private PartitioningSpiller createSpiller(List<Type> types, HashGenerator hashGenerator)
+    {
+        // partition on the values rather than on the precomputed hash, so a value and the rows containing it always land in the same partition
+        return closer.register(partitioningSpillerFactory.create(
+                types,
+                new LocalPartitionGenerator(hashGenerator, SPILL_PARTITION_COUNT),
+                operatorContext.getSpillContext().newLocalSpillContext(),
+                operatorContext.aggregateSystemMemoryContext()));
+    }
+
     private boolean hasUnfinishedInput()
     {
         return inputPage != null || unfinishedWork != null;
@@ -186,14 +434,25 @@ public class MarkDistinctOperator
     {
         // Operator/driver will be blocked on memory after we call localUserMemoryContext.setBytes().
         // If memory is not available, once we return, this operator will be blocked until memory is available.
-        localUserMemoryContext.setBytes(markDistinctHash.getEstimatedSize());
+        long hashSize = markDistinctHash == null ? 0 : markDistinctHash.getEstimatedSize();
+        long partitionHashSize = partitionHash == null ? 0 : partitionHash.getEstimatedSize();
+        if (spillEnabled) {
+            // the hash of the operator can be spilled, but a partition being read back from disk cannot
+            localRevocableMemoryContext.setBytes(hashSize);
+            localUserMemoryContext.setBytes(partitionHashSize);
+        }
+        else {
+            localUserMemoryContext.setBytes(hashSize);
+        }
         // If memory is not available, inform the caller that we cannot proceed for allocation.
-        return operatorContext.isWaitingForMemory().isDone();
+        // The hash is revocable when spill is enabled, so the operator yields for it to be revoked.
+        return operatorContext.isWaitingForMemory().isDone() && operatorContext.isWaitingForRevocableMemory().isDone();
     }
 
     @VisibleForTesting
     public int getCapacity()
     {
+        checkState(markDistinctHash != null, "distinct values have been spilled");
         return markDistinctHash.getCapacity();
     }
 }
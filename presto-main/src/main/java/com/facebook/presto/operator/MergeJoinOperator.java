@@ -0,0 +1,551 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.execution.Lifespan;
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.plan.JoinType;
+import com.facebook.presto.spi.plan.PlanNodeId;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static com.facebook.presto.spi.plan.JoinType.INNER;
+import static com.facebook.presto.spi.plan.JoinType.LEFT;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Joins two inputs that are both sorted on the join keys, ascending with nulls first, by
+ * advancing them in lockstep. Each side streams in through a {@link MergeJoinSource}, which
+ * merges the sorted runs of all drivers that read the side in a lifespan, so this operator
+ * must be the only one of its lifespan. Only the right rows that share the key of the current
+ * left row are retained, so memory does not grow with the size of the right side.
+ */
+public class MergeJoinOperator
+        implements Operator
+{
+    public static class MergeJoinOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private final PlanNodeId planNodeId;
+        private final JoinType joinType;
+        private final JoinBridgeManager<MergeJoinSource> leftSourceManager;
+        private final JoinBridgeManager<MergeJoinSource> rightSourceManager;
+        private final List<Type> keyTypes;
+        private final List<Integer> leftKeyChannels;
+        private final List<Integer> rightKeyChannels;
+        private final List<Type> leftOutputTypes;
+        private final List<Integer> leftOutputChannels;
+        private final List<Type> rightOutputTypes;
+        private final List<Integer> rightOutputChannels;
+
+        private boolean closed;
+
+        public MergeJoinOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                JoinType joinType,
+                JoinBridgeManager<MergeJoinSource> leftSourceManager,
+                JoinBridgeManager<MergeJoinSource> rightSourceManager,
+                List<Type> leftTypes,
+                List<Integer> leftKeyChannels,
+                List<Integer> leftOutputChannels,
+                List<Type> rightTypes,
+                List<Integer> rightKeyChannels,
+                List<Integer> rightOutputChannels)
+        {
+            checkArgument(joinType == INNER || joinType == LEFT, "Unsupported join type: %s", joinType);
+            checkArgument(leftKeyChannels.size() == rightKeyChannels.size(), "left and right key channels do not match");
+            this.operatorId = operatorId;
+            this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
+            this.joinType = joinType;
+            this.leftSourceManager = requireNonNull(leftSourceManager, "leftSourceManager is null");
+            this.rightSourceManager = requireNonNull(rightSourceManager, "rightSourceManager is null");
+            this.keyTypes = leftKeyChannels.stream()
+                    .map(leftTypes::get)
+                    .collect(toImmutableList());
+            this.leftKeyChannels = ImmutableList.copyOf(leftKeyChannels);
+            this.rightKeyChannels = ImmutableList.copyOf(rightKeyChannels);
+            this.leftOutputTypes = leftOutputChannels.stream()
+                    .map(leftTypes::get)
+                    .collect(toImmutableList());
+            this.leftOutputChannels = ImmutableList.copyOf(leftOutputChannels);
+            this.rightOutputTypes = rightOutputChannels.stream()
+                    .map(rightTypes::get)
+                    .collect(toImmutableList());
+            this.rightOutputChannels = ImmutableList.copyOf(rightOutputChannels);
+            leftSourceManager.incrementProbeFactoryCount();
+            rightSourceManager.incrementProbeFactoryCount();
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            checkState(!closed, "Factory is already closed");
+            Lifespan lifespan = driverContext.getLifespan();
+            MergeJoinSource leftSource = leftSourceManager.getJoinBridge(lifespan);
+            MergeJoinSource rightSource = rightSourceManager.getJoinBridge(lifespan);
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, MergeJoinOperator.class.getSimpleName());
+            leftSource.addConsumer(operatorContext.aggregateUserMemoryContext().newLocalMemoryContext(MergeJoinSource.class.getSimpleName()));
+            rightSource.addConsumer(operatorContext.aggregateUserMemoryContext().newLocalMemoryContext(MergeJoinSource.class.getSimpleName()));
+            leftSourceManager.probeOperatorCreated(lifespan);
+            rightSourceManager.probeOperatorCreated(lifespan);
+            return new MergeJoinOperator(
+                    operatorContext,
+                    joinType,
+                    leftSource,
+                    rightSource,
+                    keyTypes,
+                    leftKeyChannels,
+                    rightKeyChannels,
+                    leftOutputTypes,
+                    leftOutputChannels,
+                    rightOutputTypes,
+                    rightOutputChannels,
+                    () -> {
+                        leftSourceManager.probeOperatorClosed(lifespan);
+                        rightSourceManager.probeOperatorClosed(lifespan);
+                    });
+        }
+
+        @Override
+        public void noMoreOperators()
+        {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            leftSourceManager.probeOperatorFactoryClosedForAllLifespans();
+            rightSourceManager.probeOperatorFactoryClosedForAllLifespans();
+        }
+
+        @Override
+        public void noMoreOperators(Lifespan lifespan)
+        {
+            leftSourceManager.probeOperatorFactoryClosed(lifespan);
+            rightSourceManager.probeOperatorFactoryClosed(lifespan);
+        }
+
+        @Override
+        public OperatorFactory duplicate()
+        {
+            throw new UnsupportedOperationException("Merge join can not be run by more than one driver per lifespan");
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final JoinType joinType;
+    private final MergeJoinSource leftSource;
+    private final MergeJoinSource rightSource;
+    private final List<Type> keyTypes;
+    private final int[] leftKeyChannels;
+    private final int[] rightKeyChannels;
+    private final List<Type> leftOutputTypes;
+    private final int[] leftOutputChannels;
+    private final List<Type> rightOutputTypes;
+    private final int[] rightOutputChannels;
+    private final PageBuilder pageBuilder;
+    private final LocalMemoryContext localUserMemoryContext;
+    private final Runnable afterClose;
+
+    private ListenableFuture<?> blocked = NOT_BLOCKED;
+    private boolean finishing;
+    private boolean closed;
+
+    private Page leftPage;
+    private int leftPosition;
+    private boolean leftFinished;
+
+    private Page rightPage;
+    private int rightPosition;
+    private boolean rightFinished;
+
+    // The run of right rows sharing the key of the current left row. The run is
+    // complete once the first right row with a greater key has been seen.
+    private Page runKeyPage;
+    private int runKeyPosition;
+    private boolean runComplete;
+    private final List<Page> runPages = new ArrayList<>();
+    private long runRetainedSizeInBytes;
+
+    // how far the current left row has been joined with the run
+    private int runPageIndex;
+    private int runPagePosition;
+
+    public MergeJoinOperator(
+            OperatorContext operatorContext,
+            JoinType joinType,
+            MergeJoinSource leftSource,
+            MergeJoinSource rightSource,
+            List<Type> keyTypes,
+            List<Integer> leftKeyChannels,
+            List<Integer> rightKeyChannels,
+            List<Type> leftOutputTypes,
+            List<Integer> leftOutputChannels,
+            List<Type> rightOutputTypes,
+            List<Integer> rightOutputChannels,
+            Runnable afterClose)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.joinType = requireNonNull(joinType, "joinType is null");
+        this.leftSource = requireNonNull(leftSource, "leftSource is null");
+        this.rightSource = requireNonNull(rightSource, "rightSource is null");
+        this.keyTypes = ImmutableList.copyOf(requireNonNull(keyTypes, "keyTypes is null"));
+        this.leftKeyChannels = Ints.toArray(requireNonNull(leftKeyChannels, "leftKeyChannels is null"));
+        this.rightKeyChannels = Ints.toArray(requireNonNull(rightKeyChannels, "rightKeyChannels is null"));
+        this.leftOutputTypes = ImmutableList.copyOf(requireNonNull(leftOutputTypes, "leftOutputTypes is null"));
+        this.leftOutputChannels = Ints.toArray(requireNonNull(leftOutputChannels, "leftOutputChannels is null"));
+        this.rightOutputTypes = ImmutableList.copyOf(requireNonNull(rightOutputTypes, "rightOutputTypes is null"));
+        this.rightOutputChannels = Ints.toArray(requireNonNull(rightOutputChannels, "rightOutputChannels is null"));
+        this.pageBuilder = new PageBuilder(ImmutableList.<Type>builder()
+                .addAll(leftOutputTypes)
+                .addAll(rightOutputTypes)
+                .build());
+        this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.afterClose = requireNonNull(afterClose, "afterClose is null");
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (blocked.isDone()) {
+            blocked = NOT_BLOCKED;
+        }
+        return blocked;
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return false;
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        throw new UnsupportedOperationException(getClass().getName() + " can not take input");
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        if (leftPage == null && !finishing && blocked.isDone()) {
+            loadLeftPage();
+        }
+        if (leftPage != null && blocked.isDone()) {
+            if (isRightExhaustedForInnerJoin()) {
+                leftPage = null;
+            }
+            else {
+                joinLeftPage();
+            }
+        }
+
+        if (pageBuilder.isFull() || (!pageBuilder.isEmpty() && (leftPage == null || !blocked.isDone()))) {
+            Page page = pageBuilder.build();
+            pageBuilder.reset();
+            return page;
+        }
+        return null;
+    }
+
+    @Override
+    public void finish()
+    {
+        finishing = true;
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        boolean finished = pageBuilder.isEmpty() && (((finishing || leftFinished) && leftPage == null) || isRightExhaustedForInnerJoin());
+        if (finished) {
+            close();
+        }
+        return finished;
+    }
+
+    @Override
+    public void close()
+    {
+        leftPage = null;
+        rightPage = null;
+        runKeyPage = null;
+        runPages.clear();
+        localUserMemoryContext.setBytes(0);
+        if (closed) {
+            return;
+        }
+        closed = true;
+        leftSource.consumerClosed();
+        rightSource.consumerClosed();
+        // `afterClose` must be run last.
+        afterClose.run();
+    }
+
+    private void loadLeftPage()
+    {
+        while (!leftFinished) {
+            Page page = leftSource.pollPage();
+            if (page == null) {
+                if (leftSource.isFinished()) {
+                    leftFinished = true;
+                }
+                else {
+                    blocked = leftSource.whenPageAvailable();
+                }
+                return;
+            }
+            if (page.getPositionCount() > 0) {
+                leftPage = page;
+                leftPosition = 0;
+                return;
+            }
+        }
+    }
+
+    private boolean isRightExhaustedForInnerJoin()
+    {
+        return joinType == INNER && rightFinished && rightPage == null && runKeyPage == null;
+    }
+
+    private void joinLeftPage()
+    {
+        while (!pageBuilder.isFull()) {
+            if (leftPosition == leftPage.getPositionCount()) {
+                leftPage = null;
+                return;
+            }
+
+            if (hasNullKey(leftPage, leftPosition, leftKeyChannels)) {
+                appendUnmatchedLeftRow();
+                leftPosition++;
+                continue;
+            }
+
+            if (runKeyPage != null) {
+                if (!runComplete && !extendRun()) {
+                    return;
+                }
+                int comparison = compareKeys(leftPage, leftPosition, leftKeyChannels, runKeyPage, runKeyPosition, rightKeyChannels);
+                if (comparison == 0) {
+                    if (!appendRun()) {
+                        return;
+                    }
+                    leftPosition++;
+                    continue;
+                }
+                checkSorted(comparison > 0, "left");
+                releaseRun();
+            }
+
+            // advance the right side to the first row with a key that is not less than the left key
+            if (!loadRightPosition()) {
+                return;
+            }
+            if (rightPage == null) {
+                appendUnmatchedLeftRow();
+                leftPosition++;
+                continue;
+            }
+            if (hasNullKey(rightPage, rightPosition, rightKeyChannels)) {
+                rightPosition++;
+                continue;
+            }
+            int comparison = compareKeys(leftPage, leftPosition, leftKeyChannels, rightPage, rightPosition, rightKeyChannels);
+            if (comparison > 0) {
+                rightPosition++;
+            }
+            else if (comparison < 0) {
+                appendUnmatchedLeftRow();
+                leftPosition++;
+            }
+            else {
+                startRun();
+            }
+        }
+    }
+
+    /**
+     * Makes the current right position point at a row, loading the next right page if necessary.
+     * The right page is null if the right side is exhausted. Returns false if the right side is blocked.
+     */
+    private boolean loadRightPosition()
+    {
+        while (rightPage == null || rightPosition == rightPage.getPositionCount()) {
+            rightPage = null;
+            if (rightFinished) {
+                return true;
+            }
+            Page page = rightSource.pollPage();
+            if (page == null) {
+                if (rightSource.isFinished()) {
+                    rightFinished = true;
+                    return true;
+                }
+                blocked = rightSource.whenPageAvailable();
+                return false;
+            }
+            rightPage = page;
+            rightPosition = 0;
+        }
+        return true;
+    }
+
+    private void startRun()
+    {
+        runKeyPage = rightPage;
+        runKeyPosition = rightPosition;
+        runComplete = false;
+    }
+
+    /**
+     * Adds right rows to the run until a row with a greater key is found. Returns false if the right side is blocked.
+     */
+    private boolean extendRun()
+    {
+        while (true) {
+            if (!loadRightPosition()) {
+                return false;
+            }
+            if (rightPage == null) {
+                runComplete = true;
+                return true;
+            }
+            int start = rightPosition;
+            while (rightPosition < rightPage.getPositionCount() && isInRun(rightPage, rightPosition)) {
+                rightPosition++;
+            }
+            if (rightPosition > start) {
+                Page region = rightPage.getRegion(start, rightPosition - start);
+                runPages.add(region);
+                runRetainedSizeInBytes += region.getRetainedSizeInBytes();
+                localUserMemoryContext.setBytes(runRetainedSizeInBytes);
+            }
+            if (rightPosition < rightPage.getPositionCount()) {
+                runComplete = true;
+                return true;
+            }
+        }
+    }
+
+    private boolean isInRun(Page page, int position)
+    {
+        int comparison = compareKeys(page, position, rightKeyChannels, runKeyPage, runKeyPosition, rightKeyChannels);
+        checkSorted(comparison >= 0, "right");
+        return comparison == 0;
+    }
+
+    private void releaseRun()
+    {
+        runKeyPage = null;
+        runPages.clear();
+        runRetainedSizeInBytes = 0;
+        localUserMemoryContext.setBytes(0);
+    }
+
+    /**
+     * Joins the current left row with the run. Returns false if the output page filled up before all rows of the run were joined.
+     */
+    private boolean appendRun()
+    {
+        while (runPageIndex < runPages.size()) {
+            Page runPage = runPages.get(runPageIndex);
+            while (runPagePosition < runPage.getPositionCount()) {
+                if (pageBuilder.isFull()) {
+                    return false;
+                }
+                pageBuilder.declarePosition();
+                appendLeftColumns();
+                for (int i = 0; i < rightOutputChannels.length; i++) {
+                    rightOutputTypes.get(i).appendTo(runPage.getBlock(rightOutputChannels[i]), runPagePosition, pageBuilder.getBlockBuilder(leftOutputChannels.length + i));
+                }
+                runPagePosition++;
+            }
+            runPageIndex++;
+            runPagePosition = 0;
+        }
+        runPageIndex = 0;
+        return true;
+    }
+
+    private void appendUnmatchedLeftRow()
+    {
+        if (joinType != LEFT) {
+            return;
+        }
+        pageBuilder.declarePosition();
+        appendLeftColumns();
+        for (int i = 0; i < rightOutputChannels.length; i++) {
+            pageBuilder.getBlockBuilder(leftOutputChannels.length + i).appendNull();
+        }
+    }
+
+    private void appendLeftColumns()
+    {
+        for (int i = 0; i < leftOutputChannels.length; i++) {
+            BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(i);
+            leftOutputTypes.get(i).appendTo(leftPage.getBlock(leftOutputChannels[i]), leftPosition, blockBuilder);
+        }
+    }
+
+    private int compareKeys(Page left, int leftPosition, int[] leftChannels, Page right, int rightPosition, int[] rightChannels)
+    {
+        for (int i = 0; i < leftChannels.length; i++) {
+            int comparison = keyTypes.get(i).compareTo(left.getBlock(leftChannels[i]), leftPosition, right.getBlock(rightChannels[i]), rightPosition);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean hasNullKey(Page page, int position, int[] keyChannels)
+    {
+        for (int channel : keyChannels) {
+            Block block = page.getBlock(channel);
+            if (block.isNull(position)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void checkSorted(boolean sorted, String side)
+    {
+        if (!sorted) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "The " + side + " input of the merge join is not sorted on the join keys");
+        }
+    }
+}
@@ -0,0 +1,449 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static com.facebook.presto.common.block.SortOrder.ASC_NULLS_FIRST;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Streams one side of a merge join, sorted on the join keys, to the {@link MergeJoinOperator}.
+ * Every driver that reads the side within a lifespan produces a sorted run of its own, such as
+ * one file of a bucket. The runs are merged on the join keys once all producers of the lifespan
+ * are known, and a single run is passed through as is.
+ * <p>
+ * The producers are blocked once {@code maxBufferedBytes} are buffered, but only while the join
+ * can make progress. A run that has nothing buffered stalls the merge, so the other producers
+ * are then allowed to buffer past the limit rather than wait on a producer that may not have
+ * been started yet.
+ * <p>
+ * The pages of a run are charged to the user memory of its producer, and to the user memory of
+ * the consumer once the producer is closed, so buffering past the limit is bounded by the memory
+ * limits of the query.
+ */
+@ThreadSafe
+public class MergeJoinSource
+        implements JoinBridge
+{
+    private static final ListenableFuture<?> NOT_BLOCKED = immediateFuture(null);
+
+    private final List<Type> types;
+    private final List<Type> keyTypes;
+    private final int[] keyChannels;
+    private final long maxBufferedBytes;
+
+    @GuardedBy("this")
+    private final List<Run> runs = new ArrayList<>();
+    @GuardedBy("this")
+    private long bufferedBytes;
+    // the pages of runs whose producers are closed, which are charged to the consumer
+    @GuardedBy("this")
+    private long closedRunsBufferedBytes;
+    @GuardedBy("this")
+    private LocalMemoryContext consumerMemoryContext;
+    @GuardedBy("this")
+    private SettableFuture<?> notEmpty = SettableFuture.create();
+    @GuardedBy("this")
+    private SettableFuture<?> notFull = SettableFuture.create();
+    @GuardedBy("this")
+    private PageBuilder pageBuilder;
+
+    @GuardedBy("this")
+    private boolean consumerCreated;
+    @GuardedBy("this")
+    private boolean noMoreProducers;
+    @GuardedBy("this")
+    private boolean destroyed;
+
+    public MergeJoinSource(List<Type> types, List<Integer> keyChannels, long maxBufferedBytes)
+    {
+        checkArgument(maxBufferedBytes > 0, "maxBufferedBytes must be positive");
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        this.keyTypes = requireNonNull(keyChannels, "keyChannels is null").stream()
+                .map(types::get)
+                .collect(toImmutableList());
+        this.keyChannels = Ints.toArray(keyChannels);
+        this.maxBufferedBytes = maxBufferedBytes;
+        notFull.set(null);
+    }
+
+    /**
+     * Registers a driver that produces a sorted run, and returns the id of the run.
+     * The pages of the run are charged to the given memory context until the producer is closed.
+     */
+    public synchronized int addProducer(LocalMemoryContext memoryContext)
+    {
+        checkState(!noMoreProducers, "No more producers already set");
+        runs.add(new Run(requireNonNull(memoryContext, "memoryContext is null")));
+        return runs.size() - 1;
+    }
+
+    /**
+     * Registers the consumer. The pages of runs whose producers are closed are charged to the given memory context.
+     */
+    public synchronized void addConsumer(LocalMemoryContext memoryContext)
+    {
+        checkState(!consumerCreated, "Merge join source is already consumed");
+        consumerCreated = true;
+        consumerMemoryContext = requireNonNull(memoryContext, "memoryContext is null");
+        consumerMemoryContext.setBytes(closedRunsBufferedBytes);
+    }
+
+    /**
+     * Returns a future that is done when the buffer has room for more pages.
+     */
+    public ListenableFuture<?> addPage(int producer, Page page)
+    {
+        SettableFuture<?> notEmptyFuture;
+        synchronized (this) {
+            Run run = runs.get(producer);
+            checkState(!run.finished, "Producer is already finished");
+            // pages are no longer needed once the join is done
+            if (destroyed) {
+                return NOT_BLOCKED;
+            }
+            run.pages.add(page);
+            run.updateBufferedBytes(page.getRetainedSizeInBytes());
+            if (isFull() && notFull.isDone()) {
+                notFull = SettableFuture.create();
+            }
+            notEmptyFuture = notEmpty;
+        }
+        notEmptyFuture.set(null);
+        return whenNotFull();
+    }
+
+    public synchronized ListenableFuture<?> whenNotFull()
+    {
+        return notFull;
+    }
+
+    public synchronized boolean isDestroyed()
+    {
+        return destroyed;
+    }
+
+    public void producerFinished(int producer)
+    {
+        synchronized (this) {
+            runs.get(producer).finished = true;
+        }
+        notifyConsumer();
+    }
+
+    /**
+     * Moves the charge for the pages the producer has buffered to the consumer,
+     * as the memory context of the producer is closed with its operator.
+     */
+    public synchronized void producerClosed(int producer)
+    {
+        Run run = runs.get(producer);
+        if (run.memoryContext == null) {
+            return;
+        }
+        run.memoryContext.setBytes(0);
+        run.memoryContext = null;
+        if (!destroyed) {
+            updateClosedRunsBufferedBytes(run.bufferedBytes);
+        }
+    }
+
+    /**
+     * Releases the memory charged to the consumer, which no longer needs the buffered pages.
+     */
+    public synchronized void consumerClosed()
+    {
+        if (consumerMemoryContext != null) {
+            consumerMemoryContext.setBytes(0);
+            consumerMemoryContext = null;
+        }
+    }
+
+    public void noMoreProducers()
+    {
+        synchronized (this) {
+            noMoreProducers = true;
+        }
+        notifyConsumer();
+    }
+
+    /**
+     * Returns the next page in the order of the join keys, or null if none can be produced yet.
+     */
+    public Page pollPage()
+    {
+        Page page;
+        SettableFuture<?> notFullFuture = null;
+        synchronized (this) {
+            if (!noMoreProducers) {
+                return null;
+            }
+            page = runs.size() == 1 ? runs.get(0).pollPage() : mergeRuns();
+            if (!isFull()) {
+                notFullFuture = notFull;
+            }
+        }
+        if (notFullFuture != null) {
+            notFullFuture.set(null);
+        }
+        return page;
+    }
+
+    /**
+     * Returns true when all producers are done and all their rows have been polled.
+     */
+    public synchronized boolean isFinished()
+    {
+        if (!noMoreProducers) {
+            return false;
+        }
+        for (Run run : runs) {
+            if (!run.finished || run.hasRow()) {
+                return false;
+            }
+        }
+        return pageBuilder == null || pageBuilder.isEmpty();
+    }
+
+    public synchronized ListenableFuture<?> whenPageAvailable()
+    {
+        if (isPageAvailable()) {
+            return NOT_BLOCKED;
+        }
+        if (notEmpty.isDone()) {
+            notEmpty = SettableFuture.create();
+        }
+        return notEmpty;
+    }
+
+    @Override
+    public void destroy()
+    {
+        SettableFuture<?> notFullFuture;
+        synchronized (this) {
+            destroyed = true;
+            runs.forEach(Run::clear);
+            bufferedBytes = 0;
+            closedRunsBufferedBytes = 0;
+            if (consumerMemoryContext != null) {
+                consumerMemoryContext.setBytes(0);
+            }
+            pageBuilder = null;
+            notFullFuture = notFull;
+        }
+        notFullFuture.set(null);
+    }
+
+    @Override
+    public OuterPositionIterator getOuterPositionIterator()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ListenableFuture<?> whenBuildFinishes()
+    {
+        // the side streams through this bridge rather than being built up front,
+        // so it can be destroyed as soon as the join itself is done with it
+        return NOT_BLOCKED;
+    }
+
+    /**
+     * Returns true if a page can be polled, or the source is finished. The next row of the merge
+     * is only known when every run that is not finished has a row buffered.
+     */
+    @GuardedBy("this")
+    private boolean isPageAvailable()
+    {
+        if (!noMoreProducers) {
+            return false;
+        }
+        for (Run run : runs) {
+            if (!run.finished && !run.hasRow()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @GuardedBy("this")
+    private boolean isFull()
+    {
+        return bufferedBytes >= maxBufferedBytes && isPageAvailable();
+    }
+
+    @GuardedBy("this")
+    private Page mergeRuns()
+    {
+        if (pageBuilder == null) {
+            pageBuilder = new PageBuilder(types);
+        }
+        while (!pageBuilder.isFull()) {
+            Run next = null;
+            for (Run run : runs) {
+                if (!run.loadPosition()) {
+                    // the run may still produce a row that sorts before the rows of the other runs
+                    return buildPage();
+                }
+                if (run.page != null && (next == null || compareKeys(run, next) < 0)) {
+                    next = run;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            pageBuilder.declarePosition();
+            for (int channel = 0; channel < types.size(); channel++) {
+                types.get(channel).appendTo(next.page.getBlock(channel), next.position, pageBuilder.getBlockBuilder(channel));
+            }
+            next.position++;
+        }
+        return buildPage();
+    }
+
+    @GuardedBy("this")
+    private Page buildPage()
+    {
+        if (pageBuilder.isEmpty()) {
+            return null;
+        }
+        Page page = pageBuilder.build();
+        pageBuilder.reset();
+        return page;
+    }
+
+    private int compareKeys(Run left, Run right)
+    {
+        for (int i = 0; i < keyChannels.length; i++) {
+            int comparison = ASC_NULLS_FIRST.compareBlockValue(
+                    keyTypes.get(i),
+                    left.page.getBlock(keyChannels[i]),
+                    left.position,
+                    right.page.getBlock(keyChannels[i]),
+                    right.position);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    @GuardedBy("this")
+    private void updateClosedRunsBufferedBytes(long delta)
+    {
+        closedRunsBufferedBytes += delta;
+        if (consumerMemoryContext != null) {
+            consumerMemoryContext.setBytes(closedRunsBufferedBytes);
+        }
+    }
+
+    private void notifyConsumer()
+    {
+        SettableFuture<?> notEmptyFuture;
+        synchronized (this) {
+            notEmptyFuture = notEmpty;
+        }
+        notEmptyFuture.set(null);
+    }
+
+    private class Run
+    {
+        private final Queue<Page> pages = new ArrayDeque<>();
+        private boolean finished;
+        private long bufferedBytes;
+        // null once the producer is closed
+        private LocalMemoryContext memoryContext;
+
+        // the page being merged, and the position of its next row
+        private Page page;
+        private int position;
+
+        private Run(LocalMemoryContext memoryContext)
+        {
+            this.memoryContext = memoryContext;
+        }
+
+        private boolean hasRow()
+        {
+            return (page != null && position < page.getPositionCount()) || !pages.isEmpty();
+        }
+
+        private Page pollPage()
+        {
+            Page next = pages.poll();
+            if (next != null) {
+                updateBufferedBytes(-next.getRetainedSizeInBytes());
+            }
+            return next;
+        }
+
+        private void updateBufferedBytes(long delta)
+        {
+            bufferedBytes += delta;
+            MergeJoinSource.this.bufferedBytes += delta;
+            if (memoryContext != null) {
+                memoryContext.setBytes(bufferedBytes);
+            }
+            else {
+                updateClosedRunsBufferedBytes(delta);
+            }
+        }
+
+        /**
+         * Moves to the next row of the run. The page is null if the run is exhausted.
+         * Returns false if the next row has not been produced yet.
+         */
+        private boolean loadPosition()
+        {
+            while (page == null || position == page.getPositionCount()) {
+                page = pollPage();
+                position = 0;
+                if (page == null) {
+                    return finished;
+                }
+            }
+            return true;
+        }
+
+        private void clear()
+        {
+            pages.clear();
+            page = null;
+            bufferedBytes = 0;
+            if (memoryContext != null) {
+                memoryContext.setBytes(0);
+            }
+        }
+    }
+}
@@ -41,6 +41,8 @@ import com.facebook.presto.split.EmptySplitPageSource;
 import com.facebook.presto.split.PageSourceProvider;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.units.DataSize;
@@ -81,8 +83,12 @@ public class ScanFilterAndProjectOperator
     private final LocalMemoryContext outputMemoryContext;
     private final SettableFuture<?> blocked = SettableFuture.create();
     private final Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier;
+    private final Supplier<ListMultimap<Integer, BlockedBloomFilter>> bloomFilterSupplier;
     private final MergingPageOutput mergingOutput;
 
+    // Bloom filters of the dynamic filters, by channel, as of when the page source was created
+    private ListMultimap<Integer, BlockedBloomFilter> bloomFilters = ImmutableListMultimap.of();
+
     private RecordCursor cursor;
     private ConnectorPageSource pageSource;
 
@@ -104,6 +110,7 @@ public class ScanFilterAndProjectOperator
             Iterable<ColumnHandle> columns,
             Iterable<Type> types,
             Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier,
+            Supplier<ListMultimap<Integer, BlockedBloomFilter>> bloomFilterSupplier,
             MergingPageOutput mergingOutput)
     {
         this.cursorProcessor = requireNonNull(cursorProcessor, "cursorProcessor is null");
@@ -118,6 +125,7 @@ public class ScanFilterAndProjectOperator
         this.pageProcessorMemoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext(ScanFilterAndProjectOperator.class.getSimpleName());
         this.outputMemoryContext = operatorContext.newLocalSystemMemoryContext(ScanFilterAndProjectOperator.class.getSimpleName());
         this.dynamicFilterSupplier = requireNonNull(dynamicFilterSupplier, "dynamicFilterSupplier is null");
+        this.bloomFilterSupplier = requireNonNull(bloomFilterSupplier, "bloomFilterSupplier is null");
         this.mergingOutput = requireNonNull(mergingOutput, "mergingOutput is null");
 
         this.pageBuilder = new PageBuilder(ImmutableList.copyOf(requireNonNull(types, "types is null")));
@@ -253,6 +261,7 @@ public class ScanFilterAndProjectOperator
             }
             else {
                 pageSource = source;
+                bloomFilters = bloomFilterSupplier.get();
             }
         }
 
@@ -301,8 +310,13 @@ public class ScanFilterAndProjectOperator
                 // update operator stats
                 page = recordProcessedInput(page);
 
-                Iterator<Optional<Page>> output = pageProcessor.process(sqlFunctionProperties, yieldSignal, pageProcessorMemoryContext, page);
-                mergingOutput.addInput(output);
+                if (!bloomFilters.isEmpty()) {
+                    page = filterWithBloomFilters(page);
+                }
+                if (page.getPositionCount() > 0) {
+                    Iterator<Optional<Page>> output = pageProcessor.process(sqlFunctionProperties, yieldSignal, pageProcessorMemoryContext, page);
+                    mergingOutput.addInput(output);
+                }
             }
 
             // stats update
@@ -395,6 +409,47 @@ public class ScanFilterAndProjectOperator
         return (blocks == null) ? page : new Page(page.getPositionCount(), blocks);
     }
 
+    /**
+     * Removes the rows that do not pass the Bloom filters, loading only the blocks of the filtered channels.
+     */
+    private Page filterWithBloomFilters(Page page)
+    {
+        int[] positions = new int[page.getPositionCount()];
+        for (int position = 0; position < positions.length; position++) {
+            positions[position] = position;
+        }
+        int positionCount = positions.length;
+        for (Map.Entry<Integer, BlockedBloomFilter> entry : bloomFilters.entries()) {
+            Block block = page.getBlock(entry.getKey()).getLoadedBlock();
+            BlockedBloomFilter bloomFilter = entry.getValue();
+            int selectedCount = 0;
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                // null never matches the build side of a join
+                if (!block.isNull(position) && bloomFilter.mightContain(block, position)) {
+                    positions[selectedCount++] = position;
+                }
+            }
+            positionCount = selectedCount;
+        }
+        if (positionCount == page.getPositionCount()) {
+            return page;
+        }
+
+        int selectedCount = positionCount;
+        Block[] blocks = new Block[page.getChannelCount()];
+        for (int channel = 0; channel < blocks.length; channel++) {
+            Block block = page.getBlock(channel);
+            if (block instanceof LazyBlock && !((LazyBlock) block).isLoaded()) {
+                blocks[channel] = new LazyBlock(selectedCount, lazyBlock -> lazyBlock.setBlock(block.getPositions(positions, 0, selectedCount)));
+            }
+            else {
+                blocks[channel] = block.getPositions(positions, 0, selectedCount);
+            }
+        }
+        return new Page(selectedCount, blocks);
+    }
+
     private static Block[] copyOfPageBlocks(Page page)
     {
         Block[] blocks = new Block[page.getChannelCount()];
@@ -417,6 +472,7 @@ public class ScanFilterAndProjectOperator
         private final List<ColumnHandle> columns;
         private final List<Type> types;
         private final Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier;
+        private final Supplier<ListMultimap<Integer, BlockedBloomFilter>> bloomFilterSupplier;
         private final DataSize minOutputPageSize;
         private final int minOutputPageRowCount;
         private boolean closed;
@@ -434,6 +490,37 @@ public class ScanFilterAndProjectOperator
                 Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier,
                 DataSize minOutputPageSize,
                 int minOutputPageRowCount)
+        {
+            this(
+                    operatorId,
+                    planNodeId,
+                    sourceId,
+                    pageSourceProvider,
+                    cursorProcessor,
+                    pageProcessor,
+                    table,
+                    columns,
+                    types,
+                    dynamicFilterSupplier,
+                    ImmutableListMultimap::of,
+                    minOutputPageSize,
+                    minOutputPageRowCount);
+        }
+
+        public ScanFilterAndProjectOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                PlanNodeId sourceId,
+                PageSourceProvider pageSourceProvider,
+                Supplier<CursorProcessor> cursorProcessor,
+                Supplier<PageProcessor> pageProcessor,
+                TableHandle table,
+                Iterable<ColumnHandle> columns,
+                List<Type> types,
+                Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier,
+                Supplier<ListMultimap<Integer, BlockedBloomFilter>> bloomFilterSupplier,
+                DataSize minOutputPageSize,
+                int minOutputPageRowCount)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -445,6 +532,7 @@ public class ScanFilterAndProjectOperator
             this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
             this.types = requireNonNull(types, "types is null");
             this.dynamicFilterSupplier = requireNonNull(dynamicFilterSupplier, "dynamicFilterSupplier is null");
+            this.bloomFilterSupplier = requireNonNull(bloomFilterSupplier, "bloomFilterSupplier is null");
             this.minOutputPageSize = requireNonNull(minOutputPageSize, "minOutputPageSize is null");
             this.minOutputPageRowCount = minOutputPageRowCount;
         }
@@ -470,6 +558,7 @@ public class ScanFilterAndProjectOperator
                     columns,
                     types,
                     dynamicFilterSupplier,
+                    bloomFilterSupplier,
                     new MergingPageOutput(types, minOutputPageSize.toBytes(), minOutputPageRowCount));
         }
 
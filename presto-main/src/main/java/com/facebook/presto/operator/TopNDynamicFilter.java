@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.SortOrder;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
+import com.facebook.presto.common.predicate.ValueSet;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.VarcharType;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.TypeUtils.readNativeValue;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Range of the first sort key that rows must fall in to make it into the result of a top N.
+ * <p>
+ * Once a top N operator holds N rows, no row that sorts after the last of them can make it
+ * into the result of any operator of the query, so the filter is shared by all drivers of a
+ * task and only ever gets more selective. Table scans read the filter when they open a split.
+ */
+@ThreadSafe
+public class TopNDynamicFilter
+{
+    private final Type type;
+    private final SortOrder sortOrder;
+
+    @GuardedBy("this")
+    private Block boundary;
+    private volatile Domain domain;
+
+    public TopNDynamicFilter(Type type, SortOrder sortOrder)
+    {
+        checkArgument(isSupportedType(type), "Unsupported type: %s", type);
+        this.type = type;
+        this.sortOrder = requireNonNull(sortOrder, "sortOrder is null");
+        this.domain = Domain.all(type);
+    }
+
+    public static boolean isSupportedType(Type type)
+    {
+        // the boundary is pushed to the scan as a range over native values; a REAL boundary holds float bits in a long,
+        // and a reader comparing those as longs would drop negative values that belong in the top N
+        return type.isOrderable() &&
+                ((type.getJavaType() == long.class && !type.equals(REAL)) || type instanceof VarcharType);
+    }
+
+    public Domain getDomain()
+    {
+        return domain;
+    }
+
+    /**
+     * Offers the sort key of the last of the top N rows of an operator.
+     */
+    public synchronized void update(Block block, int position)
+    {
+        if (block.isNull(position)) {
+            // with nulls last every other value sorts first; with nulls first only nulls could qualify, which is rare enough to ignore
+            return;
+        }
+        if (boundary != null && sortOrder.compareBlockValue(type, block, position, boundary, 0) >= 0) {
+            return;
+        }
+        boundary = block.getSingleValueBlock(position);
+        Object value = readNativeValue(type, boundary, 0);
+        Range range = sortOrder.isAscending() ? Range.lessThanOrEqual(type, value) : Range.greaterThanOrEqual(type, value);
+        domain = Domain.create(ValueSet.ofRanges(range), sortOrder.isNullsFirst());
+    }
+}
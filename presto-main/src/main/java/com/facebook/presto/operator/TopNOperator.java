@@ -20,6 +20,7 @@ import com.facebook.presto.spi.plan.PlanNodeId;
 import com.google.common.collect.ImmutableList;
 
 import java.util.List;
+import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
@@ -41,6 +42,7 @@ public class TopNOperator
         private final int n;
         private final List<Integer> sortChannels;
         private final List<SortOrder> sortOrders;
+        private final Optional<TopNDynamicFilter> dynamicFilter;
         private boolean closed;
 
         public TopNOperatorFactory(
@@ -50,6 +52,18 @@ public class TopNOperator
                 int n,
                 List<Integer> sortChannels,
                 List<SortOrder> sortOrders)
+        {
+            this(operatorId, planNodeId, types, n, sortChannels, sortOrders, Optional.empty());
+        }
+
+        public TopNOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> types,
+                int n,
+                List<Integer> sortChannels,
+                List<SortOrder> sortOrders,
+                Optional<TopNDynamicFilter> dynamicFilter)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -57,6 +71,7 @@ public class TopNOperator
             this.n = n;
             this.sortChannels = ImmutableList.copyOf(requireNonNull(sortChannels, "sortChannels is null"));
             this.sortOrders = ImmutableList.copyOf(requireNonNull(sortOrders, "sortOrders is null"));
+            this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
         }
 
         @Override
@@ -69,7 +84,8 @@ public class TopNOperator
                     sourceTypes,
                     n,
                     sortChannels,
-                    sortOrders);
+                    sortOrders,
+                    dynamicFilter);
         }
 
         @Override
@@ -81,13 +97,15 @@ public class TopNOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new TopNOperatorFactory(operatorId, planNodeId, sourceTypes, n, sortChannels, sortOrders);
+            return new TopNOperatorFactory(operatorId, planNodeId, sourceTypes, n, sortChannels, sortOrders, dynamicFilter);
         }
     }
 
     private final OperatorContext operatorContext;
+    private final Optional<TopNDynamicFilter> dynamicFilter;
+    private final int dynamicFilterChannel;
 
-    private GroupedTopNBuilder topNBuilder;
+    private InMemoryGroupedTopNBuilder topNBuilder;
     private boolean finishing;
 
     private WorkProcessor<Page> outputPages;
@@ -98,8 +116,22 @@ public class TopNOperator
             int n,
             List<Integer> sortChannels,
             List<SortOrder> sortOrders)
+    {
+        this(operatorContext, types, n, sortChannels, sortOrders, Optional.empty());
+    }
+
+    public TopNOperator(
+            OperatorContext operatorContext,
+            List<Type> types,
+            int n,
+            List<Integer> sortChannels,
+            List<SortOrder> sortOrders,
+            Optional<TopNDynamicFilter> dynamicFilter)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
+        // the filter is on the first sort key
+        this.dynamicFilterChannel = sortChannels.isEmpty() ? -1 : sortChannels.get(0);
         checkArgument(n >= 0, "n must be non-negative");
         if (n == 0) {
             finishing = true;
@@ -150,6 +182,9 @@ public class TopNOperator
         // there is no grouping so work will always be done
         verify(done);
         topNBuilder.updateMemoryReservations();
+        if (dynamicFilter.isPresent()) {
+            topNBuilder.getLastRowValue(0, dynamicFilterChannel).ifPresent(value -> dynamicFilter.get().update(value, 0));
+        }
     }
 
     @Override
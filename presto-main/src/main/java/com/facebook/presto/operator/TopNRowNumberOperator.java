@@ -29,6 +29,7 @@ import java.util.Optional;
 import java.util.function.Supplier;
 
 import static com.facebook.presto.SystemSessionProperties.isDictionaryAggregationEnabled;
+import static com.facebook.presto.SystemSessionProperties.isFlatGroupByHashEnabled;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
@@ -186,6 +187,7 @@ public class TopNRowNumberOperator
                 expectedPositions,
                 joinCompiler,
                 isDictionaryAggregationEnabled(operatorContext.getSession()),
+                isFlatGroupByHashEnabled(operatorContext.getSession()),
                 this::updateMemoryReservation);
 
         if (spillEnabled) {
@@ -235,6 +237,7 @@ public class TopNRowNumberOperator
             int expectedPositions,
             JoinCompiler joinCompiler,
             boolean isDictionaryAggregationEnabled,
+            boolean isFlatGroupByHashEnabled,
             UpdateMemory updateMemory)
     {
         if (!partitionChannels.isEmpty()) {
@@ -245,6 +248,7 @@ public class TopNRowNumberOperator
                     inputHashChannel,
                     expectedPositions,
                     isDictionaryAggregationEnabled,
+                    isFlatGroupByHashEnabled,
                     joinCompiler,
                     updateMemory);
         }
@@ -0,0 +1,36 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.function.SqlFunctionProperties;
+
+import java.util.Optional;
+
+/**
+ * A filter and its projections compiled into a single loop over the input page. The values of the
+ * selected positions are written directly into primitive arrays that back the output blocks, so no
+ * intermediate {@link SelectedPositions} or block builders are created.
+ */
+public interface FusedPageKernel
+{
+    InputChannels getInputChannels();
+
+    Page process(SqlFunctionProperties properties, Page page);
+
+    static Optional<boolean[]> valueIsNull(boolean[] valueIsNull, boolean mayHaveNull)
+    {
+        return mayHaveNull ? Optional.of(valueIsNull) : Optional.empty();
+    }
+}
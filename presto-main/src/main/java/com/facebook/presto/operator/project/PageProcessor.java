@@ -27,6 +27,7 @@ import com.facebook.presto.operator.WorkProcessor;
 import com.facebook.presto.operator.WorkProcessor.ProcessState;
 import com.facebook.presto.sql.gen.ExpressionProfiler;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import io.airlift.slice.SizeOf;
 
 import javax.annotation.concurrent.NotThreadSafe;
@@ -65,6 +66,7 @@ public class PageProcessor
     private final Optional<PageFilter> filter;
     private final List<PageProjectionWithOutputs> projections;
     private final int outputCount;
+    private final Optional<FusedPageKernel> fusedKernel;
 
     private int projectBatchSize;
 
@@ -76,6 +78,21 @@ public class PageProcessor
 
     @VisibleForTesting
     public PageProcessor(Optional<PageFilter> filter, List<PageProjectionWithOutputs> projections, OptionalInt initialBatchSize, ExpressionProfiler expressionProfiler)
+    {
+        this(filter, projections, initialBatchSize, expressionProfiler, Optional.empty());
+    }
+
+    public PageProcessor(FusedPageKernel fusedKernel)
+    {
+        this(Optional.empty(), ImmutableList.of(), OptionalInt.empty(), new ExpressionProfiler(), Optional.of(fusedKernel));
+    }
+
+    private PageProcessor(
+            Optional<PageFilter> filter,
+            List<PageProjectionWithOutputs> projections,
+            OptionalInt initialBatchSize,
+            ExpressionProfiler expressionProfiler,
+            Optional<FusedPageKernel> fusedKernel)
     {
         List<Integer> outputChannels = projections.stream().map(PageProjectionWithOutputs::getOutputChannels).map(Arrays::stream).map(IntStream::boxed).flatMap(identity()).distinct().collect(toImmutableList());
         int outputCount = projections.stream().map(PageProjectionWithOutputs::getOutputCount).reduce(Integer::sum).orElse(0);
@@ -103,6 +120,7 @@ public class PageProcessor
                 .collect(toImmutableList());
         this.projectBatchSize = initialBatchSize.orElse(1);
         this.expressionProfiler = requireNonNull(expressionProfiler, "expressionProfiler is null");
+        this.fusedKernel = requireNonNull(fusedKernel, "fusedKernel is null");
     }
 
     public PageProcessor(Optional<PageFilter> filter, List<PageProjectionWithOutputs> projections)
@@ -125,6 +143,15 @@ public class PageProcessor
             return WorkProcessor.of();
         }
 
+        if (fusedKernel.isPresent()) {
+            // the kernel only produces fixed width values, so the whole page is processed in one batch
+            Page result = fusedKernel.get().process(properties, fusedKernel.get().getInputChannels().getInputChannels(page));
+            if (result.getPositionCount() == 0) {
+                return WorkProcessor.of();
+            }
+            return WorkProcessor.of(result);
+        }
+
         if (filter.isPresent()) {
             SelectedPositions selectedPositions = filter.get().filter(properties, filter.get().getInputChannels().getInputChannels(page));
             if (selectedPositions.isEmpty()) {
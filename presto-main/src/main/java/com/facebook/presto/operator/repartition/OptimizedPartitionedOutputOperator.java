@@ -64,6 +64,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -73,6 +74,7 @@ import static com.facebook.presto.common.array.Arrays.ExpansionOption.INITIALIZE
 import static com.facebook.presto.common.array.Arrays.ExpansionOption.PRESERVE;
 import static com.facebook.presto.common.array.Arrays.ensureCapacity;
 import static com.facebook.presto.common.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+import static com.facebook.presto.execution.buffer.PageCodecRuntimeStats.recordPageCodec;
 import static com.facebook.presto.operator.repartition.AbstractBlockEncodingBuffer.createBlockEncodingBuffers;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
@@ -394,6 +396,8 @@ public class OptimizedPartitionedOutputOperator
         private final int nullChannel; // when >= 0, send the position to every partition if this channel is null
         private final AtomicLong rowsAdded = new AtomicLong();
         private final AtomicLong pagesAdded = new AtomicLong();
+        private final AtomicLongArray partitionRowsAdded;
+        private final AtomicLongArray partitionBytesAdded;
 
         // The ArrayAllocator used by BlockFlattener for decoding blocks.
         // There could be queries that shuffles data with up to 1000 columns so we need to set the maxOutstandingArrays a high number.
@@ -452,9 +456,11 @@ public class OptimizedPartitionedOutputOperator
 
             int partitionBufferCapacity = max(1, min(DEFAULT_MAX_PAGE_SIZE_IN_BYTES, toIntExact(maxMemory.toBytes()) / partitionCount));
 
+            partitionRowsAdded = new AtomicLongArray(partitionCount);
+            partitionBytesAdded = new AtomicLongArray(partitionCount);
             partitionBuffers = new PartitionBuffer[partitionCount];
             for (int i = 0; i < partitionCount; i++) {
-                partitionBuffers[i] = new PartitionBuffer(i, sourceTypes.size(), partitionBufferCapacity, pagesAdded, rowsAdded, serde, bufferAllocator, operatorContext);
+                partitionBuffers[i] = new PartitionBuffer(i, sourceTypes.size(), partitionBufferCapacity, pagesAdded, rowsAdded, partitionRowsAdded, partitionBytesAdded, serde, bufferAllocator, operatorContext);
             }
 
             this.sourceTypes = sourceTypes;
@@ -482,7 +488,7 @@ public class OptimizedPartitionedOutputOperator
         public Supplier<PartitionedOutputInfo> getPartitionedOutputInfoSupplier()
         {
             // Must be a separate static method to avoid embedding references to "this" in the supplier
-            return PartitionedOutputInfo.createPartitionedOutputInfoSupplier(rowsAdded, pagesAdded, outputBuffer);
+            return PartitionedOutputInfo.createPartitionedOutputInfoSupplier(rowsAdded, pagesAdded, partitionRowsAdded, partitionBytesAdded, outputBuffer);
         }
 
         public void partitionPage(Page page)
@@ -623,6 +629,8 @@ public class OptimizedPartitionedOutputOperator
         private final int partition;
         private final AtomicLong rowsAdded;
         private final AtomicLong pagesAdded;
+        private final AtomicLongArray partitionRowsAdded;
+        private final AtomicLongArray partitionBytesAdded;
         private final PagesSerde serde;
         private final Lifespan lifespan;
         private final int capacity;
@@ -637,13 +645,25 @@ public class OptimizedPartitionedOutputOperator
         private boolean bufferFull;
         private OperatorContext operatorContext;
 
-        PartitionBuffer(int partition, int channelCount, int capacity, AtomicLong pagesAdded, AtomicLong rowsAdded, PagesSerde serde, ArrayAllocator bufferAllocator, OperatorContext operatorContext)
+        PartitionBuffer(
+                int partition,
+                int channelCount,
+                int capacity,
+                AtomicLong pagesAdded,
+                AtomicLong rowsAdded,
+                AtomicLongArray partitionRowsAdded,
+                AtomicLongArray partitionBytesAdded,
+                PagesSerde serde,
+                ArrayAllocator bufferAllocator,
+                OperatorContext operatorContext)
         {
             this.partition = partition;
             this.channelCount = channelCount;
             this.capacity = capacity;
             this.pagesAdded = requireNonNull(pagesAdded, "pagesAdded is null");
             this.rowsAdded = requireNonNull(rowsAdded, "rowsAdded is null");
+            this.partitionRowsAdded = requireNonNull(partitionRowsAdded, "partitionRowsAdded is null");
+            this.partitionBytesAdded = requireNonNull(partitionBytesAdded, "partitionBytesAdded is null");
             this.serde = requireNonNull(serde, "serde is null");
             this.bufferAllocator = requireNonNull(bufferAllocator, "bufferAllocator is null");
             this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
@@ -789,9 +809,12 @@ public class OptimizedPartitionedOutputOperator
             }
 
             SerializedPage serializedPage = serde.serialize(output.slice(), bufferedRowCount);
+            recordPageCodec(operatorContext.getRuntimeStats(), serializedPage);
             outputBuffer.enqueue(lifespan, partition, ImmutableList.of(serializedPage));
             pagesAdded.incrementAndGet();
             rowsAdded.addAndGet(bufferedRowCount);
+            partitionRowsAdded.addAndGet(partition, bufferedRowCount);
+            partitionBytesAdded.addAndGet(partition, totalSizeInBytes);
             operatorContext.recordOutput(totalSizeInBytes, bufferedRowCount);
 
             bufferedRowCount = 0;
@@ -21,31 +21,50 @@ import com.facebook.presto.operator.OperatorInfo;
 import com.facebook.presto.util.Mergeable;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
 
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Supplier;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 @ThriftStruct
 public class PartitionedOutputInfo
         implements Mergeable<PartitionedOutputInfo>, OperatorInfo
 {
+    // a partition is skewed when it receives more than this multiple of its fair share of rows
+    static final double SKEWED_PARTITION_FACTOR = 2.0;
+
     private final long rowsAdded;
     private final long pagesAdded;
     private final long outputBufferPeakMemoryUsage;
+    private final List<Long> partitionRowsAdded;
+    private final List<Long> partitionBytesAdded;
+
+    public PartitionedOutputInfo(long rowsAdded, long pagesAdded, long outputBufferPeakMemoryUsage)
+    {
+        this(rowsAdded, pagesAdded, outputBufferPeakMemoryUsage, ImmutableList.of(), ImmutableList.of());
+    }
 
     @JsonCreator
     @ThriftConstructor
     public PartitionedOutputInfo(
             @JsonProperty("rowsAdded") long rowsAdded,
             @JsonProperty("pagesAdded") long pagesAdded,
-            @JsonProperty("outputBufferPeakMemoryUsage") long outputBufferPeakMemoryUsage)
+            @JsonProperty("outputBufferPeakMemoryUsage") long outputBufferPeakMemoryUsage,
+            @JsonProperty("partitionRowsAdded") List<Long> partitionRowsAdded,
+            @JsonProperty("partitionBytesAdded") List<Long> partitionBytesAdded)
     {
         this.rowsAdded = rowsAdded;
         this.pagesAdded = pagesAdded;
         this.outputBufferPeakMemoryUsage = outputBufferPeakMemoryUsage;
+        this.partitionRowsAdded = ImmutableList.copyOf(requireNonNull(partitionRowsAdded, "partitionRowsAdded is null"));
+        this.partitionBytesAdded = ImmutableList.copyOf(requireNonNull(partitionBytesAdded, "partitionBytesAdded is null"));
+        checkArgument(this.partitionRowsAdded.size() == this.partitionBytesAdded.size(), "partitionRowsAdded and partitionBytesAdded must have the same size");
     }
 
     @JsonProperty
@@ -69,13 +88,94 @@ public class PartitionedOutputInfo
         return outputBufferPeakMemoryUsage;
     }
 
+    /**
+     * Rows sent to each output partition, indexed by partition
+     */
+    @JsonProperty
+    @ThriftField(4)
+    public List<Long> getPartitionRowsAdded()
+    {
+        return partitionRowsAdded;
+    }
+
+    /**
+     * Uncompressed bytes sent to each output partition, indexed by partition
+     */
+    @JsonProperty
+    @ThriftField(5)
+    public List<Long> getPartitionBytesAdded()
+    {
+        return partitionBytesAdded;
+    }
+
+    /**
+     * Partitions that received more than twice their fair share of rows, in partition order.
+     * The consumers of these partitions are likely to finish last.
+     */
+    public List<Integer> getSkewedPartitions()
+    {
+        if (partitionRowsAdded.size() < 2) {
+            return ImmutableList.of();
+        }
+
+        long totalRows = 0;
+        for (long rows : partitionRowsAdded) {
+            totalRows += rows;
+        }
+        double threshold = SKEWED_PARTITION_FACTOR * totalRows / partitionRowsAdded.size();
+
+        ImmutableList.Builder<Integer> skewedPartitions = ImmutableList.builder();
+        for (int partition = 0; partition < partitionRowsAdded.size(); partition++) {
+            if (partitionRowsAdded.get(partition) > threshold) {
+                skewedPartitions.add(partition);
+            }
+        }
+        return skewedPartitions.build();
+    }
+
+    /**
+     * Ratio of the rows sent to the largest partition to the average rows per partition, or 1 when there is no data
+     */
+    public double getPartitionRowsSkew()
+    {
+        long totalRows = 0;
+        long maxRows = 0;
+        for (long rows : partitionRowsAdded) {
+            totalRows += rows;
+            maxRows = Math.max(maxRows, rows);
+        }
+        if (totalRows == 0) {
+            return 1;
+        }
+        return maxRows * (double) partitionRowsAdded.size() / totalRows;
+    }
+
     @Override
     public PartitionedOutputInfo mergeWith(PartitionedOutputInfo other)
     {
         return new PartitionedOutputInfo(
                 rowsAdded + other.rowsAdded,
                 pagesAdded + other.pagesAdded,
-                Math.max(outputBufferPeakMemoryUsage, other.outputBufferPeakMemoryUsage));
+                Math.max(outputBufferPeakMemoryUsage, other.outputBufferPeakMemoryUsage),
+                mergePartitionCounts(partitionRowsAdded, other.partitionRowsAdded),
+                mergePartitionCounts(partitionBytesAdded, other.partitionBytesAdded));
+    }
+
+    private static List<Long> mergePartitionCounts(List<Long> left, List<Long> right)
+    {
+        // all partitioned outputs of a stage write to the same number of partitions
+        if (left.isEmpty()) {
+            return right;
+        }
+        if (right.isEmpty()) {
+            return left;
+        }
+        checkArgument(left.size() == right.size(), "Cannot merge counts for %s and %s partitions", left.size(), right.size());
+        ImmutableList.Builder<Long> merged = ImmutableList.builderWithExpectedSize(left.size());
+        for (int partition = 0; partition < left.size(); partition++) {
+            merged.add(left.get(partition) + right.get(partition));
+        }
+        return merged.build();
     }
 
     @Override
@@ -91,14 +191,37 @@ public class PartitionedOutputInfo
                 .add("rowsAdded", rowsAdded)
                 .add("pagesAdded", pagesAdded)
                 .add("outputBufferPeakMemoryUsage", outputBufferPeakMemoryUsage)
+                .add("partitionRowsSkew", getPartitionRowsSkew())
+                .add("skewedPartitions", getSkewedPartitions())
                 .toString();
     }
 
-    public static Supplier<PartitionedOutputInfo> createPartitionedOutputInfoSupplier(AtomicLong rowsAdded, AtomicLong pagesAdded, OutputBuffer outputBuffer)
+    public static Supplier<PartitionedOutputInfo> createPartitionedOutputInfoSupplier(
+            AtomicLong rowsAdded,
+            AtomicLong pagesAdded,
+            AtomicLongArray partitionRowsAdded,
+            AtomicLongArray partitionBytesAdded,
+            OutputBuffer outputBuffer)
     {
         requireNonNull(rowsAdded, "rowsAdded is null");
         requireNonNull(pagesAdded, "pagesAdded is null");
+        requireNonNull(partitionRowsAdded, "partitionRowsAdded is null");
+        requireNonNull(partitionBytesAdded, "partitionBytesAdded is null");
         requireNonNull(outputBuffer, "outputBuffer is null");
-        return () -> new PartitionedOutputInfo(rowsAdded.get(), pagesAdded.get(), outputBuffer.getPeakMemoryUsage());
+        return () -> new PartitionedOutputInfo(
+                rowsAdded.get(),
+                pagesAdded.get(),
+                outputBuffer.getPeakMemoryUsage(),
+                toList(partitionRowsAdded),
+                toList(partitionBytesAdded));
+    }
+
+    private static List<Long> toList(AtomicLongArray counts)
+    {
+        ImmutableList.Builder<Long> list = ImmutableList.builderWithExpectedSize(counts.length());
+        for (int i = 0; i < counts.length(); i++) {
+            list.add(counts.get(i));
+        }
+        return list.build();
     }
 }
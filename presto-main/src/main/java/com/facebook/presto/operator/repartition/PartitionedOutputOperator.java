@@ -29,6 +29,7 @@ import com.facebook.presto.operator.OutputFactory;
 import com.facebook.presto.operator.PartitionFunction;
 import com.facebook.presto.spi.page.PagesSerde;
 import com.facebook.presto.spi.page.SerializedPage;
+import com.facebook.presto.spi.plan.PartitionSpreading;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.spi.relation.ConstantExpression;
 import com.facebook.presto.sql.planner.OutputPartitioning;
@@ -45,11 +46,15 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static com.facebook.presto.common.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+import static com.facebook.presto.execution.buffer.PageCodecRuntimeStats.recordPageCodec;
 import static com.facebook.presto.execution.buffer.PageSplitterUtil.splitPage;
+import static com.facebook.presto.operator.repartition.PartitionedOutputInfo.SKEWED_PARTITION_FACTOR;
+import static com.facebook.presto.spi.plan.PartitionSpreading.Mode.REPLICATE;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
@@ -90,6 +95,7 @@ public class PartitionedOutputOperator
                     outputPartitioning.get().getPartitionConstants(),
                     outputPartitioning.get().isReplicateNullsAndAny(),
                     outputPartitioning.get().getNullChannel(),
+                    outputPartitioning.get().getPartitionSpreading(),
                     outputBuffer,
                     serdeFactory,
                     maxMemory);
@@ -108,6 +114,7 @@ public class PartitionedOutputOperator
         private final List<Optional<ConstantExpression>> partitionConstants;
         private final boolean replicatesAnyRow;
         private final OptionalInt nullChannel;
+        private final Optional<PartitionSpreading> partitionSpreading;
         private final OutputBuffer outputBuffer;
         private final PagesSerdeFactory serdeFactory;
         private final DataSize maxMemory;
@@ -122,6 +129,7 @@ public class PartitionedOutputOperator
                 List<Optional<ConstantExpression>> partitionConstants,
                 boolean replicatesAnyRow,
                 OptionalInt nullChannel,
+                Optional<PartitionSpreading> partitionSpreading,
                 OutputBuffer outputBuffer,
                 PagesSerdeFactory serdeFactory,
                 DataSize maxMemory)
@@ -135,6 +143,7 @@ public class PartitionedOutputOperator
             this.partitionConstants = requireNonNull(partitionConstants, "partitionConstants is null");
             this.replicatesAnyRow = replicatesAnyRow;
             this.nullChannel = requireNonNull(nullChannel, "nullChannel is null");
+            this.partitionSpreading = requireNonNull(partitionSpreading, "partitionSpreading is null");
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
             this.serdeFactory = requireNonNull(serdeFactory, "serdeFactory is null");
             this.maxMemory = requireNonNull(maxMemory, "maxMemory is null");
@@ -153,6 +162,7 @@ public class PartitionedOutputOperator
                     partitionConstants,
                     replicatesAnyRow,
                     nullChannel,
+                    partitionSpreading,
                     outputBuffer,
                     serdeFactory,
                     maxMemory);
@@ -176,6 +186,7 @@ public class PartitionedOutputOperator
                     partitionConstants,
                     replicatesAnyRow,
                     nullChannel,
+                    partitionSpreading,
                     outputBuffer,
                     serdeFactory,
                     maxMemory);
@@ -197,6 +208,7 @@ public class PartitionedOutputOperator
             List<Optional<ConstantExpression>> partitionConstants,
             boolean replicatesAnyRow,
             OptionalInt nullChannel,
+            Optional<PartitionSpreading> partitionSpreading,
             OutputBuffer outputBuffer,
             PagesSerdeFactory serdeFactory,
             DataSize maxMemory)
@@ -209,6 +221,7 @@ public class PartitionedOutputOperator
                 partitionConstants,
                 replicatesAnyRow,
                 nullChannel,
+                partitionSpreading,
                 outputBuffer,
                 serdeFactory,
                 sourceTypes,
@@ -283,6 +296,9 @@ public class PartitionedOutputOperator
 
     private static class PagePartitioner
     {
+        // a partition is only spread once it received enough rows for its share to be meaningful
+        private static final long MIN_HEAVY_HITTER_ROWS = 1000;
+
         private final OutputBuffer outputBuffer;
         private final Type[] sourceTypes;
         private final PartitionFunction partitionFunction;
@@ -295,16 +311,26 @@ public class PartitionedOutputOperator
         private final int nullChannel; // when >= 0, send the position to every partition if this channel is null
         private final AtomicLong rowsAdded = new AtomicLong();
         private final AtomicLong pagesAdded = new AtomicLong();
+        private final AtomicLongArray partitionRowsAdded;
+        private final AtomicLongArray partitionBytesAdded;
         private boolean hasAnyRowBeenReplicated;
         private final OperatorContext operatorContext;
         private final LocalMemoryContext systemMemoryContext;
 
+        // the rows of a partition may go to any of this many consecutive partitions, see PartitionSpreading
+        private final int spreadingFanout;
+        private final boolean replicatesToSpreadPartitions;
+        private final long[] spreadingPartitionRows;
+        private final int[] spreadingNextOffsets;
+        private long spreadingTotalRows;
+
         public PagePartitioner(
                 PartitionFunction partitionFunction,
                 List<Integer> partitionChannels,
                 List<Optional<ConstantExpression>> partitionConstants,
                 boolean replicatesAnyRow,
                 OptionalInt nullChannel,
+                Optional<PartitionSpreading> partitionSpreading,
                 OutputBuffer outputBuffer,
                 PagesSerdeFactory serdeFactory,
                 List<Type> sourceTypes,
@@ -347,6 +373,14 @@ public class PartitionedOutputOperator
             for (int i = 0; i < partitionCount; i++) {
                 pageBuilders[i] = PageBuilder.withMaxPageSize(pageSize, sourceTypes);
             }
+            this.partitionRowsAdded = new AtomicLongArray(partitionCount);
+            this.partitionBytesAdded = new AtomicLongArray(partitionCount);
+
+            requireNonNull(partitionSpreading, "partitionSpreading is null");
+            this.spreadingFanout = min(partitionCount, partitionSpreading.map(PartitionSpreading::getFanout).orElse(1));
+            this.replicatesToSpreadPartitions = partitionSpreading.map(spreading -> spreading.getMode() == REPLICATE).orElse(false);
+            this.spreadingPartitionRows = new long[spreadingFanout > 1 && !replicatesToSpreadPartitions ? partitionCount : 0];
+            this.spreadingNextOffsets = new int[spreadingPartitionRows.length];
         }
 
         public void zeroMemoryContext()
@@ -389,7 +423,7 @@ public class PartitionedOutputOperator
         public Supplier<PartitionedOutputInfo> getPartitionedOutputInfoSupplier()
         {
             // Must be a separate static method to avoid embedding references to "this" in the supplier
-            return PartitionedOutputInfo.createPartitionedOutputInfoSupplier(rowsAdded, pagesAdded, outputBuffer);
+            return PartitionedOutputInfo.createPartitionedOutputInfoSupplier(rowsAdded, pagesAdded, partitionRowsAdded, partitionBytesAdded, outputBuffer);
         }
 
         public void partitionPage(Page page)
@@ -424,14 +458,14 @@ public class PartitionedOutputOperator
                     }
                     else {
                         int partition = partitionFunction.getPartition(partitionFunctionArgs, position);
-                        appendRow(pageBuilders[partition], page, position);
+                        appendRow(partition, page, position);
                     }
                 }
             }
             else {
                 for (; position < page.getPositionCount(); position++) {
                     int partition = partitionFunction.getPartition(partitionFunctionArgs, position);
-                    appendRow(pageBuilders[partition], page, position);
+                    appendRow(partition, page, position);
                 }
             }
 
@@ -461,6 +495,37 @@ public class PartitionedOutputOperator
             return new Page(page.getPositionCount(), blocks);
         }
 
+        private void appendRow(int partition, Page page, int position)
+        {
+            if (spreadingFanout == 1) {
+                appendRow(pageBuilders[partition], page, position);
+            }
+            else if (replicatesToSpreadPartitions) {
+                for (int offset = 0; offset < spreadingFanout; offset++) {
+                    appendRow(pageBuilders[(partition + offset) % pageBuilders.length], page, position);
+                }
+            }
+            else {
+                appendRow(pageBuilders[spreadPartition(partition)], page, position);
+            }
+        }
+
+        /**
+         * Sends the rows of a partition that received more than its fair share of rows round robin
+         * to the partitions of its group, and the rows of any other partition to the partition itself.
+         */
+        private int spreadPartition(int partition)
+        {
+            long partitionRows = ++spreadingPartitionRows[partition];
+            spreadingTotalRows++;
+            if (partitionRows < MIN_HEAVY_HITTER_ROWS || partitionRows <= SKEWED_PARTITION_FACTOR * spreadingTotalRows / pageBuilders.length) {
+                return partition;
+            }
+            int offset = spreadingNextOffsets[partition];
+            spreadingNextOffsets[partition] = (offset + 1) % spreadingFanout;
+            return (partition + offset) % pageBuilders.length;
+        }
+
         private void appendRow(PageBuilder pageBuilder, Page page, int position)
         {
             pageBuilder.declarePosition();
@@ -485,6 +550,8 @@ public class PartitionedOutputOperator
                     outputBuffer.enqueue(operatorContext.getDriverContext().getLifespan(), partition, splitAndSerializePage(pagePartition));
                     pagesAdded.incrementAndGet();
                     rowsAdded.addAndGet(pagePartition.getPositionCount());
+                    partitionRowsAdded.addAndGet(partition, pagePartition.getPositionCount());
+                    partitionBytesAdded.addAndGet(partition, pagePartition.getSizeInBytes());
                 }
             }
         }
@@ -494,7 +561,9 @@ public class PartitionedOutputOperator
             List<Page> pagesFromSplitting = splitPage(pagePartition, DEFAULT_MAX_PAGE_SIZE_IN_BYTES);
             ImmutableList.Builder<SerializedPage> builder = ImmutableList.builderWithExpectedSize(pagesFromSplitting.size());
             for (Page p : pagesFromSplitting) {
-                builder.add(serde.serialize(p));
+                SerializedPage serializedPage = serde.serialize(p);
+                recordPageCodec(operatorContext.getRuntimeStats(), serializedPage);
+                builder.add(serializedPage);
             }
             return builder.build();
         }
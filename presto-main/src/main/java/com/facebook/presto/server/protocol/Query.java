@@ -15,6 +15,7 @@ package com.facebook.presto.server.protocol;
 
 import com.facebook.airlift.log.Logger;
 import com.facebook.presto.Session;
+import com.facebook.presto.SystemSessionProperties;
 import com.facebook.presto.client.Column;
 import com.facebook.presto.client.FailureInfo;
 import com.facebook.presto.client.QueryError;
@@ -22,6 +23,7 @@ import com.facebook.presto.client.QueryResults;
 import com.facebook.presto.client.StatementStats;
 import com.facebook.presto.common.ErrorCode;
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockEncodingSerde;
 import com.facebook.presto.common.transaction.TransactionId;
 import com.facebook.presto.common.type.BooleanType;
@@ -83,6 +85,7 @@ import static com.facebook.presto.SystemSessionProperties.isExchangeCompressionE
 import static com.facebook.presto.SystemSessionProperties.retryQueryWithHistoryBasedOptimizationEnabled;
 import static com.facebook.presto.SystemSessionProperties.trackHistoryBasedPlanStatisticsEnabled;
 import static com.facebook.presto.SystemSessionProperties.useHistoryBasedPlanStatisticsEnabled;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.execution.QueryState.FAILED;
 import static com.facebook.presto.execution.QueryState.WAITING_FOR_PREREQUISITES;
 import static com.facebook.presto.server.protocol.QueryResourceUtil.toStatementStats;
@@ -251,6 +254,11 @@ class Query
         return queryId;
     }
 
+    public boolean isLegacyTimestamp()
+    {
+        return SystemSessionProperties.isLegacyTimestamp(session);
+    }
+
     public boolean isSlugValid(String slug)
     {
         return this.slug.equals(slug);
@@ -468,6 +476,7 @@ class Query
         // the pages will be lost.
         Iterable<List<Object>> data = null;
         List<String> binaryData = null;
+        SerializedPage firstBinaryPage = null;
         try {
             long rows = 0;
             long bytes = 0;
@@ -482,6 +491,9 @@ class Query
 
                     rows += serializedPage.getPositionCount();
                     bytes += serializedPage.getSizeInBytes();
+                    if ((firstBinaryPage == null) && (serializedPage.getPositionCount() > 0)) {
+                        firstBinaryPage = serializedPage;
+                    }
 
                     DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1000);
                     writeSerializedPage(sliceOutput, serializedPage);
@@ -536,6 +548,14 @@ class Query
                 }
             }
         }
+        // binary results are not decoded, so read the update count from the first non-empty page
+        if ((firstBinaryPage != null) && (queryInfo.getUpdateType() != null) && (updateCount == null) &&
+                (columns.size() == 1) && (columns.get(0).getType().equals(StandardTypes.BIGINT))) {
+            Block block = serde.deserialize(firstBinaryPage).getBlock(0);
+            if (!block.isNull(0)) {
+                updateCount = BIGINT.getLong(block, 0);
+            }
+        }
 
         closeExchangeClientIfNecessary(queryInfo);
 
@@ -66,6 +66,7 @@ import static com.facebook.presto.client.PrestoHeaders.PRESTO_ADDED_SESSION_FUNC
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLEAR_SESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLEAR_TRANSACTION_ID;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_DEALLOCATED_PREPARE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_LEGACY_TIMESTAMP;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PREFIX_URL;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_REMOVED_SESSION_FUNCTION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_SET_CATALOG;
@@ -141,6 +142,11 @@ public final class QueryResourceUtil
             response.header(PRESTO_CLEAR_TRANSACTION_ID, true);
         }
 
+        // binary results are decoded by the client, which needs the effective timestamp semantics
+        if (queryResults.getBinaryData() != null) {
+            response.header(PRESTO_LEGACY_TIMESTAMP, query.isLegacyTimestamp());
+        }
+
         if (!compressionEnabled) {
             response.encoding("identity");
         }
@@ -19,48 +19,60 @@ import com.facebook.presto.operator.SpillContext;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.page.PagesSerde;
 import com.facebook.presto.spi.page.PagesSerdeUtil;
+import com.facebook.presto.spi.page.SerializedPage;
 import com.facebook.presto.spi.spiller.SpillCipher;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.PeekingIterator;
 import com.google.common.io.Closer;
-import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.InputStreamSliceInput;
-import io.airlift.slice.OutputStreamSliceOutput;
-import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slice;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
 import static com.facebook.presto.common.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
 import static com.facebook.presto.execution.buffer.PageSplitterUtil.splitPage;
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_SPILL_FAILURE;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.PAGE_METADATA_SIZE;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
 import static com.facebook.presto.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
 import static com.facebook.presto.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Iterators.peekingIterator;
 import static com.google.common.collect.Iterators.transform;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.nio.file.StandardOpenOption.APPEND;
+import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
 @NotThreadSafe
 public class FileSingleStreamSpiller
         implements SingleStreamSpiller
 {
-    @VisibleForTesting
-    static final int BUFFER_SIZE = 4 * 1024;
+    // the minimum read buffer of InputStreamSliceInput
+    private static final int MIN_BUFFER_SIZE = 1024;
+    // chunks are read ahead on the spiller threads, so the input stream itself needs no large buffer
+    private static final int READ_BUFFER_SIZE = 4 * 1024;
 
     private final FileHolder targetFile;
     private final Closer closer = Closer.create();
@@ -71,23 +83,31 @@ public class FileSingleStreamSpiller
     private final Optional<SpillCipher> spillCipher;
 
     private final ListeningExecutorService executor;
+    private final ListeningExecutorService writeExecutor;
+    private final int bufferSizeInBytes;
 
     private boolean writable = true;
     private boolean committed;
+    private volatile boolean closed;
     private volatile long spilledPagesInMemorySize;
-    private ListenableFuture<?> spillInProgress = Futures.immediateFuture(null);
+    private ListenableFuture<?> spillInProgress = immediateFuture(null);
 
     public FileSingleStreamSpiller(
             PagesSerde serde,
             ListeningExecutorService executor,
+            ListeningExecutorService writeExecutor,
             Path spillPath,
             SpillerStats spillerStats,
             SpillContext spillContext,
             LocalMemoryContext memoryContext,
-            Optional<SpillCipher> spillCipher)
+            Optional<SpillCipher> spillCipher,
+            int bufferSizeInBytes)
     {
+        checkArgument(bufferSizeInBytes >= MIN_BUFFER_SIZE, "bufferSizeInBytes must be at least %s", MIN_BUFFER_SIZE);
         this.serde = requireNonNull(serde, "serde is null");
         this.executor = requireNonNull(executor, "executor is null");
+        this.writeExecutor = requireNonNull(writeExecutor, "writeExecutor is null");
+        this.bufferSizeInBytes = bufferSizeInBytes;
         this.spillerStats = requireNonNull(spillerStats, "spillerStats is null");
         this.localSpillContext = spillContext.newLocalSpillContext();
         this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
@@ -104,7 +124,8 @@ public class FileSingleStreamSpiller
         // This means we start accounting for the memory before the spiller thread allocates it, and we release the memory reservation
         // before/after the spiller thread allocates that memory -- -- whether before or after depends on whether writePages() is in the
         // middle of execution when close() is called (note that this applies to both readPages() and writePages() methods).
-        this.memoryContext.setBytes(BUFFER_SIZE);
+        // See getMemoryReservation() for the chunks that are in memory at a time.
+        this.memoryContext.setBytes(getMemoryReservation(bufferSizeInBytes));
         try {
             this.targetFile = closer.register(new FileHolder(Files.createTempFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX)));
         }
@@ -132,13 +153,25 @@ public class FileSingleStreamSpiller
     public Iterator<Page> getSpilledPages()
     {
         checkNoSpillInProgress();
-        return readPages();
+        return readPages(true);
     }
 
     @Override
     public ListenableFuture<List<Page>> getAllSpilledPages()
     {
-        return executor.submit(() -> ImmutableList.copyOf(getSpilledPages()));
+        // this already runs on the spiller threads, reading ahead from them could exhaust the pool
+        return executor.submit(() -> {
+            checkNoSpillInProgress();
+            return ImmutableList.copyOf(readPages(false));
+        });
+    }
+
+    @VisibleForTesting
+    static long getMemoryReservation(int bufferSizeInBytes)
+    {
+        // chunks and spilled pages are at most bufferSizeInBytes. Writing holds the chunk being serialized and the one being written,
+        // reading holds the current chunk, the chunk being read ahead, the first page of the chunk after it and the input buffer
+        return 3L * bufferSizeInBytes + READ_BUFFER_SIZE;
     }
 
     @Override
@@ -151,19 +184,37 @@ public class FileSingleStreamSpiller
     {
         checkState(writable, "Spilling no longer allowed. The spiller has been made non-writable on first read for subsequent reads to be consistent");
         checkState(!committed, "Spilling no longer allowed. Spill file is already committed");
-        try (SliceOutput output = new OutputStreamSliceOutput(targetFile.newOutputStream(APPEND), BUFFER_SIZE)) {
-            while (pageIterator.hasNext()) {
-                Page page = pageIterator.next();
-                spilledPagesInMemorySize += page.getSizeInBytes();
-                // page serialization requires  page.getSizeInBytes() + Integer.BYTES to fit in an integer
-                splitPage(page, DEFAULT_MAX_PAGE_SIZE_IN_BYTES).stream()
-                        .map(serde::serialize)
-                        .forEach(serializedPage -> {
-                            long pageSize = serializedPage.getSizeInBytes();
-                            localSpillContext.updateBytes(pageSize);
-                            spillerStats.addToTotalSpilledBytes(pageSize);
-                            writeSerializedPage(output, serializedPage);
-                        });
+        ListenableFuture<?> pendingWrite = immediateFuture(null);
+        try (OutputStream output = targetFile.newOutputStream(APPEND)) {
+            try {
+                // Pages are serialized into chunks of at most bufferSizeInBytes. Each chunk is written
+                // with a single call by the write executor while the next chunk is being serialized.
+                DynamicSliceOutput chunk = new DynamicSliceOutput(bufferSizeInBytes);
+                while (pageIterator.hasNext()) {
+                    Page page = pageIterator.next();
+                    spilledPagesInMemorySize += page.getSizeInBytes();
+                    // page serialization requires  page.getSizeInBytes() + Integer.BYTES to fit in an integer,
+                    // a page that cannot be split further (e.g. a single large row) is written as a chunk of its own
+                    for (Page splitPage : splitPage(page, min(bufferSizeInBytes, DEFAULT_MAX_PAGE_SIZE_IN_BYTES))) {
+                        SerializedPage serializedPage = serde.serialize(splitPage);
+                        long pageSize = serializedPage.getSizeInBytes();
+                        localSpillContext.updateBytes(pageSize);
+                        spillerStats.addToTotalSpilledBytes(pageSize);
+                        if (chunk.size() > 0 && chunk.size() + PAGE_METADATA_SIZE + pageSize > bufferSizeInBytes) {
+                            pendingWrite = writeChunk(output, chunk.slice(), pendingWrite);
+                            chunk = new DynamicSliceOutput(bufferSizeInBytes);
+                        }
+                        writeSerializedPage(chunk, serializedPage);
+                    }
+                }
+                if (chunk.size() > 0) {
+                    pendingWrite = writeChunk(output, chunk.slice(), pendingWrite);
+                }
+                getFutureValue(pendingWrite);
+            }
+            finally {
+                // the stream must not be closed while a chunk is being written
+                waitForWrite(pendingWrite);
             }
         }
         catch (UncheckedIOException | IOException e) {
@@ -171,7 +222,34 @@ public class FileSingleStreamSpiller
         }
     }
 
-    private Iterator<Page> readPages()
+    private ListenableFuture<?> writeChunk(OutputStream output, Slice chunk, ListenableFuture<?> previousWrite)
+    {
+        // at most one chunk is written while the next one is serialized
+        getFutureValue(previousWrite);
+        return writeExecutor.submit(() -> {
+            try {
+                chunk.getBytes(0, output, chunk.length());
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void waitForWrite(ListenableFuture<?> write)
+    {
+        try {
+            write.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException ignored) {
+            // reported by the spill itself
+        }
+    }
+
+    private Iterator<Page> readPages(boolean readAhead)
     {
         checkState(writable, "Repeated reads are disallowed to prevent potential resource leaks");
         writable = false;
@@ -183,10 +261,16 @@ public class FileSingleStreamSpiller
 
             checkState(committed, "Cannot read pages since spill file is not committed");
             InputStream input = closer.register(targetFile.newInputStream());
-            Iterator<Page> deserializedPages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE));
+            Iterator<Page> deserializedPages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, READ_BUFFER_SIZE));
             Iterator<Page> compactPages = transform(deserializedPages, Page::compact);
             spillerStats.addToTotalSpilledBytesRead(getSpilledPagesInMemorySize());
-            return closeWhenExhausted(compactPages, input);
+            Iterator<Page> pages = closeWhenExhausted(compactPages, input);
+            if (readAhead) {
+                // decryption, decompression and compaction of the next chunk happen on the spiller threads,
+                // the read ahead is stopped before the input is closed
+                return closer.register(new ReadAheadIterator(pages));
+            }
+            return pages;
         }
         catch (IOException e) {
             throw new PrestoException(GENERIC_SPILL_FAILURE, format("Failed to read spilled pages: %s", e.getMessage()), e);
@@ -196,6 +280,7 @@ public class FileSingleStreamSpiller
     @Override
     public void close()
     {
+        closed = true;
         closer.register(localSpillContext);
         closer.register(() -> memoryContext.setBytes(0));
         try {
@@ -211,6 +296,72 @@ public class FileSingleStreamSpiller
         checkState(spillInProgress.isDone(), "spill in progress");
     }
 
+    /**
+     * Reads the next chunk of pages in the background while the current chunk is consumed.
+     * The source iterator is only used by one read at a time.
+     */
+    private class ReadAheadIterator
+            extends AbstractIterator<Page>
+            implements Closeable
+    {
+        private final PeekingIterator<Page> source;
+
+        private Iterator<Page> currentChunk = emptyIterator();
+        private ListenableFuture<List<Page>> nextChunk;
+
+        public ReadAheadIterator(Iterator<Page> source)
+        {
+            this.source = peekingIterator(requireNonNull(source, "source is null"));
+            this.nextChunk = executor.submit(this::readChunk);
+        }
+
+        @Override
+        protected Page computeNext()
+        {
+            if (closed) {
+                // pages read ahead must not outlive the spill file
+                throw new UncheckedIOException(new IOException("Spiller is closed"));
+            }
+            while (!currentChunk.hasNext()) {
+                if (nextChunk == null) {
+                    return endOfData();
+                }
+                List<Page> chunk = getFutureValue(nextChunk);
+                if (chunk.isEmpty()) {
+                    nextChunk = null;
+                    return endOfData();
+                }
+                nextChunk = executor.submit(this::readChunk);
+                currentChunk = chunk.iterator();
+            }
+            return currentChunk.next();
+        }
+
+        // synchronized with close() so the input is not closed while a chunk is being read
+        private synchronized List<Page> readChunk()
+        {
+            ImmutableList.Builder<Page> chunk = ImmutableList.builder();
+            long chunkSize = 0;
+            // a page that does not fit is kept for the next chunk, so chunks stay within bufferSizeInBytes
+            while (!closed && source.hasNext() && (chunkSize == 0 || chunkSize + source.peek().getSizeInBytes() <= bufferSizeInBytes)) {
+                Page page = source.next();
+                chunkSize += page.getSizeInBytes();
+                chunk.add(page);
+            }
+            return chunk.build();
+        }
+
+        @Override
+        public synchronized void close()
+        {
+            // a chunk that is already being read stops at the next page, as the spiller is closed
+            if (nextChunk != null) {
+                nextChunk.cancel(false);
+                nextChunk = null;
+            }
+        }
+    }
+
     private static <T> Iterator<T> closeWhenExhausted(Iterator<T> iterator, Closeable resource)
     {
         requireNonNull(iterator, "iterator is null");
@@ -14,7 +14,9 @@
 package com.facebook.presto.spiller;
 
 import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
 import io.airlift.units.DataSize;
+import io.airlift.units.MinDataSize;
 
 import javax.validation.constraints.NotNull;
 
@@ -24,6 +26,7 @@ public class NodeSpillConfig
     private DataSize maxRevocableMemoryPerNode = new DataSize(16, DataSize.Unit.GIGABYTE);
     private DataSize queryMaxSpillPerNode = new DataSize(100, DataSize.Unit.GIGABYTE);
     private DataSize tempStorageBufferSize = new DataSize(4, DataSize.Unit.KILOBYTE);
+    private DataSize spillFileBufferSize = new DataSize(64, DataSize.Unit.KILOBYTE);
 
     private boolean spillCompressionEnabled;
     private boolean spillEncryptionEnabled;
@@ -103,4 +106,19 @@ public class NodeSpillConfig
         this.tempStorageBufferSize = tempStorageBufferSize;
         return this;
     }
+
+    @NotNull
+    @MinDataSize("4kB")
+    public DataSize getSpillFileBufferSize()
+    {
+        return spillFileBufferSize;
+    }
+
+    @Config("experimental.spill-file-buffer-size")
+    @ConfigDescription("Size of the chunks spill files are written in and read ahead by")
+    public NodeSpillConfig setSpillFileBufferSize(DataSize spillFileBufferSize)
+    {
+        this.spillFileBufferSize = spillFileBufferSize;
+        return this;
+    }
 }
@@ -18,6 +18,7 @@ import com.facebook.airlift.configuration.ConfigDescription;
 import com.facebook.airlift.configuration.DefunctConfig;
 import com.facebook.airlift.configuration.LegacyConfig;
 import com.facebook.presto.common.function.OperatorType;
+import com.facebook.presto.execution.buffer.ExchangeCompressionCodec;
 import com.facebook.presto.spi.function.FunctionMetadata;
 import com.facebook.presto.sql.tree.CreateView;
 import com.google.common.annotations.VisibleForTesting;
@@ -116,6 +117,7 @@ public class FeaturesConfig
     private boolean optimizeCaseExpressionPredicate;
     private boolean pushTableWriteThroughUnion = true;
     private boolean exchangeCompressionEnabled;
+    private ExchangeCompressionCodec exchangeCompressionCodec = ExchangeCompressionCodec.LZ4;
     private boolean exchangeChecksumEnabled;
     private boolean optimizeMixedDistinctAggregations;
     private boolean forceSingleNodeOutput = true;
@@ -126,6 +128,7 @@ public class FeaturesConfig
     private boolean logInvokedFunctionNamesEnabled;
 
     private boolean dictionaryAggregation;
+    private boolean flatGroupByHashEnabled;
     private boolean spillEnabled;
     private boolean joinSpillingEnabled = true;
     private List<Path> spillerSpillPaths = ImmutableList.of();
@@ -163,6 +166,8 @@ public class FeaturesConfig
     private int dynamicFilteringMaxPerDriverRowCount = 100;
     private DataSize dynamicFilteringMaxPerDriverSize = new DataSize(10, KILOBYTE);
     private int dynamicFilteringRangeRowLimitPerDriver;
+    private DataSize dynamicFilteringBloomFilterSize = new DataSize(1, MEGABYTE);
+    private boolean enableTopNDynamicFiltering;
 
     private boolean fragmentResultCachingEnabled;
 
@@ -184,6 +189,7 @@ public class FeaturesConfig
     private boolean listBuiltInFunctionsOnly = true;
     private boolean experimentalFunctionsEnabled;
     private boolean optimizeCommonSubExpressions = true;
+    private boolean fusedFilterProjectEnabled;
     private boolean preferDistributedUnion = true;
     private boolean optimizeNullsInJoin;
     private boolean optimizePayloadJoins;
@@ -244,6 +250,7 @@ public class FeaturesConfig
     private RandomizeOuterJoinNullKeyStrategy randomizeOuterJoinNullKeyStrategy = RandomizeOuterJoinNullKeyStrategy.DISABLED;
     private ShardedJoinStrategy shardedJoinStrategy = ShardedJoinStrategy.DISABLED;
     private int joinShardCount = 100;
+    private int joinHeavyHitterFanout;
     private boolean isOptimizeConditionalAggregationEnabled;
     private boolean isRemoveRedundantDistinctAggregationEnabled = true;
     private boolean inPredicatesAsInnerJoinsEnabled;
@@ -1121,6 +1128,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isFlatGroupByHashEnabled()
+    {
+        return flatGroupByHashEnabled;
+    }
+
+    @Config("flat-group-by-hash-enabled")
+    @ConfigDescription("Use a flat hash table for grouping on fixed width integral keys")
+    public FeaturesConfig setFlatGroupByHashEnabled(boolean flatGroupByHashEnabled)
+    {
+        this.flatGroupByHashEnabled = flatGroupByHashEnabled;
+        return this;
+    }
+
     public boolean isConfidenceBasedBroadcastEnabled()
     {
         return confidenceBasedBroadcastEnabled;
@@ -1459,6 +1479,32 @@ public class FeaturesConfig
         return this;
     }
 
+    public DataSize getDynamicFilteringBloomFilterSize()
+    {
+        return dynamicFilteringBloomFilterSize;
+    }
+
+    @Config("dynamic-filtering-bloom-filter-size")
+    @ConfigDescription("Size of the Bloom filter of build-side values collected per driver once the values exceed the dynamic filtering limits, 0 to disable")
+    public FeaturesConfig setDynamicFilteringBloomFilterSize(DataSize dynamicFilteringBloomFilterSize)
+    {
+        this.dynamicFilteringBloomFilterSize = dynamicFilteringBloomFilterSize;
+        return this;
+    }
+
+    public boolean isEnableTopNDynamicFiltering()
+    {
+        return enableTopNDynamicFiltering;
+    }
+
+    @Config("enable-topn-dynamic-filtering")
+    @ConfigDescription("Filter the table scans below a top N with the first sort key of the last row it holds")
+    public FeaturesConfig setEnableTopNDynamicFiltering(boolean enableTopNDynamicFiltering)
+    {
+        this.enableTopNDynamicFiltering = enableTopNDynamicFiltering;
+        return this;
+    }
+
     public boolean isFragmentResultCachingEnabled()
     {
         return fragmentResultCachingEnabled;
@@ -1502,6 +1548,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public ExchangeCompressionCodec getExchangeCompressionCodec()
+    {
+        return exchangeCompressionCodec;
+    }
+
+    @Config("exchange.compression-codec")
+    @ConfigDescription("Codec used to compress exchange pages when exchange compression is enabled")
+    public FeaturesConfig setExchangeCompressionCodec(ExchangeCompressionCodec exchangeCompressionCodec)
+    {
+        this.exchangeCompressionCodec = exchangeCompressionCodec;
+        return this;
+    }
+
     @Config("exchange.checksum-enabled")
     public FeaturesConfig setExchangeChecksumEnabled(boolean exchangeChecksumEnabled)
     {
@@ -1785,6 +1844,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isFusedFilterProjectEnabled()
+    {
+        return fusedFilterProjectEnabled;
+    }
+
+    @Config("fused-filter-project-enabled")
+    @ConfigDescription("Compile filters and primitive projections into a single loop that writes directly into the output blocks")
+    public FeaturesConfig setFusedFilterProjectEnabled(boolean fusedFilterProjectEnabled)
+    {
+        this.fusedFilterProjectEnabled = fusedFilterProjectEnabled;
+        return this;
+    }
+
     public boolean isPreferDistributedUnion()
     {
         return preferDistributedUnion;
@@ -2398,6 +2470,21 @@ public class FeaturesConfig
         return this;
     }
 
+    @Min(0)
+    public int getJoinHeavyHitterFanout()
+    {
+        return joinHeavyHitterFanout;
+    }
+
+    @Config("optimizer.join-heavy-hitter-fanout")
+    @ConfigDescription("Number of tasks that the rows of a heavy hitter partition of a partitioned join are spread over at runtime, " +
+            "with the build rows replicated to each of them. Values below 2 disable spreading")
+    public FeaturesConfig setJoinHeavyHitterFanout(int joinHeavyHitterFanout)
+    {
+        this.joinHeavyHitterFanout = joinHeavyHitterFanout;
+        return this;
+    }
+
     public boolean isOptimizeConditionalAggregationEnabled()
     {
         return isOptimizeConditionalAggregationEnabled;
@@ -29,6 +29,7 @@ public class JavaFeaturesConfig
     private boolean orderByAggregationSpillEnabled = true;
     private boolean orderBySpillEnabled = true;
     private boolean windowSpillEnabled = true;
+    private boolean markDistinctSpillEnabled = true;
     private DataSize distinctAggregationLargeBlockSizeThreshold = new DataSize(50, MEGABYTE);
     private DataSize topNOperatorUnspillMemoryLimit = new DataSize(4, MEGABYTE);
     private DataSize aggregationOperatorUnspillMemoryLimit = new DataSize(4, MEGABYTE);
@@ -59,6 +60,19 @@ public class JavaFeaturesConfig
         return this;
     }
 
+    public boolean isMarkDistinctSpillEnabled()
+    {
+        return markDistinctSpillEnabled;
+    }
+
+    @Config("experimental.mark-distinct-spill-enabled")
+    @ConfigDescription("Enable Mark Distinct Operator Spilling if spill is enabled")
+    public JavaFeaturesConfig setMarkDistinctSpillEnabled(boolean markDistinctSpillEnabled)
+    {
+        this.markDistinctSpillEnabled = markDistinctSpillEnabled;
+        return this;
+    }
+
     public boolean isOrderByAggregationSpillEnabled()
     {
         return orderByAggregationSpillEnabled;
@@ -45,6 +45,18 @@ public class CacheStatsMBean
         return loadingCache.stats().missRate();
     }
 
+    @Managed
+    public long getHitCount()
+    {
+        return loadingCache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return loadingCache.stats().missCount();
+    }
+
     @Managed
     public long getRequestCount()
     {
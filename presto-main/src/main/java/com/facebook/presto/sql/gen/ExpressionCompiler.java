@@ -19,6 +19,7 @@ import com.facebook.presto.bytecode.CompilationException;
 import com.facebook.presto.common.function.SqlFunctionProperties;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.operator.project.CursorProcessor;
+import com.facebook.presto.operator.project.FusedPageKernel;
 import com.facebook.presto.operator.project.PageFilter;
 import com.facebook.presto.operator.project.PageProcessor;
 import com.facebook.presto.operator.project.PageProjectionWithOutputs;
@@ -150,7 +151,19 @@ public class ExpressionCompiler
             Map<SqlFunctionId, SqlInvokedFunction> sessionFunctions,
             Optional<String> classNameSuffix)
     {
-        return compilePageProcessor(sqlFunctionProperties, filter, projections, isOptimizeCommonSubExpression, sessionFunctions, classNameSuffix, OptionalInt.empty());
+        return compilePageProcessor(sqlFunctionProperties, filter, projections, isOptimizeCommonSubExpression, false, sessionFunctions, classNameSuffix, OptionalInt.empty());
+    }
+
+    public Supplier<PageProcessor> compilePageProcessor(
+            SqlFunctionProperties sqlFunctionProperties,
+            Optional<RowExpression> filter,
+            List<? extends RowExpression> projections,
+            boolean isOptimizeCommonSubExpression,
+            boolean isFusedFilterProject,
+            Map<SqlFunctionId, SqlInvokedFunction> sessionFunctions,
+            Optional<String> classNameSuffix)
+    {
+        return compilePageProcessor(sqlFunctionProperties, filter, projections, isOptimizeCommonSubExpression, isFusedFilterProject, sessionFunctions, classNameSuffix, OptionalInt.empty());
     }
 
     private Supplier<PageProcessor> compilePageProcessor(
@@ -158,10 +171,18 @@ public class ExpressionCompiler
             Optional<RowExpression> filter,
             List<? extends RowExpression> projections,
             boolean isOptimizeCommonSubExpression,
+            boolean isFusedFilterProject,
             Map<SqlFunctionId, SqlInvokedFunction> sessionFunctions,
             Optional<String> classNameSuffix,
             OptionalInt initialBatchSize)
     {
+        if (isFusedFilterProject && filter.isPresent()) {
+            Optional<Supplier<FusedPageKernel>> fusedKernelSupplier = pageFunctionCompiler.compileFusedKernel(sqlFunctionProperties, filter.get(), projections, classNameSuffix);
+            if (fusedKernelSupplier.isPresent()) {
+                return () -> new PageProcessor(fusedKernelSupplier.get().get());
+            }
+        }
+
         Optional<Supplier<PageFilter>> filterFunctionSupplier = filter.map(expression ->
                 pageFunctionCompiler.compileFilter(sqlFunctionProperties, sessionFunctions, expression, isOptimizeCommonSubExpression, classNameSuffix));
         List<Supplier<PageProjectionWithOutputs>> pageProjectionSuppliers = pageFunctionCompiler.compileProjections(
@@ -189,7 +210,7 @@ public class ExpressionCompiler
     @VisibleForTesting
     public Supplier<PageProcessor> compilePageProcessor(SqlFunctionProperties sqlFunctionProperties, Optional<RowExpression> filter, List<? extends RowExpression> projections, boolean isOptimizeCommonSubExpression, int initialBatchSize)
     {
-        return compilePageProcessor(sqlFunctionProperties, filter, projections, isOptimizeCommonSubExpression, emptyMap(), Optional.empty(), OptionalInt.of(initialBatchSize));
+        return compilePageProcessor(sqlFunctionProperties, filter, projections, isOptimizeCommonSubExpression, false, emptyMap(), Optional.empty(), OptionalInt.of(initialBatchSize));
     }
 
     @VisibleForTesting
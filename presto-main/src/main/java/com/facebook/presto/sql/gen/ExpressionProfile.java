@@ -0,0 +1,265 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.presto.spi.relation.RowExpression;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Counts how often each projection and filter is compiled, keyed by its canonical row expressions,
+ * so that the most frequently used ones can be persisted and compiled again after a restart.
+ * <p>
+ * The counts of several times the persisted number of expressions are tracked. Once that is
+ * exceeded, the least used half is dropped, so a burst of expressions that are compiled once
+ * does not evict the frequently used ones.
+ */
+@ThreadSafe
+public class ExpressionProfile
+{
+    private static final int TRACKED_ENTRIES_PER_ENTRY = 4;
+
+    private final int maxTrackedEntries;
+
+    @GuardedBy("this")
+    private final Map<CompiledExpression, Long> useCounts = new HashMap<>();
+    @GuardedBy("this")
+    private long profiledExpressionSeenCount;
+    @GuardedBy("this")
+    private long profiledExpressionNewCount;
+
+    public ExpressionProfile(int maxEntries)
+    {
+        checkArgument(maxEntries > 0, "maxEntries must be positive");
+        this.maxTrackedEntries = maxEntries * TRACKED_ENTRIES_PER_ENTRY;
+    }
+
+    /**
+     * Records one compilation of the expression.
+     */
+    public synchronized void record(CompiledExpression expression)
+    {
+        if (useCounts.containsKey(expression)) {
+            profiledExpressionSeenCount++;
+        }
+        else {
+            profiledExpressionNewCount++;
+        }
+        useCounts.merge(expression, 1L, Long::sum);
+        evictLeastUsed();
+    }
+
+    public synchronized void load(List<ProfileEntry> entries)
+    {
+        for (ProfileEntry entry : entries) {
+            useCounts.merge(entry.getExpression(), entry.getUseCount(), Long::sum);
+        }
+        evictLeastUsed();
+    }
+
+    public synchronized List<ProfileEntry> getMostUsed(int limit)
+    {
+        return useCounts.entrySet().stream()
+                .map(entry -> new ProfileEntry(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(ProfileEntry::getUseCount).reversed())
+                .limit(limit)
+                .collect(toImmutableList());
+    }
+
+    /**
+     * Number of compilations of an expression that was already profiled, including one loaded
+     * from a previous run. Profiled expressions are still compiled, this is not a cache hit.
+     */
+    @Managed
+    public synchronized long getProfiledExpressionSeenCount()
+    {
+        return profiledExpressionSeenCount;
+    }
+
+    @Managed
+    public synchronized long getProfiledExpressionNewCount()
+    {
+        return profiledExpressionNewCount;
+    }
+
+    @Managed
+    public synchronized long getTrackedExpressionCount()
+    {
+        return useCounts.size();
+    }
+
+    @GuardedBy("this")
+    private void evictLeastUsed()
+    {
+        if (useCounts.size() <= maxTrackedEntries) {
+            return;
+        }
+        List<CompiledExpression> leastUsed = useCounts.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .limit(useCounts.size() - maxTrackedEntries / 2)
+                .map(Map.Entry::getKey)
+                .collect(toImmutableList());
+        leastUsed.forEach(useCounts::remove);
+    }
+
+    public enum Kind
+    {
+        PROJECTION,
+        FILTER,
+    }
+
+    public static class CompiledExpression
+    {
+        private final Kind kind;
+        private final List<RowExpression> expressions;
+        private final boolean optimizeCommonSubExpression;
+
+        @JsonCreator
+        public CompiledExpression(
+                @JsonProperty("kind") Kind kind,
+                @JsonProperty("expressions") List<RowExpression> expressions,
+                @JsonProperty("optimizeCommonSubExpression") boolean optimizeCommonSubExpression)
+        {
+            this.kind = requireNonNull(kind, "kind is null");
+            // source locations differ between queries with identical expressions
+            this.expressions = requireNonNull(expressions, "expressions is null").stream()
+                    .map(RowExpression::canonicalize)
+                    .collect(toImmutableList());
+            checkArgument(!this.expressions.isEmpty(), "expressions is empty");
+            this.optimizeCommonSubExpression = optimizeCommonSubExpression;
+        }
+
+        @JsonProperty
+        public Kind getKind()
+        {
+            return kind;
+        }
+
+        @JsonProperty
+        public List<RowExpression> getExpressions()
+        {
+            return expressions;
+        }
+
+        @JsonProperty
+        public boolean isOptimizeCommonSubExpression()
+        {
+            return optimizeCommonSubExpression;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CompiledExpression that = (CompiledExpression) o;
+            return kind == that.kind &&
+                    optimizeCommonSubExpression == that.optimizeCommonSubExpression &&
+                    Objects.equals(expressions, that.expressions);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(kind, expressions, optimizeCommonSubExpression);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("kind", kind)
+                    .add("expressions", expressions)
+                    .add("optimizeCommonSubExpression", optimizeCommonSubExpression)
+                    .toString();
+        }
+    }
+
+    public static class ProfileEntry
+    {
+        private final CompiledExpression expression;
+        private final long useCount;
+
+        @JsonCreator
+        public ProfileEntry(
+                @JsonProperty("expression") CompiledExpression expression,
+                @JsonProperty("useCount") long useCount)
+        {
+            this.expression = requireNonNull(expression, "expression is null");
+            this.useCount = useCount;
+        }
+
+        @JsonProperty
+        public CompiledExpression getExpression()
+        {
+            return expression;
+        }
+
+        @JsonProperty
+        public long getUseCount()
+        {
+            return useCount;
+        }
+    }
+
+    /**
+     * The persisted form of a profile. Entries written by a different engine version are ignored.
+     */
+    public static class Snapshot
+    {
+        private final String engineVersion;
+        private final List<ProfileEntry> entries;
+
+        @JsonCreator
+        public Snapshot(
+                @JsonProperty("engineVersion") String engineVersion,
+                @JsonProperty("entries") List<ProfileEntry> entries)
+        {
+            this.engineVersion = requireNonNull(engineVersion, "engineVersion is null");
+            this.entries = ImmutableList.copyOf(requireNonNull(entries, "entries is null"));
+        }
+
+        @JsonProperty
+        public String getEngineVersion()
+        {
+            return engineVersion;
+        }
+
+        @JsonProperty
+        public List<ProfileEntry> getEntries()
+        {
+            return entries;
+        }
+    }
+}
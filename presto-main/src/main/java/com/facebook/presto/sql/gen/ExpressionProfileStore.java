@@ -0,0 +1,169 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.airlift.json.JsonCodec;
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.client.NodeVersion;
+import com.facebook.presto.common.function.SqlFunctionProperties;
+import com.facebook.presto.sql.gen.ExpressionProfile.ProfileEntry;
+import com.facebook.presto.sql.gen.ExpressionProfile.Snapshot;
+import com.facebook.presto.sql.planner.CompilerConfig;
+import com.google.common.annotations.VisibleForTesting;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.presto.common.type.TimeZoneKey.UTC_KEY;
+import static io.airlift.units.Duration.nanosSince;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+
+/**
+ * Persists the expression profile of the {@link PageFunctionCompiler} to a local file on shutdown,
+ * and compiles the persisted expressions in the background at startup to shorten warm-up after restarts.
+ * Generated classes are not persisted because they are linked to objects that only exist in the running JVM.
+ */
+public class ExpressionProfileStore
+{
+    private static final Logger log = Logger.get(ExpressionProfileStore.class);
+
+    private final PageFunctionCompiler pageFunctionCompiler;
+    private final Optional<File> profileFile;
+    private final int maxEntries;
+    private final String engineVersion;
+    private final JsonCodec<Snapshot> snapshotCodec;
+    private final ExecutorService warmUpExecutor = newSingleThreadExecutor(daemonThreadsNamed("expression-profile-warm-up"));
+
+    @Inject
+    public ExpressionProfileStore(PageFunctionCompiler pageFunctionCompiler, CompilerConfig config, NodeVersion nodeVersion, JsonCodec<Snapshot> snapshotCodec)
+    {
+        this(
+                pageFunctionCompiler,
+                Optional.ofNullable(requireNonNull(config, "config is null").getExpressionProfileFile()),
+                config.getExpressionProfileMaxEntries(),
+                requireNonNull(nodeVersion, "nodeVersion is null").getVersion(),
+                snapshotCodec);
+    }
+
+    @VisibleForTesting
+    ExpressionProfileStore(PageFunctionCompiler pageFunctionCompiler, Optional<File> profileFile, int maxEntries, String engineVersion, JsonCodec<Snapshot> snapshotCodec)
+    {
+        this.pageFunctionCompiler = requireNonNull(pageFunctionCompiler, "pageFunctionCompiler is null");
+        this.profileFile = requireNonNull(profileFile, "profileFile is null");
+        this.maxEntries = maxEntries;
+        this.engineVersion = requireNonNull(engineVersion, "engineVersion is null");
+        this.snapshotCodec = requireNonNull(snapshotCodec, "snapshotCodec is null");
+    }
+
+    /**
+     * Loads the profile written by a previous run of the same engine version and compiles its expressions
+     * in the background. This must be called after plugins are loaded, since expressions may use their types and functions.
+     */
+    public void loadExpressionProfile()
+    {
+        if (!profileFile.isPresent() || !pageFunctionCompiler.getExpressionProfile().isPresent() || !profileFile.get().exists()) {
+            return;
+        }
+
+        Snapshot snapshot;
+        try {
+            snapshot = snapshotCodec.fromJson(Files.readAllBytes(profileFile.get().toPath()));
+        }
+        catch (IOException | IllegalArgumentException e) {
+            log.warn(e, "Failed to read expression profile %s", profileFile.get());
+            return;
+        }
+        if (!snapshot.getEngineVersion().equals(engineVersion)) {
+            log.info("Ignoring expression profile %s written by version %s", profileFile.get(), snapshot.getEngineVersion());
+            return;
+        }
+
+        pageFunctionCompiler.getExpressionProfile().get().load(snapshot.getEntries());
+        warmUpExecutor.execute(() -> warmUp(snapshot.getEntries()));
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        warmUpExecutor.shutdownNow();
+        try {
+            saveExpressionProfile();
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to write expression profile %s", profileFile.orElse(null));
+        }
+    }
+
+    @VisibleForTesting
+    void saveExpressionProfile()
+            throws IOException
+    {
+        if (!profileFile.isPresent() || !pageFunctionCompiler.getExpressionProfile().isPresent()) {
+            return;
+        }
+
+        Snapshot snapshot = new Snapshot(engineVersion, pageFunctionCompiler.getExpressionProfile().get().getMostUsed(maxEntries));
+        Path target = profileFile.get().toPath().toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        // write to a temporary file first so a crash never leaves a truncated profile behind
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, snapshotCodec.toJsonBytes(snapshot));
+            Files.move(temporary, target, ATOMIC_MOVE, REPLACE_EXISTING);
+        }
+        finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void warmUp(List<ProfileEntry> entries)
+    {
+        SqlFunctionProperties properties = SqlFunctionProperties.builder()
+                .setTimeZoneKey(UTC_KEY)
+                .setSessionLocale(ENGLISH)
+                .setSessionUser("expression-profile")
+                .setSessionStartTime(System.currentTimeMillis())
+                .build();
+
+        long start = System.nanoTime();
+        int compiled = 0;
+        for (ProfileEntry entry : entries) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                pageFunctionCompiler.warmUp(properties, entry.getExpression());
+                compiled++;
+            }
+            catch (RuntimeException e) {
+                // functions may have been removed since the profile was written
+                log.debug(e, "Failed to compile profiled expression %s", entry.getExpression());
+            }
+        }
+        log.info("Compiled %s of %s profiled expressions in %s", compiled, entries.size(), nanosSince(start));
+    }
+}
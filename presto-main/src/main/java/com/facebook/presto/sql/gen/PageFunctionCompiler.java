@@ -26,13 +26,20 @@ import com.facebook.presto.bytecode.Scope;
 import com.facebook.presto.bytecode.Variable;
 import com.facebook.presto.bytecode.control.ForLoop;
 import com.facebook.presto.bytecode.control.IfStatement;
+import com.facebook.presto.bytecode.expression.BytecodeExpression;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.ByteArrayBlock;
+import com.facebook.presto.common.block.IntArrayBlock;
+import com.facebook.presto.common.block.LongArrayBlock;
+import com.facebook.presto.common.block.ShortArrayBlock;
 import com.facebook.presto.common.function.SqlFunctionProperties;
+import com.facebook.presto.common.type.Type;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.operator.Work;
 import com.facebook.presto.operator.project.ConstantPageProjection;
+import com.facebook.presto.operator.project.FusedPageKernel;
 import com.facebook.presto.operator.project.GeneratedPageProjection;
 import com.facebook.presto.operator.project.InputChannels;
 import com.facebook.presto.operator.project.InputPageProjection;
@@ -42,6 +49,7 @@ import com.facebook.presto.operator.project.PageProjection;
 import com.facebook.presto.operator.project.PageProjectionWithOutputs;
 import com.facebook.presto.operator.project.SelectedPositions;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.function.FunctionMetadata;
 import com.facebook.presto.spi.function.SqlFunctionId;
 import com.facebook.presto.spi.function.SqlInvokedFunction;
 import com.facebook.presto.spi.relation.CallExpression;
@@ -52,7 +60,10 @@ import com.facebook.presto.spi.relation.LambdaDefinitionExpression;
 import com.facebook.presto.spi.relation.RowExpression;
 import com.facebook.presto.spi.relation.RowExpressionVisitor;
 import com.facebook.presto.spi.relation.SpecialFormExpression;
+import com.facebook.presto.spi.relation.SpecialFormExpression.Form;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
+import com.facebook.presto.sql.gen.ExpressionProfile.CompiledExpression;
+import com.facebook.presto.sql.gen.ExpressionProfile.Kind;
 import com.facebook.presto.sql.gen.LambdaBytecodeGenerator.CompiledLambda;
 import com.facebook.presto.sql.planner.CompilerConfig;
 import com.facebook.presto.sql.relational.RowExpressionDeterminismEvaluator;
@@ -63,6 +74,7 @@ import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.primitives.Primitives;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.weakref.jmx.Managed;
@@ -71,6 +83,7 @@ import org.weakref.jmx.Nested;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -95,12 +108,28 @@ import static com.facebook.presto.bytecode.expression.BytecodeExpressions.consta
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.constantFalse;
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.constantInt;
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.constantNull;
+import static com.facebook.presto.bytecode.expression.BytecodeExpressions.constantTrue;
+import static com.facebook.presto.bytecode.expression.BytecodeExpressions.inlineIf;
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.invokeStatic;
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.lessThan;
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.newArray;
+import static com.facebook.presto.bytecode.expression.BytecodeExpressions.newInstance;
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.not;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
 import static com.facebook.presto.operator.project.PageFieldsToInputParametersRewriter.rewritePageFieldsToInputParameters;
 import static com.facebook.presto.spi.StandardErrorCode.COMPILER_ERROR;
+import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.AND;
+import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.COALESCE;
+import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.IF;
+import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.IS_NULL;
+import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.OR;
 import static com.facebook.presto.sql.gen.BytecodeUtils.boxPrimitiveIfNecessary;
 import static com.facebook.presto.sql.gen.BytecodeUtils.invoke;
 import static com.facebook.presto.sql.gen.BytecodeUtils.unboxPrimitiveIfNecessary;
@@ -132,24 +161,40 @@ public class PageFunctionCompiler
     // are less than 10 projections performance is generally better with common sub-expressions. So we set an upper limit on how many projections we would compile together here.
     private static final int MAX_PROJECTION_GROUP_SIZE = 10;
 
+    private static final Set<Type> FUSED_TYPES = ImmutableSet.of(BIGINT, INTEGER, SMALLINT, TINYINT, BOOLEAN, DOUBLE, REAL, DATE);
+    private static final Set<Form> FUSED_SPECIAL_FORMS = ImmutableSet.of(AND, OR, IF, IS_NULL, COALESCE);
+
     private final Metadata metadata;
     private final DeterminismEvaluator determinismEvaluator;
 
     private final LoadingCache<CacheKey, Supplier<PageProjection>> projectionCache;
     private final LoadingCache<CacheKey, Supplier<PageFilter>> filterCache;
+    private final LoadingCache<CacheKey, Supplier<FusedPageKernel>> fusedKernelCache;
 
     private final CacheStatsMBean projectionCacheStats;
     private final CacheStatsMBean filterCacheStats;
+    private final CacheStatsMBean fusedKernelCacheStats;
+
+    private final Optional<ExpressionProfile> expressionProfile;
 
     @Inject
     public PageFunctionCompiler(Metadata metadata, CompilerConfig config)
     {
-        this(metadata, requireNonNull(config, "config is null").getExpressionCacheSize());
+        this(
+                metadata,
+                requireNonNull(config, "config is null").getExpressionCacheSize(),
+                config.getExpressionProfileFile() == null ? Optional.empty() : Optional.of(new ExpressionProfile(config.getExpressionProfileMaxEntries())));
     }
 
     public PageFunctionCompiler(Metadata metadata, int expressionCacheSize)
+    {
+        this(metadata, expressionCacheSize, Optional.empty());
+    }
+
+    public PageFunctionCompiler(Metadata metadata, int expressionCacheSize, Optional<ExpressionProfile> expressionProfile)
     {
         this.metadata = requireNonNull(metadata, "metadata is null");
+        this.expressionProfile = requireNonNull(expressionProfile, "expressionProfile is null");
         this.determinismEvaluator = new RowExpressionDeterminismEvaluator(metadata.getFunctionAndTypeManager());
 
         if (expressionCacheSize > 0) {
@@ -175,6 +220,22 @@ public class PageFunctionCompiler
             filterCache = null;
             filterCacheStats = null;
         }
+
+        if (expressionCacheSize > 0) {
+            fusedKernelCache = CacheBuilder.newBuilder()
+                    .recordStats()
+                    .maximumSize(expressionCacheSize)
+                    .build(CacheLoader.from(cacheKey -> compileFusedKernelInternal(
+                            cacheKey.sqlFunctionProperties,
+                            cacheKey.rowExpressions.get(0),
+                            cacheKey.rowExpressions.subList(1, cacheKey.rowExpressions.size()),
+                            Optional.empty())));
+            fusedKernelCacheStats = new CacheStatsMBean(fusedKernelCache);
+        }
+        else {
+            fusedKernelCache = null;
+            fusedKernelCacheStats = null;
+        }
     }
 
     @Nullable
@@ -193,6 +254,45 @@ public class PageFunctionCompiler
         return filterCacheStats;
     }
 
+    @Nullable
+    @Managed
+    @Nested
+    public CacheStatsMBean getFusedKernelCache()
+    {
+        return fusedKernelCacheStats;
+    }
+
+    @Nullable
+    @Managed
+    @Nested
+    public ExpressionProfile getExpressionProfileStats()
+    {
+        return expressionProfile.orElse(null);
+    }
+
+    public Optional<ExpressionProfile> getExpressionProfile()
+    {
+        return expressionProfile;
+    }
+
+    /**
+     * Compiles a profiled expression without caching the result, so that code generation and the
+     * function implementations the expression calls are warm before the first query needs them.
+     */
+    public void warmUp(SqlFunctionProperties sqlFunctionProperties, CompiledExpression expression)
+    {
+        switch (expression.getKind()) {
+            case PROJECTION:
+                compileProjectionInternal(sqlFunctionProperties, emptyMap(), expression.getExpressions(), expression.isOptimizeCommonSubExpression(), Optional.empty());
+                break;
+            case FILTER:
+                compileFilterInternal(sqlFunctionProperties, emptyMap(), expression.getExpressions().get(0), expression.isOptimizeCommonSubExpression(), Optional.empty());
+                break;
+            default:
+                throw new UnsupportedOperationException("Unsupported expression kind: " + expression.getKind());
+        }
+    }
+
     public List<Supplier<PageProjectionWithOutputs>> compileProjections(
             SqlFunctionProperties sqlFunctionProperties,
             Map<SqlFunctionId, SqlInvokedFunction> sessionFunctions,
@@ -290,6 +390,7 @@ public class PageFunctionCompiler
             boolean isOptimizeCommonSubExpression,
             Optional<String> classNameSuffix)
     {
+        recordCompilation(Kind.PROJECTION, sessionFunctions, projections, isOptimizeCommonSubExpression);
         if (projectionCache == null) {
             return compileProjectionInternal(sqlFunctionProperties, sessionFunctions, projections, isOptimizeCommonSubExpression, classNameSuffix);
         }
@@ -302,6 +403,14 @@ public class PageFunctionCompiler
         }
     }
 
+    private void recordCompilation(Kind kind, Map<SqlFunctionId, SqlInvokedFunction> sessionFunctions, List<RowExpression> expressions, boolean isOptimizeCommonSubExpression)
+    {
+        // session functions only exist for the duration of a query, so expressions calling them cannot be compiled after a restart
+        if (expressionProfile.isPresent() && sessionFunctions.isEmpty()) {
+            expressionProfile.get().record(new CompiledExpression(kind, expressions, isOptimizeCommonSubExpression));
+        }
+    }
+
     private Supplier<PageProjectionWithOutputs> toPageProjectionWithOutputs(Supplier<PageProjection> pageProjection, int[] outputChannels)
     {
         return () -> new PageProjectionWithOutputs(pageProjection.get(), outputChannels);
@@ -652,6 +761,7 @@ public class PageFunctionCompiler
             boolean isOptimizeCommonSubExpression,
             Optional<String> classNameSuffix)
     {
+        recordCompilation(Kind.FILTER, sessionFunctions, ImmutableList.of(filter), isOptimizeCommonSubExpression);
         if (filterCache == null) {
             return compileFilterInternal(sqlFunctionProperties, sessionFunctions, filter, isOptimizeCommonSubExpression, classNameSuffix);
         }
@@ -897,6 +1007,289 @@ public class PageFunctionCompiler
         return method;
     }
 
+    /**
+     * Compiles the filter and all projections into a single loop, or returns empty if any of the expressions
+     * is more than arithmetic, comparisons and boolean logic over fixed width primitive values.
+     */
+    public Optional<Supplier<FusedPageKernel>> compileFusedKernel(
+            SqlFunctionProperties sqlFunctionProperties,
+            RowExpression filter,
+            List<? extends RowExpression> projections,
+            Optional<String> classNameSuffix)
+    {
+        requireNonNull(filter, "filter is null");
+        requireNonNull(projections, "projections is null");
+        List<RowExpression> expressions = ImmutableList.<RowExpression>builder()
+                .add(filter)
+                .addAll(projections)
+                .build();
+        if (projections.isEmpty() || !subExpressions(expressions).stream().allMatch(this::isFusible)) {
+            return Optional.empty();
+        }
+
+        if (fusedKernelCache == null) {
+            return Optional.of(compileFusedKernelInternal(sqlFunctionProperties, filter, ImmutableList.copyOf(projections), classNameSuffix));
+        }
+        try {
+            return Optional.of(fusedKernelCache.getUnchecked(new CacheKey(sqlFunctionProperties, emptyMap(), expressions, false)));
+        }
+        catch (UncheckedExecutionException e) {
+            throwIfInstanceOf(e.getCause(), PrestoException.class);
+            throw e;
+        }
+    }
+
+    private boolean isFusible(RowExpression expression)
+    {
+        if (!FUSED_TYPES.contains(expression.getType())) {
+            return false;
+        }
+        if (expression instanceof InputReferenceExpression || expression instanceof ConstantExpression) {
+            return true;
+        }
+        if (expression instanceof CallExpression) {
+            FunctionMetadata functionMetadata = metadata.getFunctionAndTypeManager().getFunctionMetadata(((CallExpression) expression).getFunctionHandle());
+            return functionMetadata.getOperatorType().isPresent() && functionMetadata.isDeterministic();
+        }
+        if (expression instanceof SpecialFormExpression) {
+            return FUSED_SPECIAL_FORMS.contains(((SpecialFormExpression) expression).getForm());
+        }
+        return false;
+    }
+
+    private Supplier<FusedPageKernel> compileFusedKernelInternal(
+            SqlFunctionProperties sqlFunctionProperties,
+            RowExpression filter,
+            List<RowExpression> projections,
+            Optional<String> classNameSuffix)
+    {
+        PageFieldsToInputParametersRewriter.Result result = rewritePageFieldsToInputParameters(ImmutableList.<RowExpression>builder()
+                .add(filter)
+                .addAll(projections)
+                .build());
+        List<RowExpression> rewrittenExpressions = result.getRewrittenExpressions();
+
+        CallSiteBinder callSiteBinder = new CallSiteBinder();
+        ClassDefinition classDefinition = defineFusedKernelClass(
+                sqlFunctionProperties,
+                rewrittenExpressions.get(0),
+                rewrittenExpressions.subList(1, rewrittenExpressions.size()),
+                result.getInputChannels(),
+                callSiteBinder,
+                classNameSuffix);
+
+        Class<? extends FusedPageKernel> kernelClass;
+        try {
+            kernelClass = defineClass(classDefinition, FusedPageKernel.class, callSiteBinder.getBindings(), getClass().getClassLoader());
+        }
+        catch (PrestoException prestoException) {
+            throw prestoException;
+        }
+        catch (Exception e) {
+            throw new PrestoException(COMPILER_ERROR, filter.toString(), e.getCause());
+        }
+
+        return () -> {
+            try {
+                return kernelClass.getConstructor().newInstance();
+            }
+            catch (ReflectiveOperationException e) {
+                throw new PrestoException(COMPILER_ERROR, e);
+            }
+        };
+    }
+
+    private ClassDefinition defineFusedKernelClass(
+            SqlFunctionProperties sqlFunctionProperties,
+            RowExpression filter,
+            List<RowExpression> projections,
+            InputChannels inputChannels,
+            CallSiteBinder callSiteBinder,
+            Optional<String> classNameSuffix)
+    {
+        ClassDefinition classDefinition = new ClassDefinition(
+                a(PUBLIC, FINAL),
+                makeClassName(FusedPageKernel.class.getSimpleName(), classNameSuffix),
+                type(Object.class),
+                type(FusedPageKernel.class));
+
+        CachedInstanceBinder cachedInstanceBinder = new CachedInstanceBinder(classDefinition, callSiteBinder);
+
+        RowExpressionCompiler compiler = new RowExpressionCompiler(
+                classDefinition,
+                callSiteBinder,
+                cachedInstanceBinder,
+                new FieldAndVariableReferenceCompiler(callSiteBinder, ImmutableMap.of()),
+                metadata,
+                sqlFunctionProperties,
+                emptyMap(),
+                ImmutableMap.of(),
+                new AtomicInteger(0));
+
+        generateFusedProcessMethod(classDefinition, compiler, filter, projections);
+
+        // getInputChannels
+        classDefinition.declareMethod(a(PUBLIC), "getInputChannels", type(InputChannels.class))
+                .getBody()
+                .append(invoke(callSiteBinder.bind(inputChannels, InputChannels.class), "getInputChannels"))
+                .retObject();
+
+        // toString
+        String toStringResult = toStringHelper(classDefinition.getType()
+                .getJavaClassName())
+                .add("filter", filter)
+                .add("projections", projections)
+                .toString();
+        classDefinition.declareMethod(a(PUBLIC), "toString", type(String.class))
+                .getBody()
+                // bind constant via invokedynamic to avoid constant pool issues due to large strings
+                .append(invoke(callSiteBinder.bind(toStringResult, String.class), "toString"))
+                .retObject();
+
+        // constructor
+        MethodDefinition constructorDefinition = classDefinition.declareConstructor(a(PUBLIC));
+
+        BytecodeBlock body = constructorDefinition.getBody();
+        Variable thisVariable = constructorDefinition.getThis();
+
+        body.comment("super();")
+                .append(thisVariable)
+                .invokeConstructor(Object.class);
+
+        cachedInstanceBinder.generateInitializations(thisVariable, body);
+        body.ret();
+        return classDefinition;
+    }
+
+    private static MethodDefinition generateFusedProcessMethod(
+            ClassDefinition classDefinition,
+            RowExpressionCompiler compiler,
+            RowExpression filter,
+            List<RowExpression> projections)
+    {
+        Parameter properties = arg("properties", SqlFunctionProperties.class);
+        Parameter page = arg("page", Page.class);
+
+        MethodDefinition method = classDefinition.declareMethod(
+                a(PUBLIC),
+                "process",
+                type(Page.class),
+                ImmutableList.<Parameter>builder()
+                        .add(properties)
+                        .add(page)
+                        .build());
+
+        method.comment("Filter: %s, Projections: %s", filter, Joiner.on(", ").join(projections));
+
+        Scope scope = method.getScope();
+        BytecodeBlock body = method.getBody();
+
+        declareBlockVariables(ImmutableList.<RowExpression>builder().add(filter).addAll(projections).build(), page, scope, body);
+        Variable positionCount = scope.declareVariable("positionCount", body, page.invoke("getPositionCount", int.class));
+        Variable outputPositionCount = scope.declareVariable("outputPositionCount", body, constantInt(0));
+        Variable wasNull = scope.declareVariable("wasNull", body, constantFalse());
+        Variable position = scope.declareVariable(int.class, "position");
+        Variable selected = scope.declareVariable(boolean.class, "selected");
+
+        // the output arrays are sized for the whole page, and the filter decides how much of them is filled
+        List<Variable> values = new ArrayList<>();
+        List<Variable> valueIsNull = new ArrayList<>();
+        List<Variable> mayHaveNull = new ArrayList<>();
+        for (int i = 0; i < projections.size(); i++) {
+            Type type = projections.get(i).getType();
+            values.add(scope.declareVariable("values_" + i, body, newArray(type(getFusedArrayType(type)), positionCount)));
+            valueIsNull.add(scope.declareVariable("valueIsNull_" + i, body, newArray(type(boolean[].class), positionCount)));
+            mayHaveNull.add(scope.declareVariable("mayHaveNull_" + i, body, constantFalse()));
+        }
+
+        BytecodeBlock project = new BytecodeBlock();
+        for (int i = 0; i < projections.size(); i++) {
+            RowExpression projection = projections.get(i);
+            Variable value = scope.createTempVariable(projection.getType().getJavaType());
+            project.append(wasNull.set(constantFalse()))
+                    .append(compiler.compile(projection, scope, Optional.empty()))
+                    .putVariable(value)
+                    .append(new IfStatement()
+                            .condition(wasNull)
+                            .ifTrue(new BytecodeBlock()
+                                    .append(valueIsNull.get(i).setElement(outputPositionCount, constantTrue()))
+                                    .append(mayHaveNull.get(i).set(constantTrue())))
+                            .ifFalse(values.get(i).setElement(outputPositionCount, toFusedArrayElement(projection.getType(), value))));
+        }
+        project.append(outputPositionCount.increment());
+
+        body.append(new ForLoop("fused filter and project loop")
+                .initialize(position.set(constantInt(0)))
+                .condition(lessThan(position, positionCount))
+                .update(position.increment())
+                .body(new BytecodeBlock()
+                        .append(wasNull.set(constantFalse()))
+                        .append(compiler.compile(filter, scope, Optional.empty()))
+                        .putVariable(selected)
+                        .append(new IfStatement()
+                                .condition(and(not(wasNull), selected))
+                                .ifTrue(project))));
+
+        Variable blocks = scope.declareVariable("blocks", body, newArray(type(Block[].class), projections.size()));
+        for (int i = 0; i < projections.size(); i++) {
+            body.append(blocks.setElement(i, newInstance(
+                    getFusedBlockType(projections.get(i).getType()),
+                    outputPositionCount,
+                    invokeStatic(FusedPageKernel.class, "valueIsNull", Optional.class, valueIsNull.get(i), mayHaveNull.get(i)),
+                    values.get(i)).cast(Block.class)));
+        }
+        body.append(newInstance(Page.class, outputPositionCount, blocks).ret());
+
+        return method;
+    }
+
+    private static Class<?> getFusedArrayType(Type type)
+    {
+        if (type.equals(BIGINT) || type.equals(DOUBLE)) {
+            return long[].class;
+        }
+        if (type.equals(INTEGER) || type.equals(DATE) || type.equals(REAL)) {
+            return int[].class;
+        }
+        if (type.equals(SMALLINT)) {
+            return short[].class;
+        }
+        if (type.equals(TINYINT) || type.equals(BOOLEAN)) {
+            return byte[].class;
+        }
+        throw new IllegalArgumentException("Unsupported type for fused kernel: " + type);
+    }
+
+    private static Class<? extends Block> getFusedBlockType(Type type)
+    {
+        Class<?> arrayType = getFusedArrayType(type);
+        if (arrayType == long[].class) {
+            return LongArrayBlock.class;
+        }
+        if (arrayType == int[].class) {
+            return IntArrayBlock.class;
+        }
+        if (arrayType == short[].class) {
+            return ShortArrayBlock.class;
+        }
+        return ByteArrayBlock.class;
+    }
+
+    private static BytecodeExpression toFusedArrayElement(Type type, Variable value)
+    {
+        // same encodings as Type.writeLong, writeDouble and writeBoolean use for the block builders
+        if (type.equals(BIGINT)) {
+            return value;
+        }
+        if (type.equals(DOUBLE)) {
+            return invokeStatic(Double.class, "doubleToLongBits", long.class, value);
+        }
+        if (type.equals(BOOLEAN)) {
+            return inlineIf(value, constantInt(1).cast(byte.class), constantInt(0).cast(byte.class));
+        }
+        return value.cast(getFusedArrayType(type).getComponentType());
+    }
+
     private static void declareBlockVariables(List<RowExpression> expressions, Parameter page, Scope scope, BytecodeBlock body)
     {
         for (int channel : getInputChannels(expressions)) {
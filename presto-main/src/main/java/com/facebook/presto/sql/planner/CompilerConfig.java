@@ -20,12 +20,16 @@ import com.facebook.presto.spi.function.Description;
 
 import javax.validation.constraints.Min;
 
+import java.io.File;
+
 @DefunctConfig("compiler.interpreter-enabled")
 public class CompilerConfig
 {
     private int expressionCacheSize = 10_000;
     private int leafNodeLimit = 10_000;
     private boolean leafNodeLimitEnabled;
+    private File expressionProfileFile;
+    private int expressionProfileMaxEntries = 1_000;
 
     @Min(0)
     public int getExpressionCacheSize()
@@ -66,4 +70,31 @@ public class CompilerConfig
         this.leafNodeLimitEnabled = enabled;
         return this;
     }
+
+    public File getExpressionProfileFile()
+    {
+        return expressionProfileFile;
+    }
+
+    @Config("compiler.expression-profile-file")
+    @ConfigDescription("File used to persist the most frequently compiled expressions, which are compiled again at startup")
+    public CompilerConfig setExpressionProfileFile(File expressionProfileFile)
+    {
+        this.expressionProfileFile = expressionProfileFile;
+        return this;
+    }
+
+    @Min(1)
+    public int getExpressionProfileMaxEntries()
+    {
+        return expressionProfileMaxEntries;
+    }
+
+    @Config("compiler.expression-profile-max-entries")
+    @ConfigDescription("Maximum number of expressions tracked in and persisted to the expression profile")
+    public CompilerConfig setExpressionProfileMaxEntries(int expressionProfileMaxEntries)
+    {
+        this.expressionProfileMaxEntries = expressionProfileMaxEntries;
+        return this;
+    }
 }
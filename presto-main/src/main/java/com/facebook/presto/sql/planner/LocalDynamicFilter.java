@@ -14,9 +14,12 @@
 package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
 import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.type.Type;
 import com.facebook.presto.expressions.DynamicFilters.DynamicFilterExtractResult;
 import com.facebook.presto.expressions.DynamicFilters.DynamicFilterPlaceholder;
+import com.facebook.presto.operator.BlockedBloomFilter;
 import com.facebook.presto.spi.plan.AbstractJoinNode;
 import com.facebook.presto.spi.plan.FilterNode;
 import com.facebook.presto.spi.plan.PlanNode;
@@ -33,8 +36,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
+import static com.facebook.presto.common.Utils.nativeValueToBlock;
+import static com.facebook.presto.common.function.OperatorType.EQUAL;
 import static com.facebook.presto.expressions.DynamicFilters.extractDynamicFilters;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Verify.verify;
@@ -50,12 +56,15 @@ public class LocalDynamicFilter
     private final Map<String, Integer> buildChannels;
 
     private final SettableFuture<TupleDomain<VariableReferenceExpression>> resultFuture;
+    private final SettableFuture<Map<VariableReferenceExpression, BlockedBloomFilter>> bloomFilterResultFuture;
 
     // Number of build-side partitions to be collected.
     private final int partitionCount;
 
     // The resulting predicates from each build-side partition.
     private final List<TupleDomain<String>> partitions;
+    // The Bloom filters of the values of each build-side partition, in the same order as partitions.
+    private final List<Map<String, BlockedBloomFilter>> bloomFilterPartitions;
 
     public LocalDynamicFilter(Multimap<String, DynamicFilterPlaceholder> probeVariables, Map<String, Integer> buildChannels, int partitionCount)
     {
@@ -64,25 +73,87 @@ public class LocalDynamicFilter
         verify(probeVariables.keySet().equals(buildChannels.keySet()), "probeVariables and buildChannels must have same keys");
 
         this.resultFuture = SettableFuture.create();
+        this.bloomFilterResultFuture = SettableFuture.create();
 
         this.partitionCount = partitionCount;
         this.partitions = new ArrayList<>(partitionCount);
+        this.bloomFilterPartitions = new ArrayList<>(partitionCount);
     }
 
-    private synchronized void addPartition(TupleDomain<String> tupleDomain)
+    private synchronized void addPartition(TupleDomain<String> tupleDomain, Map<String, BlockedBloomFilter> bloomFilters)
     {
         // Called concurrently by each DynamicFilterSourceOperator instance (when collection is over).
         verify(partitions.size() < partitionCount);
         // NOTE: may result in a bit more relaxed constraint if there are multiple columns and multiple rows.
         // See the comment at TupleDomain::columnWiseUnion() for more details.
         partitions.add(tupleDomain);
+        bloomFilterPartitions.add(bloomFilters);
         if (partitions.size() == partitionCount) {
             // No more partitions are left to be processed.
             TupleDomain<VariableReferenceExpression> result = convertTupleDomain(TupleDomain.columnWiseUnion(partitions));
             verify(resultFuture.set(result), "dynamic filter result is provided more than once");
+            verify(bloomFilterResultFuture.set(mergeBloomFilters()), "dynamic filter result is provided more than once");
         }
     }
 
+    private Map<VariableReferenceExpression, BlockedBloomFilter> mergeBloomFilters()
+    {
+        ImmutableMap.Builder<VariableReferenceExpression, BlockedBloomFilter> builder = ImmutableMap.builder();
+        for (String filterId : buildChannels.keySet()) {
+            Optional<BlockedBloomFilter> bloomFilter = mergeBloomFilters(filterId);
+            if (!bloomFilter.isPresent()) {
+                continue;
+            }
+            for (DynamicFilterPlaceholder placeholder : probeVariables.get(filterId)) {
+                // the Bloom filter can only tell whether a value is equal to one of the build-side values
+                if (placeholder.getOperator() == EQUAL && bloomFilter.get().isCompatible(placeholder.getInput().getType())) {
+                    builder.put((VariableReferenceExpression) placeholder.getInput(), bloomFilter.get());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private Optional<BlockedBloomFilter> mergeBloomFilters(String filterId)
+    {
+        Optional<BlockedBloomFilter> first = bloomFilterPartitions.stream()
+                .filter(bloomFilters -> bloomFilters.containsKey(filterId))
+                .map(bloomFilters -> bloomFilters.get(filterId))
+                .findFirst();
+        if (!first.isPresent()) {
+            // the exact predicate is as selective as a Bloom filter
+            return Optional.empty();
+        }
+        BlockedBloomFilter result = new BlockedBloomFilter(first.get().getType(), first.get().getSizeInBytes());
+        for (int partition = 0; partition < partitionCount; partition++) {
+            BlockedBloomFilter bloomFilter = bloomFilterPartitions.get(partition).get(filterId);
+            if (bloomFilter != null) {
+                result.merge(bloomFilter);
+                continue;
+            }
+            // the partition has no Bloom filter, which is fine as long as its exact predicate has all its values
+            TupleDomain<String> tupleDomain = partitions.get(partition);
+            if (tupleDomain.isNone()) {
+                continue;
+            }
+            Domain domain = tupleDomain.getDomains().get().get(filterId);
+            if (domain == null) {
+                return Optional.empty();
+            }
+            Type type = result.getType();
+            for (Range range : domain.getValues().getRanges().getOrderedRanges()) {
+                if (!range.isSingleValue()) {
+                    return Optional.empty();
+                }
+                result.add(nativeValueToBlock(type, range.getSingleValue()), 0);
+            }
+        }
+        if (!result.isSelective()) {
+            return Optional.empty();
+        }
+        return Optional.of(result);
+    }
+
     private TupleDomain<VariableReferenceExpression> convertTupleDomain(TupleDomain<String> result)
     {
         if (result.isNone()) {
@@ -156,7 +227,21 @@ public class LocalDynamicFilter
         return resultFuture;
     }
 
+    /**
+     * Bloom filters of the build-side values for the probe variables compared for equality,
+     * for the dynamic filters whose exact predicate became too large on some partitions.
+     */
+    public ListenableFuture<Map<VariableReferenceExpression, BlockedBloomFilter>> getBloomFilterResultFuture()
+    {
+        return bloomFilterResultFuture;
+    }
+
     public Consumer<TupleDomain<String>> getTupleDomainConsumer()
+    {
+        return tupleDomain -> addPartition(tupleDomain, ImmutableMap.of());
+    }
+
+    public BiConsumer<TupleDomain<String>, Map<String, BlockedBloomFilter>> getDynamicFilterConsumer()
     {
         return this::addPartition;
     }
@@ -53,6 +53,7 @@ import com.facebook.presto.metadata.FunctionAndTypeManager;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.operator.AggregationOperator.AggregationOperatorFactory;
 import com.facebook.presto.operator.AssignUniqueIdOperator;
+import com.facebook.presto.operator.BlockedBloomFilter;
 import com.facebook.presto.operator.DeleteOperator.DeleteOperatorFactory;
 import com.facebook.presto.operator.DevNullOperator.DevNullOperatorFactory;
 import com.facebook.presto.operator.DriverFactory;
@@ -74,6 +75,9 @@ import com.facebook.presto.operator.LookupJoinOperators;
 import com.facebook.presto.operator.LookupOuterOperator.LookupOuterOperatorFactory;
 import com.facebook.presto.operator.LookupSourceFactory;
 import com.facebook.presto.operator.MarkDistinctOperator.MarkDistinctOperatorFactory;
+import com.facebook.presto.operator.MergeJoinOperator.MergeJoinOperatorFactory;
+import com.facebook.presto.operator.MergeJoinSinkOperator.MergeJoinSinkOperatorFactory;
+import com.facebook.presto.operator.MergeJoinSource;
 import com.facebook.presto.operator.MetadataDeleteOperator.MetadataDeleteOperatorFactory;
 import com.facebook.presto.operator.NestedLoopJoinBridge;
 import com.facebook.presto.operator.NestedLoopJoinPagesSupplier;
@@ -103,6 +107,7 @@ import com.facebook.presto.operator.TableScanOperator.TableScanOperatorFactory;
 import com.facebook.presto.operator.TableWriterMergeOperator.TableWriterMergeOperatorFactory;
 import com.facebook.presto.operator.TaskContext;
 import com.facebook.presto.operator.TaskOutputOperator.TaskOutputFactory;
+import com.facebook.presto.operator.TopNDynamicFilter;
 import com.facebook.presto.operator.TopNOperator.TopNOperatorFactory;
 import com.facebook.presto.operator.TopNRowNumberOperator;
 import com.facebook.presto.operator.UpdateOperator.UpdateOperatorFactory;
@@ -153,6 +158,7 @@ import com.facebook.presto.spi.plan.JoinDistributionType;
 import com.facebook.presto.spi.plan.JoinNode;
 import com.facebook.presto.spi.plan.LimitNode;
 import com.facebook.presto.spi.plan.MarkDistinctNode;
+import com.facebook.presto.spi.plan.MergeJoinNode;
 import com.facebook.presto.spi.plan.OrderingScheme;
 import com.facebook.presto.spi.plan.OutputNode;
 import com.facebook.presto.spi.plan.PartitioningScheme;
@@ -223,11 +229,13 @@ import com.google.common.collect.ContiguousSet;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.SetMultimap;
@@ -255,9 +263,11 @@ import java.util.stream.IntStream;
 
 import static com.facebook.airlift.concurrent.MoreFutures.addSuccessCallback;
 import static com.facebook.presto.SystemSessionProperties.getAdaptivePartialAggregationRowsReductionRatioThreshold;
+import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringBloomFilterSize;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringMaxPerDriverRowCount;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringMaxPerDriverSize;
 import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringRangeRowLimitPerDriver;
+import static com.facebook.presto.SystemSessionProperties.getExchangeCompressionCodec;
 import static com.facebook.presto.SystemSessionProperties.getFilterAndProjectMinOutputPageRowCount;
 import static com.facebook.presto.SystemSessionProperties.getFilterAndProjectMinOutputPageSize;
 import static com.facebook.presto.SystemSessionProperties.getIndexLoaderTimeout;
@@ -266,8 +276,10 @@ import static com.facebook.presto.SystemSessionProperties.getTaskPartitionedWrit
 import static com.facebook.presto.SystemSessionProperties.getTaskWriterCount;
 import static com.facebook.presto.SystemSessionProperties.isAdaptivePartialAggregationEnabled;
 import static com.facebook.presto.SystemSessionProperties.isEnableDynamicFiltering;
+import static com.facebook.presto.SystemSessionProperties.isEnableTopNDynamicFiltering;
 import static com.facebook.presto.SystemSessionProperties.isExchangeChecksumEnabled;
 import static com.facebook.presto.SystemSessionProperties.isExchangeCompressionEnabled;
+import static com.facebook.presto.SystemSessionProperties.isFusedFilterProjectEnabled;
 import static com.facebook.presto.SystemSessionProperties.isJoinSpillingEnabled;
 import static com.facebook.presto.SystemSessionProperties.isNativeExecutionEnabled;
 import static com.facebook.presto.SystemSessionProperties.isOptimizeCommonSubExpressions;
@@ -304,6 +316,7 @@ import static com.facebook.presto.sessionpropertyproviders.JavaWorkerSessionProp
 import static com.facebook.presto.sessionpropertyproviders.JavaWorkerSessionPropertyProvider.getTopNOperatorUnspillMemoryLimit;
 import static com.facebook.presto.sessionpropertyproviders.JavaWorkerSessionPropertyProvider.isAggregationSpillEnabled;
 import static com.facebook.presto.sessionpropertyproviders.JavaWorkerSessionPropertyProvider.isDistinctAggregationSpillEnabled;
+import static com.facebook.presto.sessionpropertyproviders.JavaWorkerSessionPropertyProvider.isMarkDistinctSpillEnabled;
 import static com.facebook.presto.sessionpropertyproviders.JavaWorkerSessionPropertyProvider.isOrderByAggregationSpillEnabled;
 import static com.facebook.presto.sessionpropertyproviders.JavaWorkerSessionPropertyProvider.isOrderBySpillEnabled;
 import static com.facebook.presto.sessionpropertyproviders.JavaWorkerSessionPropertyProvider.isTopNSpillEnabled;
@@ -317,6 +330,7 @@ import static com.facebook.presto.spi.plan.AggregationNode.Step.PARTIAL;
 import static com.facebook.presto.spi.plan.JoinDistributionType.REPLICATED;
 import static com.facebook.presto.spi.plan.JoinType.FULL;
 import static com.facebook.presto.spi.plan.JoinType.INNER;
+import static com.facebook.presto.spi.plan.JoinType.LEFT;
 import static com.facebook.presto.spi.plan.JoinType.RIGHT;
 import static com.facebook.presto.spi.plan.ProjectNode.Locality.LOCAL;
 import static com.facebook.presto.spi.plan.ProjectNode.Locality.REMOTE;
@@ -539,7 +553,8 @@ public class LocalExecutionPlanner
             return new TaskOutputFactory(outputBuffer);
         }
 
-        if (isOptimizedRepartitioningEnabled(taskContext.getSession())) {
+        // only the row by row partitioner spreads partitions
+        if (isOptimizedRepartitioningEnabled(taskContext.getSession()) && !partitioningScheme.getPartitionSpreading().isPresent()) {
             return new OptimizedPartitionedOutputFactory(outputBuffer, maxPagePartitioningBufferSize);
         }
         else {
@@ -599,7 +614,13 @@ public class LocalExecutionPlanner
             nullChannel = OptionalInt.of(outputLayout.indexOf(getOnlyElement(partitioningColumns)));
         }
 
-        return Optional.of(new OutputPartitioning(partitionFunction, partitionChannels, partitionConstants, partitioningScheme.isReplicateNullsAndAny(), nullChannel));
+        return Optional.of(new OutputPartitioning(
+                partitionFunction,
+                partitionChannels,
+                partitionConstants,
+                partitioningScheme.isReplicateNullsAndAny(),
+                nullChannel,
+                partitioningScheme.getPartitionSpreading()));
     }
 
     @VisibleForTesting
@@ -637,7 +658,7 @@ public class LocalExecutionPlanner
                                 outputTypes,
                                 pagePreprocessor,
                                 outputPartitioning,
-                                new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session), isExchangeChecksumEnabled(session))))
+                                new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session), isExchangeChecksumEnabled(session), getExchangeCompressionCodec(session))))
                         .build(),
                 context.getDriverInstanceCount(),
                 physicalOperation.getPipelineExecutionStrategy(),
@@ -700,6 +721,9 @@ public class LocalExecutionPlanner
         private final AtomicInteger nextPipelineId;
         private final TableWriteInfo tableWriteInfo;
 
+        // filters published by top N operators for the table scans in their pipeline, by table scan
+        private final Map<PlanNodeId, Supplier<TupleDomain<VariableReferenceExpression>>> topNDynamicFilters = new HashMap<>();
+
         private int nextOperatorId;
         private boolean inputDriver = true;
         private OptionalInt driverInstanceCount = OptionalInt.empty();
@@ -739,7 +763,7 @@ public class LocalExecutionPlanner
                     checkArgument(firstOperatorFactory instanceof ScanFilterAndProjectOperatorFactory || firstOperatorFactory instanceof TableScanOperatorFactory);
                 }
                 else {
-                    checkArgument(firstOperatorFactory instanceof LocalExchangeSourceOperatorFactory || firstOperatorFactory instanceof LookupOuterOperatorFactory);
+                    checkArgument(firstOperatorFactory instanceof LocalExchangeSourceOperatorFactory || firstOperatorFactory instanceof LookupOuterOperatorFactory || firstOperatorFactory instanceof MergeJoinOperatorFactory);
                 }
             }
             driverFactories.add(new DriverFactory(getNextPipelineId(), inputDriver, outputDriver, operatorFactories, driverInstances, pipelineExecutionStrategy, fragmentResultCacheContext));
@@ -770,6 +794,16 @@ public class LocalExecutionPlanner
             return dynamicFiltersCollector;
         }
 
+        public void addTopNDynamicFilter(PlanNodeId tableScanId, VariableReferenceExpression variable, TopNDynamicFilter dynamicFilter)
+        {
+            topNDynamicFilters.put(tableScanId, () -> TupleDomain.withColumnDomains(ImmutableMap.of(variable, dynamicFilter.getDomain())));
+        }
+
+        public Optional<Supplier<TupleDomain<VariableReferenceExpression>>> getTopNDynamicFilter(PlanNodeId tableScanId)
+        {
+            return Optional.ofNullable(topNDynamicFilters.get(tableScanId));
+        }
+
         private int getNextPipelineId()
         {
             return nextPipelineId.getAndIncrement();
@@ -1212,10 +1246,21 @@ public class LocalExecutionPlanner
         @Override
         public PhysicalOperation visitTopN(TopNNode node, LocalExecutionPlanContext context)
         {
-            PhysicalOperation source = node.getSource().accept(this, context);
-
             List<VariableReferenceExpression> orderByVariables = node.getOrderingScheme().getOrderByVariables();
 
+            // register the filter before planning the source, so that the table scan below picks it up
+            Optional<TopNDynamicFilter> dynamicFilter = Optional.empty();
+            VariableReferenceExpression firstOrderByVariable = orderByVariables.get(0);
+            if (isEnableTopNDynamicFiltering(context.getSession()) && node.getCount() > 0 && TopNDynamicFilter.isSupportedType(firstOrderByVariable.getType())) {
+                Optional<TableScanNode> tableScan = findTableScanProducing(node.getSource(), firstOrderByVariable);
+                if (tableScan.isPresent()) {
+                    dynamicFilter = Optional.of(new TopNDynamicFilter(firstOrderByVariable.getType(), node.getOrderingScheme().getOrdering(firstOrderByVariable)));
+                    context.addTopNDynamicFilter(tableScan.get().getId(), traceTableScanVariable(node.getSource(), firstOrderByVariable), dynamicFilter.get());
+                }
+            }
+
+            PhysicalOperation source = node.getSource().accept(this, context);
+
             List<Integer> sortChannels = new ArrayList<>();
             List<SortOrder> sortOrders = new ArrayList<>();
             for (VariableReferenceExpression variable : orderByVariables) {
@@ -1229,11 +1274,44 @@ public class LocalExecutionPlanner
                     source.getTypes(),
                     (int) node.getCount(),
                     sortChannels,
-                    sortOrders);
+                    sortOrders,
+                    dynamicFilter);
 
             return new PhysicalOperation(operator, source.getLayout(), context, source);
         }
 
+        /**
+         * Finds the table scan that produces the values of the variable in the same pipeline, looking through the
+         * filters and the projections that pass the variable on unchanged.
+         */
+        private Optional<TableScanNode> findTableScanProducing(PlanNode node, VariableReferenceExpression variable)
+        {
+            if (node instanceof TableScanNode) {
+                return ((TableScanNode) node).getAssignments().containsKey(variable) ? Optional.of((TableScanNode) node) : Optional.empty();
+            }
+            if (node instanceof FilterNode) {
+                return findTableScanProducing(((FilterNode) node).getSource(), variable);
+            }
+            if (node instanceof ProjectNode && ((ProjectNode) node).getLocality().equals(LOCAL)) {
+                RowExpression expression = ((ProjectNode) node).getAssignments().get(variable);
+                if (expression instanceof VariableReferenceExpression) {
+                    return findTableScanProducing(((ProjectNode) node).getSource(), (VariableReferenceExpression) expression);
+                }
+            }
+            return Optional.empty();
+        }
+
+        private VariableReferenceExpression traceTableScanVariable(PlanNode node, VariableReferenceExpression variable)
+        {
+            if (node instanceof FilterNode) {
+                return traceTableScanVariable(((FilterNode) node).getSource(), variable);
+            }
+            if (node instanceof ProjectNode) {
+                return traceTableScanVariable(((ProjectNode) node).getSource(), (VariableReferenceExpression) ((ProjectNode) node).getAssignments().get(variable));
+            }
+            return variable;
+        }
+
         @Override
         public PhysicalOperation visitSort(SortNode node, LocalExecutionPlanContext context)
         {
@@ -1378,7 +1456,15 @@ public class LocalExecutionPlanner
 
             List<Integer> channels = getChannelsForVariables(node.getDistinctVariables(), source.getLayout());
             Optional<Integer> hashChannel = node.getHashVariable().map(variableChannelGetter(source));
-            MarkDistinctOperatorFactory operator = new MarkDistinctOperatorFactory(context.getNextOperatorId(), node.getId(), source.getTypes(), channels, hashChannel, joinCompiler);
+            MarkDistinctOperatorFactory operator = new MarkDistinctOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    source.getTypes(),
+                    channels,
+                    hashChannel,
+                    joinCompiler,
+                    !isNativeExecutionEnabled(context.getSession()) && isMarkDistinctSpillEnabled(context.getSession()),
+                    partitioningSpillerFactory);
             return new PhysicalOperation(operator, makeLayout(node), context, source);
         }
 
@@ -1500,6 +1586,7 @@ public class LocalExecutionPlanner
 
             Optional<List<DynamicFilterPlaceholder>> dynamicFilters = extractDynamicFilterResult.map(DynamicFilterExtractResult::getDynamicConjuncts);
             Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilterSupplier = Optional.empty();
+            Supplier<ListMultimap<Integer, BlockedBloomFilter>> bloomFilterSupplier = ImmutableListMultimap::of;
             if (dynamicFilters.isPresent() && !dynamicFilters.get().isEmpty() && sourceNode instanceof TableScanNode) {
                 TableScanNode tableScanNode = (TableScanNode) sourceNode;
                 LocalDynamicFiltersCollector collector = context.getDynamicFiltersCollector();
@@ -1507,6 +1594,22 @@ public class LocalExecutionPlanner
                     TupleDomain<VariableReferenceExpression> predicate = collector.getPredicate();
                     return predicate.transform(tableScanNode.getAssignments()::get);
                 });
+                Map<VariableReferenceExpression, Integer> scanLayout = ImmutableMap.copyOf(sourceLayout);
+                bloomFilterSupplier = () -> {
+                    ImmutableListMultimap.Builder<Integer, BlockedBloomFilter> bloomFilters = ImmutableListMultimap.builder();
+                    collector.getBloomFilters().forEach((variable, bloomFilter) -> {
+                        if (scanLayout.containsKey(variable)) {
+                            bloomFilters.put(scanLayout.get(variable), bloomFilter);
+                        }
+                    });
+                    return bloomFilters.build();
+                };
+            }
+            if (sourceNode instanceof TableScanNode && context.getTopNDynamicFilter(sourceNode.getId()).isPresent()) {
+                Supplier<TupleDomain<ColumnHandle>> topNDynamicFilter = createTopNDynamicFilterSupplier((TableScanNode) sourceNode, context);
+                dynamicFilterSupplier = Optional.of(dynamicFilterSupplier
+                        .<Supplier<TupleDomain<ColumnHandle>>>map(joinDynamicFilter -> () -> joinDynamicFilter.get().intersect(topNDynamicFilter.get()))
+                        .orElse(topNDynamicFilter));
             }
 
             // compiler uses inputs instead of variables, so rewrite the expressions first
@@ -1529,6 +1632,7 @@ public class LocalExecutionPlanner
                             filterExpression,
                             projections,
                             isOptimizeCommonSubExpressions(session),
+                            isFusedFilterProjectEnabled(session),
                             session.getSessionFunctions(),
                             Optional.of(context.getStageExecutionId() + "_" + planNodeId));
 
@@ -1543,6 +1647,7 @@ public class LocalExecutionPlanner
                             columns,
                             projections.stream().map(RowExpression::getType).collect(toImmutableList()),
                             dynamicFilterSupplier,
+                            bloomFilterSupplier,
                             getFilterAndProjectMinOutputPageSize(session),
                             getFilterAndProjectMinOutputPageRowCount(session));
 
@@ -1554,6 +1659,7 @@ public class LocalExecutionPlanner
                             filterExpression,
                             projections,
                             isOptimizeCommonSubExpressions(session),
+                            isFusedFilterProjectEnabled(session),
                             session.getSessionFunctions(),
                             Optional.of(context.getStageExecutionId() + "_" + planNodeId));
 
@@ -1617,10 +1723,19 @@ public class LocalExecutionPlanner
             else {
                 tableHandle = node.getTable();
             }
+            if (context.getTopNDynamicFilter(node.getId()).isPresent()) {
+                tableHandle = tableHandle.withDynamicFilter(createTopNDynamicFilterSupplier(node, context));
+            }
             OperatorFactory operatorFactory = new TableScanOperatorFactory(context.getNextOperatorId(), node.getId(), pageSourceProvider, tableHandle, columns);
             return new PhysicalOperation(operatorFactory, makeLayout(node), context, stageExecutionDescriptor.isScanGroupedExecution(node.getId()) ? GROUPED_EXECUTION : UNGROUPED_EXECUTION);
         }
 
+        private Supplier<TupleDomain<ColumnHandle>> createTopNDynamicFilterSupplier(TableScanNode node, LocalExecutionPlanContext context)
+        {
+            Supplier<TupleDomain<VariableReferenceExpression>> dynamicFilter = context.getTopNDynamicFilter(node.getId()).get();
+            return () -> dynamicFilter.get().transform(node.getAssignments()::get);
+        }
+
         @Override
         public PhysicalOperation visitValues(ValuesNode node, LocalExecutionPlanContext context)
         {
@@ -1952,6 +2067,85 @@ public class LocalExecutionPlanner
             }
         }
 
+        @Override
+        public PhysicalOperation visitMergeJoin(MergeJoinNode node, LocalExecutionPlanContext context)
+        {
+            checkArgument(node.getType() == INNER || node.getType() == LEFT, "Unsupported merge join type: %s", node.getType());
+            checkArgument(!node.getFilter().isPresent(), "Merge join does not support a join filter");
+
+            // Both sides are fed into merge join sources, which merge the sorted runs of all drivers that read a
+            // side in a lifespan. The join itself runs in a pipeline of its own, with a single driver per lifespan.
+            LocalExecutionPlanContext leftContext = context.createSubContext();
+            PhysicalOperation leftSource = node.getLeft().accept(this, leftContext);
+            List<Integer> leftKeyChannels = getChannelsForVariables(Lists.transform(node.getCriteria(), EquiJoinClause::getLeft), leftSource.getLayout());
+            JoinBridgeManager<MergeJoinSource> leftSourceManager = createMergeJoinSourceManager(node, context, leftContext, leftSource, leftKeyChannels);
+
+            LocalExecutionPlanContext rightContext = context.createSubContext();
+            PhysicalOperation rightSource = node.getRight().accept(this, rightContext);
+            List<Integer> rightKeyChannels = getChannelsForVariables(Lists.transform(node.getCriteria(), EquiJoinClause::getRight), rightSource.getLayout());
+            JoinBridgeManager<MergeJoinSource> rightSourceManager = createMergeJoinSourceManager(node, context, rightContext, rightSource, rightKeyChannels);
+
+            context.setDriverInstanceCount(1);
+            context.setInputDriver(false);
+
+            List<VariableReferenceExpression> leftOutputVariables = node.getOutputVariables().stream()
+                    .filter(variable -> leftSource.getLayout().containsKey(variable))
+                    .collect(toImmutableList());
+            List<VariableReferenceExpression> rightOutputVariables = node.getOutputVariables().stream()
+                    .filter(variable -> !leftSource.getLayout().containsKey(variable))
+                    .collect(toImmutableList());
+
+            ImmutableMap.Builder<VariableReferenceExpression, Integer> outputMappings = ImmutableMap.builder();
+            int channel = 0;
+            for (VariableReferenceExpression variable : leftOutputVariables) {
+                outputMappings.put(variable, channel++);
+            }
+            for (VariableReferenceExpression variable : rightOutputVariables) {
+                outputMappings.put(variable, channel++);
+            }
+
+            OperatorFactory operatorFactory = new MergeJoinOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    node.getType(),
+                    leftSourceManager,
+                    rightSourceManager,
+                    leftSource.getTypes(),
+                    leftKeyChannels,
+                    getChannelsForVariables(leftOutputVariables, leftSource.getLayout()),
+                    rightSource.getTypes(),
+                    rightKeyChannels,
+                    getChannelsForVariables(rightOutputVariables, rightSource.getLayout()));
+            return new PhysicalOperation(operatorFactory, outputMappings.build(), context, leftSource.getPipelineExecutionStrategy());
+        }
+
+        private JoinBridgeManager<MergeJoinSource> createMergeJoinSourceManager(
+                MergeJoinNode node,
+                LocalExecutionPlanContext context,
+                LocalExecutionPlanContext sourceContext,
+                PhysicalOperation source,
+                List<Integer> keyChannels)
+        {
+            JoinBridgeManager<MergeJoinSource> mergeJoinSourceManager = new JoinBridgeManager<>(
+                    false,
+                    source.getPipelineExecutionStrategy(),
+                    source.getPipelineExecutionStrategy(),
+                    () -> new MergeJoinSource(source.getTypes(), keyChannels, maxLocalExchangeBufferSize.toBytes()),
+                    source.getTypes());
+
+            ImmutableList.Builder<OperatorFactory> factories = ImmutableList.builder();
+            factories.addAll(source.getOperatorFactories());
+            factories.add(new MergeJoinSinkOperatorFactory(sourceContext.getNextOperatorId(), node.getId(), mergeJoinSourceManager));
+            context.addDriverFactory(
+                    sourceContext.isInputDriver(),
+                    false,
+                    factories.build(),
+                    sourceContext.getDriverInstanceCount(),
+                    source.getPipelineExecutionStrategy(),
+                    Optional.empty());
+            return mergeJoinSourceManager;
+        }
+
         @Override
         public PhysicalOperation visitSpatialJoin(SpatialJoinNode node, LocalExecutionPlanContext context)
         {
@@ -2474,11 +2668,12 @@ public class LocalExecutionPlanner
             return new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
                     context.getNextOperatorId(),
                     planNodeId,
-                    dynamicFilter.getTupleDomainConsumer(),
+                    dynamicFilter.getDynamicFilterConsumer(),
                     filterBuildChannels,
                     getDynamicFilteringMaxPerDriverRowCount(context.getSession()),
                     getDynamicFilteringMaxPerDriverSize(context.getSession()),
                     getDynamicFilteringRangeRowLimitPerDriver(context.getSession()),
+                    getDynamicFilteringBloomFilterSize(context.getSession()),
                     useNewNanDefinition);
         }
 
@@ -2500,6 +2695,7 @@ public class LocalExecutionPlanner
                         // Intersect dynamic filters' predicates when they become ready,
                         // in order to support multiple join nodes in the same plan fragment.
                         addSuccessCallback(filter.getResultFuture(), collector::intersect);
+                        addSuccessCallback(filter.getBloomFilterResultFuture(), collector::addBloomFilters);
                         return filter;
                     });
         }
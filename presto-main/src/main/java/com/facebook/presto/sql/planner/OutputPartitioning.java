@@ -14,6 +14,7 @@
 package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.operator.PartitionFunction;
+import com.facebook.presto.spi.plan.PartitionSpreading;
 import com.facebook.presto.spi.relation.ConstantExpression;
 import com.google.common.collect.ImmutableList;
 
@@ -30,6 +31,7 @@ public class OutputPartitioning
     private final List<Optional<ConstantExpression>> partitionConstants;
     private final boolean replicateNullsAndAny;
     private final OptionalInt nullChannel;
+    private final Optional<PartitionSpreading> partitionSpreading;
 
     public OutputPartitioning(
             PartitionFunction partitionFunction,
@@ -37,12 +39,24 @@ public class OutputPartitioning
             List<Optional<ConstantExpression>> partitionConstants,
             boolean replicateNullsAndAny,
             OptionalInt nullChannel)
+    {
+        this(partitionFunction, partitionChannels, partitionConstants, replicateNullsAndAny, nullChannel, Optional.empty());
+    }
+
+    public OutputPartitioning(
+            PartitionFunction partitionFunction,
+            List<Integer> partitionChannels,
+            List<Optional<ConstantExpression>> partitionConstants,
+            boolean replicateNullsAndAny,
+            OptionalInt nullChannel,
+            Optional<PartitionSpreading> partitionSpreading)
     {
         this.partitionFunction = requireNonNull(partitionFunction, "partitionFunction is null");
         this.partitionChannels = ImmutableList.copyOf(requireNonNull(partitionChannels, "partitionChannels is null"));
         this.partitionConstants = ImmutableList.copyOf(requireNonNull(partitionConstants, "partitionConstants is null"));
         this.replicateNullsAndAny = replicateNullsAndAny;
         this.nullChannel = requireNonNull(nullChannel, "nullChannel is null");
+        this.partitionSpreading = requireNonNull(partitionSpreading, "partitionSpreading is null");
     }
 
     public PartitionFunction getPartitionFunction()
@@ -69,4 +83,9 @@ public class OutputPartitioning
     {
         return nullChannel;
     }
+
+    public Optional<PartitionSpreading> getPartitionSpreading()
+    {
+        return partitionSpreading;
+    }
 }
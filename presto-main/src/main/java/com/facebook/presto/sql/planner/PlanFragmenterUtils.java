@@ -230,7 +230,8 @@ public class PlanFragmenterUtils
                         outputPartitioningScheme.isReplicateNullsAndAny(),
                         outputPartitioningScheme.isScaleWriters(),
                         outputPartitioningScheme.getEncoding(),
-                        outputPartitioningScheme.getBucketToPartition()),
+                        outputPartitioningScheme.getBucketToPartition(),
+                        outputPartitioningScheme.getPartitionSpreading()),
                 fragment.getStageExecutionDescriptor(),
                 fragment.isOutputTableWriterFragment(),
                 fragment.getStatsAndCosts(),
@@ -18,21 +18,31 @@ import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.spi.VariableAllocator;
 import com.facebook.presto.spi.WarningCollector;
 import com.facebook.presto.spi.plan.EquiJoinClause;
+import com.facebook.presto.spi.plan.FilterNode;
 import com.facebook.presto.spi.plan.JoinNode;
 import com.facebook.presto.spi.plan.MergeJoinNode;
 import com.facebook.presto.spi.plan.PlanNode;
 import com.facebook.presto.spi.plan.PlanNodeIdAllocator;
+import com.facebook.presto.spi.plan.ProjectNode;
+import com.facebook.presto.spi.relation.RowExpression;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
 import com.facebook.presto.sql.planner.TypeProvider;
+import com.facebook.presto.sql.planner.VariablesExtractor;
 import com.facebook.presto.sql.planner.plan.SimplePlanRewriter;
+import com.google.common.collect.ImmutableList;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static com.facebook.presto.SystemSessionProperties.isGroupedExecutionEnabled;
 import static com.facebook.presto.SystemSessionProperties.isSingleNodeExecutionEnabled;
 import static com.facebook.presto.SystemSessionProperties.preferMergeJoinForSortedInputs;
 import static com.facebook.presto.common.block.SortOrder.ASC_NULLS_FIRST;
 import static com.facebook.presto.spi.plan.JoinType.INNER;
+import static com.facebook.presto.spi.plan.JoinType.LEFT;
+import static com.facebook.presto.spi.plan.ProjectNode.Locality.LOCAL;
+import static com.facebook.presto.sql.planner.plan.AssignmentUtils.identityAssignments;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Objects.requireNonNull;
 
@@ -100,8 +110,14 @@ public class MergeJoinForSortedInputOptimizer
         @Override
         public PlanNode visitJoin(JoinNode node, RewriteContext<Void> context)
         {
-            // As of now, we only support inner join for merge join
-            if (node.getType() != INNER) {
+            // As of now, we only support inner and left join for merge join
+            if (node.getType() != INNER && node.getType() != LEFT) {
+                return node;
+            }
+
+            // The merge join operator does not evaluate a join filter. It can be applied on top of an inner join,
+            // but it decides which rows of a left join are matched, so a left join with a filter is not supported.
+            if (node.getType() == LEFT && node.getFilter().isPresent()) {
                 return node;
             }
 
@@ -119,8 +135,12 @@ public class MergeJoinForSortedInputOptimizer
             //- TableScanB
 
             // 2. If not, we don't optimize
-            if (meetsDataRequirement(node.getLeft(), node.getRight(), node)) {
-                planChanged = true;
+            if (!meetsDataRequirement(node.getLeft(), node.getRight(), node)) {
+                return node;
+            }
+
+            planChanged = true;
+            if (!node.getFilter().isPresent()) {
                 return new MergeJoinNode(
                         node.getSourceLocation(),
                         node.getId(),
@@ -133,7 +153,31 @@ public class MergeJoinForSortedInputOptimizer
                         node.getLeftHashVariable(),
                         node.getRightHashVariable());
             }
-            return node;
+
+            // Apply the filter of an inner join to the output of the merge join
+            RowExpression filter = node.getFilter().get();
+            Set<VariableReferenceExpression> filterVariables = VariablesExtractor.extractUnique(filter);
+            List<VariableReferenceExpression> mergeJoinOutputs = ImmutableList.<VariableReferenceExpression>builder()
+                    .addAll(node.getLeft().getOutputVariables().stream()
+                            .filter(variable -> node.getOutputVariables().contains(variable) || filterVariables.contains(variable))
+                            .collect(toImmutableList()))
+                    .addAll(node.getRight().getOutputVariables().stream()
+                            .filter(variable -> node.getOutputVariables().contains(variable) || filterVariables.contains(variable))
+                            .collect(toImmutableList()))
+                    .build();
+            MergeJoinNode mergeJoinNode = new MergeJoinNode(
+                    node.getSourceLocation(),
+                    node.getId(),
+                    node.getType(),
+                    node.getLeft(),
+                    node.getRight(),
+                    node.getCriteria(),
+                    mergeJoinOutputs,
+                    Optional.empty(),
+                    node.getLeftHashVariable(),
+                    node.getRightHashVariable());
+            FilterNode filterNode = new FilterNode(node.getSourceLocation(), idAllocator.getNextId(), mergeJoinNode, filter);
+            return new ProjectNode(node.getSourceLocation(), idAllocator.getNextId(), filterNode, identityAssignments(node.getOutputVariables()), LOCAL);
         }
 
         private boolean meetsDataRequirement(PlanNode left, PlanNode right, JoinNode node)
@@ -153,9 +197,9 @@ public class MergeJoinForSortedInputOptimizer
                 return false;
             }
 
-            // Check if the left side and right side are both ordered by the join columns
-            return !LocalProperties.match(rightProperties.getLocalProperties(), LocalProperties.sorted(rightJoinColumns, ASC_NULLS_FIRST)).get(0).isPresent() &&
-                    !LocalProperties.match(leftProperties.getLocalProperties(), LocalProperties.sorted(leftJoinColumns, ASC_NULLS_FIRST)).get(0).isPresent();
+            // Check if the left side and right side are both ordered by all the join columns, in the order of the join criteria
+            return LocalProperties.match(rightProperties.getLocalProperties(), LocalProperties.sorted(rightJoinColumns, ASC_NULLS_FIRST)).stream().noneMatch(Optional::isPresent) &&
+                    LocalProperties.match(leftProperties.getLocalProperties(), LocalProperties.sorted(leftJoinColumns, ASC_NULLS_FIRST)).stream().noneMatch(Optional::isPresent);
         }
 
         private boolean verifyStreamProperties(StreamPropertyDerivations.StreamProperties streamProperties, List<VariableReferenceExpression> joinColumns)
@@ -351,7 +351,8 @@ public class PartitioningUtils
                 partitioningScheme.isReplicateNullsAndAny(),
                 partitioningScheme.isScaleWriters(),
                 partitioningScheme.getEncoding(),
-                partitioningScheme.getBucketToPartition());
+                partitioningScheme.getBucketToPartition(),
+                partitioningScheme.getPartitionSpreading());
     }
 
     // Translates VariableReferenceExpression in arguments according to translator, keeps other arguments unchanged.
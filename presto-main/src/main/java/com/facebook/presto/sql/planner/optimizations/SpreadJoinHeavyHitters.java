@@ -0,0 +1,200 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.spi.VariableAllocator;
+import com.facebook.presto.spi.WarningCollector;
+import com.facebook.presto.spi.plan.AggregationNode;
+import com.facebook.presto.spi.plan.FilterNode;
+import com.facebook.presto.spi.plan.JoinNode;
+import com.facebook.presto.spi.plan.PartitionSpreading;
+import com.facebook.presto.spi.plan.PartitioningScheme;
+import com.facebook.presto.spi.plan.PlanNode;
+import com.facebook.presto.spi.plan.PlanNodeIdAllocator;
+import com.facebook.presto.spi.plan.ProjectNode;
+import com.facebook.presto.sql.planner.TypeProvider;
+import com.facebook.presto.sql.planner.plan.ExchangeNode;
+import com.facebook.presto.sql.planner.plan.SimplePlanRewriter;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Optional;
+
+import static com.facebook.presto.SystemSessionProperties.getJoinHeavyHitterFanout;
+import static com.facebook.presto.spi.plan.AggregationNode.Step.PARTIAL;
+import static com.facebook.presto.spi.plan.JoinDistributionType.PARTITIONED;
+import static com.facebook.presto.spi.plan.JoinType.INNER;
+import static com.facebook.presto.spi.plan.JoinType.LEFT;
+import static com.facebook.presto.spi.plan.PartitionSpreading.Mode.REPLICATE;
+import static com.facebook.presto.spi.plan.PartitionSpreading.Mode.SPREAD_HEAVY_HITTERS;
+import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
+import static com.facebook.presto.sql.planner.plan.ChildReplacer.replaceChildren;
+import static com.facebook.presto.sql.planner.plan.ExchangeNode.Scope.REMOTE_STREAMING;
+import static com.facebook.presto.sql.planner.plan.ExchangeNode.Type.REPARTITION;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lets the probe side of a partitioned join spread the rows of heavy hitter partitions over
+ * several tasks at runtime, and replicates the build rows of every partition to the same tasks.
+ * <p>
+ * The rows of a spread partition are no longer co-located, so this only applies to inner and
+ * left joins, whose output does not depend on seeing all build rows of a key in one task, and
+ * only when nothing between the join and the output of its stage relies on the join output
+ * being partitioned on the join keys.
+ */
+public class SpreadJoinHeavyHitters
+        implements PlanOptimizer
+{
+    private final boolean nativeExecution;
+    private final boolean prestoSparkExecutionEnvironment;
+    private boolean isEnabledForTesting;
+
+    public SpreadJoinHeavyHitters(boolean nativeExecution, boolean prestoSparkExecutionEnvironment)
+    {
+        this.nativeExecution = nativeExecution;
+        this.prestoSparkExecutionEnvironment = prestoSparkExecutionEnvironment;
+    }
+
+    @Override
+    public void setEnabledForTesting(boolean isSet)
+    {
+        isEnabledForTesting = isSet;
+    }
+
+    @Override
+    public boolean isEnabled(Session session)
+    {
+        // only the partitioned output operator of the Java runtime spreads partitions
+        return isEnabledForTesting || getJoinHeavyHitterFanout(session) > 1 && !nativeExecution && !prestoSparkExecutionEnvironment;
+    }
+
+    @Override
+    public PlanOptimizerResult optimize(PlanNode plan, Session session, TypeProvider types, VariableAllocator variableAllocator, PlanNodeIdAllocator idAllocator, WarningCollector warningCollector)
+    {
+        requireNonNull(plan, "plan is null");
+        requireNonNull(session, "session is null");
+
+        if (isEnabled(session)) {
+            Rewriter rewriter = new Rewriter(getJoinHeavyHitterFanout(session));
+            PlanNode rewrittenPlan = SimplePlanRewriter.rewriteWith(rewriter, plan, false);
+            return PlanOptimizerResult.optimizerResult(rewrittenPlan, rewriter.isPlanChanged());
+        }
+        return PlanOptimizerResult.optimizerResult(plan, false);
+    }
+
+    /**
+     * The context is true when the partitioning of the output of a node does not matter to the
+     * nodes above it in the same stage.
+     */
+    private static class Rewriter
+            extends SimplePlanRewriter<Boolean>
+    {
+        private final int fanout;
+        private boolean planChanged;
+
+        private Rewriter(int fanout)
+        {
+            this.fanout = fanout;
+        }
+
+        public boolean isPlanChanged()
+        {
+            return planChanged;
+        }
+
+        @Override
+        public PlanNode visitPlan(PlanNode node, RewriteContext<Boolean> context)
+        {
+            return context.defaultRewrite(node, false);
+        }
+
+        @Override
+        public PlanNode visitProject(ProjectNode node, RewriteContext<Boolean> context)
+        {
+            return context.defaultRewrite(node, context.get());
+        }
+
+        @Override
+        public PlanNode visitFilter(FilterNode node, RewriteContext<Boolean> context)
+        {
+            return context.defaultRewrite(node, context.get());
+        }
+
+        @Override
+        public PlanNode visitAggregation(AggregationNode node, RewriteContext<Boolean> context)
+        {
+            return context.defaultRewrite(node, context.get() && node.getStep() == PARTIAL);
+        }
+
+        @Override
+        public PlanNode visitExchange(ExchangeNode node, RewriteContext<Boolean> context)
+        {
+            // a remote exchange redistributes its input regardless of how it was partitioned
+            return context.defaultRewrite(node, context.get() || node.getScope().isRemote());
+        }
+
+        @Override
+        public PlanNode visitJoin(JoinNode node, RewriteContext<Boolean> context)
+        {
+            boolean spreadable = context.get() &&
+                    (node.getType() == INNER || node.getType() == LEFT) &&
+                    node.getDistributionType().equals(Optional.of(PARTITIONED)) &&
+                    !node.getCriteria().isEmpty();
+
+            PlanNode left = context.rewrite(node.getLeft(), false);
+            PlanNode right = context.rewrite(node.getRight(), false);
+            if (spreadable && findPartitionedExchange(left).isPresent() && findPartitionedExchange(right).isPresent()) {
+                planChanged = true;
+                left = withPartitionSpreading(left, new PartitionSpreading(SPREAD_HEAVY_HITTERS, fanout));
+                right = withPartitionSpreading(right, new PartitionSpreading(REPLICATE, fanout));
+            }
+            return replaceChildren(node, ImmutableList.of(left, right));
+        }
+
+        /**
+         * Finds the remote exchange that hash partitions a side of the join, looking through the
+         * projections, filters and local exchanges of the join stage.
+         */
+        private static Optional<ExchangeNode> findPartitionedExchange(PlanNode node)
+        {
+            if (node instanceof ProjectNode || node instanceof FilterNode) {
+                return findPartitionedExchange(node.getSources().get(0));
+            }
+            if (!(node instanceof ExchangeNode) || node.getSources().size() != 1) {
+                return Optional.empty();
+            }
+            ExchangeNode exchange = (ExchangeNode) node;
+            if (exchange.getScope().isLocal()) {
+                return findPartitionedExchange(exchange.getSources().get(0));
+            }
+            PartitioningScheme partitioningScheme = exchange.getPartitioningScheme();
+            if (exchange.getScope() == REMOTE_STREAMING &&
+                    exchange.getType() == REPARTITION &&
+                    partitioningScheme.getPartitioning().getHandle().equals(FIXED_HASH_DISTRIBUTION) &&
+                    !partitioningScheme.isReplicateNullsAndAny() &&
+                    !partitioningScheme.getPartitionSpreading().isPresent()) {
+                return Optional.of(exchange);
+            }
+            return Optional.empty();
+        }
+
+        private static PlanNode withPartitionSpreading(PlanNode node, PartitionSpreading partitionSpreading)
+        {
+            if (node instanceof ExchangeNode && ((ExchangeNode) node).getScope().isRemote()) {
+                return ((ExchangeNode) node).withPartitionSpreading(partitionSpreading);
+            }
+            return replaceChildren(node, ImmutableList.of(withPartitionSpreading(node.getSources().get(0), partitionSpreading)));
+        }
+    }
+}
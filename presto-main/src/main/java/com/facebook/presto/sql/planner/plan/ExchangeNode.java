@@ -15,6 +15,7 @@ package com.facebook.presto.sql.planner.plan;
 
 import com.facebook.presto.spi.SourceLocation;
 import com.facebook.presto.spi.plan.OrderingScheme;
+import com.facebook.presto.spi.plan.PartitionSpreading;
 import com.facebook.presto.spi.plan.Partitioning;
 import com.facebook.presto.spi.plan.PartitioningHandle;
 import com.facebook.presto.spi.plan.PartitioningScheme;
@@ -357,4 +358,19 @@ public class ExchangeNode
                 ensureSourceOrdering,
                 orderingScheme);
     }
+
+    public ExchangeNode withPartitionSpreading(PartitionSpreading partitionSpreading)
+    {
+        return new ExchangeNode(
+                getSourceLocation(),
+                getId(),
+                getStatsEquivalentPlanNode(),
+                type,
+                scope,
+                partitioningScheme.withPartitionSpreading(partitionSpreading),
+                sources,
+                inputs,
+                ensureSourceOrdering,
+                orderingScheme);
+    }
 }
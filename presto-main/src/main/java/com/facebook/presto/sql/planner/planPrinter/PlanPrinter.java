@@ -428,6 +428,8 @@ public class PlanPrinter
                     formatHash(partitioningScheme.getHashColumn())));
         }
         builder.append(indentString(1)).append(format("Output encoding: %s%n", fragment.getPartitioningScheme().getEncoding()));
+        fragment.getPartitioningScheme().getPartitionSpreading().ifPresent(partitionSpreading ->
+                builder.append(indentString(1)).append(format("Output partition spreading: %s%n", partitionSpreading)));
         builder.append(indentString(1)).append(format("Stage Execution Strategy: %s%n", fragment.getStageExecutionDescriptor().getStageExecutionStrategy()));
 
         TypeProvider typeProvider = TypeProvider.fromVariables(fragment.getVariables());
@@ -328,6 +328,12 @@ public final class FunctionResolution
         return functionAndTypeResolver.lookupFunction("least", fromTypes(valueTypes));
     }
 
+    @Override
+    public boolean isSumFunction(FunctionHandle functionHandle)
+    {
+        return functionAndTypeResolver.getFunctionMetadata(functionHandle).getName().equals(QualifiedObjectName.valueOf(DEFAULT_NAMESPACE, "sum"));
+    }
+
     @Override
     public boolean isApproximateCountDistinctFunction(FunctionHandle functionHandle)
     {
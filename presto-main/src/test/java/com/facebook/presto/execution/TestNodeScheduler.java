@@ -90,6 +90,7 @@ import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.presto.SystemSessionProperties.MAX_UNACKNOWLEDGED_SPLITS_PER_TASK;
 import static com.facebook.presto.SystemSessionProperties.RESOURCE_AWARE_SCHEDULING_STRATEGY;
 import static com.facebook.presto.execution.scheduler.NetworkLocation.ROOT_LOCATION;
+import static com.facebook.presto.execution.scheduler.NodeSelectionHashStrategy.BOUNDED_LOAD_CONSISTENT_HASHING;
 import static com.facebook.presto.execution.scheduler.NodeSelectionHashStrategy.CONSISTENT_HASHING;
 import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.HARD_AFFINITY;
 import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.NO_PREFERENCE;
@@ -764,6 +765,54 @@ public class TestNodeScheduler
         assertEquals(splitPlacementResult.getAssignments().get(node4).stream().map(Split::getConnectorSplit).map(ConnectorSplit::getSplitIdentifier).collect(toImmutableSet()), ImmutableSet.of(5, 6, 8));
     }
 
+    @Test
+    public void testAffinityAssignmentWithBoundedLoadConsistentHashing()
+    {
+        NodeTaskMap nodeTaskMap = new NodeTaskMap(finalizerService);
+        TestingTransactionHandle transactionHandle = TestingTransactionHandle.create();
+        NodeSchedulerConfig nodeSchedulerConfig = new NodeSchedulerConfig()
+                .setNodeSelectionHashStrategy(BOUNDED_LOAD_CONSISTENT_HASHING)
+                .setConsistentHashingMaxLoadFactor(1.25)
+                .setMinVirtualNodeCount(3)
+                .setMaxSplitsPerNode(20)
+                .setIncludeCoordinator(false)
+                .setMaxPendingSplitsPerTask(10);
+
+        NodeSelectionStats nodeSelectionStats = new NodeSelectionStats();
+        NodeScheduler nodeScheduler = new NodeScheduler(new LegacyNetworkTopology(), nodeManager, nodeSelectionStats, nodeSchedulerConfig, nodeTaskMap, new ThrowingNodeTtlFetcherManager(), new NoOpQueryManager(), new SimpleTtlNodeSelectorConfig());
+        NodeSelector nodeSelector = nodeScheduler.createNodeSelector(session, CONNECTOR_ID, 3);
+
+        Set<Split> splits = new HashSet<>();
+        IntStream.range(0, 10).forEach(i -> splits.add(new Split(CONNECTOR_ID, transactionHandle, new TestAffinitySplitRemote(i))));
+
+        InternalNode node1 = new InternalNode("other1", URI.create("http://127.0.0.1:11"), NodeVersion.UNKNOWN, false);
+        InternalNode node2 = new InternalNode("other2", URI.create("http://127.0.0.1:12"), NodeVersion.UNKNOWN, false);
+        InternalNode node3 = new InternalNode("other3", URI.create("http://127.0.0.1:13"), NodeVersion.UNKNOWN, false);
+
+        // Plain consistent hashing places splits 1, 3, 4, 5, 6, 7, 8, 9 on node1 (see testAffinityAssignmentWithConsistentHashing).
+        // With a load factor of 1.25 no node takes more than ceil(1.25 * 10 / 3) = 5 splits, and the rest spill along the ring.
+        SplitPlacementResult splitPlacementResult = nodeSelector.computeAssignments(splits, ImmutableList.of());
+        Multimap<InternalNode, Split> assignments = splitPlacementResult.getAssignments();
+        assertEquals(assignments.size(), 10);
+        assertEquals(assignments.keySet().size(), 3);
+        for (InternalNode node : assignments.keySet()) {
+            assertTrue(assignments.get(node).size() <= 5, format("%s was assigned %s splits", node, assignments.get(node).size()));
+        }
+        assertTrue(assignments.get(node2).stream().map(Split::getConnectorSplit).map(ConnectorSplit::getSplitIdentifier).anyMatch(id -> id.equals(0)));
+        assertTrue(assignments.get(node3).stream().map(Split::getConnectorSplit).map(ConnectorSplit::getSplitIdentifier).anyMatch(id -> id.equals(2)));
+
+        // Splits keep their primary node unless it is overloaded
+        Map<String, Double> hitRates = nodeSelectionStats.getNodeAffinityHitRates();
+        assertEquals(hitRates.get(node2.getNodeIdentifier()), 1.0);
+        assertEquals(hitRates.get(node3.getNodeIdentifier()), 1.0);
+        assertTrue(hitRates.get(node1.getNodeIdentifier()) <= 5.0 / 8);
+
+        // The assignment is deterministic
+        Multimap<InternalNode, Split> expected = assignments;
+        nodeSelector = nodeScheduler.createNodeSelector(session, CONNECTOR_ID, 3);
+        assertEquals(nodeSelector.computeAssignments(splits, ImmutableList.of()).getAssignments(), expected);
+    }
+
     @Test
     public void testHardAffinityAssignment()
     {
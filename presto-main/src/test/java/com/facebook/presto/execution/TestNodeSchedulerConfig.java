@@ -23,7 +23,7 @@ import java.util.Map;
 import static com.facebook.presto.execution.scheduler.NodeSchedulerConfig.NetworkTopologyType.LEGACY;
 import static com.facebook.presto.execution.scheduler.NodeSchedulerConfig.ResourceAwareSchedulingStrategy.RANDOM;
 import static com.facebook.presto.execution.scheduler.NodeSchedulerConfig.ResourceAwareSchedulingStrategy.TTL;
-import static com.facebook.presto.execution.scheduler.NodeSelectionHashStrategy.CONSISTENT_HASHING;
+import static com.facebook.presto.execution.scheduler.NodeSelectionHashStrategy.BOUNDED_LOAD_CONSISTENT_HASHING;
 import static com.facebook.presto.execution.scheduler.NodeSelectionHashStrategy.MODULAR_HASHING;
 
 public class TestNodeSchedulerConfig
@@ -40,6 +40,7 @@ public class TestNodeSchedulerConfig
                 .setIncludeCoordinator(true)
                 .setNodeSelectionHashStrategy(MODULAR_HASHING)
                 .setMinVirtualNodeCount(1000)
+                .setConsistentHashingMaxLoadFactor(1.25)
                 .setResourceAwareSchedulingStrategy(RANDOM)
                 .setMaxPreferredNodes(2));
     }
@@ -54,8 +55,9 @@ public class TestNodeSchedulerConfig
                 .put("node-scheduler.max-pending-splits-per-task", "11")
                 .put("node-scheduler.max-unacknowledged-splits-per-task", "501")
                 .put("node-scheduler.max-splits-per-node", "101")
-                .put("node-scheduler.node-selection-hash-strategy", "CONSISTENT_HASHING")
+                .put("node-scheduler.node-selection-hash-strategy", "BOUNDED_LOAD_CONSISTENT_HASHING")
                 .put("node-scheduler.consistent-hashing-min-virtual-node-count", "2000")
+                .put("node-scheduler.consistent-hashing-max-load-factor", "1.5")
                 .put("experimental.resource-aware-scheduling-strategy", "TTL")
                 .put("node-scheduler.max-preferred-nodes", "5")
                 .build();
@@ -67,8 +69,9 @@ public class TestNodeSchedulerConfig
                 .setMaxPendingSplitsPerTask(11)
                 .setMaxUnacknowledgedSplitsPerTask(501)
                 .setMinCandidates(11)
-                .setNodeSelectionHashStrategy(CONSISTENT_HASHING)
+                .setNodeSelectionHashStrategy(BOUNDED_LOAD_CONSISTENT_HASHING)
                 .setMinVirtualNodeCount(2000)
+                .setConsistentHashingMaxLoadFactor(1.5)
                 .setResourceAwareSchedulingStrategy(TTL)
                 .setMaxPreferredNodes(5);
 
@@ -39,6 +39,7 @@ public class TestTaskManagerConfig
         assertRecordedDefaults(recordDefaults(TaskManagerConfig.class)
                 .setInitialSplitsPerNode(Runtime.getRuntime().availableProcessors() * 2)
                 .setSplitConcurrencyAdjustmentInterval(new Duration(100, TimeUnit.MILLISECONDS))
+                .setHeavySplitsFirst(false)
                 .setStatusRefreshMaxWait(new Duration(1, SECONDS))
                 .setInfoUpdateInterval(new Duration(3, SECONDS))
                 .setInfoRefreshMaxWait(new Duration(0, SECONDS))
@@ -86,6 +87,7 @@ public class TestTaskManagerConfig
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("task.initial-splits-per-node", "1")
                 .put("task.split-concurrency-adjustment-interval", "1s")
+                .put("task.heavy-splits-first", "true")
                 .put("task.status-refresh-max-wait", "2s")
                 .put("task.info-update-interval", "2s")
                 .put("experimental.task.info-update-refresh-max-wait", "3s")
@@ -130,6 +132,7 @@ public class TestTaskManagerConfig
         TaskManagerConfig expected = new TaskManagerConfig()
                 .setInitialSplitsPerNode(1)
                 .setSplitConcurrencyAdjustmentInterval(new Duration(1, SECONDS))
+                .setHeavySplitsFirst(true)
                 .setStatusRefreshMaxWait(new Duration(2, SECONDS))
                 .setInfoUpdateInterval(new Duration(2, SECONDS))
                 .setInfoRefreshMaxWait(new Duration(3, SECONDS))
@@ -16,8 +16,11 @@ package com.facebook.presto.execution.buffer;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.BlockEncodingManager;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.spi.page.PageCompressionCodec;
 import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
 import com.google.common.collect.ImmutableList;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
@@ -138,6 +141,32 @@ public class TestPagesSerde
         assertTrue(actualSize < expectedMaxSize, "Expected round trip size difference less than 20% of original page");
     }
 
+    @Test
+    public void testCompressionCodecs()
+    {
+        BlockBuilder builder = BIGINT.createBlockBuilder(null, 10_000);
+        LongStream.range(0, 10_000).forEach(value -> BIGINT.writeLong(builder, value % 16));
+        Page page = new Page(builder.build());
+
+        assertCompressionCodec(ExchangeCompressionCodec.LZ4, page, PageCompressionCodec.LZ4);
+        assertCompressionCodec(ExchangeCompressionCodec.ZSTD, page, PageCompressionCodec.ZSTD);
+        // every codec is sampled before the adaptive policy relies on its estimates
+        assertCompressionCodec(ExchangeCompressionCodec.ADAPTIVE, page, PageCompressionCodec.LZ4, PageCompressionCodec.ZSTD);
+    }
+
+    private static void assertCompressionCodec(ExchangeCompressionCodec exchangeCodec, Page page, PageCompressionCodec... expectedCodecs)
+    {
+        PagesSerde serde = new PagesSerdeFactory(new BlockEncodingManager(), true, false, exchangeCodec).createPagesSerde();
+        // the consumer decompresses whatever codec the producer chose
+        PagesSerde consumerSerde = new TestingPagesSerdeFactory().createPagesSerde();
+        for (PageCompressionCodec expectedCodec : expectedCodecs) {
+            SerializedPage serializedPage = serde.serialize(page);
+            assertEquals(PageCompressionCodec.fromMarkers(serializedPage.getPageCodecMarkers()), expectedCodec);
+            assertTrue(serializedPage.getSizeInBytes() < serializedPage.getUncompressedSizeInBytes());
+            assertPageEquals(ImmutableList.of(BIGINT), consumerSerde.deserialize(serializedPage), page);
+        }
+    }
+
     private static int serializedSize(List<? extends Type> types, Page expectedPage)
     {
         PagesSerde serde = new TestingPagesSerdeFactory().createPagesSerde();
@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.execution.executor;
 
+import com.facebook.airlift.stats.CounterStat;
+import com.facebook.airlift.stats.TimeStat;
 import com.facebook.airlift.testing.TestingTicker;
 import com.facebook.presto.execution.SplitRunner;
 import com.facebook.presto.execution.TaskId;
@@ -26,6 +28,7 @@ import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.OptionalInt;
@@ -36,6 +39,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.facebook.airlift.testing.Assertions.assertGreaterThan;
+import static com.facebook.airlift.testing.Assertions.assertGreaterThanOrEqual;
 import static com.facebook.airlift.testing.Assertions.assertLessThan;
 import static com.facebook.presto.execution.TaskManagerConfig.TaskPriorityTracking.QUERY_FAIR;
 import static com.facebook.presto.execution.TaskManagerConfig.TaskPriorityTracking.TASK_FAIR;
@@ -376,6 +380,57 @@ public class TestTaskExecutor
         }
     }
 
+    @Test
+    public void testHeavySplitsFirst()
+    {
+        TaskHandle handle = new TaskHandle(new TaskId("test", 0, 0, 0, 0), new TaskPriorityTracker(new MultilevelSplitQueue(2)), () -> 1, 10, new Duration(1, SECONDS), OptionalInt.empty(), true, nanos -> {});
+        List<PrioritizedSplitRunner> splits = ImmutableList.of(
+                createSplitRunner(handle, 100),
+                createSplitRunner(handle, 300),
+                createSplitRunner(handle, 100),
+                createSplitRunner(handle, 200));
+        splits.forEach(handle::enqueueSplit);
+
+        assertEquals(handle.pollNextSplit(), splits.get(1));
+        assertEquals(handle.pollNextSplit(), splits.get(3));
+        assertEquals(handle.pollNextSplit(), splits.get(0));
+        assertEquals(handle.pollNextSplit(), splits.get(2));
+    }
+
+    @Test
+    public void testStragglerWallTime()
+            throws Exception
+    {
+        List<Long> stragglerPeriods = new ArrayList<>();
+        TaskHandle handle = new TaskHandle(new TaskId("test", 0, 0, 0, 0), new TaskPriorityTracker(new MultilevelSplitQueue(2)), () -> 1, 10, new Duration(1, SECONDS), OptionalInt.empty(), false, stragglerPeriods::add);
+        PrioritizedSplitRunner first = createSplitRunner(handle, 100);
+        PrioritizedSplitRunner second = createSplitRunner(handle, 100);
+        handle.enqueueSplit(first);
+        handle.enqueueSplit(second);
+        handle.pollNextSplit();
+        handle.pollNextSplit();
+
+        // the second split runs alone after the first one finishes
+        handle.splitComplete(first);
+        MILLISECONDS.sleep(10);
+        handle.splitComplete(second);
+
+        assertEquals(stragglerPeriods.size(), 1);
+        assertGreaterThanOrEqual(stragglerPeriods.get(0), MILLISECONDS.toNanos(10));
+        assertEquals(handle.getStragglerWallNanos(), (long) stragglerPeriods.get(0));
+
+        // a split that finishes while others are still queued does not start a straggler period
+        PrioritizedSplitRunner third = createSplitRunner(handle, 100);
+        PrioritizedSplitRunner fourth = createSplitRunner(handle, 100);
+        handle.enqueueSplit(third);
+        handle.pollNextSplit();
+        handle.enqueueSplit(fourth);
+        handle.splitComplete(third);
+        handle.pollNextSplit();
+        handle.splitComplete(fourth);
+        assertEquals(stragglerPeriods.size(), 1);
+    }
+
     @Test(timeOut = 30_000)
     public void testMinMaxDriversPerTask()
     {
@@ -613,6 +668,58 @@ public class TestTaskExecutor
         }
     }
 
+    private static PrioritizedSplitRunner createSplitRunner(TaskHandle handle, long splitWeight)
+    {
+        return new PrioritizedSplitRunner(
+                handle,
+                new WeightedSplitRunner(splitWeight),
+                Ticker.systemTicker(),
+                new CounterStat(),
+                new CounterStat(),
+                new TimeStat(),
+                new TimeStat());
+    }
+
+    private static class WeightedSplitRunner
+            implements SplitRunner
+    {
+        private final long splitWeight;
+
+        private WeightedSplitRunner(long splitWeight)
+        {
+            this.splitWeight = splitWeight;
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return false;
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            return Futures.immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "";
+        }
+
+        @Override
+        public long getSplitWeight()
+        {
+            return splitWeight;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
     private static class MockSplitRunner
             implements SplitRunner
     {
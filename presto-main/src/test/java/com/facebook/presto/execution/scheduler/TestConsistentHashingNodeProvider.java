@@ -16,6 +16,7 @@ package com.facebook.presto.execution.scheduler;
 import com.facebook.presto.client.NodeVersion;
 import com.facebook.presto.metadata.InternalNode;
 import com.facebook.presto.spi.HostAddress;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.testng.annotations.Test;
 
@@ -28,9 +29,11 @@ import java.util.stream.IntStream;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.collect.Iterables.limit;
 import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertThrows;
 import static org.testng.Assert.assertTrue;
 
 public class TestConsistentHashingNodeProvider
@@ -63,6 +66,23 @@ public class TestConsistentHashingNodeProvider
         assertEquals(ImmutableSet.copyOf(nodeProviderWithWeight.get("split1", 10)), nodes.stream().map(InternalNode::getHostAndPort).collect(toImmutableSet()));
     }
 
+    @Test
+    public void testRingOrder()
+    {
+        List<InternalNode> nodes = createTestNodes();
+        ConsistentHashingNodeProvider nodeProvider = ConsistentHashingNodeProvider.create(nodes, 100);
+        for (int i = 0; i < 100; i++) {
+            String key = format("split%d", i);
+            List<HostAddress> ringOrder = nodeProvider.getInRingOrder(key);
+            // reading a prefix only walks the ring that far, and matches the eagerly computed candidates
+            assertEquals(ringOrder.get(0), nodeProvider.get(key, 1).get(0));
+            assertEquals(ImmutableList.copyOf(limit(ringOrder, 3)), nodeProvider.get(key, 3));
+            assertEquals(ringOrder, nodeProvider.get(key, nodes.size()));
+            assertEquals(ringOrder.size(), nodes.size());
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> nodeProvider.getInRingOrder("split").get(nodes.size()));
+    }
+
     private List<InternalNode> createTestNodes()
     {
         return IntStream.range(0, 10)
@@ -0,0 +1,195 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.execution.Lifespan;
+import com.facebook.presto.operator.MergeJoinOperator.MergeJoinOperatorFactory;
+import com.facebook.presto.operator.MergeJoinSinkOperator.MergeJoinSinkOperatorFactory;
+import com.facebook.presto.operator.ValuesOperator.ValuesOperatorFactory;
+import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.testing.TestingTaskContext;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.operator.PipelineExecutionStrategy.UNGROUPED_EXECUTION;
+import static com.facebook.presto.spi.plan.JoinType.INNER;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Thread;
+
+/**
+ * Joins two inputs sorted on a bigint key, the way rows come out of bucketed tables written with a sort order.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Thread)
+@OutputTimeUnit(MILLISECONDS)
+@BenchmarkMode(AverageTime)
+@Fork(3)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10, time = 2, timeUnit = SECONDS)
+public class BenchmarkMergeJoinOperator
+{
+    private static final int ROWS_PER_PAGE = 1024;
+    private static final int LEFT_ROWS = 1_000_000;
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, BIGINT);
+    private static final PlanNodeId TEST_PLAN_NODE_ID = new PlanNodeId("test");
+
+    @Param({"1", "5"})
+    private int rightRowsPerKey = 1;
+
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduledExecutor;
+    private List<Page> leftPages;
+    private List<Page> rightPages;
+
+    @Setup
+    public void setup()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+        scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
+        leftPages = createSortedPages(LEFT_ROWS, 1);
+        rightPages = createSortedPages(LEFT_ROWS, rightRowsPerKey);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        scheduledExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public long mergeJoin()
+    {
+        TaskContext taskContext = TestingTaskContext.createTaskContext(executor, scheduledExecutor, TEST_SESSION);
+        JoinBridgeManager<MergeJoinSource> leftSourceManager = createSourceManager();
+        JoinBridgeManager<MergeJoinSource> rightSourceManager = createSourceManager();
+        MergeJoinOperatorFactory joinOperatorFactory = new MergeJoinOperatorFactory(
+                4,
+                TEST_PLAN_NODE_ID,
+                INNER,
+                leftSourceManager,
+                rightSourceManager,
+                TYPES,
+                ImmutableList.of(0),
+                ImmutableList.of(0, 1),
+                TYPES,
+                ImmutableList.of(0),
+                ImmutableList.of(1));
+
+        Driver leftDriver = createSinkDriver(taskContext, 0, leftSourceManager, leftPages);
+        Driver rightDriver = createSinkDriver(taskContext, 2, rightSourceManager, rightPages);
+
+        Operator joinOperator = joinOperatorFactory.createOperator(taskContext.addPipelineContext(4, true, true, false).addDriverContext());
+        joinOperatorFactory.noMoreOperators(Lifespan.taskWide());
+        joinOperatorFactory.noMoreOperators();
+
+        long outputRows = 0;
+        while (!joinOperator.isFinished()) {
+            if (!leftDriver.isFinished()) {
+                leftDriver.process();
+            }
+            if (!rightDriver.isFinished()) {
+                rightDriver.process();
+            }
+            if (!joinOperator.isBlocked().isDone()) {
+                continue;
+            }
+            Page page = joinOperator.getOutput();
+            if (page != null) {
+                outputRows += page.getPositionCount();
+            }
+        }
+        return outputRows;
+    }
+
+    private static JoinBridgeManager<MergeJoinSource> createSourceManager()
+    {
+        return new JoinBridgeManager<>(
+                false,
+                UNGROUPED_EXECUTION,
+                UNGROUPED_EXECUTION,
+                () -> new MergeJoinSource(TYPES, ImmutableList.of(0), 32 * 1024 * 1024),
+                TYPES);
+    }
+
+    private static Driver createSinkDriver(TaskContext taskContext, int pipelineId, JoinBridgeManager<MergeJoinSource> sourceManager, List<Page> pages)
+    {
+        ValuesOperatorFactory valuesOperatorFactory = new ValuesOperatorFactory(pipelineId, TEST_PLAN_NODE_ID, pages);
+        MergeJoinSinkOperatorFactory sinkOperatorFactory = new MergeJoinSinkOperatorFactory(pipelineId + 1, TEST_PLAN_NODE_ID, sourceManager);
+        DriverContext driverContext = taskContext.addPipelineContext(pipelineId, true, true, false).addDriverContext();
+        Driver driver = Driver.createDriver(
+                driverContext,
+                valuesOperatorFactory.createOperator(driverContext),
+                sinkOperatorFactory.createOperator(driverContext));
+        valuesOperatorFactory.noMoreOperators();
+        sinkOperatorFactory.noMoreOperators(Lifespan.taskWide());
+        sinkOperatorFactory.noMoreOperators();
+        return driver;
+    }
+
+    private static List<Page> createSortedPages(int keys, int rowsPerKey)
+    {
+        RowPagesBuilder pages = rowPagesBuilder(TYPES);
+        int rows = 0;
+        for (long key = 0; key < keys; key++) {
+            for (int i = 0; i < rowsPerKey; i++) {
+                pages.row(key, key * rowsPerKey + i);
+                rows++;
+                if (rows % ROWS_PER_PAGE == 0) {
+                    pages.pageBreak();
+                }
+            }
+        }
+        return pages.build();
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkMergeJoinOperator.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -20,10 +20,13 @@ import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.memory.context.MemoryTrackingContext;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.testing.MaterializedResult;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import io.airlift.units.DataSize;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -32,6 +35,7 @@ import org.testng.annotations.Test;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.IntStream;
@@ -71,6 +75,7 @@ import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static java.lang.Float.floatToRawIntBits;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestDynamicFilterSourceOperator
@@ -555,6 +560,80 @@ public class TestDynamicFilterSourceOperator
                         Domain.create(ValueSet.of(BIGINT, 7L), false)))));
     }
 
+    @Test
+    public void testCollectBloomFilterWhenTooManyPositions()
+    {
+        int maxPositionsCount = 100;
+        ImmutableList.Builder<Map<String, BlockedBloomFilter>> bloomFilters = ImmutableList.builder();
+        OperatorFactory operatorFactory = new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
+                0,
+                new PlanNodeId("PLAN_NODE_ID"),
+                (predicate, partitionBloomFilters) -> {
+                    consumePredicate(predicate);
+                    bloomFilters.add(partitionBloomFilters);
+                },
+                ImmutableList.of(channel(0, BIGINT), channel(1, DOUBLE)),
+                maxPositionsCount,
+                new DataSize(10, KILOBYTE),
+                0,
+                new DataSize(64, KILOBYTE),
+                true);
+        List<Page> pages = ImmutableList.of(
+                new Page(createLongSequenceBlock(0, 50), createDoubleSequenceBlock(0, 50)),
+                new Page(createLongSequenceBlock(50, 1000), createDoubleSequenceBlock(50, 1000)),
+                new Page(createLongSequenceBlock(1000, 2000), createDoubleSequenceBlock(1000, 2000)));
+        verifyPassthrough(createOperator(operatorFactory), ImmutableList.of(BIGINT, DOUBLE), pages);
+        operatorFactory.noMoreOperators();
+
+        // no range without min/max collection, the Bloom filter still filters the first channel
+        assertEquals(partitions.build(), ImmutableList.of(TupleDomain.all()));
+        Map<String, BlockedBloomFilter> partitionBloomFilters = Iterables.getOnlyElement(bloomFilters.build());
+        assertEquals(partitionBloomFilters.keySet(), ImmutableSet.of("0"));
+        BlockedBloomFilter bloomFilter = partitionBloomFilters.get("0");
+
+        Block buildValues = createLongSequenceBlock(0, 2000);
+        for (int position = 0; position < buildValues.getPositionCount(); position++) {
+            assertTrue(bloomFilter.mightContain(buildValues, position));
+        }
+        Block otherValues = createLongSequenceBlock(10_000, 20_000);
+        int falsePositives = 0;
+        for (int position = 0; position < otherValues.getPositionCount(); position++) {
+            if (bloomFilter.mightContain(otherValues, position)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 100, "too many false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testBloomFilterMemoryAccounting()
+    {
+        OperatorFactory operatorFactory = new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
+                0,
+                new PlanNodeId("PLAN_NODE_ID"),
+                (predicate, partitionBloomFilters) -> consumePredicate(predicate),
+                ImmutableList.of(channel(0, BIGINT), channel(1, BIGINT)),
+                100,
+                new DataSize(10, KILOBYTE),
+                0,
+                new DataSize(64, KILOBYTE),
+                true);
+        Operator operator = createOperator(operatorFactory);
+        MemoryTrackingContext memoryContext = operator.getOperatorContext().getOperatorMemoryContext();
+
+        operator.addInput(new Page(createLongSequenceBlock(0, 50), createLongSequenceBlock(0, 50)));
+        operator.getOutput();
+        assertEquals(memoryContext.getUserMemory(), 0);
+
+        // the exact predicate becomes too large, one Bloom filter is allocated per channel
+        operator.addInput(new Page(createLongSequenceBlock(50, 1000), createLongSequenceBlock(50, 1000)));
+        operator.getOutput();
+        assertTrue(memoryContext.getUserMemory() >= 2 * new DataSize(64, KILOBYTE).toBytes());
+
+        operator.finish();
+        assertEquals(memoryContext.getUserMemory(), 0);
+    }
+
     @Test
     public void testCollectMinMaxLimitSinglePage()
     {
@@ -42,6 +42,7 @@ public class TestExchangeClientConfig
                 .setPageBufferClientMaxCallbackThreads(25)
                 .setClientThreads(25)
                 .setAcknowledgePages(true)
+                .setLocalTransportEnabled(false)
                 .setResponseSizeExponentialMovingAverageDecayingAlpha(0.1));
     }
 
@@ -58,6 +59,7 @@ public class TestExchangeClientConfig
                 .put("exchange.client-threads", "2")
                 .put("exchange.page-buffer-client.max-callback-threads", "16")
                 .put("exchange.acknowledge-pages", "false")
+                .put("exchange.local-transport-enabled", "true")
                 .put("exchange.response-size-exponential-moving-average-decaying-alpha", "0.42")
                 .build();
 
@@ -71,6 +73,7 @@ public class TestExchangeClientConfig
                 .setClientThreads(2)
                 .setPageBufferClientMaxCallbackThreads(16)
                 .setAcknowledgePages(false)
+                .setLocalTransportEnabled(true)
                 .setResponseSizeExponentialMovingAverageDecayingAlpha(0.42);
 
         assertFullMapping(properties, expected);
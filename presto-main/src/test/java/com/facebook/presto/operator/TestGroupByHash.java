@@ -37,14 +37,20 @@ import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
+import static com.facebook.presto.SystemSessionProperties.FLAT_GROUP_BY_HASH_ENABLED;
+import static com.facebook.presto.block.BlockAssertions.createDateSequenceBlock;
+import static com.facebook.presto.block.BlockAssertions.createIntsBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
 import static com.facebook.presto.block.BlockAssertions.createStringSequenceBlock;
 import static com.facebook.presto.common.block.DictionaryId.randomDictionaryId;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateType.DATE;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
+import static com.facebook.presto.operator.UpdateMemory.NOOP;
 import static com.facebook.presto.type.TypeUtils.getHashBlock;
 import static com.google.common.math.DoubleMath.log2;
 import static org.testng.Assert.assertEquals;
@@ -56,12 +62,15 @@ public class TestGroupByHash
     private static final int MAX_GROUP_ID = 500;
     private static final int[] CONTAINS_CHANNELS = {0};
     private static final Session TEST_SESSION = TestingSession.testSessionBuilder().build();
+    private static final Session FLAT_GROUP_BY_HASH_SESSION = TestingSession.testSessionBuilder()
+            .setSystemProperty(FLAT_GROUP_BY_HASH_ENABLED, "true")
+            .build();
     private static final JoinCompiler JOIN_COMPILER = new JoinCompiler(MetadataManager.createTestMetadataManager());
 
     @DataProvider
     public Object[][] dataType()
     {
-        return new Object[][] {{VARCHAR}, {BIGINT}};
+        return new Object[][] {{VARCHAR}, {BIGINT}, {DATE}};
     }
 
     @Test
@@ -232,6 +241,81 @@ public class TestGroupByHash
         assertTrue(groupByHash.contains(0, new Page(testValuesBlock, testStringValuesBlock, testHashBlock), hashChannels));
     }
 
+    @Test
+    public void testFixedWidthMultipleChannels()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, INTEGER);
+        Block longsBlock = createLongsBlock(1L, 2L, 1L, null, 1L, null, 2L);
+        Block intsBlock = createIntsBlock(10, 10, 10, 10, null, 10, 20);
+        int[] hashChannels = {0, 1};
+        GroupByHash groupByHash = createGroupByHash(FLAT_GROUP_BY_HASH_SESSION, types, hashChannels, Optional.of(2), 1, JOIN_COMPILER);
+        assertTrue(groupByHash instanceof FlatGroupByHash);
+        assertEquals(groupByHash.getTypes(), ImmutableList.of(BIGINT, INTEGER, BIGINT));
+
+        Work<GroupByIdBlock> work = groupByHash.getGroupIds(new Page(longsBlock, intsBlock, getHashBlock(types, longsBlock, intsBlock)));
+        assertTrue(work.process());
+        GroupByIdBlock groupIds = work.getResult();
+        assertEquals(groupByHash.getGroupCount(), 5);
+        long[] expectedGroupIds = {0, 1, 0, 2, 3, 2, 4};
+        for (int position = 0; position < expectedGroupIds.length; position++) {
+            assertEquals(groupIds.getGroupId(position), expectedGroupIds[position]);
+        }
+
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+        }
+        Page outputPage = pageBuilder.build();
+        Block expectedLongsBlock = createLongsBlock(1L, 2L, null, 1L, 2L);
+        Block expectedIntsBlock = createIntsBlock(10, 10, 10, null, 20);
+        BlockAssertions.assertBlockEquals(BIGINT, outputPage.getBlock(0), expectedLongsBlock);
+        BlockAssertions.assertBlockEquals(INTEGER, outputPage.getBlock(1), expectedIntsBlock);
+        // the hashes of the groups match the hashes computed by the hash generation of the plan
+        BlockAssertions.assertBlockEquals(BIGINT, outputPage.getBlock(2), getHashBlock(types, expectedLongsBlock, expectedIntsBlock));
+
+        Page containsPage = new Page(createLongsBlock(2L, 2L, null), createIntsBlock(20, null, 10));
+        assertTrue(groupByHash.contains(0, containsPage, hashChannels));
+        assertFalse(groupByHash.contains(1, containsPage, hashChannels));
+        assertTrue(groupByHash.contains(2, containsPage, hashChannels));
+    }
+
+    @Test
+    public void testFlatGroupByHashSelection()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, INTEGER);
+        int[] hashChannels = {0, 1};
+        assertTrue(createGroupByHash(TEST_SESSION, types, hashChannels, Optional.empty(), 100, JOIN_COMPILER) instanceof MultiChannelGroupByHash);
+        assertTrue(createGroupByHash(types, hashChannels, Optional.empty(), 100, false, true, JOIN_COMPILER, NOOP) instanceof FlatGroupByHash);
+        // dictionary aggregation is only supported by the multi channel hash
+        assertTrue(createGroupByHash(types, hashChannels, Optional.empty(), 100, true, true, JOIN_COMPILER, NOOP) instanceof MultiChannelGroupByHash);
+        assertTrue(createGroupByHash(ImmutableList.of(BIGINT, VARCHAR), hashChannels, Optional.empty(), 100, false, true, JOIN_COMPILER, NOOP) instanceof MultiChannelGroupByHash);
+    }
+
+    @Test
+    public void testFixedWidthBufferedPages()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, DATE);
+        Block longsBlock = createLongSequenceBlock(0, 10_000);
+        Block datesBlock = createDateSequenceBlock(0, 10_000);
+        GroupByHash groupByHash = createGroupByHash(FLAT_GROUP_BY_HASH_SESSION, types, new int[] {0, 1}, Optional.empty(), 100, JOIN_COMPILER);
+        assertTrue(groupByHash instanceof FlatGroupByHash);
+        assertTrue(groupByHash.addPage(new Page(longsBlock, datesBlock)).process());
+        assertTrue(groupByHash.addPage(new Page(longsBlock, datesBlock)).process());
+        assertEquals(groupByHash.getGroupCount(), 10_000);
+
+        int position = 0;
+        for (Page page : groupByHash.getBufferedPages()) {
+            assertEquals(page.getChannelCount(), 2);
+            for (int i = 0; i < page.getPositionCount(); i++) {
+                assertEquals(BIGINT.getLong(page.getBlock(0), i), position);
+                assertEquals(DATE.getLong(page.getBlock(1), i), position);
+                position++;
+            }
+        }
+        assertEquals(position, 10_000);
+    }
+
     @Test
     public void testForceRehash()
     {
@@ -261,6 +345,9 @@ public class TestGroupByHash
         else if (type == BIGINT) {
             valuesBlock = createLongSequenceBlock(0, length);
         }
+        else if (type == DATE) {
+            valuesBlock = createDateSequenceBlock(0, length);
+        }
         else {
             throw new IllegalArgumentException("unsupported data type");
         }
@@ -297,6 +384,9 @@ public class TestGroupByHash
         else if (type == BIGINT) {
             valuesBlock = createLongSequenceBlock(0, length);
         }
+        else if (type == DATE) {
+            valuesBlock = createDateSequenceBlock(0, length);
+        }
         else {
             throw new IllegalArgumentException("unsupported data type");
         }
@@ -329,6 +419,9 @@ public class TestGroupByHash
         else if (type == BIGINT) {
             valuesBlock = createLongSequenceBlock(0, length);
         }
+        else if (type == DATE) {
+            valuesBlock = createDateSequenceBlock(0, length);
+        }
         else {
             throw new IllegalArgumentException("unsupported data type");
         }
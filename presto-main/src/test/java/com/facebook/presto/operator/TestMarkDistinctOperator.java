@@ -13,29 +13,47 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.airlift.stats.TestingGcMonitor;
 import com.facebook.presto.RowPagesBuilder;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.BlockEncodingManager;
 import com.facebook.presto.common.block.RunLengthEncodedBlock;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.memory.MemoryPool;
+import com.facebook.presto.memory.QueryContext;
 import com.facebook.presto.metadata.MetadataManager;
 import com.facebook.presto.operator.MarkDistinctOperator.MarkDistinctOperatorFactory;
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.memory.MemoryPoolId;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spiller.FileSingleStreamSpillerFactory;
+import com.facebook.presto.spiller.GenericPartitioningSpillerFactory;
+import com.facebook.presto.spiller.SpillSpaceTracker;
+import com.facebook.presto.spiller.SpillerStats;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.testing.MaterializedResult;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import io.airlift.units.DataSize;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.airlift.json.JsonCodec.listJsonCodec;
 import static com.facebook.airlift.testing.Assertions.assertGreaterThan;
 import static com.facebook.airlift.testing.Assertions.assertInstanceOf;
 import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
@@ -45,13 +63,25 @@ import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.operator.GroupByHashYieldAssertion.createPagesWithDistinctHashKeys;
 import static com.facebook.presto.operator.GroupByHashYieldAssertion.finishOperatorWithYieldingGroupByHash;
+import static com.facebook.presto.operator.OperatorAssertion.toPages;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
 import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
+import static java.nio.file.Files.createTempDirectory;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
@@ -59,12 +89,15 @@ public class TestMarkDistinctOperator
 {
     private ExecutorService executor;
     private ScheduledExecutorService scheduledExecutor;
+    private Path spillDirectory;
     private DriverContext driverContext;
     private JoinCompiler joinCompiler = new JoinCompiler(MetadataManager.createTestMetadataManager());
 
     @BeforeMethod
     public void setUp()
+            throws Exception
     {
+        spillDirectory = createTempDirectory(getClass().getSimpleName());
         executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
         scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
         driverContext = createTaskContext(executor, scheduledExecutor, TEST_SESSION)
@@ -72,11 +105,13 @@ public class TestMarkDistinctOperator
                 .addDriverContext();
     }
 
-    @AfterMethod
+    @AfterMethod(alwaysRun = true)
     public void tearDown()
+            throws Exception
     {
         executor.shutdownNow();
         scheduledExecutor.shutdownNow();
+        deleteRecursively(spillDirectory, ALLOW_INSECURE);
     }
 
     @DataProvider
@@ -165,6 +200,162 @@ public class TestMarkDistinctOperator
         }
     }
 
+    @Test(dataProvider = "hashEnabledValues", timeOut = 120_000)
+    public void testMarkDistinctWithSpill(boolean hashEnabled)
+    {
+        // wide values, so that the spilled distinct values fill several pages in every partition
+        int valueCount = 250_000;
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, Ints.asList(0), VARCHAR);
+        List<Page> input = rowPagesBuilder
+                .addBlocksPage(createWideValuesBlock(0, valueCount))
+                .addBlocksPage(createWideValuesBlock(valueCount / 2, valueCount))
+                .addBlocksPage(createWideValuesBlock(0, valueCount))
+                .build();
+
+        ListeningExecutorService spillExecutor = listeningDecorator(newSingleThreadExecutor(daemonThreadsNamed("test-spiller-%s")));
+        GenericPartitioningSpillerFactory partitioningSpillerFactory = new GenericPartitioningSpillerFactory(
+                new FileSingleStreamSpillerFactory(spillExecutor, new BlockEncodingManager(), new SpillerStats(), ImmutableList.of(spillDirectory), 1.0, false, false));
+        OperatorFactory operatorFactory = new MarkDistinctOperatorFactory(0, new PlanNodeId("test"), rowPagesBuilder.getTypes(), ImmutableList.of(0), rowPagesBuilder.getHashChannel(), joinCompiler, true, partitioningSpillerFactory);
+
+        // the first page is marked in memory, then the distinct values are spilled and the remaining pages are marked from disk
+        Operator operator = operatorFactory.createOperator(driverContext);
+        ImmutableList.Builder<Page> output = ImmutableList.builder();
+        try {
+            operator.addInput(input.get(0));
+            Page firstOutput = null;
+            while (firstOutput == null) {
+                firstOutput = operator.getOutput();
+            }
+            output.add(firstOutput);
+
+            // hold back the spill writes until the revoke has been started: starting the revoke must not wait for the writes,
+            // and no partition may be written again before its previous write completes
+            CountDownLatch writesReleased = new CountDownLatch(1);
+            spillExecutor.submit(() -> awaitUninterruptibly(writesReleased));
+            ListenableFuture<?> revoke;
+            try {
+                revoke = operator.startMemoryRevoke();
+            }
+            finally {
+                writesReleased.countDown();
+            }
+            getFutureValue(revoke);
+            operator.finishMemoryRevoke();
+
+            output.addAll(toPages(operator, input.subList(1, input.size()).iterator(), false));
+        }
+        finally {
+            spillExecutor.shutdownNow();
+        }
+        assertGreaterThan(operator.getOperatorContext().getOperatorStats().getSpilledDataSize().toBytes(), 0L);
+        assertEquals(operator.getOperatorContext().getOperatorStats().getRevocableMemoryReservation().toBytes(), 0L);
+
+        int[] rowCounts = new int[valueCount + valueCount / 2];
+        int[] distinctCounts = new int[rowCounts.length];
+        int markChannel = hashEnabled ? 2 : 1;
+        for (Page page : output.build()) {
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                int value = Integer.parseInt(VARCHAR.getSlice(page.getBlock(0), position).toStringUtf8());
+                rowCounts[value]++;
+                if (BOOLEAN.getBoolean(page.getBlock(markChannel), position)) {
+                    distinctCounts[value]++;
+                }
+            }
+        }
+        for (int value = 0; value < rowCounts.length; value++) {
+            int expectedRowCount = value < valueCount / 2 ? 2 : value < valueCount ? 3 : 1;
+            assertEquals(rowCounts[value], expectedRowCount, "rows of value " + value);
+            assertEquals(distinctCounts[value], 1, "distinct marks of value " + value);
+        }
+    }
+
+    @Test(timeOut = 120_000)
+    public void testRevokeWhileYielded()
+    {
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(false, Ints.asList(0), BIGINT);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(1_000, 0)
+                .addSequencePage(100_000, 0)
+                .addSequencePage(100_000, 50_000)
+                .build();
+
+        // a pool that can be saturated, so that growing the hash yields
+        QueryId otherQuery = new QueryId("other_query");
+        MemoryPool memoryPool = new MemoryPool(new MemoryPoolId("test"), new DataSize(1, GIGABYTE));
+        QueryContext queryContext = new QueryContext(
+                new QueryId("test_query"),
+                new DataSize(512, MEGABYTE),
+                new DataSize(1, GIGABYTE),
+                new DataSize(512, MEGABYTE),
+                new DataSize(1, GIGABYTE),
+                memoryPool,
+                new TestingGcMonitor(),
+                executor,
+                scheduledExecutor,
+                new DataSize(512, MEGABYTE),
+                new SpillSpaceTracker(new DataSize(512, MEGABYTE)),
+                listJsonCodec(TaskMemoryReservationSummary.class));
+        DriverContext driverContext = createTaskContext(queryContext, executor, TEST_SESSION)
+                .addPipelineContext(0, true, true, false)
+                .addDriverContext();
+
+        ListeningExecutorService spillExecutor = listeningDecorator(newSingleThreadExecutor(daemonThreadsNamed("test-spiller-%s")));
+        GenericPartitioningSpillerFactory partitioningSpillerFactory = new GenericPartitioningSpillerFactory(
+                new FileSingleStreamSpillerFactory(spillExecutor, new BlockEncodingManager(), new SpillerStats(), ImmutableList.of(spillDirectory), 1.0, false, false));
+        OperatorFactory operatorFactory = new MarkDistinctOperatorFactory(0, new PlanNodeId("test"), rowPagesBuilder.getTypes(), ImmutableList.of(0), rowPagesBuilder.getHashChannel(), joinCompiler, true, partitioningSpillerFactory);
+
+        Operator operator = operatorFactory.createOperator(driverContext);
+        ImmutableList.Builder<Page> output = ImmutableList.builder();
+        try {
+            operator.addInput(input.get(0));
+            output.add(operator.getOutput());
+
+            // the second page needs the hash to grow, which yields while the pool is saturated
+            long reservedBytes = memoryPool.getFreeBytes() - 100_000;
+            memoryPool.reserve(otherQuery, "test", reservedBytes);
+            operator.addInput(input.get(1));
+            assertNull(operator.getOutput());
+            assertFalse(operator.needsInput());
+
+            getFutureValue(operator.startMemoryRevoke());
+            memoryPool.free(otherQuery, "test", reservedBytes);
+            operator.finishMemoryRevoke();
+            assertEquals(operator.getOperatorContext().getOperatorStats().getRevocableMemoryReservation().toBytes(), 0L);
+
+            output.addAll(toPages(operator, input.subList(2, input.size()).iterator(), false));
+        }
+        finally {
+            spillExecutor.shutdownNow();
+        }
+        assertGreaterThan(operator.getOperatorContext().getOperatorStats().getSpilledDataSize().toBytes(), 0L);
+
+        int[] rowCounts = new int[150_000];
+        int[] distinctCounts = new int[rowCounts.length];
+        for (Page page : output.build()) {
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                int value = toIntExact(BIGINT.getLong(page.getBlock(0), position));
+                rowCounts[value]++;
+                if (BOOLEAN.getBoolean(page.getBlock(1), position)) {
+                    distinctCounts[value]++;
+                }
+            }
+        }
+        for (int value = 0; value < rowCounts.length; value++) {
+            int expectedRowCount = (value < 1_000 ? 1 : 0) + (value < 100_000 ? 1 : 0) + (value >= 50_000 ? 1 : 0);
+            assertEquals(rowCounts[value], expectedRowCount, "rows of value " + value);
+            assertEquals(distinctCounts[value], 1, "distinct marks of value " + value);
+        }
+    }
+
+    private static Block createWideValuesBlock(int start, int count)
+    {
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, count);
+        for (int value = start; value < start + count; value++) {
+            VARCHAR.writeString(blockBuilder, format("%0200d", value));
+        }
+        return blockBuilder.build();
+    }
+
     @Test(dataProvider = "dataType")
     public void testMemoryReservationYield(Type type)
     {
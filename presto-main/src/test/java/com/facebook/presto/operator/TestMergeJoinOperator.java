@@ -0,0 +1,507 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.ExceededMemoryLimitException;
+import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.execution.Lifespan;
+import com.facebook.presto.operator.MergeJoinOperator.MergeJoinOperatorFactory;
+import com.facebook.presto.operator.MergeJoinSinkOperator.MergeJoinSinkOperatorFactory;
+import com.facebook.presto.operator.ValuesOperator.ValuesOperatorFactory;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.plan.JoinType;
+import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.testing.MaterializedResult;
+import com.facebook.presto.testing.MaterializedRow;
+import com.facebook.presto.testing.TestingTaskContext;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Streams;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.airlift.testing.Assertions.assertEqualsIgnoreOrder;
+import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.operator.OperatorAssertion.toMaterializedResult;
+import static com.facebook.presto.operator.PipelineExecutionStrategy.UNGROUPED_EXECUTION;
+import static com.facebook.presto.spi.plan.JoinType.INNER;
+import static com.facebook.presto.spi.plan.JoinType.LEFT;
+import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
+import static com.facebook.presto.testing.assertions.Assert.assertEquals;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.stream.Collectors.toList;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestMergeJoinOperator
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR);
+    private static final List<Type> OUTPUT_TYPES = ImmutableList.of(BIGINT, VARCHAR, VARCHAR);
+
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduledExecutor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+        scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        scheduledExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testInnerJoin()
+    {
+        MaterializedResult expected = resultBuilder(TEST_SESSION, OUTPUT_TYPES)
+                .row(2L, "l2a", "r2a")
+                .row(2L, "l2a", "r2b")
+                .row(2L, "l2b", "r2a")
+                .row(2L, "l2b", "r2b")
+                .row(4L, "l4", "r4a")
+                .row(4L, "l4", "r4b")
+                .row(4L, "l4", "r4c")
+                .build();
+        assertJoin(INNER, leftPages(), rightPages(), Long.MAX_VALUE, expected);
+        assertJoin(INNER, leftPages(), rightPages(), 1, expected);
+    }
+
+    @Test
+    public void testLeftJoin()
+    {
+        MaterializedResult expected = resultBuilder(TEST_SESSION, OUTPUT_TYPES)
+                .row(null, "lnull", null)
+                .row(1L, "l1", null)
+                .row(2L, "l2a", "r2a")
+                .row(2L, "l2a", "r2b")
+                .row(2L, "l2b", "r2a")
+                .row(2L, "l2b", "r2b")
+                .row(4L, "l4", "r4a")
+                .row(4L, "l4", "r4b")
+                .row(4L, "l4", "r4c")
+                .row(7L, "l7", null)
+                .build();
+        assertJoin(LEFT, leftPages(), rightPages(), Long.MAX_VALUE, expected);
+        assertJoin(LEFT, leftPages(), rightPages(), 1, expected);
+    }
+
+    @Test
+    public void testLargeRunOfDuplicateKeys()
+    {
+        RowPagesBuilder left = rowPagesBuilder(TYPES)
+                .row(1L, "l1")
+                .row(5L, "l5a")
+                .pageBreak()
+                .row(5L, "l5b")
+                .row(6L, "l6");
+        RowPagesBuilder right = rowPagesBuilder(TYPES)
+                .row(1L, "r1");
+        MaterializedResult.Builder expected = resultBuilder(TEST_SESSION, OUTPUT_TYPES)
+                .row(1L, "l1", "r1");
+        for (int page = 0; page < 10; page++) {
+            right.pageBreak();
+            for (int position = 0; position < 1000; position++) {
+                right.row(5L, "r5");
+            }
+        }
+        for (int row = 0; row < 10_000; row++) {
+            expected.row(5L, "l5a", "r5");
+        }
+        for (int row = 0; row < 10_000; row++) {
+            expected.row(5L, "l5b", "r5");
+        }
+        assertJoin(INNER, left.build(), right.build(), 1, expected.build());
+    }
+
+    @Test
+    public void testInnerJoinFinishesWhenRightIsExhausted()
+    {
+        RowPagesBuilder left = rowPagesBuilder(TYPES)
+                .row(1L, "l1");
+        for (int page = 0; page < 10; page++) {
+            left.pageBreak().addSequencePage(100, page * 100 + 2, 0);
+        }
+        List<Page> right = rowPagesBuilder(TYPES)
+                .row(1L, "r1")
+                .build();
+
+        // the left side blocks on the full buffer until the join is closed
+        MergeJoin join = new MergeJoin(INNER, ImmutableList.of(left.build()), ImmutableList.of(right), 1);
+        List<Page> output = join.run();
+        assertTrue(join.leftDrivers.stream().allMatch(Driver::isFinished));
+        assertEquals(toMaterializedResult(TEST_SESSION, OUTPUT_TYPES, output).getMaterializedRows(), resultBuilder(TEST_SESSION, OUTPUT_TYPES)
+                .row(1L, "l1", "r1")
+                .build()
+                .getMaterializedRows());
+    }
+
+    @Test
+    public void testRightSideIsReleasedWhenJoinFinishesEarly()
+    {
+        RowPagesBuilder right = rowPagesBuilder(TYPES);
+        for (int page = 0; page < 10; page++) {
+            right.addSequencePage(100, page * 100, 0).pageBreak();
+        }
+        List<Page> left = rowPagesBuilder(TYPES)
+                .row(0L, "l0")
+                .build();
+
+        // the right side blocks on the full buffer until the join is closed
+        MergeJoin join = new MergeJoin(INNER, ImmutableList.of(left), ImmutableList.of(right.build()), 1);
+        join.run();
+        assertTrue(join.joinOperator.isFinished());
+        assertTrue(join.rightDrivers.stream().allMatch(Driver::isFinished));
+    }
+
+    @Test
+    public void testMultipleSortedRuns()
+    {
+        // each driver of a lifespan produces its own sorted run, e.g. one per file of a bucket
+        List<List<Page>> left = ImmutableList.of(
+                rowPagesBuilder(TYPES)
+                        .row(null, "lnull")
+                        .row(2L, "l2a")
+                        .pageBreak()
+                        .row(7L, "l7")
+                        .build(),
+                rowPagesBuilder(TYPES)
+                        .row(1L, "l1")
+                        .row(2L, "l2b")
+                        .row(4L, "l4")
+                        .build(),
+                ImmutableList.of());
+        List<List<Page>> right = ImmutableList.of(
+                rowPagesBuilder(TYPES)
+                        .row(2L, "r2a")
+                        .row(4L, "r4a")
+                        .pageBreak()
+                        .row(4L, "r4b")
+                        .build(),
+                rowPagesBuilder(TYPES)
+                        .row(null, "rnull")
+                        .row(2L, "r2b")
+                        .row(3L, "r3")
+                        .pageBreak()
+                        .row(4L, "r4c")
+                        .row(6L, "r6")
+                        .build());
+        MaterializedResult expected = resultBuilder(TEST_SESSION, OUTPUT_TYPES)
+                .row(null, "lnull", null)
+                .row(1L, "l1", null)
+                .row(2L, "l2a", "r2a")
+                .row(2L, "l2a", "r2b")
+                .row(2L, "l2b", "r2a")
+                .row(2L, "l2b", "r2b")
+                .row(4L, "l4", "r4a")
+                .row(4L, "l4", "r4b")
+                .row(4L, "l4", "r4c")
+                .row(7L, "l7", null)
+                .build();
+        assertMultipleRunsJoin(LEFT, left, right, Long.MAX_VALUE, expected);
+        assertMultipleRunsJoin(LEFT, left, right, 1, expected);
+    }
+
+    @Test
+    public void testMultipleSortedRunsWithDuplicateKeys()
+    {
+        List<List<Page>> left = new ArrayList<>();
+        List<List<Page>> right = new ArrayList<>();
+        for (int run = 0; run < 3; run++) {
+            left.add(rowPagesBuilder(TYPES)
+                    .addSequencePage(50, run, 0)
+                    .build());
+            right.add(rowPagesBuilder(TYPES)
+                    .addSequencePage(50, 0, 0)
+                    .build());
+        }
+        MaterializedResult.Builder expected = resultBuilder(TEST_SESSION, OUTPUT_TYPES);
+        for (int run = 0; run < 3; run++) {
+            for (long key = run; key < 50; key++) {
+                for (int match = 0; match < 3; match++) {
+                    expected.row(key, String.valueOf(key - run), String.valueOf(key));
+                }
+            }
+        }
+        assertMultipleRunsJoin(INNER, left, right, Long.MAX_VALUE, expected.build());
+        assertMultipleRunsJoin(INNER, left, right, 1, expected.build());
+    }
+
+    @Test
+    public void testSortedRunsProducedOneAfterAnother()
+    {
+        // the drivers of a lifespan with several files may run one after the other
+        List<List<Page>> left = ImmutableList.of(
+                rowPagesBuilder(TYPES)
+                        .addSequencePage(100, 0, 0)
+                        .build(),
+                rowPagesBuilder(TYPES)
+                        .addSequencePage(100, 50, 0)
+                        .build());
+        List<List<Page>> right = ImmutableList.of(rowPagesBuilder(TYPES)
+                .addSequencePage(200, 0, 0)
+                .build());
+        MaterializedResult.Builder expected = resultBuilder(TEST_SESSION, OUTPUT_TYPES);
+        for (long key = 0; key < 100; key++) {
+            expected.row(key, String.valueOf(key), String.valueOf(key));
+        }
+        for (long key = 50; key < 150; key++) {
+            expected.row(key, String.valueOf(key - 50), String.valueOf(key));
+        }
+
+        MergeJoin mergeJoin = new MergeJoin(INNER, left, right, 1);
+        TaskContext taskContext = mergeJoin.getTaskContext();
+        mergeJoin.finishLeftDriver(0);
+        // the first run is buffered in full, and stays charged after its driver is closed
+        assertTrue(taskContext.getMemoryReservation().toBytes() > 0);
+
+        List<MaterializedRow> actual = toMaterializedResult(TEST_SESSION, OUTPUT_TYPES, mergeJoin.run()).getMaterializedRows();
+        assertEqualsIgnoreOrder(actual, expected.build().getMaterializedRows());
+        assertEquals(taskContext.getMemoryReservation().toBytes(), 0);
+    }
+
+    @Test(expectedExceptions = ExceededMemoryLimitException.class)
+    public void testBufferedRunExceedsMemoryLimit()
+    {
+        List<List<Page>> left = ImmutableList.of(
+                rowPagesBuilder(TYPES)
+                        .addSequencePage(10_000, 0, 0)
+                        .build(),
+                rowPagesBuilder(TYPES)
+                        .addSequencePage(10, 0, 0)
+                        .build());
+        List<List<Page>> right = ImmutableList.of(rowPagesBuilder(TYPES)
+                .addSequencePage(10, 0, 0)
+                .build());
+        TaskContext taskContext = TestingTaskContext.builder(executor, scheduledExecutor, TEST_SESSION)
+                .setQueryMaxMemory(new DataSize(10, KILOBYTE))
+                .build();
+        // buffering a whole run while another run has not been started is bounded by the memory limit of the query
+        new MergeJoin(taskContext, INNER, left, right, 1).finishLeftDriver(0);
+    }
+
+    @Test(expectedExceptions = PrestoException.class, expectedExceptionsMessageRegExp = "The right input of the merge join is not sorted on the join keys")
+    public void testUnsortedRightInput()
+    {
+        List<Page> left = rowPagesBuilder(TYPES)
+                .row(2L, "l2")
+                .build();
+        List<Page> right = rowPagesBuilder(TYPES)
+                .row(2L, "r2")
+                .row(1L, "r1")
+                .build();
+        new MergeJoin(INNER, ImmutableList.of(left), ImmutableList.of(right), Long.MAX_VALUE).run();
+    }
+
+    @Test(expectedExceptions = PrestoException.class, expectedExceptionsMessageRegExp = "The left input of the merge join is not sorted on the join keys")
+    public void testUnsortedLeftInput()
+    {
+        List<Page> left = rowPagesBuilder(TYPES)
+                .row(2L, "l2")
+                .row(1L, "l1")
+                .build();
+        List<Page> right = rowPagesBuilder(TYPES)
+                .row(1L, "r1")
+                .row(2L, "r2")
+                .row(3L, "r3")
+                .build();
+        new MergeJoin(INNER, ImmutableList.of(left), ImmutableList.of(right), Long.MAX_VALUE).run();
+    }
+
+    private static List<Page> leftPages()
+    {
+        return rowPagesBuilder(TYPES)
+                .row(null, "lnull")
+                .row(1L, "l1")
+                .row(2L, "l2a")
+                .pageBreak()
+                .row(2L, "l2b")
+                .row(4L, "l4")
+                .pageBreak()
+                .row(7L, "l7")
+                .build();
+    }
+
+    private static List<Page> rightPages()
+    {
+        return rowPagesBuilder(TYPES)
+                .row(null, "rnull")
+                .row(2L, "r2a")
+                .pageBreak()
+                .row(2L, "r2b")
+                .row(3L, "r3")
+                .row(4L, "r4a")
+                .pageBreak()
+                .row(4L, "r4b")
+                .pageBreak()
+                .row(4L, "r4c")
+                .row(6L, "r6")
+                .build();
+    }
+
+    private void assertJoin(JoinType joinType, List<Page> left, List<Page> right, long maxBufferedBytes, MaterializedResult expected)
+    {
+        List<Page> output = new MergeJoin(joinType, ImmutableList.of(left), ImmutableList.of(right), maxBufferedBytes).run();
+        assertEquals(toMaterializedResult(TEST_SESSION, OUTPUT_TYPES, output).getMaterializedRows(), expected.getMaterializedRows());
+    }
+
+    private void assertMultipleRunsJoin(JoinType joinType, List<List<Page>> left, List<List<Page>> right, long maxBufferedBytes, MaterializedResult expected)
+    {
+        List<Page> output = new MergeJoin(joinType, left, right, maxBufferedBytes).run();
+        List<MaterializedRow> actual = toMaterializedResult(TEST_SESSION, OUTPUT_TYPES, output).getMaterializedRows();
+        // rows with equal keys may come from any run, but the keys of the output stay sorted
+        assertEqualsIgnoreOrder(actual, expected.getMaterializedRows());
+        List<Long> keys = actual.stream()
+                .map(row -> (Long) row.getField(0))
+                .collect(toList());
+        assertTrue(Ordering.natural().nullsFirst().isOrdered(keys), "output is not sorted on the join key: " + keys);
+    }
+
+    private class MergeJoin
+    {
+        private final TaskContext taskContext;
+        private final List<Driver> leftDrivers;
+        private final List<Driver> rightDrivers;
+        private final Operator joinOperator;
+
+        public MergeJoin(JoinType joinType, List<List<Page>> leftRuns, List<List<Page>> rightRuns, long maxBufferedBytes)
+        {
+            this(TestingTaskContext.createTaskContext(executor, scheduledExecutor, TEST_SESSION), joinType, leftRuns, rightRuns, maxBufferedBytes);
+        }
+
+        public MergeJoin(TaskContext taskContext, JoinType joinType, List<List<Page>> leftRuns, List<List<Page>> rightRuns, long maxBufferedBytes)
+        {
+            this.taskContext = taskContext;
+            JoinBridgeManager<MergeJoinSource> leftSourceManager = createSourceManager(maxBufferedBytes);
+            JoinBridgeManager<MergeJoinSource> rightSourceManager = createSourceManager(maxBufferedBytes);
+            MergeJoinOperatorFactory joinOperatorFactory = new MergeJoinOperatorFactory(
+                    4,
+                    new PlanNodeId("join"),
+                    joinType,
+                    leftSourceManager,
+                    rightSourceManager,
+                    TYPES,
+                    ImmutableList.of(0),
+                    ImmutableList.of(0, 1),
+                    TYPES,
+                    ImmutableList.of(0),
+                    ImmutableList.of(1));
+
+            leftDrivers = createSinkDrivers(taskContext, 0, new PlanNodeId("left"), leftSourceManager, leftRuns);
+            rightDrivers = createSinkDrivers(taskContext, 2, new PlanNodeId("right"), rightSourceManager, rightRuns);
+
+            joinOperator = joinOperatorFactory.createOperator(taskContext.addPipelineContext(4, true, true, false).addDriverContext());
+            joinOperatorFactory.noMoreOperators(Lifespan.taskWide());
+            joinOperatorFactory.noMoreOperators();
+        }
+
+        public TaskContext getTaskContext()
+        {
+            return taskContext;
+        }
+
+        public void finishLeftDriver(int run)
+        {
+            Driver driver = leftDrivers.get(run);
+            for (int i = 0; !driver.isFinished(); i++) {
+                assertTrue(i < 1_000, "driver of the left run did not finish");
+                driver.process();
+            }
+        }
+
+        public List<Page> run()
+        {
+            List<Page> output = new ArrayList<>();
+            for (int i = 0; !joinOperator.isFinished(); i++) {
+                assertTrue(i < 1_000_000, "merge join did not finish");
+                processDrivers();
+                if (!joinOperator.isBlocked().isDone()) {
+                    continue;
+                }
+                Page page = joinOperator.getOutput();
+                if (page != null) {
+                    output.add(page);
+                }
+            }
+            for (int i = 0; !allDriversFinished(); i++) {
+                assertTrue(i < 1_000, "inputs of the merge join did not finish");
+                processDrivers();
+            }
+            return output;
+        }
+
+        private void processDrivers()
+        {
+            for (Driver driver : Iterables.concat(leftDrivers, rightDrivers)) {
+                if (!driver.isFinished()) {
+                    driver.process();
+                }
+            }
+        }
+
+        private boolean allDriversFinished()
+        {
+            return Streams.concat(leftDrivers.stream(), rightDrivers.stream()).allMatch(Driver::isFinished);
+        }
+
+        private JoinBridgeManager<MergeJoinSource> createSourceManager(long maxBufferedBytes)
+        {
+            return new JoinBridgeManager<>(
+                    false,
+                    UNGROUPED_EXECUTION,
+                    UNGROUPED_EXECUTION,
+                    () -> new MergeJoinSource(TYPES, ImmutableList.of(0), maxBufferedBytes),
+                    TYPES);
+        }
+
+        private List<Driver> createSinkDrivers(TaskContext taskContext, int pipelineId, PlanNodeId planNodeId, JoinBridgeManager<MergeJoinSource> sourceManager, List<List<Page>> runs)
+        {
+            MergeJoinSinkOperatorFactory sinkOperatorFactory = new MergeJoinSinkOperatorFactory(pipelineId + 1, new PlanNodeId("join"), sourceManager);
+            PipelineContext pipelineContext = taskContext.addPipelineContext(pipelineId, true, true, false);
+            ImmutableList.Builder<Driver> drivers = ImmutableList.builder();
+            for (List<Page> run : runs) {
+                ValuesOperatorFactory valuesOperatorFactory = new ValuesOperatorFactory(pipelineId, planNodeId, run);
+                DriverContext driverContext = pipelineContext.addDriverContext();
+                drivers.add(Driver.createDriver(
+                        driverContext,
+                        valuesOperatorFactory.createOperator(driverContext),
+                        sinkOperatorFactory.createOperator(driverContext)));
+                valuesOperatorFactory.noMoreOperators();
+            }
+            sinkOperatorFactory.noMoreOperators(Lifespan.taskWide());
+            sinkOperatorFactory.noMoreOperators();
+            return drivers.build();
+        }
+    }
+}
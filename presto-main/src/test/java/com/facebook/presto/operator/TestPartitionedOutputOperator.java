@@ -24,7 +24,9 @@ import com.facebook.presto.execution.buffer.PagesSerdeFactory;
 import com.facebook.presto.execution.buffer.PartitionedOutputBuffer;
 import com.facebook.presto.memory.context.SimpleLocalMemoryContext;
 import com.facebook.presto.operator.exchange.LocalPartitionGenerator;
+import com.facebook.presto.operator.repartition.PartitionedOutputInfo;
 import com.facebook.presto.operator.repartition.PartitionedOutputOperator;
+import com.facebook.presto.spi.plan.PartitionSpreading;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.sql.planner.OutputPartitioning;
 import com.facebook.presto.testing.TestingTaskContext;
@@ -51,12 +53,15 @@ import static com.facebook.presto.execution.buffer.BufferState.TERMINAL_BUFFER_S
 import static com.facebook.presto.execution.buffer.OutputBuffers.BufferType.PARTITIONED;
 import static com.facebook.presto.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
 import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.spi.plan.PartitionSpreading.Mode.REPLICATE;
+import static com.facebook.presto.spi.plan.PartitionSpreading.Mode.SPREAD_HEAVY_HITTERS;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestPartitionedOutputOperator
 {
@@ -162,9 +167,85 @@ public class TestPartitionedOutputOperator
         assertEquals(operatorContext.getOutputPositions().getTotalCount(), PAGE_COUNT * PARTITION_COUNT * TESTING_PAGE_WITH_NULL_BLOCK.getPositionCount());
     }
 
+    @Test
+    public void testPartitionCounts()
+    {
+        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(false);
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            partitionedOutputOperator.addInput(TESTING_PAGE);
+            partitionedOutputOperator.addInput(new Page(TESTING_RLE_BLOCK));
+        }
+        partitionedOutputOperator.finish();
+
+        PartitionedOutputInfo info = (PartitionedOutputInfo) partitionedOutputOperator.getOperatorContext().getOperatorStats().getInfo();
+        assertEquals(info.getPartitionRowsAdded().size(), PARTITION_COUNT);
+        assertEquals(info.getPartitionRowsAdded().stream().mapToLong(Long::longValue).sum(), info.getRowsAdded());
+        assertEquals(info.getRowsAdded(), 2L * PAGE_COUNT * POSITIONS_PER_PAGE);
+        assertEquals(info.getPartitionBytesAdded().stream().mapToLong(Long::longValue).sum(), 2L * PAGE_COUNT * TESTING_PAGE.getSizeInBytes());
+
+        // every row of the run length encoded pages goes to the same partition
+        int hotPartition = info.getPartitionRowsAdded().indexOf(info.getPartitionRowsAdded().stream().max(Long::compare).get());
+        assertTrue(info.getPartitionRowsAdded().get(hotPartition) >= PAGE_COUNT * POSITIONS_PER_PAGE);
+        assertTrue(info.getSkewedPartitions().contains(hotPartition));
+        assertTrue(info.getPartitionRowsSkew() > PARTITION_COUNT / 2.0);
+    }
+
+    @Test
+    public void testSpreadHeavyHitters()
+    {
+        int fanout = 4;
+        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(false, Optional.of(new PartitionSpreading(SPREAD_HEAVY_HITTERS, fanout)));
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            partitionedOutputOperator.addInput(TESTING_PAGE);
+            partitionedOutputOperator.addInput(new Page(TESTING_RLE_BLOCK));
+        }
+        partitionedOutputOperator.finish();
+
+        PartitionedOutputInfo info = (PartitionedOutputInfo) partitionedOutputOperator.getOperatorContext().getOperatorStats().getInfo();
+        assertEquals(info.getRowsAdded(), 2L * PAGE_COUNT * POSITIONS_PER_PAGE);
+
+        // the rows of the run length encoded pages are spread over the partitions following their own one
+        int hotPartition = createPartitionFunction().getPartition(new Page(TESTING_RLE_BLOCK), 0);
+        for (int offset = 0; offset < fanout; offset++) {
+            assertTrue(info.getPartitionRowsAdded().get((hotPartition + offset) % PARTITION_COUNT) >= (PAGE_COUNT - 1) * POSITIONS_PER_PAGE / fanout);
+        }
+        assertTrue(info.getPartitionRowsAdded().stream().mapToLong(Long::longValue).max().getAsLong() < PAGE_COUNT * POSITIONS_PER_PAGE / 2);
+    }
+
+    @Test
+    public void testReplicateToSpreadPartitions()
+    {
+        int fanout = 4;
+        PartitionedOutputOperator partitionedOutputOperator = createPartitionedOutputOperator(false, Optional.of(new PartitionSpreading(REPLICATE, fanout)));
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            partitionedOutputOperator.addInput(TESTING_PAGE);
+            partitionedOutputOperator.addInput(new Page(TESTING_RLE_BLOCK));
+        }
+        partitionedOutputOperator.finish();
+
+        PartitionedOutputInfo info = (PartitionedOutputInfo) partitionedOutputOperator.getOperatorContext().getOperatorStats().getInfo();
+        assertEquals(info.getRowsAdded(), 2L * fanout * PAGE_COUNT * POSITIONS_PER_PAGE);
+
+        // every partition a row could have been spread to receives the row
+        int hotPartition = createPartitionFunction().getPartition(new Page(TESTING_RLE_BLOCK), 0);
+        for (int offset = 0; offset < fanout; offset++) {
+            assertTrue(info.getPartitionRowsAdded().get((hotPartition + offset) % PARTITION_COUNT) >= PAGE_COUNT * POSITIONS_PER_PAGE);
+        }
+    }
+
+    private static LocalPartitionGenerator createPartitionFunction()
+    {
+        return new LocalPartitionGenerator(new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0}), PARTITION_COUNT);
+    }
+
     private static PartitionedOutputOperator createPartitionedOutputOperator(boolean shouldReplicate)
     {
-        PartitionFunction partitionFunction = new LocalPartitionGenerator(new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0}), PARTITION_COUNT);
+        return createPartitionedOutputOperator(shouldReplicate, Optional.empty());
+    }
+
+    private static PartitionedOutputOperator createPartitionedOutputOperator(boolean shouldReplicate, Optional<PartitionSpreading> partitionSpreading)
+    {
+        PartitionFunction partitionFunction = createPartitionFunction();
         OutputPartitioning outputPartitioning;
         if (shouldReplicate) {
             outputPartitioning = new OutputPartitioning(
@@ -180,7 +261,8 @@ public class TestPartitionedOutputOperator
                     ImmutableList.of(0),
                     ImmutableList.of(Optional.empty(), Optional.empty()),
                     false,
-                    OptionalInt.empty());
+                    OptionalInt.empty(),
+                    partitionSpreading);
         }
         PagesSerdeFactory serdeFactory = new PagesSerdeFactory(new BlockEncodingManager(), false);
 
@@ -213,7 +295,6 @@ public class TestPartitionedOutputOperator
         }
         else {
             operatorFactory = new PartitionedOutputOperator.PartitionedOutputFactory(
-
                     buffer,
                     PARTITION_MAX_MEMORY);
             return (PartitionedOutputOperator) operatorFactory
@@ -15,6 +15,9 @@ package com.facebook.presto.operator;
 
 import com.facebook.presto.ExceededMemoryLimitException;
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
+import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.operator.TopNOperator.TopNOperatorFactory;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.testing.MaterializedResult;
@@ -25,6 +28,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -42,6 +46,7 @@ import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
@@ -103,6 +108,45 @@ public class TestTopNOperator
         assertOperatorEquals(operatorFactory, driverContext, input, expected);
     }
 
+    @Test
+    public void testDynamicFilter()
+    {
+        List<Page> input = rowPagesBuilder(BIGINT, DOUBLE)
+                .row(1L, 0.1)
+                .pageBreak()
+                .row(2L, 0.2)
+                .row(-1L, -0.1)
+                .pageBreak()
+                .row(5L, 0.5)
+                .row(null, 0.0)
+                .row(6L, 0.6)
+                .build();
+
+        TopNDynamicFilter dynamicFilter = new TopNDynamicFilter(BIGINT, DESC_NULLS_LAST);
+        assertTrue(dynamicFilter.getDomain().isAll());
+
+        TopNOperatorFactory operatorFactory = new TopNOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT, DOUBLE),
+                2,
+                ImmutableList.of(0),
+                ImmutableList.of(DESC_NULLS_LAST),
+                Optional.of(dynamicFilter));
+
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), BIGINT, DOUBLE)
+                .row(6L, 0.6)
+                .row(5L, 0.5)
+                .build();
+
+        assertOperatorEquals(operatorFactory, driverContext, input, expected);
+        assertEquals(dynamicFilter.getDomain(), Domain.create(ValueSet.ofRanges(Range.greaterThanOrEqual(BIGINT, 5L)), false));
+
+        // a looser boundary from another operator does not widen the filter
+        dynamicFilter.update(rowPagesBuilder(BIGINT).row(3L).build().get(0).getBlock(0), 0);
+        assertEquals(dynamicFilter.getDomain(), Domain.create(ValueSet.ofRanges(Range.greaterThanOrEqual(BIGINT, 5L)), false));
+    }
+
     @Test
     public void testMultiFieldKey()
     {
@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.repartition;
+
+import com.facebook.airlift.json.JsonCodec;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import static com.facebook.airlift.json.JsonCodec.jsonCodec;
+import static org.testng.Assert.assertEquals;
+
+public class TestPartitionedOutputInfo
+{
+    @Test
+    public void testMerge()
+    {
+        PartitionedOutputInfo base = new PartitionedOutputInfo(60, 4, 1024, ImmutableList.of(10L, 20L, 30L), ImmutableList.of(100L, 200L, 300L));
+        PartitionedOutputInfo other = new PartitionedOutputInfo(15, 3, 2048, ImmutableList.of(5L, 5L, 5L), ImmutableList.of(50L, 50L, 50L));
+
+        PartitionedOutputInfo merged = base.mergeWith(other);
+        assertEquals(merged.getRowsAdded(), 75);
+        assertEquals(merged.getPagesAdded(), 7);
+        assertEquals(merged.getOutputBufferPeakMemoryUsage(), 2048);
+        assertEquals(merged.getPartitionRowsAdded(), ImmutableList.of(15L, 25L, 35L));
+        assertEquals(merged.getPartitionBytesAdded(), ImmutableList.of(150L, 250L, 350L));
+
+        // infos without partition counts do not discard the counts of the others
+        PartitionedOutputInfo withoutCounts = new PartitionedOutputInfo(1, 1, 0);
+        assertEquals(withoutCounts.mergeWith(base).getPartitionRowsAdded(), base.getPartitionRowsAdded());
+        assertEquals(base.mergeWith(withoutCounts).getPartitionBytesAdded(), base.getPartitionBytesAdded());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Cannot merge counts for 3 and 2 partitions")
+    public void testMergeDifferentPartitionCounts()
+    {
+        new PartitionedOutputInfo(3, 1, 0, ImmutableList.of(1L, 1L, 1L), ImmutableList.of(1L, 1L, 1L))
+                .mergeWith(new PartitionedOutputInfo(2, 1, 0, ImmutableList.of(1L, 1L), ImmutableList.of(1L, 1L)));
+    }
+
+    @Test
+    public void testSkew()
+    {
+        PartitionedOutputInfo uniform = new PartitionedOutputInfo(40, 4, 0, ImmutableList.of(10L, 10L, 10L, 10L), ImmutableList.of(1L, 1L, 1L, 1L));
+        assertEquals(uniform.getSkewedPartitions(), ImmutableList.of());
+        assertEquals(uniform.getPartitionRowsSkew(), 1.0);
+
+        PartitionedOutputInfo skewed = new PartitionedOutputInfo(100, 4, 0, ImmutableList.of(5L, 80L, 5L, 10L), ImmutableList.of(1L, 1L, 1L, 1L));
+        assertEquals(skewed.getSkewedPartitions(), ImmutableList.of(1));
+        assertEquals(skewed.getPartitionRowsSkew(), 3.2);
+
+        PartitionedOutputInfo empty = new PartitionedOutputInfo(0, 0, 0, ImmutableList.of(0L, 0L), ImmutableList.of(0L, 0L));
+        assertEquals(empty.getSkewedPartitions(), ImmutableList.of());
+        assertEquals(empty.getPartitionRowsSkew(), 1.0);
+    }
+
+    @Test
+    public void testJsonRoundTrip()
+    {
+        JsonCodec<PartitionedOutputInfo> codec = jsonCodec(PartitionedOutputInfo.class);
+        PartitionedOutputInfo expected = new PartitionedOutputInfo(100, 4, 1024, ImmutableList.of(5L, 80L, 5L, 10L), ImmutableList.of(50L, 800L, 50L, 100L));
+        PartitionedOutputInfo actual = codec.fromJson(codec.toJson(expected));
+        assertEquals(actual.getRowsAdded(), expected.getRowsAdded());
+        assertEquals(actual.getPartitionRowsAdded(), expected.getPartitionRowsAdded());
+        assertEquals(actual.getPartitionBytesAdded(), expected.getPartitionBytesAdded());
+    }
+}
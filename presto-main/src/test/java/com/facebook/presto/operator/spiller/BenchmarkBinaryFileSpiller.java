@@ -25,9 +25,9 @@ import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.spiller.SpillerStats;
 import com.facebook.presto.spiller.TestingSpillContext;
 import com.google.common.collect.ImmutableList;
-import com.google.common.util.concurrent.MoreExecutors;
 import io.airlift.tpch.LineItem;
 import io.airlift.tpch.LineItemGenerator;
+import io.airlift.units.DataSize;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
@@ -46,11 +46,14 @@ import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.common.type.VarcharType.createUnboundedVarcharType;
 import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 @State(Scope.Thread)
@@ -96,12 +99,16 @@ public class BenchmarkBinaryFileSpiller
         @Param("10")
         private int pagesCount = 10;
 
-        @Param("false")
+        @Param({"false", "true"})
         private boolean compressionEnabled;
 
-        @Param("false")
+        @Param({"false", "true"})
         private boolean encryptionEnabled;
 
+        // 4kB is the chunk size of the synchronous writer that preceded the chunked writer
+        @Param({"4kB", "64kB", "1MB"})
+        private String bufferSize = "64kB";
+
         private List<Page> pages;
         private Spiller readSpiller;
 
@@ -113,13 +120,15 @@ public class BenchmarkBinaryFileSpiller
                 throws ExecutionException, InterruptedException
         {
             singleStreamSpillerFactory = new FileSingleStreamSpillerFactory(
-                    MoreExecutors.newDirectExecutorService(),
+                    listeningDecorator(newFixedThreadPool(2, daemonThreadsNamed("binary-spiller-%s"))),
+                    listeningDecorator(newFixedThreadPool(2, daemonThreadsNamed("binary-spiller-writer-%s"))),
                     BLOCK_ENCODING_MANAGER,
                     spillerStats,
                     ImmutableList.of(SPILL_PATH),
                     1.0,
                     compressionEnabled,
-                    encryptionEnabled);
+                    encryptionEnabled,
+                    DataSize.valueOf(bufferSize));
             spillerFactory = new GenericSpillerFactory(singleStreamSpillerFactory);
             pages = createInputPages();
             readSpiller = spillerFactory.create(TYPES, new TestingSpillContext(), newSimpleAggregatedMemoryContext());
@@ -63,6 +63,7 @@ import static com.facebook.presto.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE
 import static com.facebook.presto.SystemSessionProperties.QUERY_MAX_MEMORY;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CATALOG;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLIENT_INFO;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_LEGACY_TIMESTAMP;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PREPARED_STATEMENT;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_SCHEMA;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_SESSION;
@@ -175,11 +176,13 @@ public class TestServer
             Request nextRequest = prepareGet()
                     .setUri(queryResults.getNextUri())
                     .build();
-            queryResults = client.execute(nextRequest, createJsonResponseHandler(QUERY_RESULTS_CODEC));
+            JsonResponse<QueryResults> response = client.execute(nextRequest, createFullJsonResponseHandler(QUERY_RESULTS_CODEC));
+            queryResults = response.getValue();
 
             assertNull(queryResults.getData());
             if (queryResults.getBinaryData() != null) {
                 data.addAll(queryResults.getBinaryData());
+                assertEquals(response.getHeader(PRESTO_LEGACY_TIMESTAMP), "true");
             }
         }
 
@@ -27,11 +27,13 @@ import com.google.common.collect.Iterators;
 import com.google.common.io.Files;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.units.DataSize;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
@@ -44,10 +46,13 @@ import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.MoreFiles.listFiles;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static java.lang.Double.doubleToLongBits;
+import static java.lang.Math.toIntExact;
 import static java.nio.file.Files.newInputStream;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
 import static org.testng.Assert.assertTrue;
 
 public class TestFileSingleStreamSpiller
@@ -55,6 +60,7 @@ public class TestFileSingleStreamSpiller
     private static final List<Type> TYPES = ImmutableList.of(BIGINT, DOUBLE, VARBINARY);
 
     private final ListeningExecutorService executor = listeningDecorator(newCachedThreadPool());
+    private final ListeningExecutorService writeExecutor = listeningDecorator(newCachedThreadPool());
     private final File tempDirectory = Files.createTempDir();
 
     @AfterClass(alwaysRun = true)
@@ -62,6 +68,7 @@ public class TestFileSingleStreamSpiller
             throws Exception
     {
         executor.shutdown();
+        writeExecutor.shutdown();
         deleteRecursively(tempDirectory.toPath(), ALLOW_INSECURE);
     }
 
@@ -94,18 +101,66 @@ public class TestFileSingleStreamSpiller
         assertSpill(true, true);
     }
 
+    @Test
+    public void testSpillSmallChunks()
+            throws Exception
+    {
+        // the pages are written and read ahead in several chunks
+        assertSpill(false, false, new DataSize(1, KILOBYTE), 100);
+        assertSpill(true, true, new DataSize(1, KILOBYTE), 100);
+    }
+
+    @Test
+    public void testCloseWhileReadingAhead()
+            throws Exception
+    {
+        File spillPath = new File(tempDirectory, UUID.randomUUID().toString());
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor,
+                writeExecutor,
+                new BlockEncodingManager(),
+                new SpillerStats(),
+                ImmutableList.of(spillPath.toPath()),
+                1.0,
+                false,
+                false,
+                new DataSize(1, KILOBYTE));
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        SingleStreamSpiller spiller = spillerFactory.create(TYPES, new TestingSpillContext(), memoryContext);
+        spiller.spill(Iterators.limit(Iterators.cycle(buildPage()), 10_000)).get();
+
+        Iterator<Page> spilledPages = spiller.getSpilledPages();
+        assertTrue(spilledPages.hasNext());
+        spilledPages.next();
+
+        // the chunk being read ahead is stopped before the spill file is closed and deleted
+        spiller.close();
+        assertEquals(listFiles(spillPath.toPath()).size(), 0);
+        assertEquals(memoryContext.getBytes(), 0);
+        assertThrows(UncheckedIOException.class, spilledPages::hasNext);
+    }
+
     private void assertSpill(boolean compression, boolean encryption)
             throws Exception
+    {
+        assertSpill(compression, encryption, new NodeSpillConfig().getSpillFileBufferSize(), 3);
+    }
+
+    private void assertSpill(boolean compression, boolean encryption, DataSize bufferSize, int pageCount)
+            throws Exception
     {
         File spillPath = new File(tempDirectory, UUID.randomUUID().toString());
         FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
-                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                executor, // executors won't be closed, because we don't call destroy() on the spiller factory
+                writeExecutor,
                 new BlockEncodingManager(),
                 new SpillerStats(),
                 ImmutableList.of(spillPath.toPath()),
                 1.0,
                 compression,
-                encryption);
+                encryption,
+                bufferSize);
+        long memoryReservation = FileSingleStreamSpiller.getMemoryReservation(toIntExact(bufferSize.toBytes()));
         LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
         SingleStreamSpiller singleStreamSpiller = spillerFactory.create(TYPES, new TestingSpillContext(), memoryContext);
         assertTrue(singleStreamSpiller instanceof FileSingleStreamSpiller);
@@ -114,9 +169,9 @@ public class TestFileSingleStreamSpiller
         Page page = buildPage();
 
         // The spillers will reserve memory in their constructors
-        assertEquals(memoryContext.getBytes(), 4096);
+        assertEquals(memoryContext.getBytes(), memoryReservation);
         spiller.spill(page).get();
-        spiller.spill(Iterators.forArray(page, page, page)).get();
+        spiller.spill(Iterators.limit(Iterators.cycle(page), pageCount)).get();
         assertEquals(listFiles(spillPath.toPath()).size(), 1);
 
         // Assert the spill codec flags match the expected configuration
@@ -133,14 +188,14 @@ public class TestFileSingleStreamSpiller
         // assertEquals(memoryContext.getBytes(), 0);
 
         Iterator<Page> spilledPagesIterator = spiller.getSpilledPages();
-        assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE);
+        assertEquals(memoryContext.getBytes(), memoryReservation);
         ImmutableList<Page> spilledPages = ImmutableList.copyOf(spilledPagesIterator);
         // The spillers release their memory reservations when they are closed, therefore at this point
         // they will have non-zero memory reservation.
         // assertEquals(memoryContext.getBytes(), 0);
 
-        assertEquals(4, spilledPages.size());
-        for (int i = 0; i < 4; ++i) {
+        assertEquals(spilledPages.size(), pageCount + 1);
+        for (int i = 0; i < pageCount + 1; ++i) {
             PageAssertions.assertPageEquals(TYPES, page, spilledPages.get(i));
         }
 
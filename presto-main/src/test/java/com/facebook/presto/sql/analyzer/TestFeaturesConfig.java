@@ -15,6 +15,7 @@ package com.facebook.presto.sql.analyzer;
 
 import com.facebook.airlift.configuration.ConfigurationFactory;
 import com.facebook.airlift.configuration.testing.ConfigAssertions;
+import com.facebook.presto.execution.buffer.ExchangeCompressionCodec;
 import com.facebook.presto.sql.analyzer.FeaturesConfig.AggregationIfToFilterRewriteStrategy;
 import com.facebook.presto.sql.analyzer.FeaturesConfig.CteMaterializationStrategy;
 import com.facebook.presto.sql.analyzer.FeaturesConfig.JoinDistributionType;
@@ -96,6 +97,7 @@ public class TestFeaturesConfig
                 .setOptimizeHashGeneration(true)
                 .setPushTableWriteThroughUnion(true)
                 .setDictionaryAggregation(false)
+                .setFlatGroupByHashEnabled(false)
                 .setConfidenceBasedBroadcastEnabled(false)
                 .setRetryQueryWithHistoryBasedOptimizationEnabled(false)
                 .setTreatLowConfidenceZeroEstimationAsUnknownEnabled(false)
@@ -120,6 +122,8 @@ public class TestFeaturesConfig
                 .setDynamicFilteringMaxPerDriverRowCount(100)
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(10, KILOBYTE))
                 .setDynamicFilteringRangeRowLimitPerDriver(0)
+                .setDynamicFilteringBloomFilterSize(new DataSize(1, MEGABYTE))
+                .setEnableTopNDynamicFiltering(false)
                 .setFragmentResultCachingEnabled(false)
                 .setEnableStatsCalculator(true)
                 .setEnableStatsCollectionForTemporaryTable(false)
@@ -127,6 +131,7 @@ public class TestFeaturesConfig
                 .setPrintStatsForNonJoinQuery(false)
                 .setDefaultFilterFactorEnabled(false)
                 .setExchangeCompressionEnabled(false)
+                .setExchangeCompressionCodec(ExchangeCompressionCodec.LZ4)
                 .setExchangeChecksumEnabled(false)
                 .setEnableIntermediateAggregations(false)
                 .setPushAggregationThroughJoin(true)
@@ -159,6 +164,7 @@ public class TestFeaturesConfig
                 .setPartitioningPrecisionStrategy(PartitioningPrecisionStrategy.AUTOMATIC)
                 .setExperimentalFunctionsEnabled(false)
                 .setOptimizeCommonSubExpressions(true)
+                .setFusedFilterProjectEnabled(false)
                 .setPreferDistributedUnion(true)
                 .setOptimizeNullsInJoin(false)
                 .setOptimizePayloadJoins(false)
@@ -208,6 +214,7 @@ public class TestFeaturesConfig
                 .setRandomizeOuterJoinNullKeyStrategy(RandomizeOuterJoinNullKeyStrategy.DISABLED)
                 .setShardedJoinStrategy(FeaturesConfig.ShardedJoinStrategy.DISABLED)
                 .setJoinShardCount(100)
+                .setJoinHeavyHitterFanout(0)
                 .setOptimizeConditionalAggregationEnabled(false)
                 .setRemoveRedundantDistinctAggregationEnabled(true)
                 .setInPredicatesAsInnerJoinsEnabled(false)
@@ -268,6 +275,8 @@ public class TestFeaturesConfig
                 .put("dynamic-filtering-max-per-driver-row-count", "256")
                 .put("dynamic-filtering-max-per-driver-size", "64kB")
                 .put("dynamic-filtering-range-row-limit-per-driver", "1000")
+                .put("dynamic-filtering-bloom-filter-size", "4MB")
+                .put("enable-topn-dynamic-filtering", "true")
                 .put("fragment-result-cache.enabled", "true")
                 .put("experimental.enable-stats-calculator", "false")
                 .put("experimental.enable-stats-collection-for-temporary-table", "true")
@@ -310,6 +319,7 @@ public class TestFeaturesConfig
                 .put("optimizer.optimize-mixed-distinct-aggregations", "true")
                 .put("optimizer.push-table-write-through-union", "false")
                 .put("optimizer.dictionary-aggregation", "true")
+                .put("flat-group-by-hash-enabled", "true")
                 .put("optimizer.confidence-based-broadcast", "true")
                 .put("optimizer.retry-query-with-history-based-optimization", "true")
                 .put("optimizer.treat-low-confidence-zero-estimation-as-unknown", "true")
@@ -328,6 +338,7 @@ public class TestFeaturesConfig
                 .put("experimental.spiller.spiller-temp-storage", "crail")
                 .put("experimental.spiller.max-revocable-task-memory", "1GB")
                 .put("exchange.compression-enabled", "true")
+                .put("exchange.compression-codec", "ADAPTIVE")
                 .put("exchange.checksum-enabled", "true")
                 .put("optimizer.enable-intermediate-aggregations", "true")
                 .put("optimizer.force-single-node-output", "false")
@@ -359,6 +370,7 @@ public class TestFeaturesConfig
                 .put("partitioning-precision-strategy", "PREFER_EXACT_PARTITIONING")
                 .put("experimental-functions-enabled", "true")
                 .put("optimize-common-sub-expressions", "false")
+                .put("fused-filter-project-enabled", "true")
                 .put("prefer-distributed-union", "false")
                 .put("optimize-nulls-in-join", "true")
                 .put("optimize-payload-joins", "true")
@@ -408,6 +420,7 @@ public class TestFeaturesConfig
                 .put("optimizer.randomize-outer-join-null-key-strategy", "key_from_outer_join")
                 .put("optimizer.sharded-join-strategy", "cost_based")
                 .put("optimizer.join-shard-count", "200")
+                .put("optimizer.join-heavy-hitter-fanout", "4")
                 .put("optimizer.optimize-conditional-aggregation-enabled", "true")
                 .put("optimizer.remove-redundant-distinct-aggregation-enabled", "false")
                 .put("optimizer.in-predicates-as-inner-joins-enabled", "true")
@@ -465,6 +478,8 @@ public class TestFeaturesConfig
                 .setDynamicFilteringMaxPerDriverRowCount(256)
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(64, KILOBYTE))
                 .setDynamicFilteringRangeRowLimitPerDriver(1000)
+                .setDynamicFilteringBloomFilterSize(new DataSize(4, MEGABYTE))
+                .setEnableTopNDynamicFiltering(true)
                 .setFragmentResultCachingEnabled(true)
                 .setEnableStatsCalculator(false)
                 .setEnableStatsCollectionForTemporaryTable(true)
@@ -506,6 +521,7 @@ public class TestFeaturesConfig
                 .setOptimizeMixedDistinctAggregations(true)
                 .setPushTableWriteThroughUnion(false)
                 .setDictionaryAggregation(true)
+                .setFlatGroupByHashEnabled(true)
                 .setConfidenceBasedBroadcastEnabled(true)
                 .setRetryQueryWithHistoryBasedOptimizationEnabled(true)
                 .setTreatLowConfidenceZeroEstimationAsUnknownEnabled(true)
@@ -524,6 +540,7 @@ public class TestFeaturesConfig
                 .setSpillerTempStorage("crail")
                 .setMaxRevocableMemoryPerTask(new DataSize(1, GIGABYTE))
                 .setExchangeCompressionEnabled(true)
+                .setExchangeCompressionCodec(ExchangeCompressionCodec.ADAPTIVE)
                 .setExchangeChecksumEnabled(true)
                 .setEnableIntermediateAggregations(true)
                 .setForceSingleNodeOutput(false)
@@ -556,6 +573,7 @@ public class TestFeaturesConfig
                 .setPartitioningPrecisionStrategy(PartitioningPrecisionStrategy.PREFER_EXACT_PARTITIONING)
                 .setExperimentalFunctionsEnabled(true)
                 .setOptimizeCommonSubExpressions(false)
+                .setFusedFilterProjectEnabled(true)
                 .setPreferDistributedUnion(false)
                 .setOptimizeNullsInJoin(true)
                 .setOptimizePayloadJoins(true)
@@ -606,6 +624,7 @@ public class TestFeaturesConfig
                 .setRandomizeOuterJoinNullKeyStrategy(RandomizeOuterJoinNullKeyStrategy.KEY_FROM_OUTER_JOIN)
                 .setShardedJoinStrategy(FeaturesConfig.ShardedJoinStrategy.COST_BASED)
                 .setJoinShardCount(200)
+                .setJoinHeavyHitterFanout(4)
                 .setOptimizeConditionalAggregationEnabled(true)
                 .setRemoveRedundantDistinctAggregationEnabled(false)
                 .setInPredicatesAsInnerJoinsEnabled(true)
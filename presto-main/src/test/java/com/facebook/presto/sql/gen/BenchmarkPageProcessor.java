@@ -28,6 +28,7 @@ import com.facebook.presto.operator.project.TestPageProcessor;
 import com.facebook.presto.spi.relation.ConstantExpression;
 import com.facebook.presto.spi.relation.RowExpression;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.slice.Slice;
 import io.airlift.tpch.LineItem;
 import io.airlift.tpch.LineItemGenerator;
@@ -79,6 +80,7 @@ import static com.facebook.presto.sql.relational.Expressions.field;
 import static com.facebook.presto.sql.relational.Expressions.specialForm;
 import static com.google.common.base.Preconditions.checkState;
 import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
 
 @State(Scope.Thread)
 @OutputTimeUnit(TimeUnit.SECONDS)
@@ -125,6 +127,38 @@ public class BenchmarkPageProcessor
         benchmarkPageProcessor.compiled(benchmarkData);
     }
 
+    @Benchmark
+    public List<Optional<Page>> fused(BenchmarkData data)
+    {
+        return ImmutableList.copyOf(
+                data.fusedProcessor.process(
+                        null,
+                        new DriverYieldSignal(),
+                        newSimpleAggregatedMemoryContext().newLocalMemoryContext(PageProcessor.class.getSimpleName()),
+                        data.inputPage));
+    }
+
+    @Test
+    public void verifyFused()
+    {
+        BenchmarkData benchmarkData = new BenchmarkData();
+        benchmarkData.setup();
+        BenchmarkPageProcessor benchmarkPageProcessor = new BenchmarkPageProcessor();
+        List<Optional<Page>> compiled = benchmarkPageProcessor.compiled(benchmarkData);
+        List<Optional<Page>> fused = benchmarkPageProcessor.fused(benchmarkData);
+        assertEquals(fused.size(), 1);
+        Block actual = fused.get(0).get().getBlock(0);
+        int position = 0;
+        for (Optional<Page> page : compiled) {
+            Block expected = page.get().getBlock(0);
+            for (int i = 0; i < expected.getPositionCount(); i++) {
+                assertEquals(DOUBLE.getDouble(actual, position), DOUBLE.getDouble(expected, i));
+                position++;
+            }
+        }
+        assertEquals(position, actual.getPositionCount());
+    }
+
     @Benchmark
     public List<Optional<Page>> identityProjection(BenchmarkData data)
     {
@@ -162,6 +196,7 @@ public class BenchmarkPageProcessor
         private MetadataManager metadataManager = createTestMetadataManager();
         private FunctionAndTypeManager functionManager = metadataManager.getFunctionAndTypeManager();
         private PageProcessor compiledProcessor;
+        private PageProcessor fusedProcessor;
         private Tpch1FilterAndProject handcodedProcessor;
         private PageProcessor identityProjectionProcessor;
         private Page inputPage;
@@ -182,6 +217,16 @@ public class BenchmarkPageProcessor
             compiledProcessor = new ExpressionCompiler(metadataManager, new PageFunctionCompiler(metadataManager, 0))
                     .compilePageProcessor(TEST_SESSION.getSqlFunctionProperties(), Optional.of(createFilterExpression(functionManager)), ImmutableList.of(createProjectExpression(functionManager)))
                     .get();
+            fusedProcessor = new ExpressionCompiler(metadataManager, new PageFunctionCompiler(metadataManager, 0))
+                    .compilePageProcessor(
+                            TEST_SESSION.getSqlFunctionProperties(),
+                            Optional.of(createFilterExpression(functionManager)),
+                            ImmutableList.of(createProjectExpression(functionManager)),
+                            true,
+                            true,
+                            ImmutableMap.of(),
+                            Optional.empty())
+                    .get();
             handcodedProcessor = new Tpch1FilterAndProject();
             identityProjectionProcessor = createIdentityProjectionPageProcessor();
         }
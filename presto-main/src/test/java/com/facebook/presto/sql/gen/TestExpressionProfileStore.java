@@ -0,0 +1,204 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.airlift.bootstrap.Bootstrap;
+import com.facebook.airlift.json.JsonCodec;
+import com.facebook.airlift.json.JsonModule;
+import com.facebook.presto.block.BlockJsonSerde;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockEncoding;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.common.block.BlockEncodingSerde;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.common.type.TypeManager;
+import com.facebook.presto.metadata.FunctionAndTypeManager;
+import com.facebook.presto.metadata.HandleJsonModule;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.spi.relation.RowExpression;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
+import com.facebook.presto.sql.gen.ExpressionProfile.CompiledExpression;
+import com.facebook.presto.sql.gen.ExpressionProfile.ProfileEntry;
+import com.facebook.presto.sql.gen.ExpressionProfile.Snapshot;
+import com.facebook.presto.type.TypeDeserializer;
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.Scopes;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.airlift.configuration.ConfigBinder.configBinder;
+import static com.facebook.airlift.json.JsonBinder.jsonBinder;
+import static com.facebook.airlift.json.JsonCodecBinder.jsonCodecBinder;
+import static com.facebook.presto.common.function.OperatorType.ADD;
+import static com.facebook.presto.common.function.OperatorType.GREATER_THAN;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
+import static com.facebook.presto.sql.gen.ExpressionProfile.Kind.FILTER;
+import static com.facebook.presto.sql.gen.ExpressionProfile.Kind.PROJECTION;
+import static com.facebook.presto.sql.relational.Expressions.call;
+import static com.facebook.presto.sql.relational.Expressions.constant;
+import static com.facebook.presto.sql.relational.Expressions.field;
+import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.inject.multibindings.Multibinder.newSetBinder;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestExpressionProfileStore
+{
+    private Metadata metadata;
+    private RowExpression addExpression;
+    private RowExpression filterExpression;
+    private JsonCodec<Snapshot> codec;
+    private File tempDir;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        metadata = createTestMetadataManager();
+        FunctionAndTypeManager functionAndTypeManager = metadata.getFunctionAndTypeManager();
+        addExpression = call(ADD.name(), functionAndTypeManager.resolveOperator(ADD, fromTypes(BIGINT, BIGINT)), BIGINT, field(0, BIGINT), constant(10L, BIGINT));
+        filterExpression = call(GREATER_THAN.name(), functionAndTypeManager.resolveOperator(GREATER_THAN, fromTypes(BIGINT, BIGINT)), BOOLEAN, addExpression, constant(2L, BIGINT));
+        codec = createSnapshotCodec(functionAndTypeManager);
+        tempDir = Files.createTempDirectory("expression-profile").toFile();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(tempDir.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testRecordCompilations()
+    {
+        ExpressionProfile profile = new ExpressionProfile(10);
+        PageFunctionCompiler compiler = new PageFunctionCompiler(metadata, 100, Optional.of(profile));
+        compiler.compileProjection(SESSION.getSqlFunctionProperties(), addExpression, Optional.empty());
+        compiler.compileProjection(SESSION.getSqlFunctionProperties(), addExpression, Optional.empty());
+        compiler.compileFilter(SESSION.getSqlFunctionProperties(), filterExpression, false, Optional.empty());
+
+        assertEquals(profile.getProfiledExpressionNewCount(), 2);
+        assertEquals(profile.getProfiledExpressionSeenCount(), 1);
+
+        List<ProfileEntry> entries = profile.getMostUsed(10);
+        assertEquals(entries.size(), 2);
+        assertEquals(entries.get(0).getExpression().getKind(), PROJECTION);
+        assertEquals(entries.get(0).getUseCount(), 2);
+        assertEquals(entries.get(1).getExpression().getKind(), FILTER);
+        assertEquals(entries.get(1).getUseCount(), 1);
+        assertEquals(profile.getMostUsed(1).size(), 1);
+    }
+
+    @Test
+    public void testOneOffExpressionsDoNotEvictFrequentlyUsed()
+    {
+        ExpressionProfile profile = new ExpressionProfile(10);
+        CompiledExpression frequent = new CompiledExpression(PROJECTION, ImmutableList.of(addExpression), true);
+        for (int i = 0; i < 3; i++) {
+            profile.record(frequent);
+        }
+        for (long value = 0; value < 1000; value++) {
+            profile.record(new CompiledExpression(PROJECTION, ImmutableList.of(constant(value, BIGINT)), true));
+        }
+
+        assertTrue(profile.getTrackedExpressionCount() <= 40);
+        assertEquals(profile.getProfiledExpressionNewCount(), 1001);
+        assertEquals(profile.getProfiledExpressionSeenCount(), 2);
+        List<ProfileEntry> entries = profile.getMostUsed(1);
+        assertEquals(entries.get(0).getExpression(), frequent);
+        assertEquals(entries.get(0).getUseCount(), 3);
+    }
+
+    @Test
+    public void testSaveAndLoad()
+            throws IOException
+    {
+        File profileFile = new File(tempDir, "profile.json");
+        ExpressionProfile profile = new ExpressionProfile(10);
+        PageFunctionCompiler compiler = new PageFunctionCompiler(metadata, 100, Optional.of(profile));
+        compiler.compileProjection(SESSION.getSqlFunctionProperties(), addExpression, Optional.empty());
+        compiler.compileFilter(SESSION.getSqlFunctionProperties(), filterExpression, false, Optional.empty());
+        new ExpressionProfileStore(compiler, Optional.of(profileFile), 10, "1.0", codec).saveExpressionProfile();
+        assertTrue(profileFile.exists());
+
+        ExpressionProfile loadedProfile = new ExpressionProfile(10);
+        ExpressionProfileStore store = new ExpressionProfileStore(new PageFunctionCompiler(metadata, 100, Optional.of(loadedProfile)), Optional.of(profileFile), 10, "1.0", codec);
+        store.loadExpressionProfile();
+        store.stop();
+        List<ProfileEntry> expected = profile.getMostUsed(10);
+        List<ProfileEntry> actual = loadedProfile.getMostUsed(10);
+        assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(actual.get(i).getExpression(), expected.get(i).getExpression());
+            assertEquals(actual.get(i).getUseCount(), expected.get(i).getUseCount());
+        }
+
+        // a profile written by a different engine version is ignored
+        ExpressionProfile otherVersionProfile = new ExpressionProfile(10);
+        ExpressionProfileStore otherVersionStore = new ExpressionProfileStore(new PageFunctionCompiler(metadata, 100, Optional.of(otherVersionProfile)), Optional.of(profileFile), 10, "2.0", codec);
+        otherVersionStore.loadExpressionProfile();
+        otherVersionStore.stop();
+        assertTrue(otherVersionProfile.getMostUsed(10).isEmpty());
+    }
+
+    @Test
+    public void testMissingProfileFile()
+    {
+        File profileFile = new File(tempDir, "missing.json");
+        ExpressionProfile profile = new ExpressionProfile(10);
+        ExpressionProfileStore store = new ExpressionProfileStore(new PageFunctionCompiler(metadata, 100, Optional.of(profile)), Optional.of(profileFile), 10, "1.0", codec);
+        store.loadExpressionProfile();
+        assertTrue(profile.getMostUsed(10).isEmpty());
+        store.stop();
+    }
+
+    private static JsonCodec<Snapshot> createSnapshotCodec(FunctionAndTypeManager functionAndTypeManager)
+            throws Exception
+    {
+        Module module = binder -> {
+            binder.install(new JsonModule());
+            binder.install(new HandleJsonModule());
+            configBinder(binder).bindConfig(FeaturesConfig.class);
+            binder.bind(TypeManager.class).toInstance(functionAndTypeManager);
+            jsonBinder(binder).addDeserializerBinding(Type.class).to(TypeDeserializer.class);
+            newSetBinder(binder, Type.class);
+            binder.bind(BlockEncodingSerde.class).to(BlockEncodingManager.class).in(Scopes.SINGLETON);
+            newSetBinder(binder, BlockEncoding.class);
+            jsonBinder(binder).addSerializerBinding(Block.class).to(BlockJsonSerde.Serializer.class);
+            jsonBinder(binder).addDeserializerBinding(Block.class).to(BlockJsonSerde.Deserializer.class);
+            jsonCodecBinder(binder).bindJsonCodec(Snapshot.class);
+        };
+        Injector injector = new Bootstrap(ImmutableList.of(module))
+                .doNotInitializeLogging()
+                .quiet()
+                .initialize();
+        return injector.getInstance(new Key<JsonCodec<Snapshot>>() {});
+    }
+}
@@ -16,10 +16,15 @@ package com.facebook.presto.sql.gen;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.metadata.FunctionAndTypeManager;
+import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.operator.DriverYieldSignal;
 import com.facebook.presto.operator.Work;
+import com.facebook.presto.operator.project.FusedPageKernel;
 import com.facebook.presto.operator.project.PageFilter;
+import com.facebook.presto.operator.project.PageProcessor;
 import com.facebook.presto.operator.project.PageProjection;
 import com.facebook.presto.operator.project.PageProjectionWithOutputs;
 import com.facebook.presto.operator.project.SelectedPositions;
@@ -28,29 +33,46 @@ import com.facebook.presto.spi.relation.CallExpression;
 import com.facebook.presto.spi.relation.RowExpression;
 import com.facebook.presto.spi.relation.SpecialFormExpression;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import org.testng.annotations.Test;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 import static com.facebook.presto.common.function.OperatorType.ADD;
+import static com.facebook.presto.common.function.OperatorType.EQUAL;
 import static com.facebook.presto.common.function.OperatorType.GREATER_THAN;
 import static com.facebook.presto.common.function.OperatorType.LESS_THAN;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
+import static com.facebook.presto.operator.PageAssertions.mergePages;
 import static com.facebook.presto.spi.StandardErrorCode.NUMERIC_VALUE_OUT_OF_RANGE;
 import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.AND;
 import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.IF;
+import static com.facebook.presto.spi.relation.SpecialFormExpression.Form.IS_NULL;
 import static com.facebook.presto.sql.analyzer.TypeSignatureProvider.fromTypes;
 import static com.facebook.presto.sql.relational.Expressions.call;
 import static com.facebook.presto.sql.relational.Expressions.constant;
 import static com.facebook.presto.sql.relational.Expressions.field;
 import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.Slices.utf8Slice;
+import static java.lang.Float.floatToRawIntBits;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotSame;
 import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
@@ -239,6 +261,114 @@ public class TestPageFunctionCompiler
         assertEquals(positions.getPositions(), new int[] {2, 3, 4});
     }
 
+    @Test
+    public void testFusedKernel()
+    {
+        PageFunctionCompiler functionCompiler = new PageFunctionCompiler(createTestMetadataManager(), 0);
+
+        List<RowExpression> projections = ImmutableList.of(ADD_X_Y, ADD_X_Y_LESS_THAN_10, field(0, BIGINT), constant(null, BIGINT));
+        Optional<Supplier<FusedPageKernel>> kernelSupplier = functionCompiler.compileFusedKernel(SESSION.getSqlFunctionProperties(), ADD_X_Y_GREATER_THAN_2, projections, Optional.empty());
+        assertTrue(kernelSupplier.isPresent());
+        FusedPageKernel kernel = kernelSupplier.get().get();
+
+        Page input = createLongBlockPage(2, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        Page output = kernel.process(SESSION.getSqlFunctionProperties(), kernel.getInputChannels().getInputChannels(input));
+        assertEquals(output.getPositionCount(), 8);
+        assertEquals(output.getChannelCount(), 4);
+        for (int position = 0; position < output.getPositionCount(); position++) {
+            long value = position + 2;
+            assertEquals(BIGINT.getLong(output.getBlock(0), position), value * 2);
+            assertEquals(BOOLEAN.getBoolean(output.getBlock(1), position), value * 2 < 10);
+            assertEquals(BIGINT.getLong(output.getBlock(2), position), value);
+            assertTrue(output.getBlock(3).isNull(position));
+        }
+        assertFalse(output.getBlock(0).mayHaveNull());
+
+        // nothing selected
+        Page empty = kernel.process(SESSION.getSqlFunctionProperties(), kernel.getInputChannels().getInputChannels(createLongBlockPage(2, 0, 1)));
+        assertEquals(empty.getPositionCount(), 0);
+
+        // only fixed width primitive expressions are fused
+        assertFalse(functionCompiler.compileFusedKernel(SESSION.getSqlFunctionProperties(), ADD_X_Y_GREATER_THAN_2, ImmutableList.of(constant(utf8Slice("x"), VARCHAR)), Optional.empty()).isPresent());
+        assertFalse(functionCompiler.compileFusedKernel(SESSION.getSqlFunctionProperties(), ADD_X_Y_GREATER_THAN_2, ImmutableList.of(), Optional.empty()).isPresent());
+    }
+
+    @Test
+    public void testFusedKernelTypes()
+    {
+        for (Type type : ImmutableList.of(BIGINT, INTEGER, SMALLINT, TINYINT, BOOLEAN, DOUBLE, REAL, DATE)) {
+            assertFusedKernelMatchesPageProcessor(type);
+        }
+    }
+
+    private static void assertFusedKernelMatchesPageProcessor(Type type)
+    {
+        Metadata metadata = createTestMetadataManager();
+        PageFunctionCompiler functionCompiler = new PageFunctionCompiler(metadata, 0);
+        ExpressionCompiler expressionCompiler = new ExpressionCompiler(metadata, functionCompiler);
+
+        RowExpression filter = call(
+                GREATER_THAN.name(),
+                FUNCTION_MANAGER.resolveOperator(GREATER_THAN, fromTypes(BIGINT, BIGINT)),
+                BOOLEAN,
+                field(0, BIGINT),
+                constant(2L, BIGINT));
+        RowExpression value = field(1, type);
+        List<RowExpression> projections = ImmutableList.of(
+                value,
+                constant(null, type),
+                call(EQUAL.name(), FUNCTION_MANAGER.resolveOperator(EQUAL, fromTypes(type, type)), BOOLEAN, value, value),
+                new SpecialFormExpression(IS_NULL, BOOLEAN, value));
+        assertTrue(functionCompiler.compileFusedKernel(SESSION.getSqlFunctionProperties(), filter, projections, Optional.empty()).isPresent(), "projections of " + type + " are not fused");
+
+        PageProcessor fusedProcessor = expressionCompiler.compilePageProcessor(SESSION.getSqlFunctionProperties(), Optional.of(filter), projections, false, true, ImmutableMap.of(), Optional.empty()).get();
+        PageProcessor pageProcessor = expressionCompiler.compilePageProcessor(SESSION.getSqlFunctionProperties(), Optional.of(filter), projections, false, false, ImmutableMap.of(), Optional.empty()).get();
+
+        Page input = createFusedInputPage(type, 100);
+        List<Type> outputTypes = projections.stream()
+                .map(RowExpression::getType)
+                .collect(toImmutableList());
+        Page expected = processPage(pageProcessor, outputTypes, input);
+        assertEquals(expected.getPositionCount(), 40);
+        assertPageEquals(outputTypes, processPage(fusedProcessor, outputTypes, input), expected);
+    }
+
+    private static Page createFusedInputPage(Type type, int positionCount)
+    {
+        BlockBuilder filterBuilder = BIGINT.createBlockBuilder(null, positionCount);
+        BlockBuilder valueBuilder = type.createBlockBuilder(null, positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            BIGINT.writeLong(filterBuilder, position % 5);
+            // negative values and nulls exercise the narrowing and the null flags of the fused output
+            int value = position - positionCount / 2;
+            if (position % 7 == 0) {
+                valueBuilder.appendNull();
+            }
+            else if (type.equals(BOOLEAN)) {
+                BOOLEAN.writeBoolean(valueBuilder, value % 2 == 0);
+            }
+            else if (type.equals(DOUBLE)) {
+                DOUBLE.writeDouble(valueBuilder, value * 1.25);
+            }
+            else if (type.equals(REAL)) {
+                REAL.writeLong(valueBuilder, floatToRawIntBits(value * 1.25f));
+            }
+            else {
+                type.writeLong(valueBuilder, value);
+            }
+        }
+        return new Page(filterBuilder.build(), valueBuilder.build());
+    }
+
+    private static Page processPage(PageProcessor processor, List<Type> types, Page page)
+    {
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext(PageProcessor.class.getSimpleName());
+        Iterator<Optional<Page>> output = processor.process(SESSION.getSqlFunctionProperties(), new DriverYieldSignal(), memoryContext, page);
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        output.forEachRemaining(outputPage -> outputPage.ifPresent(pages::add));
+        return mergePages(types, pages.build());
+    }
+
     private void checkBlockEqual(Block a, Block b)
     {
         assertEquals(a.getPositionCount(), b.getPositionCount());
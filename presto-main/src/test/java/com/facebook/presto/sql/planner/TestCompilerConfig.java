@@ -16,6 +16,7 @@ package com.facebook.presto.sql.planner;
 import com.google.common.collect.ImmutableMap;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.util.Map;
 
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
@@ -30,7 +31,9 @@ public class TestCompilerConfig
         assertRecordedDefaults(recordDefaults(CompilerConfig.class)
                 .setExpressionCacheSize(10_000)
                 .setLeafNodeLimitEnabled(false)
-                .setLeafNodeLimit(10_000));
+                .setLeafNodeLimit(10_000)
+                .setExpressionProfileFile(null)
+                .setExpressionProfileMaxEntries(1_000));
     }
 
     @Test
@@ -40,12 +43,16 @@ public class TestCompilerConfig
                 .put("compiler.expression-cache-size", "52")
                 .put("planner.max-leaf-nodes-in-plan", "100")
                 .put("planner.leaf-node-limit-enabled", "true")
+                .put("compiler.expression-profile-file", "/tmp/expression-profile.json")
+                .put("compiler.expression-profile-max-entries", "500")
                 .build();
 
         CompilerConfig expected = new CompilerConfig()
                 .setExpressionCacheSize(52)
                 .setLeafNodeLimit(100)
-                .setLeafNodeLimitEnabled(true);
+                .setLeafNodeLimitEnabled(true)
+                .setExpressionProfileFile(new File("/tmp/expression-profile.json"))
+                .setExpressionProfileMaxEntries(500);
 
         assertFullMapping(properties, expected);
     }
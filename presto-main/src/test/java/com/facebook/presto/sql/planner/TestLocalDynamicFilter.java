@@ -17,7 +17,9 @@ package com.facebook.presto.sql.planner;
 import com.facebook.presto.Session;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.expressions.DynamicFilters.DynamicFilterPlaceholder;
+import com.facebook.presto.operator.BlockedBloomFilter;
 import com.facebook.presto.spi.plan.JoinNode;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
 import com.facebook.presto.sql.Optimizer;
@@ -35,17 +37,22 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import static com.facebook.presto.SystemSessionProperties.ENABLE_DYNAMIC_FILTERING;
 import static com.facebook.presto.SystemSessionProperties.FORCE_SINGLE_NODE_OUTPUT;
 import static com.facebook.presto.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
+import static com.facebook.presto.block.BlockAssertions.createIntsBlock;
+import static com.facebook.presto.common.Utils.nativeValueToBlock;
 import static com.facebook.presto.common.function.OperatorType.EQUAL;
+import static com.facebook.presto.common.predicate.Range.range;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.testing.assertions.Assert.assertEquals;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestLocalDynamicFilter
         extends BasePlanTest
@@ -99,6 +106,51 @@ public class TestLocalDynamicFilter
                 new VariableReferenceExpression(Optional.empty(), "a2", INTEGER), Domain.singleValue(INTEGER, 7L))));
     }
 
+    @Test
+    public void testBloomFilterPartitions()
+            throws ExecutionException, InterruptedException
+    {
+        VariableReferenceExpression probeVariable = new VariableReferenceExpression(Optional.empty(), "a", INTEGER);
+        LocalDynamicFilter filter = new LocalDynamicFilter(
+                ImmutableMultimap.of("123", new DynamicFilterPlaceholder("123", probeVariable, EQUAL)),
+                ImmutableMap.of("123", 0),
+                3);
+        BiConsumer<TupleDomain<String>, Map<String, BlockedBloomFilter>> consumer = filter.getDynamicFilterConsumer();
+        ListenableFuture<Map<VariableReferenceExpression, BlockedBloomFilter>> result = filter.getBloomFilterResultFuture();
+
+        // a partition with too many values to list, an empty partition and a partition with few values
+        BlockedBloomFilter bloomFilter = new BlockedBloomFilter(INTEGER, 1024);
+        bloomFilter.add(createIntsBlock(1), 0);
+        consumer.accept(TupleDomain.withColumnDomains(ImmutableMap.of("123", Domain.singleValue(INTEGER, 1L))), ImmutableMap.of("123", bloomFilter));
+        consumer.accept(TupleDomain.none(), ImmutableMap.of());
+        assertFalse(result.isDone());
+        consumer.accept(TupleDomain.withColumnDomains(ImmutableMap.of("123", Domain.multipleValues(INTEGER, ImmutableList.of(7L, 9L)))), ImmutableMap.of());
+
+        BlockedBloomFilter merged = result.get().get(probeVariable);
+        for (long value : ImmutableList.of(1L, 7L, 9L)) {
+            assertTrue(merged.mightContain(nativeValueToBlock(INTEGER, value), 0));
+        }
+        assertEquals(filter.getResultFuture().get(), TupleDomain.withColumnDomains(ImmutableMap.of(
+                probeVariable, Domain.multipleValues(INTEGER, ImmutableList.of(1L, 7L, 9L)))));
+    }
+
+    @Test
+    public void testBloomFilterWithRangePartition()
+            throws ExecutionException, InterruptedException
+    {
+        VariableReferenceExpression probeVariable = new VariableReferenceExpression(Optional.empty(), "a", INTEGER);
+        LocalDynamicFilter filter = new LocalDynamicFilter(
+                ImmutableMultimap.of("123", new DynamicFilterPlaceholder("123", probeVariable, EQUAL)),
+                ImmutableMap.of("123", 0),
+                2);
+        BiConsumer<TupleDomain<String>, Map<String, BlockedBloomFilter>> consumer = filter.getDynamicFilterConsumer();
+
+        // the second partition dropped its Bloom filter, and only has the range of its values
+        consumer.accept(TupleDomain.all(), ImmutableMap.of("123", new BlockedBloomFilter(INTEGER, 1024)));
+        consumer.accept(TupleDomain.withColumnDomains(ImmutableMap.of("123", Domain.create(ValueSet.ofRanges(range(INTEGER, 0L, true, 100L, true)), false))), ImmutableMap.of());
+        assertTrue(filter.getBloomFilterResultFuture().get().isEmpty());
+    }
+
     @Test
     public void testMultiplePartitions()
             throws ExecutionException, InterruptedException
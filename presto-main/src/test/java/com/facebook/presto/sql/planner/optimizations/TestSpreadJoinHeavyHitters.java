@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.spi.plan.PartitionSpreading;
+import com.facebook.presto.sql.Optimizer;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
+import com.facebook.presto.sql.planner.Plan;
+import com.facebook.presto.sql.planner.assertions.BasePlanTest;
+import com.facebook.presto.sql.planner.plan.ExchangeNode;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
+import static com.facebook.presto.SystemSessionProperties.JOIN_HEAVY_HITTER_FANOUT;
+import static com.facebook.presto.SystemSessionProperties.JOIN_REORDERING_STRATEGY;
+import static com.facebook.presto.spi.plan.PartitionSpreading.Mode.REPLICATE;
+import static com.facebook.presto.spi.plan.PartitionSpreading.Mode.SPREAD_HEAVY_HITTERS;
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static org.testng.Assert.assertEquals;
+
+public class TestSpreadJoinHeavyHitters
+        extends BasePlanTest
+{
+    private Session getSession(int fanout)
+    {
+        return Session.builder(this.getQueryRunner().getDefaultSession())
+                .setSystemProperty(JOIN_HEAVY_HITTER_FANOUT, String.valueOf(fanout))
+                .setSystemProperty(JOIN_REORDERING_STRATEGY, "NONE")
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, FeaturesConfig.JoinDistributionType.PARTITIONED.name())
+                .build();
+    }
+
+    @Test
+    public void testJoin()
+    {
+        assertPartitionSpreading(
+                "SELECT * FROM lineitem JOIN partsupp ON lineitem.suppkey = partsupp.suppkey",
+                getSession(4),
+                ImmutableList.of(new PartitionSpreading(SPREAD_HEAVY_HITTERS, 4), new PartitionSpreading(REPLICATE, 4)));
+    }
+
+    @Test
+    public void testLeftJoin()
+    {
+        assertPartitionSpreading(
+                "SELECT * FROM lineitem LEFT JOIN partsupp ON lineitem.suppkey = partsupp.suppkey",
+                getSession(4),
+                ImmutableList.of(new PartitionSpreading(SPREAD_HEAVY_HITTERS, 4), new PartitionSpreading(REPLICATE, 4)));
+    }
+
+    @Test
+    public void testDoesNotFireForRightOuterJoin()
+    {
+        assertPartitionSpreading(
+                "SELECT * FROM lineitem RIGHT OUTER JOIN partsupp ON lineitem.suppkey = partsupp.suppkey",
+                getSession(4),
+                ImmutableList.of());
+    }
+
+    @Test
+    public void testDoesNotFireForFullOuterJoin()
+    {
+        assertPartitionSpreading(
+                "SELECT * FROM lineitem FULL OUTER JOIN partsupp ON lineitem.suppkey = partsupp.suppkey",
+                getSession(4),
+                ImmutableList.of());
+    }
+
+    @Test
+    public void testDoesNotFireWhenJoinOutputPartitioningIsUsed()
+    {
+        // the aggregation on the join key runs in the stage of the join without another exchange
+        assertPartitionSpreading(
+                "SELECT partsupp.suppkey, count(*) FROM lineitem JOIN partsupp ON lineitem.suppkey = partsupp.suppkey GROUP BY partsupp.suppkey",
+                getSession(4),
+                ImmutableList.of());
+    }
+
+    @Test
+    public void testDoesNotFireWithoutFanout()
+    {
+        assertPartitionSpreading(
+                "SELECT * FROM lineitem JOIN partsupp ON lineitem.suppkey = partsupp.suppkey",
+                getSession(1),
+                ImmutableList.of());
+    }
+
+    private void assertPartitionSpreading(String sql, Session session, List<PartitionSpreading> expected)
+    {
+        Plan plan = plan(sql, Optimizer.PlanStage.OPTIMIZED_AND_VALIDATED, false, session);
+        List<PartitionSpreading> actual = searchFrom(plan.getRoot())
+                .where(node -> node instanceof ExchangeNode && ((ExchangeNode) node).getScope().isRemote())
+                .<ExchangeNode>findAll()
+                .stream()
+                .map(exchange -> exchange.getPartitioningScheme().getPartitionSpreading())
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(toImmutableList());
+        assertEquals(actual, expected);
+    }
+}
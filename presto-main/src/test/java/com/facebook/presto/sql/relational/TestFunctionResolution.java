@@ -69,6 +69,10 @@ public class TestFunctionResolution
         assertTrue(standardFunctionResolution.isSubscriptFunction(standardFunctionResolution.subscriptFunction(new ArrayType(DOUBLE), BIGINT)));
         assertFalse(standardFunctionResolution.isBetweenFunction(standardFunctionResolution.subscriptFunction(new ArrayType(DOUBLE), BIGINT)));
 
+        // sum
+        assertTrue(standardFunctionResolution.isSumFunction(standardFunctionResolution.lookupBuiltInFunction("sum", ImmutableList.of(BIGINT))));
+        assertFalse(standardFunctionResolution.isSumFunction(standardFunctionResolution.countFunction()));
+
         // BuiltInFunction
         assertEquals(standardFunctionResolution.notFunction(), standardFunctionResolution.lookupBuiltInFunction("not", ImmutableList.of(BOOLEAN)));
         assertEquals(standardFunctionResolution.countFunction(), standardFunctionResolution.lookupBuiltInFunction("count", ImmutableList.of()));
@@ -14,22 +14,27 @@
 package com.facebook.presto.plugin.memory;
 
 import com.facebook.airlift.configuration.Config;
+import com.facebook.airlift.configuration.ConfigDescription;
 import io.airlift.units.DataSize;
+import io.airlift.units.MinDataSize;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 public class MemoryConfig
 {
     private int splitsPerNode = Runtime.getRuntime().availableProcessors();
     private DataSize maxDataPerNode = new DataSize(128, DataSize.Unit.MEGABYTE);
+    private DataSize segmentSize = new DataSize(4, DataSize.Unit.MEGABYTE);
 
-    @NotNull
+    @Min(1)
     public int getSplitsPerNode()
     {
         return splitsPerNode;
     }
 
     @Config("memory.splits-per-node")
+    @ConfigDescription("Minimum number of splits a table is read by on each worker; segments are divided between splits when there are fewer segments")
     public MemoryConfig setSplitsPerNode(int splitsPerNode)
     {
         this.splitsPerNode = splitsPerNode;
@@ -48,4 +53,19 @@ public class MemoryConfig
         this.maxDataPerNode = maxDataPerNode;
         return this;
     }
+
+    @NotNull
+    @MinDataSize("1kB")
+    public DataSize getSegmentSize()
+    {
+        return segmentSize;
+    }
+
+    @Config("memory.segment-size")
+    @ConfigDescription("Size of the segments a table is stored in on a worker; each segment is read by its own split")
+    public MemoryConfig setSegmentSize(DataSize segmentSize)
+    {
+        this.segmentSize = segmentSize;
+        return this;
+    }
 }
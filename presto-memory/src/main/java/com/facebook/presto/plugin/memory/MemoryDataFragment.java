@@ -30,15 +30,19 @@ public class MemoryDataFragment
 
     private final HostAddress hostAddress;
     private final long rows;
+    private final int segments;
 
     @JsonCreator
     public MemoryDataFragment(
             @JsonProperty("hostAddress") HostAddress hostAddress,
-            @JsonProperty("rows") long rows)
+            @JsonProperty("rows") long rows,
+            @JsonProperty("segments") int segments)
     {
         this.hostAddress = requireNonNull(hostAddress, "hostAddress is null");
         checkArgument(rows >= 0, "Rows number can not be negative");
+        checkArgument(segments >= 0, "Segments number can not be negative");
         this.rows = rows;
+        this.segments = segments;
     }
 
     @JsonProperty
@@ -53,6 +57,12 @@ public class MemoryDataFragment
         return rows;
     }
 
+    @JsonProperty
+    public int getSegments()
+    {
+        return segments;
+    }
+
     public Slice toSlice()
     {
         return Slices.wrappedBuffer(MEMORY_DATA_FRAGMENT_CODEC.toJsonBytes(this));
@@ -66,6 +76,6 @@ public class MemoryDataFragment
     public static MemoryDataFragment merge(MemoryDataFragment a, MemoryDataFragment b)
     {
         checkArgument(a.getHostAddress().equals(b.getHostAddress()), "Can not merge fragments from different hosts");
-        return new MemoryDataFragment(a.getHostAddress(), a.getRows() + b.getRows());
+        return new MemoryDataFragment(a.getHostAddress(), a.getRows() + b.getRows(), a.getSegments() + b.getSegments());
     }
 }
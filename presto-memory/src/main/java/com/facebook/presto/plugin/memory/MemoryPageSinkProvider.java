@@ -14,6 +14,7 @@
 package com.facebook.presto.plugin.memory;
 
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.type.Type;
 import com.facebook.presto.spi.ConnectorInsertTableHandle;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
 import com.facebook.presto.spi.ConnectorPageSink;
@@ -21,6 +22,7 @@ import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.NodeManager;
 import com.facebook.presto.spi.PageSinkContext;
+import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.connector.ConnectorPageSinkProvider;
 import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
 import com.google.common.annotations.VisibleForTesting;
@@ -30,10 +32,13 @@ import io.airlift.slice.Slice;
 import javax.inject.Inject;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
+import static com.facebook.presto.plugin.memory.MemoryErrorCode.MISSING_DATA;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 
@@ -68,7 +73,7 @@ public class MemoryPageSinkProvider
 
         pagesStore.cleanUp(memoryOutputTableHandle.getActiveTableIds());
         pagesStore.initialize(tableId);
-        return new MemoryPageSink(pagesStore, currentHostAddress, tableId);
+        return new MemoryPageSink(pagesStore, currentHostAddress, tableHandle);
     }
 
     @Override
@@ -83,7 +88,7 @@ public class MemoryPageSinkProvider
 
         pagesStore.cleanUp(memoryInsertTableHandle.getActiveTableIds());
         pagesStore.initialize(tableId);
-        return new MemoryPageSink(pagesStore, currentHostAddress, tableId);
+        return new MemoryPageSink(pagesStore, currentHostAddress, tableHandle);
     }
 
     private static class MemoryPageSink
@@ -92,32 +97,63 @@ public class MemoryPageSinkProvider
         private final MemoryPagesStore pagesStore;
         private final HostAddress currentHostAddress;
         private final long tableId;
+        private final List<Type> types;
+        private MemorySegment.Builder segmentBuilder;
         private long addedRows;
+        private int addedSegments;
 
-        public MemoryPageSink(MemoryPagesStore pagesStore, HostAddress currentHostAddress, long tableId)
+        public MemoryPageSink(MemoryPagesStore pagesStore, HostAddress currentHostAddress, MemoryTableHandle tableHandle)
         {
             this.pagesStore = requireNonNull(pagesStore, "pagesStore is null");
             this.currentHostAddress = requireNonNull(currentHostAddress, "currentHostAddress is null");
-            this.tableId = tableId;
+            this.tableId = tableHandle.getTableId();
+            this.types = tableHandle.getColumnHandles().stream()
+                    .map(MemoryColumnHandle::getColumnType)
+                    .collect(toImmutableList());
+            this.segmentBuilder = MemorySegment.builder(types);
         }
 
         @Override
         public CompletableFuture<?> appendPage(Page page)
         {
-            pagesStore.add(tableId, page);
+            if (!pagesStore.contains(tableId)) {
+                throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
+            }
+
+            page.compact();
+            pagesStore.reserve(page.getRetainedSizeInBytes());
+            segmentBuilder.addPage(page);
             addedRows += page.getPositionCount();
+
+            if (segmentBuilder.getRetainedSizeInBytes() >= pagesStore.getSegmentSizeInBytes()) {
+                flushSegment();
+            }
             return NOT_BLOCKED;
         }
 
         @Override
         public CompletableFuture<Collection<Slice>> finish()
         {
-            return completedFuture(ImmutableList.of(new MemoryDataFragment(currentHostAddress, addedRows).toSlice()));
+            if (!segmentBuilder.isEmpty()) {
+                flushSegment();
+            }
+            return completedFuture(ImmutableList.of(new MemoryDataFragment(currentHostAddress, addedRows, addedSegments).toSlice()));
         }
 
         @Override
         public void abort()
         {
+            // segments that were already added stay in the store, like the pages of the other writers
+            pagesStore.release(segmentBuilder.getRetainedSizeInBytes());
+            segmentBuilder = MemorySegment.builder(types);
+        }
+
+        private void flushSegment()
+        {
+            MemorySegment segment = segmentBuilder.build();
+            segmentBuilder = MemorySegment.builder(types);
+            pagesStore.add(tableId, segment);
+            addedSegments++;
         }
     }
 }
@@ -15,6 +15,7 @@ package com.facebook.presto.plugin.memory;
 
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.spi.PrestoException;
 import com.google.common.collect.ImmutableList;
 
@@ -22,85 +23,148 @@ import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.facebook.presto.plugin.memory.MemoryErrorCode.MEMORY_LIMIT_EXCEEDED;
 import static com.facebook.presto.plugin.memory.MemoryErrorCode.MISSING_DATA;
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 
+/**
+ * Stores the tables of this worker as append-only lists of immutable {@link MemorySegment}s.
+ * Writers publish whole segments, so readers never take a lock.
+ */
 @ThreadSafe
 public class MemoryPagesStore
 {
     private final long maxBytes;
+    private final long segmentSizeInBytes;
 
     @GuardedBy("this")
     private long currentBytes;
 
-    private final Map<Long, TableData> tables = new HashMap<>();
+    private final Map<Long, TableData> tables = new ConcurrentHashMap<>();
 
     @Inject
     public MemoryPagesStore(MemoryConfig config)
     {
         this.maxBytes = config.getMaxDataPerNode().toBytes();
+        this.segmentSizeInBytes = config.getSegmentSize().toBytes();
     }
 
-    public synchronized void initialize(long tableId)
+    public long getSegmentSizeInBytes()
     {
-        if (!tables.containsKey(tableId)) {
-            tables.put(tableId, new TableData());
-        }
+        return segmentSizeInBytes;
     }
 
-    public synchronized void add(Long tableId, Page page)
+    public void initialize(long tableId)
     {
-        if (!contains(tableId)) {
-            throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
-        }
-
-        page.compact();
+        tables.computeIfAbsent(tableId, ignored -> new TableData());
+    }
 
-        long newSize = currentBytes + page.getRetainedSizeInBytes();
+    /**
+     * Reserves memory for a page that will be added to the table as a part of a segment.
+     */
+    public synchronized void reserve(long bytes)
+    {
+        long newSize = currentBytes + bytes;
         if (maxBytes < newSize) {
             throw new PrestoException(MEMORY_LIMIT_EXCEEDED, format("Memory limit [%d] for memory connector exceeded", maxBytes));
         }
         currentBytes = newSize;
+    }
 
+    public synchronized void release(long bytes)
+    {
+        currentBytes -= bytes;
+    }
+
+    /**
+     * Publishes a segment whose memory has already been reserved.
+     */
+    public synchronized void add(Long tableId, MemorySegment segment)
+    {
         TableData tableData = tables.get(tableId);
-        tableData.add(page);
+        if (tableData == null) {
+            currentBytes -= segment.getRetainedSizeInBytes();
+            throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
+        }
+        tableData.add(segment);
     }
 
-    public synchronized List<Page> getPages(
+    public List<Page> getPages(
             Long tableId,
             int partNumber,
             int totalParts,
             List<Integer> columnIndexes,
             long expectedRows)
     {
-        if (!contains(tableId)) {
+        return getPages(tableId, partNumber, totalParts, columnIndexes, expectedRows, TupleDomain.all());
+    }
+
+    /**
+     * Returns the pages of every {@code totalParts}-th segment starting at {@code partNumber},
+     * skipping the segments whose column ranges do not overlap the predicate on column indexes.
+     * When there are fewer segments than parts, the pages of each segment are divided between
+     * the parts that read it.
+     */
+    public List<Page> getPages(
+            Long tableId,
+            int partNumber,
+            int totalParts,
+            List<Integer> columnIndexes,
+            long expectedRows,
+            TupleDomain<Integer> predicate)
+    {
+        TableData tableData = tables.get(tableId);
+        if (tableData == null) {
             throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
         }
-        TableData tableData = tables.get(tableId);
-        if (tableData.getRows() < expectedRows) {
+        List<MemorySegment> segments = tableData.getSegments();
+        long rows = segments.stream().mapToLong(MemorySegment::getRows).sum();
+        if (rows < expectedRows) {
             throw new PrestoException(MISSING_DATA,
-                    format("Expected to find [%s] rows on a worker, but found [%s].", expectedRows, tableData.getRows()));
+                    format("Expected to find [%s] rows on a worker, but found [%s].", expectedRows, rows));
         }
 
         ImmutableList.Builder<Page> partitionedPages = ImmutableList.builder();
 
-        for (int i = partNumber; i < tableData.getPages().size(); i += totalParts) {
-            partitionedPages.add(getColumns(tableData.getPages().get(i), columnIndexes));
+        if (totalParts > segments.size()) {
+            if (segments.isEmpty()) {
+                return ImmutableList.of();
+            }
+            // parts partNumber % segments, partNumber % segments + segments, ... read the same segment
+            int segmentIndex = partNumber % segments.size();
+            int segmentParts = (totalParts - segmentIndex + segments.size() - 1) / segments.size();
+            MemorySegment segment = segments.get(segmentIndex);
+            if (segment.mayMatch(predicate)) {
+                List<Page> pages = segment.getPages();
+                for (int i = partNumber / segments.size(); i < pages.size(); i += segmentParts) {
+                    partitionedPages.add(getColumns(pages.get(i), columnIndexes));
+                }
+            }
+            return partitionedPages.build();
+        }
+
+        for (int i = partNumber; i < segments.size(); i += totalParts) {
+            MemorySegment segment = segments.get(i);
+            if (!segment.mayMatch(predicate)) {
+                continue;
+            }
+            for (Page page : segment.getPages()) {
+                partitionedPages.add(getColumns(page, columnIndexes));
+            }
         }
 
         return partitionedPages.build();
     }
 
-    public synchronized boolean contains(Long tableId)
+    public boolean contains(Long tableId)
     {
         return tables.containsKey(tableId);
     }
@@ -125,8 +189,8 @@ public class MemoryPagesStore
             Map.Entry<Long, TableData> tablePagesEntry = tableDataIterator.next();
             Long tableId = tablePagesEntry.getKey();
             if (tableId < latestTableId && !activeTableIds.contains(tableId)) {
-                for (Page removedPage : tablePagesEntry.getValue().getPages()) {
-                    currentBytes -= removedPage.getRetainedSizeInBytes();
+                for (MemorySegment removedSegment : tablePagesEntry.getValue().getSegments()) {
+                    currentBytes -= removedSegment.getRetainedSizeInBytes();
                 }
                 tableDataIterator.remove();
             }
@@ -146,23 +210,22 @@ public class MemoryPagesStore
 
     private static final class TableData
     {
-        private final List<Page> pages = new ArrayList<>();
-        private long rows;
-
-        public void add(Page page)
-        {
-            pages.add(page);
-            rows += page.getPositionCount();
-        }
+        // copy on write, so that readers can use the list without synchronization
+        private volatile List<MemorySegment> segments = ImmutableList.of();
 
-        private List<Page> getPages()
+        // called with the store lock held, so writers do not race
+        public void add(MemorySegment segment)
         {
-            return pages;
+            requireNonNull(segment, "segment is null");
+            segments = ImmutableList.<MemorySegment>builder()
+                    .addAll(segments)
+                    .add(segment)
+                    .build();
         }
 
-        private long getRows()
+        private List<MemorySegment> getSegments()
         {
-            return rows;
+            return segments;
         }
     }
 }
@@ -0,0 +1,218 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.plugin.memory;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.ValueSet;
+import com.facebook.presto.common.type.Type;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+
+import javax.annotation.concurrent.Immutable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.TypeUtils.readNativeValue;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable run of pages of a table on one worker, together with the range of values
+ * of each column, so that scans can skip the segment without looking at its pages.
+ */
+@Immutable
+public final class MemorySegment
+{
+    private final List<Page> pages;
+    private final long rows;
+    private final long retainedSizeInBytes;
+    // summary of the values of each column, or empty when the type is not tracked
+    private final List<Optional<Domain>> columnDomains;
+
+    private MemorySegment(List<Page> pages, long rows, long retainedSizeInBytes, List<Optional<Domain>> columnDomains)
+    {
+        this.pages = ImmutableList.copyOf(requireNonNull(pages, "pages is null"));
+        this.rows = rows;
+        this.retainedSizeInBytes = retainedSizeInBytes;
+        this.columnDomains = ImmutableList.copyOf(requireNonNull(columnDomains, "columnDomains is null"));
+    }
+
+    public List<Page> getPages()
+    {
+        return pages;
+    }
+
+    public long getRows()
+    {
+        return rows;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+
+    /**
+     * Returns false if no row of this segment can match the predicate on the column indexes.
+     */
+    public boolean mayMatch(TupleDomain<Integer> predicate)
+    {
+        if (predicate.isNone()) {
+            return false;
+        }
+        Map<Integer, Domain> domains = predicate.getDomains().get();
+        for (Map.Entry<Integer, Domain> entry : domains.entrySet()) {
+            int columnIndex = entry.getKey();
+            if (columnIndex >= columnDomains.size() || !columnDomains.get(columnIndex).isPresent()) {
+                continue;
+            }
+            Domain columnDomain = columnDomains.get(columnIndex).get();
+            if (!columnDomain.getType().equals(entry.getValue().getType())) {
+                continue;
+            }
+            if (columnDomain.intersect(entry.getValue()).isNone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static Builder builder(List<Type> types)
+    {
+        return new Builder(types);
+    }
+
+    public static final class Builder
+    {
+        private final List<Type> types;
+        private final List<Page> pages = new ArrayList<>();
+        private final ColumnRange[] columnRanges;
+        private long rows;
+        private long retainedSizeInBytes;
+
+        private Builder(List<Type> types)
+        {
+            this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+            this.columnRanges = new ColumnRange[types.size()];
+            for (int channel = 0; channel < columnRanges.length; channel++) {
+                if (isTracked(types.get(channel))) {
+                    columnRanges[channel] = new ColumnRange(types.get(channel));
+                }
+            }
+        }
+
+        /**
+         * Adds a compacted page to the segment.
+         */
+        public Builder addPage(Page page)
+        {
+            checkArgument(types.isEmpty() || page.getChannelCount() == types.size(), "page does not match the types of the table");
+            pages.add(page);
+            rows += page.getPositionCount();
+            retainedSizeInBytes += page.getRetainedSizeInBytes();
+            for (int channel = 0; channel < columnRanges.length; channel++) {
+                if (columnRanges[channel] != null) {
+                    columnRanges[channel].add(page.getBlock(channel), page.getPositionCount());
+                }
+            }
+            return this;
+        }
+
+        public boolean isEmpty()
+        {
+            return pages.isEmpty();
+        }
+
+        public long getRetainedSizeInBytes()
+        {
+            return retainedSizeInBytes;
+        }
+
+        public MemorySegment build()
+        {
+            ImmutableList.Builder<Optional<Domain>> columnDomains = ImmutableList.builder();
+            for (ColumnRange columnRange : columnRanges) {
+                columnDomains.add(Optional.ofNullable(columnRange).map(ColumnRange::toDomain));
+            }
+            return new MemorySegment(pages, rows, retainedSizeInBytes, columnDomains.build());
+        }
+
+        private static boolean isTracked(Type type)
+        {
+            // mayMatch intersects the min/max bounds with the scan predicate, and REAL bounds are float bits in a long;
+            // pruning on those could skip a segment holding matching negative values, so REAL columns are never pruned
+            Class<?> javaType = type.getJavaType();
+            return type.isOrderable() &&
+                    !type.equals(REAL) &&
+                    (javaType == long.class || javaType == boolean.class || javaType == Slice.class);
+        }
+    }
+
+    private static final class ColumnRange
+    {
+        private final Type type;
+        private Block min;
+        private Block max;
+        private boolean hasNull;
+
+        private ColumnRange(Type type)
+        {
+            this.type = requireNonNull(type, "type is null");
+        }
+
+        private void add(Block block, int positionCount)
+        {
+            int minPosition = -1;
+            int maxPosition = -1;
+            for (int position = 0; position < positionCount; position++) {
+                if (block.isNull(position)) {
+                    hasNull = true;
+                    continue;
+                }
+                if (minPosition < 0 || type.compareTo(block, position, block, minPosition) < 0) {
+                    minPosition = position;
+                }
+                if (maxPosition < 0 || type.compareTo(block, position, block, maxPosition) > 0) {
+                    maxPosition = position;
+                }
+            }
+            if (minPosition < 0) {
+                return;
+            }
+            if (min == null || type.compareTo(block, minPosition, min, 0) < 0) {
+                min = block.getSingleValueBlock(minPosition);
+            }
+            if (max == null || type.compareTo(block, maxPosition, max, 0) > 0) {
+                max = block.getSingleValueBlock(maxPosition);
+            }
+        }
+
+        private Domain toDomain()
+        {
+            if (min == null) {
+                return hasNull ? Domain.onlyNull(type) : Domain.none(type);
+            }
+            Range range = Range.range(type, readNativeValue(type, min, 0), true, readNativeValue(type, max, 0), true);
+            return Domain.create(ValueSet.ofRanges(range), hasNull);
+        }
+    }
+}
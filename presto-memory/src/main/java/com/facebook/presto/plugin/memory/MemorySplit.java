@@ -32,8 +32,8 @@ public class MemorySplit
         implements ConnectorSplit
 {
     private final MemoryTableHandle tableHandle;
-    private final int totalPartsPerWorker; // how many concurrent reads there will be from one worker
-    private final int partNumber; // part of the pages on one worker that this splits is responsible
+    private final int totalPartsPerWorker; // how many concurrent reads there will be from one worker, one per segment
+    private final int partNumber; // segment on one worker that this split is responsible for
     private final HostAddress address;
     private final long expectedRows;
 
@@ -26,6 +26,8 @@ import javax.inject.Inject;
 
 import java.util.List;
 
+import static java.lang.Math.max;
+
 public final class MemorySplitManager
         implements ConnectorSplitManager
 {
@@ -50,12 +52,15 @@ public final class MemorySplitManager
 
         ImmutableList.Builder<ConnectorSplit> splits = ImmutableList.builder();
         for (MemoryDataFragment dataFragment : dataFragments) {
-            for (int i = 0; i < splitsPerNode; i++) {
+            // every segment is read by its own split, and the pages of segments are divided
+            // between splits when a worker has fewer segments than splits per node
+            int parts = max(dataFragment.getSegments(), splitsPerNode);
+            for (int i = 0; i < parts; i++) {
                 splits.add(
                         new MemorySplit(
                                 layout.getTable(),
                                 i,
-                                splitsPerNode,
+                                parts,
                                 dataFragment.getHostAddress(),
                                 dataFragment.getRows()));
             }
@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.plugin.memory;
 
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorTableLayoutHandle;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -26,14 +28,17 @@ public class MemoryTableLayoutHandle
 {
     private final MemoryTableHandle table;
     private final List<MemoryDataFragment> dataFragments;
+    private final TupleDomain<ColumnHandle> constraint;
 
     @JsonCreator
     public MemoryTableLayoutHandle(
             @JsonProperty("table") MemoryTableHandle table,
-            @JsonProperty("dataFragments") List<MemoryDataFragment> dataFragments)
+            @JsonProperty("dataFragments") List<MemoryDataFragment> dataFragments,
+            @JsonProperty("constraint") TupleDomain<ColumnHandle> constraint)
     {
         this.table = requireNonNull(table, "table is null");
         this.dataFragments = requireNonNull(dataFragments, "dataFragments is null");
+        this.constraint = requireNonNull(constraint, "constraint is null");
     }
 
     @JsonProperty
@@ -48,6 +53,16 @@ public class MemoryTableLayoutHandle
         return dataFragments;
     }
 
+    /**
+     * Predicate used to skip the segments that cannot contain matching rows.
+     * It is not enforced, the engine still filters the rows.
+     */
+    @JsonProperty
+    public TupleDomain<ColumnHandle> getConstraint()
+    {
+        return constraint;
+    }
+
     public String getConnectorId()
     {
         return table.getConnectorId();
@@ -15,6 +15,8 @@ package com.facebook.presto.plugin.memory;
 
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.spi.ConnectorInsertTableHandle;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
 import com.facebook.presto.spi.ConnectorPageSink;
@@ -24,12 +26,15 @@ import com.facebook.presto.spi.PageSinkContext;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.testing.TestingConnectorSession;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -119,6 +124,57 @@ public class TestMemoryPagesStore
         insertToTable(0L, createOneMegaBytePage(), 0L);
     }
 
+    @Test
+    public void testSegments()
+    {
+        pagesStore = new MemoryPagesStore(new MemoryConfig()
+                .setMaxDataPerNode(new DataSize(1, DataSize.Unit.MEGABYTE))
+                .setSegmentSize(new DataSize(1, DataSize.Unit.KILOBYTE)));
+        pageSinkProvider = new MemoryPageSinkProvider(pagesStore, HostAddress.fromString("localhost:8080"));
+
+        ConnectorPageSink pageSink = pageSinkProvider.createPageSink(
+                MemoryTransactionHandle.INSTANCE,
+                SESSION,
+                new MemoryInsertTableHandle(createBigintTableHandle(0L), ImmutableSet.of(0L)),
+                PageSinkContext.defaultContext());
+        // every page is larger than a segment
+        pageSink.appendPage(createSequencePage(0, 1000));
+        pageSink.appendPage(createSequencePage(1000, 1000));
+        pageSink.appendPage(createSequencePage(2000, 10));
+        MemoryDataFragment fragment = MemoryDataFragment.fromSlice(getOnlyElement(getFutureValue(pageSink.finish())));
+        assertEquals(fragment.getRows(), 2010);
+        assertEquals(fragment.getSegments(), 3);
+
+        assertEquals(pagesStore.getPages(0L, 1, 3, ImmutableList.of(0), 2010).size(), 1);
+        assertEquals(pagesStore.getPages(0L, 1, 3, ImmutableList.of(0), 2010, TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.singleValue(BIGINT, 1500L)))).size(), 1);
+        assertEquals(pagesStore.getPages(0L, 0, 3, ImmutableList.of(0), 2010, TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.singleValue(BIGINT, 1500L)))).size(), 0);
+        assertEquals(pagesStore.getPages(0L, 2, 3, ImmutableList.of(0), 2010, TupleDomain.withColumnDomains(ImmutableMap.of(0, Domain.onlyNull(BIGINT)))).size(), 0);
+        assertEquals(pagesStore.getPages(0L, 0, 1, ImmutableList.of(0), 2010, TupleDomain.none()).size(), 0);
+    }
+
+    @Test
+    public void testMorePartsThanSegments()
+    {
+        ConnectorPageSink pageSink = pageSinkProvider.createPageSink(
+                MemoryTransactionHandle.INSTANCE,
+                SESSION,
+                new MemoryInsertTableHandle(createBigintTableHandle(0L), ImmutableSet.of(0L)),
+                PageSinkContext.defaultContext());
+        for (int page = 0; page < 5; page++) {
+            pageSink.appendPage(createSequencePage(page * 10, 10));
+        }
+        MemoryDataFragment fragment = MemoryDataFragment.fromSlice(getOnlyElement(getFutureValue(pageSink.finish())));
+        assertEquals(fragment.getSegments(), 1);
+
+        // the pages of the segment are divided between the parts
+        assertEquals(pagesStore.getPages(0L, 0, 4, ImmutableList.of(0), 50).size(), 2);
+        for (int part = 1; part < 4; part++) {
+            assertEquals(pagesStore.getPages(0L, part, 4, ImmutableList.of(0), 50).size(), 1);
+        }
+        assertEquals(pagesStore.getPages(0L, 3, 8, ImmutableList.of(0), 50).size(), 1);
+        assertEquals(pagesStore.getPages(0L, 5, 8, ImmutableList.of(0), 50).size(), 0);
+    }
+
     private void insertToTable(long tableId, Long... activeTableIds)
     {
         insertToTable(tableId, createPage(), activeTableIds);
@@ -169,6 +225,25 @@ public class TestMemoryPagesStore
                 ImmutableSet.copyOf(activeTableIds));
     }
 
+    private static MemoryTableHandle createBigintTableHandle(long tableId)
+    {
+        return new MemoryTableHandle(
+                "test",
+                "schema",
+                format("table_%d", tableId),
+                tableId,
+                ImmutableList.of(new MemoryColumnHandle("value", BIGINT, 0)));
+    }
+
+    private static Page createSequencePage(long start, int positionCount)
+    {
+        BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            BIGINT.writeLong(blockBuilder, start + position);
+        }
+        return new Page(positionCount, blockBuilder.build());
+    }
+
     private static Page createPage()
     {
         BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(POSITIONS_PER_PAGE);
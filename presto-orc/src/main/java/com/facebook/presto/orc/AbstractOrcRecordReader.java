@@ -56,6 +56,8 @@ import java.util.OptionalInt;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import static com.facebook.presto.common.RuntimeMetricName.SKIPPED_STRIPES_COUNT;
+import static com.facebook.presto.common.RuntimeUnit.NONE;
 import static com.facebook.presto.orc.AbstractOrcRecordReader.LinearProbeRangeFinder.createTinyStripesRangeFinder;
 import static com.facebook.presto.orc.DwrfEncryptionInfo.createDwrfEncryptionInfo;
 import static com.facebook.presto.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
@@ -211,20 +213,29 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
 
         long totalRowCount = 0;
         long fileRowCount = 0;
+        int skippedStripes = 0;
         ImmutableList.Builder<StripeInformation> stripes = ImmutableList.builder();
         ImmutableList.Builder<Long> stripeFilePositions = ImmutableList.builder();
         if (predicate.matches(numberOfRows, getStatisticsByColumnOrdinal(root, fileStats))) {
             // select stripes that start within the specified split
             for (StripeInfo info : stripeInfos) {
                 StripeInformation stripe = info.getStripe();
-                if (splitContainsStripe(splitOffset, splitLength, stripe) && isStripeIncluded(root, stripe, info.getStats(), predicate)) {
-                    stripes.add(stripe);
-                    stripeFilePositions.add(fileRowCount);
-                    totalRowCount += stripe.getNumberOfRows();
+                if (splitContainsStripe(splitOffset, splitLength, stripe)) {
+                    if (isStripeIncluded(root, stripe, info.getStats(), predicate)) {
+                        stripes.add(stripe);
+                        stripeFilePositions.add(fileRowCount);
+                        totalRowCount += stripe.getNumberOfRows();
+                    }
+                    else {
+                        skippedStripes++;
+                    }
                 }
                 fileRowCount += stripe.getNumberOfRows();
             }
         }
+        if (skippedStripes > 0) {
+            runtimeStats.addMetricValue(SKIPPED_STRIPES_COUNT, NONE, skippedStripes);
+        }
         this.totalRowCount = totalRowCount;
         this.stripes = stripes.build();
         this.stripeFilePositions = stripeFilePositions.build();
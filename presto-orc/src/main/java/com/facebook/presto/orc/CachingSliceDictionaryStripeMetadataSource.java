@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.orc.StripeReader.StripeId;
+import com.facebook.presto.orc.StripeReader.StripeStreamId;
+import com.facebook.presto.orc.metadata.MetadataReader;
+import com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion;
+import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.metadata.statistics.HiveBloomFilter;
+import com.facebook.presto.orc.reader.SliceDictionary;
+import com.facebook.presto.orc.stream.OrcInputStream;
+import com.google.common.cache.Cache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.airlift.slice.Slice;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * This StripeMetadataSource implementation shares decoded stripe dictionaries
+ * between the readers of a stripe, and reads everything else from the delegate
+ * StripeMetadataSource, so it can be used with or without the stripe metadata cache.
+ */
+public class CachingSliceDictionaryStripeMetadataSource
+        implements StripeMetadataSource
+{
+    private final StripeMetadataSource delegate;
+    private final Cache<StripeStreamId, SliceDictionary> sliceDictionaryCache;
+
+    public CachingSliceDictionaryStripeMetadataSource(StripeMetadataSource delegate, Cache<StripeStreamId, SliceDictionary> sliceDictionaryCache)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.sliceDictionaryCache = requireNonNull(sliceDictionaryCache, "sliceDictionaryCache is null");
+    }
+
+    @Override
+    public Slice getStripeFooterSlice(OrcDataSource orcDataSource, StripeId stripeId, long footerOffset, int footerLength, boolean cacheable)
+            throws IOException
+    {
+        return delegate.getStripeFooterSlice(orcDataSource, stripeId, footerOffset, footerLength, cacheable);
+    }
+
+    @Override
+    public Map<StreamId, OrcDataSourceInput> getInputs(OrcDataSource orcDataSource, StripeId stripeId, Map<StreamId, DiskRange> diskRanges, boolean cacheable)
+            throws IOException
+    {
+        return delegate.getInputs(orcDataSource, stripeId, diskRanges, cacheable);
+    }
+
+    @Override
+    public List<RowGroupIndex> getRowIndexes(
+            MetadataReader metadataReader,
+            HiveWriterVersion hiveWriterVersion,
+            StripeId stripeId,
+            StreamId streamId,
+            OrcInputStream inputStream,
+            List<HiveBloomFilter> bloomFilters,
+            RuntimeStats runtimeStats)
+            throws IOException
+    {
+        return delegate.getRowIndexes(metadataReader, hiveWriterVersion, stripeId, streamId, inputStream, bloomFilters, runtimeStats);
+    }
+
+    @Override
+    public Optional<SliceDictionary> getSliceDictionary(StripeStreamId dictionaryStreamId, SliceDictionary.Loader loader, boolean cacheable)
+            throws IOException
+    {
+        if (!cacheable) {
+            return delegate.getSliceDictionary(dictionaryStreamId, loader, cacheable);
+        }
+        try {
+            // concurrent readers of the same stripe wait for a single load instead of decoding the dictionary again
+            return Optional.of(sliceDictionaryCache.get(dictionaryStreamId, loader::load));
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfInstanceOf(e.getCause(), IOException.class);
+            throw new IOException("Unexpected error in slice dictionary reading after sliceDictionaryCache miss", e.getCause());
+        }
+    }
+}
@@ -21,6 +21,7 @@ import com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion;
 import com.facebook.presto.orc.metadata.RowGroupIndex;
 import com.facebook.presto.orc.metadata.Stream.StreamKind;
 import com.facebook.presto.orc.metadata.statistics.HiveBloomFilter;
+import com.facebook.presto.orc.reader.SliceDictionary;
 import com.facebook.presto.orc.stream.OrcInputStream;
 import com.google.common.cache.Cache;
 import com.google.common.collect.ImmutableMap;
@@ -148,6 +149,13 @@ public class CachingStripeMetadataSource
         return rowGroupIndices;
     }
 
+    @Override
+    public Optional<SliceDictionary> getSliceDictionary(StripeStreamId dictionaryStreamId, SliceDictionary.Loader loader, boolean cacheable)
+            throws IOException
+    {
+        return delegate.getSliceDictionary(dictionaryStreamId, loader, cacheable);
+    }
+
     private static boolean isCachedStream(StreamKind streamKind)
     {
         // BLOOM_FILTER and ROW_INDEX are on the critical path to generate a stripe. Other stream kinds could be lazily read.
@@ -15,11 +15,13 @@ package com.facebook.presto.orc;
 
 import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.orc.StripeReader.StripeId;
+import com.facebook.presto.orc.StripeReader.StripeStreamId;
 import com.facebook.presto.orc.metadata.DwrfStripeCache;
 import com.facebook.presto.orc.metadata.MetadataReader;
 import com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion;
 import com.facebook.presto.orc.metadata.RowGroupIndex;
 import com.facebook.presto.orc.metadata.statistics.HiveBloomFilter;
+import com.facebook.presto.orc.reader.SliceDictionary;
 import com.facebook.presto.orc.stream.OrcInputStream;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.slice.BasicSliceInput;
@@ -111,4 +113,11 @@ public class DwrfAwareStripeMetadataSource
     {
         return delegate.getRowIndexes(metadataReader, hiveWriterVersion, stripeId, streamId, inputStream, bloomFilters, runtimeStats);
     }
+
+    @Override
+    public Optional<SliceDictionary> getSliceDictionary(StripeStreamId dictionaryStreamId, SliceDictionary.Loader loader, boolean cacheable)
+            throws IOException
+    {
+        return delegate.getSliceDictionary(dictionaryStreamId, loader, cacheable);
+    }
 }
@@ -38,6 +38,16 @@ public class NoOpOrcWriterStats
     {
     }
 
+    @Override
+    public void recordParallelColumnEncoding(long elapsedNanos, long encodingNanos)
+    {
+    }
+
+    @Override
+    public void recordAsyncStripeFlush(long stripeBytes, long blockedNanos)
+    {
+    }
+
     @Override
     public String toString()
     {
@@ -14,6 +14,7 @@
 package com.facebook.presto.orc;
 
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.io.DataOutput;
 import com.facebook.presto.common.io.DataSink;
 import com.facebook.presto.common.type.Type;
@@ -40,6 +41,7 @@ import com.facebook.presto.orc.stream.StreamDataOutput;
 import com.facebook.presto.orc.writer.ColumnWriter;
 import com.facebook.presto.orc.writer.CompressionBufferPool;
 import com.facebook.presto.orc.writer.CompressionBufferPool.LastUsedCompressionBufferPool;
+import com.facebook.presto.orc.writer.CompressionBufferPool.SynchronizedCompressionBufferPool;
 import com.facebook.presto.orc.writer.DictionaryColumnWriter;
 import com.facebook.presto.orc.writer.StreamLayout;
 import com.google.common.annotations.VisibleForTesting;
@@ -51,6 +53,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
 import io.airlift.slice.Slices;
 import io.airlift.units.DataSize;
 import it.unimi.dsi.fastutil.ints.Int2LongMap;
@@ -72,6 +75,12 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -93,9 +102,12 @@ import static com.facebook.presto.orc.metadata.statistics.ColumnStatistics.merge
 import static com.facebook.presto.orc.writer.ColumnWriters.createColumnWriter;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.util.concurrent.Uninterruptibles.getUninterruptibly;
 import static io.airlift.slice.Slices.utf8Slice;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.lang.Integer.min;
@@ -142,6 +154,8 @@ public class OrcWriter
     @Nullable
     private final OrcWriteValidation.OrcWriteValidationBuilder validationBuilder;
     private final CompressionBufferPool compressionBufferPool;
+    private final Optional<Executor> columnEncodingExecutor;
+    private final Optional<Executor> stripeFlushExecutor;
 
     private int stripeRowCount;
     private int rowGroupRowCount;
@@ -158,6 +172,14 @@ public class OrcWriter
     private final Map<Integer, Integer> nodeIdToColumn;
     private final StreamSizeHelper streamSizeHelper;
 
+    private long columnEncodingElapsedNanos;
+    private final AtomicLong columnEncodingNanos = new AtomicLong();
+
+    @Nullable
+    private FutureTask<?> pendingStripeFlush;
+    private long pendingStripeFlushEndOffset;
+    private long pendingStripeFlushRetainedBytes;
+
     public OrcWriter(
             DataSink dataSink,
             List<String> columnNames,
@@ -211,7 +233,10 @@ public class OrcWriter
         this.dataSink = requireNonNull(dataSink, "dataSink is null");
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
         this.orcEncoding = requireNonNull(orcEncoding, "orcEncoding is null");
-        this.compressionBufferPool = new LastUsedCompressionBufferPool();
+        // the encryption library is not required to be thread safe, so encrypted files are always encoded on the writer thread
+        this.columnEncodingExecutor = requireNonNull(encryption, "encryption is null").isPresent() ? Optional.empty() : options.getColumnEncodingExecutor();
+        this.stripeFlushExecutor = options.getStripeFlushExecutor();
+        this.compressionBufferPool = columnEncodingExecutor.isPresent() ? new SynchronizedCompressionBufferPool(new LastUsedCompressionBufferPool()) : new LastUsedCompressionBufferPool();
 
         requireNonNull(columnNames, "columnNames is null");
         requireNonNull(inputOrcTypes, "inputOrcTypes is null");
@@ -373,6 +398,10 @@ public class OrcWriter
      */
     public long getWrittenBytes()
     {
+        if (pendingStripeFlush != null) {
+            // the data sink is still being written on the stripe flush executor
+            return pendingStripeFlushEndOffset;
+        }
         return dataSink.size();
     }
 
@@ -391,6 +420,7 @@ public class OrcWriter
                 closedStripesRetainedBytes +
                 dataSink.getRetainedSizeInBytes() +
                 compressionBufferPool.getRetainedBytes() +
+                pendingStripeFlushRetainedBytes +
                 (validationBuilder == null ? 0 : validationBuilder.getRetainedSize());
     }
 
@@ -442,10 +472,16 @@ public class OrcWriter
 
         // write chunks
         bufferedBytes = 0;
-        for (int channel = 0; channel < chunk.getChannelCount(); channel++) {
-            ColumnWriter writer = columnWriters.get(channel);
-            stripeRawSize += writer.writeBlock(chunk.getBlock(channel));
-            bufferedBytes += writer.getBufferedBytes();
+        if (columnEncodingExecutor.isPresent()) {
+            stripeRawSize += writeBlocksInParallel(columnEncodingExecutor.get(), chunk);
+            bufferedBytes = toIntExact(columnWriters.stream().mapToLong(ColumnWriter::getBufferedBytes).sum());
+        }
+        else {
+            for (int channel = 0; channel < chunk.getChannelCount(); channel++) {
+                ColumnWriter writer = columnWriters.get(channel);
+                stripeRawSize += writer.writeBlock(chunk.getBlock(channel));
+                bufferedBytes += writer.getBufferedBytes();
+            }
         }
 
         // update stats
@@ -471,6 +507,75 @@ public class OrcWriter
         columnWritersRetainedBytes = columnWriters.stream().mapToLong(ColumnWriter::getRetainedBytes).sum();
     }
 
+    private long writeBlocksInParallel(Executor executor, Page chunk)
+            throws IOException
+    {
+        // lazy blocks are loaded on the writer thread, as their loaders are not safe to run concurrently
+        Page loadedChunk = chunk.getLoadedPage();
+        List<Callable<Long>> tasks = new ArrayList<>(loadedChunk.getChannelCount());
+        for (int channel = 0; channel < loadedChunk.getChannelCount(); channel++) {
+            ColumnWriter writer = columnWriters.get(channel);
+            Block block = loadedChunk.getBlock(channel);
+            tasks.add(() -> writer.writeBlock(block));
+        }
+
+        long rawSize = 0;
+        for (long columnRawSize : runColumnTasks(executor, tasks)) {
+            rawSize += columnRawSize;
+        }
+        return rawSize;
+    }
+
+    /**
+     * Runs one task per column writer on the executor and waits for all of them. No task is
+     * still using a column writer when this returns, even if one of the tasks failed.
+     */
+    private <T> List<T> runColumnTasks(Executor executor, List<Callable<T>> tasks)
+            throws IOException
+    {
+        long start = System.nanoTime();
+        List<FutureTask<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            FutureTask<T> future = new FutureTask<>(() -> {
+                long taskStart = System.nanoTime();
+                try {
+                    return task.call();
+                }
+                finally {
+                    columnEncodingNanos.addAndGet(System.nanoTime() - taskStart);
+                }
+            });
+            try {
+                executor.execute(future);
+            }
+            catch (RejectedExecutionException e) {
+                future.run();
+            }
+            futures.add(future);
+        }
+
+        List<T> results = new ArrayList<>(tasks.size());
+        Throwable failure = null;
+        for (FutureTask<T> future : futures) {
+            try {
+                results.add(getUninterruptibly(future));
+            }
+            catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        columnEncodingElapsedNanos += System.nanoTime() - start;
+
+        if (failure != null) {
+            throwIfInstanceOf(failure, IOException.class);
+            throwIfUnchecked(failure);
+            throw new RuntimeException(failure);
+        }
+        return results;
+    }
+
     private void finishRowGroup()
     {
         Map<Integer, ColumnStatistics> columnStatistics = new HashMap<>();
@@ -482,6 +587,9 @@ public class OrcWriter
     private void flushStripe(FlushReason flushReason)
             throws IOException
     {
+        // the previous stripe must be on the data sink before the offsets of this one are known
+        long blockedNanos = waitForPendingStripeFlush();
+
         List<DataOutput> outputData = new ArrayList<>();
         long stripeStartOffset = dataSink.size();
         // add header to first stripe (this is not required but nice to have)
@@ -501,7 +609,12 @@ public class OrcWriter
             }
 
             // write all data
-            dataSink.write(outputData);
+            if (stripeFlushExecutor.isPresent() && flushReason != CLOSED) {
+                flushStripeAsync(stripeFlushExecutor.get(), outputData, blockedNanos);
+            }
+            else {
+                dataSink.write(outputData);
+            }
         }
         finally {
             // open next stripe
@@ -514,7 +627,64 @@ public class OrcWriter
         }
     }
 
+    /**
+     * Copies the stripe out of the column writers, so they can be reset for the next stripe, and
+     * writes the copy on the executor. At most one stripe per writer is buffered this way.
+     */
+    private void flushStripeAsync(Executor executor, List<DataOutput> outputData, long blockedNanos)
+    {
+        long stripeBytes = outputData.stream()
+                .mapToLong(DataOutput::size)
+                .sum();
+        Slice stripe = Slices.allocate(toIntExact(stripeBytes));
+        SliceOutput output = stripe.getOutput();
+        outputData.forEach(data -> data.writeData(output));
+        List<DataOutput> stripeData = ImmutableList.of(createDataOutput(stripe));
+
+        FutureTask<?> flush = new FutureTask<>(() -> {
+            dataSink.write(stripeData);
+            return null;
+        });
+        pendingStripeFlushEndOffset = dataSink.size() + stripeBytes;
+        try {
+            executor.execute(flush);
+        }
+        catch (RejectedExecutionException e) {
+            flush.run();
+        }
+        pendingStripeFlush = flush;
+        pendingStripeFlushRetainedBytes = stripe.getRetainedSize();
+        stats.recordAsyncStripeFlush(stripeBytes, blockedNanos);
+    }
+
+    /**
+     * Waits for the stripe written on the stripe flush executor, if any, and returns the time spent waiting.
+     */
+    private long waitForPendingStripeFlush()
+            throws IOException
+    {
+        if (pendingStripeFlush == null) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        try {
+            getUninterruptibly(pendingStripeFlush);
+        }
+        catch (ExecutionException e) {
+            throwIfInstanceOf(e.getCause(), IOException.class);
+            throwIfUnchecked(e.getCause());
+            throw new IOException(e.getCause());
+        }
+        finally {
+            pendingStripeFlush = null;
+            pendingStripeFlushRetainedBytes = 0;
+        }
+        return System.nanoTime() - start;
+    }
+
     private void flushColumnWriters(FlushReason flushReason)
+            throws IOException
     {
         if (stripeRowCount == 0) {
             verify(flushReason == CLOSED, "An empty stripe is not allowed");
@@ -528,7 +698,20 @@ public class OrcWriter
             dictionaryCompressionOptimizer.finalOptimize(bufferedBytes);
         }
 
-        columnWriters.forEach(ColumnWriter::close);
+        if (columnEncodingExecutor.isPresent()) {
+            List<Callable<Void>> tasks = columnWriters.stream()
+                    .map(writer -> (Callable<Void>) () -> {
+                        writer.close();
+                        return null;
+                    })
+                    .collect(toList());
+            runColumnTasks(columnEncodingExecutor.get(), tasks);
+            stats.recordParallelColumnEncoding(columnEncodingElapsedNanos, columnEncodingNanos.getAndSet(0));
+            columnEncodingElapsedNanos = 0;
+        }
+        else {
+            columnWriters.forEach(ColumnWriter::close);
+        }
     }
 
     /**
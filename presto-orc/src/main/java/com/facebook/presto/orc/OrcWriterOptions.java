@@ -22,6 +22,7 @@ import io.airlift.units.DataSize;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import static com.facebook.presto.orc.metadata.DwrfStripeCacheMode.INDEX_AND_FOOTER;
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -74,6 +75,8 @@ public class OrcWriterOptions
     private final int preserveDirectEncodingStripeCount;
     private final boolean mapStatisticsEnabled;
     private final int maxFlattenedMapKeyCount;
+    private final Optional<Executor> columnEncodingExecutor;
+    private final Optional<Executor> stripeFlushExecutor;
 
     /**
      * Contains indexes of columns (not nodes!) for which writer should use flattened encoding, e.g. flat maps.
@@ -101,7 +104,9 @@ public class OrcWriterOptions
             int preserveDirectEncodingStripeCount,
             Set<Integer> flattenedColumns,
             boolean mapStatisticsEnabled,
-            int maxFlattenedMapKeyCount)
+            int maxFlattenedMapKeyCount,
+            Optional<Executor> columnEncodingExecutor,
+            Optional<Executor> stripeFlushExecutor)
     {
         requireNonNull(flushPolicy, "flushPolicy is null");
         checkArgument(rowGroupMaxRowCount >= 1, "rowGroupMaxRowCount must be at least 1");
@@ -117,6 +122,8 @@ public class OrcWriterOptions
         requireNonNull(dwrfWriterOptions, "dwrfWriterOptions is null");
         requireNonNull(flattenedColumns, "flattenedColumns is null");
         checkArgument(maxFlattenedMapKeyCount > 0, "maxFlattenedMapKeyCount must be positive: %s", maxFlattenedMapKeyCount);
+        requireNonNull(columnEncodingExecutor, "columnEncodingExecutor is null");
+        requireNonNull(stripeFlushExecutor, "stripeFlushExecutor is null");
 
         this.flushPolicy = flushPolicy;
         this.rowGroupMaxRowCount = rowGroupMaxRowCount;
@@ -139,6 +146,8 @@ public class OrcWriterOptions
         this.flattenedColumns = flattenedColumns;
         this.mapStatisticsEnabled = mapStatisticsEnabled;
         this.maxFlattenedMapKeyCount = maxFlattenedMapKeyCount;
+        this.columnEncodingExecutor = columnEncodingExecutor;
+        this.stripeFlushExecutor = stripeFlushExecutor;
     }
 
     public OrcWriterFlushPolicy getFlushPolicy()
@@ -246,6 +255,22 @@ public class OrcWriterOptions
         return maxFlattenedMapKeyCount;
     }
 
+    /**
+     * Executor on which the column writers encode and compress, or empty to encode on the writer thread.
+     */
+    public Optional<Executor> getColumnEncodingExecutor()
+    {
+        return columnEncodingExecutor;
+    }
+
+    /**
+     * Executor on which finished stripes are written to the data sink, or empty to write on the writer thread.
+     */
+    public Optional<Executor> getStripeFlushExecutor()
+    {
+        return stripeFlushExecutor;
+    }
+
     @Override
     public String toString()
     {
@@ -269,6 +294,8 @@ public class OrcWriterOptions
                 .add("flattenedColumns", flattenedColumns)
                 .add("mapStatisticsEnabled", mapStatisticsEnabled)
                 .add("maxFlattenedMapKeyCount", maxFlattenedMapKeyCount)
+                .add("columnEncodingExecutor", columnEncodingExecutor.isPresent())
+                .add("stripeFlushExecutor", stripeFlushExecutor.isPresent())
                 .toString();
     }
 
@@ -307,6 +334,8 @@ public class OrcWriterOptions
         private Set<Integer> flattenedColumns = ImmutableSet.of();
         private boolean mapStatisticsEnabled;
         private int maxFlattenedMapKeyCount = DEFAULT_MAX_FLATTENED_MAP_KEY_COUNT;
+        private Optional<Executor> columnEncodingExecutor = Optional.empty();
+        private Optional<Executor> stripeFlushExecutor = Optional.empty();
 
         public Builder withFlushPolicy(OrcWriterFlushPolicy flushPolicy)
         {
@@ -448,6 +477,18 @@ public class OrcWriterOptions
             return this;
         }
 
+        public Builder withColumnEncodingExecutor(Executor columnEncodingExecutor)
+        {
+            this.columnEncodingExecutor = Optional.of(requireNonNull(columnEncodingExecutor, "columnEncodingExecutor is null"));
+            return this;
+        }
+
+        public Builder withStripeFlushExecutor(Executor stripeFlushExecutor)
+        {
+            this.stripeFlushExecutor = Optional.of(requireNonNull(stripeFlushExecutor, "stripeFlushExecutor is null"));
+            return this;
+        }
+
         public OrcWriterOptions build()
         {
             Optional<DwrfStripeCacheOptions> dwrfWriterOptions;
@@ -479,7 +520,9 @@ public class OrcWriterOptions
                     preserveDirectEncodingStripeCount,
                     flattenedColumns,
                     mapStatisticsEnabled,
-                    maxFlattenedMapKeyCount);
+                    maxFlattenedMapKeyCount,
+                    columnEncodingExecutor,
+                    stripeFlushExecutor);
         }
     }
 }
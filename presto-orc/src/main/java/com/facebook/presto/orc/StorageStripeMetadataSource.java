@@ -15,10 +15,12 @@ package com.facebook.presto.orc;
 
 import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.orc.StripeReader.StripeId;
+import com.facebook.presto.orc.StripeReader.StripeStreamId;
 import com.facebook.presto.orc.metadata.MetadataReader;
 import com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion;
 import com.facebook.presto.orc.metadata.RowGroupIndex;
 import com.facebook.presto.orc.metadata.statistics.HiveBloomFilter;
+import com.facebook.presto.orc.reader.SliceDictionary;
 import com.facebook.presto.orc.stream.OrcInputStream;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.slice.Slice;
@@ -27,6 +29,7 @@ import io.airlift.slice.Slices;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public class StorageStripeMetadataSource
         implements StripeMetadataSource
@@ -73,4 +76,10 @@ public class StorageStripeMetadataSource
     {
         return metadataReader.readRowIndexes(hiveWriterVersion, inputStream, bloomFilters);
     }
+
+    @Override
+    public Optional<SliceDictionary> getSliceDictionary(StripeStreamId dictionaryStreamId, SliceDictionary.Loader loader, boolean cacheable)
+    {
+        return Optional.empty();
+    }
 }
@@ -15,6 +15,7 @@ package com.facebook.presto.orc;
 
 import com.facebook.presto.orc.metadata.ColumnEncoding;
 import com.facebook.presto.orc.reader.LongDictionaryProvider;
+import com.facebook.presto.orc.reader.SliceDictionaryProvider;
 import com.facebook.presto.orc.stream.InputStreamSources;
 import com.google.common.collect.ImmutableList;
 
@@ -31,14 +32,21 @@ public class Stripe
     private final List<RowGroup> rowGroups;
     private final InputStreamSources dictionaryStreamSources;
     private final LongDictionaryProvider longDictionaryProvider;
+    private final SliceDictionaryProvider sliceDictionaryProvider;
 
-    public Stripe(long rowCount, Map<Integer, ColumnEncoding> columnEncodings, List<RowGroup> rowGroups, InputStreamSources dictionaryStreamSources)
+    public Stripe(
+            long rowCount,
+            Map<Integer, ColumnEncoding> columnEncodings,
+            List<RowGroup> rowGroups,
+            InputStreamSources dictionaryStreamSources,
+            SliceDictionaryProvider sliceDictionaryProvider)
     {
         this.rowCount = rowCount;
         this.columnEncodings = requireNonNull(columnEncodings, "columnEncodings is null");
         this.rowGroups = ImmutableList.copyOf(requireNonNull(rowGroups, "rowGroups is null"));
         this.dictionaryStreamSources = requireNonNull(dictionaryStreamSources, "dictionaryStreamSources is null");
         this.longDictionaryProvider = new LongDictionaryProvider(this.dictionaryStreamSources);
+        this.sliceDictionaryProvider = requireNonNull(sliceDictionaryProvider, "sliceDictionaryProvider is null");
     }
 
     public long getRowCount()
@@ -66,6 +74,11 @@ public class Stripe
         return longDictionaryProvider;
     }
 
+    public SliceDictionaryProvider getSliceDictionaryProvider()
+    {
+        return sliceDictionaryProvider;
+    }
+
     @Override
     public String toString()
     {
@@ -75,6 +88,7 @@ public class Stripe
                 .add("rowGroups", rowGroups)
                 .add("dictionaryStreams", dictionaryStreamSources)
                 .add("longDictionaryProvider", longDictionaryProvider)
+                .add("sliceDictionaryProvider", sliceDictionaryProvider)
                 .toString();
     }
 }
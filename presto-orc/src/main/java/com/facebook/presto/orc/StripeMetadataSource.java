@@ -15,16 +15,19 @@ package com.facebook.presto.orc;
 
 import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.orc.StripeReader.StripeId;
+import com.facebook.presto.orc.StripeReader.StripeStreamId;
 import com.facebook.presto.orc.metadata.MetadataReader;
 import com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion;
 import com.facebook.presto.orc.metadata.RowGroupIndex;
 import com.facebook.presto.orc.metadata.statistics.HiveBloomFilter;
+import com.facebook.presto.orc.reader.SliceDictionary;
 import com.facebook.presto.orc.stream.OrcInputStream;
 import io.airlift.slice.Slice;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public interface StripeMetadataSource
 {
@@ -47,4 +50,11 @@ public interface StripeMetadataSource
             List<HiveBloomFilter> bloomFilters,
             RuntimeStats runtimeStats)
             throws IOException;
+
+    /**
+     * Returns the decoded stripe dictionary identified by {@code dictionaryStreamId}, calling {@code loader}
+     * if it is not cached yet, or empty if this source does not cache decoded dictionaries.
+     */
+    Optional<SliceDictionary> getSliceDictionary(StripeStreamId dictionaryStreamId, SliceDictionary.Loader loader, boolean cacheable)
+            throws IOException;
 }
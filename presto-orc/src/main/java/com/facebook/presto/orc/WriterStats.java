@@ -26,4 +26,20 @@ public interface WriterStats
             StripeInformation stripeInformation);
 
     void updateSizeInBytes(long deltaInBytes);
+
+    /**
+     * Records one stripe whose columns were encoded on the column encoding executor.
+     *
+     * @param elapsedNanos time the writer thread waited for the column writers
+     * @param encodingNanos time spent in the column writers, summed over all columns
+     */
+    void recordParallelColumnEncoding(long elapsedNanos, long encodingNanos);
+
+    /**
+     * Records one stripe handed to the stripe flush executor.
+     *
+     * @param stripeBytes size of the stripe buffered for the background write
+     * @param blockedNanos time the writer thread waited for the previous stripe to reach the data sink
+     */
+    void recordAsyncStripeFlush(long stripeBytes, long blockedNanos);
 }
@@ -20,6 +20,8 @@ import io.airlift.units.Duration;
 import io.airlift.units.MinDataSize;
 import io.airlift.units.MinDuration;
 
+import javax.validation.constraints.AssertTrue;
+
 import static com.facebook.presto.orc.OrcDataSourceUtils.EXPECTED_FOOTER_SIZE_IN_BYTES;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
@@ -41,6 +43,10 @@ public class OrcCacheConfig
     private DataSize rowGroupIndexCacheSize = new DataSize(0, BYTE);
     private Duration rowGroupIndexCacheTtlSinceLastAccess = new Duration(0, SECONDS);
 
+    private boolean dictionaryCacheEnabled;
+    private DataSize dictionaryCacheSize = new DataSize(0, BYTE);
+    private Duration dictionaryCacheTtlSinceLastAccess = new Duration(0, SECONDS);
+
     private boolean dwrfStripeCacheEnabled = true;
     private DataSize expectedFileTailSize = new DataSize(EXPECTED_FOOTER_SIZE_IN_BYTES, BYTE);
 
@@ -194,6 +200,54 @@ public class OrcCacheConfig
         return this;
     }
 
+    public boolean isDictionaryCacheEnabled()
+    {
+        return dictionaryCacheEnabled;
+    }
+
+    @Config("orc.dictionary-cache-enabled")
+    @ConfigDescription("Share decoded stripe dictionaries of string columns between splits reading the same stripe. " +
+            "Independent of the stripe metadata cache, but requires a non-zero orc.dictionary-cache-size and orc.dictionary-cache-ttl-since-last-access")
+    public OrcCacheConfig setDictionaryCacheEnabled(boolean dictionaryCacheEnabled)
+    {
+        this.dictionaryCacheEnabled = dictionaryCacheEnabled;
+        return this;
+    }
+
+    @MinDataSize("0B")
+    public DataSize getDictionaryCacheSize()
+    {
+        return dictionaryCacheSize;
+    }
+
+    @Config("orc.dictionary-cache-size")
+    @ConfigDescription("Size of the decoded stripe dictionary cache, must be non-zero when orc.dictionary-cache-enabled is set")
+    public OrcCacheConfig setDictionaryCacheSize(DataSize dictionaryCacheSize)
+    {
+        this.dictionaryCacheSize = dictionaryCacheSize;
+        return this;
+    }
+
+    @MinDuration("0s")
+    public Duration getDictionaryCacheTtlSinceLastAccess()
+    {
+        return dictionaryCacheTtlSinceLastAccess;
+    }
+
+    @Config("orc.dictionary-cache-ttl-since-last-access")
+    @ConfigDescription("Time-to-live for decoded stripe dictionary cache entry after last access, must be non-zero when orc.dictionary-cache-enabled is set")
+    public OrcCacheConfig setDictionaryCacheTtlSinceLastAccess(Duration dictionaryCacheTtlSinceLastAccess)
+    {
+        this.dictionaryCacheTtlSinceLastAccess = dictionaryCacheTtlSinceLastAccess;
+        return this;
+    }
+
+    @AssertTrue(message = "orc.dictionary-cache-size and orc.dictionary-cache-ttl-since-last-access must be non-zero when orc.dictionary-cache-enabled is set")
+    public boolean isDictionaryCacheConfigured()
+    {
+        return !dictionaryCacheEnabled || (dictionaryCacheSize.toBytes() > 0 && dictionaryCacheTtlSinceLastAccess.toMillis() > 0);
+    }
+
     public boolean isDwrfStripeCacheEnabled()
     {
         return dwrfStripeCacheEnabled;
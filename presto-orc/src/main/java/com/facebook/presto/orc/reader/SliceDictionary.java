@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.reader;
+
+import org.openjdk.jol.info.ClassLayout;
+
+import java.io.IOException;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A decoded stripe dictionary of a string column. The offsets hold one extra
+ * trailing entry for the null value, so the arrays can be wrapped directly.
+ * Instances may be shared across readers and must never be modified.
+ */
+public final class SliceDictionary
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(SliceDictionary.class).instanceSize();
+
+    private final byte[] data;
+    private final int[] offsets;
+    private final int size;
+
+    public SliceDictionary(byte[] data, int[] offsets, int size)
+    {
+        this.data = requireNonNull(data, "data is null");
+        this.offsets = requireNonNull(offsets, "offsets is null");
+        checkArgument(size >= 0, "size is negative");
+        checkArgument(offsets.length >= size + 2, "offsets must have room for the null entry");
+        this.size = size;
+    }
+
+    public byte[] getData()
+    {
+        return data;
+    }
+
+    public int[] getOffsets()
+    {
+        return offsets;
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(data) + sizeOf(offsets);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("size", size)
+                .add("retainedSizeInBytes", getRetainedSizeInBytes())
+                .toString();
+    }
+
+    @FunctionalInterface
+    public interface Loader
+    {
+        SliceDictionary load()
+                throws IOException;
+    }
+}
@@ -75,6 +75,7 @@ public class SliceDictionaryBatchStreamReader
     private BooleanInputStream presentStream;
 
     private InputStreamSource<ByteArrayInputStream> stripeDictionaryDataStreamSource = getByteArrayMissingStreamSource();
+    private SliceDictionaryProvider sliceDictionaryProvider;
     private boolean stripeDictionaryOpen;
     private int stripeDictionarySize;
     private int[] stripeDictionaryLength = new int[0];
@@ -204,7 +205,6 @@ public class SliceDictionaryBatchStreamReader
         if (currentDictionaryData != dictionaryData) {
             boolean[] isNullVector = new boolean[positionCount];
             isNullVector[positionCount - 1] = true;
-            dictionaryOffsets[positionCount] = dictionaryOffsets[positionCount - 1];
             dictionaryBlock = new VariableWidthBlock(positionCount, wrappedBuffer(dictionaryData), dictionaryOffsets, Optional.of(isNullVector));
             currentDictionaryData = dictionaryData;
         }
@@ -216,35 +216,15 @@ public class SliceDictionaryBatchStreamReader
         // read the dictionary
         if (!stripeDictionaryOpen) {
             if (stripeDictionarySize > 0) {
-                // resize the dictionary lengths array if necessary
-                if (stripeDictionaryLength.length < stripeDictionarySize) {
-                    stripeDictionaryLength = new int[stripeDictionarySize];
-                    systemMemoryContext.setBytes(sizeOf(stripeDictionaryLength));
+                // bounded varchar and char values are truncated to the reader type, so only unbounded dictionaries are shared
+                Optional<SliceDictionary> sharedDictionary = Optional.empty();
+                if (maxCodePointCount < 0 && !isCharType) {
+                    sharedDictionary = sliceDictionaryProvider.getStripeDictionary(streamDescriptor, this::loadStripeDictionary);
                 }
-
-                // read the lengths
-                LongInputStream lengthStream = stripeDictionaryLengthStreamSource.openStream();
-                if (lengthStream == null) {
-                    throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Dictionary is not empty but dictionary length stream is not present");
-                }
-                lengthStream.next(stripeDictionaryLength, stripeDictionarySize);
-
-                long dataLength = 0;
-                for (int i = 0; i < stripeDictionarySize; i++) {
-                    dataLength += stripeDictionaryLength[i];
-                }
-
-                // we must always create a new dictionary array because the previous dictionary may still be referenced
-                stripeDictionaryData = new byte[toIntExact(dataLength)];
-                systemMemoryContext.setBytes(sizeOf(stripeDictionaryData));
-
-                // add one extra entry for null
-                stripeDictionaryOffsetVector = new int[stripeDictionarySize + 2];
-                systemMemoryContext.setBytes(sizeOf(stripeDictionaryOffsetVector));
-
-                // read dictionary values
-                ByteArrayInputStream dictionaryDataStream = stripeDictionaryDataStreamSource.openStream();
-                readDictionary(dictionaryDataStream, stripeDictionarySize, stripeDictionaryLength, 0, stripeDictionaryData, stripeDictionaryOffsetVector, maxCodePointCount, isCharType);
+                SliceDictionary stripeDictionary = sharedDictionary.isPresent() ? sharedDictionary.get() : loadStripeDictionary();
+                stripeDictionaryData = stripeDictionary.getData();
+                stripeDictionaryOffsetVector = stripeDictionary.getOffsets();
+                systemMemoryContext.setBytes(getRetainedSizeInBytes());
             }
             else {
                 stripeDictionaryData = EMPTY_DICTIONARY_DATA;
@@ -278,6 +258,7 @@ public class SliceDictionaryBatchStreamReader
             // read dictionary values
             ByteArrayInputStream dictionaryDataStream = rowGroupDictionaryDataStreamSource.openStream();
             readDictionary(dictionaryDataStream, rowGroupDictionarySize, rowGroupDictionaryLength, stripeDictionarySize, rowGroupDictionaryData, rowGroupDictionaryOffsetVector, maxCodePointCount, isCharType);
+            rowGroupDictionaryOffsetVector[stripeDictionarySize + rowGroupDictionarySize + 1] = rowGroupDictionaryOffsetVector[stripeDictionarySize + rowGroupDictionarySize];
             setDictionaryBlockData(rowGroupDictionaryData, rowGroupDictionaryOffsetVector, stripeDictionarySize + rowGroupDictionarySize + 1);
         }
         else {
@@ -292,6 +273,40 @@ public class SliceDictionaryBatchStreamReader
         rowGroupOpen = true;
     }
 
+    private SliceDictionary loadStripeDictionary()
+            throws IOException
+    {
+        // resize the dictionary lengths array if necessary
+        if (stripeDictionaryLength.length < stripeDictionarySize) {
+            stripeDictionaryLength = new int[stripeDictionarySize];
+            systemMemoryContext.setBytes(sizeOf(stripeDictionaryLength));
+        }
+
+        // read the lengths
+        LongInputStream lengthStream = stripeDictionaryLengthStreamSource.openStream();
+        if (lengthStream == null) {
+            throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Dictionary is not empty but dictionary length stream is not present");
+        }
+        lengthStream.next(stripeDictionaryLength, stripeDictionarySize);
+
+        long dataLength = 0;
+        for (int i = 0; i < stripeDictionarySize; i++) {
+            dataLength += stripeDictionaryLength[i];
+        }
+
+        // we must always create a new dictionary array because the previous dictionary may still be referenced
+        byte[] data = new byte[toIntExact(dataLength)];
+
+        // add one extra entry for null
+        int[] offsetVector = new int[stripeDictionarySize + 2];
+
+        // read dictionary values
+        ByteArrayInputStream dictionaryDataStream = stripeDictionaryDataStreamSource.openStream();
+        readDictionary(dictionaryDataStream, stripeDictionarySize, stripeDictionaryLength, 0, data, offsetVector, maxCodePointCount, isCharType);
+        offsetVector[stripeDictionarySize + 1] = offsetVector[stripeDictionarySize];
+        return new SliceDictionary(data, offsetVector, stripeDictionarySize);
+    }
+
     // Reads dictionary into data and offsetVector
     private static void readDictionary(
             @Nullable ByteArrayInputStream dictionaryDataStream,
@@ -343,6 +358,7 @@ public class SliceDictionaryBatchStreamReader
         stripeDictionarySize = stripe.getColumnEncodings().get(streamDescriptor.getStreamId())
                 .getColumnEncoding(streamDescriptor.getSequence())
                 .getDictionarySize();
+        sliceDictionaryProvider = stripe.getSliceDictionaryProvider();
         stripeDictionaryOpen = false;
 
         presentStreamSource = getBooleanMissingStreamSource();
@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.reader;
+
+import com.facebook.presto.orc.StreamDescriptor;
+import com.facebook.presto.orc.StreamId;
+import com.facebook.presto.orc.StripeMetadataSource;
+import com.facebook.presto.orc.StripeReader.StripeId;
+import com.facebook.presto.orc.StripeReader.StripeStreamId;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.DICTIONARY_DATA;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Looks up decoded stripe dictionaries of string columns in the stripe metadata source,
+ * so that splits reading the same stripe do not decode its dictionaries again.
+ */
+public class SliceDictionaryProvider
+{
+    private final StripeId stripeId;
+    private final StripeMetadataSource stripeMetadataSource;
+    private final boolean cacheable;
+
+    public SliceDictionaryProvider(StripeId stripeId, StripeMetadataSource stripeMetadataSource, boolean cacheable)
+    {
+        this.stripeId = requireNonNull(stripeId, "stripeId is null");
+        this.stripeMetadataSource = requireNonNull(stripeMetadataSource, "stripeMetadataSource is null");
+        this.cacheable = cacheable;
+    }
+
+    /**
+     * Returns the shared stripe dictionary of the stream, calling the loader on a cache miss.
+     * Returns empty if decoded dictionaries are not cached, in which case the caller decodes the dictionary itself.
+     */
+    public Optional<SliceDictionary> getStripeDictionary(StreamDescriptor streamDescriptor, SliceDictionary.Loader loader)
+            throws IOException
+    {
+        if (!cacheable) {
+            return Optional.empty();
+        }
+        StreamId streamId = new StreamId(streamDescriptor.getStreamId(), streamDescriptor.getSequence(), DICTIONARY_DATA);
+        return stripeMetadataSource.getSliceDictionary(new StripeStreamId(stripeId, streamId), loader, cacheable);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("stripeId", stripeId)
+                .add("cacheable", cacheable)
+                .toString();
+    }
+}
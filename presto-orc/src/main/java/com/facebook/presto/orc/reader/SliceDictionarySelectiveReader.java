@@ -111,7 +111,10 @@ public class SliceDictionarySelectiveReader
 
     private InputStreamSource<ByteArrayInputStream> stripeDictionaryDataStreamSource = getByteArrayMissingStreamSource();
     private InputStreamSource<LongInputStream> stripeDictionaryLengthStreamSource = getLongMissingStreamSource();
+    private SliceDictionaryProvider sliceDictionaryProvider;
     private boolean stripeDictionaryOpen;
+    // true while dictionaryData and dictionaryOffsetVector hold a stripe dictionary shared with other readers
+    private boolean dictionaryShared;
     // The dictionaries will be wrapped in getBlock(). It's set to false when opening a new dictionary (be it stripe dictionary or rowgroup dictionary). When there is only stripe
     // dictionary but no rowgroup dictionaries, we shall set it to false only when opening the stripe dictionary while not for every rowgroup. It is set to true when the dictionary
     // is wrapped up in wrapDictionaryIfNecessary().
@@ -479,33 +482,38 @@ public class SliceDictionarySelectiveReader
         // read the dictionary
         if (!stripeDictionaryOpen) {
             if (stripeDictionarySize > 0) {
-                // resize the dictionary lengths array if necessary
-                if (stripeDictionaryLength.length < stripeDictionarySize) {
-                    stripeDictionaryLength = new int[stripeDictionarySize];
+                // bounded varchar and char values are truncated, so only unbounded dictionaries are shared
+                Optional<SliceDictionary> sharedDictionary = Optional.empty();
+                if (maxCodePointCount < 0 && !isCharType) {
+                    sharedDictionary = sliceDictionaryProvider.getStripeDictionary(context.getStreamDescriptor(), this::loadStripeDictionary);
                 }
 
-                // read the lengths
-                LongInputStream lengthStream = stripeDictionaryLengthStreamSource.openStream();
-                if (lengthStream == null) {
-                    throw new OrcCorruptionException(context.getStreamDescriptor().getOrcDataSourceId(), "Dictionary is not empty but dictionary length stream is not present");
-                }
-                lengthStream.nextIntVector(stripeDictionarySize, stripeDictionaryLength, 0);
-
-                long dataLength = 0;
-                for (int i = 0; i < stripeDictionarySize; i++) {
-                    dataLength += stripeDictionaryLength[i];
+                if (sharedDictionary.isPresent()) {
+                    dictionaryData = sharedDictionary.get().getData();
+                    dictionaryOffsetVector = sharedDictionary.get().getOffsets();
+                    dictionaryShared = true;
                 }
+                else {
+                    if (dictionaryShared) {
+                        // never write into arrays that are shared with other readers
+                        dictionaryData = EMPTY_DICTIONARY_DATA;
+                        dictionaryOffsetVector = EMPTY_DICTIONARY_OFFSETS;
+                        dictionaryShared = false;
+                    }
+                    long dataLength = readStripeDictionaryLength();
 
-                dictionaryData = ensureCapacity(dictionaryData, toIntExact(dataLength));
-                dictionaryOffsetVector = ensureCapacity(dictionaryOffsetVector, stripeDictionarySize + 2);
+                    dictionaryData = ensureCapacity(dictionaryData, toIntExact(dataLength));
+                    dictionaryOffsetVector = ensureCapacity(dictionaryOffsetVector, stripeDictionarySize + 2);
 
-                // read dictionary values
-                ByteArrayInputStream dictionaryDataStream = stripeDictionaryDataStreamSource.openStream();
-                readDictionary(dictionaryDataStream, stripeDictionarySize, stripeDictionaryLength, 0, dictionaryData, dictionaryOffsetVector, maxCodePointCount, isCharType);
+                    // read dictionary values
+                    ByteArrayInputStream dictionaryDataStream = stripeDictionaryDataStreamSource.openStream();
+                    readDictionary(dictionaryDataStream, stripeDictionarySize, stripeDictionaryLength, 0, dictionaryData, dictionaryOffsetVector, maxCodePointCount, isCharType);
+                }
             }
             else {
                 dictionaryData = EMPTY_DICTIONARY_DATA;
                 dictionaryOffsetVector = EMPTY_DICTIONARY_OFFSETS;
+                dictionaryShared = false;
             }
 
             // If there is no rowgroup dictionary, we only need to wrap the stripe dictionary once per stripe because wrapping dictionary is very expensive.
@@ -526,6 +534,13 @@ public class SliceDictionarySelectiveReader
                 dataLength += rowGroupDictionaryLength[i];
             }
 
+            if (dictionaryShared) {
+                // copy the shared stripe dictionary before appending the row group dictionary to it
+                dictionaryData = Arrays.copyOf(dictionaryData, dictionaryOffsetVector[stripeDictionarySize] + toIntExact(dataLength));
+                dictionaryOffsetVector = Arrays.copyOf(dictionaryOffsetVector, stripeDictionarySize + rowGroupDictionarySize + 2);
+                dictionaryShared = false;
+            }
+
             dictionaryData = ensureCapacity(
                     dictionaryData,
                     dictionaryOffsetVector[stripeDictionarySize] + toIntExact(dataLength),
@@ -552,7 +567,10 @@ public class SliceDictionarySelectiveReader
             initiateEvaluationStatus(stripeDictionarySize + 1);
         }
 
-        dictionaryOffsetVector[currentDictionarySize] = dictionaryOffsetVector[currentDictionarySize - 1];
+        if (!dictionaryShared) {
+            // shared dictionaries already hold the null entry
+            dictionaryOffsetVector[currentDictionarySize] = dictionaryOffsetVector[currentDictionarySize - 1];
+        }
         stripeDictionaryOpen = true;
         inDictionaryStream = inDictionaryStreamSource.openStream();
         dataStream = dataStreamSource.openStream();
@@ -560,6 +578,44 @@ public class SliceDictionarySelectiveReader
         rowGroupOpen = true;
     }
 
+    private SliceDictionary loadStripeDictionary()
+            throws IOException
+    {
+        long dataLength = readStripeDictionaryLength();
+
+        byte[] data = new byte[toIntExact(dataLength)];
+        // add one extra entry for null
+        int[] offsetVector = new int[stripeDictionarySize + 2];
+
+        ByteArrayInputStream dictionaryDataStream = stripeDictionaryDataStreamSource.openStream();
+        readDictionary(dictionaryDataStream, stripeDictionarySize, stripeDictionaryLength, 0, data, offsetVector, maxCodePointCount, isCharType);
+        offsetVector[stripeDictionarySize + 1] = offsetVector[stripeDictionarySize];
+        return new SliceDictionary(data, offsetVector, stripeDictionarySize);
+    }
+
+    // Reads the stripe dictionary lengths into stripeDictionaryLength and returns the total data length
+    private long readStripeDictionaryLength()
+            throws IOException
+    {
+        // resize the dictionary lengths array if necessary
+        if (stripeDictionaryLength.length < stripeDictionarySize) {
+            stripeDictionaryLength = new int[stripeDictionarySize];
+        }
+
+        // read the lengths
+        LongInputStream lengthStream = stripeDictionaryLengthStreamSource.openStream();
+        if (lengthStream == null) {
+            throw new OrcCorruptionException(context.getStreamDescriptor().getOrcDataSourceId(), "Dictionary is not empty but dictionary length stream is not present");
+        }
+        lengthStream.nextIntVector(stripeDictionarySize, stripeDictionaryLength, 0);
+
+        long dataLength = 0;
+        for (int i = 0; i < stripeDictionarySize; i++) {
+            dataLength += stripeDictionaryLength[i];
+        }
+        return dataLength;
+    }
+
     // Reads dictionary into data and offsetVector
     private static void readDictionary(
             @Nullable ByteArrayInputStream dictionaryDataStream,
@@ -610,6 +666,7 @@ public class SliceDictionarySelectiveReader
         stripeDictionarySize = stripe.getColumnEncodings().get(context.getStreamDescriptor().getStreamId())
                 .getColumnEncoding(context.getStreamDescriptor().getSequence())
                 .getDictionarySize();
+        sliceDictionaryProvider = stripe.getSliceDictionaryProvider();
         stripeDictionaryOpen = false;
 
         presentStreamSource = getBooleanMissingStreamSource();
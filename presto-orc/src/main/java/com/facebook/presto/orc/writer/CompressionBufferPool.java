@@ -16,6 +16,7 @@ package com.facebook.presto.orc.writer;
 import org.openjdk.jol.info.ClassLayout;
 
 import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
 
 import static io.airlift.slice.SizeOf.sizeOf;
 import static java.util.Objects.requireNonNull;
@@ -59,4 +60,39 @@ public interface CompressionBufferPool
             return INSTANCE_SIZE + sizeOf(lastUsed);
         }
     }
+
+    /**
+     * Guards a pool shared by column writers that encode on different threads.
+     */
+    @ThreadSafe
+    class SynchronizedCompressionBufferPool
+            implements CompressionBufferPool
+    {
+        private static final int INSTANCE_SIZE = ClassLayout.parseClass(SynchronizedCompressionBufferPool.class).instanceSize();
+
+        private final CompressionBufferPool delegate;
+
+        public SynchronizedCompressionBufferPool(CompressionBufferPool delegate)
+        {
+            this.delegate = requireNonNull(delegate, "delegate is null");
+        }
+
+        @Override
+        public synchronized byte[] checkOut(int length)
+        {
+            return delegate.checkOut(length);
+        }
+
+        @Override
+        public synchronized void checkIn(byte[] buffer)
+        {
+            delegate.checkIn(buffer);
+        }
+
+        @Override
+        public synchronized long getRetainedBytes()
+        {
+            return INSTANCE_SIZE + delegate.getRetainedBytes();
+        }
+    }
 }
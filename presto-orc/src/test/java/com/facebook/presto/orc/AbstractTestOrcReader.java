@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.orc;
 
+import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.type.CharType;
 import com.facebook.presto.common.type.DecimalType;
 import com.facebook.presto.common.type.SqlDate;
@@ -26,6 +27,7 @@ import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
 import com.facebook.presto.orc.metadata.CompressionKind;
 import com.facebook.presto.orc.metadata.OrcFileTail;
 import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.reader.SliceDictionary;
 import com.google.common.base.Strings;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -79,6 +81,7 @@ import static com.facebook.presto.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
 import static com.facebook.presto.orc.OrcTester.createCustomOrcRecordReader;
 import static com.facebook.presto.orc.OrcTester.createOrcRecordWriter;
 import static com.facebook.presto.orc.OrcTester.createSettableStructObjectInspector;
+import static com.facebook.presto.orc.OrcTester.writeOrcColumnPresto;
 import static com.facebook.presto.testing.DateTimeTestingUtils.sqlTimestampOf;
 import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
 import static com.google.common.collect.Iterables.concat;
@@ -253,6 +256,41 @@ public abstract class AbstractTestOrcReader
         }
     }
 
+    @Test
+    public void testSliceDictionaryCaching()
+            throws Exception
+    {
+        Cache<StripeStreamId, SliceDictionary> sliceDictionaryCache = CacheBuilder.newBuilder()
+                .maximumWeight(new DataSize(1, MEGABYTE).toBytes())
+                .weigher((id, dictionary) -> toIntExact(((SliceDictionary) dictionary).getRetainedSizeInBytes()))
+                .recordStats()
+                .build();
+        // the dictionary cache does not need the stripe metadata cache
+        StripeMetadataSource stripeMetadataSource = new CachingSliceDictionaryStripeMetadataSource(new StorageStripeMetadataSource(), sliceDictionaryCache);
+
+        List<String> values = ImmutableList.copyOf(limit(cycle("apple", "banana", "cherry"), 10001));
+        try (TempFile tempFile = new TempFile()) {
+            writeOrcColumnPresto(tempFile.getFile(), ORC_12, CompressionKind.NONE, VARCHAR, values);
+
+            OrcBatchRecordReader storageReader = createCustomOrcRecordReader(tempFile, ORC, OrcPredicate.TRUE, ImmutableList.of(VARCHAR), INITIAL_BATCH_SIZE, new StorageOrcFileTailSource(), stripeMetadataSource, true, ImmutableMap.of(), false);
+            OrcBatchRecordReader cacheReader = createCustomOrcRecordReader(tempFile, ORC, OrcPredicate.TRUE, ImmutableList.of(VARCHAR), INITIAL_BATCH_SIZE, new StorageOrcFileTailSource(), stripeMetadataSource, true, ImmutableMap.of(), false);
+
+            assertEquals(storageReader.nextBatch(), cacheReader.nextBatch());
+            Block storageBlock = storageReader.readBlock(0);
+            assertEquals(sliceDictionaryCache.stats().missCount(), 1);
+            assertEquals(sliceDictionaryCache.stats().hitCount(), 0);
+            Block cacheBlock = cacheReader.readBlock(0);
+            assertEquals(sliceDictionaryCache.stats().missCount(), 1);
+            assertEquals(sliceDictionaryCache.stats().hitCount(), 1);
+
+            assertEquals(cacheBlock.getPositionCount(), storageBlock.getPositionCount());
+            for (int position = 0; position < storageBlock.getPositionCount(); position++) {
+                assertEquals(VARCHAR.getSlice(cacheBlock, position), VARCHAR.getSlice(storageBlock, position));
+                assertEquals(VARCHAR.getSlice(cacheBlock, position).toStringUtf8(), values.get(position));
+            }
+        }
+    }
+
     private static TempFile createTempFile(int nRecords)
             throws IOException, SerDeException
     {
@@ -20,8 +20,12 @@ import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
+import javax.validation.constraints.AssertTrue;
+
 import java.util.Map;
 
+import static com.facebook.airlift.testing.ValidationAssertions.assertFailsValidation;
+import static com.facebook.airlift.testing.ValidationAssertions.assertValidates;
 import static com.facebook.presto.orc.OrcDataSourceUtils.EXPECTED_FOOTER_SIZE_IN_BYTES;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
@@ -46,6 +50,9 @@ public class TestOrcCacheConfig
                 .setRowGroupIndexCacheEnabled(false)
                 .setRowGroupIndexCacheSize(new DataSize(0, BYTE))
                 .setRowGroupIndexCacheTtlSinceLastAccess(new Duration(0, SECONDS))
+                .setDictionaryCacheEnabled(false)
+                .setDictionaryCacheSize(new DataSize(0, BYTE))
+                .setDictionaryCacheTtlSinceLastAccess(new Duration(0, SECONDS))
                 .setDwrfStripeCacheEnabled(true)
                 .setExpectedFileTailSize(new DataSize(EXPECTED_FOOTER_SIZE_IN_BYTES, BYTE)));
     }
@@ -65,6 +72,9 @@ public class TestOrcCacheConfig
                 .put("orc.row-group-index-cache-enabled", "true")
                 .put("orc.row-group-index-cache-size", "4GB")
                 .put("orc.row-group-index-cache-ttl-since-last-access", "5m")
+                .put("orc.dictionary-cache-enabled", "true")
+                .put("orc.dictionary-cache-size", "512MB")
+                .put("orc.dictionary-cache-ttl-since-last-access", "15m")
                 .put("orc.dwrf-stripe-cache-enabled", "false")
                 .put("orc.expected-file-tail-size", "8MB")
                 .build();
@@ -81,9 +91,32 @@ public class TestOrcCacheConfig
                 .setRowGroupIndexCacheEnabled(true)
                 .setRowGroupIndexCacheSize(new DataSize(4, GIGABYTE))
                 .setRowGroupIndexCacheTtlSinceLastAccess(new Duration(5, MINUTES))
+                .setDictionaryCacheEnabled(true)
+                .setDictionaryCacheSize(new DataSize(512, MEGABYTE))
+                .setDictionaryCacheTtlSinceLastAccess(new Duration(15, MINUTES))
                 .setDwrfStripeCacheEnabled(false)
                 .setExpectedFileTailSize(new DataSize(8, MEGABYTE));
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
+
+    @Test
+    public void testDictionaryCacheValidation()
+    {
+        assertValidates(new OrcCacheConfig()
+                .setDictionaryCacheEnabled(true)
+                .setDictionaryCacheSize(new DataSize(512, MEGABYTE))
+                .setDictionaryCacheTtlSinceLastAccess(new Duration(15, MINUTES)));
+
+        assertFailsValidation(
+                new OrcCacheConfig().setDictionaryCacheEnabled(true).setDictionaryCacheTtlSinceLastAccess(new Duration(15, MINUTES)),
+                "dictionaryCacheConfigured",
+                "orc.dictionary-cache-size and orc.dictionary-cache-ttl-since-last-access must be non-zero when orc.dictionary-cache-enabled is set",
+                AssertTrue.class);
+        assertFailsValidation(
+                new OrcCacheConfig().setDictionaryCacheEnabled(true).setDictionaryCacheSize(new DataSize(512, MEGABYTE)),
+                "dictionaryCacheConfigured",
+                "orc.dictionary-cache-size and orc.dictionary-cache-ttl-since-last-access must be non-zero when orc.dictionary-cache-enabled is set",
+                AssertTrue.class);
+    }
 }
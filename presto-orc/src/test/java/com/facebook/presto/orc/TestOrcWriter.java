@@ -33,6 +33,7 @@ import io.airlift.units.DataSize;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Comparator;
@@ -41,11 +42,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.facebook.airlift.testing.Assertions.assertGreaterThanOrEqual;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.orc.DwrfEncryptionProvider.NO_ENCRYPTION;
 import static com.facebook.presto.orc.NoOpOrcWriterStats.NOOP_WRITER_STATS;
@@ -59,6 +62,8 @@ import static com.facebook.presto.orc.metadata.CompressionKind.NONE;
 import static com.facebook.presto.orc.metadata.CompressionKind.ZLIB;
 import static com.facebook.presto.orc.metadata.CompressionKind.ZSTD;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 
@@ -179,6 +184,74 @@ public class TestOrcWriter
         }
     }
 
+    @Test(dataProvider = "compressionLevels")
+    public void testParallelEncodingAndAsyncStripeFlush(OrcEncoding encoding, CompressionKind kind, OptionalInt level)
+            throws IOException
+    {
+        ExecutorService columnEncodingExecutor = newFixedThreadPool(3);
+        ExecutorService stripeFlushExecutor = newCachedThreadPool();
+        try {
+            byte[] expected = writeStripes(encoding, kind, createMultiStripeOptionsBuilder(level).build());
+            byte[] actual = writeStripes(encoding, kind, createMultiStripeOptionsBuilder(level)
+                    .withColumnEncodingExecutor(columnEncodingExecutor)
+                    .withStripeFlushExecutor(stripeFlushExecutor)
+                    .build());
+            assertEquals(actual, expected);
+        }
+        finally {
+            columnEncodingExecutor.shutdownNow();
+            stripeFlushExecutor.shutdownNow();
+        }
+    }
+
+    private static OrcWriterOptions.Builder createMultiStripeOptionsBuilder(OptionalInt level)
+    {
+        return OrcWriterOptions.builder()
+                .withFlushPolicy(DefaultOrcWriterFlushPolicy.builder()
+                        .withStripeMinSize(new DataSize(0, MEGABYTE))
+                        .withStripeMaxSize(new DataSize(32, MEGABYTE))
+                        .withStripeMaxRowCount(10_000)
+                        .build())
+                .withRowGroupMaxRowCount(1_000)
+                .withCompressionLevel(level);
+    }
+
+    private static byte[] writeStripes(OrcEncoding encoding, CompressionKind kind, OrcWriterOptions options)
+            throws IOException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        OrcWriter writer = new OrcWriter(
+                new OutputStreamDataSink(output),
+                ImmutableList.of("id", "dictionary", "direct"),
+                ImmutableList.of(BIGINT, VARCHAR, VARCHAR),
+                encoding,
+                kind,
+                Optional.empty(),
+                NO_ENCRYPTION,
+                options,
+                ImmutableMap.of(),
+                HIVE_STORAGE_TIME_ZONE,
+                false,
+                null,
+                NOOP_WRITER_STATS);
+
+        // five pages of 7,000 rows each span several stripes, and stripes end in the middle of pages
+        for (int page = 0; page < 5; page++) {
+            BlockBuilder ids = BIGINT.createBlockBuilder(null, 7_000);
+            BlockBuilder dictionary = VARCHAR.createBlockBuilder(null, 7_000);
+            BlockBuilder direct = VARCHAR.createBlockBuilder(null, 7_000);
+            for (int position = 0; position < 7_000; position++) {
+                long id = page * 7_000L + position;
+                BIGINT.writeLong(ids, id);
+                VARCHAR.writeSlice(dictionary, Slices.utf8Slice("value" + id % 10));
+                VARCHAR.writeSlice(direct, Slices.utf8Slice("value" + id * 31));
+            }
+            writer.write(new Page(ids.build(), dictionary.build(), direct.build()));
+        }
+        writer.close();
+        return output.toByteArray();
+    }
+
     @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Dummy exception from mocked instance")
     public void testVerifyNoIllegalStateException()
             throws IOException
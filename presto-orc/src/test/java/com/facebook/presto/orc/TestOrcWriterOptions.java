@@ -25,6 +25,7 @@ import java.util.Optional;
 import java.util.OptionalInt;
 
 import static com.facebook.presto.orc.metadata.DwrfStripeCacheMode.INDEX_AND_FOOTER;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
@@ -112,7 +113,8 @@ public class TestOrcWriterOptions
                 .withPreserveDirectEncodingStripeCount(preserveDirectEncodingStripeCount)
                 .withFlattenedColumns(ImmutableSet.of(4, 3))
                 .withMapStatisticsEnabled(mapStatisticsEnabled)
-                .withMaxFlattenedMapKeyCount(maxFlattenedMapKeyCount);
+                .withMaxFlattenedMapKeyCount(maxFlattenedMapKeyCount)
+                .withColumnEncodingExecutor(directExecutor());
 
         OrcWriterOptions options = builder.build();
 
@@ -136,6 +138,8 @@ public class TestOrcWriterOptions
         assertEquals(options.getFlattenedColumns(), ImmutableSet.of(4, 3));
         assertEquals(options.isMapStatisticsEnabled(), mapStatisticsEnabled);
         assertEquals(options.getMaxFlattenedMapKeyCount(), maxFlattenedMapKeyCount);
+        assertEquals(options.getColumnEncodingExecutor(), Optional.of(directExecutor()));
+        assertEquals(options.getStripeFlushExecutor(), Optional.empty());
     }
 
     @Test
@@ -195,7 +199,7 @@ public class TestOrcWriterOptions
                 "stringDictionarySortingEnabled=true, stringDictionaryEncodingEnabled=true, " +
                 "dwrfWriterOptions=Optional[DwrfStripeCacheOptions{stripeCacheMode=INDEX_AND_FOOTER, stripeCacheMaxSize=4MB}], " +
                 "ignoreDictionaryRowGroupSizes=false, preserveDirectEncodingStripeCount=0, flattenedColumns=[4], mapStatisticsEnabled=true, " +
-                "maxFlattenedMapKeyCount=27}";
+                "maxFlattenedMapKeyCount=27, columnEncodingExecutor=false, stripeFlushExecutor=false}";
         assertEquals(expectedString, writerOptions.toString());
     }
 }
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.parquet;
 
+import com.facebook.presto.common.block.Block;
 import com.facebook.presto.parquet.reader.ColumnChunk;
 import com.facebook.presto.parquet.reader.PageReader;
 import org.apache.parquet.internal.filter2.columnindex.RowRanges;
@@ -27,5 +28,16 @@ public interface ColumnReader
 
     ColumnChunk readNext();
 
+    /**
+     * Reads only the given positions of the next batch. The positions must be sorted in ascending order.
+     * The returned chunk has no definition or repetition levels, so this is only meant for columns that
+     * are not nested. Readers that cannot skip values decode the whole batch and copy the positions.
+     */
+    default ColumnChunk readNext(int[] positions, int positionCount)
+    {
+        Block block = readNext().getBlock();
+        return new ColumnChunk(block.copyPositions(positions, 0, positionCount), new int[0], new int[0]);
+    }
+
     long getRetainedSizeInBytes();
 }
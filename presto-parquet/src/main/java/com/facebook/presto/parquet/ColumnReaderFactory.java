@@ -52,6 +52,7 @@ import static com.facebook.presto.parquet.ParquetTypeUtils.isTimeMicrosType;
 import static com.facebook.presto.parquet.ParquetTypeUtils.isTimeStampMicrosType;
 import static com.facebook.presto.parquet.ParquetTypeUtils.isUuidType;
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.BINARY;
 
 public class ColumnReaderFactory
 {
@@ -63,6 +64,22 @@ public class ColumnReaderFactory
 
     public static ColumnReader createReader(RichColumnDescriptor descriptor, boolean batchReadEnabled)
     {
+        return createReader(descriptor, batchReadEnabled, false);
+    }
+
+    /**
+     * @param dictionaryBlocksEnabled whether flat binary columns are read with the batch reader and
+     * returned as dictionary blocks over the dictionary of the column chunk when the values are dictionary encoded
+     */
+    public static ColumnReader createReader(RichColumnDescriptor descriptor, boolean batchReadEnabled, boolean dictionaryBlocksEnabled)
+    {
+        if (dictionaryBlocksEnabled &&
+                descriptor.getPath().length == 1 &&
+                descriptor.getPrimitiveType().getPrimitiveTypeName() == BINARY &&
+                !isDecimalType(descriptor)) {
+            return new BinaryFlatBatchReader(descriptor, true);
+        }
+
         if (batchReadEnabled) {
             final boolean isNested = descriptor.getPath().length > 1;
             switch (descriptor.getPrimitiveType().getPrimitiveTypeName()) {
@@ -15,6 +15,7 @@
 package com.facebook.presto.parquet.batchreader;
 
 import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.DictionaryBlock;
 import com.facebook.presto.common.block.RunLengthEncodedBlock;
 import com.facebook.presto.common.block.VariableWidthBlock;
 import com.facebook.presto.parquet.ColumnReader;
@@ -26,6 +27,9 @@ import com.facebook.presto.parquet.batchreader.decoders.Decoders.FlatDecoders;
 import com.facebook.presto.parquet.batchreader.decoders.FlatDefinitionLevelDecoder;
 import com.facebook.presto.parquet.batchreader.decoders.ValuesDecoder.BinaryValuesDecoder;
 import com.facebook.presto.parquet.batchreader.decoders.ValuesDecoder.BinaryValuesDecoder.ValueBuffer;
+import com.facebook.presto.parquet.batchreader.decoders.rle.BinaryRLEDictionaryValuesDecoder;
+import com.facebook.presto.parquet.batchreader.decoders.rle.BinaryRLEDictionaryValuesDecoder.RLEValueBuffer;
+import com.facebook.presto.parquet.batchreader.dictionary.BinaryBatchDictionary;
 import com.facebook.presto.parquet.batchreader.dictionary.Dictionaries;
 import com.facebook.presto.parquet.dictionary.Dictionary;
 import com.facebook.presto.parquet.reader.ColumnChunk;
@@ -53,6 +57,7 @@ public class BinaryFlatBatchReader
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(BinaryFlatBatchReader.class).instanceSize();
 
     private final RichColumnDescriptor columnDescriptor;
+    private final boolean dictionaryBlocksEnabled;
 
     protected Field field;
     protected int nextBatchSize;
@@ -61,12 +66,20 @@ public class BinaryFlatBatchReader
     protected int remainingCountInPage;
 
     private Dictionary dictionary;
+    // dictionary of the column chunk with a trailing null entry, shared by the dictionary blocks of all batches
+    private Block dictionaryBlock;
     private int readOffset;
     private PageReader pageReader;
 
     public BinaryFlatBatchReader(RichColumnDescriptor columnDescriptor)
+    {
+        this(columnDescriptor, false);
+    }
+
+    public BinaryFlatBatchReader(RichColumnDescriptor columnDescriptor, boolean dictionaryBlocksEnabled)
     {
         this.columnDescriptor = requireNonNull(columnDescriptor, "columnDescriptor is null");
+        this.dictionaryBlocksEnabled = dictionaryBlocksEnabled;
     }
 
     @Override
@@ -98,15 +111,21 @@ public class BinaryFlatBatchReader
 
     @Override
     public ColumnChunk readNext()
+    {
+        return readNext(null, nextBatchSize);
+    }
+
+    @Override
+    public ColumnChunk readNext(int[] positions, int positionCount)
     {
         ColumnChunk columnChunk = null;
         try {
             seek();
             if (field.isRequired()) {
-                columnChunk = readWithoutNull();
+                columnChunk = readWithoutNull(positions, positionCount);
             }
             else {
-                columnChunk = readWithNull();
+                columnChunk = readWithNull(positions, positionCount);
             }
         }
         catch (IOException ex) {
@@ -125,6 +144,7 @@ public class BinaryFlatBatchReader
                 (definitionLevelDecoder == null ? 0 : definitionLevelDecoder.getRetainedSizeInBytes()) +
                 (valuesDecoder == null ? 0 : valuesDecoder.getRetainedSizeInBytes()) +
                 (dictionary == null ? 0 : dictionary.getRetainedSizeInBytes()) +
+                (dictionaryBlock == null ? 0 : dictionaryBlock.getRetainedSizeInBytes()) +
                 (pageReader == null ? 0 : pageReader.getRetainedSizeInBytes());
     }
 
@@ -147,50 +167,70 @@ public class BinaryFlatBatchReader
         return true;
     }
 
-    private ColumnChunk readWithNull()
+    /**
+     * @param positions positions of the batch to read, or null to read the whole batch
+     */
+    private ColumnChunk readWithNull(int[] positions, int positionCount)
             throws IOException
     {
-        boolean[] isNull = new boolean[nextBatchSize];
+        boolean[] isNull = new boolean[positionCount];
 
         List<ValueBuffer> valueBuffers = new ArrayList<>();
         List<ValuesDecoderContext> valuesDecoderContexts = new ArrayList<>();
         int bufferSize = 0;
 
         int totalNonNullCount = 0;
-        int remainingInBatch = nextBatchSize;
+        int nextPosition = 0;
         int startOffset = 0;
-        while (remainingInBatch > 0) {
-            if (remainingCountInPage == 0) {
-                if (!readNextPage()) {
-                    break;
+        while (startOffset < positionCount) {
+            int runStart = positions == null ? startOffset : positions[startOffset];
+            int runLength = getRunLength(positions, startOffset, positionCount);
+            skip(runStart - nextPosition);
+            nextPosition = runStart + runLength;
+
+            int remainingInRun = runLength;
+            while (remainingInRun > 0) {
+                if (remainingCountInPage == 0) {
+                    if (!readNextPage()) {
+                        break;
+                    }
                 }
-            }
 
-            int readChunkSize = Math.min(remainingCountInPage, remainingInBatch);
-            int nonNullCount = definitionLevelDecoder.readNext(isNull, startOffset, readChunkSize);
-            totalNonNullCount += nonNullCount;
+                int readChunkSize = Math.min(remainingCountInPage, remainingInRun);
+                int nonNullCount = definitionLevelDecoder.readNext(isNull, startOffset, readChunkSize);
+                totalNonNullCount += nonNullCount;
 
-            ValueBuffer valueBuffer = valuesDecoder.readNext(nonNullCount);
-            bufferSize += valueBuffer.getBufferSize();
-            valueBuffers.add(valueBuffer);
+                ValueBuffer valueBuffer = valuesDecoder.readNext(nonNullCount);
+                bufferSize += valueBuffer.getBufferSize();
+                valueBuffers.add(valueBuffer);
 
-            ValuesDecoderContext<BinaryValuesDecoder> valuesDecoderContext = new ValuesDecoderContext(valuesDecoder, startOffset, startOffset + readChunkSize);
-            valuesDecoderContext.setValueCount(readChunkSize);
-            valuesDecoderContext.setNonNullCount(nonNullCount);
-            valuesDecoderContexts.add(valuesDecoderContext);
+                ValuesDecoderContext<BinaryValuesDecoder> valuesDecoderContext = new ValuesDecoderContext(valuesDecoder, startOffset, startOffset + readChunkSize);
+                valuesDecoderContext.setValueCount(readChunkSize);
+                valuesDecoderContext.setNonNullCount(nonNullCount);
+                valuesDecoderContexts.add(valuesDecoderContext);
 
-            startOffset += readChunkSize;
-            remainingInBatch -= readChunkSize;
-            remainingCountInPage -= readChunkSize;
+                startOffset += readChunkSize;
+                remainingInRun -= readChunkSize;
+                remainingCountInPage -= readChunkSize;
+            }
+
+            if (remainingInRun != 0) {
+                break;
+            }
         }
+        skip(nextBatchSize - nextPosition);
 
         if (totalNonNullCount == 0) {
-            Block block = RunLengthEncodedBlock.create(field.getType(), null, nextBatchSize);
+            Block block = RunLengthEncodedBlock.create(field.getType(), null, positionCount);
             return new ColumnChunk(block, new int[0], new int[0]);
         }
 
+        if (isDictionaryEncoded(valuesDecoderContexts)) {
+            return new ColumnChunk(createDictionaryBlock(valueBuffers, isNull, positionCount), new int[0], new int[0]);
+        }
+
         byte[] byteBuffer = new byte[bufferSize];
-        int[] offsets = new int[nextBatchSize + 1];
+        int[] offsets = new int[positionCount + 1];
 
         int i = 0;
         int bufferIndex = 0;
@@ -222,46 +262,66 @@ public class BinaryFlatBatchReader
         }
 
         Slice buffer = Slices.wrappedBuffer(byteBuffer, 0, bufferSize);
-        boolean hasNoNull = totalNonNullCount == nextBatchSize;
-        Block block = new VariableWidthBlock(nextBatchSize, buffer, offsets, hasNoNull ? Optional.empty() : Optional.of(isNull));
+        boolean hasNoNull = totalNonNullCount == positionCount;
+        Block block = new VariableWidthBlock(positionCount, buffer, offsets, hasNoNull ? Optional.empty() : Optional.of(isNull));
         return new ColumnChunk(block, new int[0], new int[0]);
     }
 
-    private ColumnChunk readWithoutNull()
+    /**
+     * @param positions positions of the batch to read, or null to read the whole batch
+     */
+    private ColumnChunk readWithoutNull(int[] positions, int positionCount)
             throws IOException
     {
-        boolean[] isNull = new boolean[nextBatchSize];
+        boolean[] isNull = new boolean[positionCount];
         List<ValueBuffer> valueBuffers = new ArrayList<>();
         List<ValuesDecoderContext> valuesDecoderContexts = new ArrayList<>();
         int bufferSize = 0;
 
-        int remainingInBatch = nextBatchSize;
+        int nextPosition = 0;
         int startOffset = 0;
-        while (remainingInBatch > 0) {
-            if (remainingCountInPage == 0) {
-                if (!readNextPage()) {
-                    break;
+        while (startOffset < positionCount) {
+            int runStart = positions == null ? startOffset : positions[startOffset];
+            int runLength = getRunLength(positions, startOffset, positionCount);
+            skip(runStart - nextPosition);
+            nextPosition = runStart + runLength;
+
+            int remainingInRun = runLength;
+            while (remainingInRun > 0) {
+                if (remainingCountInPage == 0) {
+                    if (!readNextPage()) {
+                        break;
+                    }
                 }
-            }
 
-            int readChunkSize = Math.min(remainingCountInPage, remainingInBatch);
+                int readChunkSize = Math.min(remainingCountInPage, remainingInRun);
+
+                ValueBuffer valueBuffer = valuesDecoder.readNext(readChunkSize);
+                bufferSize += valueBuffer.getBufferSize();
+                valueBuffers.add(valueBuffer);
 
-            ValueBuffer valueBuffer = valuesDecoder.readNext(readChunkSize);
-            bufferSize += valueBuffer.getBufferSize();
-            valueBuffers.add(valueBuffer);
+                ValuesDecoderContext<BinaryValuesDecoder> valuesDecoderContext = new ValuesDecoderContext(valuesDecoder, startOffset, startOffset + readChunkSize);
+                valuesDecoderContext.setValueCount(readChunkSize);
+                valuesDecoderContext.setNonNullCount(readChunkSize);
+                valuesDecoderContexts.add(valuesDecoderContext);
 
-            ValuesDecoderContext<BinaryValuesDecoder> valuesDecoderContext = new ValuesDecoderContext(valuesDecoder, startOffset, startOffset + readChunkSize);
-            valuesDecoderContext.setValueCount(readChunkSize);
-            valuesDecoderContext.setNonNullCount(readChunkSize);
-            valuesDecoderContexts.add(valuesDecoderContext);
+                startOffset += readChunkSize;
+                remainingInRun -= readChunkSize;
+                remainingCountInPage -= readChunkSize;
+            }
+
+            if (remainingInRun != 0) {
+                break;
+            }
+        }
+        skip(nextBatchSize - nextPosition);
 
-            startOffset += readChunkSize;
-            remainingInBatch -= readChunkSize;
-            remainingCountInPage -= readChunkSize;
+        if (isDictionaryEncoded(valuesDecoderContexts)) {
+            return new ColumnChunk(createDictionaryBlock(valueBuffers, isNull, positionCount), new int[0], new int[0]);
         }
 
         byte[] byteBuffer = new byte[bufferSize];
-        int[] offsets = new int[nextBatchSize + 1];
+        int[] offsets = new int[positionCount + 1];
 
         int i = 0;
         int bufferIndex = 0;
@@ -275,37 +335,101 @@ public class BinaryFlatBatchReader
         }
 
         Slice buffer = Slices.wrappedBuffer(byteBuffer, 0, bufferSize);
-        Block block = new VariableWidthBlock(nextBatchSize, buffer, offsets, Optional.of(isNull));
+        Block block = new VariableWidthBlock(positionCount, buffer, offsets, Optional.of(isNull));
         return new ColumnChunk(block, new int[0], new int[0]);
     }
 
+    private boolean isDictionaryEncoded(List<ValuesDecoderContext> valuesDecoderContexts)
+    {
+        if (!dictionaryBlocksEnabled || valuesDecoderContexts.isEmpty()) {
+            return false;
+        }
+        for (ValuesDecoderContext valuesDecoderContext : valuesDecoderContexts) {
+            if (!(valuesDecoderContext.getValuesDecoder() instanceof BinaryRLEDictionaryValuesDecoder)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Block createDictionaryBlock(List<ValueBuffer> valueBuffers, boolean[] isNull, int positionCount)
+    {
+        BinaryBatchDictionary binaryDictionary = (BinaryBatchDictionary) dictionary;
+        int nullId = binaryDictionary.getDictionarySize();
+        if (dictionaryBlock == null) {
+            int[] offsets = new int[nullId + 2];
+            for (int id = 0; id < nullId; id++) {
+                offsets[id + 1] = offsets[id] + binaryDictionary.getLength(id);
+            }
+            offsets[nullId + 1] = offsets[nullId];
+            byte[] data = new byte[offsets[nullId]];
+            for (int id = 0; id < nullId; id++) {
+                binaryDictionary.copyTo(data, offsets[id], id);
+            }
+            boolean[] dictionaryIsNull = new boolean[nullId + 1];
+            dictionaryIsNull[nullId] = true;
+            dictionaryBlock = new VariableWidthBlock(nullId + 1, Slices.wrappedBuffer(data), offsets, Optional.of(dictionaryIsNull));
+        }
+
+        // the buffers hold the ids of the non-null values only
+        int[] ids = new int[positionCount];
+        int position = 0;
+        for (ValueBuffer valueBuffer : valueBuffers) {
+            int[] dictionaryIds = ((RLEValueBuffer) valueBuffer).getDictionaryIds();
+            for (int dictionaryId : dictionaryIds) {
+                while (isNull[position]) {
+                    ids[position++] = nullId;
+                }
+                ids[position++] = dictionaryId;
+            }
+        }
+        while (position < positionCount) {
+            ids[position++] = nullId;
+        }
+        return new DictionaryBlock(positionCount, dictionaryBlock, ids);
+    }
+
     private void seek()
             throws IOException
     {
-        if (readOffset == 0) {
-            return;
-        }
+        skip(readOffset);
+    }
 
-        int remainingInBatch = readOffset;
-        int startOffset = 0;
-        while (remainingInBatch > 0) {
+    private void skip(int valueCount)
+            throws IOException
+    {
+        int remainingToSkip = valueCount;
+        while (remainingToSkip > 0) {
             if (remainingCountInPage == 0) {
                 if (!readNextPage()) {
                     break;
                 }
             }
 
-            int chunkSize = Math.min(remainingCountInPage, remainingInBatch);
+            int chunkSize = Math.min(remainingCountInPage, remainingToSkip);
             int skipSize = chunkSize;
             if (!columnDescriptor.isRequired()) {
-                boolean[] isNull = new boolean[readOffset];
-                int nonNullCount = definitionLevelDecoder.readNext(isNull, startOffset, chunkSize);
-                skipSize = nonNullCount;
-                startOffset += chunkSize;
+                boolean[] isNull = new boolean[chunkSize];
+                skipSize = definitionLevelDecoder.readNext(isNull, 0, chunkSize);
             }
             valuesDecoder.skip(skipSize);
-            remainingInBatch -= chunkSize;
+            remainingToSkip -= chunkSize;
             remainingCountInPage -= chunkSize;
         }
     }
+
+    /**
+     * Returns the number of consecutive positions starting at the given offset.
+     */
+    private static int getRunLength(int[] positions, int offset, int positionCount)
+    {
+        if (positions == null) {
+            return positionCount - offset;
+        }
+        int end = offset + 1;
+        while (end < positionCount && positions[end] == positions[end - 1] + 1) {
+            end++;
+        }
+        return end - offset;
+    }
 }
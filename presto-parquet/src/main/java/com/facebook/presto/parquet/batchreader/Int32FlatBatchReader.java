@@ -93,15 +93,21 @@ public class Int32FlatBatchReader
 
     @Override
     public ColumnChunk readNext()
+    {
+        return readNext(null, nextBatchSize);
+    }
+
+    @Override
+    public ColumnChunk readNext(int[] positions, int positionCount)
     {
         ColumnChunk columnChunk = null;
         try {
             seek();
             if (field.isRequired()) {
-                columnChunk = readWithoutNull();
+                columnChunk = readWithoutNull(positions, positionCount);
             }
             else {
-                columnChunk = readWithNull();
+                columnChunk = readWithNull(positions, positionCount);
             }
         }
         catch (IOException exception) {
@@ -142,116 +148,154 @@ public class Int32FlatBatchReader
         return true;
     }
 
-    private ColumnChunk readWithNull()
+    /**
+     * @param positions positions of the batch to read, or null to read the whole batch
+     */
+    private ColumnChunk readWithNull(int[] positions, int positionCount)
             throws IOException
     {
-        int[] values = new int[nextBatchSize];
-        boolean[] isNull = new boolean[nextBatchSize];
+        int[] values = new int[positionCount];
+        boolean[] isNull = new boolean[positionCount];
 
         int totalNonNullCount = 0;
-        int remainingInBatch = nextBatchSize;
+        int nextPosition = 0;
         int startOffset = 0;
-        while (remainingInBatch > 0) {
-            if (remainingCountInPage == 0) {
-                if (!readNextPage()) {
-                    break;
+        while (startOffset < positionCount) {
+            int runStart = positions == null ? startOffset : positions[startOffset];
+            int runLength = getRunLength(positions, startOffset, positionCount);
+            skip(runStart - nextPosition);
+            nextPosition = runStart + runLength;
+
+            int remainingInRun = runLength;
+            while (remainingInRun > 0) {
+                if (remainingCountInPage == 0) {
+                    if (!readNextPage()) {
+                        break;
+                    }
                 }
-            }
 
-            int chunkSize = Math.min(remainingCountInPage, remainingInBatch);
-            int nonNullCount = definitionLevelDecoder.readNext(isNull, startOffset, chunkSize);
-            totalNonNullCount += nonNullCount;
+                int chunkSize = Math.min(remainingCountInPage, remainingInRun);
+                int nonNullCount = definitionLevelDecoder.readNext(isNull, startOffset, chunkSize);
+                totalNonNullCount += nonNullCount;
 
-            if (nonNullCount > 0) {
-                valuesDecoder.readNext(values, startOffset, nonNullCount);
+                if (nonNullCount > 0) {
+                    valuesDecoder.readNext(values, startOffset, nonNullCount);
 
-                int valueDestinationIndex = startOffset + chunkSize - 1;
-                int valueSourceIndex = startOffset + nonNullCount - 1;
+                    int valueDestinationIndex = startOffset + chunkSize - 1;
+                    int valueSourceIndex = startOffset + nonNullCount - 1;
 
-                while (valueDestinationIndex >= startOffset) {
-                    if (!isNull[valueDestinationIndex]) {
-                        values[valueDestinationIndex] = values[valueSourceIndex];
-                        valueSourceIndex--;
+                    while (valueDestinationIndex >= startOffset) {
+                        if (!isNull[valueDestinationIndex]) {
+                            values[valueDestinationIndex] = values[valueSourceIndex];
+                            valueSourceIndex--;
+                        }
+                        valueDestinationIndex--;
                     }
-                    valueDestinationIndex--;
                 }
-            }
 
-            startOffset += chunkSize;
-            remainingInBatch -= chunkSize;
-            remainingCountInPage -= chunkSize;
-        }
+                startOffset += chunkSize;
+                remainingInRun -= chunkSize;
+                remainingCountInPage -= chunkSize;
+            }
 
-        if (remainingInBatch != 0) {
-            throw new ParquetDecodingException("Still remaining to be read in current batch.");
+            if (remainingInRun != 0) {
+                throw new ParquetDecodingException("Still remaining to be read in current batch.");
+            }
         }
+        skip(nextBatchSize - nextPosition);
 
         if (totalNonNullCount == 0) {
-            Block block = RunLengthEncodedBlock.create(field.getType(), null, nextBatchSize);
+            Block block = RunLengthEncodedBlock.create(field.getType(), null, positionCount);
             return new ColumnChunk(block, new int[0], new int[0]);
         }
 
-        boolean hasNoNull = totalNonNullCount == nextBatchSize;
-        Block block = new IntArrayBlock(nextBatchSize, hasNoNull ? Optional.empty() : Optional.of(isNull), values);
+        boolean hasNoNull = totalNonNullCount == positionCount;
+        Block block = new IntArrayBlock(positionCount, hasNoNull ? Optional.empty() : Optional.of(isNull), values);
         return new ColumnChunk(block, new int[0], new int[0]);
     }
 
-    private ColumnChunk readWithoutNull()
+    /**
+     * @param positions positions of the batch to read, or null to read the whole batch
+     */
+    private ColumnChunk readWithoutNull(int[] positions, int positionCount)
             throws IOException
     {
-        int[] values = new int[nextBatchSize];
-        int remainingInBatch = nextBatchSize;
+        int[] values = new int[positionCount];
+        int nextPosition = 0;
         int startOffset = 0;
-        while (remainingInBatch > 0) {
-            if (remainingCountInPage == 0) {
-                if (!readNextPage()) {
-                    break;
+        while (startOffset < positionCount) {
+            int runStart = positions == null ? startOffset : positions[startOffset];
+            int runLength = getRunLength(positions, startOffset, positionCount);
+            skip(runStart - nextPosition);
+            nextPosition = runStart + runLength;
+
+            int remainingInRun = runLength;
+            while (remainingInRun > 0) {
+                if (remainingCountInPage == 0) {
+                    if (!readNextPage()) {
+                        break;
+                    }
                 }
-            }
 
-            int chunkSize = Math.min(remainingCountInPage, remainingInBatch);
+                int chunkSize = Math.min(remainingCountInPage, remainingInRun);
 
-            valuesDecoder.readNext(values, startOffset, chunkSize);
-            startOffset += chunkSize;
-            remainingInBatch -= chunkSize;
-            remainingCountInPage -= chunkSize;
-        }
+                valuesDecoder.readNext(values, startOffset, chunkSize);
+                startOffset += chunkSize;
+                remainingInRun -= chunkSize;
+                remainingCountInPage -= chunkSize;
+            }
 
-        if (remainingInBatch != 0) {
-            throw new ParquetDecodingException(format("Corrupted Parquet file: extra %d values to be consumed when scanning current batch", remainingInBatch));
+            if (remainingInRun != 0) {
+                throw new ParquetDecodingException(format("Corrupted Parquet file: extra %d values to be consumed when scanning current batch", remainingInRun));
+            }
         }
+        skip(nextBatchSize - nextPosition);
 
-        Block block = new IntArrayBlock(nextBatchSize, Optional.empty(), values);
+        Block block = new IntArrayBlock(positionCount, Optional.empty(), values);
         return new ColumnChunk(block, new int[0], new int[0]);
     }
 
     private void seek()
             throws IOException
     {
-        if (readOffset == 0) {
-            return;
-        }
+        skip(readOffset);
+    }
 
-        int remainingInBatch = readOffset;
-        int startOffset = 0;
-        while (remainingInBatch > 0) {
+    private void skip(int valueCount)
+            throws IOException
+    {
+        int remainingToSkip = valueCount;
+        while (remainingToSkip > 0) {
             if (remainingCountInPage == 0) {
                 if (!readNextPage()) {
                     break;
                 }
             }
 
-            int chunkSize = Math.min(remainingCountInPage, remainingInBatch);
+            int chunkSize = Math.min(remainingCountInPage, remainingToSkip);
             int skipSize = chunkSize;
             if (!columnDescriptor.isRequired()) {
-                boolean[] isNull = new boolean[readOffset];
-                int nonNullCount = definitionLevelDecoder.readNext(isNull, startOffset, chunkSize);
-                skipSize = nonNullCount;
-                startOffset += chunkSize;
+                boolean[] isNull = new boolean[chunkSize];
+                skipSize = definitionLevelDecoder.readNext(isNull, 0, chunkSize);
             }
             valuesDecoder.skip(skipSize);
-            remainingInBatch -= chunkSize;
+            remainingToSkip -= chunkSize;
             remainingCountInPage -= chunkSize;
         }
     }
+
+    /**
+     * Returns the number of consecutive positions starting at the given offset.
+     */
+    private static int getRunLength(int[] positions, int offset, int positionCount)
+    {
+        if (positions == null) {
+            return positionCount - offset;
+        }
+        int end = offset + 1;
+        while (end < positionCount && positions[end] == positions[end - 1] + 1) {
+            end++;
+        }
+        return end - offset;
+    }
 }
@@ -14,6 +14,7 @@
 package com.facebook.presto.parquet.predicate;
 
 import com.facebook.presto.parquet.ParquetDataSourceId;
+import com.facebook.presto.parquet.reader.ParquetBloomFilterStore;
 import com.facebook.presto.spi.WarningCollector;
 import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.column.statistics.Statistics;
@@ -43,6 +44,12 @@ public interface Predicate
         {
             return true;
         }
+
+        @Override
+        public boolean matches(ParquetBloomFilterStore bloomFilterStore)
+        {
+            return true;
+        }
     };
 
     /**
@@ -73,4 +80,12 @@ public interface Predicate
      * @param columnIndexStore column index (statistics) store
      */
     boolean matches(long numberOfRows, Optional<ColumnIndexStore> columnIndexStore);
+
+    /**
+     * Should the Parquet Reader process a file section based on the Bloom filters of its columns.
+     * Only equality and IN-list predicates can be checked against a Bloom filter.
+     *
+     * @param bloomFilterStore Bloom filter store of the row group
+     */
+    boolean matches(ParquetBloomFilterStore bloomFilterStore);
 }
@@ -22,6 +22,7 @@ import com.facebook.presto.parquet.DictionaryPage;
 import com.facebook.presto.parquet.ParquetDataSourceId;
 import com.facebook.presto.parquet.RichColumnDescriptor;
 import com.facebook.presto.parquet.dictionary.Dictionary;
+import com.facebook.presto.parquet.reader.ParquetBloomFilterStore;
 import com.facebook.presto.spi.PrestoWarning;
 import com.facebook.presto.spi.WarningCollector;
 import com.google.common.annotations.VisibleForTesting;
@@ -31,6 +32,7 @@ import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
 import org.apache.parquet.filter2.predicate.FilterApi;
 import org.apache.parquet.filter2.predicate.FilterPredicate;
 import org.apache.parquet.filter2.predicate.UserDefinedPredicate;
@@ -44,6 +46,7 @@ import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -58,6 +61,7 @@ import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.RealType.REAL;
 import static com.facebook.presto.common.type.SmallintType.SMALLINT;
 import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
 import static com.facebook.presto.common.type.Varchars.isVarcharType;
 import static com.facebook.presto.parquet.ParquetWarningCode.PARQUET_FILE_STATISTICS_CORRUPTION;
 import static com.facebook.presto.parquet.predicate.PredicateUtils.isStatisticsOverflow;
@@ -393,6 +397,84 @@ public class TupleDomainParquetPredicate
         return true;
     }
 
+    @Override
+    public boolean matches(ParquetBloomFilterStore bloomFilterStore)
+    {
+        requireNonNull(bloomFilterStore, "bloomFilterStore is null");
+        if (effectivePredicate.isNone()) {
+            return false;
+        }
+        Map<ColumnDescriptor, Domain> effectivePredicateDomains = effectivePredicate.getDomains()
+                .orElseThrow(() -> new IllegalStateException("Effective predicate other than none should have domains"));
+
+        for (RichColumnDescriptor column : columns) {
+            Domain effectivePredicateDomain = effectivePredicateDomains.get(column);
+            // Bloom filters do not record nulls
+            if (effectivePredicateDomain == null || effectivePredicateDomain.isNullAllowed() || !isBloomFilterSupported(effectivePredicateDomain.getType(), column)) {
+                continue;
+            }
+
+            Optional<Collection<Object>> discreteValues = extractDiscreteValues(effectivePredicateDomain.getValues());
+            if (!discreteValues.isPresent()) {
+                continue;
+            }
+
+            Optional<BloomFilter> bloomFilter = bloomFilterStore.getBloomFilter(ColumnPath.get(column.getPath()));
+            if (bloomFilter.isPresent() && discreteValues.get().stream().noneMatch(value -> checkInBloomFilter(bloomFilter.get(), value, column))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBloomFilterSupported(Type type, ColumnDescriptor column)
+    {
+        switch (column.getPrimitiveType().getPrimitiveTypeName()) {
+            case INT32:
+            case INT64:
+                return type.equals(BIGINT) || type.equals(INTEGER) || type.equals(SMALLINT) || type.equals(TINYINT) || type.equals(DATE);
+            case BINARY:
+                return isVarcharType(type) || type.equals(VARBINARY);
+            default:
+                // Floating point values are hashed by their bits, so 0.0 and -0.0 or different NaNs would not match
+                return false;
+        }
+    }
+
+    // checks whether a value part of the effective predicate is likely to be part of this Bloom filter
+    @VisibleForTesting
+    public static boolean checkInBloomFilter(BloomFilter bloomFilter, Object predicateValue, ColumnDescriptor column)
+    {
+        switch (column.getPrimitiveType().getPrimitiveTypeName()) {
+            case INT32:
+                long value = (long) predicateValue;
+                return value == (int) value && bloomFilter.findHash(bloomFilter.hash((int) value));
+            case INT64:
+                return bloomFilter.findHash(bloomFilter.hash((long) predicateValue));
+            case BINARY:
+                return bloomFilter.findHash(bloomFilter.hash(Binary.fromConstantByteArray(((Slice) predicateValue).getBytes())));
+            default:
+                return true;
+        }
+    }
+
+    private static Optional<Collection<Object>> extractDiscreteValues(ValueSet valueSet)
+    {
+        return valueSet.getValuesProcessor().transform(
+                ranges -> {
+                    ImmutableList.Builder<Object> discreteValues = ImmutableList.builder();
+                    for (Range range : ranges.getOrderedRanges()) {
+                        if (!range.isSingleValue()) {
+                            return Optional.empty();
+                        }
+                        discreteValues.add(range.getSingleValue());
+                    }
+                    return Optional.of(discreteValues.build());
+                },
+                discreteValues -> Optional.of(discreteValues.getValues()),
+                allOrNone -> allOrNone.isAll() ? Optional.empty() : Optional.of(ImmutableList.of()));
+    }
+
     @VisibleForTesting
     public Domain getDomain(Type type, long rowCount, ColumnIndex columnIndex, RichColumnDescriptor descriptor)
     {
@@ -154,6 +154,54 @@ public abstract class AbstractColumnReader
         return new ColumnChunk(blockBuilder.build(), definitionLevels.toIntArray(), repetitionLevels.toIntArray());
     }
 
+    @Override
+    public ColumnChunk readNext(int[] positions, int positionCount)
+    {
+        if (columnDescriptor.getMaxRepetitionLevel() > 0) {
+            return ColumnReader.super.readNext(positions, positionCount);
+        }
+
+        seek();
+        Type type = field.getType();
+        BlockBuilder blockBuilder = type.createBlockBuilder(null, positionCount);
+        // every value of a column that is not repeated is a row, so the values that are not selected are skipped without being decoded
+        Consumer<Void> valueConsumer = new Consumer<Void>()
+        {
+            private int position;
+            private int selectedCount;
+
+            @Override
+            public void accept(Void ignored)
+            {
+                if (selectedCount < positionCount && positions[selectedCount] == position) {
+                    readValue(blockBuilder, type);
+                    selectedCount++;
+                }
+                else {
+                    skipValue();
+                }
+                position++;
+            }
+        };
+
+        int valueCount = 0;
+        while (valueCount < nextBatchSize) {
+            if (page == null) {
+                readNextPage();
+            }
+            int valuesToRead = Math.min(remainingValueCountInPage, nextBatchSize - valueCount);
+            if (valuesToRead == 0) {
+                break;
+            }
+            processValues(valuesToRead, valueConsumer, indexIterator != null);
+            valueCount += valuesToRead;
+        }
+
+        readOffset = 0;
+        nextBatchSize = 0;
+        return new ColumnChunk(blockBuilder.build(), new int[0], new int[0]);
+    }
+
     @Override
     public long getRetainedSizeInBytes()
     {
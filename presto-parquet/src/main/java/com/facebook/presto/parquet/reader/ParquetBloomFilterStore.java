@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import com.facebook.presto.parquet.ParquetDataSource;
+import org.apache.parquet.column.values.bloomfilter.BlockSplitBloomFilter;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
+import org.apache.parquet.crypto.HiddenColumnChunkMetaData;
+import org.apache.parquet.format.BloomFilterHeader;
+import org.apache.parquet.format.Util;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+import static org.apache.parquet.column.values.bloomfilter.BlockSplitBloomFilter.UPPER_BOUND_BYTES;
+
+/**
+ * Lazily reads the split block Bloom filters of the column chunks in a row group.
+ * Each Bloom filter is read at most once, and only when a predicate asks for it.
+ */
+public class ParquetBloomFilterStore
+{
+    // The Thrift encoded header only holds a length and three single-field unions
+    private static final int MAX_HEADER_SIZE = 64;
+
+    private final ParquetDataSource dataSource;
+    private final Map<ColumnPath, ColumnChunkMetaData> columns = new HashMap<>();
+    private final Map<ColumnPath, Optional<BloomFilter>> bloomFilters = new HashMap<>();
+
+    public ParquetBloomFilterStore(ParquetDataSource dataSource, BlockMetaData block)
+    {
+        this.dataSource = requireNonNull(dataSource, "dataSource is null");
+        for (ColumnChunkMetaData column : block.getColumns()) {
+            if (!HiddenColumnChunkMetaData.isHiddenColumn(column) && column.getBloomFilterOffset() >= 0) {
+                columns.put(column.getPath(), column);
+            }
+        }
+    }
+
+    public Optional<BloomFilter> getBloomFilter(ColumnPath path)
+    {
+        return bloomFilters.computeIfAbsent(path, this::readBloomFilter);
+    }
+
+    private Optional<BloomFilter> readBloomFilter(ColumnPath path)
+    {
+        ColumnChunkMetaData column = columns.get(path);
+        if (column == null) {
+            return Optional.empty();
+        }
+
+        try {
+            long offset = column.getBloomFilterOffset();
+            byte[] headerBuffer = new byte[MAX_HEADER_SIZE];
+            dataSource.readFully(offset, headerBuffer);
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(headerBuffer);
+            BloomFilterHeader header = Util.readBloomFilterHeader(inputStream);
+            if (!header.getAlgorithm().isSetBLOCK() ||
+                    !header.getHash().isSetXXHASH() ||
+                    !header.getCompression().isSetUNCOMPRESSED() ||
+                    header.getNumBytes() <= 0 ||
+                    header.getNumBytes() > UPPER_BOUND_BYTES) {
+                return Optional.empty();
+            }
+
+            byte[] bitset = new byte[header.getNumBytes()];
+            dataSource.readFully(offset + headerBuffer.length - inputStream.available(), bitset);
+            return Optional.of(new BlockSplitBloomFilter(bitset));
+        }
+        catch (IOException | RuntimeException e) {
+            // A Bloom filter that cannot be read only disables the filtering;
+            // if the I/O issue still stands it will fail the reading later.
+            return Optional.empty();
+        }
+    }
+}
@@ -107,6 +107,7 @@ public class ParquetReader
     private final LocalMemoryContext pageReaderMemoryContext;
     private final LocalMemoryContext verificationPageReaderMemoryContext;
     private final boolean batchReadEnabled;
+    private final boolean dictionaryBlocksEnabled;
     private final boolean enableVerification;
     private final FilterPredicate filter;
     private final ColumnReader[] columnReaders;
@@ -144,6 +145,37 @@ public class ParquetReader
             List<ColumnIndexStore> blockIndexStores,
             boolean columnIndexFilterEnabled,
             Optional<InternalFileDecryptor> fileDecryptor)
+    {
+        this(
+                messageColumnIO,
+                blocks,
+                firstRowsOfBlocks,
+                dataSource,
+                systemMemoryContext,
+                maxReadBlockSize,
+                batchReadEnabled,
+                enableVerification,
+                parquetPredicate,
+                blockIndexStores,
+                columnIndexFilterEnabled,
+                fileDecryptor,
+                false);
+    }
+
+    public ParquetReader(
+            MessageColumnIO messageColumnIO,
+            List<BlockMetaData> blocks,
+            Optional<List<Long>> firstRowsOfBlocks,
+            ParquetDataSource dataSource,
+            AggregatedMemoryContext systemMemoryContext,
+            DataSize maxReadBlockSize,
+            boolean batchReadEnabled,
+            boolean enableVerification,
+            Predicate parquetPredicate,
+            List<ColumnIndexStore> blockIndexStores,
+            boolean columnIndexFilterEnabled,
+            Optional<InternalFileDecryptor> fileDecryptor,
+            boolean dictionaryBlocksEnabled)
     {
         this.blocks = blocks;
         this.firstRowsOfBlocks = requireNonNull(firstRowsOfBlocks, "firstRowsOfBlocks is null");
@@ -154,6 +186,7 @@ public class ParquetReader
         this.verificationPageReaderMemoryContext = systemMemoryContext.newLocalMemoryContext("PageReader");
         this.maxReadBlockBytes = requireNonNull(maxReadBlockSize, "maxReadBlockSize is null").toBytes();
         this.batchReadEnabled = batchReadEnabled;
+        this.dictionaryBlocksEnabled = dictionaryBlocksEnabled;
         columns = messageColumnIO.getLeaves();
         columnReaders = new ColumnReader[columns.size()];
         this.enableVerification = enableVerification;
@@ -323,6 +356,15 @@ public class ParquetReader
 
     private ColumnChunk readPrimitive(PrimitiveField field)
             throws IOException
+    {
+        return readPrimitive(field, null, batchSize);
+    }
+
+    /**
+     * @param positions positions of the current batch to read, or null to read the whole batch
+     */
+    private ColumnChunk readPrimitive(PrimitiveField field, int[] positions, int positionCount)
+            throws IOException
     {
         ColumnDescriptor columnDescriptor = field.getDescriptor();
 
@@ -386,7 +428,7 @@ public class ParquetReader
             }
         }
 
-        ColumnChunk columnChunk = columnReader.readNext();
+        ColumnChunk columnChunk = positions == null ? columnReader.readNext() : columnReader.readNext(positions, positionCount);
         columnChunk = typeCoercion(columnChunk, field.getDescriptor().getPrimitiveType().getPrimitiveTypeName(), field.getType());
 
         if (enableVerification) {
@@ -396,7 +438,7 @@ public class ParquetReader
         }
 
         // update max size per primitive column chunk
-        long bytesPerCell = columnChunk.getBlock().getSizeInBytes() / batchSize;
+        long bytesPerCell = columnChunk.getBlock().getSizeInBytes() / positionCount;
         if (maxBytesPerCell[fieldId] < bytesPerCell) {
             // update batch size
             maxCombinedBytesPerRow = maxCombinedBytesPerRow - maxBytesPerCell[fieldId] + bytesPerCell;
@@ -519,7 +561,7 @@ public class ParquetReader
     {
         for (PrimitiveColumnIO columnIO : columns) {
             RichColumnDescriptor column = new RichColumnDescriptor(columnIO.getColumnDescriptor(), columnIO.getType().asPrimitiveType());
-            columnReaders[columnIO.getId()] = ColumnReaderFactory.createReader(column, batchReadEnabled);
+            columnReaders[columnIO.getId()] = ColumnReaderFactory.createReader(column, batchReadEnabled, dictionaryBlocksEnabled);
 
             if (enableVerification) {
                 verificationColumnReaders[columnIO.getId()] = ColumnReaderFactory.createReader(column, false);
@@ -533,6 +575,22 @@ public class ParquetReader
         return readColumnChunk(field).getBlock();
     }
 
+    /**
+     * Reads only the given positions of the current batch. The positions must be sorted in ascending order.
+     * Primitive columns skip the values at the other positions instead of decoding them.
+     */
+    public Block readBlock(Field field, int[] positions, int positionCount)
+            throws IOException
+    {
+        if (enableVerification || !(field instanceof PrimitiveField)) {
+            return readBlock(field).getPositions(positions, 0, positionCount);
+        }
+
+        ColumnChunk columnChunk = readPrimitive((PrimitiveField) field, positions, positionCount);
+        parquetReaderMemoryContext.setBytes(getRetainedSizeInBytes());
+        return columnChunk.getBlock();
+    }
+
     private ColumnChunk readColumnChunk(Field field)
             throws IOException
     {
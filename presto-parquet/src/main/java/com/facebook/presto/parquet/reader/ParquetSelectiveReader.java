@@ -0,0 +1,505 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.LazyBlock;
+import com.facebook.presto.common.block.LazyBlockLoader;
+import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.facebook.presto.common.predicate.FilterFunction;
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BigintMultiRange;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BigintRange;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BigintValuesUsingBitmask;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BigintValuesUsingHashTable;
+import com.facebook.presto.common.type.CharType;
+import com.facebook.presto.common.type.DecimalType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.parquet.Field;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.common.Utils.nativeValueToBlock;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.common.type.VarbinaryType.isVarbinaryType;
+import static com.facebook.presto.common.type.Varchars.isVarcharType;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.Double.longBitsToDouble;
+import static java.lang.Float.intBitsToFloat;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Applies {@link TupleDomainFilter}s and {@link FilterFunction}s while reading a Parquet file.
+ * <p>
+ * Columns are read in filter-first order: columns with the most selective and cheapest
+ * domain filters are decoded first, followed by the inputs of the filter functions.
+ * Each column is only decoded at the positions that survived all the filters evaluated so far,
+ * and batches where every position has been filtered out are skipped without decoding the
+ * remaining columns. Output columns that are not needed for filtering are returned as lazy
+ * blocks that also decode only the selected positions.
+ */
+public class ParquetSelectiveReader
+        implements Closeable
+{
+    private static final Page EMPTY_PAGE = new Page(0);
+
+    private final ParquetReader parquetReader;
+    private final List<Type> columnTypes;
+    private final List<Optional<Field>> fields;
+    private final List<Integer> outputColumns;
+    private final TupleDomainFilter[] filters;
+    private final Block[] constantBlocks;
+    private final int[] readOrder;
+    // filter functions to evaluate once all the columns up to the corresponding index in readOrder have been read
+    private final List<FilterFunction>[] filterFunctionsByStep;
+    private final List<FilterFunction> filterFunctionsWithoutReads;
+    private final boolean constantFilterIsFalse;
+
+    // positions that passed the filters so far, relative to the blocks read so far
+    private int[] positions;
+    private RuntimeException[] errors;
+    // positions in the batch of the rows of the blocks read so far
+    private int[] rows;
+    private int batchId;
+    private long readPositions;
+    private long filteredPositions;
+    private long skippedBatches;
+
+    /**
+     * @param columnTypes types of all the columns accessed by the reader, indexed by channel
+     * @param fields Parquet fields indexed by channel; empty for columns that are not stored in the file
+     * @param constantValues values of the columns that are not stored in the file, e.g. partition keys; missing entries are null
+     * @param outputColumns channels to return, in order
+     * @param filters domain filters keyed by channel
+     * @param filterFunctions filter functions whose input channels refer to the channels of this reader
+     */
+    @SuppressWarnings("unchecked")
+    public ParquetSelectiveReader(
+            ParquetReader parquetReader,
+            List<Type> columnTypes,
+            List<Optional<Field>> fields,
+            Map<Integer, Object> constantValues,
+            List<Integer> outputColumns,
+            Map<Integer, TupleDomainFilter> filters,
+            List<FilterFunction> filterFunctions)
+    {
+        this.parquetReader = requireNonNull(parquetReader, "parquetReader is null");
+        this.columnTypes = ImmutableList.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
+        this.fields = ImmutableList.copyOf(requireNonNull(fields, "fields is null"));
+        this.outputColumns = ImmutableList.copyOf(requireNonNull(outputColumns, "outputColumns is null"));
+        requireNonNull(constantValues, "constantValues is null");
+        requireNonNull(filters, "filters is null");
+        requireNonNull(filterFunctions, "filterFunctions is null");
+        checkArgument(columnTypes.size() == fields.size(), "columnTypes and fields must have the same size");
+
+        int channelCount = columnTypes.size();
+        this.filters = new TupleDomainFilter[channelCount];
+        filters.forEach((channel, filter) -> this.filters[channel] = filter);
+
+        this.constantBlocks = new Block[channelCount];
+        boolean constantFilterIsFalse = false;
+        for (int channel = 0; channel < channelCount; channel++) {
+            if (!fields.get(channel).isPresent()) {
+                constantBlocks[channel] = nativeValueToBlock(columnTypes.get(channel), constantValues.get(channel));
+                if (this.filters[channel] != null && !testPosition(constantBlocks[channel], 0, columnTypes.get(channel), this.filters[channel])) {
+                    constantFilterIsFalse = true;
+                }
+                this.filters[channel] = null;
+            }
+        }
+        this.constantFilterIsFalse = constantFilterIsFalse;
+
+        this.readOrder = orderColumns(this.filters, filterFunctions, this.fields, this.columnTypes);
+
+        Map<Integer, Integer> stepByChannel = new HashMap<>();
+        for (int step = 0; step < readOrder.length; step++) {
+            stepByChannel.put(readOrder[step], step);
+        }
+        this.filterFunctionsByStep = new List[readOrder.length];
+        ImmutableList.Builder<FilterFunction> filterFunctionsWithoutReads = ImmutableList.builder();
+        for (FilterFunction function : filterFunctions) {
+            int lastStep = Arrays.stream(function.getInputChannels())
+                    .filter(channel -> fields.get(channel).isPresent())
+                    .map(stepByChannel::get)
+                    .max()
+                    .orElse(-1);
+            if (lastStep < 0) {
+                filterFunctionsWithoutReads.add(function);
+            }
+            else {
+                if (filterFunctionsByStep[lastStep] == null) {
+                    filterFunctionsByStep[lastStep] = new ArrayList<>();
+                }
+                filterFunctionsByStep[lastStep].add(function);
+            }
+        }
+        this.filterFunctionsWithoutReads = filterFunctionsWithoutReads.build();
+    }
+
+    public Page getNextPage()
+            throws IOException
+    {
+        batchId++;
+        if (constantFilterIsFalse) {
+            return null;
+        }
+
+        int batchSize = parquetReader.nextBatch();
+        if (batchSize <= 0) {
+            return null;
+        }
+        readPositions += batchSize;
+        initializePositions(batchSize);
+
+        Block[] blocks = new Block[columnTypes.size()];
+        int rowCount = batchSize;
+        int positionCount = applyFilterFunctions(filterFunctionsWithoutReads, blocks, rowCount, rowCount);
+        for (int step = 0; step < readOrder.length && positionCount > 0; step++) {
+            if (positionCount < rowCount) {
+                rowCount = compact(blocks, positionCount);
+            }
+
+            int channel = readOrder[step];
+            Field field = fields.get(channel).get();
+            Block block = rowCount == batchSize ? parquetReader.readBlock(field) : parquetReader.readBlock(field, rows, rowCount);
+            blocks[channel] = block;
+
+            if (filters[channel] != null) {
+                positionCount = filterBlock(block, columnTypes.get(channel), filters[channel], positions, errors, positionCount);
+            }
+            if (filterFunctionsByStep[step] != null && positionCount > 0) {
+                positionCount = applyFilterFunctions(filterFunctionsByStep[step], blocks, rowCount, positionCount);
+            }
+        }
+
+        filteredPositions += batchSize - positionCount;
+        if (positionCount == 0) {
+            skippedBatches++;
+            return EMPTY_PAGE;
+        }
+
+        for (int i = 0; i < positionCount; i++) {
+            if (errors[i] != null) {
+                throw errors[i];
+            }
+        }
+
+        int[] selectedPositions = positionCount == rowCount ? null : Arrays.copyOf(positions, positionCount);
+        int[] selectedRows = null;
+        if (positionCount < batchSize) {
+            selectedRows = new int[positionCount];
+            for (int i = 0; i < positionCount; i++) {
+                selectedRows[i] = rows[positions[i]];
+            }
+        }
+
+        Block[] outputBlocks = new Block[outputColumns.size()];
+        for (int i = 0; i < outputBlocks.length; i++) {
+            int channel = outputColumns.get(i);
+            if (constantBlocks[channel] != null) {
+                outputBlocks[i] = new RunLengthEncodedBlock(constantBlocks[channel], positionCount);
+            }
+            else if (blocks[channel] != null) {
+                outputBlocks[i] = selectPositions(blocks[channel], selectedPositions);
+            }
+            else {
+                outputBlocks[i] = new LazyBlock(positionCount, new ParquetSelectiveBlockLoader(fields.get(channel).get(), selectedRows));
+            }
+        }
+        return new Page(positionCount, outputBlocks);
+    }
+
+    public long getReadPositions()
+    {
+        return readPositions;
+    }
+
+    public long getFilteredPositions()
+    {
+        return filteredPositions;
+    }
+
+    public long getSkippedBatches()
+    {
+        return skippedBatches;
+    }
+
+    public long getSystemMemoryUsage()
+    {
+        return parquetReader.getSystemMemoryUsage();
+    }
+
+    public ParquetReader getParquetReader()
+    {
+        return parquetReader;
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        parquetReader.close();
+    }
+
+    private int applyFilterFunctions(List<FilterFunction> filterFunctions, Block[] blocks, int rowCount, int positionCount)
+    {
+        for (FilterFunction function : filterFunctions) {
+            int[] inputs = function.getInputChannels();
+            Block[] inputBlocks = new Block[inputs.length];
+            for (int i = 0; i < inputs.length; i++) {
+                int channel = inputs[i];
+                inputBlocks[i] = constantBlocks[channel] != null ? new RunLengthEncodedBlock(constantBlocks[channel], rowCount) : blocks[channel];
+            }
+            positionCount = function.filter(new Page(rowCount, inputBlocks), positions, positionCount, errors);
+            if (positionCount == 0) {
+                break;
+            }
+        }
+        return positionCount;
+    }
+
+    private void initializePositions(int batchSize)
+    {
+        if (positions == null || positions.length < batchSize) {
+            positions = new int[batchSize];
+            errors = new RuntimeException[batchSize];
+            rows = new int[batchSize];
+        }
+        else {
+            Arrays.fill(errors, null);
+        }
+
+        for (int i = 0; i < batchSize; i++) {
+            positions[i] = i;
+            rows[i] = i;
+        }
+    }
+
+    /**
+     * Drops the rows that did not pass the filters from the blocks read so far, so that the
+     * remaining columns are only decoded at the surviving rows. Returns the new number of rows.
+     */
+    private int compact(Block[] blocks, int positionCount)
+    {
+        // the blocks keep a reference to the selected positions, so they cannot share the positions array
+        int[] selectedPositions = Arrays.copyOf(positions, positionCount);
+        for (int channel = 0; channel < blocks.length; channel++) {
+            if (blocks[channel] != null) {
+                blocks[channel] = blocks[channel].getPositions(selectedPositions, 0, positionCount);
+            }
+        }
+        for (int i = 0; i < positionCount; i++) {
+            rows[i] = rows[positions[i]];
+            positions[i] = i;
+        }
+        return positionCount;
+    }
+
+    private static Block selectPositions(Block block, int[] selectedPositions)
+    {
+        if (selectedPositions == null) {
+            return block;
+        }
+        return block.getPositions(selectedPositions, 0, selectedPositions.length);
+    }
+
+    private static int filterBlock(Block block, Type type, TupleDomainFilter filter, int[] positions, RuntimeException[] errors, int positionCount)
+    {
+        int outputPositionCount = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (testPosition(block, position, type, filter)) {
+                positions[outputPositionCount] = position;
+                errors[outputPositionCount] = errors[i];
+                outputPositionCount++;
+            }
+        }
+        return outputPositionCount;
+    }
+
+    private static boolean testPosition(Block block, int position, Type type, TupleDomainFilter filter)
+    {
+        if (block.isNull(position)) {
+            return filter.testNull();
+        }
+
+        if (type == BIGINT || type == INTEGER || type == SMALLINT || type == TINYINT || type == TIMESTAMP || type == DATE) {
+            return filter.testLong(type.getLong(block, position));
+        }
+
+        if (type == BOOLEAN) {
+            return filter.testBoolean(type.getBoolean(block, position));
+        }
+
+        if (type.equals(DOUBLE)) {
+            return filter.testDouble(longBitsToDouble(block.getLong(position)));
+        }
+
+        if (type.equals(REAL)) {
+            return filter.testFloat(intBitsToFloat((int) type.getLong(block, position)));
+        }
+
+        if (type instanceof DecimalType) {
+            if (((DecimalType) type).isShort()) {
+                return filter.testLong(type.getLong(block, position));
+            }
+            return filter.testDecimal(block.getLong(position, 0), block.getLong(position, Long.BYTES));
+        }
+
+        if (isVarcharType(type) || isVarbinaryType(type) || type instanceof CharType) {
+            Slice value = type.getSlice(block, position);
+            if (value.hasByteArray()) {
+                return filter.testBytes(value.byteArray(), value.byteArrayOffset(), value.length());
+            }
+            return filter.testBytes(value.getBytes(), 0, value.length());
+        }
+
+        return filter.testNonNull();
+    }
+
+    /**
+     * Returns the channels to decode during filtering: columns with domain filters, cheapest and most
+     * selective first, followed by the remaining inputs of the filter functions, primitive types first.
+     */
+    private static int[] orderColumns(TupleDomainFilter[] filters, List<FilterFunction> filterFunctions, List<Optional<Field>> fields, List<Type> columnTypes)
+    {
+        List<Integer> filterColumns = new ArrayList<>();
+        for (int channel = 0; channel < filters.length; channel++) {
+            if (filters[channel] != null) {
+                filterColumns.add(channel);
+            }
+        }
+        filterColumns.sort(Comparator.<Integer>comparingInt(channel -> scoreFilter(filters[channel]))
+                .thenComparingInt(channel -> scoreType(columnTypes.get(channel))));
+
+        List<Integer> functionInputs = filterFunctions.stream()
+                .flatMapToInt(function -> Arrays.stream(function.getInputChannels()))
+                .distinct()
+                .boxed()
+                .filter(channel -> fields.get(channel).isPresent())
+                .filter(channel -> filters[channel] == null)
+                .sorted(Comparator.comparingInt(channel -> scoreType(columnTypes.get(channel))))
+                .collect(toImmutableList());
+
+        return ImmutableList.<Integer>builder()
+                .addAll(filterColumns)
+                .addAll(functionInputs)
+                .build()
+                .stream()
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static int scoreFilter(TupleDomainFilter filter)
+    {
+        if (filter instanceof BigintRange) {
+            if (((BigintRange) filter).isSingleValue()) {
+                // Integer equality. Generally cheap.
+                return 10;
+            }
+            return 50;
+        }
+
+        if (filter instanceof BigintValuesUsingHashTable || filter instanceof BigintValuesUsingBitmask || filter instanceof BigintMultiRange) {
+            return 50;
+        }
+
+        return 100;
+    }
+
+    private static int scoreType(Type type)
+    {
+        if (type == BOOLEAN) {
+            return 10;
+        }
+
+        if (type == TINYINT || type == SMALLINT || type == INTEGER || type == BIGINT || type == TIMESTAMP || type == DATE) {
+            return 20;
+        }
+
+        if (type.equals(REAL) || type.equals(DOUBLE)) {
+            return 30;
+        }
+
+        if (type instanceof DecimalType) {
+            return 40;
+        }
+
+        if (isVarcharType(type) || type instanceof CharType) {
+            return 50;
+        }
+
+        return 100;
+    }
+
+    private final class ParquetSelectiveBlockLoader
+            implements LazyBlockLoader<LazyBlock>
+    {
+        private final int expectedBatchId = batchId;
+        private final Field field;
+        private final int[] selectedRows;
+        private boolean loaded;
+
+        public ParquetSelectiveBlockLoader(Field field, int[] selectedRows)
+        {
+            this.field = requireNonNull(field, "field is null");
+            this.selectedRows = selectedRows;
+        }
+
+        @Override
+        public void load(LazyBlock lazyBlock)
+        {
+            if (loaded) {
+                return;
+            }
+
+            checkState(batchId == expectedBatchId, "Parquet block loaded after the reader moved to the next batch");
+
+            try {
+                if (selectedRows == null) {
+                    lazyBlock.setBlock(parquetReader.readBlock(field));
+                }
+                else {
+                    lazyBlock.setBlock(parquetReader.readBlock(field, selectedRows, selectedRows.length));
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            loaded = true;
+        }
+    }
+}
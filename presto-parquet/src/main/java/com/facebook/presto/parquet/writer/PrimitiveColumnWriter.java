@@ -18,6 +18,7 @@ import com.facebook.presto.parquet.writer.levels.DefinitionLevelIterable;
 import com.facebook.presto.parquet.writer.levels.DefinitionLevelIterables;
 import com.facebook.presto.parquet.writer.levels.RepetitionLevelIterable;
 import com.facebook.presto.parquet.writer.levels.RepetitionLevelIterables;
+import com.facebook.presto.parquet.writer.valuewriter.BloomFilterValuesWriter;
 import com.facebook.presto.parquet.writer.valuewriter.PrimitiveValueWriter;
 import com.google.common.collect.ImmutableList;
 import io.airlift.slice.Slices;
@@ -37,6 +38,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import static com.facebook.presto.parquet.writer.ParquetCompressor.getCompressor;
@@ -52,6 +54,7 @@ public abstract class PrimitiveColumnWriter
 {
     protected final ColumnDescriptor columnDescriptor;
     protected final PrimitiveValueWriter primitiveValueWriter;
+    protected final Optional<BloomFilterValuesWriter> bloomFilterWriter;
     protected final ParquetMetadataConverter parquetMetadataConverter = new ParquetMetadataConverter();
     protected final Set<Encoding> encodings;
     protected final int maxDefinitionLevel;
@@ -77,13 +80,14 @@ public abstract class PrimitiveColumnWriter
     protected long totalValues;
     protected Statistics<?> columnStatistics;
 
-    public PrimitiveColumnWriter(Type type, ColumnDescriptor columnDescriptor, PrimitiveValueWriter primitiveValueWriter, CompressionCodecName compressionCodecName, int pageSizeThreshold)
+    public PrimitiveColumnWriter(Type type, ColumnDescriptor columnDescriptor, PrimitiveValueWriter primitiveValueWriter, Optional<BloomFilterValuesWriter> bloomFilterWriter, CompressionCodecName compressionCodecName, int pageSizeThreshold)
     {
         this.type = requireNonNull(type, "type is null");
         this.columnDescriptor = requireNonNull(columnDescriptor, "columnDescriptor is null");
         this.maxDefinitionLevel = columnDescriptor.getMaxDefinitionLevel();
 
         this.primitiveValueWriter = requireNonNull(primitiveValueWriter, "primitiveValueWriter is null");
+        this.bloomFilterWriter = requireNonNull(bloomFilterWriter, "bloomFilterWriter is null");
         this.encodings = new HashSet<>();
         this.compressionCodec = requireNonNull(compressionCodecName, "compressionCodecName is null");
         this.compressor = getCompressor(compressionCodecName);
@@ -129,7 +133,7 @@ public abstract class PrimitiveColumnWriter
             throws IOException
     {
         checkState(closed);
-        return ImmutableList.of(new BufferData(getDataStreams(), getColumnMetaData()));
+        return ImmutableList.of(new BufferData(getDataStreams(), getColumnMetaData(), bloomFilterWriter.flatMap(BloomFilterValuesWriter::getBloomFilter)));
     }
 
     // Returns ColumnMetaData that offset is invalid
@@ -204,6 +208,7 @@ public abstract class PrimitiveColumnWriter
     {
         pageBuffer.clear();
         primitiveValueWriter.reset();
+        bloomFilterWriter.ifPresent(BloomFilterValuesWriter::resetBloomFilter);
         closed = false;
 
         totalCompressedSize = 0;
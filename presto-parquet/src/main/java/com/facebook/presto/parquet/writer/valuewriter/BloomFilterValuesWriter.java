@@ -0,0 +1,180 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.writer.valuewriter;
+
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.page.DictionaryPage;
+import org.apache.parquet.column.values.ValuesWriter;
+import org.apache.parquet.column.values.bloomfilter.BlockSplitBloomFilter;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
+import org.apache.parquet.io.api.Binary;
+
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static org.apache.parquet.column.values.bloomfilter.BlockSplitBloomFilter.LOWER_BOUND_BYTES;
+import static org.apache.parquet.column.values.bloomfilter.BlockSplitBloomFilter.optimalNumOfBits;
+
+/**
+ * Collects the hashes of the values written to the wrapped {@link ValuesWriter}, so that a
+ * split block Bloom filter sized for the distinct values of the column chunk can be built
+ * when the row group is flushed.
+ */
+public class BloomFilterValuesWriter
+        extends ValuesWriter
+{
+    private final ValuesWriter valuesWriter;
+    private final double fpp;
+    private final int maxBytes;
+    // BlockSplitBloomFilter reuses a buffer to hash values, so it can not be shared between writers
+    private final BloomFilter hasher = new BlockSplitBloomFilter(LOWER_BOUND_BYTES);
+    private final LongSet hashes = new LongOpenHashSet();
+
+    public BloomFilterValuesWriter(ValuesWriter valuesWriter, double fpp, int maxBytes)
+    {
+        this.valuesWriter = requireNonNull(valuesWriter, "valuesWriter is null");
+        checkArgument(fpp > 0.0 && fpp < 1.0, "fpp should be > 0.0 & < 1.0");
+        checkArgument(maxBytes >= LOWER_BOUND_BYTES, "maxBytes should be at least %s", LOWER_BOUND_BYTES);
+        this.fpp = fpp;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns a Bloom filter of the values written since the last {@link #resetBloomFilter()},
+     * or empty if no value was written.
+     */
+    public Optional<BloomFilter> getBloomFilter()
+    {
+        if (hashes.isEmpty()) {
+            return Optional.empty();
+        }
+        BloomFilter bloomFilter = new BlockSplitBloomFilter(optimalNumOfBits(hashes.size(), fpp) / Byte.SIZE, maxBytes);
+        LongIterator iterator = hashes.iterator();
+        while (iterator.hasNext()) {
+            bloomFilter.insertHash(iterator.nextLong());
+        }
+        return Optional.of(bloomFilter);
+    }
+
+    public void resetBloomFilter()
+    {
+        hashes.clear();
+    }
+
+    @Override
+    public void writeInteger(int value)
+    {
+        valuesWriter.writeInteger(value);
+        hashes.add(hasher.hash(value));
+    }
+
+    @Override
+    public void writeLong(long value)
+    {
+        valuesWriter.writeLong(value);
+        hashes.add(hasher.hash(value));
+    }
+
+    @Override
+    public void writeFloat(float value)
+    {
+        valuesWriter.writeFloat(value);
+        hashes.add(hasher.hash(value));
+    }
+
+    @Override
+    public void writeDouble(double value)
+    {
+        valuesWriter.writeDouble(value);
+        hashes.add(hasher.hash(value));
+    }
+
+    @Override
+    public void writeBytes(Binary value)
+    {
+        valuesWriter.writeBytes(value);
+        hashes.add(hasher.hash(value));
+    }
+
+    @Override
+    public void writeBoolean(boolean value)
+    {
+        valuesWriter.writeBoolean(value);
+    }
+
+    @Override
+    public void writeByte(int value)
+    {
+        valuesWriter.writeByte(value);
+    }
+
+    @Override
+    public long getBufferedSize()
+    {
+        return valuesWriter.getBufferedSize();
+    }
+
+    @Override
+    public BytesInput getBytes()
+    {
+        return valuesWriter.getBytes();
+    }
+
+    @Override
+    public Encoding getEncoding()
+    {
+        return valuesWriter.getEncoding();
+    }
+
+    @Override
+    public void reset()
+    {
+        valuesWriter.reset();
+    }
+
+    @Override
+    public void close()
+    {
+        valuesWriter.close();
+    }
+
+    @Override
+    public DictionaryPage toDictPageAndClose()
+    {
+        return valuesWriter.toDictPageAndClose();
+    }
+
+    @Override
+    public void resetDictionary()
+    {
+        valuesWriter.resetDictionary();
+    }
+
+    @Override
+    public long getAllocatedSize()
+    {
+        return valuesWriter.getAllocatedSize() + (long) hashes.size() * Long.BYTES;
+    }
+
+    @Override
+    public String memUsageString(String prefix)
+    {
+        return valuesWriter.memUsageString(prefix);
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BigintRange;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.parquet.cache.MetadataReader;
+import com.facebook.presto.parquet.reader.ParquetReader;
+import com.facebook.presto.parquet.reader.ParquetSelectiveReader;
+import com.facebook.presto.parquet.writer.ParquetWriter;
+import com.facebook.presto.parquet.writer.ParquetWriterOptions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.ColumnIOConverter;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.schema.MessageType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.parquet.ParquetTypeUtils.getColumnIO;
+import static com.facebook.presto.parquet.writer.TestParquetWriter.createParquetWriter;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Compares reading all the columns of a Parquet file and filtering the resulting pages
+ * with reading the same file through {@link ParquetSelectiveReader}.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(3)
+@Warmup(iterations = 20, time = 500, timeUnit = MILLISECONDS)
+@Measurement(iterations = 20, time = 500, timeUnit = MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OperationsPerInvocation(BenchmarkParquetSelectiveReader.ROWS)
+public class BenchmarkParquetSelectiveReader
+{
+    public static final int ROWS = 1_000_000;
+
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR, DOUBLE);
+    private static final List<String> NAMES = ImmutableList.of("key", "payload", "value");
+
+    public static void main(String[] args)
+            throws Throwable
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkParquetSelectiveReader.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+
+    @Benchmark
+    public Object readAndFilter(BenchmarkData data)
+            throws Exception
+    {
+        List<Page> pages = new ArrayList<>();
+        try (ParquetReader reader = data.createParquetReader()) {
+            int[] positions = new int[0];
+            for (int batchSize = reader.nextBatch(); batchSize > 0; batchSize = reader.nextBatch()) {
+                Block[] blocks = new Block[TYPES.size()];
+                for (int channel = 0; channel < blocks.length; channel++) {
+                    blocks[channel] = reader.readBlock(data.getFields().get(channel));
+                }
+
+                if (positions.length < batchSize) {
+                    positions = new int[batchSize];
+                }
+                int positionCount = 0;
+                for (int position = 0; position < batchSize; position++) {
+                    if (!blocks[0].isNull(position) && data.getFilter().testLong(BIGINT.getLong(blocks[0], position))) {
+                        positions[positionCount] = position;
+                        positionCount++;
+                    }
+                }
+                if (positionCount > 0) {
+                    pages.add(new Page(batchSize, blocks).getPositions(positions, 0, positionCount));
+                }
+            }
+        }
+        return pages;
+    }
+
+    @Benchmark
+    public Object readSelective(BenchmarkData data)
+            throws Exception
+    {
+        List<Page> pages = new ArrayList<>();
+        try (ParquetSelectiveReader reader = data.createSelectiveReader()) {
+            for (Page page = reader.getNextPage(); page != null; page = reader.getNextPage()) {
+                if (page.getPositionCount() > 0) {
+                    pages.add(page.getLoadedPage());
+                }
+            }
+        }
+        return pages;
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"1", "10", "50", "100"})
+        private int selectivityPercent = 10;
+
+        @Param({"true", "false"})
+        private boolean clustered = true;
+
+        private File temporaryDirectory;
+        private File file;
+        private TupleDomainFilter filter;
+        private List<Field> fields;
+
+        @Setup
+        public void setup()
+                throws Exception
+        {
+            Random random = new Random(0);
+            temporaryDirectory = createTempDir();
+            file = new File(temporaryDirectory, randomUUID().toString());
+            filter = BigintRange.of(0, selectivityPercent - 1, false);
+
+            try (ParquetWriter writer = createParquetWriter(file, TYPES, NAMES, ParquetWriterOptions.builder().build(), CompressionCodecName.SNAPPY)) {
+                PageBuilder pageBuilder = new PageBuilder(TYPES);
+                for (int row = 0; row < ROWS; row++) {
+                    // clustered keys keep the matching rows together, so that whole batches can be skipped
+                    long key = clustered ? row * 100L / ROWS : random.nextInt(100);
+                    BIGINT.writeLong(pageBuilder.getBlockBuilder(0), key);
+                    VARCHAR.writeString(pageBuilder.getBlockBuilder(1), randomUUID().toString());
+                    DOUBLE.writeDouble(pageBuilder.getBlockBuilder(2), random.nextDouble());
+                    pageBuilder.declarePosition();
+                    if (pageBuilder.isFull()) {
+                        writer.write(pageBuilder.build());
+                        pageBuilder.reset();
+                    }
+                }
+                if (!pageBuilder.isEmpty()) {
+                    writer.write(pageBuilder.build());
+                }
+            }
+        }
+
+        @TearDown
+        public void tearDown()
+                throws IOException
+        {
+            deleteRecursively(temporaryDirectory.toPath(), ALLOW_INSECURE);
+        }
+
+        ParquetReader createParquetReader()
+                throws IOException
+        {
+            FileParquetDataSource dataSource = new FileParquetDataSource(file);
+            ParquetMetadata parquetMetadata = MetadataReader.readFooter(dataSource, file.length(), Optional.empty(), false).getParquetMetadata();
+            MessageType schema = parquetMetadata.getFileMetaData().getSchema();
+            MessageColumnIO messageColumnIO = getColumnIO(schema, schema);
+
+            ImmutableList.Builder<Field> fields = ImmutableList.builder();
+            for (int channel = 0; channel < TYPES.size(); channel++) {
+                fields.add(ColumnIOConverter.constructField(TYPES.get(channel), messageColumnIO.getChild(channel)).get());
+            }
+            this.fields = fields.build();
+
+            return new ParquetReader(messageColumnIO, parquetMetadata.getBlocks(), Optional.empty(), dataSource, newSimpleAggregatedMemoryContext(), new DataSize(16, MEGABYTE), true, false, null, null, false, Optional.empty());
+        }
+
+        ParquetSelectiveReader createSelectiveReader()
+                throws IOException
+        {
+            ParquetReader parquetReader = createParquetReader();
+            List<Optional<Field>> selectiveFields = fields.stream()
+                    .map(Optional::of)
+                    .collect(toImmutableList());
+            return new ParquetSelectiveReader(
+                    parquetReader,
+                    TYPES,
+                    selectiveFields,
+                    ImmutableMap.of(),
+                    ImmutableList.of(0, 1, 2),
+                    ImmutableMap.of(0, filter),
+                    ImmutableList.of());
+        }
+
+        TupleDomainFilter getFilter()
+        {
+            return filter;
+        }
+
+        List<Field> getFields()
+        {
+            return fields;
+        }
+    }
+}
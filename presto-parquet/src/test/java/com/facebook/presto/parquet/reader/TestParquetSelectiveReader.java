@@ -0,0 +1,272 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.function.SqlFunctionProperties;
+import com.facebook.presto.common.predicate.FilterFunction;
+import com.facebook.presto.common.predicate.TupleDomainFilter;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BigintRange;
+import com.facebook.presto.common.relation.Predicate;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.parquet.Field;
+import com.facebook.presto.parquet.FileParquetDataSource;
+import com.facebook.presto.parquet.cache.MetadataReader;
+import com.facebook.presto.parquet.writer.ParquetWriter;
+import com.facebook.presto.parquet.writer.ParquetWriterOptions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.ColumnIOConverter;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.schema.MessageType;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.parquet.ParquetTypeUtils.getColumnIO;
+import static com.facebook.presto.parquet.writer.TestParquetWriter.createParquetWriter;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.UUID.randomUUID;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestParquetSelectiveReader
+{
+    private static final int ROWS = 10_000;
+    private static final List<Type> FILE_TYPES = ImmutableList.of(BIGINT, VARCHAR);
+    private static final SqlFunctionProperties FUNCTION_PROPERTIES = testSessionBuilder().build().getSqlFunctionProperties();
+
+    private File temporaryDirectory;
+    private File file;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        temporaryDirectory = createTempDir();
+        file = new File(temporaryDirectory, randomUUID().toString());
+        try (ParquetWriter writer = createParquetWriter(file, FILE_TYPES, ImmutableList.of("key", "value"), ParquetWriterOptions.builder().build(), CompressionCodecName.UNCOMPRESSED)) {
+            PageBuilder pageBuilder = new PageBuilder(FILE_TYPES);
+            for (int row = 0; row < ROWS; row++) {
+                BIGINT.writeLong(pageBuilder.getBlockBuilder(0), row);
+                if (isNullValue(row)) {
+                    pageBuilder.getBlockBuilder(1).appendNull();
+                }
+                else {
+                    VARCHAR.writeString(pageBuilder.getBlockBuilder(1), "value" + row);
+                }
+                pageBuilder.declarePosition();
+            }
+            writer.write(pageBuilder.build());
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(temporaryDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testDomainFilter()
+            throws IOException
+    {
+        try (ParquetSelectiveReader reader = createReader(ImmutableList.of(1, 0), ImmutableMap.of(0, BigintRange.of(5000, 5099, false)), ImmutableList.of(), ImmutableMap.of())) {
+            List<Page> pages = readPages(reader);
+            assertRows(pages, 5000, 5099, 1);
+
+            assertEquals(reader.getReadPositions(), ROWS);
+            assertEquals(reader.getFilteredPositions(), ROWS - 100);
+            assertTrue(reader.getSkippedBatches() > 0);
+        }
+    }
+
+    @Test
+    public void testFilterFunction()
+            throws IOException
+    {
+        FilterFunction even = new FilterFunction(FUNCTION_PROPERTIES, true, new Predicate()
+        {
+            @Override
+            public int[] getInputChannels()
+            {
+                return new int[] {0};
+            }
+
+            @Override
+            public boolean evaluate(SqlFunctionProperties properties, Page page, int position)
+            {
+                return BIGINT.getLong(page.getBlock(0), position) % 2 == 0;
+            }
+        });
+
+        try (ParquetSelectiveReader reader = createReader(ImmutableList.of(1, 0), ImmutableMap.of(0, BigintRange.of(0, 99, false)), ImmutableList.of(even), ImmutableMap.of())) {
+            List<Page> pages = readPages(reader);
+            assertRows(pages, 0, 98, 2);
+        }
+    }
+
+    @DataProvider
+    public static Object[][] batchReadEnabled()
+    {
+        return new Object[][] {{true}, {false}};
+    }
+
+    @Test(dataProvider = "batchReadEnabled")
+    public void testSparseFilter(boolean batchReadEnabled)
+            throws IOException
+    {
+        FilterFunction keyMultipleOfThree = new FilterFunction(FUNCTION_PROPERTIES, true, new Predicate()
+        {
+            @Override
+            public int[] getInputChannels()
+            {
+                return new int[] {0};
+            }
+
+            @Override
+            public boolean evaluate(SqlFunctionProperties properties, Page page, int position)
+            {
+                return BIGINT.getLong(page.getBlock(0), position) % 3 == 0;
+            }
+        });
+        FilterFunction valueEndsWithZero = new FilterFunction(FUNCTION_PROPERTIES, true, new Predicate()
+        {
+            @Override
+            public int[] getInputChannels()
+            {
+                return new int[] {1};
+            }
+
+            @Override
+            public boolean evaluate(SqlFunctionProperties properties, Page page, int position)
+            {
+                return !page.getBlock(0).isNull(position) && VARCHAR.getSlice(page.getBlock(0), position).toStringUtf8().endsWith("0");
+            }
+        });
+
+        // the value column is only read as a lazy output column at the surviving positions
+        try (ParquetSelectiveReader reader = createReader(ImmutableList.of(1, 0), ImmutableMap.of(), ImmutableList.of(keyMultipleOfThree), ImmutableMap.of(), batchReadEnabled)) {
+            assertRows(readPages(reader), 0, 9999, 3);
+        }
+
+        // the value column is read at the positions that passed the filter on the key column
+        try (ParquetSelectiveReader reader = createReader(ImmutableList.of(1, 0), ImmutableMap.of(), ImmutableList.of(keyMultipleOfThree, valueEndsWithZero), ImmutableMap.of(), batchReadEnabled)) {
+            assertRows(readPages(reader), 0, 9990, 30);
+            assertEquals(reader.getFilteredPositions(), ROWS - 334);
+        }
+    }
+
+    @Test
+    public void testConstantColumn()
+            throws IOException
+    {
+        try (ParquetSelectiveReader reader = createReader(ImmutableList.of(2, 0), ImmutableMap.of(2, BigintRange.of(7, 7, false), 0, BigintRange.of(0, 9, false)), ImmutableList.of(), ImmutableMap.of(2, 7L))) {
+            List<Page> pages = readPages(reader);
+            int rows = 0;
+            for (Page page : pages) {
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    assertEquals(BIGINT.getLong(page.getBlock(0), position), 7);
+                    assertEquals(BIGINT.getLong(page.getBlock(1), position), rows);
+                    rows++;
+                }
+            }
+            assertEquals(rows, 10);
+        }
+
+        try (ParquetSelectiveReader reader = createReader(ImmutableList.of(0), ImmutableMap.of(2, BigintRange.of(8, 8, false)), ImmutableList.of(), ImmutableMap.of(2, 7L))) {
+            assertNull(reader.getNextPage());
+            assertEquals(reader.getReadPositions(), 0);
+        }
+    }
+
+    private static List<Page> readPages(ParquetSelectiveReader reader)
+            throws IOException
+    {
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        for (Page page = reader.getNextPage(); page != null; page = reader.getNextPage()) {
+            pages.add(page.getLoadedPage());
+        }
+        return pages.build();
+    }
+
+    private static void assertRows(List<Page> pages, long first, long last, long step)
+    {
+        long expected = first;
+        for (Page page : pages) {
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                if (isNullValue(expected)) {
+                    assertTrue(page.getBlock(0).isNull(position));
+                }
+                else {
+                    assertEquals(VARCHAR.getSlice(page.getBlock(0), position).toStringUtf8(), "value" + expected);
+                }
+                assertEquals(BIGINT.getLong(page.getBlock(1), position), expected);
+                expected += step;
+            }
+        }
+        assertEquals(expected, last + step);
+    }
+
+    private static boolean isNullValue(long row)
+    {
+        return row % 10 == 5;
+    }
+
+    /**
+     * Creates a reader with channels 0 and 1 stored in the file and channel 2 holding a BIGINT constant.
+     */
+    private ParquetSelectiveReader createReader(List<Integer> outputColumns, Map<Integer, TupleDomainFilter> filters, List<FilterFunction> filterFunctions, Map<Integer, Object> constantValues)
+            throws IOException
+    {
+        return createReader(outputColumns, filters, filterFunctions, constantValues, true);
+    }
+
+    private ParquetSelectiveReader createReader(List<Integer> outputColumns, Map<Integer, TupleDomainFilter> filters, List<FilterFunction> filterFunctions, Map<Integer, Object> constantValues, boolean batchReadEnabled)
+            throws IOException
+    {
+        FileParquetDataSource dataSource = new FileParquetDataSource(file);
+        ParquetMetadata parquetMetadata = MetadataReader.readFooter(dataSource, file.length(), Optional.empty(), false).getParquetMetadata();
+        MessageType schema = parquetMetadata.getFileMetaData().getSchema();
+        MessageColumnIO messageColumnIO = getColumnIO(schema, schema);
+
+        List<Optional<Field>> fields = ImmutableList.of(
+                ColumnIOConverter.constructField(BIGINT, messageColumnIO.getChild(0)),
+                ColumnIOConverter.constructField(VARCHAR, messageColumnIO.getChild(1)),
+                Optional.empty());
+
+        ParquetReader parquetReader = new ParquetReader(messageColumnIO, parquetMetadata.getBlocks(), Optional.empty(), dataSource, newSimpleAggregatedMemoryContext(), new DataSize(16, MEGABYTE), batchReadEnabled, false, null, null, false, Optional.empty());
+        return new ParquetSelectiveReader(parquetReader, ImmutableList.of(BIGINT, VARCHAR, BIGINT), fields, constantValues, outputColumns, filters, filterFunctions);
+    }
+}
@@ -14,15 +14,27 @@
 package com.facebook.presto.parquet.writer;
 
 import com.facebook.presto.common.PageBuilder;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.common.type.DecimalType;
 import com.facebook.presto.common.type.MapType;
 import com.facebook.presto.common.type.RowType;
 import com.facebook.presto.common.type.TimestampType;
 import com.facebook.presto.common.type.Type;
 import com.facebook.presto.parquet.FileParquetDataSource;
+import com.facebook.presto.parquet.ParquetDataSource;
+import com.facebook.presto.parquet.RichColumnDescriptor;
 import com.facebook.presto.parquet.cache.MetadataReader;
+import com.facebook.presto.parquet.predicate.Predicate;
+import com.facebook.presto.parquet.reader.ParquetBloomFilterStore;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 import org.apache.parquet.hadoop.metadata.ParquetMetadata;
 import org.apache.parquet.schema.LogicalTypeAnnotation;
@@ -36,6 +48,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 
@@ -50,10 +63,14 @@ import static com.facebook.presto.common.type.TimestampType.TIMESTAMP;
 import static com.facebook.presto.common.type.TinyintType.TINYINT;
 import static com.facebook.presto.common.type.UuidType.UUID;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.parquet.ParquetTypeUtils.getDescriptors;
+import static com.facebook.presto.parquet.predicate.PredicateUtils.buildPredicate;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.io.Files.createTempDir;
 import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.slice.Slices.utf8Slice;
 import static java.util.UUID.randomUUID;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -180,6 +197,75 @@ public class TestParquetWriter
         }
     }
 
+    @Test
+    public void testBloomFilters()
+            throws Exception
+    {
+        temporaryDirectory = createTempDir();
+        parquetFile = new File(temporaryDirectory, randomUUID() + ".parquet");
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR, INTEGER);
+        List<String> names = ImmutableList.of("col_1", "col_2", "col_3");
+        ParquetWriterOptions parquetWriterOptions = ParquetWriterOptions.builder()
+                .setMaxBlockSize(DataSize.succinctBytes(1000))
+                .setBloomFilterColumns(ImmutableSet.of("col_1", "col_2"))
+                .build();
+
+        try (ParquetWriter parquetWriter = createParquetWriter(parquetFile, types, names, parquetWriterOptions, CompressionCodecName.SNAPPY)) {
+            // every page is flushed as its own row group, and holds only even numbers
+            for (int pageIdx = 0; pageIdx < 2; pageIdx++) {
+                PageBuilder pageBuilder = new PageBuilder(1000, types);
+                for (int rowIdx = 0; rowIdx < 1000; rowIdx++) {
+                    long value = (pageIdx * 1000 + rowIdx) * 2;
+                    BIGINT.writeLong(pageBuilder.getBlockBuilder(0), value);
+                    VARCHAR.writeString(pageBuilder.getBlockBuilder(1), "value_" + value);
+                    INTEGER.writeLong(pageBuilder.getBlockBuilder(2), value);
+                    pageBuilder.declarePosition();
+                }
+                parquetWriter.write(pageBuilder.build());
+            }
+        }
+
+        FileParquetDataSource dataSource = new FileParquetDataSource(parquetFile);
+        ParquetMetadata parquetMetadata = MetadataReader.readFooter(
+                dataSource,
+                parquetFile.length(),
+                Optional.empty(),
+                false).getParquetMetadata();
+        // the writer ends the file with an empty row group
+        List<BlockMetaData> blocks = parquetMetadata.getBlocks().stream()
+                .filter(block -> block.getRowCount() > 0)
+                .collect(toImmutableList());
+        assertEquals(blocks.size(), 2);
+        for (BlockMetaData block : blocks) {
+            assertTrue(block.getColumns().get(0).getBloomFilterOffset() > 0);
+            assertTrue(block.getColumns().get(1).getBloomFilterOffset() > 0);
+            assertEquals(block.getColumns().get(2).getBloomFilterOffset(), -1);
+        }
+
+        MessageType schema = parquetMetadata.getFileMetaData().getSchema();
+        BlockMetaData firstBlock = blocks.get(0);
+        BlockMetaData secondBlock = blocks.get(1);
+        assertTrue(bloomFilterMatches(dataSource, firstBlock, schema, "col_1", Domain.singleValue(BIGINT, 10L)));
+        assertFalse(bloomFilterMatches(dataSource, firstBlock, schema, "col_1", Domain.singleValue(BIGINT, 11L)));
+        assertFalse(bloomFilterMatches(dataSource, firstBlock, schema, "col_1", Domain.multipleValues(BIGINT, ImmutableList.of(11L, 13L, 2000L))));
+        assertTrue(bloomFilterMatches(dataSource, secondBlock, schema, "col_1", Domain.multipleValues(BIGINT, ImmutableList.of(11L, 13L, 2000L))));
+        assertTrue(bloomFilterMatches(dataSource, firstBlock, schema, "col_2", Domain.singleValue(VARCHAR, utf8Slice("value_10"))));
+        assertFalse(bloomFilterMatches(dataSource, firstBlock, schema, "col_2", Domain.singleValue(VARCHAR, utf8Slice("value_11"))));
+
+        // ranges, nulls and columns without a Bloom filter can not be filtered
+        assertTrue(bloomFilterMatches(dataSource, firstBlock, schema, "col_1", Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 11L, true, 13L, true)), false)));
+        assertTrue(bloomFilterMatches(dataSource, firstBlock, schema, "col_1", Domain.create(ValueSet.of(BIGINT, 11L), true)));
+        assertTrue(bloomFilterMatches(dataSource, firstBlock, schema, "col_3", Domain.singleValue(INTEGER, 11L)));
+    }
+
+    private static boolean bloomFilterMatches(ParquetDataSource dataSource, BlockMetaData block, MessageType schema, String column, Domain domain)
+    {
+        Map<List<String>, RichColumnDescriptor> descriptorsByPath = getDescriptors(schema, schema);
+        TupleDomain<ColumnDescriptor> tupleDomain = TupleDomain.withColumnDomains(ImmutableMap.of(descriptorsByPath.get(ImmutableList.of(column)), domain));
+        Predicate predicate = buildPredicate(schema, tupleDomain, descriptorsByPath);
+        return predicate.matches(new ParquetBloomFilterStore(dataSource, block));
+    }
+
     private static void checkTypes(org.apache.parquet.schema.Type type, Class<?> expectedAnnotationType, String expectedPrimitiveTypeName)
     {
         if (expectedPrimitiveTypeName != null) {
@@ -78,6 +78,14 @@ public interface StandardFunctionResolution
 
     FunctionHandle leastFunction(List<Type> valueTypes);
 
+    /**
+     * Returns whether the function is the built-in {@code sum} aggregation. Implementations that cannot tell return false.
+     */
+    default boolean isSumFunction(FunctionHandle functionHandle)
+    {
+        return false;
+    }
+
     boolean isApproximateCountDistinctFunction(FunctionHandle functionHandle);
 
     FunctionHandle approximateCountDistinctFunction(Type valueType);
@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.page;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static com.facebook.presto.spi.page.PageCompressionCodec.NONE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Picks the codec that minimizes the estimated time to compress and transfer a byte of page data.
+ * Compression ratio and throughput are tracked per codec as exponentially weighted moving averages,
+ * and the codecs that are not currently preferred are re-sampled periodically so the estimates
+ * follow changes in the data.
+ */
+@NotThreadSafe
+public class AdaptivePageCompressionPolicy
+        implements PageCompressionPolicy
+{
+    public static final double DEFAULT_NETWORK_BYTES_PER_SECOND = 128 * 1024 * 1024;
+    public static final int DEFAULT_MINIMUM_COMPRESSION_SIZE = 1024;
+
+    private static final double DECAY = 0.1;
+    private static final int EXPLORATION_INTERVAL = 32;
+
+    private final double networkNanosPerByte;
+    private final int minimumCompressionSize;
+    private final List<CodecEstimate> estimates = new ArrayList<>();
+
+    private PageCompressionCodec preferred = NONE;
+    private long selections;
+    private int exploredIndex;
+
+    public AdaptivePageCompressionPolicy(Set<PageCompressionCodec> codecs)
+    {
+        this(codecs, DEFAULT_NETWORK_BYTES_PER_SECOND, DEFAULT_MINIMUM_COMPRESSION_SIZE);
+    }
+
+    public AdaptivePageCompressionPolicy(Set<PageCompressionCodec> codecs, double networkBytesPerSecond, int minimumCompressionSize)
+    {
+        requireNonNull(codecs, "codecs is null");
+        if (networkBytesPerSecond <= 0) {
+            throw new IllegalArgumentException("networkBytesPerSecond must be positive");
+        }
+        if (minimumCompressionSize < 0) {
+            throw new IllegalArgumentException("minimumCompressionSize is negative");
+        }
+        for (PageCompressionCodec codec : PageCompressionCodec.values()) {
+            if (codec != NONE && codecs.contains(codec)) {
+                estimates.add(new CodecEstimate(codec));
+            }
+        }
+        this.networkNanosPerByte = 1_000_000_000.0 / networkBytesPerSecond;
+        this.minimumCompressionSize = minimumCompressionSize;
+    }
+
+    @Override
+    public PageCompressionCodec select(int uncompressedSize)
+    {
+        if (uncompressedSize < minimumCompressionSize || estimates.isEmpty()) {
+            return NONE;
+        }
+
+        selections++;
+        for (CodecEstimate estimate : estimates) {
+            if (estimate.samples == 0) {
+                return estimate.codec;
+            }
+        }
+        if (selections % EXPLORATION_INTERVAL == 0) {
+            exploredIndex = (exploredIndex + 1) % estimates.size();
+            return estimates.get(exploredIndex).codec;
+        }
+        return preferred;
+    }
+
+    @Override
+    public void record(PageCompressionCodec codec, int uncompressedSize, int compressedSize, long compressionNanos)
+    {
+        if (codec == NONE || uncompressedSize == 0) {
+            return;
+        }
+        for (CodecEstimate estimate : estimates) {
+            if (estimate.codec == codec) {
+                estimate.add(compressedSize / (double) uncompressedSize, compressionNanos / (double) uncompressedSize);
+            }
+        }
+
+        double bestCost = networkNanosPerByte;
+        preferred = NONE;
+        for (CodecEstimate estimate : estimates) {
+            if (estimate.samples > 0) {
+                double cost = estimate.nanosPerByte + estimate.ratio * networkNanosPerByte;
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    preferred = estimate.codec;
+                }
+            }
+        }
+    }
+
+    public PageCompressionCodec getPreferredCodec()
+    {
+        return preferred;
+    }
+
+    private static class CodecEstimate
+    {
+        private final PageCompressionCodec codec;
+        private long samples;
+        private double ratio;
+        private double nanosPerByte;
+
+        private CodecEstimate(PageCompressionCodec codec)
+        {
+            this.codec = codec;
+        }
+
+        private void add(double ratio, double nanosPerByte)
+        {
+            if (samples == 0) {
+                this.ratio = ratio;
+                this.nanosPerByte = nanosPerByte;
+            }
+            else {
+                this.ratio += DECAY * (ratio - this.ratio);
+                this.nanosPerByte += DECAY * (nanosPerByte - this.nanosPerByte);
+            }
+            samples++;
+        }
+    }
+}
@@ -26,7 +26,11 @@ public enum PageCodecMarker
 {
     COMPRESSED(1),
     ENCRYPTED(2),
-    CHECKSUMMED(3);
+    CHECKSUMMED(3),
+    /**
+     * Set together with {@link #COMPRESSED} when the page was compressed with ZSTD rather than LZ4
+     */
+    ZSTD(4);
 
     private final int mask;
 
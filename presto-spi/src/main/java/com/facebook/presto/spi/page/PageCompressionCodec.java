@@ -0,0 +1,48 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.page;
+
+import static com.facebook.presto.spi.page.PageCodecMarker.COMPRESSED;
+
+/**
+ * The codec a {@link SerializedPage} was compressed with, as recorded in its {@link PageCodecMarker} byte
+ */
+public enum PageCompressionCodec
+{
+    NONE,
+    LZ4,
+    ZSTD;
+
+    public byte setMarkers(byte markers)
+    {
+        switch (this) {
+            case NONE:
+                return markers;
+            case LZ4:
+                return COMPRESSED.set(markers);
+            case ZSTD:
+                return PageCodecMarker.ZSTD.set(COMPRESSED.set(markers));
+            default:
+                throw new UnsupportedOperationException("Unsupported codec: " + this);
+        }
+    }
+
+    public static PageCompressionCodec fromMarkers(byte markers)
+    {
+        if (!COMPRESSED.isSet(markers)) {
+            return NONE;
+        }
+        return PageCodecMarker.ZSTD.isSet(markers) ? ZSTD : LZ4;
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.page;
+
+/**
+ * Chooses the codec {@link PagesSerde} compresses each page with
+ */
+public interface PageCompressionPolicy
+{
+    PageCompressionCodec select(int uncompressedSize);
+
+    /**
+     * Reports the outcome of compressing a page with the codec returned by {@link #select(int)}.
+     * {@code compressedSize} equals {@code uncompressedSize} when the compressed form was discarded.
+     */
+    default void record(PageCompressionCodec codec, int uncompressedSize, int compressedSize, long compressionNanos) {}
+
+    static PageCompressionPolicy fixed(PageCompressionCodec codec)
+    {
+        return uncompressedSize -> codec;
+    }
+}
@@ -25,11 +25,14 @@ import javax.annotation.concurrent.NotThreadSafe;
 
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.facebook.presto.spi.page.PageCodecMarker.CHECKSUMMED;
-import static com.facebook.presto.spi.page.PageCodecMarker.COMPRESSED;
 import static com.facebook.presto.spi.page.PageCodecMarker.ENCRYPTED;
+import static com.facebook.presto.spi.page.PageCompressionCodec.LZ4;
+import static com.facebook.presto.spi.page.PageCompressionCodec.NONE;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.computeSerializedPageChecksum;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.readRawPage;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.writeRawPage;
@@ -44,8 +47,9 @@ public class PagesSerde
     private static final double MINIMUM_COMPRESSION_RATIO = 0.8;
 
     private final BlockEncodingSerde blockEncodingSerde;
-    private final Optional<PageCompressor> compressor;
-    private final Optional<PageDecompressor> decompressor;
+    private final Map<PageCompressionCodec, PageCompressor> compressors;
+    private final Map<PageCompressionCodec, PageDecompressor> decompressors;
+    private final PageCompressionPolicy compressionPolicy;
     private final Optional<SpillCipher> spillCipher;
     private final boolean checksumEnabled;
 
@@ -56,12 +60,34 @@ public class PagesSerde
         this(blockEncodingSerde, compressor, decompressor, spillCipher, false);
     }
 
+    /**
+     * Pages compressed with {@code compressor} are marked as {@link PageCompressionCodec#LZ4}.
+     */
     public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<PageCompressor> compressor, Optional<PageDecompressor> decompressor, Optional<SpillCipher> spillCipher, boolean checksumEnabled)
     {
-        this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
+        this(
+                blockEncodingSerde,
+                toCodecMap(requireNonNull(compressor, "compressor is null")),
+                toCodecMap(requireNonNull(decompressor, "decompressor is null")),
+                PageCompressionPolicy.fixed(compressor.isPresent() ? LZ4 : NONE),
+                spillCipher,
+                checksumEnabled);
         checkArgument(compressor.isPresent() == decompressor.isPresent(), "compressor and decompressor must both be present or both be absent");
-        this.compressor = requireNonNull(compressor, "compressor is null");
-        this.decompressor = requireNonNull(decompressor, "decompressor is null");
+    }
+
+    public PagesSerde(
+            BlockEncodingSerde blockEncodingSerde,
+            Map<PageCompressionCodec, PageCompressor> compressors,
+            Map<PageCompressionCodec, PageDecompressor> decompressors,
+            PageCompressionPolicy compressionPolicy,
+            Optional<SpillCipher> spillCipher,
+            boolean checksumEnabled)
+    {
+        this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
+        this.compressors = copyCodecMap(requireNonNull(compressors, "compressors is null"));
+        this.decompressors = copyCodecMap(requireNonNull(decompressors, "decompressors is null"));
+        checkArgument(decompressors.keySet().containsAll(compressors.keySet()), "a decompressor is required for every compressor");
+        this.compressionPolicy = requireNonNull(compressionPolicy, "compressionPolicy is null");
         this.spillCipher = requireNonNull(spillCipher, "spillCipher is null");
         checkState(!spillCipher.isPresent() || !spillCipher.get().isDestroyed(), "spillCipher is already destroyed");
         this.checksumEnabled = checksumEnabled;
@@ -92,13 +118,15 @@ public class PagesSerde
             slice = Slices.wrappedBuffer(spillCipher.get().decrypt(slice.toByteBuffer()));
         }
 
-        if (COMPRESSED.isSet(serializedPage.getPageCodecMarkers())) {
-            checkState(decompressor.isPresent(), "Page is compressed, but decompressor is missing");
+        PageCompressionCodec codec = PageCompressionCodec.fromMarkers(serializedPage.getPageCodecMarkers());
+        if (codec != NONE) {
+            PageDecompressor decompressor = decompressors.get(codec);
+            checkState(decompressor != null, "Page is compressed with " + codec + ", but decompressor is missing");
 
             int uncompressedSize = serializedPage.getUncompressedSizeInBytes();
             ByteBuffer decompressionBuffer = ByteBuffer.allocate(uncompressedSize);
 
-            decompressor.get().decompress(slice.toByteBuffer(), decompressionBuffer);
+            decompressor.decompress(slice.toByteBuffer(), decompressionBuffer);
             ((Buffer) decompressionBuffer).flip();
             checkState(decompressionBuffer.remaining() == uncompressedSize, "page size changed after decompression into decompressionBuffer");
 
@@ -123,20 +151,28 @@ public class PagesSerde
         int uncompressedSize = slice.length();
         byte markers = PageCodecMarker.none();
 
-        if (compressor.isPresent()) {
-            int maxCompressedSize = compressor.get().maxCompressedLength(uncompressedSize);
+        PageCompressionCodec codec = compressionPolicy.select(uncompressedSize);
+        PageCompressor compressor = compressors.get(codec);
+        if (compressor != null) {
+            int maxCompressedSize = compressor.maxCompressedLength(uncompressedSize);
             compressionBuffer = ensureCapacity(compressionBuffer, maxCompressedSize);
-            int compressedSize = compressor.get().compress(
+            long start = System.nanoTime();
+            int compressedSize = compressor.compress(
                     (byte[]) slice.getBase(),
                     (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
                     uncompressedSize,
                     compressionBuffer,
                     0,
                     maxCompressedSize);
+            long compressionNanos = System.nanoTime() - start;
 
             if (compressedSize / (double) uncompressedSize <= MINIMUM_COMPRESSION_RATIO) {
                 slice = Slices.copyOf(Slices.wrappedBuffer(compressionBuffer, 0, compressedSize));
-                markers = COMPRESSED.set(markers);
+                markers = codec.setMarkers(markers);
+                compressionPolicy.record(codec, uncompressedSize, compressedSize, compressionNanos);
+            }
+            else {
+                compressionPolicy.record(codec, uncompressedSize, uncompressedSize, compressionNanos);
             }
         }
 
@@ -157,6 +193,19 @@ public class PagesSerde
         return new SerializedPage(slice, markers, positionCount, uncompressedSize, checksum);
     }
 
+    private static <T> Map<PageCompressionCodec, T> toCodecMap(Optional<T> value)
+    {
+        Map<PageCompressionCodec, T> map = new EnumMap<>(PageCompressionCodec.class);
+        value.ifPresent(codec -> map.put(LZ4, codec));
+        return map;
+    }
+
+    private static <T> Map<PageCompressionCodec, T> copyCodecMap(Map<PageCompressionCodec, T> map)
+    {
+        checkArgument(!map.containsKey(NONE), "NONE does not have a codec");
+        return map.isEmpty() ? new EnumMap<>(PageCompressionCodec.class) : new EnumMap<>(map);
+    }
+
     private static void checkArgument(boolean condition, String message)
     {
         if (!condition) {
@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.plan;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.annotation.concurrent.Immutable;
+
+import java.util.Objects;
+
+import static com.facebook.presto.common.Utils.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lets the rows of an output partition go to any of {@code fanout} consecutive partitions,
+ * so that a heavy hitter key of a partitioned join is processed by more than one consumer.
+ * The probe side spreads the rows of its heavy hitter partitions over their group, and the
+ * build side replicates every row to all partitions of its group, so each consumer of a
+ * group has the build rows for every probe row it receives.
+ */
+@Immutable
+public class PartitionSpreading
+{
+    public enum Mode
+    {
+        SPREAD_HEAVY_HITTERS,
+        REPLICATE,
+    }
+
+    private final Mode mode;
+    private final int fanout;
+
+    @JsonCreator
+    public PartitionSpreading(
+            @JsonProperty("mode") Mode mode,
+            @JsonProperty("fanout") int fanout)
+    {
+        this.mode = requireNonNull(mode, "mode is null");
+        checkArgument(fanout > 1, "fanout must be greater than one");
+        this.fanout = fanout;
+    }
+
+    @JsonProperty
+    public Mode getMode()
+    {
+        return mode;
+    }
+
+    @JsonProperty
+    public int getFanout()
+    {
+        return fanout;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PartitionSpreading that = (PartitionSpreading) o;
+        return mode == that.mode &&
+                fanout == that.fanout;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(mode, fanout);
+    }
+
+    @Override
+    public String toString()
+    {
+        return mode + "(" + fanout + ")";
+    }
+}
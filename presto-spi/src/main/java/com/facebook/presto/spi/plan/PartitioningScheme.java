@@ -40,6 +40,7 @@ public class PartitioningScheme
     private final boolean scaleWriters;
     private final ExchangeEncoding encoding;
     private final Optional<int[]> bucketToPartition;
+    private final Optional<PartitionSpreading> partitionSpreading;
 
     public PartitioningScheme(Partitioning partitioning, List<VariableReferenceExpression> outputLayout, boolean scaleWriters)
     {
@@ -77,6 +78,26 @@ public class PartitioningScheme
                 Optional.empty());
     }
 
+    public PartitioningScheme(
+            Partitioning partitioning,
+            List<VariableReferenceExpression> outputLayout,
+            Optional<VariableReferenceExpression> hashColumn,
+            boolean replicateNullsAndAny,
+            boolean scaleWriters,
+            ExchangeEncoding encoding,
+            Optional<int[]> bucketToPartition)
+    {
+        this(
+                partitioning,
+                outputLayout,
+                hashColumn,
+                replicateNullsAndAny,
+                scaleWriters,
+                encoding,
+                bucketToPartition,
+                Optional.empty());
+    }
+
     @JsonCreator
     public PartitioningScheme(
             @JsonProperty("partitioning") Partitioning partitioning,
@@ -85,7 +106,8 @@ public class PartitioningScheme
             @JsonProperty("replicateNullsAndAny") boolean replicateNullsAndAny,
             @JsonProperty("scaleWriters") boolean scaleWriters,
             @JsonProperty("encoding") ExchangeEncoding encoding,
-            @JsonProperty("bucketToPartition") Optional<int[]> bucketToPartition)
+            @JsonProperty("bucketToPartition") Optional<int[]> bucketToPartition,
+            @JsonProperty("partitionSpreading") Optional<PartitionSpreading> partitionSpreading)
     {
         this.partitioning = requireNonNull(partitioning, "partitioning is null");
         this.outputLayout = unmodifiableList(requireNonNull(outputLayout, "outputLayout is null"));
@@ -104,6 +126,7 @@ public class PartitioningScheme
         this.scaleWriters = scaleWriters;
         this.encoding = requireNonNull(encoding, "encoding is null");
         this.bucketToPartition = requireNonNull(bucketToPartition, "bucketToPartition is null");
+        this.partitionSpreading = requireNonNull(partitionSpreading, "partitionSpreading is null");
     }
 
     @JsonProperty
@@ -148,6 +171,12 @@ public class PartitioningScheme
         return bucketToPartition;
     }
 
+    @JsonProperty
+    public Optional<PartitionSpreading> getPartitionSpreading()
+    {
+        return partitionSpreading;
+    }
+
     public PartitioningScheme withBucketToPartition(Optional<int[]> bucketToPartition)
     {
         return new PartitioningScheme(
@@ -157,7 +186,8 @@ public class PartitioningScheme
                 replicateNullsAndAny,
                 scaleWriters,
                 encoding,
-                bucketToPartition);
+                bucketToPartition,
+                partitionSpreading);
     }
 
     public PartitioningScheme withRowWiseEncoding()
@@ -169,7 +199,21 @@ public class PartitioningScheme
                 replicateNullsAndAny,
                 scaleWriters,
                 ROW_WISE,
-                bucketToPartition);
+                bucketToPartition,
+                partitionSpreading);
+    }
+
+    public PartitioningScheme withPartitionSpreading(PartitionSpreading partitionSpreading)
+    {
+        return new PartitioningScheme(
+                partitioning,
+                outputLayout,
+                hashColumn,
+                replicateNullsAndAny,
+                scaleWriters,
+                encoding,
+                bucketToPartition,
+                Optional.of(partitionSpreading));
     }
 
     public boolean isSingleOrBroadcastOrArbitrary()
@@ -192,13 +236,14 @@ public class PartitioningScheme
                 replicateNullsAndAny == that.replicateNullsAndAny &&
                 scaleWriters == that.scaleWriters &&
                 encoding == that.encoding &&
-                Objects.equals(bucketToPartition, that.bucketToPartition);
+                Objects.equals(bucketToPartition, that.bucketToPartition) &&
+                Objects.equals(partitionSpreading, that.partitionSpreading);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(partitioning, outputLayout, replicateNullsAndAny, encoding, scaleWriters, bucketToPartition);
+        return Objects.hash(partitioning, outputLayout, replicateNullsAndAny, encoding, scaleWriters, bucketToPartition, partitionSpreading);
     }
 
     @Override
@@ -211,6 +256,7 @@ public class PartitioningScheme
                 ", scaleWriters=" + scaleWriters +
                 ", encoding=" + encoding +
                 ", bucketToPartition=" + bucketToPartition +
+                ", partitionSpreading=" + partitionSpreading +
                 '}';
         return sb;
     }
@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.page;
+
+import com.google.common.collect.ImmutableSet;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.spi.page.PageCompressionCodec.LZ4;
+import static com.facebook.presto.spi.page.PageCompressionCodec.NONE;
+import static com.facebook.presto.spi.page.PageCompressionCodec.ZSTD;
+import static org.testng.Assert.assertEquals;
+
+public class TestAdaptivePageCompressionPolicy
+{
+    private static final int PAGE_SIZE = 100_000;
+    // 100 bytes per microsecond
+    private static final double NETWORK_BYTES_PER_SECOND = 100_000_000;
+
+    @Test
+    public void testSmallPagesAreNotCompressed()
+    {
+        AdaptivePageCompressionPolicy policy = new AdaptivePageCompressionPolicy(ImmutableSet.of(LZ4, ZSTD), NETWORK_BYTES_PER_SECOND, 1024);
+        assertEquals(policy.select(1023), NONE);
+        assertEquals(policy.select(1024), LZ4);
+    }
+
+    @Test
+    public void testNoCodecs()
+    {
+        AdaptivePageCompressionPolicy policy = new AdaptivePageCompressionPolicy(ImmutableSet.of(), NETWORK_BYTES_PER_SECOND, 0);
+        assertEquals(policy.select(PAGE_SIZE), NONE);
+    }
+
+    @Test
+    public void testPrefersSmallerPagesOnSlowNetwork()
+    {
+        AdaptivePageCompressionPolicy policy = new AdaptivePageCompressionPolicy(ImmutableSet.of(LZ4, ZSTD), NETWORK_BYTES_PER_SECOND, 0);
+        // LZ4: ratio 0.5 at 1 ns per byte, ZSTD: ratio 0.25 at 2 ns per byte, transfer is 10 ns per byte
+        sampleAll(policy, 0.5, 1, 0.25, 2);
+        assertEquals(policy.getPreferredCodec(), ZSTD);
+    }
+
+    @Test
+    public void testPrefersFasterCodecOnFastNetwork()
+    {
+        AdaptivePageCompressionPolicy policy = new AdaptivePageCompressionPolicy(ImmutableSet.of(LZ4, ZSTD), NETWORK_BYTES_PER_SECOND * 4, 0);
+        // transfer is 2.5 ns per byte: no compression costs 2.5, LZ4 costs 2.25, ZSTD costs 2.625
+        sampleAll(policy, 0.5, 1, 0.25, 2);
+        assertEquals(policy.getPreferredCodec(), LZ4);
+    }
+
+    @Test
+    public void testIncompressibleData()
+    {
+        AdaptivePageCompressionPolicy policy = new AdaptivePageCompressionPolicy(ImmutableSet.of(LZ4, ZSTD), NETWORK_BYTES_PER_SECOND, 0);
+        sampleAll(policy, 1, 1, 1, 2);
+        assertEquals(policy.getPreferredCodec(), NONE);
+
+        // codecs keep being re-sampled so the policy notices when the data becomes compressible
+        int explored = 0;
+        for (int i = 0; i < 62; i++) {
+            PageCompressionCodec codec = policy.select(PAGE_SIZE);
+            if (codec != NONE) {
+                explored++;
+                policy.record(codec, PAGE_SIZE, 0, 0);
+            }
+        }
+        assertEquals(explored, 2);
+        assertEquals(policy.getPreferredCodec(), LZ4);
+    }
+
+    private static void sampleAll(AdaptivePageCompressionPolicy policy, double lz4Ratio, long lz4NanosPerByte, double zstdRatio, long zstdNanosPerByte)
+    {
+        // every codec is sampled before the estimates are used
+        for (int i = 0; i < 2; i++) {
+            PageCompressionCodec codec = policy.select(PAGE_SIZE);
+            if (codec == LZ4) {
+                policy.record(LZ4, PAGE_SIZE, (int) (PAGE_SIZE * lz4Ratio), PAGE_SIZE * lz4NanosPerByte);
+            }
+            else {
+                assertEquals(codec, ZSTD);
+                policy.record(ZSTD, PAGE_SIZE, (int) (PAGE_SIZE * zstdRatio), PAGE_SIZE * zstdNanosPerByte);
+            }
+        }
+    }
+}
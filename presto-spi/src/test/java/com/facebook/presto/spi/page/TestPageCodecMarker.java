@@ -18,6 +18,7 @@ import org.testng.annotations.Test;
 
 import static com.facebook.presto.spi.page.PageCodecMarker.COMPRESSED;
 import static com.facebook.presto.spi.page.PageCodecMarker.ENCRYPTED;
+import static com.facebook.presto.spi.page.PageCodecMarker.ZSTD;
 import static com.facebook.presto.spi.page.PagesSerdeUtil.computeSerializedPageChecksum;
 import static io.airlift.slice.Slices.utf8Slice;
 import static org.testng.Assert.assertEquals;
@@ -88,6 +89,23 @@ public class TestPageCodecMarker
         }
     }
 
+    @Test
+    public void testCompressionCodecMarkers()
+    {
+        for (PageCompressionCodec codec : PageCompressionCodec.values()) {
+            byte markers = codec.setMarkers(ENCRYPTED.set(PageCodecMarker.none()));
+            assertEquals(PageCompressionCodec.fromMarkers(markers), codec);
+            assertTrue(ENCRYPTED.isSet(markers));
+        }
+
+        assertEquals(PageCompressionCodec.NONE.setMarkers(PageCodecMarker.none()), PageCodecMarker.none());
+        assertEquals(PageCompressionCodec.LZ4.setMarkers(PageCodecMarker.none()), COMPRESSED.set(PageCodecMarker.none()));
+        assertEquals(PageCompressionCodec.ZSTD.setMarkers(PageCodecMarker.none()), ZSTD.set(COMPRESSED.set(PageCodecMarker.none())));
+
+        // the ZSTD marker has no meaning without the COMPRESSED marker
+        assertEquals(PageCompressionCodec.fromMarkers(ZSTD.set(PageCodecMarker.none())), PageCompressionCodec.NONE);
+    }
+
     @Test
     public void testComputeCRC()
     {
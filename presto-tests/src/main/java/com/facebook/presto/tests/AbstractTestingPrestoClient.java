@@ -181,6 +181,7 @@ public abstract class AbstractTestingPrestoClient<T>
                 true,
                 serializedSessionFunctions,
                 ImmutableMap.of(),
+                false,
                 false);
     }
 
@@ -13,12 +13,17 @@
  */
 package com.facebook.presto.tests;
 
+import com.facebook.presto.Session;
 import com.facebook.presto.testing.QueryRunner;
 import com.facebook.presto.tests.tpch.TpchQueryRunnerBuilder;
 import com.google.common.base.Strings;
 import org.intellij.lang.annotations.Language;
 import org.testng.annotations.Test;
 
+import static com.facebook.presto.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
+import static com.facebook.presto.SystemSessionProperties.JOIN_HEAVY_HITTER_FANOUT;
+import static com.facebook.presto.SystemSessionProperties.JOIN_REORDERING_STRATEGY;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 public class TestTpchDistributedQueries
@@ -80,4 +85,38 @@ public class TestTpchDistributedQueries
         }
         assertTrue(sampleSizeFound, "Table sample returned unexpected number of rows");
     }
+
+    @Test
+    public void testJoinHeavyHitterSpreading()
+    {
+        Session session = Session.builder(getSession())
+                .setSystemProperty(JOIN_HEAVY_HITTER_FANOUT, "4")
+                .setSystemProperty(JOIN_REORDERING_STRATEGY, "NONE")
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, "PARTITIONED")
+                .build();
+
+        // few join keys, so that every partition receiving rows is a heavy hitter
+        String[] queries = {
+                "SELECT r.name, count(*) FROM lineitem l JOIN region r ON l.linenumber = r.regionkey GROUP BY r.name",
+                "SELECT r.name, count(*) FROM lineitem l LEFT JOIN region r ON l.linenumber = r.regionkey GROUP BY r.name"
+        };
+
+        for (String query : queries) {
+            String explain = (String) computeActual(session, "EXPLAIN (TYPE DISTRIBUTED) " + query).getOnlyValue();
+            assertTrue(explain.contains("Output partition spreading: SPREAD_HEAVY_HITTERS(4)"), explain);
+            assertTrue(explain.contains("Output partition spreading: REPLICATE(4)"), explain);
+
+            assertQuery(session, query);
+        }
+
+        String[] notSupportedQueries = {
+                "SELECT r.name, count(*) FROM lineitem l RIGHT JOIN region r ON l.linenumber = r.regionkey GROUP BY r.name",
+                "SELECT r.name, count(*) FROM lineitem l FULL JOIN region r ON l.linenumber = r.regionkey GROUP BY r.name"
+        };
+
+        for (String query : notSupportedQueries) {
+            String explain = (String) computeActual(session, "EXPLAIN (TYPE DISTRIBUTED) " + query).getOnlyValue();
+            assertFalse(explain.contains("Output partition spreading"), explain);
+        }
+    }
 }